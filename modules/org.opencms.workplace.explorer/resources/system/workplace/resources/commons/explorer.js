@@ -128,6 +128,10 @@ function vars_index() {
 
 	this.userName;
 	this.resource = new Array();
+
+	this.sortColumn = "";
+	this.sortAscending = true;
+	this.sortChanged = false;
 }
 
 
@@ -167,6 +171,36 @@ function setRootFolder(value) {
 }
 
 
+function setSort(column, ascending) {
+	vi.sortColumn = column;
+	vi.sortAscending = ascending;
+}
+
+
+function sortList(column) {
+	if (vi.sortColumn == column) {
+		vi.sortAscending = !vi.sortAscending;
+	} else {
+		vi.sortColumn = column;
+		vi.sortAscending = true;
+	}
+	vi.sortChanged = true;
+	openurl();
+}
+
+
+function sortHead(column, text) {
+	if (mode != "explorerview") {
+		return text;
+	}
+	var arrow = "";
+	if (vi.sortColumn == column) {
+		arrow = vi.sortAscending ? "&nbsp;&uarr;" : "&nbsp;&darr;";
+	}
+	return "<a href=\"javascript:top.sortList('" + column + "');\">" + text + arrow + "</a>";
+}
+
+
 function initHist() {
 	g_histLoc = 0;
 	g_history = new Array();
@@ -654,20 +688,20 @@ function printList(wo) {
 	wo.writeln("<td nowrap unselectable=\"on\" class=\"t\" width=\"16\">&nbsp;</td>");
 	wo.writeln("<td nowrap unselectable=\"on\" class=\"t\" width=\"16\">&nbsp;</td>");
 
-	if (vi.check_name && ((mode != "listview") && (mode != "galleryview"))) wo.writeln("<td nowrap unselectable=\"on\" class=\"t100\">&nbsp;" + vr.descr[0] + "&nbsp;</td>");
+	if (vi.check_name && ((mode != "listview") && (mode != "galleryview"))) wo.writeln("<td nowrap unselectable=\"on\" class=\"t100\">&nbsp;" + sortHead("name", vr.descr[0]) + "&nbsp;</td>");
 	if (vi.check_name && ((mode == "listview") || (mode == "galleryview"))) wo.writeln("<td nowrap unselectable=\"on\" class=\"t100\">&nbsp;" + vr.descr[14] + "&nbsp;</td>");
 	if (vi.check_title)					wo.writeln("<td nowrap unselectable=\"on\" class=\"t100\">&nbsp;" + vr.descr[1] + "&nbsp;</td>");
     if (vi.check_navtext)				wo.writeln("<td nowrap unselectable=\"on\" class=\"t100\">&nbsp;" + vr.descr[2] + "&nbsp;</td>");
-	if (vi.check_type)					wo.writeln("<td nowrap unselectable=\"on\" class=\"t75\">&nbsp;"  + vr.descr[3] + "&nbsp;</td>");
-	if (vi.check_size)					wo.writeln("<td nowrap unselectable=\"on\" class=\"t75\">&nbsp;"  + vr.descr[4] + "&nbsp;</td>");
+	if (vi.check_type)					wo.writeln("<td nowrap unselectable=\"on\" class=\"t75\">&nbsp;"  + sortHead("type", vr.descr[3]) + "&nbsp;</td>");
+	if (vi.check_size)					wo.writeln("<td nowrap unselectable=\"on\" class=\"t75\">&nbsp;"  + sortHead("size", vr.descr[4]) + "&nbsp;</td>");
 	if (vi.check_permissions)			wo.writeln("<td nowrap unselectable=\"on\" class=\"t75\">&nbsp;"  + vr.descr[5] + "&nbsp;</td>");
-	if (vi.check_dateLastModified)		wo.writeln("<td nowrap unselectable=\"on\" class=\"t125\">&nbsp;" + vr.descr[6] + "&nbsp;</td>");
+	if (vi.check_dateLastModified)		wo.writeln("<td nowrap unselectable=\"on\" class=\"t125\">&nbsp;" + sortHead("dateLastModified", vr.descr[6]) + "&nbsp;</td>");
 	if (vi.check_userWhoLastModified)	wo.writeln("<td nowrap unselectable=\"on\" class=\"t125\">&nbsp;"  + vr.descr[7] + "&nbsp;</td>");
-	if (vi.check_dateCreated)			wo.writeln("<td nowrap unselectable=\"on\" class=\"t125\">&nbsp;" + vr.descr[8] + "&nbsp;</td>");
+	if (vi.check_dateCreated)			wo.writeln("<td nowrap unselectable=\"on\" class=\"t125\">&nbsp;" + sortHead("dateCreated", vr.descr[8]) + "&nbsp;</td>");
 	if (vi.check_userWhoCreated)		wo.writeln("<td nowrap unselectable=\"on\" class=\"t125\">&nbsp;"  + vr.descr[9] + "&nbsp;</td>");
-	if (vi.check_dateReleased)			wo.writeln("<td nowrap unselectable=\"on\" class=\"t125\">&nbsp;" + vr.descr[10] + "&nbsp;</td>");
-	if (vi.check_dateExpired)			wo.writeln("<td nowrap unselectable=\"on\" class=\"t125\">&nbsp;" + vr.descr[11] + "&nbsp;</td>");
-	if (vi.check_state)					wo.writeln("<td nowrap unselectable=\"on\" class=\"t75\">&nbsp;"  + vr.descr[12] + "&nbsp;</td>");
+	if (vi.check_dateReleased)			wo.writeln("<td nowrap unselectable=\"on\" class=\"t125\">&nbsp;" + sortHead("dateReleased", vr.descr[10]) + "&nbsp;</td>");
+	if (vi.check_dateExpired)			wo.writeln("<td nowrap unselectable=\"on\" class=\"t125\">&nbsp;" + sortHead("dateExpired", vr.descr[11]) + "&nbsp;</td>");
+	if (vi.check_state)					wo.writeln("<td nowrap unselectable=\"on\" class=\"t75\">&nbsp;"  + sortHead("state", vr.descr[12]) + "&nbsp;</td>");
 	if (vi.check_lockedBy)				wo.writeln("<td nowrap unselectable=\"on\" class=\"t100\">&nbsp;"  + vr.descr[13] + "&nbsp;</td>");
 
 
@@ -977,6 +1011,11 @@ function openurl() {
 	if(win.head.forms.urlform && win.head.forms.urlform.pageSelect){
 		selectedpage = "&page=" + win.head.forms.urlform.pageSelect.value;
 	}
+	if (vi.sortChanged) {
+		// the folder is sorted on the server, start with the first page
+		selectedpage = "&page=1&sort=" + vi.sortColumn + "&order=" + (vi.sortAscending ? "asc" : "desc");
+		vi.sortChanged = false;
+	}
 	var selMode = "&mode=explorerview";
 	win.files.location.href = vr.servpath + "/system/workplace/views/explorer/explorer_files.jsp?resource=" + getDisplayResource() + selectedpage + selMode;
 }
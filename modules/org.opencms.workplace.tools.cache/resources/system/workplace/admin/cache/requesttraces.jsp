@@ -0,0 +1,7 @@
+<%@ page import="org.opencms.workplace.tools.cache.*" %><%
+
+	// initialize the list dialog
+	CmsRequestTraceList wpList = new CmsRequestTraceList(pageContext, request, response);
+	// perform the list actions 
+	wpList.displayDialog();
+%>
@@ -0,0 +1,10 @@
+<%@ page import="org.opencms.jsp.*, org.opencms.main.*, org.opencms.security.*" contentType="application/json" %><%
+
+	// dumps the request traces of the ring buffer as JSON, for workplace managers only
+	CmsJspActionElement cms = new CmsJspActionElement(pageContext, request, response);
+	if (!OpenCms.getRoleManager().hasRole(cms.getCmsObject(), CmsRole.WORKPLACE_MANAGER)) {
+		response.sendError(HttpServletResponse.SC_FORBIDDEN);
+		return;
+	}
+	out.print(OpenCms.getRequestTracer().toJson().toString(2));
+%>
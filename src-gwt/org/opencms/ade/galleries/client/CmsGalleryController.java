@@ -758,9 +758,11 @@ public class CmsGalleryController implements HasValueChangeHandlers<CmsGallerySe
                     m_loading = true;
                     CmsGallerySearchBean preparedObject = prepareSearchObject();
                     if (isNextPage) {
+                        // the result cursor of the current page is used to continue the search 
                         preparedObject.setPage(preparedObject.getPage() + 1);
                     } else {
                         preparedObject.setPage(1);
+                        preparedObject.setResultCursor(null);
                     }
                     getGalleryService().getSearch(preparedObject, this);
                 }
@@ -782,6 +784,7 @@ public class CmsGalleryController implements HasValueChangeHandlers<CmsGallerySe
                     m_searchObject.setResultCount(searchObj.getResultCount());
                     m_searchObject.setSortOrder(searchObj.getSortOrder());
                     m_searchObject.setPage(searchObj.getPage());
+                    m_searchObject.setResultCursor(searchObj.getResultCursor());
                     m_handler.onResultTabSelection(m_searchObject);
                 }
             };
@@ -30,6 +30,7 @@ package org.opencms.workplace.tools.accounts;
 import org.opencms.file.CmsGroup;
 import org.opencms.file.CmsResource;
 import org.opencms.file.CmsUser;
+import org.opencms.file.CmsUserSearchParameters;
 import org.opencms.i18n.CmsMessageContainer;
 import org.opencms.jsp.CmsJspActionElement;
 import org.opencms.main.CmsException;
@@ -123,6 +124,9 @@ public abstract class A_CmsOrgUnitsList extends A_CmsListDialog {
     /** Path to the list buttons. */
     public static final String PATH_BUTTONS = "tools/accounts/buttons/";
 
+    /** The maximum number of users shown in the users detail of an organizational unit. */
+    private static final int MAX_DETAIL_USERS = 100;
+
     /** Cached list of OUs. */
     private List m_ous;
 
@@ -235,7 +239,16 @@ public abstract class A_CmsOrgUnitsList extends A_CmsListDialog {
             StringBuffer html = new StringBuffer(512);
             try {
                 if (detailId.equals(LIST_DETAIL_USERS)) {
-                    List usersOrgUnit = OpenCms.getOrgUnitManager().getUsers(getCms(), ouFqn, false);
+                    // only show the first users, organizational units may contain a very large number of users
+                    CmsUserSearchParameters params = new CmsUserSearchParameters();
+                    params.setOrganizationalUnit(OpenCms.getOrgUnitManager().readOrganizationalUnit(getCms(), ouFqn));
+                    params.setSorting(CmsUserSearchParameters.SortKey.loginName, true);
+                    params.setPaging(MAX_DETAIL_USERS + 1, 1);
+                    List usersOrgUnit = OpenCms.getOrgUnitManager().searchUsers(getCms(), params);
+                    boolean truncated = usersOrgUnit.size() > MAX_DETAIL_USERS;
+                    if (truncated) {
+                        usersOrgUnit = usersOrgUnit.subList(0, MAX_DETAIL_USERS);
+                    }
                     Iterator itUsersOrgUnit = usersOrgUnit.iterator();
                     while (itUsersOrgUnit.hasNext()) {
                         CmsUser user = (CmsUser)itUsersOrgUnit.next();
@@ -245,6 +258,9 @@ public abstract class A_CmsOrgUnitsList extends A_CmsListDialog {
                         }
                         html.append("\n");
                     }
+                    if (truncated) {
+                        html.append("<br>...\n");
+                    }
                 } else if (detailId.equals(LIST_DETAIL_GROUPS)) {
                     List groupsOrgUnit = OpenCms.getOrgUnitManager().getGroups(getCms(), ouFqn, false);
                     Iterator itGroupsOrgUnit = groupsOrgUnit.iterator();
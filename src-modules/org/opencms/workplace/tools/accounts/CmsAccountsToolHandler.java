@@ -30,6 +30,7 @@ package org.opencms.workplace.tools.accounts;
 import org.opencms.file.CmsGroup;
 import org.opencms.file.CmsObject;
 import org.opencms.file.CmsUser;
+import org.opencms.file.CmsUserSearchParameters;
 import org.opencms.main.CmsException;
 import org.opencms.main.CmsLog;
 import org.opencms.main.OpenCms;
@@ -157,7 +158,11 @@ public class CmsAccountsToolHandler extends CmsDefaultToolHandler {
                 ouFqn = wp.getCms().getRequestContext().getOuFqn();
             }
             try {
-                if (OpenCms.getOrgUnitManager().getUsers(wp.getCms(), ouFqn, true).size() > 0) {
+                CmsUserSearchParameters params = new CmsUserSearchParameters();
+                params.setOrganizationalUnit(OpenCms.getOrgUnitManager().readOrganizationalUnit(wp.getCms(), ouFqn));
+                params.setRecursiveOrgUnits(true);
+                // only count the users instead of reading all users of the organizational unit 
+                if (OpenCms.getOrgUnitManager().countUsers(wp.getCms(), params) > 0) {
                     return false;
                 }
                 if (OpenCms.getOrgUnitManager().getGroups(wp.getCms(), ouFqn, true).size() > 0) {
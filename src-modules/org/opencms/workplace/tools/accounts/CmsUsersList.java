@@ -40,6 +40,7 @@ import org.opencms.workplace.list.CmsListItem;
 import org.opencms.workplace.list.CmsListMetadata;
 import org.opencms.workplace.list.CmsListOrderEnum;
 import org.opencms.workplace.list.CmsListState;
+import org.opencms.workplace.list.I_CmsListDataProvider;
 
 import java.util.List;
 
@@ -52,9 +53,11 @@ import com.google.common.collect.Lists;
 /**
  * Main system user account management view.<p>
  * 
+ * If the list is lazy, the users are filtered, sorted and paged by the database.<p>
+ * 
  * @since 6.0.0 
  */
-public class CmsUsersList extends A_CmsUsersList {
+public class CmsUsersList extends A_CmsUsersList implements I_CmsListDataProvider {
 
     /** list id constant. */
     public static final String LIST_ID = "lsu";
@@ -104,6 +107,30 @@ public class CmsUsersList extends A_CmsUsersList {
         this(new CmsJspActionElement(context, req, res), lazy);
     }
 
+    /**
+     * @see org.opencms.workplace.list.I_CmsListDataProvider#getListItems(org.opencms.workplace.list.CmsListState, int)
+     */
+    public List<CmsListItem> getListItems(CmsListState state, int pageSize) throws CmsException {
+
+        List<CmsUser> users = OpenCms.getOrgUnitManager().searchUsers(getCms(), getSearchParams(state, pageSize));
+        List<CmsListItem> result = Lists.newArrayList();
+        for (CmsUser user : users) {
+            CmsListItem item = makeListItemForUser(user);
+            result.add(item);
+        }
+        return result;
+    }
+
+    /**
+     * @see org.opencms.workplace.list.I_CmsListDataProvider#getListSize(org.opencms.workplace.list.CmsListState)
+     */
+    public int getListSize(CmsListState state) throws CmsException {
+
+        return (int)OpenCms.getOrgUnitManager().countUsers(
+            getCms(),
+            getSearchParams(state, getList().getMaxItemsPerPage()));
+    }
+
     /**
      * @see org.opencms.workplace.tools.accounts.A_CmsUsersList#getGroupIcon()
      */
@@ -113,42 +140,34 @@ public class CmsUsersList extends A_CmsUsersList {
     }
 
     /**
-     * @see org.opencms.workplace.tools.accounts.A_CmsUsersList#getListItems()
+     * Gets the search parameters.<p>
+     * 
+     * @return the search parameters 
+     * 
+     * @throws CmsException if something goes wrong 
      */
-    @Override
-    protected List<CmsListItem> getListItems() throws CmsException {
-
-        if (!m_lazy) {
-            return super.getListItems();
-        } else {
-            CmsUserSearchParameters params = getSearchParams();
-            List<CmsUser> users = OpenCms.getOrgUnitManager().searchUsers(getCms(), params);
-            int count = (int)OpenCms.getOrgUnitManager().countUsers(getCms(), params);
-            getList().setSize(count);
-            List<CmsListItem> result = Lists.newArrayList();
-            for (CmsUser user : users) {
-                CmsListItem item = makeListItemForUser(user);
-                result.add(item);
-            }
-            return result;
-        }
+    protected CmsUserSearchParameters getSearchParams() throws CmsException {
+
+        return getSearchParams(getListState(), getList().getMaxItemsPerPage());
     }
 
     /**
-     * Gets the search parameters.<p>
+     * Gets the search parameters for the given list state.<p>
+     * 
+     * @param state the list state 
+     * @param pageSize the maximum number of users per page 
      * 
      * @return the search parameters 
      * 
      * @throws CmsException if something goes wrong 
      */
-    protected CmsUserSearchParameters getSearchParams() throws CmsException {
+    protected CmsUserSearchParameters getSearchParams(CmsListState state, int pageSize) throws CmsException {
 
-        CmsListState state = getListState();
         CmsUserSearchParameters params = new CmsUserSearchParameters();
         String searchFilter = state.getFilter();
         params.setSearchFilter(searchFilter);
         params.setFilterCore(true);
-        params.setPaging(getList().getMaxItemsPerPage(), state.getPage());
+        params.setPaging(pageSize, state.getPage());
         params.setSorting(getSortKey(state.getColumn()), state.getOrder().equals(CmsListOrderEnum.ORDER_ASCENDING));
         params.setOrganizationalUnit(OpenCms.getOrgUnitManager().readOrganizationalUnit(getCms(), getParamOufqn()));
         params.setRecursiveOrgUnits(false);
@@ -203,9 +222,6 @@ public class CmsUsersList extends A_CmsUsersList {
     @Override
     protected void setColumns(CmsListMetadata metadata) {
 
-        if (m_lazy) {
-            metadata.setSelfManaged(true);
-        }
         super.setColumns(metadata);
         metadata.getColumnDefinition(LIST_COLUMN_ENABLED).setVisible(true);
         metadata.getColumnDefinition(LIST_COLUMN_ACTIVATE).setVisible(false);
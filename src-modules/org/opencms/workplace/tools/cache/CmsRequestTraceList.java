@@ -0,0 +1,313 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.workplace.tools.cache;
+
+import org.opencms.i18n.CmsEncoder;
+import org.opencms.jsp.CmsJspActionElement;
+import org.opencms.main.CmsRuntimeException;
+import org.opencms.main.OpenCms;
+import org.opencms.monitor.CmsRequestTrace;
+import org.opencms.monitor.CmsRequestTracer;
+import org.opencms.workplace.list.A_CmsListDialog;
+import org.opencms.workplace.list.CmsListColumnAlignEnum;
+import org.opencms.workplace.list.CmsListColumnDefinition;
+import org.opencms.workplace.list.CmsListDateMacroFormatter;
+import org.opencms.workplace.list.CmsListItem;
+import org.opencms.workplace.list.CmsListItemDetails;
+import org.opencms.workplace.list.CmsListItemDetailsFormatter;
+import org.opencms.workplace.list.CmsListMetadata;
+import org.opencms.workplace.list.CmsListOrderEnum;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.jsp.PageContext;
+
+/**
+ * Request trace view, shows the performance traces of the latest sampled requests.<p>
+ *
+ * @since 8.0.2
+ */
+public class CmsRequestTraceList extends A_CmsListDialog {
+
+    /** list column id constant. */
+    public static final String LIST_COLUMN_DURATION = "cd";
+
+    /** list column id constant. */
+    public static final String LIST_COLUMN_HITS = "ch";
+
+    /** list column id constant. */
+    public static final String LIST_COLUMN_MISSES = "cm";
+
+    /** list column id constant. */
+    public static final String LIST_COLUMN_SQL = "cs";
+
+    /** list column id constant. */
+    public static final String LIST_COLUMN_TIME = "ct";
+
+    /** list column id constant. */
+    public static final String LIST_COLUMN_URI = "cu";
+
+    /** list item detail id constant. */
+    public static final String LIST_DETAIL_COUNTERS = "dc";
+
+    /** list item detail id constant. */
+    public static final String LIST_DETAIL_SPANS = "ds";
+
+    /** list id constant. */
+    public static final String LIST_ID = "lrt";
+
+    /**
+     * Public constructor.<p>
+     *
+     * @param jsp an initialized JSP action element
+     */
+    public CmsRequestTraceList(CmsJspActionElement jsp) {
+
+        super(
+            jsp,
+            LIST_ID,
+            Messages.get().container(Messages.GUI_REQUESTTRACE_LIST_NAME_0),
+            LIST_COLUMN_TIME,
+            CmsListOrderEnum.ORDER_DESCENDING,
+            LIST_COLUMN_URI);
+    }
+
+    /**
+     * Public constructor with JSP variables.<p>
+     *
+     * @param context the JSP page context
+     * @param req the JSP request
+     * @param res the JSP response
+     */
+    public CmsRequestTraceList(PageContext context, HttpServletRequest req, HttpServletResponse res) {
+
+        this(new CmsJspActionElement(context, req, res));
+    }
+
+    /**
+     * @see org.opencms.workplace.list.A_CmsListDialog#defaultActionHtmlStart()
+     */
+    public String defaultActionHtmlStart() {
+
+        return getList().listJs() + dialogContentStart(getParamTitle());
+    }
+
+    /**
+     * @see org.opencms.workplace.list.A_CmsListDialog#executeListMultiActions()
+     */
+    public void executeListMultiActions() throws CmsRuntimeException {
+
+        throwListUnsupportedActionException();
+    }
+
+    /**
+     * @see org.opencms.workplace.list.A_CmsListDialog#executeListSingleActions()
+     */
+    public void executeListSingleActions() {
+
+        throwListUnsupportedActionException();
+    }
+
+    /**
+     * @see org.opencms.workplace.list.A_CmsListDialog#fillDetails(java.lang.String)
+     */
+    protected void fillDetails(String detailId) {
+
+        // the details are set together with the list items, since the traces may change in between
+    }
+
+    /**
+     * @see org.opencms.workplace.list.A_CmsListDialog#getListItems()
+     */
+    protected List getListItems() {
+
+        List ret = new ArrayList();
+        CmsRequestTracer tracer = OpenCms.getRequestTracer();
+        if (tracer == null) {
+            return ret;
+        }
+        Iterator itTraces = tracer.getTraces().iterator();
+        int count = 0;
+        while (itTraces.hasNext()) {
+            CmsRequestTrace trace = (CmsRequestTrace)itTraces.next();
+            CmsListItem item = getList().newItem(String.valueOf(count++));
+            item.set(LIST_COLUMN_TIME, new Date(trace.getTime()));
+            item.set(LIST_COLUMN_URI, trace.getUri());
+            item.set(LIST_COLUMN_DURATION, new Long(trace.getDuration()));
+            item.set(LIST_COLUMN_SQL, new Integer(trace.getCount(CmsRequestTracer.COUNTER_SQL)));
+            int hits = 0;
+            int misses = 0;
+            StringBuffer counters = new StringBuffer(256);
+            Iterator itCounters = trace.getCounters().entrySet().iterator();
+            while (itCounters.hasNext()) {
+                Map.Entry entry = (Map.Entry)itCounters.next();
+                String name = (String)entry.getKey();
+                int value = ((Integer)entry.getValue()).intValue();
+                if (name.endsWith(".hit")) {
+                    hits += value;
+                } else if (name.endsWith(".miss")) {
+                    misses += value;
+                }
+                counters.append(CmsEncoder.escapeXml(name)).append(": ").append(value).append("<br>\n");
+            }
+            item.set(LIST_COLUMN_HITS, new Integer(hits));
+            item.set(LIST_COLUMN_MISSES, new Integer(misses));
+            item.set(LIST_DETAIL_COUNTERS, counters.toString());
+
+            StringBuffer spans = new StringBuffer(1024);
+            if (trace.getError() != null) {
+                spans.append(CmsEncoder.escapeXml(trace.getError())).append("<br>\n");
+            }
+            Iterator itSpans = trace.getSpans().iterator();
+            while (itSpans.hasNext()) {
+                CmsRequestTrace.CmsTraceSpan span = (CmsRequestTrace.CmsTraceSpan)itSpans.next();
+                for (int i = 0; i < span.getDepth(); i++) {
+                    spans.append("&nbsp;&nbsp;&nbsp;&nbsp;");
+                }
+                spans.append(span.getName());
+                if (span.getDetail() != null) {
+                    spans.append(" ").append(CmsEncoder.escapeXml(span.getDetail()));
+                }
+                spans.append(": ").append(span.getDuration()).append(" (+").append(span.getStart()).append(")<br>\n");
+            }
+            item.set(LIST_DETAIL_SPANS, spans.toString());
+            ret.add(item);
+        }
+        return ret;
+    }
+
+    /**
+     * @see org.opencms.workplace.CmsWorkplace#initMessages()
+     */
+    protected void initMessages() {
+
+        // add specific dialog resource bundle
+        addMessages(Messages.get().getBundleName());
+        // add default resource bundles
+        super.initMessages();
+    }
+
+    /**
+     * @see org.opencms.workplace.list.A_CmsListDialog#setColumns(org.opencms.workplace.list.CmsListMetadata)
+     */
+    protected void setColumns(CmsListMetadata metadata) {
+
+        // create column for the request time
+        CmsListColumnDefinition timeCol = new CmsListColumnDefinition(LIST_COLUMN_TIME);
+        timeCol.setName(Messages.get().container(Messages.GUI_REQUESTTRACE_LIST_COLS_TIME_0));
+        timeCol.setWidth("15%");
+        timeCol.setFormatter(CmsListDateMacroFormatter.getDefaultDateFormatter());
+        metadata.addColumn(timeCol);
+
+        // create column for the requested uri
+        CmsListColumnDefinition uriCol = new CmsListColumnDefinition(LIST_COLUMN_URI);
+        uriCol.setName(Messages.get().container(Messages.GUI_REQUESTTRACE_LIST_COLS_URI_0));
+        uriCol.setWidth("45%");
+        metadata.addColumn(uriCol);
+
+        // create column for the duration
+        CmsListColumnDefinition durationCol = new CmsListColumnDefinition(LIST_COLUMN_DURATION);
+        durationCol.setName(Messages.get().container(Messages.GUI_REQUESTTRACE_LIST_COLS_DURATION_0));
+        durationCol.setWidth("10%");
+        durationCol.setAlign(CmsListColumnAlignEnum.ALIGN_RIGHT);
+        metadata.addColumn(durationCol);
+
+        // create column for the number of SQL statements
+        CmsListColumnDefinition sqlCol = new CmsListColumnDefinition(LIST_COLUMN_SQL);
+        sqlCol.setName(Messages.get().container(Messages.GUI_REQUESTTRACE_LIST_COLS_SQL_0));
+        sqlCol.setWidth("10%");
+        sqlCol.setAlign(CmsListColumnAlignEnum.ALIGN_RIGHT);
+        metadata.addColumn(sqlCol);
+
+        // create column for the number of cache hits
+        CmsListColumnDefinition hitsCol = new CmsListColumnDefinition(LIST_COLUMN_HITS);
+        hitsCol.setName(Messages.get().container(Messages.GUI_REQUESTTRACE_LIST_COLS_HITS_0));
+        hitsCol.setWidth("10%");
+        hitsCol.setAlign(CmsListColumnAlignEnum.ALIGN_RIGHT);
+        metadata.addColumn(hitsCol);
+
+        // create column for the number of cache misses
+        CmsListColumnDefinition missesCol = new CmsListColumnDefinition(LIST_COLUMN_MISSES);
+        missesCol.setName(Messages.get().container(Messages.GUI_REQUESTTRACE_LIST_COLS_MISSES_0));
+        missesCol.setWidth("10%");
+        missesCol.setAlign(CmsListColumnAlignEnum.ALIGN_RIGHT);
+        metadata.addColumn(missesCol);
+    }
+
+    /**
+     * @see org.opencms.workplace.list.A_CmsListDialog#setIndependentActions(org.opencms.workplace.list.CmsListMetadata)
+     */
+    protected void setIndependentActions(CmsListMetadata metadata) {
+
+        // add spans details
+        CmsListItemDetails spansDetails = new CmsListItemDetails(LIST_DETAIL_SPANS);
+        spansDetails.setAtColumn(LIST_COLUMN_URI);
+        spansDetails.setVisible(false);
+        spansDetails.setShowActionName(Messages.get().container(Messages.GUI_REQUESTTRACE_DETAIL_SHOW_SPANS_NAME_0));
+        spansDetails.setShowActionHelpText(Messages.get().container(
+            Messages.GUI_REQUESTTRACE_DETAIL_SHOW_SPANS_HELP_0));
+        spansDetails.setHideActionName(Messages.get().container(Messages.GUI_REQUESTTRACE_DETAIL_HIDE_SPANS_NAME_0));
+        spansDetails.setHideActionHelpText(Messages.get().container(
+            Messages.GUI_REQUESTTRACE_DETAIL_HIDE_SPANS_HELP_0));
+        spansDetails.setName(Messages.get().container(Messages.GUI_REQUESTTRACE_DETAIL_SPANS_NAME_0));
+        spansDetails.setFormatter(new CmsListItemDetailsFormatter(Messages.get().container(
+            Messages.GUI_REQUESTTRACE_DETAIL_SPANS_NAME_0)));
+        metadata.addItemDetails(spansDetails);
+
+        // add counters details
+        CmsListItemDetails countersDetails = new CmsListItemDetails(LIST_DETAIL_COUNTERS);
+        countersDetails.setAtColumn(LIST_COLUMN_URI);
+        countersDetails.setVisible(false);
+        countersDetails.setShowActionName(Messages.get().container(
+            Messages.GUI_REQUESTTRACE_DETAIL_SHOW_COUNTERS_NAME_0));
+        countersDetails.setShowActionHelpText(Messages.get().container(
+            Messages.GUI_REQUESTTRACE_DETAIL_SHOW_COUNTERS_HELP_0));
+        countersDetails.setHideActionName(Messages.get().container(
+            Messages.GUI_REQUESTTRACE_DETAIL_HIDE_COUNTERS_NAME_0));
+        countersDetails.setHideActionHelpText(Messages.get().container(
+            Messages.GUI_REQUESTTRACE_DETAIL_HIDE_COUNTERS_HELP_0));
+        countersDetails.setName(Messages.get().container(Messages.GUI_REQUESTTRACE_DETAIL_COUNTERS_NAME_0));
+        countersDetails.setFormatter(new CmsListItemDetailsFormatter(Messages.get().container(
+            Messages.GUI_REQUESTTRACE_DETAIL_COUNTERS_NAME_0)));
+        metadata.addItemDetails(countersDetails);
+    }
+
+    /**
+     * @see org.opencms.workplace.list.A_CmsListDialog#setMultiActions(org.opencms.workplace.list.CmsListMetadata)
+     */
+    protected void setMultiActions(CmsListMetadata metadata) {
+
+        // no multi actions
+    }
+}
@@ -211,6 +211,66 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String GUI_JSP_REPOSITORY_ADMIN_TOOL_NAME_0 = "GUI_JSP_REPOSITORY_ADMIN_TOOL_NAME_0";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String GUI_REQUESTTRACE_ADMIN_TOOL_GROUP_0 = "GUI_REQUESTTRACE_ADMIN_TOOL_GROUP_0";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String GUI_REQUESTTRACE_ADMIN_TOOL_HELP_0 = "GUI_REQUESTTRACE_ADMIN_TOOL_HELP_0";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String GUI_REQUESTTRACE_ADMIN_TOOL_NAME_0 = "GUI_REQUESTTRACE_ADMIN_TOOL_NAME_0";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String GUI_REQUESTTRACE_DETAIL_COUNTERS_NAME_0 = "GUI_REQUESTTRACE_DETAIL_COUNTERS_NAME_0";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String GUI_REQUESTTRACE_DETAIL_HIDE_COUNTERS_HELP_0 = "GUI_REQUESTTRACE_DETAIL_HIDE_COUNTERS_HELP_0";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String GUI_REQUESTTRACE_DETAIL_HIDE_COUNTERS_NAME_0 = "GUI_REQUESTTRACE_DETAIL_HIDE_COUNTERS_NAME_0";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String GUI_REQUESTTRACE_DETAIL_HIDE_SPANS_HELP_0 = "GUI_REQUESTTRACE_DETAIL_HIDE_SPANS_HELP_0";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String GUI_REQUESTTRACE_DETAIL_HIDE_SPANS_NAME_0 = "GUI_REQUESTTRACE_DETAIL_HIDE_SPANS_NAME_0";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String GUI_REQUESTTRACE_DETAIL_SHOW_COUNTERS_HELP_0 = "GUI_REQUESTTRACE_DETAIL_SHOW_COUNTERS_HELP_0";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String GUI_REQUESTTRACE_DETAIL_SHOW_COUNTERS_NAME_0 = "GUI_REQUESTTRACE_DETAIL_SHOW_COUNTERS_NAME_0";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String GUI_REQUESTTRACE_DETAIL_SHOW_SPANS_HELP_0 = "GUI_REQUESTTRACE_DETAIL_SHOW_SPANS_HELP_0";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String GUI_REQUESTTRACE_DETAIL_SHOW_SPANS_NAME_0 = "GUI_REQUESTTRACE_DETAIL_SHOW_SPANS_NAME_0";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String GUI_REQUESTTRACE_DETAIL_SPANS_NAME_0 = "GUI_REQUESTTRACE_DETAIL_SPANS_NAME_0";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String GUI_REQUESTTRACE_LIST_COLS_DURATION_0 = "GUI_REQUESTTRACE_LIST_COLS_DURATION_0";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String GUI_REQUESTTRACE_LIST_COLS_HITS_0 = "GUI_REQUESTTRACE_LIST_COLS_HITS_0";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String GUI_REQUESTTRACE_LIST_COLS_MISSES_0 = "GUI_REQUESTTRACE_LIST_COLS_MISSES_0";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String GUI_REQUESTTRACE_LIST_COLS_SQL_0 = "GUI_REQUESTTRACE_LIST_COLS_SQL_0";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String GUI_REQUESTTRACE_LIST_COLS_TIME_0 = "GUI_REQUESTTRACE_LIST_COLS_TIME_0";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String GUI_REQUESTTRACE_LIST_COLS_URI_0 = "GUI_REQUESTTRACE_LIST_COLS_URI_0";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String GUI_REQUESTTRACE_LIST_NAME_0 = "GUI_REQUESTTRACE_LIST_NAME_0";
+
     /** Name of the used resource bundle. */
     private static final String BUNDLE_NAME = "org.opencms.workplace.tools.cache.messages";
 
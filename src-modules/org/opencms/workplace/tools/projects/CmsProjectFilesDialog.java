@@ -39,6 +39,7 @@ import org.opencms.workplace.list.A_CmsListExplorerDialog;
 import org.opencms.workplace.list.CmsHtmlList;
 import org.opencms.workplace.list.CmsListDropdownAction;
 import org.opencms.workplace.list.CmsListMetadata;
+import org.opencms.workplace.list.CmsListOrderEnum;
 import org.opencms.workplace.list.I_CmsListResourceCollector;
 
 import java.util.Iterator;
@@ -76,7 +77,15 @@ public class CmsProjectFilesDialog extends A_CmsListExplorerDialog {
      */
     public CmsProjectFilesDialog(CmsJspActionElement jsp) {
 
-        super(jsp, LIST_ID, Messages.get().container(Messages.GUI_PROJECT_FILES_LIST_NAME_0));
+        // the files are paged by the collector, only the files of the current page are kept in the session
+        super(
+            jsp,
+            LIST_ID,
+            Messages.get().container(Messages.GUI_PROJECT_FILES_LIST_NAME_0),
+            LIST_COLUMN_NAME,
+            CmsListOrderEnum.ORDER_ASCENDING,
+            LIST_COLUMN_NAME,
+            true);
     }
 
     /**
@@ -192,7 +192,7 @@ public class CmsADEManager implements I_CmsEventListener {
             cacheSettings = new CmsADECacheSettings();
         }
         m_onlineCms = adminCms;
-        m_cache = new CmsADECache(memoryMonitor, cacheSettings);
+        m_cache = new CmsADECache(memoryMonitor, cacheSettings, adminCms);
 
         // further initialization is done by the initialize() method. We don't do that in the constructor,
         // because during the setup the configuration resource types don't exist yet.
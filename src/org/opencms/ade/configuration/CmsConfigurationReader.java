@@ -201,8 +201,17 @@ public class CmsConfigurationReader {
         preview = (previewLoc != null) && Boolean.parseBoolean(previewLoc.asString(m_cms));
         String jsp = m_cms.getRequestContext().addSiteRoot(getString(node.getSubValue("Jsp")));
         boolean searchContent = true;
-        CmsFormatterBean formatterBean = new CmsFormatterBean(type, jsp, minWidth, maxWidth, "" + preview, ""
-            + searchContent, null);
+        I_CmsXmlContentValueLocation renderCacheLoc = node.getSubValue("RenderCache");
+        boolean renderCache = (renderCacheLoc != null) && Boolean.parseBoolean(renderCacheLoc.asString(m_cms));
+        CmsFormatterBean formatterBean = new CmsFormatterBean(
+            type,
+            jsp,
+            minWidth,
+            maxWidth,
+            "" + preview,
+            "" + searchContent,
+            "" + renderCache,
+            null);
         return formatterBean;
 
     }
@@ -72,11 +72,12 @@ public class CmsContainerpageActionElement extends CmsGwtActionElement {
     public String export() throws Exception {
 
         StringBuffer sb = new StringBuffer();
-        sb.append(ClientMessages.get().export(getRequest()));
         String prefetchedData = serialize(I_CmsContainerpageService.class.getMethod("prefetch"), getCntPageData());
         sb.append(CmsCntPageData.DICT_NAME).append("='").append(prefetchedData).append("';");
         sb.append(CmsContainer.KEY_CONTAINER_DATA).append("= new Array();");
-        return wrapScript(sb).toString();
+        wrapScript(sb);
+        sb.insert(0, exportMessages(ClientMessages.get()));
+        return sb.toString();
     }
 
     /**
@@ -169,7 +169,6 @@ public class CmsGalleryActionElement extends CmsGwtActionElement {
         }
 
         StringBuffer sb = new StringBuffer();
-        sb.append(ClientMessages.get().export(getRequest()));
         sb.append(CmsGalleryDataBean.DICT_NAME).append("='");
         sb.append(serialize(I_CmsGalleryService.class.getMethod("getInitialSettings"), data));
         sb.append("';");
@@ -177,6 +176,7 @@ public class CmsGalleryActionElement extends CmsGwtActionElement {
             serialize(I_CmsGalleryService.class.getMethod("getSearch", CmsGalleryDataBean.class), search));
         sb.append("';");
         wrapScript(sb);
+        sb.insert(0, exportMessages(ClientMessages.get()));
         return sb.toString();
     }
 
@@ -695,7 +695,10 @@ public class CmsGalleryService extends CmsGwtService implements I_CmsGalleryServ
                     break;
                 }
             }
-            if (!found && ((searchResults.getHitCount() / (currentPage * params.getMatchesPerPage())) >= 1)) {
+            // the hit count is an upper bound, so stop after a page that is not complete
+            if (!found
+                && (searchResults.size() >= params.getMatchesPerPage())
+                && ((searchResults.getHitCount() / (currentPage * params.getMatchesPerPage())) >= 1)) {
                 currentPage++;
             } else {
                 break;
@@ -961,6 +964,8 @@ public class CmsGalleryService extends CmsGwtService implements I_CmsGalleryServ
         // set the result page to the parameters
         int page = searchData.getPage();
         params.setResultPage(page);
+        // continue after the last result of the previous page
+        params.setResultCursor(searchData.getResultCursor());
 
         // set the locale to the parameters
         String locale = searchData.getLocale();
@@ -1088,6 +1093,7 @@ public class CmsGalleryService extends CmsGwtService implements I_CmsGalleryServ
         searchObjBean.setSortOrder(params.getSortOrder().name());
         searchObjBean.setResultCount(searchResults.getHitCount());
         searchObjBean.setPage(params.getResultPage());
+        searchObjBean.setResultCursor(searchResults.getNextCursor());
         searchObjBean.setResults(buildSearchResultList(searchResults));
 
         return searchObjBean;
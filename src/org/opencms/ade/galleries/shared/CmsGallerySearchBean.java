@@ -96,6 +96,9 @@ public class CmsGallerySearchBean implements IsSerializable {
     /** The number of all search results. */
     private int m_resultCount;
 
+    /** The cursor that marks where the next result page starts. */
+    private String m_resultCursor;
+
     /** The results to display in the list of search results. */
     private List<CmsResultItemBean> m_results;
 
@@ -136,6 +139,7 @@ public class CmsGallerySearchBean implements IsSerializable {
         setSortOrder(searchObj.getSortOrder());
         setTabId(searchObj.getTabId());
         setPage(searchObj.getPage());
+        setResultCursor(searchObj.getResultCursor());
         setDateCreatedEnd(searchObj.getDateCreatedEnd());
         setDateCreatedStart(searchObj.getDateCreatedStart());
         setDateModifiedEnd(searchObj.getDateModifiedEnd());
@@ -375,6 +379,16 @@ public class CmsGallerySearchBean implements IsSerializable {
         return m_resultCount;
     }
 
+    /**
+     * Returns the cursor that marks where the next result page starts.<p>
+     *
+     * @return the result cursor, or <code>null</code> if not known
+     */
+    public String getResultCursor() {
+
+        return m_resultCursor;
+    }
+
     /**
      * Returns the results.<p>
      *
@@ -418,10 +432,16 @@ public class CmsGallerySearchBean implements IsSerializable {
     /**
      * Checks if there are more search items available on the next page.<p>
      * 
+     * The result count is an upper bound, so a page that is not complete is always the last page.<p>
+     * 
      * @return <code>true</code> if there are more search results available <code>false</code> otherwise
      */
     public boolean hasMore() {
 
+        if ((m_results != null) && (m_results.size() < m_matchesPerPage)) {
+            // the current page is not complete, so there are no more results
+            return false;
+        }
         return (m_resultCount > m_page * m_matchesPerPage);
     }
 
@@ -635,6 +655,16 @@ public class CmsGallerySearchBean implements IsSerializable {
         m_resultCount = resultCount;
     }
 
+    /**
+     * Sets the cursor that marks where the next result page starts.<p>
+     *
+     * @param resultCursor the result cursor to set
+     */
+    public void setResultCursor(String resultCursor) {
+
+        m_resultCursor = resultCursor;
+    }
+
     /**
      * Sets the results.<p>
      *
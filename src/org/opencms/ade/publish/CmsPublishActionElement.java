@@ -59,9 +59,7 @@ public class CmsPublishActionElement extends CmsGwtActionElement {
     @Override
     public String export() throws Exception {
 
-        StringBuffer sb = new StringBuffer();
-        sb.append(ClientMessages.get().export(getRequest()));
-        return wrapScript(sb).toString();
+        return exportMessages(ClientMessages.get());
     }
 
     /**
@@ -75,8 +75,9 @@ public class CmsSitemapActionElement extends CmsGwtActionElement {
             I_CmsSitemapService.class.getMethod("prefetch", String.class),
             getSitemapData());
         sb.append(CmsSitemapData.DICT_NAME).append("='").append(prefetchedData).append("';");
-        sb.append(ClientMessages.get().export(getRequest()));
-        return wrapScript(sb).toString();
+        wrapScript(sb);
+        sb.append(exportMessages(ClientMessages.get()));
+        return sb.toString();
     }
 
     /**
@@ -99,8 +99,8 @@ public class CmsUploadActionElement extends CmsGwtActionElement {
         StringBuffer sb = new StringBuffer();
         String prefetchedData = serialize(I_CmsUploadService.class.getMethod("prefetch"), getUploadData());
         sb.append(CmsUploadData.DICT_NAME).append("='").append(prefetchedData).append("';");
-        sb.append(ClientMessages.get().export(getRequest()));
         wrapScript(sb);
+        sb.append(exportMessages(ClientMessages.get()));
         return sb.toString();
     }
 
@@ -167,6 +167,9 @@ public class CmsSearchConfiguration extends A_CmsXmlConfiguration {
     /** Node name constant. */
     public static final String N_OFFLINE_UPDATE_FREQUENCY = "offlineUpdateFrequency";
 
+    /** Node name constant. */
+    public static final String N_ONLINE_UPDATE_FREQUENCY = "onlineUpdateFrequency";
+
     /** Node name constant. */
     public static final String N_PROJECT = "project";
 
@@ -228,6 +231,9 @@ public class CmsSearchConfiguration extends A_CmsXmlConfiguration {
         // offline update rule
         digester.addCallMethod(XPATH_SEARCH + "/" + N_OFFLINE_UPDATE_FREQUENCY, "setOfflineUpdateFrequency", 0);
 
+        // online update rule
+        digester.addCallMethod(XPATH_SEARCH + "/" + N_ONLINE_UPDATE_FREQUENCY, "setOnlineUpdateFrequency", 0);
+
         // forceunlock rule
         digester.addCallMethod(XPATH_SEARCH + "/" + N_FORCEUNLOCK, "setForceunlock", 0);
 
@@ -353,6 +359,11 @@ public class CmsSearchConfiguration extends A_CmsXmlConfiguration {
         //add <offlineUpdateFrequency> element
         searchElement.addElement(N_OFFLINE_UPDATE_FREQUENCY).addText(
             String.valueOf(m_searchManager.getOfflineUpdateFrequency()));
+        //add <onlineUpdateFrequency> element
+        if (m_searchManager.getOnlineUpdateFrequency() > 0) {
+            searchElement.addElement(N_ONLINE_UPDATE_FREQUENCY).addText(
+                String.valueOf(m_searchManager.getOnlineUpdateFrequency()));
+        }
         // add <forceunlock> element
         if (m_searchManager.getForceunlock() != null) {
             searchElement.addElement(N_FORCEUNLOCK).addText(m_searchManager.getForceunlock().toString());
@@ -93,9 +93,21 @@ public class CmsSystemConfiguration extends A_CmsXmlConfiguration {
     /** The "exclusive" attribute. */
     public static final String A_EXCLUSIVE = "exclusive";
 
+    /** The "executor" attribute. */
+    public static final String A_EXECUTOR = "executor";
+
+    /** The "file" attribute. */
+    public static final String A_FILE = "file";
+
+    /** The "maxbytes" attribute. */
+    public static final String A_MAXBYTES = "maxbytes";
+
     /** The "maxvisited" attribute. */
     public static final String A_MAXVISITED = "maxvisited";
 
+    /** The "minbytes" attribute. */
+    public static final String A_MINBYTES = "minbytes";
+
     /** The "mode" attribute. */
     public static final String A_MODE = "mode";
 
@@ -114,6 +126,9 @@ public class CmsSystemConfiguration extends A_CmsXmlConfiguration {
     /** The "server" attribute. */
     public static final String A_SERVER = "server";
 
+    /** The "slabbytes" attribute. */
+    public static final String A_SLABBYTES = "slabbytes";
+
     /** The name of the DTD for this configuration. */
     public static final String CONFIGURATION_DTD_NAME = "opencms-system.dtd";
 
@@ -150,6 +165,9 @@ public class CmsSystemConfiguration extends A_CmsXmlConfiguration {
     /** The node name for a job class. */
     public static final String N_CLASS = "class";
 
+    /** The node name for the compressed variants of the flex cache. */
+    public static final String N_COMPRESSION = "compression";
+
     /** The configuration node name. */
     public static final String N_CONFIGURATION = "configuration";
 
@@ -282,6 +300,9 @@ public class CmsSystemConfiguration extends A_CmsXmlConfiguration {
     /** The node name for the maxcachebytes node. */
     public static final String N_MAXCACHEBYTES = "maxcachebytes";
 
+    /** The node name for the maximum number of concurrent executions of a scheduled job. */
+    public static final String N_MAXCONCURRENT = "maxconcurrent";
+
     /** The node name for the maxentrybytes node. */
     public static final String N_MAXENTRYBYTES = "maxentrybytes";
 
@@ -303,6 +324,9 @@ public class CmsSystemConfiguration extends A_CmsXmlConfiguration {
     /** The duration after which responsibles will be notified about out-dated content. */
     public static final String N_NOTIFICATION_TIME = "notification-time";
 
+    /** The node name for the off-heap storage of the flex cache. */
+    public static final String N_OFFHEAP_STORAGE = "offheap-storage";
+
     /** The node name for the job parameters. */
     public static final String N_PARAMETERS = "parameters";
 
@@ -339,6 +363,9 @@ public class CmsSystemConfiguration extends A_CmsXmlConfiguration {
     /** The node name for the context remote addr. */
     public static final String N_REMOTEADDR = "remoteaddr";
 
+    /** The rendered elements node name. */
+    public static final String N_RENDEREDELEMENTS = "renderedelements";
+
     /** The node name for the context requested uri. */
     public static final String N_REQUESTEDURI = "requesteduri";
 
@@ -574,6 +601,9 @@ public class CmsSystemConfiguration extends A_CmsXmlConfiguration {
     /** The configured schedule manager. */
     private CmsScheduleManager m_scheduleManager;
 
+    /** The configured executor name for the scheduled jobs. */
+    private String m_schedulerExecutor;
+
     /** The configured session storage provider class name. */
     private String m_sessionStorageProvider;
 
@@ -693,7 +723,7 @@ public class CmsSystemConfiguration extends A_CmsXmlConfiguration {
      */
     public void addScheduleManager() {
 
-        m_scheduleManager = new CmsScheduleManager(m_configuredJobs);
+        m_scheduleManager = new CmsScheduleManager(m_configuredJobs, m_schedulerExecutor);
     }
 
     /**
@@ -749,6 +779,9 @@ public class CmsSystemConfiguration extends A_CmsXmlConfiguration {
 
         // add scheduler creation rule
         digester.addCallMethod("*/" + N_SYSTEM + "/" + N_SCHEDULER, "addScheduleManager");
+        // must be added after the scheduler creation rule, since the rules are ended in reverse order
+        digester.addCallMethod("*/" + N_SYSTEM + "/" + N_SCHEDULER, "setSchedulerExecutor", 1);
+        digester.addCallParam("*/" + N_SYSTEM + "/" + N_SCHEDULER, 0, A_EXECUTOR);
 
         // add scheduler job creation rule
         digester.addObjectCreate("*/" + N_SYSTEM + "/" + N_SCHEDULER + "/" + N_JOB, CmsScheduledJobInfo.class);
@@ -761,6 +794,9 @@ public class CmsSystemConfiguration extends A_CmsXmlConfiguration {
             "*/" + N_SYSTEM + "/" + N_SCHEDULER + "/" + N_JOB + "/" + N_REUSEINSTANCE,
             "reuseInstance");
         digester.addBeanPropertySetter("*/" + N_SYSTEM + "/" + N_SCHEDULER + "/" + N_JOB + "/" + N_ACTIVE, "active");
+        digester.addBeanPropertySetter(
+            "*/" + N_SYSTEM + "/" + N_SCHEDULER + "/" + N_JOB + "/" + N_MAXCONCURRENT,
+            "maxConcurrent");
         digester.addSetNext("*/" + N_SYSTEM + "/" + N_SCHEDULER + "/" + N_JOB, "addJobFromConfiguration");
 
         // add job context creation rule
@@ -977,6 +1013,14 @@ public class CmsSystemConfiguration extends A_CmsXmlConfiguration {
         digester.addCallParam("*/" + N_SYSTEM + "/" + N_FLEXCACHE + "/" + N_AVGCACHEBYTES, 3);
         digester.addCallParam("*/" + N_SYSTEM + "/" + N_FLEXCACHE + "/" + N_MAXENTRYBYTES, 4);
         digester.addCallParam("*/" + N_SYSTEM + "/" + N_FLEXCACHE + "/" + N_MAXKEYS, 5);
+        // add flexcache off-heap storage
+        digester.addCallMethod("*/" + N_SYSTEM + "/" + N_FLEXCACHE + "/" + N_OFFHEAP_STORAGE, "setOffHeapStorage", 3);
+        digester.addCallParam("*/" + N_SYSTEM + "/" + N_FLEXCACHE + "/" + N_OFFHEAP_STORAGE, 0, A_MAXBYTES);
+        digester.addCallParam("*/" + N_SYSTEM + "/" + N_FLEXCACHE + "/" + N_OFFHEAP_STORAGE, 1, A_SLABBYTES);
+        digester.addCallParam("*/" + N_SYSTEM + "/" + N_FLEXCACHE + "/" + N_OFFHEAP_STORAGE, 2, A_FILE);
+        // add flexcache compressed variants
+        digester.addCallMethod("*/" + N_SYSTEM + "/" + N_FLEXCACHE + "/" + N_COMPRESSION, "setCompression", 1);
+        digester.addCallParam("*/" + N_SYSTEM + "/" + N_FLEXCACHE + "/" + N_COMPRESSION, 0, A_MINBYTES);
         // add flexcache device selector
         digester.addCallMethod(
             "*/" + N_SYSTEM + "/" + N_FLEXCACHE + "/" + N_DEVICESELECTOR,
@@ -1117,6 +1161,9 @@ public class CmsSystemConfiguration extends A_CmsXmlConfiguration {
         digester.addCallParam(adeCachePath + "/" + N_GROUPCONTAINERS, 0, A_OFFLINE);
         digester.addCallMethod(adeCachePath + "/" + N_GROUPCONTAINERS, "setGroupContainerOnlineSize", 1);
         digester.addCallParam(adeCachePath + "/" + N_GROUPCONTAINERS, 0, A_ONLINE);
+        // rendered element cache
+        digester.addCallMethod(adeCachePath + "/" + N_RENDEREDELEMENTS, "setRenderedElementOnlineSize", 1);
+        digester.addCallParam(adeCachePath + "/" + N_RENDEREDELEMENTS, 0, A_ONLINE);
         // set the settings
         digester.addSetNext(adeCachePath, "setAdeCacheSettings");
 
@@ -1191,6 +1238,9 @@ public class CmsSystemConfiguration extends A_CmsXmlConfiguration {
 
         // scheduler node
         Element schedulerElement = systemElement.addElement(N_SCHEDULER);
+        if ((m_scheduleManager != null) && (m_scheduleManager.getExecutorName() != null)) {
+            schedulerElement.addAttribute(A_EXECUTOR, m_scheduleManager.getExecutorName());
+        }
         Iterator<CmsScheduledJobInfo> jobs = m_configuredJobs.iterator();
         while (jobs.hasNext()) {
             CmsScheduledJobInfo jobInfo = jobs.next();
@@ -1199,6 +1249,7 @@ public class CmsSystemConfiguration extends A_CmsXmlConfiguration {
             jobElement.addElement(N_CLASS).addText(jobInfo.getClassName());
             jobElement.addElement(N_REUSEINSTANCE).addText(String.valueOf(jobInfo.isReuseInstance()));
             jobElement.addElement(N_ACTIVE).addText(String.valueOf(jobInfo.isActive()));
+            jobElement.addElement(N_MAXCONCURRENT).addText(String.valueOf(jobInfo.getMaxConcurrent()));
             jobElement.addElement(N_CRONEXPRESSION).addCDATA(jobInfo.getCronExpression());
             Element contextElement = jobElement.addElement(N_CONTEXT);
             contextElement.addElement(N_USERNAME).setText(jobInfo.getContextInfo().getUserName());
@@ -1408,6 +1459,21 @@ public class CmsSystemConfiguration extends A_CmsXmlConfiguration {
         flexcacheElement.addElement(N_MAXENTRYBYTES).addText(
             String.valueOf(m_cmsFlexCacheConfiguration.getMaxEntryBytes()));
         flexcacheElement.addElement(N_MAXKEYS).addText(String.valueOf(m_cmsFlexCacheConfiguration.getMaxKeys()));
+        if (m_cmsFlexCacheConfiguration.getOffHeapBytes() > 0) {
+            Element offHeapElement = flexcacheElement.addElement(N_OFFHEAP_STORAGE);
+            offHeapElement.addAttribute(A_MAXBYTES, String.valueOf(m_cmsFlexCacheConfiguration.getOffHeapBytes()));
+            offHeapElement.addAttribute(
+                A_SLABBYTES,
+                String.valueOf(m_cmsFlexCacheConfiguration.getOffHeapSlabBytes()));
+            if (m_cmsFlexCacheConfiguration.getOffHeapFile() != null) {
+                offHeapElement.addAttribute(A_FILE, m_cmsFlexCacheConfiguration.getOffHeapFile());
+            }
+        }
+        if (m_cmsFlexCacheConfiguration.getCompressionMinBytes() >= 0) {
+            flexcacheElement.addElement(N_COMPRESSION).addAttribute(
+                A_MINBYTES,
+                String.valueOf(m_cmsFlexCacheConfiguration.getCompressionMinBytes()));
+        }
         if (m_cmsFlexCacheConfiguration.getDeviceSelectorConfiguration() != null) {
             Element flexcacheDeviceSelectorElement = flexcacheElement.addElement(N_DEVICESELECTOR);
             flexcacheDeviceSelectorElement.addAttribute(
@@ -1529,6 +1595,10 @@ public class CmsSystemConfiguration extends A_CmsXmlConfiguration {
                 groupContainerCacheElem.addAttribute(A_OFFLINE, ""
                     + getAdeCacheSettings().getGroupContainerOfflineSize());
                 groupContainerCacheElem.addAttribute(A_ONLINE, "" + getAdeCacheSettings().getGroupContainerOnlineSize());
+                // rendered element cache
+                Element renderedElementCacheElem = cacheElem.addElement(N_RENDEREDELEMENTS);
+                renderedElementCacheElem.addAttribute(A_ONLINE, ""
+                    + getAdeCacheSettings().getRenderedElementOnlineSize());
             }
         }
 
@@ -2330,6 +2400,18 @@ public class CmsSystemConfiguration extends A_CmsXmlConfiguration {
 
     }
 
+    /**
+     * Sets the name of the executor for the scheduled jobs.<p>
+     * 
+     * @param executor the name of the executor for the scheduled jobs
+     * 
+     * @see org.opencms.scheduler.CmsScheduledJobExecutor
+     */
+    public void setSchedulerExecutor(String executor) {
+
+        m_schedulerExecutor = executor;
+    }
+
     /**
      * Sets the servlet container settings configuration mode.<p>
      * 
@@ -57,6 +57,7 @@ import org.opencms.file.history.CmsHistoryFile;
 import org.opencms.file.history.CmsHistoryFolder;
 import org.opencms.file.history.CmsHistoryPrincipal;
 import org.opencms.file.history.CmsHistoryProject;
+import org.opencms.file.history.CmsHistoryClearProgress;
 import org.opencms.file.history.I_CmsHistoryResource;
 import org.opencms.file.types.CmsResourceTypeFolder;
 import org.opencms.file.types.CmsResourceTypeJsp;
@@ -225,6 +226,9 @@ public final class CmsDriverManager implements I_CmsEventListener {
     /** "driver.vfs" string in the configuration-file. */
     public static final String CONFIGURATION_VFS = "driver.vfs";
 
+    /** The number of historical resources processed per chunk when deleting or deduplicating historical versions. */
+    public static final int HISTORY_CLEAR_CHUNK_SIZE = 500;
+
     /** DBC attribute key needed to fix publishing behavior involving siblings. */
     public static final String KEY_CHANGED_AND_DELETED = "changedAndDeleted";
 
@@ -303,6 +307,9 @@ public final class CmsDriverManager implements I_CmsEventListener {
     /** The log object for this class. */
     private static final Log LOG = CmsLog.getLog(CmsDriverManager.class);
 
+    /** The maximum number of published resources for which the relation index is updated, instead of being reloaded. */
+    private static final int ONLINE_RELATION_INDEX_UPDATE_LIMIT = 500;
+
     /** Constant mode parameter to read all files and folders in the {@link #readChangedResourcesInsideProject(CmsDbContext, CmsUUID, CmsReadChangedProjectResourceMode)}} method. */
     private static final CmsReadChangedProjectResourceMode RCPRM_FILES_AND_FOLDERS_MODE = new CmsReadChangedProjectResourceMode();
 
@@ -333,6 +340,9 @@ public final class CmsDriverManager implements I_CmsEventListener {
     /** Local reference to the memory monitor to avoid multiple lookups through the OpenCms singleton. */
     private CmsMemoryMonitor m_monitor;
 
+    /** The in-memory index of the relations of the online project. */
+    private CmsOnlineRelationIndex m_onlineRelationIndex = new CmsOnlineRelationIndex();
+
     /** The project driver. */
     private I_CmsProjectDriver m_projectDriver;
 
@@ -674,11 +684,9 @@ public final class CmsDriverManager implements I_CmsEventListener {
         //add this user to the group
         getUserDriver(dbc).createUserInGroup(dbc, user.getId(), group.getId());
 
-        // flush the cache
-        if (readRoles) {
-            m_monitor.flushCache(CmsMemoryMonitor.CacheType.HAS_ROLE, CmsMemoryMonitor.CacheType.ROLE_LIST);
-        }
-        m_monitor.flushCache(CmsMemoryMonitor.CacheType.USERGROUPS, CmsMemoryMonitor.CacheType.USER_LIST);
+        // flush the cache, the cached groups and roles of other users are not affected
+        m_monitor.uncacheUserGroups(user);
+        m_monitor.flushCache(CmsMemoryMonitor.CacheType.USER_LIST);
 
         if (!dbc.getProjectId().isNullUUID()) {
             // user modified event is not needed
@@ -953,11 +961,14 @@ public final class CmsDriverManager implements I_CmsEventListener {
                 report = (I_CmsReport)event.getData().get(I_CmsEventListener.KEY_REPORT);
                 dbc = (CmsDbContext)event.getData().get(I_CmsEventListener.KEY_DBCONTEXT);
                 m_monitor.clearCache();
+                updateOnlineRelationIndex(dbc, publishHistoryId);
                 writeExportPoints(dbc, report, publishHistoryId);
                 break;
 
             case I_CmsEventListener.EVENT_CLEAR_CACHES:
                 m_monitor.clearCache();
+                // the index is reloaded when it is used the next time
+                m_onlineRelationIndex.clear();
                 break;
             case I_CmsEventListener.EVENT_CLEAR_PRINCIPAL_CACHES:
             case I_CmsEventListener.EVENT_USER_MODIFIED:
@@ -2143,6 +2154,103 @@ public final class CmsDriverManager implements I_CmsEventListener {
         return user;
     }
 
+    /**
+     * Merges the historical content entries with identical content of all resources in the history.<p>
+     * 
+     * Since each content entry covers a range of publish tags, the merged entries are shared by all 
+     * historical versions of the same resource they were created for. Content is not shared between 
+     * different resources, e.g. copies, since the content entries are stored per resource id.<p>
+     * 
+     * The historical resources are read in chunks of {@link #HISTORY_CLEAR_CHUNK_SIZE} resources, 
+     * so the memory needed does not depend on the size of the history. Every resource is processed 
+     * on its own, so the operation can be interrupted at any time and simply be started again later.<p>
+     * 
+     * @param dbc the current database context
+     * @param report the report for output logging
+     * 
+     * @throws CmsException if operation was not successful
+     */
+    public void deduplicateHistoryContents(CmsDbContext dbc, I_CmsReport report) throws CmsException {
+
+        report.println(
+            Messages.get().container(Messages.RPT_START_DEDUPLICATE_CONTENTS_0),
+            I_CmsReport.FORMAT_HEADLINE);
+
+        int m = 1;
+        int total = 0;
+        // first process the resources that are not deleted, then the deleted ones
+        for (int phase = 0; phase < 2; phase++) {
+            boolean deletedResources = (phase == 1);
+            CmsUUID lastStructureId = null;
+            while (true) {
+                List<I_CmsHistoryResource> resources;
+                if (deletedResources) {
+                    resources = getHistoryDriver(dbc).getDeletedEntries(dbc, lastStructureId, HISTORY_CLEAR_CHUNK_SIZE);
+                } else {
+                    resources = getHistoryDriver(dbc).getNotDeletedEntries(
+                        dbc,
+                        lastStructureId,
+                        HISTORY_CLEAR_CHUNK_SIZE);
+                }
+                if (resources.isEmpty()) {
+                    break;
+                }
+                lastStructureId = resources.get(resources.size() - 1).getStructureId();
+
+                // siblings share the content, so every resource id needs to be processed only once per chunk
+                Set<CmsUUID> resourceIds = new HashSet<CmsUUID>();
+                for (I_CmsHistoryResource histResource : resources) {
+                    if (!histResource.isFile() || !resourceIds.add(histResource.getResourceId())) {
+                        continue;
+                    }
+                    report.print(
+                        org.opencms.report.Messages.get().container(
+                            org.opencms.report.Messages.RPT_SUCCESSION_1,
+                            String.valueOf(m)),
+                        I_CmsReport.FORMAT_NOTE);
+                    report.print(org.opencms.report.Messages.get().container(
+                        org.opencms.report.Messages.RPT_ARGUMENT_1,
+                        dbc.removeSiteRoot(histResource.getRootPath())));
+                    report.print(org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_DOTS_0));
+
+                    try {
+                        int merged = getHistoryDriver(dbc).deduplicateContents(dbc, histResource.getResourceId());
+                        total += merged;
+
+                        report.print(
+                            Messages.get().container(Messages.RPT_CONTENTS_DEDUPLICATED_1, new Integer(merged)),
+                            I_CmsReport.FORMAT_NOTE);
+                        report.print(org.opencms.report.Messages.get().container(
+                            org.opencms.report.Messages.RPT_DOTS_0));
+                        report.println(
+                            org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_OK_0),
+                            I_CmsReport.FORMAT_OK);
+                    } catch (CmsDataAccessException e) {
+                        report.println(
+                            org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_ERROR_0),
+                            I_CmsReport.FORMAT_ERROR);
+
+                        if (LOG.isDebugEnabled()) {
+                            LOG.debug(e.getLocalizedMessage(), e);
+                        }
+                    }
+                    m++;
+                }
+                if (resources.size() < HISTORY_CLEAR_CHUNK_SIZE) {
+                    // this was the last chunk
+                    break;
+                }
+            }
+        }
+        if (m == 1) {
+            report.println(Messages.get().container(Messages.RPT_DELETE_NOTHING_0), I_CmsReport.FORMAT_OK);
+        }
+
+        report.println(
+            Messages.get().container(Messages.RPT_END_DEDUPLICATE_CONTENTS_1, new Integer(total)),
+            I_CmsReport.FORMAT_HEADLINE);
+    }
+
     /**
      * Deletes all property values of a file or folder.<p>
      * 
@@ -2318,6 +2426,9 @@ public final class CmsDriverManager implements I_CmsEventListener {
      * 
      * if the <code>cleanUp</code> option is set, additionally versions of deleted resources will be removed.<p>
      * 
+     * The historical resources are processed in chunks of {@link #HISTORY_CLEAR_CHUNK_SIZE} resources, 
+     * so the memory needed does not depend on the size of the history.<p>
+     * 
      * @param dbc the current database context
      * @param versionsToKeep number of versions to keep, is ignored if negative 
      * @param versionsDeleted number of versions to keep for deleted resources, is ignored if negative
@@ -2333,62 +2444,72 @@ public final class CmsDriverManager implements I_CmsEventListener {
         long timeDeleted,
         I_CmsReport report) throws CmsException {
 
-        report.println(Messages.get().container(Messages.RPT_START_DELETE_VERSIONS_0), I_CmsReport.FORMAT_HEADLINE);
-        if (versionsToKeep >= 0) {
-            report.println(
-                Messages.get().container(Messages.RPT_START_DELETE_ACT_VERSIONS_1, new Integer(versionsToKeep)),
-                I_CmsReport.FORMAT_HEADLINE);
-
-            List<I_CmsHistoryResource> resources = getHistoryDriver(dbc).getAllNotDeletedEntries(dbc);
-            if (resources.isEmpty()) {
-                report.println(Messages.get().container(Messages.RPT_DELETE_NOTHING_0), I_CmsReport.FORMAT_OK);
-            }
-            int n = resources.size();
-            int m = 1;
-            Iterator<I_CmsHistoryResource> itResources = resources.iterator();
-            while (itResources.hasNext()) {
-                I_CmsHistoryResource histResource = itResources.next();
-
-                report.print(
-                    org.opencms.report.Messages.get().container(
-                        org.opencms.report.Messages.RPT_SUCCESSION_2,
-                        String.valueOf(m),
-                        String.valueOf(n)),
-                    I_CmsReport.FORMAT_NOTE);
-                report.print(org.opencms.report.Messages.get().container(
-                    org.opencms.report.Messages.RPT_ARGUMENT_1,
-                    dbc.removeSiteRoot(histResource.getRootPath())));
-                report.print(org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_DOTS_0));
-
-                try {
-                    int deleted = getHistoryDriver(dbc).deleteEntries(dbc, histResource, versionsToKeep, -1);
-
-                    report.print(
-                        Messages.get().container(Messages.RPT_VERSION_DELETING_1, new Integer(deleted)),
-                        I_CmsReport.FORMAT_NOTE);
-                    report.print(org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_DOTS_0));
-                    report.println(
-                        org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_OK_0),
-                        I_CmsReport.FORMAT_OK);
-                } catch (CmsDataAccessException e) {
-                    report.println(
-                        org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_ERROR_0),
-                        I_CmsReport.FORMAT_ERROR);
-
-                    if (LOG.isDebugEnabled()) {
-                        LOG.debug(e.getLocalizedMessage(), e);
-                    }
-                }
+        CmsHistoryClearProgress progress = new CmsHistoryClearProgress();
+        while (!deleteHistoricalVersions(
+            dbc,
+            versionsToKeep,
+            versionsDeleted,
+            timeDeleted,
+            progress,
+            HISTORY_CLEAR_CHUNK_SIZE,
+            report)) {
+            // continue with the next chunk
+        }
+    }
 
-                m++;
-            }
+    /**
+     * Deletes the versions from the history tables for the next chunk of historical resources.<p>
+     * 
+     * The given progress is updated with the processed resources, so calling this method again 
+     * with the same progress continues the deletion with the next chunk. The progress can also be 
+     * saved and restored, to continue the deletion after a restart.<p>
+     * 
+     * @param dbc the current database context
+     * @param versionsToKeep number of versions to keep, is ignored if negative 
+     * @param versionsDeleted number of versions to keep for deleted resources, is ignored if negative
+     * @param timeDeleted deleted resources older than this will also be deleted, is ignored if negative
+     * @param progress the progress of the deletion
+     * @param chunkSize the maximal number of historical resources to process
+     * @param report the report for output logging
+     * 
+     * @return <code>true</code> if the deletion is finished, <code>false</code> if there are more chunks to process
+     * 
+     * @throws CmsException if operation was not successful
+     */
+    public boolean deleteHistoricalVersions(
+        CmsDbContext dbc,
+        int versionsToKeep,
+        int versionsDeleted,
+        long timeDeleted,
+        CmsHistoryClearProgress progress,
+        int chunkSize,
+        I_CmsReport report) throws CmsException {
 
+        boolean clearDeleted = (versionsDeleted >= 0) || (timeDeleted >= 0);
+        if ((progress.getPhase() == CmsHistoryClearProgress.PHASE_RESOURCES) && (progress.getLastStructureId() == null)) {
+            report.println(Messages.get().container(Messages.RPT_START_DELETE_VERSIONS_0), I_CmsReport.FORMAT_HEADLINE);
+        }
+        if ((progress.getPhase() == CmsHistoryClearProgress.PHASE_RESOURCES) && (versionsToKeep < 0)) {
+            progress.nextPhase();
+        }
+        if ((progress.getPhase() == CmsHistoryClearProgress.PHASE_DELETED_RESOURCES) && !clearDeleted) {
+            progress.nextPhase();
+        }
+        if (progress.isFinished()) {
             report.println(
-                Messages.get().container(Messages.RPT_END_DELETE_ACT_VERSIONS_0),
+                Messages.get().container(Messages.RPT_END_DELETE_VERSIONS_0),
                 I_CmsReport.FORMAT_HEADLINE);
+            return true;
         }
-        if ((versionsDeleted >= 0) || (timeDeleted >= 0)) {
-            if (timeDeleted >= 0) {
+
+        boolean deletedResources = (progress.getPhase() == CmsHistoryClearProgress.PHASE_DELETED_RESOURCES);
+        if (progress.getLastStructureId() == null) {
+            // a new phase starts
+            if (!deletedResources) {
+                report.println(
+                    Messages.get().container(Messages.RPT_START_DELETE_ACT_VERSIONS_1, new Integer(versionsToKeep)),
+                    I_CmsReport.FORMAT_HEADLINE);
+            } else if (timeDeleted >= 0) {
                 report.println(
                     Messages.get().container(
                         Messages.RPT_START_DELETE_DEL_VERSIONS_2,
@@ -2400,54 +2521,68 @@ public final class CmsDriverManager implements I_CmsEventListener {
                     Messages.get().container(Messages.RPT_START_DELETE_DEL_VERSIONS_1, new Integer(versionsDeleted)),
                     I_CmsReport.FORMAT_HEADLINE);
             }
-            List<I_CmsHistoryResource> resources = getHistoryDriver(dbc).getAllDeletedEntries(dbc);
-            if (resources.isEmpty()) {
-                report.println(Messages.get().container(Messages.RPT_DELETE_NOTHING_0), I_CmsReport.FORMAT_OK);
-            }
-            int n = resources.size();
-            int m = 1;
-            Iterator<I_CmsHistoryResource> itResources = resources.iterator();
-            while (itResources.hasNext()) {
-                I_CmsHistoryResource histResource = itResources.next();
+        }
+
+        List<I_CmsHistoryResource> resources;
+        if (deletedResources) {
+            resources = getHistoryDriver(dbc).getDeletedEntries(dbc, progress.getLastStructureId(), chunkSize);
+        } else {
+            resources = getHistoryDriver(dbc).getNotDeletedEntries(dbc, progress.getLastStructureId(), chunkSize);
+        }
+        if (resources.isEmpty() && (progress.getLastStructureId() == null)) {
+            report.println(Messages.get().container(Messages.RPT_DELETE_NOTHING_0), I_CmsReport.FORMAT_OK);
+        }
+
+        Iterator<I_CmsHistoryResource> itResources = resources.iterator();
+        while (itResources.hasNext()) {
+            I_CmsHistoryResource histResource = itResources.next();
+
+            report.print(
+                org.opencms.report.Messages.get().container(
+                    org.opencms.report.Messages.RPT_SUCCESSION_1,
+                    String.valueOf(progress.getProcessedResources() + 1)),
+                I_CmsReport.FORMAT_NOTE);
+            report.print(org.opencms.report.Messages.get().container(
+                org.opencms.report.Messages.RPT_ARGUMENT_1,
+                dbc.removeSiteRoot(histResource.getRootPath())));
+            report.print(org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_DOTS_0));
+
+            int deleted = 0;
+            try {
+                if (deletedResources) {
+                    deleted = getHistoryDriver(dbc).deleteEntries(dbc, histResource, versionsDeleted, timeDeleted);
+                } else {
+                    deleted = getHistoryDriver(dbc).deleteEntries(dbc, histResource, versionsToKeep, -1);
+                }
 
                 report.print(
-                    org.opencms.report.Messages.get().container(
-                        org.opencms.report.Messages.RPT_SUCCESSION_2,
-                        String.valueOf(m),
-                        String.valueOf(n)),
+                    Messages.get().container(Messages.RPT_VERSION_DELETING_1, new Integer(deleted)),
                     I_CmsReport.FORMAT_NOTE);
-                report.print(org.opencms.report.Messages.get().container(
-                    org.opencms.report.Messages.RPT_ARGUMENT_1,
-                    dbc.removeSiteRoot(histResource.getRootPath())));
                 report.print(org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_DOTS_0));
+                report.println(
+                    org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_OK_0),
+                    I_CmsReport.FORMAT_OK);
+            } catch (CmsDataAccessException e) {
+                report.println(
+                    org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_ERROR_0),
+                    I_CmsReport.FORMAT_ERROR);
 
-                try {
-                    int deleted = getHistoryDriver(dbc).deleteEntries(dbc, histResource, versionsDeleted, timeDeleted);
-
-                    report.print(
-                        Messages.get().container(Messages.RPT_VERSION_DELETING_1, new Integer(deleted)),
-                        I_CmsReport.FORMAT_NOTE);
-                    report.print(org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_DOTS_0));
-                    report.println(
-                        org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_OK_0),
-                        I_CmsReport.FORMAT_OK);
-                } catch (CmsDataAccessException e) {
-                    report.println(
-                        org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_ERROR_0),
-                        I_CmsReport.FORMAT_ERROR);
-
-                    if (LOG.isDebugEnabled()) {
-                        LOG.debug(e.getLocalizedMessage(), e);
-                    }
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug(e.getLocalizedMessage(), e);
                 }
-
-                m++;
             }
+            progress.resourceProcessed(histResource.getStructureId(), deleted);
+        }
+
+        if (resources.size() < chunkSize) {
+            // this was the last chunk of the current phase
             report.println(
-                Messages.get().container(Messages.RPT_END_DELETE_DEL_VERSIONS_0),
+                Messages.get().container(
+                    deletedResources ? Messages.RPT_END_DELETE_DEL_VERSIONS_0 : Messages.RPT_END_DELETE_ACT_VERSIONS_0),
                 I_CmsReport.FORMAT_HEADLINE);
+            progress.nextPhase();
         }
-        report.println(Messages.get().container(Messages.RPT_END_DELETE_VERSIONS_0), I_CmsReport.FORMAT_HEADLINE);
+        return false;
     }
 
     /**
@@ -3285,6 +3420,17 @@ public final class CmsDriverManager implements I_CmsEventListener {
             publishList.addAll(filterResources(dbc, publishList, fileList), true);
         } else {
             // this is a direct publish
+            // collect the folders whose sub tree has to be read, nested folders are covered by their parent
+            List<CmsResource> subTreeFolders = new ArrayList<CmsResource>();
+            Iterator<CmsResource> itFolders = publishList.getDirectPublishResources().iterator();
+            while (itFolders.hasNext()) {
+                CmsResource folder = itFolders.next();
+                boolean shouldPublishDeletedSubResources = publishList.isUserPublishList()
+                    && folder.getState().isDeleted();
+                if (folder.isFolder() && (publishList.isPublishSubResources() || shouldPublishDeletedSubResources)) {
+                    subTreeFolders.add(folder);
+                }
+            }
             Iterator<CmsResource> it = publishList.getDirectPublishResources().iterator();
             while (it.hasNext()) {
                 // iterate all resources in the direct publish list
@@ -3310,7 +3456,8 @@ public final class CmsDriverManager implements I_CmsEventListener {
                     }
                     boolean shouldPublishDeletedSubResources = publishList.isUserPublishList()
                         && directPublishResource.getState().isDeleted();
-                    if (publishList.isPublishSubResources() || shouldPublishDeletedSubResources) {
+                    if ((publishList.isPublishSubResources() || shouldPublishDeletedSubResources)
+                        && !isSubTreeRead(subTreeFolders, directPublishResource)) {
                         addSubResources(dbc, publishList, directPublishResource);
                     }
                 } else if (directPublishResource.isFile() && !directPublishResource.getState().isUnchanged()) {
@@ -4305,6 +4452,8 @@ public final class CmsDriverManager implements I_CmsEventListener {
         CmsRelationFilter filter) throws CmsException {
 
         Map<String, CmsResource> relations = new HashMap<String, CmsResource>();
+        // the structure ids of the relation targets that have already been checked
+        Set<CmsUUID> checkedTargets = new HashSet<CmsUUID>();
 
         // check if progress should be set in the thread
         CmsProgressThread thread = null;
@@ -4314,6 +4463,8 @@ public final class CmsDriverManager implements I_CmsEventListener {
 
         // get all resources to publish
         List<CmsResource> publishResources = publishList.getAllResources();
+        // the relations of the resources to publish, read in chunks
+        Map<CmsUUID, List<CmsRelation>> chunkRelations = Collections.emptyMap();
         Iterator<CmsResource> itCheckList = publishResources.iterator();
         // iterate over them
         int count = 0;
@@ -4334,11 +4485,26 @@ public final class CmsDriverManager implements I_CmsEventListener {
                     new Integer(publishResources.size())));
             }
 
+            if (((count - 1) % I_CmsVfsDriver.RELATIONS_MAX_RESOURCES_PER_QUERY) == 0) {
+                // read the relations of the next chunk of resources at once
+                int chunkEnd = Math.min(
+                    (count - 1) + I_CmsVfsDriver.RELATIONS_MAX_RESOURCES_PER_QUERY,
+                    publishResources.size());
+                chunkRelations = getRelationsForResources(dbc, publishResources.subList(count - 1, chunkEnd), filter);
+            }
             CmsResource checkResource = itCheckList.next();
-            // get and iterate over all related resources
-            Iterator<CmsRelation> itRelations = getRelationsForResource(dbc, checkResource, filter).iterator();
+            List<CmsRelation> resourceRelations = chunkRelations.get(checkResource.getStructureId());
+            if (resourceRelations == null) {
+                continue;
+            }
+            // iterate over all related resources
+            Iterator<CmsRelation> itRelations = resourceRelations.iterator();
             while (itRelations.hasNext()) {
                 CmsRelation relation = itRelations.next();
+                if (!relation.getTargetId().isNullUUID() && !checkedTargets.add(relation.getTargetId())) {
+                    // many resources link to the same target, check it only once
+                    continue;
+                }
                 try {
                     // get the target of the relation, see CmsRelation#getTarget(CmsObject, CmsResourceFilter)
                     CmsResource target;
@@ -4355,9 +4521,14 @@ public final class CmsDriverManager implements I_CmsEventListener {
                             dbc.getRequestContext().setSiteRoot(storedSiteRoot);
                         }
                     }
+                    if (!target.getStructureId().equals(relation.getTargetId())
+                        && !checkedTargets.add(target.getStructureId())) {
+                        // the target has been found by path and has already been checked
+                        continue;
+                    }
                     CmsLock lock = getLock(dbc, target);
                     // just add resources that may come in question
-                    if (!publishResources.contains(target) // is not in the original list
+                    if (!publishList.containsResource(target) // is not in the original list
                         && !relations.containsKey(target.getRootPath()) // has not been already added by another relation
                         && !target.getState().isUnchanged() // has been changed
                         && lock.isLockableBy(dbc.currentUser())) { // is lockable by current user
@@ -4369,10 +4540,12 @@ public final class CmsDriverManager implements I_CmsEventListener {
                             dbc.currentProject().getUuid(),
                             target.getStructureId());
                         while ((parent != null) && parent.getState().isNew()) {
+                            if (relations.containsKey(parent.getRootPath())) {
+                                // has been already added by another relation, together with its parent folders
+                                break;
+                            }
                             // just add resources that may come in question
-                            if (!publishResources.contains(parent) // is not in the original list
-                                && !relations.containsKey(parent.getRootPath())) { // has not been already added by another relation
-
+                            if (!publishList.containsResource(parent)) { // is not in the original list
                                 relations.put(parent.getRootPath(), parent);
                             }
                             parent = getVfsDriver(dbc).readParentFolder(
@@ -4413,9 +4586,86 @@ public final class CmsDriverManager implements I_CmsEventListener {
     throws CmsException {
 
         CmsUUID projectId = getProjectIdForContext(dbc);
+        if ((resource != null) && projectId.equals(CmsProject.ONLINE_PROJECT_ID)) {
+            // try to answer the query from the index of the online relations
+            if (m_onlineRelationIndex.isLoadRequired()) {
+                loadOnlineRelationIndex(dbc);
+            }
+            List<CmsRelation> relations = m_onlineRelationIndex.getRelations(resource.getStructureId(), filter);
+            if (relations != null) {
+                return relations;
+            }
+        }
         return getVfsDriver(dbc).readRelations(dbc, projectId, resource, filter);
     }
 
+    /**
+     * Returns all relations for the given resources matching the given filter, by structure id of the resources.<p>
+     * 
+     * In the online project the relations are read from the index of the online relations if possible,
+     * all other relations are read with as few queries as possible.<p>
+     * 
+     * @param dbc the current db context
+     * @param resources the resources to retrieve the relations for
+     * @param filter the filter to match the relation, the "include subresources" flag is ignored
+     * 
+     * @return the relations matching the given filter, by structure id of the resources
+     * 
+     * @throws CmsException if something goes wrong
+     * 
+     * @see CmsSecurityManager#getRelationsForResources(CmsRequestContext, List, CmsRelationFilter)
+     */
+    public Map<CmsUUID, List<CmsRelation>> getRelationsForResources(
+        CmsDbContext dbc,
+        List<CmsResource> resources,
+        CmsRelationFilter filter) throws CmsException {
+
+        Map<CmsUUID, List<CmsRelation>> result = new HashMap<CmsUUID, List<CmsRelation>>();
+        CmsUUID projectId = getProjectIdForContext(dbc);
+        boolean useIndex = projectId.equals(CmsProject.ONLINE_PROJECT_ID);
+        if (useIndex && m_onlineRelationIndex.isLoadRequired()) {
+            loadOnlineRelationIndex(dbc);
+        }
+        List<CmsUUID> structureIds = new ArrayList<CmsUUID>();
+        Iterator<CmsResource> itResources = resources.iterator();
+        while (itResources.hasNext()) {
+            CmsUUID structureId = itResources.next().getStructureId();
+            if (result.containsKey(structureId)) {
+                continue;
+            }
+            List<CmsRelation> relations = useIndex ? m_onlineRelationIndex.getRelations(structureId, filter) : null;
+            if (relations != null) {
+                result.put(structureId, relations);
+            } else {
+                result.put(structureId, new ArrayList<CmsRelation>());
+                structureIds.add(structureId);
+            }
+        }
+        if (structureIds.isEmpty()) {
+            return result;
+        }
+        Set<CmsUUID> readIds = new HashSet<CmsUUID>(structureIds);
+        Iterator<CmsRelation> itRelations = getVfsDriver(dbc).readRelationsForResources(
+            dbc,
+            projectId,
+            structureIds,
+            filter).iterator();
+        while (itRelations.hasNext()) {
+            CmsRelation relation = itRelations.next();
+            // a relation may belong to two of the resources, as source and as target
+            if (filter.isTarget() && readIds.contains(relation.getSourceId())) {
+                result.get(relation.getSourceId()).add(relation);
+            }
+            if (filter.isSource() && readIds.contains(relation.getTargetId())) {
+                List<CmsRelation> relations = result.get(relation.getTargetId());
+                if (!relations.contains(relation)) {
+                    relations.add(relation);
+                }
+            }
+        }
+        return result;
+    }
+
     /**
      * Returns the list of organizational units the given resource belongs to.<p>
      * 
@@ -4804,6 +5054,36 @@ public final class CmsDriverManager implements I_CmsEventListener {
             readRoles);
     }
 
+    /**
+     * Returns the users of a set of principals, that is the users 
+     * and all users of the groups in the set.<p>
+     * 
+     * @param dbc the current database context
+     * @param principals the principals
+     * 
+     * @return the users of the principals
+     */
+    public Set<CmsUser> getUsersOfPrincipals(CmsDbContext dbc, Set<I_CmsPrincipal> principals) {
+
+        Set<CmsUser> result = new HashSet<CmsUser>();
+        Iterator<I_CmsPrincipal> itPrincipals = principals.iterator();
+        while (itPrincipals.hasNext()) {
+            I_CmsPrincipal principal = itPrincipals.next();
+            if (principal.isGroup()) {
+                try {
+                    result.addAll(getUsersOfGroup(dbc, principal.getName(), true, false, false));
+                } catch (CmsException e) {
+                    if (LOG.isInfoEnabled()) {
+                        LOG.info(e);
+                    }
+                }
+            } else {
+                result.add((CmsUser)principal);
+            }
+        }
+        return result;
+    }
+
     /**
      * Returns the given user's publish list.<p>
      * 
@@ -7501,23 +7781,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
      */
     public Set<CmsUser> readResponsibleUsers(CmsDbContext dbc, CmsResource resource) throws CmsException {
 
-        Set<CmsUser> result = new HashSet<CmsUser>();
-        Iterator<I_CmsPrincipal> principals = readResponsiblePrincipals(dbc, resource).iterator();
-        while (principals.hasNext()) {
-            I_CmsPrincipal principal = principals.next();
-            if (principal.isGroup()) {
-                try {
-                    result.addAll(getUsersOfGroup(dbc, principal.getName(), true, false, false));
-                } catch (CmsException e) {
-                    if (LOG.isInfoEnabled()) {
-                        LOG.info(e);
-                    }
-                }
-            } else {
-                result.add((CmsUser)principal);
-            }
-        }
-        return result;
+        return getUsersOfPrincipals(dbc, readResponsiblePrincipals(dbc, resource));
     }
 
     /**
@@ -7953,11 +8217,9 @@ public final class CmsDriverManager implements I_CmsEventListener {
         }
         getUserDriver(dbc).deleteUserInGroup(dbc, user.getId(), group.getId());
 
-        // flush relevant caches
-        if (readRoles) {
-            m_monitor.flushCache(CmsMemoryMonitor.CacheType.HAS_ROLE, CmsMemoryMonitor.CacheType.ROLE_LIST);
-        }
-        m_monitor.flushCache(CmsMemoryMonitor.CacheType.USERGROUPS, CmsMemoryMonitor.CacheType.USER_LIST);
+        // flush relevant caches, the cached groups and roles of other users are not affected
+        m_monitor.uncacheUserGroups(user);
+        m_monitor.flushCache(CmsMemoryMonitor.CacheType.USER_LIST);
 
         if (!dbc.getProjectId().isNullUUID()) {
             // user modified event is not needed
@@ -9671,7 +9933,8 @@ public final class CmsDriverManager implements I_CmsEventListener {
         CmsUser oldUser = readUser(dbc, user.getId());
         m_monitor.clearUserCache(oldUser);
         getUserDriver(dbc).writeUser(dbc, user);
-        m_monitor.flushCache(CmsMemoryMonitor.CacheType.USERGROUPS, CmsMemoryMonitor.CacheType.USER_LIST);
+        m_monitor.uncacheUserGroups(oldUser);
+        m_monitor.flushCache(CmsMemoryMonitor.CacheType.USER_LIST);
 
         if (!dbc.getProjectId().isNullUUID()) {
             // user modified event is not needed
@@ -9983,12 +10246,17 @@ public final class CmsDriverManager implements I_CmsEventListener {
      * Checks the parent of a resource during publishing.<p> 
      * 
      * @param dbc the current database context
-     * @param deletedFolders a list of deleted folders
+     * @param deletedFolderIds the structure ids of the deleted folders
+     * @param parents the already read parent folders, by root path
      * @param res a resource to check the parent for
      * 
      * @return <code>true</code> if the parent resource will be deleted during publishing
      */
-    private boolean checkDeletedParentFolder(CmsDbContext dbc, List<CmsResource> deletedFolders, CmsResource res) {
+    private boolean checkDeletedParentFolder(
+        CmsDbContext dbc,
+        Set<CmsUUID> deletedFolderIds,
+        Map<String, CmsResource> parents,
+        CmsResource res) {
 
         String parentPath = CmsResource.getParentFolder(res.getRootPath());
 
@@ -9997,10 +10265,8 @@ public final class CmsDriverManager implements I_CmsEventListener {
             return false;
         }
 
-        CmsResource parent;
-        try {
-            parent = readResource(dbc, parentPath, CmsResourceFilter.ALL);
-        } catch (Exception e) {
+        CmsResource parent = readPublishParent(dbc, parents, parentPath);
+        if (parent == null) {
             // failure: if we cannot read the parent, we should not publish the resource
             return false;
         }
@@ -10010,15 +10276,8 @@ public final class CmsDriverManager implements I_CmsEventListener {
             return false;
         }
 
-        for (int j = 0; j < deletedFolders.size(); j++) {
-            if ((deletedFolders.get(j)).getStructureId().equals(parent.getStructureId())) {
-                // parent is deleted, and it will get published
-                return true;
-            }
-        }
-
-        // parent is new, but it will not get published
-        return false;
+        // if the parent is deleted, check if it will get published
+        return deletedFolderIds.contains(parent.getStructureId());
     }
 
     /**
@@ -10067,12 +10326,17 @@ public final class CmsDriverManager implements I_CmsEventListener {
      * Checks the parent of a resource during publishing.<p> 
      * 
      * @param dbc the current database context
-     * @param folderList a list of folders
+     * @param folderIds the structure ids of the folders to publish
+     * @param parents the already read parent folders, by root path
      * @param res a resource to check the parent for
      * 
      * @return true if the resource should be published
      */
-    private boolean checkParentResource(CmsDbContext dbc, List<CmsResource> folderList, CmsResource res) {
+    private boolean checkParentResource(
+        CmsDbContext dbc,
+        Set<CmsUUID> folderIds,
+        Map<String, CmsResource> parents,
+        CmsResource res) {
 
         String parentPath = CmsResource.getParentFolder(res.getRootPath());
 
@@ -10081,10 +10345,8 @@ public final class CmsDriverManager implements I_CmsEventListener {
             return true;
         }
 
-        CmsResource parent;
-        try {
-            parent = readResource(dbc, parentPath, CmsResourceFilter.ALL);
-        } catch (Exception e) {
+        CmsResource parent = readPublishParent(dbc, parents, parentPath);
+        if (parent == null) {
             // failure: if we cannot read the parent, we should not publish the resource
             return false;
         }
@@ -10094,15 +10356,8 @@ public final class CmsDriverManager implements I_CmsEventListener {
             return true;
         }
 
-        for (int j = 0; j < folderList.size(); j++) {
-            if (folderList.get(j).getStructureId().equals(parent.getStructureId())) {
-                // parent is new, but it will get published
-                return true;
-            }
-        }
-
-        // parent is new, but it will not get published
-        return false;
+        // if the parent is new, check if it will get published
+        return folderIds.contains(parent.getStructureId());
     }
 
     /**
@@ -10190,11 +10445,12 @@ public final class CmsDriverManager implements I_CmsEventListener {
 
         List<CmsResource> result = new ArrayList<CmsResource>();
 
-        // local folder list for adding new publishing subfolders
+        // local folder id set for adding new publishing subfolders
         // this solves the {@link org.opencms.file.TestPublishIssues#testPublishScenarioD} problem.
-        List<CmsResource> newFolderList = new ArrayList<CmsResource>(publishList == null
-        ? resourceList
-        : publishList.getFolderList());
+        Set<CmsUUID> newFolderIds = getStructureIds(publishList == null ? resourceList : publishList.getFolderList());
+        Set<CmsUUID> deletedFolderIds = null;
+        // the parent folders are shared by many resources, so read each of them only once
+        Map<String, CmsResource> parents = new HashMap<String, CmsResource>();
 
         for (int i = 0; i < resourceList.size(); i++) {
             CmsResource res = resourceList.get(i);
@@ -10208,8 +10464,11 @@ public final class CmsDriverManager implements I_CmsEventListener {
                     // checks if there is a shared lock and if the resource is deleted
                     // this solves the {@link org.opencms.file.TestPublishIssues#testPublishScenarioE} problem.
                     if (lock.isShared() && (publishList != null)) {
+                        if (res.getState().isDeleted() && (deletedFolderIds == null)) {
+                            deletedFolderIds = getStructureIds(publishList.getDeletedFolderList());
+                        }
                         if (!res.getState().isDeleted()
-                            || !checkDeletedParentFolder(dbc, publishList.getDeletedFolderList(), res)) {
+                            || !checkDeletedParentFolder(dbc, deletedFolderIds, parents, res)) {
                             continue;
                         }
                     } else {
@@ -10217,7 +10476,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
                         continue;
                     }
                 }
-                if (!"/".equals(res.getRootPath()) && !checkParentResource(dbc, newFolderList, res)) {
+                if (!"/".equals(res.getRootPath()) && !checkParentResource(dbc, newFolderIds, parents, res)) {
                     continue;
                 }
                 // check permissions
@@ -10233,7 +10492,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
                     continue;
                 }
                 if (res.isFolder()) {
-                    newFolderList.add(res);
+                    newFolderIds.add(res.getStructureId());
                 }
                 result.add(res);
             } catch (Exception e) {
@@ -10264,6 +10523,9 @@ public final class CmsDriverManager implements I_CmsEventListener {
         List<CmsResource> result = new ArrayList<CmsResource>();
 
         // removed internal extendible folder list, since iterated (sibling) resources are files in any case, never folders
+        Set<CmsUUID> folderIds = getStructureIds(publishList.getFolderList());
+        Set<CmsUUID> deletedFolderIds = null;
+        Map<String, CmsResource> parents = new HashMap<String, CmsResource>();
 
         for (Iterator<CmsResource> i = resourceList.iterator(); i.hasNext();) {
             CmsResource res = i.next();
@@ -10277,8 +10539,11 @@ public final class CmsDriverManager implements I_CmsEventListener {
                     // checks if there is a shared lock and if the resource is deleted
                     // this solves the {@link org.opencms.file.TestPublishIssues#testPublishScenarioE} problem.
                     if (lock.isShared() && (publishList != null)) {
+                        if (res.getState().isDeleted() && (deletedFolderIds == null)) {
+                            deletedFolderIds = getStructureIds(publishList.getDeletedFolderList());
+                        }
                         if (!res.getState().isDeleted()
-                            || !checkDeletedParentFolder(dbc, publishList.getDeletedFolderList(), res)) {
+                            || !checkDeletedParentFolder(dbc, deletedFolderIds, parents, res)) {
                             continue;
                         }
                     } else {
@@ -10286,7 +10551,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
                         continue;
                     }
                 }
-                if (!"/".equals(res.getRootPath()) && !checkParentResource(dbc, publishList.getFolderList(), res)) {
+                if (!"/".equals(res.getRootPath()) && !checkParentResource(dbc, folderIds, parents, res)) {
                     // don't add resources that have no parent in the online project
                     continue;
                 }
@@ -10474,6 +10739,22 @@ public final class CmsDriverManager implements I_CmsEventListener {
         return projectId;
     }
 
+    /**
+     * Returns the structure ids of the given resources.<p>
+     * 
+     * @param resources the resources
+     * 
+     * @return a modifiable set with the structure ids of the resources
+     */
+    private Set<CmsUUID> getStructureIds(Collection<CmsResource> resources) {
+
+        Set<CmsUUID> result = new HashSet<CmsUUID>(resources.size());
+        for (CmsResource resource : resources) {
+            result.add(resource.getStructureId());
+        }
+        return result;
+    }
+
     /**
      * Returns if and what state needs to be updated.<p>
      * 
@@ -10686,6 +10967,66 @@ public final class CmsDriverManager implements I_CmsEventListener {
         return allUsers;
     }
 
+    /**
+     * Checks if the sub tree of the given direct publish folder is already read together 
+     * with the sub tree of another direct publish folder that contains it.<p>
+     * 
+     * The sub tree of a deleted folder is read without restricting it to the current project,
+     * so it is only covered by the sub tree of another deleted folder.<p>
+     * 
+     * @param subTreeFolders the direct publish folders whose sub trees are read
+     * @param folder the direct publish folder to check
+     * 
+     * @return <code>true</code> if the sub tree of the given folder is already read with another folder
+     */
+    private boolean isSubTreeRead(List<CmsResource> subTreeFolders, CmsResource folder) {
+
+        Iterator<CmsResource> it = subTreeFolders.iterator();
+        while (it.hasNext()) {
+            CmsResource parent = it.next();
+            if (!parent.getRootPath().equals(folder.getRootPath())
+                && folder.getRootPath().startsWith(parent.getRootPath())
+                && (!folder.getState().isDeleted() || parent.getState().isDeleted())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Loads the index of the relations of the online project, if this is still required.<p>
+     * 
+     * If the relations can not be read, the index is not used until the caches are cleared.<p>
+     * 
+     * @param dbc the current database context
+     */
+    private void loadOnlineRelationIndex(CmsDbContext dbc) {
+
+        synchronized (m_onlineRelationIndex) {
+            if (!m_onlineRelationIndex.isLoadRequired()) {
+                // already loaded by another thread
+                return;
+            }
+            List<CmsRelation> relations = null;
+            try {
+                // the relation query needs a condition, so select all relations by type
+                CmsRelationFilter filter = CmsRelationFilter.TARGETS;
+                for (CmsRelationType type : CmsRelationType.getAll()) {
+                    filter = filter.filterType(type);
+                }
+                relations = getVfsDriver(dbc).readRelations(dbc, CmsProject.ONLINE_PROJECT_ID, null, filter);
+            } catch (CmsException e) {
+                LOG.error(Messages.get().getBundle().key(Messages.LOG_ONLINE_RELATION_INDEX_LOAD_FAILED_0), e);
+            }
+            m_onlineRelationIndex.load(relations);
+            if ((relations != null) && LOG.isInfoEnabled()) {
+                LOG.info(Messages.get().getBundle().key(
+                    Messages.LOG_ONLINE_RELATION_INDEX_LOADED_1,
+                    new Integer(m_onlineRelationIndex.size())));
+            }
+        }
+    }
+
     /**
      * Reads all resources that are inside and changed in a specified project.<p>
      * 
@@ -10761,6 +11102,30 @@ public final class CmsDriverManager implements I_CmsEventListener {
         return result;
     }
 
+    /**
+     * Reads the parent folder of a resource to publish, using the given map as cache.<p>
+     * 
+     * @param dbc the current database context
+     * @param parents the already read parent folders, by root path
+     * @param parentPath the root path of the parent folder
+     * 
+     * @return the parent folder, or <code>null</code> if it could not be read
+     */
+    private CmsResource readPublishParent(CmsDbContext dbc, Map<String, CmsResource> parents, String parentPath) {
+
+        if (parents.containsKey(parentPath)) {
+            return parents.get(parentPath);
+        }
+        CmsResource parent;
+        try {
+            parent = readResource(dbc, parentPath, CmsResourceFilter.ALL);
+        } catch (Exception e) {
+            parent = null;
+        }
+        parents.put(parentPath, parent);
+        return parent;
+    }
+
     /**
      * Sorts the given list of {@link CmsAccessControlEntry} objects.<p>
      * 
@@ -11169,6 +11534,59 @@ public final class CmsDriverManager implements I_CmsEventListener {
         return result;
     }
 
+    /**
+     * Updates the index of the online relations after a publish.<p>
+     * 
+     * The relations of all published resources are read again, if too many resources 
+     * were published the index is reloaded instead when it is used the next time.<p>
+     * 
+     * @param dbc the current database context
+     * @param publishHistoryId the id of the publish history of the publish
+     */
+    private void updateOnlineRelationIndex(CmsDbContext dbc, CmsUUID publishHistoryId) {
+
+        synchronized (m_onlineRelationIndex) {
+            if (!m_onlineRelationIndex.isLoaded()) {
+                // nothing to update, will be loaded when it is used
+                return;
+            }
+            try {
+                List<CmsPublishedResource> publishedResources = getProjectDriver(dbc).readPublishedResources(
+                    dbc,
+                    publishHistoryId);
+                if (publishedResources.size() > ONLINE_RELATION_INDEX_UPDATE_LIMIT) {
+                    m_onlineRelationIndex.clear();
+                    return;
+                }
+                I_CmsVfsDriver vfsDriver = getVfsDriver(dbc);
+                Set<CmsUUID> structureIds = new HashSet<CmsUUID>();
+                List<CmsRelation> relations = new ArrayList<CmsRelation>();
+                for (CmsPublishedResource publishedResource : publishedResources) {
+                    CmsUUID structureId = publishedResource.getStructureId();
+                    if (!structureIds.add(structureId)) {
+                        continue;
+                    }
+                    // the relations starting at the resource
+                    relations.addAll(vfsDriver.readRelations(
+                        dbc,
+                        CmsProject.ONLINE_PROJECT_ID,
+                        null,
+                        CmsRelationFilter.SOURCES.filterStructureId(structureId)));
+                    // the relations pointing to the resource
+                    relations.addAll(vfsDriver.readRelations(
+                        dbc,
+                        CmsProject.ONLINE_PROJECT_ID,
+                        null,
+                        CmsRelationFilter.TARGETS.filterStructureId(structureId)));
+                }
+                m_onlineRelationIndex.update(structureIds, relations);
+            } catch (CmsException e) {
+                LOG.error(Messages.get().getBundle().key(Messages.LOG_ONLINE_RELATION_INDEX_UPDATE_FAILED_0), e);
+                m_onlineRelationIndex.clear();
+            }
+        }
+    }
+
     /**
      * Updates the state of a resource, depending on the <code>resourceState</code> parameter.<p>
      * 
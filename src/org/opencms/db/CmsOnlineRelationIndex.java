@@ -0,0 +1,613 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.db;
+
+import org.opencms.relations.CmsRelation;
+import org.opencms.relations.CmsRelationFilter;
+import org.opencms.relations.CmsRelationType;
+import org.opencms.util.CmsStringUtil;
+import org.opencms.util.CmsUUID;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In-memory index of the relations of the online project.<p>
+ *
+ * The relations are kept in compact arrays: the source and target structure ids are stored
+ * as pairs of <code>long</code> values, the relation types by their id. The arrays are sorted
+ * by source id, and an additional permutation sorted by target id allows reverse lookups,
+ * so both directions are answered with a binary search.<p>
+ *
+ * The index is immutable between updates: every update builds a new snapshot, which is
+ * then published to the readers. Reading the index requires no locking.<p>
+ *
+ * Only relation filters that select relations by structure id and type can be answered by the index,
+ * for all other filters {@link #getRelations(CmsUUID, CmsRelationFilter)} returns <code>null</code>
+ * and the relations have to be read from the database.<p>
+ *
+ * @since 8.0.2
+ *
+ * @see CmsDriverManager#getRelationsForResource(CmsDbContext, org.opencms.file.CmsResource, CmsRelationFilter)
+ */
+public final class CmsOnlineRelationIndex {
+
+    /**
+     * An immutable snapshot of the index.<p>
+     */
+    private static final class Snapshot {
+
+        /** The target index of each relation, in target order. */
+        protected final int[] m_byTarget;
+
+        /** The source paths. */
+        protected final String[] m_sourcePaths;
+
+        /** The most significant bits of the source ids. */
+        protected final long[] m_sourcesHigh;
+
+        /** The least significant bits of the source ids. */
+        protected final long[] m_sourcesLow;
+
+        /** The target paths. */
+        protected final String[] m_targetPaths;
+
+        /** The most significant bits of the target ids. */
+        protected final long[] m_targetsHigh;
+
+        /** The least significant bits of the target ids. */
+        protected final long[] m_targetsLow;
+
+        /** The relation type ids. */
+        protected final int[] m_types;
+
+        /**
+         * Creates a new, empty snapshot with the given size.<p>
+         *
+         * @param size the number of relations
+         */
+        protected Snapshot(int size) {
+
+            m_sourcesHigh = new long[size];
+            m_sourcesLow = new long[size];
+            m_targetsHigh = new long[size];
+            m_targetsLow = new long[size];
+            m_types = new int[size];
+            m_sourcePaths = new String[size];
+            m_targetPaths = new String[size];
+            m_byTarget = new int[size];
+        }
+
+        /**
+         * Copies a relation from another snapshot.<p>
+         *
+         * @param pos the position in this snapshot
+         * @param other the other snapshot
+         * @param otherPos the position in the other snapshot
+         */
+        protected void copy(int pos, Snapshot other, int otherPos) {
+
+            m_sourcesHigh[pos] = other.m_sourcesHigh[otherPos];
+            m_sourcesLow[pos] = other.m_sourcesLow[otherPos];
+            m_targetsHigh[pos] = other.m_targetsHigh[otherPos];
+            m_targetsLow[pos] = other.m_targetsLow[otherPos];
+            m_types[pos] = other.m_types[otherPos];
+            m_sourcePaths[pos] = other.m_sourcePaths[otherPos];
+            m_targetPaths[pos] = other.m_targetPaths[otherPos];
+        }
+
+        /**
+         * Returns the position of the first relation with the given source id in source order.<p>
+         *
+         * @param high the most significant bits of the source id
+         * @param low the least significant bits of the source id
+         *
+         * @return the position of the first relation with the source id, or a position with another source id
+         */
+        protected int firstBySource(long high, long low) {
+
+            int from = 0;
+            int to = size();
+            while (from < to) {
+                int mid = (from + to) >>> 1;
+                if (compare(m_sourcesHigh[mid], m_sourcesLow[mid], high, low) < 0) {
+                    from = mid + 1;
+                } else {
+                    to = mid;
+                }
+            }
+            return from;
+        }
+
+        /**
+         * Returns the position of the first relation with the given target id in target order.<p>
+         *
+         * @param high the most significant bits of the target id
+         * @param low the least significant bits of the target id
+         *
+         * @return the position of the first relation with the target id, or a position with another target id
+         */
+        protected int firstByTarget(long high, long low) {
+
+            int from = 0;
+            int to = size();
+            while (from < to) {
+                int mid = (from + to) >>> 1;
+                int rel = m_byTarget[mid];
+                if (compare(m_targetsHigh[rel], m_targetsLow[rel], high, low) < 0) {
+                    from = mid + 1;
+                } else {
+                    to = mid;
+                }
+            }
+            return from;
+        }
+
+        /**
+         * Creates the relation object for the relation at the given position.<p>
+         *
+         * @param pos the position of the relation
+         *
+         * @return the relation
+         */
+        protected CmsRelation getRelation(int pos) {
+
+            return new CmsRelation(
+                toUUID(m_sourcesHigh[pos], m_sourcesLow[pos]),
+                m_sourcePaths[pos],
+                toUUID(m_targetsHigh[pos], m_targetsLow[pos]),
+                m_targetPaths[pos],
+                CmsRelationType.valueOf(m_types[pos]));
+        }
+
+        /**
+         * Checks if the relation at the given position has the given source id.<p>
+         *
+         * @param pos the position of the relation
+         * @param high the most significant bits of the id
+         * @param low the least significant bits of the id
+         *
+         * @return <code>true</code> if the relation has the given source id
+         */
+        protected boolean hasSource(int pos, long high, long low) {
+
+            return (m_sourcesHigh[pos] == high) && (m_sourcesLow[pos] == low);
+        }
+
+        /**
+         * Checks if the relation at the given position has the given target id.<p>
+         *
+         * @param pos the position of the relation
+         * @param high the most significant bits of the id
+         * @param low the least significant bits of the id
+         *
+         * @return <code>true</code> if the relation has the given target id
+         */
+        protected boolean hasTarget(int pos, long high, long low) {
+
+            return (m_targetsHigh[pos] == high) && (m_targetsLow[pos] == low);
+        }
+
+        /**
+         * Sets the relation at the given position.<p>
+         *
+         * @param pos the position
+         * @param relation the relation
+         * @param paths the paths already stored, used to share equal path strings
+         */
+        protected void set(int pos, CmsRelation relation, Map<String, String> paths) {
+
+            byte[] source = relation.getSourceId().toByteArray();
+            byte[] target = relation.getTargetId().toByteArray();
+            m_sourcesHigh[pos] = toLong(source, 0);
+            m_sourcesLow[pos] = toLong(source, 8);
+            m_targetsHigh[pos] = toLong(target, 0);
+            m_targetsLow[pos] = toLong(target, 8);
+            m_types[pos] = relation.getType().getId();
+            m_sourcePaths[pos] = sharePath(paths, relation.getSourcePath());
+            m_targetPaths[pos] = sharePath(paths, relation.getTargetPath());
+        }
+
+        /**
+         * Returns the number of relations in this snapshot.<p>
+         *
+         * @return the number of relations
+         */
+        protected int size() {
+
+            return m_types.length;
+        }
+    }
+
+    /** Indicates that the index has to be loaded before it can be used. */
+    private volatile boolean m_loadRequired;
+
+    /** The snapshot of the index, <code>null</code> if the index is not available. */
+    private volatile Snapshot m_snapshot;
+
+    /**
+     * Creates a new index, which must be loaded before it can be used.<p>
+     */
+    public CmsOnlineRelationIndex() {
+
+        m_loadRequired = true;
+    }
+
+    /**
+     * Compares two ids given by their most and least significant bits.<p>
+     *
+     * @param high1 the most significant bits of the first id
+     * @param low1 the least significant bits of the first id
+     * @param high2 the most significant bits of the second id
+     * @param low2 the least significant bits of the second id
+     *
+     * @return a negative number, zero, or a positive number if the first id is less than, equal to, or greater than the second
+     */
+    private static int compare(long high1, long low1, long high2, long low2) {
+
+        if (high1 != high2) {
+            return (high1 < high2) ? -1 : 1;
+        }
+        if (low1 != low2) {
+            return (low1 < low2) ? -1 : 1;
+        }
+        return 0;
+    }
+
+    /**
+     * Builds a snapshot with the given relations.<p>
+     *
+     * @param relations the relations, without duplicates
+     *
+     * @return the snapshot, sorted by source id and with the target permutation
+     */
+    private static Snapshot createSnapshot(Collection<CmsRelation> relations) {
+
+        Snapshot unsorted = new Snapshot(relations.size());
+        Map<String, String> paths = new HashMap<String, String>();
+        int pos = 0;
+        for (CmsRelation relation : relations) {
+            unsorted.set(pos, relation, paths);
+            pos++;
+        }
+        int[] bySource = sort(unsorted.m_sourcesHigh, unsorted.m_sourcesLow);
+        Snapshot result = new Snapshot(unsorted.size());
+        for (int i = 0; i < bySource.length; i++) {
+            result.copy(i, unsorted, bySource[i]);
+        }
+        int[] byTarget = sort(result.m_targetsHigh, result.m_targetsLow);
+        System.arraycopy(byTarget, 0, result.m_byTarget, 0, byTarget.length);
+        return result;
+    }
+
+    /**
+     * Returns the equal path string already stored, or stores the given one.<p>
+     *
+     * @param paths the paths already stored
+     * @param path the path
+     *
+     * @return the shared path string
+     */
+    private static String sharePath(Map<String, String> paths, String path) {
+
+        String result = paths.get(path);
+        if (result == null) {
+            paths.put(path, path);
+            result = path;
+        }
+        return result;
+    }
+
+    /**
+     * Returns the positions of the given ids in ascending id order.<p>
+     *
+     * The sort is stable, equal ids keep their original order.<p>
+     *
+     * @param high the most significant bits of the ids
+     * @param low the least significant bits of the ids
+     *
+     * @return the sorted positions
+     */
+    private static int[] sort(long[] high, long[] low) {
+
+        int[] result = new int[high.length];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = i;
+        }
+        int[] buffer = new int[result.length];
+        // bottom up merge sort
+        for (int width = 1; width < result.length; width *= 2) {
+            for (int from = 0; from < result.length; from += 2 * width) {
+                int mid = Math.min(from + width, result.length);
+                int to = Math.min(from + (2 * width), result.length);
+                int left = from;
+                int right = mid;
+                for (int i = from; i < to; i++) {
+                    if ((left < mid)
+                        && ((right >= to) || (compare(
+                            high[result[left]],
+                            low[result[left]],
+                            high[result[right]],
+                            low[result[right]]) <= 0))) {
+                        buffer[i] = result[left++];
+                    } else {
+                        buffer[i] = result[right++];
+                    }
+                }
+            }
+            int[] swap = result;
+            result = buffer;
+            buffer = swap;
+        }
+        return result;
+    }
+
+    /**
+     * Reads a <code>long</code> from 8 bytes in big endian order.<p>
+     *
+     * @param bytes the bytes
+     * @param offset the offset of the first byte
+     *
+     * @return the <code>long</code> value
+     */
+    private static long toLong(byte[] bytes, int offset) {
+
+        long result = 0;
+        for (int i = offset; i < (offset + 8); i++) {
+            result = (result << 8) | (bytes[i] & 0xff);
+        }
+        return result;
+    }
+
+    /**
+     * Creates the structure id for the given most and least significant bits.<p>
+     *
+     * @param high the most significant bits
+     * @param low the least significant bits
+     *
+     * @return the structure id
+     */
+    private static CmsUUID toUUID(long high, long low) {
+
+        byte[] bytes = new byte[16];
+        for (int i = 7; i >= 0; i--) {
+            bytes[i] = (byte)high;
+            bytes[i + 8] = (byte)low;
+            high >>>= 8;
+            low >>>= 8;
+        }
+        return new CmsUUID(bytes);
+    }
+
+    /**
+     * Removes all relations from the index, and marks it for loading.<p>
+     */
+    public synchronized void clear() {
+
+        m_snapshot = null;
+        m_loadRequired = true;
+    }
+
+    /**
+     * Returns the relations of the resource with the given structure id that match the given filter.<p>
+     *
+     * The result is the same as reading the relations of the resource from the online project,
+     * see {@link I_CmsVfsDriver#readRelations(CmsDbContext, CmsUUID, org.opencms.file.CmsResource, CmsRelationFilter)}.<p>
+     *
+     * @param structureId the structure id of the resource
+     * @param filter the relation filter
+     *
+     * @return the matching relations, or <code>null</code> if the index is not available or can not answer the filter
+     */
+    public List<CmsRelation> getRelations(CmsUUID structureId, CmsRelationFilter filter) {
+
+        Snapshot snapshot = m_snapshot;
+        if ((snapshot == null)
+            || filter.isIncludeSubresources()
+            || CmsStringUtil.isNotEmptyOrWhitespaceOnly(filter.getPath())) {
+            return null;
+        }
+        byte[] id = structureId.toByteArray();
+        long high = toLong(id, 0);
+        long low = toLong(id, 8);
+        long otherHigh = 0;
+        long otherLow = 0;
+        if (filter.getStructureId() != null) {
+            byte[] otherId = filter.getStructureId().toByteArray();
+            otherHigh = toLong(otherId, 0);
+            otherLow = toLong(otherId, 8);
+        }
+        Set<CmsRelation> result = new LinkedHashSet<CmsRelation>();
+        if (filter.isSource()) {
+            // relations pointing to the resource
+            for (int i = snapshot.firstByTarget(high, low); i < snapshot.size(); i++) {
+                int pos = snapshot.m_byTarget[i];
+                if (!snapshot.hasTarget(pos, high, low)) {
+                    break;
+                }
+                if (((filter.getStructureId() == null) || snapshot.hasSource(pos, otherHigh, otherLow))
+                    && filter.matchType(CmsRelationType.valueOf(snapshot.m_types[pos]))) {
+                    result.add(snapshot.getRelation(pos));
+                }
+            }
+        }
+        if (filter.isTarget()) {
+            // relations starting at the resource
+            for (int pos = snapshot.firstBySource(high, low); pos < snapshot.size(); pos++) {
+                if (!snapshot.hasSource(pos, high, low)) {
+                    break;
+                }
+                if (((filter.getStructureId() == null) || snapshot.hasTarget(pos, otherHigh, otherLow))
+                    && filter.matchType(CmsRelationType.valueOf(snapshot.m_types[pos]))) {
+                    result.add(snapshot.getRelation(pos));
+                }
+            }
+        }
+        return new ArrayList<CmsRelation>(result);
+    }
+
+    /**
+     * Checks if the index has to be loaded before it can be used.<p>
+     *
+     * @return <code>true</code> if the index has to be loaded
+     */
+    public boolean isLoadRequired() {
+
+        return m_loadRequired;
+    }
+
+    /**
+     * Checks if the index is available.<p>
+     *
+     * @return <code>true</code> if the index is available
+     */
+    public boolean isLoaded() {
+
+        return m_snapshot != null;
+    }
+
+    /**
+     * Loads the index with all relations of the online project.<p>
+     *
+     * @param relations all relations of the online project,
+     *      or <code>null</code> if the relations could not be read, then the index is not available until the next {@link #clear()}
+     */
+    public synchronized void load(Collection<CmsRelation> relations) {
+
+        m_snapshot = (relations != null) ? createSnapshot(new LinkedHashSet<CmsRelation>(relations)) : null;
+        m_loadRequired = false;
+    }
+
+    /**
+     * Returns the number of relations in the index.<p>
+     *
+     * @return the number of relations in the index
+     */
+    public int size() {
+
+        Snapshot snapshot = m_snapshot;
+        return (snapshot != null) ? snapshot.size() : 0;
+    }
+
+    /**
+     * Replaces the relations of the given resources.<p>
+     *
+     * All relations with one of the given structure ids as source or target are removed from the index,
+     * and the given relations are added. This is used to keep the index up to date after a publish.<p>
+     *
+     * If the index is not loaded, nothing is done.<p>
+     *
+     * @param structureIds the structure ids of the changed resources
+     * @param relations the current relations of the changed resources, as source or target
+     */
+    public synchronized void update(Collection<CmsUUID> structureIds, Collection<CmsRelation> relations) {
+
+        Snapshot old = m_snapshot;
+        if (old == null) {
+            return;
+        }
+        // mark the relations of the changed resources
+        boolean[] removed = new boolean[old.size()];
+        int removedCount = 0;
+        for (CmsUUID structureId : structureIds) {
+            byte[] id = structureId.toByteArray();
+            long high = toLong(id, 0);
+            long low = toLong(id, 8);
+            for (int pos = old.firstBySource(high, low); (pos < old.size()) && old.hasSource(pos, high, low); pos++) {
+                if (!removed[pos]) {
+                    removed[pos] = true;
+                    removedCount++;
+                }
+            }
+            for (int i = old.firstByTarget(high, low); i < old.size(); i++) {
+                int pos = old.m_byTarget[i];
+                if (!old.hasTarget(pos, high, low)) {
+                    break;
+                }
+                if (!removed[pos]) {
+                    removed[pos] = true;
+                    removedCount++;
+                }
+            }
+        }
+        Snapshot added = createSnapshot(new LinkedHashSet<CmsRelation>(relations));
+        Snapshot result = new Snapshot((old.size() - removedCount) + added.size());
+        // merge the remaining and the added relations in source order
+        int[] oldPositions = new int[old.size()];
+        int[] addedPositions = new int[added.size()];
+        int oldPos = 0;
+        int addedPos = 0;
+        for (int pos = 0; pos < result.size(); pos++) {
+            while ((oldPos < old.size()) && removed[oldPos]) {
+                oldPos++;
+            }
+            if ((oldPos < old.size())
+                && ((addedPos >= added.size()) || (compare(
+                    old.m_sourcesHigh[oldPos],
+                    old.m_sourcesLow[oldPos],
+                    added.m_sourcesHigh[addedPos],
+                    added.m_sourcesLow[addedPos]) <= 0))) {
+                result.copy(pos, old, oldPos);
+                oldPositions[oldPos] = pos;
+                oldPos++;
+            } else {
+                result.copy(pos, added, addedPos);
+                addedPositions[addedPos] = pos;
+                addedPos++;
+            }
+        }
+        // merge the target orders of the remaining and the added relations
+        int oldIndex = 0;
+        int addedIndex = 0;
+        for (int i = 0; i < result.size(); i++) {
+            while ((oldIndex < old.size()) && removed[old.m_byTarget[oldIndex]]) {
+                oldIndex++;
+            }
+            int fromOld = (oldIndex < old.size()) ? oldPositions[old.m_byTarget[oldIndex]] : -1;
+            int fromAdded = (addedIndex < added.size()) ? addedPositions[added.m_byTarget[addedIndex]] : -1;
+            if ((fromOld >= 0)
+                && ((fromAdded < 0) || (compare(
+                    result.m_targetsHigh[fromOld],
+                    result.m_targetsLow[fromOld],
+                    result.m_targetsHigh[fromAdded],
+                    result.m_targetsLow[fromAdded]) <= 0))) {
+                result.m_byTarget[i] = fromOld;
+                oldIndex++;
+            } else {
+                result.m_byTarget[i] = fromAdded;
+                addedIndex++;
+            }
+        }
+        m_snapshot = result;
+    }
+}
@@ -88,6 +88,9 @@ public class CmsPublishList implements Externalizable {
     /** The list of deleted folder resources to be published.<p> */
     private List<CmsResource> m_deletedFolderList;
 
+    /** Index of the deleted folder list, for fast lookups.<p> */
+    private Set<CmsResource> m_deletedFolderSet;
+
     /** The list of deleted folder UUIDs to be published for later retrieval.<p> */
     private List<CmsUUID> m_deletedFolderUUIDs;
 
@@ -100,12 +103,18 @@ public class CmsPublishList implements Externalizable {
     /** The list of new/changed/deleted file resources to be published.<p> */
     private List<CmsResource> m_fileList;
 
+    /** Index of the file list, for fast lookups.<p> */
+    private Set<CmsResource> m_fileSet;
+
     /** The list of new/changed/deleted file resource UUIDs to be published for later retrieval.<p> */
     private List<CmsUUID> m_fileUUIDs;
 
     /** The list of new/changed folder resources to be published.<p> */
     private List<CmsResource> m_folderList;
 
+    /** Index of the folder list, for fast lookups.<p> */
+    private Set<CmsResource> m_folderSet;
+
     /** The list of new/changed folder resource UUIDs to be published for later retrieval.<p> */
     private List<CmsUUID> m_folderUUIDs;
 
@@ -209,6 +218,9 @@ public class CmsPublishList implements Externalizable {
         m_fileList = new ArrayList<CmsResource>();
         m_folderList = new ArrayList<CmsResource>();
         m_deletedFolderList = new ArrayList<CmsResource>();
+        m_fileSet = new HashSet<CmsResource>();
+        m_folderSet = new HashSet<CmsResource>();
+        m_deletedFolderSet = new HashSet<CmsResource>();
         m_publishHistoryId = new CmsUUID();
         m_publishSiblings = publishSiblings;
         m_publishSubResources = publishSubResources;
@@ -420,6 +432,11 @@ public class CmsPublishList implements Externalizable {
             if (m_deletedFolderUUIDs != null) {
                 m_deletedFolderList = internalReadResourceList(cms, m_deletedFolderUUIDs);
             }
+            m_fileSet = (m_fileList != null) ? new HashSet<CmsResource>(m_fileList) : new HashSet<CmsResource>();
+            m_folderSet = (m_folderList != null) ? new HashSet<CmsResource>(m_folderList) : new HashSet<CmsResource>();
+            m_deletedFolderSet = (m_deletedFolderList != null)
+            ? new HashSet<CmsResource>(m_deletedFolderList)
+            : new HashSet<CmsResource>();
             m_needsRevive = false;
         }
     }
@@ -540,18 +557,18 @@ public class CmsPublishList implements Externalizable {
         }
         if (resource.isFolder()) {
             if (resource.getState().isDeleted()) {
-                if (!m_deletedFolderList.contains(resource)) {
+                if (m_deletedFolderSet.add(resource)) {
                     // only add files not already contained in the list
                     m_deletedFolderList.add(resource);
                 }
             } else {
-                if (!m_folderList.contains(resource)) {
+                if (m_folderSet.add(resource)) {
                     // only add files not already contained in the list
                     m_folderList.add(resource);
                 }
             }
         } else {
-            if (!m_fileList.contains(resource)) {
+            if (m_fileSet.add(resource)) {
                 // only add files not already contained in the list
                 // this is required to make sure no siblings are duplicated
                 m_fileList.add(resource);
@@ -605,7 +622,7 @@ public class CmsPublishList implements Externalizable {
      */
     protected boolean containsResource(CmsResource res) {
 
-        return m_deletedFolderList.contains(res) || m_folderList.contains(res) || m_fileList.contains(res);
+        return m_deletedFolderSet.contains(res) || m_folderSet.contains(res) || m_fileSet.contains(res);
     }
 
     /**
@@ -725,9 +742,17 @@ public class CmsPublishList implements Externalizable {
     protected boolean remove(CmsResource resource) {
 
         // it is essential that this method is only visible within the db package!
-        boolean ret = m_fileList.remove(resource);
-        ret |= m_folderList.remove(resource);
-        ret |= m_deletedFolderList.remove(resource);
+        // only scan the lists that actually contain the resource
+        boolean ret = false;
+        if (m_fileSet.remove(resource)) {
+            ret |= m_fileList.remove(resource);
+        }
+        if (m_folderSet.remove(resource)) {
+            ret |= m_folderList.remove(resource);
+        }
+        if (m_deletedFolderSet.remove(resource)) {
+            ret |= m_deletedFolderList.remove(resource);
+        }
         return ret;
     }
 
@@ -49,6 +49,7 @@ import org.opencms.file.CmsUserSearchParameters;
 import org.opencms.file.CmsVfsException;
 import org.opencms.file.CmsVfsResourceAlreadyExistsException;
 import org.opencms.file.CmsVfsResourceNotFoundException;
+import org.opencms.file.history.CmsHistoryClearProgress;
 import org.opencms.file.history.CmsHistoryPrincipal;
 import org.opencms.file.history.CmsHistoryProject;
 import org.opencms.file.history.I_CmsHistoryResource;
@@ -80,6 +81,7 @@ import org.opencms.security.CmsPermissionSetCustom;
 import org.opencms.security.CmsPermissionViolationException;
 import org.opencms.security.CmsPrincipal;
 import org.opencms.security.CmsRole;
+import org.opencms.security.CmsRoleMembership;
 import org.opencms.security.CmsRoleViolationException;
 import org.opencms.security.CmsSecurityException;
 import org.opencms.security.I_CmsPermissionHandler;
@@ -1168,6 +1170,31 @@ public final class CmsSecurityManager {
         return result;
     }
 
+    /**
+     * Merges the historical content entries with identical content of all resources in the history.<p>
+     * 
+     * @param context the current request context
+     * @param report the report for output logging
+     * 
+     * @throws CmsException if operation was not successful
+     * @throws CmsRoleViolationException if the current user does not own the role {@link CmsRole#WORKPLACE_MANAGER}
+     */
+    public void deduplicateHistoryContents(CmsRequestContext context, I_CmsReport report)
+    throws CmsException, CmsRoleViolationException {
+
+        CmsDbContext dbc = m_dbContextFactory.getDbContext(context);
+        try {
+            CmsFolder root = readFolder(dbc, "/", CmsResourceFilter.ALL);
+            checkRole(dbc, CmsRole.WORKPLACE_MANAGER.forOrgUnit(null));
+            checkPermissions(dbc, root, CmsPermissionSet.ACCESS_WRITE, false, CmsResourceFilter.ALL);
+            m_driverManager.deduplicateHistoryContents(dbc, report);
+        } catch (Exception e) {
+            dbc.report(null, Messages.get().container(Messages.ERR_DEDUPLICATE_HISTORY_CONTENTS_0), e);
+        } finally {
+            dbc.clear();
+        }
+    }
+
     /**
      * Deletes all entries in the published resource table.<p>
      * 
@@ -1295,6 +1322,60 @@ public final class CmsSecurityManager {
         }
     }
 
+    /**
+     * Deletes the versions from the history tables for the next chunk of historical resources.<p>
+     * 
+     * Every chunk is processed in its own database context, so the changes are committed after each chunk.<p>
+     * 
+     * @param context the current request context
+     * @param versionsToKeep number of versions to keep, is ignored if negative 
+     * @param versionsDeleted number of versions to keep for deleted resources, is ignored if negative
+     * @param timeDeleted deleted resources older than this will also be deleted, is ignored if negative
+     * @param progress the progress of the deletion
+     * @param chunkSize the maximal number of historical resources to process
+     * @param report the report for output logging
+     * 
+     * @return <code>true</code> if the deletion is finished, <code>false</code> if there are more chunks to process
+     * 
+     * @throws CmsException if operation was not successful
+     * @throws CmsRoleViolationException if the current user does not own the role {@link CmsRole#WORKPLACE_MANAGER}
+     */
+    public boolean deleteHistoricalVersions(
+        CmsRequestContext context,
+        int versionsToKeep,
+        int versionsDeleted,
+        long timeDeleted,
+        CmsHistoryClearProgress progress,
+        int chunkSize,
+        I_CmsReport report) throws CmsException, CmsRoleViolationException {
+
+        boolean result = false;
+        CmsDbContext dbc = m_dbContextFactory.getDbContext(context);
+        try {
+            CmsFolder root = readFolder(dbc, "/", CmsResourceFilter.ALL);
+            checkRole(dbc, CmsRole.WORKPLACE_MANAGER.forOrgUnit(null));
+            checkPermissions(dbc, root, CmsPermissionSet.ACCESS_WRITE, false, CmsResourceFilter.ALL);
+            result = m_driverManager.deleteHistoricalVersions(
+                dbc,
+                versionsToKeep,
+                versionsDeleted,
+                timeDeleted,
+                progress,
+                chunkSize,
+                report);
+        } catch (Exception e) {
+            dbc.report(
+                null,
+                Messages.get().container(
+                    Messages.ERR_DELETE_HISTORY_4,
+                    new Object[] {"/", new Integer(versionsToKeep), new Integer(versionsDeleted), new Date(timeDeleted)}),
+                e);
+        } finally {
+            dbc.clear();
+        }
+        return result;
+    }
+
     /**
      * Deletes all log entries matching the given filter.<p>
      * 
@@ -2413,6 +2494,43 @@ public final class CmsSecurityManager {
         return result;
     }
 
+    /**
+     * Returns all relations for the given resources matching the given filter, by structure id of the resources.<p> 
+     * 
+     * @param context the current user context
+     * @param resources the resources to retrieve the relations for
+     * @param filter the filter to match the relation, the "include subresources" flag is ignored
+     * 
+     * @return the {@link org.opencms.relations.CmsRelation} objects matching the given filter, by structure id of the resources
+     * 
+     * @throws CmsException if something goes wrong
+     * 
+     * @see CmsObject#getRelationsForResources(List, CmsRelationFilter)
+     */
+    public Map<CmsUUID, List<CmsRelation>> getRelationsForResources(
+        CmsRequestContext context,
+        List<CmsResource> resources,
+        CmsRelationFilter filter) throws CmsException {
+
+        Map<CmsUUID, List<CmsRelation>> result = null;
+        CmsDbContext dbc = m_dbContextFactory.getDbContext(context);
+        try {
+            // check the access permissions
+            Iterator<CmsResource> it = resources.iterator();
+            while (it.hasNext()) {
+                checkPermissions(dbc, it.next(), CmsPermissionSet.ACCESS_VIEW, false, CmsResourceFilter.ALL);
+            }
+            result = m_driverManager.getRelationsForResources(dbc, resources, filter);
+        } catch (Exception e) {
+            dbc.report(null, Messages.get().container(
+                Messages.ERR_READ_RELATIONS_FOR_RESOURCES_1,
+                new Integer(resources.size())), e);
+        } finally {
+            dbc.clear();
+        }
+        return result;
+    }
+
     /**
      * Returns all resources of the given organizational unit.<p>
      *
@@ -2618,6 +2736,32 @@ public final class CmsSecurityManager {
         return result;
     }
 
+    /**
+     * Returns the users of a set of principals, that is the users 
+     * and all users of the groups in the set.<p>
+     *
+     * @param context the current request context
+     * @param principals the principals
+     *
+     * @return the users of the principals
+     * 
+     * @throws CmsException if operation was not successful
+     */
+    public Set<CmsUser> getUsersOfPrincipals(CmsRequestContext context, Set<I_CmsPrincipal> principals)
+    throws CmsException {
+
+        CmsDbContext dbc = m_dbContextFactory.getDbContext(context);
+        Set<CmsUser> result = null;
+        try {
+            result = m_driverManager.getUsersOfPrincipals(dbc, principals);
+        } catch (Exception e) {
+            dbc.report(null, Messages.get().container(Messages.ERR_GET_USERS_OF_PRINCIPALS_0), e);
+        } finally {
+            dbc.clear();
+        }
+        return result;
+    }
+
     /**
      * Returns the current user's publish list.<p>
      * 
@@ -2732,35 +2876,31 @@ public final class CmsSecurityManager {
      */
     public boolean hasRole(CmsDbContext dbc, CmsUser user, CmsRole role) {
 
-        // try to read from cache
-        String key = user.getName().toString() + role.getGroupName() + role.getOuFqn();
-        Boolean result = OpenCms.getMemoryMonitor().getCachedRole(key);
-        if (result != null) {
-            return result.booleanValue();
-        }
-
-        // read all roles of the current user
-        List<CmsGroup> roles;
-        try {
-            roles = m_driverManager.getGroupsOfUser(
-                dbc,
-                user.getName(),
-                "",
-                true,
-                true,
-                false,
-                dbc.getRequestContext().getRemoteAddress());
-        } catch (CmsException e) {
-            if (LOG.isErrorEnabled()) {
-                LOG.error(e.getLocalizedMessage(), e);
+        // try to read the role membership of the user from cache
+        CmsRoleMembership membership = OpenCms.getMemoryMonitor().getCachedRoleMembership(user.getId());
+        if (membership == null) {
+            // read all roles of the current user
+            List<CmsGroup> roles;
+            try {
+                roles = m_driverManager.getGroupsOfUser(
+                    dbc,
+                    user.getName(),
+                    "",
+                    true,
+                    true,
+                    false,
+                    dbc.getRequestContext().getRemoteAddress());
+            } catch (CmsException e) {
+                if (LOG.isErrorEnabled()) {
+                    LOG.error(e.getLocalizedMessage(), e);
+                }
+                // any exception: return false
+                return false;
             }
-            // any exception: return false
-            return false;
+            membership = new CmsRoleMembership(roles);
+            OpenCms.getMemoryMonitor().cacheRoleMembership(user.getId(), membership);
         }
-
-        result = Boolean.valueOf(hasRole(role, roles));
-        OpenCms.getMemoryMonitor().cacheRole(key, result.booleanValue());
-        return result.booleanValue();
+        return membership.hasRole(role);
     }
 
     /**
@@ -70,6 +70,22 @@ public interface I_CmsHistoryDriver {
         String name,
         CmsPropertyDefinition.CmsPropertyType type) throws CmsDataAccessException;
 
+    /**
+     * Merges the consecutive historical content entries of a resource that have identical content.<p>
+     * 
+     * Each content entry covers a range of publish tags, so merging entries with identical content 
+     * into a single entry with the combined publish tag range does not change the content read for 
+     * any historical version of the resource.<p>
+     * 
+     * @param dbc the current database context
+     * @param resourceId the resource id of the resource to merge the content entries for
+     * 
+     * @return the number of content entries that were removed
+     * 
+     * @throws CmsDataAccessException if something goes wrong
+     */
+    int deduplicateContents(CmsDbContext dbc, CmsUUID resourceId) throws CmsDataAccessException;
+
     /**
      * Deletes all historical versions of a resource 
      * keeping maximal <code>versionsToKeep</code> versions.<p>
@@ -125,6 +141,40 @@ public interface I_CmsHistoryDriver {
      */
     List<I_CmsHistoryResource> getAllNotDeletedEntries(CmsDbContext dbc) throws CmsDataAccessException;
 
+    /**
+     * Returns a chunk of the historical resources of deleted resources, ordered by structure id.<p>
+     * 
+     * Use the structure id of the last returned resource as start for the next chunk.<p>
+     * 
+     * @param dbc the current database context
+     * @param startStructureId only resources with a structure id greater than this are returned, 
+     *      if <code>null</code> the first chunk is returned
+     * @param maxEntries the maximal number of resources to return
+     * 
+     * @return a list of {@link I_CmsHistoryResource} objects, with the latest version of each resource
+     * 
+     * @throws CmsDataAccessException if something goes wrong
+     */
+    List<I_CmsHistoryResource> getDeletedEntries(CmsDbContext dbc, CmsUUID startStructureId, int maxEntries)
+    throws CmsDataAccessException;
+
+    /**
+     * Returns a chunk of the historical resources of not deleted resources, ordered by structure id.<p>
+     * 
+     * Use the structure id of the last returned resource as start for the next chunk.<p>
+     * 
+     * @param dbc the current database context
+     * @param startStructureId only resources with a structure id greater than this are returned, 
+     *      if <code>null</code> the first chunk is returned
+     * @param maxEntries the maximal number of resources to return
+     * 
+     * @return a list of {@link I_CmsHistoryResource} objects, with the latest version of each resource
+     * 
+     * @throws CmsDataAccessException if something goes wrong
+     */
+    List<I_CmsHistoryResource> getNotDeletedEntries(CmsDbContext dbc, CmsUUID startStructureId, int maxEntries)
+    throws CmsDataAccessException;
+
     /**
      * Returns the SqlManager of this driver.<p>
      * 
@@ -56,6 +56,9 @@ public interface I_CmsVfsDriver {
     /** The type ID to identify user driver implementations. */
     int DRIVER_TYPE_ID = 3;
 
+    /** The maximum number of structure ids used in one query when reading the relations of several resources. */
+    int RELATIONS_MAX_RESOURCES_PER_QUERY = 500;
+
     /** The internal request attribute to indicate that the permissions have to be checked. */
     String REQ_ATTR_CHECK_PERMISSIONS = "CHECK_PERMISSIONS";
 
@@ -530,6 +533,28 @@ public interface I_CmsVfsDriver {
     List<CmsRelation> readRelations(CmsDbContext dbc, CmsUUID projectId, CmsResource resource, CmsRelationFilter filter)
     throws CmsDataAccessException;
 
+    /**
+     * Reads all relations with the given filter for the resources with the given structure ids.<p>
+     * 
+     * The relations are read with one query for up to {@link #RELATIONS_MAX_RESOURCES_PER_QUERY} resources.
+     * The structure ids are used like the resource in {@link #readRelations(CmsDbContext, CmsUUID, CmsResource, CmsRelationFilter)}, 
+     * the "include subresources" flag of the filter is ignored.<p>
+     * 
+     * @param dbc the current database context
+     * @param projectId the id of the project to execute the query in
+     * @param structureIds the structure ids of the resources to read the relations for
+     * @param filter the filter to restrict the relations to retrieve
+     * 
+     * @return the read relations
+     * 
+     * @throws CmsDataAccessException if something goes wrong
+     */
+    List<CmsRelation> readRelationsForResources(
+        CmsDbContext dbc,
+        CmsUUID projectId,
+        List<CmsUUID> structureIds,
+        CmsRelationFilter filter) throws CmsDataAccessException;
+
     /**
      * Reads a resource specified by it's structure ID.<p>
      * 
@@ -165,6 +165,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String ERR_DB_OPERATION_0 = "ERR_DB_OPERATION_0";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String ERR_DEDUPLICATE_HISTORY_CONTENTS_0 = "ERR_DEDUPLICATE_HISTORY_CONTENTS_0";
+
     /** Message constant for key in the resource bundle. */
     public static final String ERR_DELETE_GROUP_1 = "ERR_DELETE_GROUP_1";
 
@@ -279,6 +282,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String ERR_GET_USERS_OF_GROUP_1 = "ERR_GET_USERS_OF_GROUP_1";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String ERR_GET_USERS_OF_PRINCIPALS_0 = "ERR_GET_USERS_OF_PRINCIPALS_0";
+
     /** Message constant for key in the resource bundle. */
     public static final String ERR_GET_USERS_OF_TYPE_1 = "ERR_GET_USERS_OF_TYPE_1";
 
@@ -486,6 +492,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String ERR_READ_RELATIONS_1 = "ERR_READ_RELATIONS_1";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String ERR_READ_RELATIONS_FOR_RESOURCES_1 = "ERR_READ_RELATIONS_FOR_RESOURCES_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String ERR_READ_RESOURCE_1 = "ERR_READ_RESOURCE_1";
 
@@ -834,6 +843,15 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String LOG_NO_EXPORT_POINTS_CONFIGURED_0 = "LOG_NO_EXPORT_POINTS_CONFIGURED_0";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_ONLINE_RELATION_INDEX_LOADED_1 = "LOG_ONLINE_RELATION_INDEX_LOADED_1";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_ONLINE_RELATION_INDEX_LOAD_FAILED_0 = "LOG_ONLINE_RELATION_INDEX_LOAD_FAILED_0";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_ONLINE_RELATION_INDEX_UPDATE_FAILED_0 = "LOG_ONLINE_RELATION_INDEX_UPDATE_FAILED_0";
+
     /** Message constant for key in the resource bundle. */
     public static final String LOG_UPDATE_EXORT_POINTS_ERROR_0 = "LOG_UPDATE_EXORT_POINTS_ERROR_0";
 
@@ -849,9 +867,15 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String RPT_CHECKING_0 = "RPT_CHECKING_0";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String RPT_CONTENTS_DEDUPLICATED_1 = "RPT_CONTENTS_DEDUPLICATED_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String RPT_DELETE_NOTHING_0 = "RPT_DELETE_NOTHING_0";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String RPT_END_DEDUPLICATE_CONTENTS_1 = "RPT_END_DEDUPLICATE_CONTENTS_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String RPT_END_DELETE_ACT_VERSIONS_0 = "RPT_END_DELETE_ACT_VERSIONS_0";
 
@@ -879,6 +903,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String RPT_PUBLISH_REMOVED_RESOURCE_1 = "RPT_PUBLISH_REMOVED_RESOURCE_1";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String RPT_START_DEDUPLICATE_CONTENTS_0 = "RPT_START_DEDUPLICATE_CONTENTS_0";
+
     /** Message constant for key in the resource bundle. */
     public static final String RPT_START_DELETE_ACT_VERSIONS_1 = "RPT_START_DELETE_ACT_VERSIONS_1";
 
@@ -63,8 +63,10 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -117,6 +119,103 @@ public class CmsHistoryDriver implements I_CmsDriver, I_CmsHistoryDriver {
         return readPropertyDefinition(dbc, name);
     }
 
+    /**
+     * @see org.opencms.db.I_CmsHistoryDriver#deduplicateContents(org.opencms.db.CmsDbContext, org.opencms.util.CmsUUID)
+     */
+    public int deduplicateContents(CmsDbContext dbc, CmsUUID resourceId) throws CmsDataAccessException {
+
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet res = null;
+        // the merges to execute, each as {kept publish tag from, new publish tag to, new online flag}
+        List<int[]> merges = new ArrayList<int[]>();
+        // the publish tag from of the entries to remove
+        List<Integer> duplicates = new ArrayList<Integer>();
+
+        try {
+            conn = m_sqlManager.getConnection(dbc);
+            // first read the publish tag ranges of all entries, without the content
+            List<int[]> entries = new ArrayList<int[]>();
+            stmt = m_sqlManager.getPreparedStatement(conn, "C_CONTENT_HISTORY_READ_ALL");
+            stmt.setString(1, resourceId.toString());
+            res = stmt.executeQuery();
+            while (res.next()) {
+                entries.add(new int[] {res.getInt(1), res.getInt(2), res.getInt(3)});
+            }
+            m_sqlManager.closeAll(dbc, null, stmt, res);
+            res = null;
+            if (entries.size() < 2) {
+                return 0;
+            }
+
+            // now read the content of one entry after the other,
+            // only the content of the previous distinct entry is kept in memory
+            stmt = m_sqlManager.getPreparedStatement(conn, "C_CONTENT_HISTORY_READ_ENTRY");
+            byte[] lastContent = null;
+            int lastPublishTagFrom = -1;
+            int[] merge = null;
+            for (int[] entry : entries) {
+                int publishTagFrom = entry[0];
+                int publishTagTo = entry[1];
+                int onlineFlag = entry[2];
+                byte[] content = null;
+                stmt.setString(1, resourceId.toString());
+                stmt.setInt(2, publishTagFrom);
+                res = stmt.executeQuery();
+                if (res.next()) {
+                    content = m_sqlManager.getBytes(res, m_sqlManager.readQuery("C_RESOURCES_FILE_CONTENT"));
+                }
+                res.close();
+                res = null;
+                if ((lastContent != null) && Arrays.equals(lastContent, content)) {
+                    // extend the range of the first entry with this content
+                    if (merge == null) {
+                        merge = new int[] {lastPublishTagFrom, publishTagTo, onlineFlag};
+                        merges.add(merge);
+                    } else {
+                        merge[1] = publishTagTo;
+                        merge[2] = onlineFlag;
+                    }
+                    duplicates.add(new Integer(publishTagFrom));
+                } else {
+                    merge = null;
+                    lastContent = content;
+                    lastPublishTagFrom = publishTagFrom;
+                }
+            }
+            m_sqlManager.closeAll(dbc, null, stmt, res);
+            res = null;
+            if (duplicates.isEmpty()) {
+                return 0;
+            }
+
+            // the duplicates have to be removed first, since the publish tag to must be unique per resource
+            stmt = m_sqlManager.getPreparedStatement(conn, "C_CONTENT_HISTORY_DELETE_ENTRY");
+            for (Integer publishTagFrom : duplicates) {
+                stmt.setString(1, resourceId.toString());
+                stmt.setInt(2, publishTagFrom.intValue());
+                stmt.executeUpdate();
+            }
+            m_sqlManager.closeAll(dbc, null, stmt, null);
+
+            stmt = m_sqlManager.getPreparedStatement(conn, "C_CONTENT_HISTORY_MERGE");
+            for (int[] entry : merges) {
+                stmt.setInt(1, entry[1]);
+                stmt.setInt(2, entry[2]);
+                stmt.setString(3, resourceId.toString());
+                stmt.setInt(4, entry[0]);
+                stmt.executeUpdate();
+            }
+        } catch (SQLException e) {
+            throw new CmsDbSqlException(Messages.get().container(
+                Messages.ERR_GENERIC_SQL_1,
+                CmsDbSqlException.getErrorQuery(stmt)), e);
+        } finally {
+            m_sqlManager.closeAll(dbc, conn, stmt, res);
+        }
+        return duplicates.size();
+    }
+
     /**
      * @see org.opencms.db.I_CmsHistoryDriver#deleteEntries(CmsDbContext, I_CmsHistoryResource, int, long)
      */
@@ -389,6 +488,26 @@ public class CmsHistoryDriver implements I_CmsDriver, I_CmsHistoryDriver {
         return entries;
     }
 
+    /**
+     * @see org.opencms.db.I_CmsHistoryDriver#getDeletedEntries(org.opencms.db.CmsDbContext, org.opencms.util.CmsUUID, int)
+     */
+    public List<I_CmsHistoryResource> getDeletedEntries(CmsDbContext dbc, CmsUUID startStructureId, int maxEntries)
+    throws CmsDataAccessException {
+
+        return internalReadEntries(dbc, "C_STRUCTURE_HISTORY_READ_DELETED_CHUNK", startStructureId, maxEntries);
+    }
+
+    /**
+     * @see org.opencms.db.I_CmsHistoryDriver#getNotDeletedEntries(org.opencms.db.CmsDbContext, org.opencms.util.CmsUUID, int)
+     */
+    public List<I_CmsHistoryResource> getNotDeletedEntries(
+        CmsDbContext dbc,
+        CmsUUID startStructureId,
+        int maxEntries) throws CmsDataAccessException {
+
+        return internalReadEntries(dbc, "C_STRUCTURE_HISTORY_READ_NOTDELETED_CHUNK", startStructureId, maxEntries);
+    }
+
     /**
      * @see org.opencms.db.I_CmsHistoryDriver#getSqlManager()
      */
@@ -1836,6 +1955,60 @@ public class CmsHistoryDriver implements I_CmsDriver, I_CmsHistoryDriver {
         }
     }
 
+    /**
+     * Reads a chunk of historical resources, ordered by structure id.<p>
+     * 
+     * @param dbc the current database context
+     * @param query the key of the query to read the structure ids and versions with
+     * @param startStructureId only resources with a structure id greater than this are read, 
+     *      if <code>null</code> the first chunk is read
+     * @param maxEntries the maximal number of resources to read
+     * 
+     * @return a list of {@link I_CmsHistoryResource} objects, with the latest version of each resource
+     * 
+     * @throws CmsDataAccessException if something goes wrong
+     */
+    protected List<I_CmsHistoryResource> internalReadEntries(
+        CmsDbContext dbc,
+        String query,
+        CmsUUID startStructureId,
+        int maxEntries) throws CmsDataAccessException {
+
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet res = null;
+
+        // keep the order of the structure ids
+        Map<CmsUUID, Integer> tmpEntries = new LinkedHashMap<CmsUUID, Integer>();
+        try {
+            conn = m_sqlManager.getConnection(dbc);
+            stmt = m_sqlManager.getPreparedStatement(conn, query);
+            // all structure ids are greater than the null UUID
+            CmsUUID start = (startStructureId == null) ? CmsUUID.getNullUUID() : startStructureId;
+            stmt.setString(1, start.toString());
+            // the chunk size is not part of the query, since there is no portable SQL syntax for it
+            stmt.setMaxRows(maxEntries);
+            res = stmt.executeQuery();
+            while (res.next() && (tmpEntries.size() < maxEntries)) {
+                CmsUUID structureId = new CmsUUID(res.getString(1));
+                int version = res.getInt(2);
+                tmpEntries.put(structureId, Integer.valueOf(version));
+            }
+        } catch (SQLException e) {
+            throw new CmsDbSqlException(Messages.get().container(
+                Messages.ERR_GENERIC_SQL_1,
+                CmsDbSqlException.getErrorQuery(stmt)), e);
+        } finally {
+            m_sqlManager.closeAll(dbc, conn, stmt, res);
+        }
+
+        List<I_CmsHistoryResource> entries = new ArrayList<I_CmsHistoryResource>(tmpEntries.size());
+        for (Map.Entry<CmsUUID, Integer> entry : tmpEntries.entrySet()) {
+            entries.add(readResource(dbc, entry.getKey(), entry.getValue().intValue()));
+        }
+        return entries;
+    }
+
     /**
      * Merges an historical entry for a sibling, based on the structure data from the given historical resource
      * and result set for the resource entry.<p>
@@ -90,6 +90,7 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
@@ -1293,6 +1294,15 @@ public class CmsProjectDriver implements I_CmsDriver, I_CmsProjectDriver {
             boolean alreadyPublished = publishedResourceIds.contains(offlineResource.getResourceId());
             needToUpdateContent &= !alreadyPublished;
 
+            if (needToUpdateContent
+                && !dbcHasProjectId
+                && OpenCms.getSystemInfo().isHistoryEnabled()
+                && (createSibling || !offlineFile.getState().isNew())) {
+                // if the content is unchanged (e.g. the file was only touched), keep the online content entry
+                // and extend its publish tag range, instead of writing an identical copy to the history
+                needToUpdateContent = !isOnlineContentEqual(dbc, offlineResource, offlineContent);
+            }
+
             if (createSibling) {
                 if (!alreadyPublished) {
                     // create the file online, the first time a sibling is published also the resource entry has to be actualized
@@ -3063,6 +3073,44 @@ public class CmsProjectDriver implements I_CmsDriver, I_CmsProjectDriver {
         }
     }
 
+    /**
+     * Checks if the online content of the given resource is identical to the given content.<p>
+     * 
+     * The online content is only read if the online resource has the same length as the given content.<p>
+     * 
+     * @param dbc the current database context
+     * @param offlineResource the offline resource to check
+     * @param content the content to compare the online content with
+     * 
+     * @return <code>true</code> if the online content is identical to the given content, 
+     *      <code>false</code> if not or if the resource has no online content
+     * 
+     * @throws CmsDataAccessException if something goes wrong
+     */
+    protected boolean isOnlineContentEqual(CmsDbContext dbc, CmsResource offlineResource, byte[] content)
+    throws CmsDataAccessException {
+
+        // first compare the length stored with the online resource, this does not read the content
+        List<CmsResource> onlineSiblings = m_driverManager.getVfsDriver(dbc).readSiblings(
+            dbc,
+            CmsProject.ONLINE_PROJECT_ID,
+            offlineResource,
+            false);
+        if (onlineSiblings.isEmpty() || (onlineSiblings.get(0).getLength() != content.length)) {
+            return false;
+        }
+        try {
+            byte[] onlineContent = m_driverManager.getVfsDriver(dbc).readContent(
+                dbc,
+                CmsProject.ONLINE_PROJECT_ID,
+                offlineResource.getResourceId());
+            return Arrays.equals(onlineContent, content);
+        } catch (CmsVfsResourceNotFoundException e) {
+            // the resource has no online content yet
+            return false;
+        }
+    }
+
     /**
      * Build the whole WHERE SQL statement part for the given log entry filter.<p>
      * 
@@ -32,6 +32,7 @@ import org.opencms.db.CmsDbPool;
 import org.opencms.file.CmsProject;
 import org.opencms.main.CmsLog;
 import org.opencms.main.CmsRuntimeException;
+import org.opencms.monitor.CmsRequestTracer;
 import org.opencms.util.CmsCollectionsGenericWrapper;
 import org.opencms.util.CmsStringUtil;
 import org.opencms.util.CmsUUID;
@@ -290,6 +291,7 @@ public class CmsSqlManager extends org.opencms.db.CmsSqlManager {
 
         // unfortunately, this wrapper is essential, because some JDBC driver 
         // implementations don't accept the delegated objects of DBCP's connection pool. 
+        CmsRequestTracer.count(CmsRequestTracer.COUNTER_SQL);
         return con.prepareStatement(query);
     }
 
@@ -37,6 +37,7 @@ import org.opencms.db.CmsStatementBuilder;
 import org.opencms.db.I_CmsQueryFragment;
 import org.opencms.db.CmsSelectQuery.TableAlias;
 import org.opencms.file.CmsGroup;
+import org.opencms.file.CmsUser;
 import org.opencms.file.CmsUserSearchParameters;
 import org.opencms.file.CmsUserSearchParameters.SearchKey;
 import org.opencms.file.CmsUserSearchParameters.SortKey;
@@ -110,6 +111,7 @@ public class CmsUserQueryBuilder {
             select.visit(builder);
             return CmsPair.create(builder.getQuery(), builder.getParameters());
         } else {
+            addKeysetCondition(select, users, searchParams);
             addSorting(select, users, searchParams);
             return makePaged(select, searchParams);
         }
@@ -247,6 +249,38 @@ public class CmsUserQueryBuilder {
         }
     }
 
+    /**
+     * Adds the keyset paging condition to an SQL query, which skips the users of the previous pages.<p>
+     * 
+     * @param select the query 
+     * @param users the user table alias 
+     * @param searchParams the search parameters 
+     */
+    protected void addKeysetCondition(CmsSelectQuery select, TableAlias users, CmsUserSearchParameters searchParams) {
+
+        if (!searchParams.isKeysetPaging()) {
+            return;
+        }
+        CmsUser lastUser = searchParams.getLastUser();
+        String operator = searchParams.isAscending() ? " > ?" : " < ?";
+        String idColumn = users.column(colId());
+        if (searchParams.getSortKey() == null) {
+            select.addCondition(new CmsSimpleQueryFragment(idColumn + operator, lastUser.getId().toString()));
+        } else {
+            // sorted by login name, the user id is used for users with the same name in different OUs
+            String nameColumn = users.column(colName());
+            select.addCondition(new CmsSimpleQueryFragment("("
+                + nameColumn
+                + operator
+                + " OR ("
+                + nameColumn
+                + " = ? AND "
+                + idColumn
+                + operator
+                + "))", lastUser.getSimpleName(), lastUser.getSimpleName(), lastUser.getId().toString()));
+        }
+    }
+
     /**
      * Adds a check for an OU to an SQL query.<p>
      * 
@@ -341,12 +375,17 @@ public class CmsUserQueryBuilder {
 
         boolean ascending = searchParams.isAscending();
         String ordering = getSortExpression(users, searchParams);
+        String direction;
         if (ascending) {
-            ordering += " ASC";
+            direction = " ASC";
         } else {
-            ordering += " DESC";
+            direction = " DESC";
+        }
+        ordering += direction;
+        if (searchParams.getSortKey() != null) {
+            // the user id makes the order unique, which is needed for stable pages 
+            ordering += ", " + users.column(colId()) + direction;
         }
-
         select.setOrdering(ordering);
     }
 
@@ -361,7 +400,7 @@ public class CmsUserQueryBuilder {
 
         String webuserConditionTemplate;
         if (orgUnit.hasFlagWebuser()) {
-            webuserConditionTemplate = "( %1$ >= 32768 AND %1$s < 65536 )";
+            webuserConditionTemplate = "( %1$s >= 32768 AND %1$s < 65536 )";
         } else {
             webuserConditionTemplate = "( %1$s < 32768 OR %1$s >= 65536 )";
         }
@@ -659,6 +698,10 @@ public class CmsUserQueryBuilder {
         int page = params.getPage();
         int pageSize = params.getPageSize();
         paging.setNameSubquery(shouldNameSubqueries());
+        if (params.isKeysetPaging()) {
+            // the keyset condition already skips the previous pages
+            page = 1;
+        }
         paging.setPaging(pageSize, page);
         CmsStatementBuilder builder = new CmsStatementBuilder();
         paging.visit(builder);
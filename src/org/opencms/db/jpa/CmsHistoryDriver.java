@@ -69,6 +69,7 @@ import org.opencms.util.CmsStringUtil;
 import org.opencms.util.CmsUUID;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -91,6 +92,18 @@ public class CmsHistoryDriver implements I_CmsDriver, I_CmsHistoryDriver {
     /** Query key. */
     private static final String C_CONTENT_HISTORY_DELETE = "C_CONTENT_HISTORY_DELETE";
 
+    /** Query key. */
+    private static final String C_CONTENT_HISTORY_DELETE_ENTRY = "C_CONTENT_HISTORY_DELETE_ENTRY";
+
+    /** Query key. */
+    private static final String C_CONTENT_HISTORY_MERGE = "C_CONTENT_HISTORY_MERGE";
+
+    /** Query key. */
+    private static final String C_CONTENT_HISTORY_READ_ALL = "C_CONTENT_HISTORY_READ_ALL";
+
+    /** Query key. */
+    private static final String C_CONTENT_HISTORY_READ_ENTRY = "C_CONTENT_HISTORY_READ_ENTRY";
+
     /** Query key. */
     private static final String C_CONTENT_PUBLISH_MAXTAG = "C_CONTENT_PUBLISH_MAXTAG";
 
@@ -199,9 +212,15 @@ public class CmsHistoryDriver implements I_CmsDriver, I_CmsHistoryDriver {
     /** Query key. */
     private static final String C_STRUCTURE_HISTORY_READ_DELETED = "C_STRUCTURE_HISTORY_READ_DELETED";
 
+    /** Query key. */
+    private static final String C_STRUCTURE_HISTORY_READ_DELETED_CHUNK = "C_STRUCTURE_HISTORY_READ_DELETED_CHUNK";
+
     /** Query key. */
     private static final String C_STRUCTURE_HISTORY_READ_NOTDELETED = "C_STRUCTURE_HISTORY_READ_NOTDELETED";
 
+    /** Query key. */
+    private static final String C_STRUCTURE_HISTORY_READ_NOTDELETED_CHUNK = "C_STRUCTURE_HISTORY_READ_NOTDELETED_CHUNK";
+
     /** Query key. */
     private static final String C_STRUCTURE_HISTORY_READ_SUBRESOURCES = "C_STRUCTURE_HISTORY_READ_SUBRESOURCES";
 
@@ -232,6 +251,80 @@ public class CmsHistoryDriver implements I_CmsDriver, I_CmsHistoryDriver {
         return readPropertyDefinition(dbc, name);
     }
 
+    /**
+     * @see org.opencms.db.I_CmsHistoryDriver#deduplicateContents(org.opencms.db.CmsDbContext, org.opencms.util.CmsUUID)
+     */
+    public int deduplicateContents(CmsDbContext dbc, CmsUUID resourceId) throws CmsDataAccessException {
+
+        // the merges to execute, each as {kept publish tag from, new publish tag to, new online flag}
+        List<int[]> merges = new ArrayList<int[]>();
+        // the publish tag from of the entries to remove
+        List<Integer> duplicates = new ArrayList<Integer>();
+
+        try {
+            // first read the publish tag ranges of all entries, without the content
+            Query q = m_sqlManager.createQuery(dbc, C_CONTENT_HISTORY_READ_ALL);
+            q.setParameter(1, resourceId.toString());
+            @SuppressWarnings("unchecked")
+            List<Object[]> entries = q.getResultList();
+            if (entries.size() < 2) {
+                return 0;
+            }
+
+            // now read the content of one entry after the other, the contents are read as values 
+            // and not as entities, so only the content of the previous distinct entry is kept in memory
+            byte[] lastContent = null;
+            int lastPublishTagFrom = -1;
+            int[] merge = null;
+            for (Object[] entry : entries) {
+                int publishTagFrom = ((Number)entry[0]).intValue();
+                int publishTagTo = ((Number)entry[1]).intValue();
+                int onlineFlag = ((Number)entry[2]).intValue();
+                q = m_sqlManager.createQuery(dbc, C_CONTENT_HISTORY_READ_ENTRY);
+                q.setParameter(1, resourceId.toString());
+                q.setParameter(2, new Integer(publishTagFrom));
+                byte[] content = (byte[])q.getSingleResult();
+                if ((lastContent != null) && Arrays.equals(lastContent, content)) {
+                    // extend the range of the first entry with this content
+                    if (merge == null) {
+                        merge = new int[] {lastPublishTagFrom, publishTagTo, onlineFlag};
+                        merges.add(merge);
+                    } else {
+                        merge[1] = publishTagTo;
+                        merge[2] = onlineFlag;
+                    }
+                    duplicates.add(new Integer(publishTagFrom));
+                } else {
+                    merge = null;
+                    lastContent = content;
+                    lastPublishTagFrom = publishTagFrom;
+                }
+            }
+            if (duplicates.isEmpty()) {
+                return 0;
+            }
+
+            // the duplicates have to be removed first, since the publish tag to must be unique per resource
+            for (Integer publishTagFrom : duplicates) {
+                q = m_sqlManager.createQuery(dbc, C_CONTENT_HISTORY_DELETE_ENTRY);
+                q.setParameter(1, resourceId.toString());
+                q.setParameter(2, publishTagFrom);
+                q.executeUpdate();
+            }
+            for (int[] entry : merges) {
+                q = m_sqlManager.createQuery(dbc, C_CONTENT_HISTORY_MERGE);
+                q.setParameter(1, new Integer(entry[1]));
+                q.setParameter(2, new Integer(entry[2]));
+                q.setParameter(3, resourceId.toString());
+                q.setParameter(4, new Integer(entry[0]));
+                q.executeUpdate();
+            }
+            return duplicates.size();
+        } catch (PersistenceException e) {
+            throw new CmsDataAccessException(Messages.get().container(Messages.ERR_JPA_PERSITENCE, e), e);
+        }
+    }
+
     /** 
      * @see org.opencms.db.I_CmsHistoryDriver#deleteEntries(org.opencms.db.CmsDbContext, org.opencms.file.history.I_CmsHistoryResource, int, long)
      */
@@ -456,6 +549,26 @@ public class CmsHistoryDriver implements I_CmsDriver, I_CmsHistoryDriver {
         return entries;
     }
 
+    /**
+     * @see org.opencms.db.I_CmsHistoryDriver#getDeletedEntries(org.opencms.db.CmsDbContext, org.opencms.util.CmsUUID, int)
+     */
+    public List<I_CmsHistoryResource> getDeletedEntries(CmsDbContext dbc, CmsUUID startStructureId, int maxEntries)
+    throws CmsDataAccessException {
+
+        return internalReadEntries(dbc, C_STRUCTURE_HISTORY_READ_DELETED_CHUNK, startStructureId, maxEntries);
+    }
+
+    /**
+     * @see org.opencms.db.I_CmsHistoryDriver#getNotDeletedEntries(org.opencms.db.CmsDbContext, org.opencms.util.CmsUUID, int)
+     */
+    public List<I_CmsHistoryResource> getNotDeletedEntries(
+        CmsDbContext dbc,
+        CmsUUID startStructureId,
+        int maxEntries) throws CmsDataAccessException {
+
+        return internalReadEntries(dbc, C_STRUCTURE_HISTORY_READ_NOTDELETED_CHUNK, startStructureId, maxEntries);
+    }
+
     /** 
      * @see org.opencms.db.I_CmsHistoryDriver#getSqlManager()
      */
@@ -1638,6 +1751,45 @@ public class CmsHistoryDriver implements I_CmsDriver, I_CmsHistoryDriver {
         }
     }
 
+    /**
+     * Reads a chunk of historical resources, ordered by structure id.<p>
+     * 
+     * @param dbc the current database context
+     * @param query the key of the query to read the structure ids and versions with
+     * @param startStructureId only resources with a structure id greater than this are read, 
+     *      if <code>null</code> the first chunk is read
+     * @param maxEntries the maximal number of resources to read
+     * 
+     * @return a list of {@link I_CmsHistoryResource} objects, with the latest version of each resource
+     * 
+     * @throws CmsDataAccessException if something goes wrong
+     */
+    protected List<I_CmsHistoryResource> internalReadEntries(
+        CmsDbContext dbc,
+        String query,
+        CmsUUID startStructureId,
+        int maxEntries) throws CmsDataAccessException {
+
+        List<I_CmsHistoryResource> entries = new ArrayList<I_CmsHistoryResource>();
+        try {
+            Query q = m_sqlManager.createQuery(dbc, query);
+            // all structure ids are greater than the null UUID
+            CmsUUID start = (startStructureId == null) ? CmsUUID.getNullUUID() : startStructureId;
+            q.setParameter(1, start.toString());
+            q.setMaxResults(maxEntries);
+            @SuppressWarnings("unchecked")
+            List<Object[]> res = q.getResultList();
+            for (Object[] o : res) {
+                CmsUUID structureId = new CmsUUID((String)o[0]);
+                int version = CmsDataTypeUtil.numberToInt((Number)o[1]);
+                entries.add(readResource(dbc, structureId, version));
+            }
+        } catch (PersistenceException e) {
+            throw new CmsDataAccessException(Messages.get().container(Messages.ERR_JPA_PERSITENCE, e), e);
+        }
+        return entries;
+    }
+
     /**
      * Merges an historical entry for a sibling, based on the structure data from the given historical resource
      * and result set for the resource entry.<p>
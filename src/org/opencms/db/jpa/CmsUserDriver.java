@@ -1666,7 +1666,10 @@ public class CmsUserDriver implements I_CmsUserDriver {
 
             // paging is done here, not in the query string 
             q.setMaxResults(searchParams.getPageSize());
-            q.setFirstResult(searchParams.getPageSize() * (searchParams.getPage() - 1));
+            if (!searchParams.isKeysetPaging()) {
+                // with keyset paging the query condition already skips the previous pages 
+                q.setFirstResult(searchParams.getPageSize() * (searchParams.getPage() - 1));
+            }
 
             List<?> res = q.getResultList();
             // create new Cms group objects
@@ -199,12 +199,18 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
     /** Query key. */
     private static final String C_RELATION_FILTER_SOURCE_ID = "C_RELATION_FILTER_SOURCE_ID";
 
+    /** Query key. */
+    private static final String C_RELATION_FILTER_SOURCE_IDS = "C_RELATION_FILTER_SOURCE_IDS";
+
     /** Query key. */
     private static final String C_RELATION_FILTER_SOURCE_PATH = "C_RELATION_FILTER_SOURCE_PATH";
 
     /** Query key. */
     private static final String C_RELATION_FILTER_TARGET_ID = "C_RELATION_FILTER_TARGET_ID";
 
+    /** Query key. */
+    private static final String C_RELATION_FILTER_TARGET_IDS = "C_RELATION_FILTER_TARGET_IDS";
+
     /** Query key. */
     private static final String C_RELATION_FILTER_TARGET_PATH = "C_RELATION_FILTER_TARGET_PATH";
 
@@ -2202,6 +2208,56 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
         return result;
     }
 
+    /**
+     * @see org.opencms.db.I_CmsVfsDriver#readRelationsForResources(org.opencms.db.CmsDbContext, org.opencms.util.CmsUUID, java.util.List, org.opencms.relations.CmsRelationFilter)
+     */
+    public List<CmsRelation> readRelationsForResources(
+        CmsDbContext dbc,
+        CmsUUID projectId,
+        List<CmsUUID> structureIds,
+        CmsRelationFilter filter) throws CmsDataAccessException {
+
+        Set<CmsRelation> relations = new HashSet<CmsRelation>();
+
+        try {
+            for (int start = 0; start < structureIds.size(); start += RELATIONS_MAX_RESOURCES_PER_QUERY) {
+                List<CmsUUID> ids = structureIds.subList(
+                    start,
+                    Math.min(start + RELATIONS_MAX_RESOURCES_PER_QUERY, structureIds.size()));
+                for (int i = 0; i < 2; i++) {
+                    // first the relations pointing to the resources, then the relations starting at the resources
+                    boolean checkSource = (i == 0);
+                    if ((checkSource && !filter.isSource()) || (!checkSource && !filter.isTarget())) {
+                        continue;
+                    }
+                    List<Object> params = new ArrayList<Object>(7);
+                    StringBuffer queryBuf = new StringBuffer(256);
+                    queryBuf.append(m_sqlManager.readQuery(projectId, C_READ_RELATIONS));
+                    queryBuf.append(prepareRelationConditions(projectId, filter, ids, params, checkSource));
+                    if (LOG.isDebugEnabled()) {
+                        LOG.debug(queryBuf.toString());
+                    }
+
+                    Query q = m_sqlManager.createQueryFromJPQL(dbc, queryBuf.toString());
+                    for (int j = 0; j < params.size(); j++) {
+                        q.setParameter(j + 1, params.get(j));
+                    }
+                    @SuppressWarnings("unchecked")
+                    List<I_CmsDAOResourceRelations> res = q.getResultList();
+                    for (I_CmsDAOResourceRelations rr : res) {
+                        relations.add(internalReadRelation(rr));
+                    }
+                }
+            }
+        } catch (PersistenceException e) {
+            throw new CmsDataAccessException(Messages.get().container(Messages.ERR_JPA_PERSITENCE, e), e);
+        }
+
+        List<CmsRelation> result = new ArrayList<CmsRelation>(relations);
+        Collections.sort(result, CmsRelation.COMPARATOR);
+        return result;
+    }
+
     /**
      * @see org.opencms.db.I_CmsVfsDriver#readResource(org.opencms.db.CmsDbContext, CmsUUID, org.opencms.util.CmsUUID, boolean)
      */
@@ -3825,6 +3881,52 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
         }
     }
 
+    /**
+     * Build the whole WHERE sql statement part for the given relation filter 
+     * and the resources with the given structure ids.<p>
+     * 
+     * @param projectId the current project id
+     * @param filter the filter
+     * @param structureIds the structure ids of the resources
+     * @param params the parameter values (return parameter)
+     * @param checkSource if the query is for the source relations 
+     * 
+     * @return the WHERE sql statement part string
+     */
+    protected String prepareRelationConditions(
+        CmsUUID projectId,
+        CmsRelationFilter filter,
+        List<CmsUUID> structureIds,
+        List params,
+        boolean checkSource) {
+
+        // the conditions of the filter without a resource
+        String filterConditions = prepareRelationConditions(projectId, filter, (CmsResource)null, params, checkSource);
+        List filterParams = new ArrayList(params);
+        params.clear();
+
+        StringBuffer conditions = new StringBuffer(128);
+        conditions.append(BEGIN_CONDITION);
+        conditions.append(m_sqlManager.readQuery(projectId, checkSource ? C_RELATION_FILTER_TARGET_IDS : C_RELATION_FILTER_SOURCE_IDS));
+        conditions.append(BEGIN_CONDITION);
+        Iterator<CmsUUID> it = structureIds.iterator();
+        while (it.hasNext()) {
+            conditions.append("?");
+            params.add(it.next().toString());
+            if (it.hasNext()) {
+                conditions.append(", ");
+            }
+        }
+        conditions.append(END_CONDITION);
+        conditions.append(END_CONDITION);
+        if (filterConditions.length() > 0) {
+            conditions.append(" AND");
+            conditions.append(filterConditions);
+        }
+        params.addAll(filterParams);
+        return conditions.toString();
+    }
+
     /**
      * Build the whole WHERE sql statement part for the given relation filter.<p>
      * 
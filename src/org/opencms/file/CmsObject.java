@@ -33,6 +33,7 @@ import org.opencms.db.CmsResourceState;
 import org.opencms.db.CmsSecurityManager;
 import org.opencms.db.log.CmsLogEntry;
 import org.opencms.db.log.CmsLogFilter;
+import org.opencms.file.history.CmsHistoryClearProgress;
 import org.opencms.file.history.CmsHistoryPrincipal;
 import org.opencms.file.history.CmsHistoryProject;
 import org.opencms.file.history.I_CmsHistoryResource;
@@ -694,6 +695,21 @@ public final class CmsObject {
         return m_securityManager.createUser(m_context, userFqn, password, description, additionalInfos);
     }
 
+    /**
+     * Merges the historical content entries with identical content of all resources in the history.<p>
+     * 
+     * Historical versions that only differ in their metadata share a single content entry, 
+     * use this to reduce the size of the history tables of existing installations.<p>
+     * 
+     * @param report the report for output logging
+     * 
+     * @throws CmsException if operation was not successful
+     */
+    public void deduplicateHistoryContents(I_CmsReport report) throws CmsException {
+
+        m_securityManager.deduplicateHistoryContents(m_context, report);
+    }
+
     /**
      * Deletes all published resource entries.<p>
      * 
@@ -750,6 +766,42 @@ public final class CmsObject {
         m_securityManager.deleteHistoricalVersions(m_context, versionsToKeep, versionsDeleted, timeDeleted, report);
     }
 
+    /**
+     * Deletes the versions from the history tables for the next chunk of historical resources.<p>
+     * 
+     * Call this method with the same progress until it returns <code>true</code> to delete the 
+     * versions of all resources. The changes are committed after each chunk, and the progress 
+     * can be saved to continue the deletion later, e.g. after a restart.<p>
+     * 
+     * @param versionsToKeep number of versions to keep, is ignored if negative 
+     * @param versionsDeleted number of versions to keep for deleted resources, is ignored if negative
+     * @param timeDeleted deleted resources older than this will also be deleted, is ignored if negative
+     * @param progress the progress of the deletion, updated with the processed resources
+     * @param chunkSize the maximal number of historical resources to process
+     * @param report the report for output logging
+     * 
+     * @return <code>true</code> if the deletion is finished, <code>false</code> if there are more chunks to process
+     * 
+     * @throws CmsException if operation was not successful
+     */
+    public boolean deleteHistoricalVersions(
+        int versionsToKeep,
+        int versionsDeleted,
+        long timeDeleted,
+        CmsHistoryClearProgress progress,
+        int chunkSize,
+        I_CmsReport report) throws CmsException {
+
+        return m_securityManager.deleteHistoricalVersions(
+            m_context,
+            versionsToKeep,
+            versionsDeleted,
+            timeDeleted,
+            progress,
+            chunkSize,
+            report);
+    }
+
     /**
      * Deletes the log entries matching the given filter.<p>
      *
@@ -1460,6 +1512,34 @@ public final class CmsObject {
         return getRelationsForResource(readResource(resourceName, CmsResourceFilter.ALL), filter);
     }
 
+    /**
+     * Returns all relations for the given resources matching the given filter.<p> 
+     * 
+     * This reads the relations of all resources at once, which is faster than reading 
+     * the relations of each resource with {@link #getRelationsForResource(CmsResource, CmsRelationFilter)}.
+     * The "include subresources" flag of the filter is ignored.<p>
+     * 
+     * You should have view/read permissions on the given resources.<p>
+     * 
+     * You may become source and/or target paths to resource you do not have view/read permissions on.<p> 
+     * 
+     * @param resources the resources to retrieve the relations for
+     * @param filter the filter to match the relation 
+     * 
+     * @return the {@link org.opencms.relations.CmsRelation} objects matching the given filter, 
+     *          by structure id of the resources
+     * 
+     * @throws CmsException if something goes wrong
+     * 
+     * @see CmsSecurityManager#getRelationsForResources(CmsRequestContext, List, CmsRelationFilter)
+     */
+    public Map<CmsUUID, List<CmsRelation>> getRelationsForResources(
+        List<CmsResource> resources,
+        CmsRelationFilter filter) throws CmsException {
+
+        return m_securityManager.getRelationsForResources(m_context, resources, filter);
+    }
+
     /**
      * Returns the current users request context.<p>
      *
@@ -1633,6 +1713,25 @@ public final class CmsObject {
         return m_securityManager.getUsersOfGroup(m_context, groupname, includeOtherOus, true, false);
     }
 
+    /**
+     * Returns the users of a set of principals, that is the users 
+     * and all users of the groups in the set, including the users of child groups.<p>
+     * 
+     * This is used to resolve the principals returned by 
+     * {@link #readResponsiblePrincipals(CmsResource)} for many resources,
+     * since most resources share the same responsible principals.<p>
+     * 
+     * @param principals the principals
+     * 
+     * @return the users of the principals
+     * 
+     * @throws CmsException if operation was not successful
+     */
+    public Set<CmsUser> getUsersOfPrincipals(Set<I_CmsPrincipal> principals) throws CmsException {
+
+        return m_securityManager.getUsersOfPrincipals(m_context, principals);
+    }
+
     /**
      * Checks if the current user has required permissions to access a given resource.<p>
      * 
@@ -96,6 +96,9 @@ public class CmsUserSearchParameters {
     /** If true, core users will not be filtered out if filtering by flags. */
     private boolean m_keepCoreUsers;
 
+    /** The last user of the previous results page, used for keyset paging. */
+    private CmsUser m_lastUser;
+
     /** A collection of groups such that returned users must be in none of them. */
     private Collection<CmsGroup> m_notAnyGroups;
 
@@ -176,6 +179,18 @@ public class CmsUserSearchParameters {
         return m_group;
     }
 
+    /**
+     * Returns the last user of the previous results page.<p>
+     * 
+     * @return the last user of the previous results page, or <code>null</code> if not set
+     * 
+     * @see #setPaging(int, int, CmsUser)
+     */
+    public CmsUser getLastUser() {
+
+        return m_lastUser;
+    }
+
     /**
      * Returns the groups whose users may not appear in the search results.<p>
      * 
@@ -308,6 +323,21 @@ public class CmsUserSearchParameters {
         return m_filterCore;
     }
 
+    /**
+     * Checks if keyset paging is used instead of offset paging.<p>
+     * 
+     * Keyset paging is used if the last user of the previous results page has been set, 
+     * and the results are sorted by login name or not sorted at all.<p>
+     * 
+     * @return <code>true</code> if keyset paging is used
+     * 
+     * @see #setPaging(int, int, CmsUser)
+     */
+    public boolean isKeysetPaging() {
+
+        return (m_lastUser != null) && (m_pageSize > 0) && ((m_sortKey == null) || (m_sortKey == SortKey.loginName));
+    }
+
     /**
      * Return true if core users should not be filtered out if filtering by flag.<p>
      * 
@@ -443,6 +473,8 @@ public class CmsUserSearchParameters {
     /**
      * Sets the paging parameters.<p>
      * 
+     * This resets the last user set for keyset paging, so the page index is used.<p>
+     * 
      * @param pageSize the maximum page size 
      * @param page the page index 
      */
@@ -450,6 +482,25 @@ public class CmsUserSearchParameters {
 
         m_pageSize = pageSize;
         m_page = page;
+        m_lastUser = null;
+    }
+
+    /**
+     * Sets the paging parameters, with the last user of the previous results page for keyset paging.<p>
+     * 
+     * With keyset paging the results page starts directly after the given user, so the database does 
+     * not have to skip all the users of the previous pages, which is considerably faster for large user bases.
+     * Keyset paging is only possible if the results are sorted by login name or not sorted at all, 
+     * in all other cases the page index is used.<p>
+     * 
+     * @param pageSize the maximum page size 
+     * @param page the page index, used if keyset paging is not possible 
+     * @param lastUser the last user of the previous results page, or <code>null</code> for the first page
+     */
+    public void setPaging(int pageSize, int page, CmsUser lastUser) {
+
+        setPaging(pageSize, page);
+        m_lastUser = lastUser;
     }
 
     /** 
@@ -359,10 +359,12 @@ public class CmsCategoryResourceCollector extends A_CmsResourceCollector {
             List<String> categoryTypes = data.getCategoryTypes();
             Iterator<CmsResource> itResources = resources.iterator();
             CmsResource resource;
-            CmsCategoryService service = CmsCategoryService.getInstance();
+            Map<CmsResource, List<CmsCategory>> resourceCategories = CmsCategoryService.getInstance().readResourceCategories(
+                cms,
+                resources);
             while (itResources.hasNext()) {
                 resource = itResources.next();
-                Iterator<CmsCategory> itCategories = service.readResourceCategories(cms, cms.getSitePath(resource)).iterator();
+                Iterator<CmsCategory> itCategories = resourceCategories.get(resource).iterator();
                 while (itCategories.hasNext()) {
                     CmsCategory category = itCategories.next();
                     if (categoryTypes.contains(category.getPath())) {
@@ -0,0 +1,188 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.file.history;
+
+import org.opencms.util.CmsUUID;
+
+/**
+ * The progress of a chunked deletion of historical versions.<p>
+ *
+ * The historical resources are processed in the order of their structure ids,
+ * first the versions of existing resources, then the versions of deleted resources.
+ * The progress stores the phase and the structure id of the last processed resource,
+ * so the deletion can be continued with the next chunk at any time,
+ * also after a restart if the progress has been saved.<p>
+ *
+ * @since 8.0.2
+ *
+ * @see org.opencms.file.CmsObject#deleteHistoricalVersions(int, int, long, CmsHistoryClearProgress, int, org.opencms.report.I_CmsReport)
+ */
+public class CmsHistoryClearProgress {
+
+    /** Phase constant for the versions of deleted resources. */
+    public static final int PHASE_DELETED_RESOURCES = 1;
+
+    /** Phase constant for a finished deletion. */
+    public static final int PHASE_FINISHED = 2;
+
+    /** Phase constant for the versions of existing resources. */
+    public static final int PHASE_RESOURCES = 0;
+
+    /** The number of deleted versions. */
+    private long m_deletedVersions;
+
+    /** The structure id of the last processed resource of the current phase. */
+    private CmsUUID m_lastStructureId;
+
+    /** The current phase. */
+    private int m_phase;
+
+    /** The number of processed resources. */
+    private long m_processedResources;
+
+    /**
+     * Creates a new progress for a deletion that has not been started yet.<p>
+     */
+    public CmsHistoryClearProgress() {
+
+        m_phase = PHASE_RESOURCES;
+    }
+
+    /**
+     * Creates a new progress to continue a previously started deletion.<p>
+     *
+     * @param phase the current phase
+     * @param lastStructureId the structure id of the last processed resource of the current phase,
+     *      or <code>null</code> if the phase has not been started yet
+     * @param processedResources the number of processed resources
+     * @param deletedVersions the number of deleted versions
+     */
+    public CmsHistoryClearProgress(int phase, CmsUUID lastStructureId, long processedResources, long deletedVersions) {
+
+        m_phase = Math.max(PHASE_RESOURCES, Math.min(PHASE_FINISHED, phase));
+        m_lastStructureId = lastStructureId;
+        m_processedResources = processedResources;
+        m_deletedVersions = deletedVersions;
+    }
+
+    /**
+     * Returns the number of deleted versions.<p>
+     *
+     * @return the number of deleted versions
+     */
+    public long getDeletedVersions() {
+
+        return m_deletedVersions;
+    }
+
+    /**
+     * Returns the structure id of the last processed resource of the current phase.<p>
+     *
+     * @return the structure id of the last processed resource,
+     *      or <code>null</code> if the current phase has not been started yet
+     */
+    public CmsUUID getLastStructureId() {
+
+        return m_lastStructureId;
+    }
+
+    /**
+     * Returns the current phase.<p>
+     *
+     * @return the current phase
+     *
+     * @see #PHASE_RESOURCES
+     * @see #PHASE_DELETED_RESOURCES
+     * @see #PHASE_FINISHED
+     */
+    public int getPhase() {
+
+        return m_phase;
+    }
+
+    /**
+     * Returns the number of processed resources.<p>
+     *
+     * @return the number of processed resources
+     */
+    public long getProcessedResources() {
+
+        return m_processedResources;
+    }
+
+    /**
+     * Checks if the deletion is finished.<p>
+     *
+     * @return <code>true</code> if the deletion is finished
+     */
+    public boolean isFinished() {
+
+        return m_phase >= PHASE_FINISHED;
+    }
+
+    /**
+     * Starts the next phase.<p>
+     */
+    public void nextPhase() {
+
+        if (!isFinished()) {
+            m_phase++;
+        }
+        m_lastStructureId = null;
+    }
+
+    /**
+     * Records a processed resource.<p>
+     *
+     * @param structureId the structure id of the processed resource
+     * @param deletedVersions the number of versions deleted for the resource
+     */
+    public void resourceProcessed(CmsUUID structureId, int deletedVersions) {
+
+        m_lastStructureId = structureId;
+        m_processedResources++;
+        m_deletedVersions += deletedVersions;
+    }
+
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+
+        return "[phase="
+            + m_phase
+            + ", lastStructureId="
+            + m_lastStructureId
+            + ", processed="
+            + m_processedResources
+            + ", deleted="
+            + m_deletedVersions
+            + "]";
+    }
+}
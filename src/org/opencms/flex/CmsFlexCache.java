@@ -220,6 +220,9 @@ public class CmsFlexCache extends Object implements I_CmsEventListener {
     /** Indicates if offline resources should be cached or not. */
     private boolean m_cacheOffline;
 
+    /** The minimum size of top-level output that is stored gzip compressed as well, -1 to disable. */
+    private int m_compressionMinBytes;
+
     /** The device selector. */
     private I_CmsJspDeviceSelector m_deviceSelector;
 
@@ -232,6 +235,9 @@ public class CmsFlexCache extends Object implements I_CmsEventListener {
     /** Counter for the size. */
     private int m_size;
 
+    /** The off-heap storage for the entry output, <code>null</code> if the output is kept on the heap. */
+    private CmsFlexCacheStorage m_storage;
+
     /**
      * Constructor for class CmsFlexCache.<p>
      *
@@ -247,6 +253,7 @@ public class CmsFlexCache extends Object implements I_CmsEventListener {
 
         m_enabled = configuration.isCacheEnabled();
         m_cacheOffline = configuration.isCacheOffline();
+        m_compressionMinBytes = configuration.getCompressionMinBytes();
 
         // set the local device selector
         m_deviceSelector = configuration.getDeviceSelector();
@@ -264,6 +271,17 @@ public class CmsFlexCache extends Object implements I_CmsEventListener {
             m_keyCache = Collections.synchronizedMap(CmsCollectionsGenericWrapper.<String, CmsFlexCacheVariation> map(flexKeyMap));
             OpenCms.getMemoryMonitor().register(getClass().getName() + ".m_resourceMap", flexKeyMap);
 
+            if (configuration.getOffHeapBytes() > 0) {
+                String file = configuration.getOffHeapFile();
+                if (file != null) {
+                    file = OpenCms.getSystemInfo().getAbsoluteRfsPathRelativeToWebInf(file);
+                }
+                m_storage = new CmsFlexCacheStorage(
+                    configuration.getOffHeapBytes(),
+                    configuration.getOffHeapSlabBytes(),
+                    file);
+            }
+
             OpenCms.addCmsEventListener(this, new int[] {
                 I_CmsEventListener.EVENT_PUBLISH_PROJECT,
                 I_CmsEventListener.EVENT_CLEAR_CACHES,
@@ -454,6 +472,16 @@ public class CmsFlexCache extends Object implements I_CmsEventListener {
         return m_variationCache;
     }
 
+    /**
+     * Returns the off-heap storage for the output of the cache entries.<p>
+     *
+     * @return the off-heap storage, or <code>null</code> if the output is kept on the heap
+     */
+    public CmsFlexCacheStorage getOffHeapStorage() {
+
+        return m_storage;
+    }
+
     /**
      * Indicates if the cache is enabled (i.e. actually
      * caching entries) or not.<p>
@@ -531,6 +559,16 @@ public class CmsFlexCache extends Object implements I_CmsEventListener {
         }
     }
 
+    /**
+     * Returns the minimum size of top-level output that is stored gzip compressed as well.<p>
+     *
+     * @return the minimum size in bytes, or -1 if no compressed variants are stored
+     */
+    int getCompressionMinBytes() {
+
+        return m_compressionMinBytes;
+    }
+
     /**
      * Returns the CmsFlexCacheKey data structure for a given resource name.<p>
      *
@@ -877,10 +915,14 @@ public class CmsFlexCache extends Object implements I_CmsEventListener {
         if (key.getTimeout() > 0) {
             theCacheEntry.setDateExpiresToNextTimeout(key.getTimeout());
         }
+        if (m_storage != null) {
+            // must be done before the entry is added, since this reduces the costs of the entry
+            theCacheEntry.moveToStorage(m_storage);
+        }
+        boolean wasAdded;
         if (o != null) {
             // We already have a variation map for this resource
             Map<String, I_CmsLruCacheObject> m = o.m_map;
-            boolean wasAdded = true;
             if (!m.containsKey(key.getVariation())) {
                 wasAdded = m_variationCache.add(theCacheEntry);
             } else {
@@ -895,7 +937,7 @@ public class CmsFlexCache extends Object implements I_CmsEventListener {
             // No variation map for this resource yet, so create one
             CmsFlexCacheVariation list = new CmsFlexCacheVariation(key);
 
-            boolean wasAdded = m_variationCache.add(theCacheEntry);
+            wasAdded = m_variationCache.add(theCacheEntry);
 
             if (wasAdded) {
                 theCacheEntry.setVariationData(key.getVariation(), list.m_map);
@@ -903,6 +945,10 @@ public class CmsFlexCache extends Object implements I_CmsEventListener {
                 m_keyCache.put(key.getResource(), list);
             }
         }
+        if (!wasAdded) {
+            // the entry is not cached, so it will not be notified when it is removed
+            theCacheEntry.releaseStorage();
+        }
 
         if (LOG.isDebugEnabled()) {
             LOG.debug(Messages.get().getBundle().key(
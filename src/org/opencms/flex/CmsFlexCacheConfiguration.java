@@ -30,6 +30,7 @@ package org.opencms.flex;
 import org.opencms.jsp.util.CmsJspDeviceSelector;
 import org.opencms.jsp.util.I_CmsJspDeviceSelector;
 import org.opencms.main.CmsLog;
+import org.opencms.util.CmsStringUtil;
 
 import org.apache.commons.logging.Log;
 
@@ -51,6 +52,9 @@ public class CmsFlexCacheConfiguration {
     /** Indicates if offline resources should be cached or not. */
     private boolean m_cacheOffline;
 
+    /** The minimum size of cached top-level output that is stored gzip compressed as well, -1 to disable. */
+    private int m_compressionMinBytes = -1;
+
     /** The device selector. */
     private I_CmsJspDeviceSelector m_deviceSelector;
 
@@ -71,6 +75,15 @@ public class CmsFlexCacheConfiguration {
 
     private int m_maxKeys;
 
+    /** The size of the off-heap storage for the cached output in bytes, 0 to keep the output on the heap. */
+    private long m_offHeapBytes;
+
+    /** The path of the segment file to map for the off-heap storage, <code>null</code> to use direct buffers. */
+    private String m_offHeapFile;
+
+    /** The size of a slab of the off-heap storage in bytes. */
+    private int m_offHeapSlabBytes = CmsFlexCacheStorage.DEFAULT_SLAB_BYTES;
+
     /**
      * Empty public constructor for the digester.
      */
@@ -89,6 +102,16 @@ public class CmsFlexCacheConfiguration {
         return m_avgCacheBytes;
     }
 
+    /**
+     * Returns the minimum size of cached top-level output that is stored gzip compressed as well.<p>
+     *
+     * @return the minimum size in bytes, or -1 if no compressed variants are stored
+     */
+    public int getCompressionMinBytes() {
+
+        return m_compressionMinBytes;
+    }
+
     /**
      * Returns the deviceSelector.<p>
      *
@@ -142,6 +165,36 @@ public class CmsFlexCacheConfiguration {
         return m_maxKeys;
     }
 
+    /**
+     * Returns the size of the off-heap storage for the cached output in bytes.<p>
+     *
+     * @return the size of the off-heap storage, or 0 if the output is kept on the heap
+     */
+    public long getOffHeapBytes() {
+
+        return m_offHeapBytes;
+    }
+
+    /**
+     * Returns the path of the segment file to map for the off-heap storage.<p>
+     *
+     * @return the path of the segment file, or <code>null</code> if direct buffers are used
+     */
+    public String getOffHeapFile() {
+
+        return m_offHeapFile;
+    }
+
+    /**
+     * Returns the size of a slab of the off-heap storage in bytes.<p>
+     *
+     * @return the size of a slab
+     */
+    public int getOffHeapSlabBytes() {
+
+        return m_offHeapSlabBytes;
+    }
+
     /**
      * Initializes the flex cache configuration with required parameters.<p>
      * 
@@ -218,6 +271,26 @@ public class CmsFlexCacheConfiguration {
         m_cacheOffline = cacheOffline;
     }
 
+    /**
+     * Configures the compressed variants of cached top-level output.<p>
+     *
+     * @param minBytes the minimum size of the output to compress in bytes
+     */
+    public void setCompression(String minBytes) {
+
+        setCompressionMinBytes(Integer.parseInt(minBytes.trim()));
+    }
+
+    /**
+     * Sets the minimum size of cached top-level output that is stored gzip compressed as well.<p>
+     *
+     * @param compressionMinBytes the minimum size in bytes, -1 to disable the compressed variants
+     */
+    public void setCompressionMinBytes(int compressionMinBytes) {
+
+        m_compressionMinBytes = compressionMinBytes;
+    }
+
     /**
      * Sets the device selector configuration.<p>
      *
@@ -282,4 +355,54 @@ public class CmsFlexCacheConfiguration {
 
         m_maxKeys = maxKeys;
     }
+
+    /**
+     * Sets the size of the off-heap storage for the cached output in bytes.<p>
+     *
+     * @param offHeapBytes the size of the off-heap storage, 0 to keep the output on the heap
+     */
+    public void setOffHeapBytes(long offHeapBytes) {
+
+        m_offHeapBytes = offHeapBytes;
+    }
+
+    /**
+     * Sets the path of the segment file to map for the off-heap storage.<p>
+     *
+     * @param offHeapFile the path of the segment file, <code>null</code> to use direct buffers
+     */
+    public void setOffHeapFile(String offHeapFile) {
+
+        m_offHeapFile = offHeapFile;
+    }
+
+    /**
+     * Sets the size of a slab of the off-heap storage in bytes.<p>
+     *
+     * @param offHeapSlabBytes the size of a slab
+     */
+    public void setOffHeapSlabBytes(int offHeapSlabBytes) {
+
+        m_offHeapSlabBytes = offHeapSlabBytes;
+    }
+
+    /**
+     * Configures the off-heap storage for the cached output.<p>
+     *
+     * The slab size and the segment file are optional.<p>
+     *
+     * @param maxBytes the size of the off-heap storage in bytes
+     * @param slabBytes the size of a slab in bytes
+     * @param file the path of the segment file to map
+     */
+    public void setOffHeapStorage(String maxBytes, String slabBytes, String file) {
+
+        setOffHeapBytes(Long.parseLong(maxBytes.trim()));
+        if (CmsStringUtil.isNotEmptyOrWhitespaceOnly(slabBytes)) {
+            setOffHeapSlabBytes(Integer.parseInt(slabBytes.trim()));
+        }
+        if (CmsStringUtil.isNotEmptyOrWhitespaceOnly(file)) {
+            setOffHeapFile(file.trim());
+        }
+    }
 }
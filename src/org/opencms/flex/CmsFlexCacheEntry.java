@@ -35,12 +35,15 @@ import org.opencms.monitor.CmsMemoryMonitor;
 import org.opencms.monitor.I_CmsMemoryMonitorable;
 import org.opencms.util.CmsCollectionsGenericWrapper;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.zip.GZIPOutputStream;
 
 import javax.servlet.ServletException;
 
@@ -56,12 +59,17 @@ import org.apache.commons.logging.Log;
  * A CmsFlexCacheEntry might also describe a redirect-call, but in this case
  * nothing else will be cached.<p>
  *
- * The pre-generated output is saved in <code>byte[]</code> arrays.
+ * The pre-generated output is saved in <code>byte[]</code> arrays,
+ * or in the off-heap {@link CmsFlexCacheStorage} if the Flex cache is configured to use one.
  * The include() calls are saved as Strings of the included resource name, 
  * the parameters for the calls are saved in a HashMap.
  * The headers are saved in a HashMap.
  * In case of a redirect, the redirect target is cached in a String.<p>
  *
+ * If the entry holds the complete output of a top-level page without any include calls,
+ * a gzip compressed variant of the output can be stored as well, which is delivered 
+ * directly to clients that accept gzip encoded responses.<p>
+ *
  * The CmsFlexCacheEntry can also have an expire date value, which indicates the time 
  * that his entry will become invalid and should thus be cleared from the cache.<p>
  * 
@@ -71,6 +79,9 @@ import org.apache.commons.logging.Log;
  */
 public class CmsFlexCacheEntry implements I_CmsLruCacheObject, I_CmsMemoryMonitorable {
 
+    /** The content encoding of the compressed output variant. */
+    public static final String COMPRESSED_ENCODING = "gzip";
+
     /** Initial size for lists. */
     public static final int INITIAL_CAPACITY_LISTS = 10;
 
@@ -83,6 +94,9 @@ public class CmsFlexCacheEntry implements I_CmsLruCacheObject, I_CmsMemoryMonito
     /** Indicates if this cache entry is completed. */
     private boolean m_completed;
 
+    /** The gzip compressed variant of the output, either a byte array or an off-heap chunk. */
+    private Object m_compressedOutput;
+
     /** The "expires" date for this Flex cache entry. */
     private long m_dateExpires;
 
@@ -98,12 +112,21 @@ public class CmsFlexCacheEntry implements I_CmsLruCacheObject, I_CmsMemoryMonito
     /** Pointer to the next cache entry in the LRU cache. */
     private I_CmsLruCacheObject m_next;
 
+    /** Indicates if the off-heap output of this cache entry has been released. */
+    private boolean m_outputReleased;
+
+    /** The number of requests currently writing the off-heap output of this cache entry. */
+    private int m_outputUsers;
+
     /** Pointer to the previous cache entry in the LRU cache. */
     private I_CmsLruCacheObject m_previous;
 
     /** A redirection target (if redirection is set). */
     private String m_redirectTarget;
 
+    /** Indicates if this cache entry was removed from the cache. */
+    private boolean m_removed;
+
     /** The key under which this cache entry is stored in the variation map. */
     private String m_variationKey;
 
@@ -311,6 +334,7 @@ public class CmsFlexCacheEntry implements I_CmsLruCacheObject, I_CmsMemoryMonito
         if ((m_variationMap != null) && (m_variationKey != null)) {
             m_variationMap.remove(m_variationKey);
         }
+        releaseStorage();
         if (LOG.isDebugEnabled()) {
             LOG.debug(Messages.get().getBundle().key(
                 Messages.LOG_FLEXCACHEENTRY_REMOVED_ENTRY_FOR_VARIATION_1,
@@ -338,61 +362,13 @@ public class CmsFlexCacheEntry implements I_CmsLruCacheObject, I_CmsMemoryMonito
         if (!m_completed) {
             return;
         }
-
-        if (m_redirectTarget != null) {
-            res.setOnlyBuffering(false);
-            // redirect the response, no further output required
-            res.sendRedirect(m_redirectTarget);
-        } else {
-            // process cached headers first
-            CmsFlexResponse.processHeaders(m_headers, res);
-            // check if this cache entry is a "leaf" (i.e. no further includes)            
-            boolean hasNoSubElements = (m_elements.size() == 1);
-            // write output to stream and process all included elements
-            for (int i = 0; i < m_elements.size(); i++) {
-                Object o = m_elements.get(i);
-                if (o instanceof String) {
-                    // handle cached parameters
-                    i++;
-                    Map<String, String[]> paramMap = CmsCollectionsGenericWrapper.map(m_elements.get(i));
-                    Map<String, String[]> oldParamMap = null;
-                    if (paramMap.size() > 0) {
-                        oldParamMap = req.getParameterMap();
-                        req.addParameterMap(paramMap);
-                    }
-                    // handle cached attributes
-                    i++;
-                    Map<String, Object> attrMap = CmsCollectionsGenericWrapper.map(m_elements.get(i));
-                    Map<String, Object> oldAttrMap = null;
-                    if (attrMap.size() > 0) {
-                        oldAttrMap = req.getAttributeMap();
-                        req.addAttributeMap(attrMap);
-                    }
-                    // do the include call
-                    req.getRequestDispatcher((String)o).include(req, res);
-                    // reset parameters if necessary
-                    if (oldParamMap != null) {
-                        req.setParameterMap(oldParamMap);
-                    }
-                    // reset attributes if necessary
-                    if (oldAttrMap != null) {
-                        req.setAttributeMap(oldAttrMap);
-                    }
-                } else {
-                    try {
-                        res.writeToOutputStream((byte[])o, hasNoSubElements);
-                    } catch (IOException e) {
-                        CmsMessageContainer message = Messages.get().container(
-                            Messages.LOG_FLEXCACHEKEY_NOT_FOUND_1,
-                            getClass().getName());
-                        if (LOG.isDebugEnabled()) {
-                            LOG.debug(message.key());
-                        }
-
-                        throw new CmsFlexCacheException(message, e);
-                    }
-                }
-            }
+        if (!acquireOutput()) {
+            throw new CmsFlexCacheException(Messages.get().container(Messages.ERR_FLEXCACHEENTRY_OUTPUT_RELEASED_0));
+        }
+        try {
+            serviceElements(req, res);
+        } finally {
+            releaseOutput();
         }
     }
 
@@ -538,6 +514,9 @@ public class CmsFlexCacheEntry implements I_CmsLruCacheObject, I_CmsMemoryMonito
                     str += "" + count + " - <cms:include target=" + o + ">\n";
                 } else if (o instanceof byte[]) {
                     str += "" + count + " - <![CDATA[" + new String((byte[])o) + "]]>\n";
+                } else if (o instanceof CmsFlexCacheStorage.CmsChunk) {
+                    int length = ((CmsFlexCacheStorage.CmsChunk)o).getLength();
+                    str += "" + count + " - <!-- " + length + " off-heap bytes -->\n";
                 } else {
                     str += "<!--[" + o.toString() + "]-->";
                 }
@@ -547,4 +526,278 @@ public class CmsFlexCacheEntry implements I_CmsLruCacheObject, I_CmsMemoryMonito
         }
         return str;
     }
+
+    /**
+     * Reserves the output of this cache entry for writing it to a response.<p>
+     *
+     * As long as the output is reserved, the off-heap storage used by the output
+     * is not released, even if the entry is removed from the cache.
+     * Each successful call must be followed by a call to {@link #releaseOutput()}.<p>
+     *
+     * @return <code>false</code> if the output has already been released and the entry can not be used anymore
+     */
+    synchronized boolean acquireOutput() {
+
+        if (m_outputReleased) {
+            return false;
+        }
+        m_outputUsers++;
+        return true;
+    }
+
+    /**
+     * Stores a gzip compressed variant of the output of this completed cache entry.<p>
+     *
+     * The variant is only stored if the entry consists of a single output fragment,
+     * i.e. it has no include calls and no redirect, and if the fragment is at least
+     * as large as the given minimum size and actually gets smaller by the compression.
+     * This must be called before the entry is added to the cache, since it
+     * changes the costs of the entry.<p>
+     *
+     * @param minBytes the minimum size of the output to compress
+     */
+    void compress(int minBytes) {
+
+        if (!m_completed || (m_compressedOutput != null) || (minBytes < 0)) {
+            return;
+        }
+        int length = getOutputLength();
+        if ((length < minBytes) || !(m_elements.get(0) instanceof byte[])) {
+            return;
+        }
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(length / 4);
+            GZIPOutputStream gzip = new GZIPOutputStream(out);
+            gzip.write((byte[])m_elements.get(0));
+            gzip.close();
+            byte[] compressed = out.toByteArray();
+            if (compressed.length < length) {
+                m_compressedOutput = compressed;
+                m_byteSize += CmsMemoryMonitor.getMemorySize(compressed);
+            }
+        } catch (IOException e) {
+            // should never happen, the uncompressed output is used
+            LOG.error(e.getLocalizedMessage(), e);
+        }
+    }
+
+    /**
+     * Returns the length of the compressed output variant in bytes.<p>
+     *
+     * @return the length of the compressed output, or -1 if this entry has no compressed output
+     */
+    int getCompressedLength() {
+
+        if (m_compressedOutput instanceof byte[]) {
+            return ((byte[])m_compressedOutput).length;
+        } else if (m_compressedOutput instanceof CmsFlexCacheStorage.CmsChunk) {
+            return ((CmsFlexCacheStorage.CmsChunk)m_compressedOutput).getLength();
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the length of the output of this entry in bytes, if it consists of a single output fragment.<p>
+     *
+     * @return the length of the output, or -1 if this entry has include calls, a redirect or no output
+     */
+    int getOutputLength() {
+
+        if ((m_elements == null) || (m_elements.size() != 1)) {
+            return -1;
+        }
+        Object o = m_elements.get(0);
+        if (o instanceof byte[]) {
+            return ((byte[])o).length;
+        } else if (o instanceof CmsFlexCacheStorage.CmsChunk) {
+            return ((CmsFlexCacheStorage.CmsChunk)o).getLength();
+        }
+        return -1;
+    }
+
+    /**
+     * Moves the output fragments of this completed cache entry to the given off-heap storage.<p>
+     *
+     * Fragments that can not be stored off-heap stay on the heap.
+     * This must be called before the entry is added to the cache, since it
+     * changes the costs of the entry.<p>
+     *
+     * @param storage the off-heap storage
+     */
+    void moveToStorage(CmsFlexCacheStorage storage) {
+
+        if (!m_completed || (m_elements == null)) {
+            return;
+        }
+        List<Object> elements = new ArrayList<Object>(m_elements);
+        for (int i = 0; i < elements.size(); i++) {
+            Object o = elements.get(i);
+            if (o instanceof String) {
+                // skip the parameters and attributes of the include call
+                i += 2;
+            } else if (o instanceof byte[]) {
+                CmsFlexCacheStorage.CmsChunk chunk = storage.store((byte[])o);
+                if (chunk != null) {
+                    elements.set(i, chunk);
+                    m_byteSize += chunk.getMemorySize() - CmsMemoryMonitor.getMemorySize(o);
+                }
+            }
+        }
+        m_elements = Collections.unmodifiableList(elements);
+        if (m_compressedOutput instanceof byte[]) {
+            CmsFlexCacheStorage.CmsChunk chunk = storage.store((byte[])m_compressedOutput);
+            if (chunk != null) {
+                m_byteSize += chunk.getMemorySize() - CmsMemoryMonitor.getMemorySize(m_compressedOutput);
+                m_compressedOutput = chunk;
+            }
+        }
+    }
+
+    /**
+     * Ends a reservation of the output made with {@link #acquireOutput()}.<p>
+     *
+     * If the entry has been removed from the cache in the meantime,
+     * the off-heap storage is released by the last request writing the output.<p>
+     */
+    synchronized void releaseOutput() {
+
+        m_outputUsers--;
+        if (m_removed && (m_outputUsers == 0)) {
+            freeChunks();
+        }
+    }
+
+    /**
+     * Releases the off-heap storage used by this cache entry once no request is writing the output anymore.<p>
+     *
+     * This is called when the entry is removed from the cache, or when it could not be added.<p>
+     */
+    synchronized void releaseStorage() {
+
+        m_removed = true;
+        if (m_outputUsers == 0) {
+            freeChunks();
+        }
+    }
+
+    /**
+     * Writes the compressed output variant of this entry to the given stream.<p>
+     *
+     * @param out the stream to write to
+     * @param buffer the buffer to use for copying off-heap output
+     *
+     * @return <code>false</code> if this entry has no compressed output, or if the output has already been released
+     *
+     * @throws IOException in case writing to the stream fails
+     */
+    boolean writeCompressedOutput(OutputStream out, byte[] buffer) throws IOException {
+
+        if ((m_compressedOutput == null) || !acquireOutput()) {
+            return false;
+        }
+        try {
+            if (m_compressedOutput instanceof CmsFlexCacheStorage.CmsChunk) {
+                ((CmsFlexCacheStorage.CmsChunk)m_compressedOutput).writeTo(out, buffer);
+            } else {
+                out.write((byte[])m_compressedOutput);
+            }
+        } finally {
+            releaseOutput();
+        }
+        return true;
+    }
+
+    /**
+     * Gives the off-heap output fragments of this entry back to the storage.<p>
+     */
+    private void freeChunks() {
+
+        if (m_outputReleased || (m_elements == null)) {
+            return;
+        }
+        for (Object o : m_elements) {
+            if (o instanceof CmsFlexCacheStorage.CmsChunk) {
+                ((CmsFlexCacheStorage.CmsChunk)o).free();
+                m_outputReleased = true;
+            }
+        }
+        if (m_compressedOutput instanceof CmsFlexCacheStorage.CmsChunk) {
+            ((CmsFlexCacheStorage.CmsChunk)m_compressedOutput).free();
+            m_outputReleased = true;
+        }
+    }
+
+    /**
+     * Delivers the cached headers, output and includes of this entry to the given request / response.<p>
+     *
+     * @param req the request from the client
+     * @param res the server response
+     *
+     * @throws CmsFlexCacheException is thrown when problems writing to the response output-stream occur
+     * @throws ServletException might be thrown from call to RequestDispatcher.include()
+     * @throws IOException might be thrown from call to RequestDispatcher.include() or from Response.sendRedirect()
+     */
+    private void serviceElements(CmsFlexRequest req, CmsFlexResponse res)
+    throws CmsFlexCacheException, ServletException, IOException {
+
+        if (m_redirectTarget != null) {
+            res.setOnlyBuffering(false);
+            // redirect the response, no further output required
+            res.sendRedirect(m_redirectTarget);
+        } else {
+            // process cached headers first
+            CmsFlexResponse.processHeaders(m_headers, res);
+            // check if this cache entry is a "leaf" (i.e. no further includes)
+            boolean hasNoSubElements = (m_elements.size() == 1);
+            // write output to stream and process all included elements
+            for (int i = 0; i < m_elements.size(); i++) {
+                Object o = m_elements.get(i);
+                if (o instanceof String) {
+                    // handle cached parameters
+                    i++;
+                    Map<String, String[]> paramMap = CmsCollectionsGenericWrapper.map(m_elements.get(i));
+                    Map<String, String[]> oldParamMap = null;
+                    if (paramMap.size() > 0) {
+                        oldParamMap = req.getParameterMap();
+                        req.addParameterMap(paramMap);
+                    }
+                    // handle cached attributes
+                    i++;
+                    Map<String, Object> attrMap = CmsCollectionsGenericWrapper.map(m_elements.get(i));
+                    Map<String, Object> oldAttrMap = null;
+                    if (attrMap.size() > 0) {
+                        oldAttrMap = req.getAttributeMap();
+                        req.addAttributeMap(attrMap);
+                    }
+                    // do the include call
+                    req.getRequestDispatcher((String)o).include(req, res);
+                    // reset parameters if necessary
+                    if (oldParamMap != null) {
+                        req.setParameterMap(oldParamMap);
+                    }
+                    // reset attributes if necessary
+                    if (oldAttrMap != null) {
+                        req.setAttributeMap(oldAttrMap);
+                    }
+                } else {
+                    try {
+                        if (o instanceof CmsFlexCacheStorage.CmsChunk) {
+                            res.writeToOutputStream((CmsFlexCacheStorage.CmsChunk)o, hasNoSubElements);
+                        } else {
+                            res.writeToOutputStream((byte[])o, hasNoSubElements);
+                        }
+                    } catch (IOException e) {
+                        CmsMessageContainer message = Messages.get().container(
+                            Messages.LOG_FLEXCACHEKEY_NOT_FOUND_1,
+                            getClass().getName());
+                        if (LOG.isDebugEnabled()) {
+                            LOG.debug(message.key());
+                        }
+
+                        throw new CmsFlexCacheException(message, e);
+                    }
+                }
+            }
+        }
+    }
 }
@@ -0,0 +1,409 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.flex;
+
+import org.opencms.main.CmsLog;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import org.apache.commons.logging.Log;
+
+/**
+ * Off-heap storage for the output of Flex cache entries.<p>
+ *
+ * The storage is divided into slabs of a fixed size, which are allocated from
+ * direct byte buffers or from a memory mapped segment file.
+ * A cache entry stores each output fragment in one or more slabs and only keeps a small
+ * {@link CmsFlexCacheStorage.CmsChunk} handle on the heap.
+ * The slabs are given back to the storage once the entry is removed from the cache.<p>
+ *
+ * If there are not enough free slabs, or if a fragment is too small to be worth a slab,
+ * the fragment simply stays on the heap.<p>
+ *
+ * @since 8.0.2
+ *
+ * @see CmsFlexCacheEntry
+ */
+public class CmsFlexCacheStorage {
+
+    /**
+     * Handle to an output fragment that is kept in the off-heap storage.<p>
+     */
+    public static class CmsChunk {
+
+        /** The length of the fragment in bytes. */
+        private int m_length;
+
+        /** The slabs used by the fragment, in order. */
+        private int[] m_slabs;
+
+        /** The storage the slabs belong to. */
+        private CmsFlexCacheStorage m_storage;
+
+        /**
+         * Creates a new handle.<p>
+         *
+         * @param storage the storage the slabs belong to
+         * @param slabs the slabs used by the fragment
+         * @param length the length of the fragment in bytes
+         */
+        CmsChunk(CmsFlexCacheStorage storage, int[] slabs, int length) {
+
+            m_storage = storage;
+            m_slabs = slabs;
+            m_length = length;
+        }
+
+        /**
+         * Returns the length of the fragment in bytes.<p>
+         *
+         * @return the length of the fragment
+         */
+        public int getLength() {
+
+            return m_length;
+        }
+
+        /**
+         * Returns the approximate heap size of this handle in bytes.<p>
+         *
+         * @return the heap size of this handle
+         */
+        public int getMemorySize() {
+
+            return 32 + (m_slabs.length * 4);
+        }
+
+        /**
+         * Copies the fragment to a new byte array.<p>
+         *
+         * @return the bytes of the fragment
+         */
+        public byte[] toByteArray() {
+
+            byte[] result = new byte[m_length];
+            int offset = 0;
+            for (int i = 0; i < m_slabs.length; i++) {
+                int length = Math.min(m_storage.m_slabBytes, m_length - offset);
+                m_storage.getSlab(m_slabs[i]).get(result, offset, length);
+                offset += length;
+            }
+            return result;
+        }
+
+        /**
+         * Writes the fragment to the given stream, using the given buffer to copy the bytes.<p>
+         *
+         * @param out the stream to write to
+         * @param buffer the buffer to use, should have the size of a slab
+         *
+         * @throws IOException in case writing to the stream fails
+         */
+        public void writeTo(OutputStream out, byte[] buffer) throws IOException {
+
+            int offset = 0;
+            for (int i = 0; i < m_slabs.length; i++) {
+                ByteBuffer slab = m_storage.getSlab(m_slabs[i]);
+                int remaining = Math.min(m_storage.m_slabBytes, m_length - offset);
+                offset += remaining;
+                while (remaining > 0) {
+                    int length = Math.min(buffer.length, remaining);
+                    slab.get(buffer, 0, length);
+                    out.write(buffer, 0, length);
+                    remaining -= length;
+                }
+            }
+        }
+
+        /**
+         * Gives the slabs of this fragment back to the storage.<p>
+         */
+        void free() {
+
+            if (m_slabs != null) {
+                m_storage.free(m_slabs);
+                m_slabs = null;
+            }
+        }
+    }
+
+    /** The default size of a slab in bytes. */
+    public static final int DEFAULT_SLAB_BYTES = 8192;
+
+    /** The minimum size of a slab in bytes. */
+    public static final int MIN_SLAB_BYTES = 512;
+
+    /** The log object for this class. */
+    private static final Log LOG = CmsLog.getLog(CmsFlexCacheStorage.class);
+
+    /** The maximum size of a single segment in bytes. */
+    private static final int MAX_SEGMENT_BYTES = 1 << 30;
+
+    /** The number of free slabs. */
+    private int m_freeCount;
+
+    /** The stack of free slab indexes. */
+    private int[] m_freeSlabs;
+
+    /** The segments holding the slabs. */
+    private ByteBuffer[] m_segments;
+
+    /** The size of a slab in bytes. */
+    private int m_slabBytes;
+
+    /** The number of slabs in a segment. */
+    private int m_slabsPerSegment;
+
+    /**
+     * Creates a new off-heap storage.<p>
+     *
+     * @param maxBytes the total size of the storage in bytes
+     * @param slabBytes the size of a slab in bytes
+     * @param file the path of the segment file to map, or <code>null</code> to use direct buffers
+     */
+    public CmsFlexCacheStorage(long maxBytes, int slabBytes, String file) {
+
+        m_slabBytes = Math.max(MIN_SLAB_BYTES, slabBytes);
+        m_slabsPerSegment = MAX_SEGMENT_BYTES / m_slabBytes;
+        int slabCount = (int)Math.min(Integer.MAX_VALUE, maxBytes / m_slabBytes);
+        int segmentCount = (slabCount + m_slabsPerSegment - 1) / m_slabsPerSegment;
+
+        if (CmsLog.INIT.isInfoEnabled()) {
+            CmsLog.INIT.info(Messages.get().getBundle().key(
+                Messages.INIT_FLEXCACHE_OFFHEAP_STORAGE_2,
+                new Long((long)slabCount * m_slabBytes),
+                new Integer(m_slabBytes)));
+        }
+        m_segments = null;
+        if (file != null) {
+            m_segments = mapSegments(file, slabCount, segmentCount);
+        }
+        if (m_segments == null) {
+            m_segments = new ByteBuffer[segmentCount];
+            for (int i = 0; i < segmentCount; i++) {
+                m_segments[i] = ByteBuffer.allocateDirect(getSegmentBytes(slabCount, i));
+            }
+        }
+
+        m_freeSlabs = new int[slabCount];
+        for (int i = 0; i < slabCount; i++) {
+            // the lowest slab indexes are allocated first
+            m_freeSlabs[i] = slabCount - 1 - i;
+        }
+        m_freeCount = slabCount;
+    }
+
+    /**
+     * Returns the total size of the storage in bytes.<p>
+     *
+     * @return the total size of the storage
+     */
+    public long getCapacity() {
+
+        return (long)m_freeSlabs.length * m_slabBytes;
+    }
+
+    /**
+     * Returns the number of bytes in the free slabs.<p>
+     *
+     * @return the number of free bytes
+     */
+    public synchronized long getFreeBytes() {
+
+        return (long)m_freeCount * m_slabBytes;
+    }
+
+    /**
+     * Returns the size of a slab in bytes.<p>
+     *
+     * @return the size of a slab
+     */
+    public int getSlabBytes() {
+
+        return m_slabBytes;
+    }
+
+    /**
+     * Stores the given output fragment in free slabs.<p>
+     *
+     * @param bytes the fragment to store
+     *
+     * @return the handle to the stored fragment, or <code>null</code> if the fragment
+     *      is too small or there are not enough free slabs
+     */
+    public CmsChunk store(byte[] bytes) {
+
+        if (bytes.length < (m_slabBytes / 2)) {
+            // small fragments would waste most of a slab
+            return null;
+        }
+        int[] slabs = allocate((bytes.length + m_slabBytes - 1) / m_slabBytes);
+        if (slabs == null) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug(Messages.get().getBundle().key(
+                    Messages.LOG_FLEXCACHE_OFFHEAP_FULL_1,
+                    new Integer(bytes.length)));
+            }
+            return null;
+        }
+        int offset = 0;
+        for (int i = 0; i < slabs.length; i++) {
+            int length = Math.min(m_slabBytes, bytes.length - offset);
+            getSlab(slabs[i]).put(bytes, offset, length);
+            offset += length;
+        }
+        return new CmsChunk(this, slabs, bytes.length);
+    }
+
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+
+        return "[" + getClass().getName() + ", capacity=" + getCapacity() + ", free=" + getFreeBytes() + "]";
+    }
+
+    /**
+     * Takes the given number of slabs from the free slabs.<p>
+     *
+     * @param count the number of slabs
+     *
+     * @return the slab indexes, or <code>null</code> if there are not enough free slabs
+     */
+    synchronized int[] allocate(int count) {
+
+        if (count > m_freeCount) {
+            return null;
+        }
+        int[] result = new int[count];
+        for (int i = 0; i < count; i++) {
+            m_freeCount--;
+            result[i] = m_freeSlabs[m_freeCount];
+        }
+        return result;
+    }
+
+    /**
+     * Gives the given slabs back to the free slabs.<p>
+     *
+     * @param slabs the slab indexes
+     */
+    synchronized void free(int[] slabs) {
+
+        for (int i = 0; i < slabs.length; i++) {
+            m_freeSlabs[m_freeCount] = slabs[i];
+            m_freeCount++;
+        }
+    }
+
+    /**
+     * Returns a buffer positioned at the start of the given slab and limited to its end.<p>
+     *
+     * The returned buffer has its own position, so it can be used concurrently
+     * with other buffers for the same segment.<p>
+     *
+     * @param slab the slab index
+     *
+     * @return the buffer for the slab
+     */
+    ByteBuffer getSlab(int slab) {
+
+        ByteBuffer segment = m_segments[slab / m_slabsPerSegment].duplicate();
+        int start = (slab % m_slabsPerSegment) * m_slabBytes;
+        segment.limit(start + m_slabBytes);
+        segment.position(start);
+        return segment;
+    }
+
+    /**
+     * Returns the size of the given segment in bytes.<p>
+     *
+     * @param slabCount the total number of slabs
+     * @param segment the segment index
+     *
+     * @return the size of the segment
+     */
+    private int getSegmentBytes(int slabCount, int segment) {
+
+        return Math.min(m_slabsPerSegment, slabCount - (segment * m_slabsPerSegment)) * m_slabBytes;
+    }
+
+    /**
+     * Maps the segments from the given file.<p>
+     *
+     * @param file the path of the segment file
+     * @param slabCount the total number of slabs
+     * @param segmentCount the number of segments
+     *
+     * @return the mapped segments, or <code>null</code> if the file could not be mapped
+     */
+    private ByteBuffer[] mapSegments(String file, int slabCount, int segmentCount) {
+
+        RandomAccessFile raf = null;
+        try {
+            File f = new File(file);
+            if (f.getParentFile() != null) {
+                f.getParentFile().mkdirs();
+            }
+            raf = new RandomAccessFile(f, "rw");
+            raf.setLength((long)slabCount * m_slabBytes);
+            FileChannel channel = raf.getChannel();
+            ByteBuffer[] result = new ByteBuffer[segmentCount];
+            long position = 0;
+            for (int i = 0; i < segmentCount; i++) {
+                int size = getSegmentBytes(slabCount, i);
+                result[i] = channel.map(FileChannel.MapMode.READ_WRITE, position, size);
+                position += size;
+            }
+            if (CmsLog.INIT.isInfoEnabled()) {
+                CmsLog.INIT.info(Messages.get().getBundle().key(
+                    Messages.INIT_FLEXCACHE_OFFHEAP_FILE_1,
+                    f.getAbsolutePath()));
+            }
+            return result;
+        } catch (IOException e) {
+            LOG.error(Messages.get().getBundle().key(Messages.LOG_FLEXCACHE_OFFHEAP_FILE_FAILED_1, file), e);
+            return null;
+        } finally {
+            if (raf != null) {
+                try {
+                    // the mapped buffers stay valid after the file is closed
+                    raf.close();
+                } catch (IOException e) {
+                    // ignore
+                }
+            }
+        }
+    }
+}
@@ -32,6 +32,7 @@ import org.opencms.file.CmsResource;
 import org.opencms.main.CmsLog;
 import org.opencms.util.CmsRequestUtil;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Vector;
 
@@ -61,6 +62,9 @@ public class CmsFlexController {
     /** The wrapped CmsObject provides JSP with access to the core system. */
     private CmsObject m_cmsObject;
 
+    /** The cache entry holding the complete output of the top-level element with a compressed variant. */
+    private CmsFlexCacheEntry m_compressedEntry;
+
     /** List of wrapped RequestContext info object. */
     private List<CmsFlexRequestContextInfo> m_flexContextInfoList;
 
@@ -94,6 +98,9 @@ public class CmsFlexController {
     /** Indicates if the request is the top request. */
     private boolean m_top;
 
+    /** Indicates if the top-level element has already been included. */
+    private boolean m_topElementIncluded;
+
     /**
      * Creates a new controller form the old one, exchanging just the provided OpenCms user context.<p>
      * 
@@ -380,6 +387,8 @@ public class CmsFlexController {
         m_cmsObject = null;
         m_resource = null;
         m_cache = null;
+        m_compressedEntry = null;
+        m_topElementIncluded = false;
         m_throwable = null;
     }
 
@@ -676,6 +685,62 @@ public class CmsFlexController {
         (m_flexContextInfoList.get(pos)).updateDates(dateLastModified, dateExpires);
     }
 
+    /**
+     * Writes the gzip compressed variant of the top-level output to the given response, if possible.<p>
+     *
+     * This is possible if the complete output of the top-level element was delivered from a 
+     * single Flex cache entry with a compressed variant, and if the client accepts gzip encoded responses.
+     * In this case the <code>Content-Encoding</code> and <code>Content-Length</code> headers are set 
+     * and the compressed output is written to the response stream.
+     * The <code>Vary</code> header is set in any case if a compressed variant is available.<p>
+     *
+     * @param req the top request
+     * @param res the top response
+     *
+     * @return <code>true</code> if the compressed output has been written, 
+     *      <code>false</code> if the uncompressed output must be written
+     *
+     * @throws IOException in case writing to the response fails
+     */
+    public boolean writeCompressedOutput(HttpServletRequest req, HttpServletResponse res) throws IOException {
+
+        CmsFlexCacheEntry entry = m_compressedEntry;
+        if ((entry == null) || (m_throwable != null)) {
+            // the output was not delivered completely from the cache entry
+            return false;
+        }
+        res.addHeader(CmsRequestUtil.HEADER_VARY, CmsRequestUtil.HEADER_ACCEPT_ENCODING);
+        if (!CmsRequestUtil.isEncodingAccepted(req, CmsFlexCacheEntry.COMPRESSED_ENCODING)
+            || !entry.acquireOutput()) {
+            return false;
+        }
+        try {
+            res.setHeader(CmsRequestUtil.HEADER_CONTENT_ENCODING, CmsFlexCacheEntry.COMPRESSED_ENCODING);
+            res.setContentLength(entry.getCompressedLength());
+            entry.writeCompressedOutput(res.getOutputStream(), new byte[CmsFlexCacheStorage.DEFAULT_SLAB_BYTES]);
+        } finally {
+            entry.releaseOutput();
+        }
+        return true;
+    }
+
+    /**
+     * Sets the cache entry that delivered the output of the top-level element,
+     * if the entry has a compressed output variant.<p>
+     *
+     * This must be called after every include of a top-level element, with <code>null</code> 
+     * if the output was not delivered by a cache entry with a compressed variant. 
+     * If more than one top-level element is included, the top-level output is not
+     * delivered by a single entry, so no compressed variant is used at all.<p>
+     *
+     * @param entry the cache entry, or <code>null</code>
+     */
+    void setCompressedEntry(CmsFlexCacheEntry entry) {
+
+        m_compressedEntry = m_topElementIncluded ? null : entry;
+        m_topElementIncluded = true;
+    }
+
     /**
      * Updates the context info of the request context.<p>
      */
@@ -35,6 +35,7 @@ import org.opencms.loader.I_CmsResourceLoader;
 import org.opencms.main.CmsException;
 import org.opencms.main.CmsLog;
 import org.opencms.main.OpenCms;
+import org.opencms.monitor.CmsRequestTracer;
 
 import java.io.IOException;
 import java.util.List;
@@ -159,12 +160,17 @@ public class CmsFlexRequestDispatcher implements RequestDispatcher {
             }
         }
 
-        if ((m_extTarget != null) || (controller == null)) {
-            includeExternal(req, res);
-        } else if (controller.isForwardMode()) {
-            includeInternalNoCache(req, res, controller, controller.getCmsObject(), resource);
-        } else {
-            includeInternalWithCache(req, res, controller, controller.getCmsObject(), resource);
+        CmsRequestTracer.startSpan(CmsRequestTracer.SPAN_INCLUDE, (m_extTarget != null) ? m_extTarget : m_vfsTarget);
+        try {
+            if ((m_extTarget != null) || (controller == null)) {
+                includeExternal(req, res);
+            } else if (controller.isForwardMode()) {
+                includeInternalNoCache(req, res, controller, controller.getCmsObject(), resource);
+            } else {
+                includeInternalWithCache(req, res, controller, controller.getCmsObject(), resource);
+            }
+        } finally {
+            CmsRequestTracer.endSpan();
         }
     }
 
@@ -296,9 +302,19 @@ public class CmsFlexRequestDispatcher implements RequestDispatcher {
         // that's why we have this try { ... } finally { ... } clause here
         try {
             CmsFlexCacheEntry entry = null;
+            // the cache entry that delivered the output of the top-level element with a compressed variant
+            CmsFlexCacheEntry compressedEntry = null;
+            // the output of the top-level page element is delivered by the loader without further processing
+            boolean isTopElement = controller.isTop()
+                && !controller.isStreaming()
+                && (controller.getResponseStackSize() == 2);
             if (f_req.isCacheable()) {
                 // caching is on, check if requested resource is already in cache            
-                entry = cache.get(w_req.getCmsCacheKey());
+                entry = CmsRequestTracer.countCacheAccess("flex", cache.get(w_req.getCmsCacheKey()));
+                if ((entry != null) && !entry.acquireOutput()) {
+                    // the entry has been removed from the cache and its output released in the meantime
+                    entry = null;
+                }
                 if (entry != null) {
                     // the target is already in the cache
                     try {
@@ -309,6 +325,9 @@ public class CmsFlexRequestDispatcher implements RequestDispatcher {
                         }
                         controller.updateDates(entry.getDateLastModified(), entry.getDateExpires());
                         entry.service(w_req, w_res);
+                        if (entry.getCompressedLength() > -1) {
+                            compressedEntry = entry;
+                        }
                     } catch (CmsException e) {
                         Throwable t;
                         if (e.getCause() != null) {
@@ -320,6 +339,8 @@ public class CmsFlexRequestDispatcher implements RequestDispatcher {
                         throw new ServletException(Messages.get().getBundle().key(
                             Messages.ERR_FLEXREQUESTDISPATCHER_ERROR_LOADING_RESOURCE_FROM_CACHE_1,
                             m_vfsTarget), t);
+                    } finally {
+                        entry.releaseOutput();
                     }
                 } else {
                     // cache is on and resource is not yet cached, so we need to read the cache key for the response
@@ -434,12 +455,22 @@ public class CmsFlexRequestDispatcher implements RequestDispatcher {
                         entry.setDateLastModified(controller.getDateLastModified());
                         entry.setDateExpires(controller.getDateExpires());
                     }
+                    if (isTopElement) {
+                        // store a compressed variant if the entry holds the complete page output
+                        entry.compress(cache.getCompressionMinBytes());
+                    }
                     cache.put(w_res.getCmsCacheKey(), entry, variation);
+                    if (entry.getCompressedLength() > -1) {
+                        compressedEntry = entry;
+                    }
                 } else {
                     // result can not be cached, do not use "last modified" optimization
                     controller.updateDates(-1, controller.getDateExpires());
                 }
             }
+            if (isTopElement) {
+                controller.setCompressedEntry(compressedEntry);
+            }
 
             if (f_res.hasIncludeList()) {
                 // special case: this indicates that the output was not yet displayed
@@ -40,6 +40,7 @@ import java.io.IOException;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -232,12 +233,18 @@ public class CmsFlexResponse extends HttpServletResponseWrapper {
     /** Indicates that parent stream is writing only in the buffer. */
     private boolean m_parentWritesOnlyToBuffer;
 
+    /** The headers recorded for a cache outside of the Flex cache, or <code>null</code> if no headers are recorded. */
+    private Map<String, List<String>> m_recordedHeaders;
+
     /** The wrapped ServletResponse. */
     private HttpServletResponse m_res;
 
     /** Indicates if this response is suspended (probably because of a redirect). */
     private boolean m_suspended;
 
+    /** The buffer used to copy off-heap output fragments to the output stream. */
+    private byte[] m_transferBuffer;
+
     /** State bit indicating whether content type has been set, type may only be set once according to spec. */
     private boolean m_typeSet;
 
@@ -419,6 +426,10 @@ public class CmsFlexResponse extends HttpServletResponseWrapper {
             return;
         }
 
+        if (m_recordedHeaders != null) {
+            addHeaderList(m_recordedHeaders, name, value);
+        }
+
         if (m_cachingRequired && !m_includeMode) {
             addHeaderList(m_bufferHeaders, name, value);
             if (LOG.isDebugEnabled()) {
@@ -698,6 +709,10 @@ public class CmsFlexResponse extends HttpServletResponseWrapper {
             return;
         }
 
+        if (m_recordedHeaders != null) {
+            setHeaderList(m_recordedHeaders, name, value);
+        }
+
         if (m_cachingRequired && !m_includeMode) {
             setHeaderList(m_bufferHeaders, name, value);
             if (LOG.isDebugEnabled()) {
@@ -760,6 +775,35 @@ public class CmsFlexResponse extends HttpServletResponseWrapper {
         }
     }
 
+    /**
+     * Starts recording all headers that are set or added to this response, 
+     * including the headers of included sub-elements.<p>
+     * 
+     * This is used by caches outside of the Flex cache, which have to replay the headers 
+     * together with the cached output, see {@link #processHeaders(Map, HttpServletResponse)}.<p>
+     * 
+     * @see #stopHeaderRecording()
+     */
+    public void startHeaderRecording() {
+
+        m_recordedHeaders = new HashMap<String, List<String>>(8);
+    }
+
+    /**
+     * Stops recording the headers and returns the headers recorded since {@link #startHeaderRecording()}.<p>
+     * 
+     * @return the recorded headers, or an empty map if the recording was not started
+     */
+    public Map<String, List<String>> stopHeaderRecording() {
+
+        Map<String, List<String>> result = m_recordedHeaders;
+        m_recordedHeaders = null;
+        if (result == null) {
+            result = Collections.emptyMap();
+        }
+        return result;
+    }
+
     /**
      * Adds some bytes to the list of include results.<p>
      * 
@@ -957,6 +1001,39 @@ public class CmsFlexResponse extends HttpServletResponseWrapper {
         m_suspended = value;
     }
 
+    /**
+     * Writes an off-heap output fragment to the current output stream,
+     * this method should be called from CmsFlexCacheEntry.service() only.<p>
+     *
+     * @param chunk the handle to the off-heap output fragment
+     * @param useArray indicates that the bytes of the fragment are the complete output of this response
+     *
+     * @throws IOException in case something goes wrong while writing to the stream
+     */
+    void writeToOutputStream(CmsFlexCacheStorage.CmsChunk chunk, boolean useArray) throws IOException {
+
+        if (isSuspended()) {
+            return;
+        }
+        if (m_writeOnlyToBuffer) {
+            if (useArray) {
+                // This cached entry has no sub-elements (it a "leaf"), so a copy of the bytes can be used
+                m_cacheBytes = chunk.toByteArray();
+            } else {
+                if (m_out == null) {
+                    initStream();
+                }
+                // In this case the buffer will not write to the servlet stream, but to it's internal buffer only
+                chunk.writeTo(m_out, getTransferBuffer());
+            }
+        } else {
+            // The request is not buffered, so we can copy the fragment directly to it's parents output stream
+            ServletOutputStream out = m_res.getOutputStream();
+            chunk.writeTo(out, getTransferBuffer());
+            out.flush();
+        }
+    }
+
     /** 
      * Writes some bytes to the current output stream,
      * this method should be called from CmsFlexCacheEntry.service() only.<p>
@@ -1009,6 +1086,19 @@ public class CmsFlexResponse extends HttpServletResponseWrapper {
         values.add(value);
     }
 
+    /**
+     * Returns the buffer used to copy off-heap output fragments to the output stream.<p>
+     *
+     * @return the transfer buffer
+     */
+    private byte[] getTransferBuffer() {
+
+        if (m_transferBuffer == null) {
+            m_transferBuffer = new byte[CmsFlexCacheStorage.DEFAULT_SLAB_BYTES];
+        }
+        return m_transferBuffer;
+    }
+
     /**
      * Initializes the current responses output stream 
      * and the corresponding print writer.<p>
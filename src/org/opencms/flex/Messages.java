@@ -43,6 +43,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String ERR_ADD_COOKIE_0 = "ERR_ADD_COOKIE_0";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String ERR_FLEXCACHEENTRY_OUTPUT_RELEASED_0 = "ERR_FLEXCACHEENTRY_OUTPUT_RELEASED_0";
+
     /** Message constant for key in the resource bundle. */
     public static final String ERR_FLEXREQUESTDISPATCHER_CLASSCAST_EXCEPTION_1 = "ERR_FLEXREQUESTDISPATCHER_CLASSCAST_EXCEPTION_1";
 
@@ -67,6 +70,12 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String INIT_FLEXCACHE_CREATED_2 = "INIT_FLEXCACHE_CREATED_2";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String INIT_FLEXCACHE_OFFHEAP_FILE_1 = "INIT_FLEXCACHE_OFFHEAP_FILE_1";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String INIT_FLEXCACHE_OFFHEAP_STORAGE_2 = "INIT_FLEXCACHE_OFFHEAP_STORAGE_2";
+
     /** Static instance member. */
     private static final I_CmsMessageBundle INSTANCE = new Messages();
 
@@ -106,6 +115,12 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String LOG_FLEXCACHE_CLEAR_ONLINE_KEYS_AND_ENTRIES_0 = "LOG_FLEXCACHE_CLEAR_ONLINE_KEYS_AND_ENTRIES_0";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_FLEXCACHE_OFFHEAP_FILE_FAILED_1 = "LOG_FLEXCACHE_OFFHEAP_FILE_FAILED_1";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_FLEXCACHE_OFFHEAP_FULL_1 = "LOG_FLEXCACHE_OFFHEAP_FULL_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String LOG_FLEXCACHE_PURGED_JSP_REPOSITORY_0 = "LOG_FLEXCACHE_PURGED_JSP_REPOSITORY_0";
 
@@ -37,7 +37,9 @@ import org.opencms.main.CmsLog;
 import org.opencms.main.OpenCms;
 
 import java.util.Enumeration;
+import java.util.HashMap;
 import java.util.Locale;
+import java.util.Map;
 import java.util.ResourceBundle;
 
 import javax.servlet.http.HttpServletRequest;
@@ -53,6 +55,9 @@ import org.apache.commons.logging.Log;
  */
 public abstract class A_CmsClientMessageBundle implements I_CmsClientMessageBundle {
 
+    /** The created bundles by bundle name. */
+    private static final Map<String, I_CmsClientMessageBundle> BUNDLES = new HashMap<String, I_CmsClientMessageBundle>();
+
     /** Static reference to the log. */
     private static final Log LOG = CmsLog.getLog(A_CmsClientMessageBundle.class);
 
@@ -61,7 +66,26 @@ public abstract class A_CmsClientMessageBundle implements I_CmsClientMessageBund
      */
     protected A_CmsClientMessageBundle() {
 
-        // empty
+        synchronized (BUNDLES) {
+            BUNDLES.put(getBundleName(), this);
+        }
+    }
+
+    /**
+     * Returns the client message bundle with the given name.<p>
+     * 
+     * Only bundles that have already been created are available here,
+     * usually by the <code>get()</code> method of the bundle class.<p>
+     * 
+     * @param bundleName the bundle name
+     * 
+     * @return the client message bundle, or <code>null</code> if no bundle with the given name has been created
+     */
+    public static I_CmsClientMessageBundle getBundle(String bundleName) {
+
+        synchronized (BUNDLES) {
+            return BUNDLES.get(bundleName);
+        }
     }
 
     /**
@@ -0,0 +1,293 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.gwt;
+
+import org.opencms.cache.CmsMemoryObjectCache;
+import org.opencms.i18n.CmsEncoder;
+import org.opencms.i18n.CmsLocaleManager;
+import org.opencms.main.CmsLog;
+import org.opencms.main.I_CmsRequestHandler;
+import org.opencms.main.OpenCms;
+import org.opencms.util.CmsRequestUtil;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.util.Locale;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPOutputStream;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.apache.commons.logging.Log;
+
+/**
+ * Request handler that delivers the client message bundles as cacheable script files.<p>
+ *
+ * The messages of a bundle only depend on the locale, not on the current user,
+ * so instead of writing them into every editor page they are exported once per locale,
+ * kept in the memory object cache and delivered with an <code>ETag</code> header.
+ * The links generated by {@link #getLink(I_CmsClientMessageBundle, Locale)} contain the
+ * entity tag as version parameter, so browsers may cache the script until the messages change.<p>
+ *
+ * If the client accepts it, the script is delivered gzip compressed if it is larger than
+ * the compression threshold of the GWT services. The compressed script has its own entity tag
+ * with the suffix <code>-gz</code>, since it is a different representation of the resource.<p>
+ *
+ * @since 8.0.2
+ *
+ * @see CmsGwtService#getCompressionThreshold()
+ */
+public class CmsClientMessagesHandler implements I_CmsRequestHandler {
+
+    /** The handler name. */
+    public static final String HANDLER_NAME = "ClientMessages";
+
+    /** Request parameter name for the bundle name. */
+    public static final String PARAM_BUNDLE = "bundle";
+
+    /** Request parameter name for the locale. */
+    public static final String PARAM_LOCALE = "locale";
+
+    /** Request parameter name for the version. */
+    public static final String PARAM_VERSION = "v";
+
+    /** The gzip content encoding. */
+    private static final String ENCODING_GZIP = "gzip";
+
+    /** The suffix of the entity tag of the gzip compressed content. */
+    private static final String ETAG_SUFFIX_GZIP = "-gz";
+
+    /** The maximum age of the delivered scripts in seconds, the links change with the content. */
+    private static final int MAX_AGE = 60 * 60 * 24 * 30;
+
+    /** The log object for this class. */
+    private static final Log LOG = CmsLog.getLog(CmsClientMessagesHandler.class);
+
+    /** The handler names. */
+    private static final String[] HANDLER_NAMES = {HANDLER_NAME};
+
+    /**
+     * Returns the link to the script with the messages of the given bundle and locale.<p>
+     *
+     * @param bundle the client message bundle
+     * @param locale the locale
+     *
+     * @return the link to the script
+     */
+    public static String getLink(I_CmsClientMessageBundle bundle, Locale locale) {
+
+        CmsExportedMessages export = getExport(bundle, locale);
+        StringBuffer result = new StringBuffer(128);
+        result.append(OpenCms.getSystemInfo().getOpenCmsContext()).append("/handle").append(HANDLER_NAME);
+        result.append('?').append(PARAM_BUNDLE).append('=').append(bundle.getBundleName());
+        result.append('&').append(PARAM_LOCALE).append('=').append(export.getLocale().toString());
+        result.append('&').append(PARAM_VERSION).append('=').append(export.getVersion());
+        return result.toString();
+    }
+
+    /**
+     * Returns the cached export of the given bundle and locale, exporting the messages if needed.<p>
+     *
+     * Only the workplace locales are exported, for other locales the default workplace locale is used.<p>
+     *
+     * @param bundle the client message bundle
+     * @param locale the locale
+     *
+     * @return the exported messages
+     */
+    private static CmsExportedMessages getExport(I_CmsClientMessageBundle bundle, Locale locale) {
+
+        if ((locale == null) || !OpenCms.getWorkplaceManager().getLocales().contains(locale)) {
+            locale = OpenCms.getWorkplaceManager().getDefaultLocale();
+        }
+        String key = bundle.getBundleName() + "_" + locale.toString();
+        CmsExportedMessages export = (CmsExportedMessages)CmsMemoryObjectCache.getInstance().getCachedObject(
+            CmsClientMessagesHandler.class,
+            key);
+        if (export == null) {
+            export = new CmsExportedMessages(locale, bundle.export(locale));
+            CmsMemoryObjectCache.getInstance().putCachedObject(CmsClientMessagesHandler.class, key, export);
+        }
+        return export;
+    }
+
+    /**
+     * @see org.opencms.main.I_CmsRequestHandler#getHandlerNames()
+     */
+    public String[] getHandlerNames() {
+
+        return HANDLER_NAMES;
+    }
+
+    /**
+     * @see org.opencms.main.I_CmsRequestHandler#handle(javax.servlet.http.HttpServletRequest, javax.servlet.http.HttpServletResponse, java.lang.String)
+     */
+    public void handle(HttpServletRequest req, HttpServletResponse res, String name) throws IOException {
+
+        String bundleName = req.getParameter(PARAM_BUNDLE);
+        I_CmsClientMessageBundle bundle = (bundleName == null) ? null : A_CmsClientMessageBundle.getBundle(bundleName);
+        if (bundle == null) {
+            res.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        CmsExportedMessages export = getExport(bundle, CmsLocaleManager.getLocale(req.getParameter(PARAM_LOCALE)));
+        String acceptEncoding = req.getHeader(CmsRequestUtil.HEADER_ACCEPT_ENCODING);
+        boolean compressed = (export.getCompressedContent() != null)
+            && (acceptEncoding != null)
+            && (acceptEncoding.indexOf(ENCODING_GZIP) > -1);
+        String etag = export.getETag(compressed);
+        res.setHeader(CmsRequestUtil.HEADER_ETAG, etag);
+        res.setHeader(CmsRequestUtil.HEADER_CACHE_CONTROL, CmsRequestUtil.HEADER_VALUE_MAX_AGE + MAX_AGE);
+        res.setHeader(CmsRequestUtil.HEADER_VARY, CmsRequestUtil.HEADER_ACCEPT_ENCODING);
+        String ifNoneMatch = req.getHeader(CmsRequestUtil.HEADER_IF_NONE_MATCH);
+        if ((ifNoneMatch != null) && (ifNoneMatch.indexOf(etag) > -1)) {
+            res.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+        byte[] content = export.getContent();
+        if (compressed) {
+            res.setHeader(CmsRequestUtil.HEADER_CONTENT_ENCODING, ENCODING_GZIP);
+            content = export.getCompressedContent();
+        }
+        res.setContentType("text/javascript; charset=" + CmsEncoder.ENCODING_UTF_8);
+        res.setContentLength(content.length);
+        res.getOutputStream().write(content);
+        if (LOG.isDebugEnabled()) {
+            LOG.debug(Messages.get().getBundle().key(
+                Messages.LOG_CLIENT_MESSAGES_DELIVERED_3,
+                bundle.getBundleName(),
+                export.getLocale(),
+                new Integer(content.length)));
+        }
+    }
+
+    /**
+     * The exported messages of a bundle for one locale.<p>
+     */
+    private static final class CmsExportedMessages {
+
+        /** The gzip compressed content, or <code>null</code> if the content is not compressed. */
+        private byte[] m_compressedContent;
+
+        /** The UTF-8 encoded content. */
+        private byte[] m_content;
+
+        /** The locale. */
+        private Locale m_locale;
+
+        /** The version. */
+        private String m_version;
+
+        /**
+         * Creates the exported messages.<p>
+         *
+         * @param locale the locale
+         * @param script the script with the exported messages
+         */
+        CmsExportedMessages(Locale locale, String script) {
+
+            m_locale = locale;
+            try {
+                m_content = script.getBytes(CmsEncoder.ENCODING_UTF_8);
+            } catch (UnsupportedEncodingException e) {
+                // ignore, UTF-8 is always available
+                m_content = script.getBytes();
+            }
+            CRC32 crc = new CRC32();
+            crc.update(m_content);
+            m_version = Long.toHexString(crc.getValue());
+            int threshold = CmsGwtService.getCompressionThreshold();
+            if ((threshold >= 0) && (m_content.length >= threshold)) {
+                try {
+                    ByteArrayOutputStream out = new ByteArrayOutputStream(m_content.length / 4);
+                    GZIPOutputStream gzip = new GZIPOutputStream(out);
+                    gzip.write(m_content);
+                    gzip.close();
+                    m_compressedContent = out.toByteArray();
+                } catch (IOException e) {
+                    // should never happen, deliver the uncompressed content
+                    LOG.error(e.getLocalizedMessage(), e);
+                }
+            }
+        }
+
+        /**
+         * Returns the gzip compressed content.<p>
+         *
+         * @return the compressed content, or <code>null</code> if the content is not compressed
+         */
+        byte[] getCompressedContent() {
+
+            return m_compressedContent;
+        }
+
+        /**
+         * Returns the UTF-8 encoded content.<p>
+         *
+         * @return the content
+         */
+        byte[] getContent() {
+
+            return m_content;
+        }
+
+        /**
+         * Returns the entity tag of the compressed or the uncompressed content.<p>
+         *
+         * @param compressed <code>true</code> for the entity tag of the compressed content
+         *
+         * @return the entity tag
+         */
+        String getETag(boolean compressed) {
+
+            return "\"" + m_version + (compressed ? ETAG_SUFFIX_GZIP : "") + "\"";
+        }
+
+        /**
+         * Returns the locale.<p>
+         *
+         * @return the locale
+         */
+        Locale getLocale() {
+
+            return m_locale;
+        }
+
+        /**
+         * Returns the version.<p>
+         *
+         * @return the version
+         */
+        String getVersion() {
+
+            return m_version;
+        }
+    }
+}
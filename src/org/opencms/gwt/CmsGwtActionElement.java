@@ -30,6 +30,7 @@ package org.opencms.gwt;
 import org.opencms.gwt.shared.CmsCoreData;
 import org.opencms.gwt.shared.rpc.I_CmsCoreService;
 import org.opencms.jsp.CmsJspActionElement;
+import org.opencms.main.CmsLog;
 import org.opencms.main.OpenCms;
 import org.opencms.util.CmsStringUtil;
 import org.opencms.workplace.CmsWorkplace;
@@ -43,6 +44,8 @@ import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import javax.servlet.jsp.PageContext;
 
+import org.apache.commons.logging.Log;
+
 import com.google.gwt.user.client.rpc.SerializationException;
 import com.google.gwt.user.server.rpc.RPC;
 
@@ -64,6 +67,9 @@ public class CmsGwtActionElement extends CmsJspActionElement {
     /** The resource icon CSS URI. */
     private static final String ICON_CSS_URI = "/system/modules/org.opencms.gwt/resourceIcon.css";
 
+    /** The static log object for this class. */
+    private static final Log LOG = CmsLog.getLog(CmsGwtActionElement.class);
+
     /** The current core data. */
     private CmsCoreData m_coreData;
 
@@ -125,8 +131,8 @@ public class CmsGwtActionElement extends CmsJspActionElement {
         StringBuffer sb = new StringBuffer();
         String prefetchedData = serialize(I_CmsCoreService.class.getMethod("prefetch"), getCoreData());
         sb.append(CmsCoreData.DICT_NAME).append("='").append(prefetchedData).append("';");
-        sb.append(ClientMessages.get().export(getRequest()));
         wrapScript(sb);
+        sb.append(exportMessages(ClientMessages.get()));
         sb.append("<style type=\"text/css\">\n @import url(\"").append(iconCssLink(iconCssClassPrefix)).append(
             "\");\n</style>\n");
         sb.append("<meta name=\"gwt:property\" content=\"locale=").append(wpLocale).append("\">\n");
@@ -182,9 +188,29 @@ public class CmsGwtActionElement extends CmsJspActionElement {
         return OpenCms.getWorkplaceManager().getWorkplaceLocale(getCmsObject());
     }
 
+    /**
+     * Returns the script tag that loads the messages of the given client message bundle
+     * for the workplace locale of the current user.<p>
+     * 
+     * The messages are not written into the page, they are delivered by the {@link CmsClientMessagesHandler}
+     * so that browsers can cache them.<p>
+     * 
+     * @param bundle the client message bundle
+     * 
+     * @return the script tag
+     */
+    protected String exportMessages(I_CmsClientMessageBundle bundle) {
+
+        return "<script type=\"text/javascript\" src=\""
+            + CmsClientMessagesHandler.getLink(bundle, getWorkplaceLocale())
+            + "\"></script>\n";
+    }
+
     /**
      * Serializes the result of the given method for RPC-prefetching.<p>
      * 
+     * The payload size and serialization time are recorded in the metrics of the service interface.<p>
+     * 
      * @param method the method
      * @param data the result to serialize
      * 
@@ -194,7 +220,19 @@ public class CmsGwtActionElement extends CmsJspActionElement {
      */
     protected String serialize(Method method, Object data) throws SerializationException {
 
-        return escape(RPC.encodeResponseForSuccess(method, data, CmsPrefetchSerializationPolicy.instance()));
+        long start = System.currentTimeMillis();
+        String result = RPC.encodeResponseForSuccess(method, data, CmsPrefetchSerializationPolicy.instance());
+        long time = System.currentTimeMillis() - start;
+        String serviceName = CmsGwtServiceMetrics.getServiceName(method.getDeclaringClass());
+        CmsGwtServiceMetrics.get(serviceName).recordCall(result.length(), time);
+        if (LOG.isDebugEnabled()) {
+            LOG.debug(Messages.get().getBundle().key(
+                Messages.LOG_PREFETCH_SERIALIZED_3,
+                serviceName,
+                new Integer(result.length()),
+                new Long(time)));
+        }
+        return escape(result);
     }
 
     /**
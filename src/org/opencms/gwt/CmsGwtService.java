@@ -52,6 +52,7 @@ import javax.servlet.http.HttpServletResponse;
 
 import org.apache.commons.logging.Log;
 
+import com.google.gwt.user.client.rpc.SerializationException;
 import com.google.gwt.user.server.rpc.RemoteServiceServlet;
 import com.google.gwt.user.server.rpc.SerializationPolicy;
 
@@ -62,18 +63,30 @@ import com.google.gwt.user.server.rpc.SerializationPolicy;
  */
 public class CmsGwtService extends RemoteServiceServlet {
 
+    /** The default compression threshold in characters. */
+    public static final int DEFAULT_COMPRESSION_THRESHOLD = 256;
+
+    /** Name of the configuration parameter for the compression threshold. */
+    public static final String PARAM_COMPRESSION_THRESHOLD = "gwt.rpc.compression.threshold";
+
     /** The static log object for this class. */
     private static final Log LOG = CmsLog.getLog(CmsGwtService.class);
 
     /** Serialization id. */
     private static final long serialVersionUID = 8119684308154724518L;
 
+    /** The minimum size of responses that are gzip compressed, a negative value disables the compression. */
+    private static int m_staticCompressionThreshold = DEFAULT_COMPRESSION_THRESHOLD;
+
     /** The service class context. */
     private CmsGwtServiceContext m_context;
 
     /** The current CMS context. */
     private ThreadLocal<CmsObject> m_perThreadCmsObject;
 
+    /** The service name used for the metrics. */
+    private String m_serviceName;
+
     /**
      * Constructor.<p>
      */
@@ -82,6 +95,28 @@ public class CmsGwtService extends RemoteServiceServlet {
         super();
     }
 
+    /**
+     * Returns the minimum size of RPC responses in characters that are gzip compressed.<p>
+     * 
+     * @return the compression threshold, a negative value means that the responses are never compressed
+     */
+    public static int getCompressionThreshold() {
+
+        return m_staticCompressionThreshold;
+    }
+
+    /**
+     * Sets the minimum size of RPC responses in characters that are gzip compressed.<p>
+     * 
+     * This is configured with the {@link #PARAM_COMPRESSION_THRESHOLD} parameter in the <code>opencms.properties</code>.<p>
+     * 
+     * @param compressionThreshold the compression threshold, a negative value disables the compression
+     */
+    public static void setCompressionThreshold(int compressionThreshold) {
+
+        m_staticCompressionThreshold = compressionThreshold;
+    }
+
     /**
      * Checks the permissions of the current user to match the required security level.<p> 
      * 
@@ -181,6 +216,30 @@ public class CmsGwtService extends RemoteServiceServlet {
         LOG.error(t.getLocalizedMessage(), t);
     }
 
+    /**
+     * Processes the RPC call and records the payload size and processing time in the service metrics.<p>
+     * 
+     * @see com.google.gwt.user.server.rpc.RemoteServiceServlet#processCall(java.lang.String)
+     */
+    @Override
+    public String processCall(String payload) throws SerializationException {
+
+        long start = System.currentTimeMillis();
+        String result = super.processCall(payload);
+        long time = System.currentTimeMillis() - start;
+        CmsGwtServiceMetrics.get(getServiceName()).recordCall(result.length(), time);
+        if (LOG.isDebugEnabled()) {
+            LOG.debug(Messages.get().getBundle().key(
+                Messages.LOG_RPC_CALL_4,
+                new Object[] {
+                    getServiceName(),
+                    new Integer(result.length()),
+                    new Long(time),
+                    Boolean.valueOf(shouldCompress(result))}));
+        }
+        return result;
+    }
+
     /**
      * @see javax.servlet.http.HttpServlet#service(javax.servlet.ServletRequest, javax.servlet.ServletResponse)
      */
@@ -344,6 +403,27 @@ public class CmsGwtService extends RemoteServiceServlet {
         return result;
     }
 
+    /**
+     * Compresses all responses larger than the configured compression threshold.<p>
+     * 
+     * This is only called if the client accepts gzip encoded responses.<p>
+     * 
+     * @see com.google.gwt.user.server.rpc.RemoteServiceServlet#shouldCompressResponse(javax.servlet.http.HttpServletRequest, javax.servlet.http.HttpServletResponse, java.lang.String)
+     * @see #getCompressionThreshold()
+     */
+    @Override
+    protected boolean shouldCompressResponse(
+        HttpServletRequest request,
+        HttpServletResponse response,
+        String responsePayload) {
+
+        boolean compress = shouldCompress(responsePayload);
+        if (compress) {
+            CmsGwtServiceMetrics.get(getServiceName()).recordCompressed();
+        }
+        return compress;
+    }
+
     /**
      * Tries to unlock a resource.<p>
      * 
@@ -357,4 +437,31 @@ public class CmsGwtService extends RemoteServiceServlet {
             LOG.debug("Unable to unlock " + resource.getRootPath(), e);
         }
     }
+
+    /**
+     * Returns the name of the service interface, which identifies the service in the metrics.<p>
+     * 
+     * @return the service name
+     * 
+     * @see CmsGwtServiceMetrics#getServiceName(Class)
+     */
+    private String getServiceName() {
+
+        if (m_serviceName == null) {
+            m_serviceName = CmsGwtServiceMetrics.getServiceName(getClass());
+        }
+        return m_serviceName;
+    }
+
+    /**
+     * Checks if the given response payload is large enough to be compressed.<p>
+     * 
+     * @param responsePayload the response payload
+     * 
+     * @return <code>true</code> if the response payload should be compressed
+     */
+    private boolean shouldCompress(String responsePayload) {
+
+        return (m_staticCompressionThreshold >= 0) && (responsePayload.length() >= m_staticCompressionThreshold);
+    }
 }
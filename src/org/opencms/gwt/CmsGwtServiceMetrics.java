@@ -0,0 +1,278 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.gwt;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.google.gwt.user.client.rpc.RemoteService;
+
+/**
+ * Payload size and serialization time statistics of a GWT service.<p>
+ *
+ * The statistics are collected for the RPC calls of the {@link CmsGwtService} instances
+ * and for the data prefetched by the {@link CmsGwtActionElement} instances.
+ * Both are identified by the name of the service interface, see {@link #getServiceName(Class)}.
+ * The statistics of all services are written to the status log of the memory monitor.<p>
+ *
+ * @since 8.0.2
+ */
+public final class CmsGwtServiceMetrics {
+
+    /** The metrics of all services by name. */
+    private static final Map<String, CmsGwtServiceMetrics> METRICS = new TreeMap<String, CmsGwtServiceMetrics>();
+
+    /** The number of calls. */
+    private long m_calls;
+
+    /** The number of compressed responses. */
+    private long m_compressedCalls;
+
+    /** The size of the largest payload in characters. */
+    private long m_maxPayloadSize;
+
+    /** The longest time in milliseconds. */
+    private long m_maxTime;
+
+    /** The service name. */
+    private String m_name;
+
+    /** The total size of all payloads in characters. */
+    private long m_totalPayloadSize;
+
+    /** The total time of all calls in milliseconds. */
+    private long m_totalTime;
+
+    /**
+     * Creates new metrics for the given service.<p>
+     *
+     * @param name the service name
+     */
+    private CmsGwtServiceMetrics(String name) {
+
+        m_name = name;
+    }
+
+    /**
+     * Returns the metrics of the service with the given name, creating new metrics if needed.<p>
+     *
+     * @param name the service name
+     *
+     * @return the metrics of the service
+     */
+    public static CmsGwtServiceMetrics get(String name) {
+
+        synchronized (METRICS) {
+            CmsGwtServiceMetrics metrics = METRICS.get(name);
+            if (metrics == null) {
+                metrics = new CmsGwtServiceMetrics(name);
+                METRICS.put(name, metrics);
+            }
+            return metrics;
+        }
+    }
+
+    /**
+     * Returns the metrics of all services, sorted by the service name.<p>
+     *
+     * @return the metrics of all services
+     */
+    public static List<CmsGwtServiceMetrics> getAll() {
+
+        synchronized (METRICS) {
+            return Collections.unmodifiableList(new ArrayList<CmsGwtServiceMetrics>(METRICS.values()));
+        }
+    }
+
+    /**
+     * Returns the name of the service interface of the given class, which identifies the service in the metrics.<p>
+     * 
+     * For an interface the name of the interface itself is returned, for a service implementation 
+     * the name of the first implemented interface that extends {@link RemoteService}. 
+     * If there is no such interface, the class name is used.<p>
+     *
+     * @param serviceClass the service implementation or the service interface
+     *
+     * @return the service name
+     */
+    public static String getServiceName(Class<?> serviceClass) {
+
+        if (serviceClass.isInterface()) {
+            return serviceClass.getName();
+        }
+        Class<?> current = serviceClass;
+        while (current != null) {
+            for (Class<?> serviceInterface : current.getInterfaces()) {
+                if (RemoteService.class.isAssignableFrom(serviceInterface)
+                    && !RemoteService.class.equals(serviceInterface)) {
+                    return serviceInterface.getName();
+                }
+            }
+            current = current.getSuperclass();
+        }
+        return serviceClass.getName();
+    }
+
+    /**
+     * Returns the average payload size in characters.<p>
+     *
+     * @return the average payload size
+     */
+    public synchronized long getAveragePayloadSize() {
+
+        return (m_calls == 0) ? 0 : m_totalPayloadSize / m_calls;
+    }
+
+    /**
+     * Returns the average time of a call in milliseconds.<p>
+     *
+     * @return the average time of a call
+     */
+    public synchronized long getAverageTime() {
+
+        return (m_calls == 0) ? 0 : m_totalTime / m_calls;
+    }
+
+    /**
+     * Returns the number of calls.<p>
+     *
+     * @return the number of calls
+     */
+    public synchronized long getCalls() {
+
+        return m_calls;
+    }
+
+    /**
+     * Returns the number of compressed responses.<p>
+     *
+     * @return the number of compressed responses
+     */
+    public synchronized long getCompressedCalls() {
+
+        return m_compressedCalls;
+    }
+
+    /**
+     * Returns the size of the largest payload in characters.<p>
+     *
+     * @return the size of the largest payload
+     */
+    public synchronized long getMaxPayloadSize() {
+
+        return m_maxPayloadSize;
+    }
+
+    /**
+     * Returns the longest time of a call in milliseconds.<p>
+     *
+     * @return the longest time of a call
+     */
+    public synchronized long getMaxTime() {
+
+        return m_maxTime;
+    }
+
+    /**
+     * Returns the service name.<p>
+     *
+     * @return the service name
+     */
+    public String getName() {
+
+        return m_name;
+    }
+
+    /**
+     * Returns the total size of all payloads in characters.<p>
+     *
+     * @return the total size of all payloads
+     */
+    public synchronized long getTotalPayloadSize() {
+
+        return m_totalPayloadSize;
+    }
+
+    /**
+     * Returns the total time of all calls in milliseconds.<p>
+     *
+     * @return the total time of all calls
+     */
+    public synchronized long getTotalTime() {
+
+        return m_totalTime;
+    }
+
+    /**
+     * Records a call.<p>
+     *
+     * @param payloadSize the size of the serialized payload in characters
+     * @param time the time needed for the call in milliseconds
+     */
+    public synchronized void recordCall(long payloadSize, long time) {
+
+        m_calls++;
+        m_totalPayloadSize += payloadSize;
+        m_totalTime += time;
+        m_maxPayloadSize = Math.max(m_maxPayloadSize, payloadSize);
+        m_maxTime = Math.max(m_maxTime, time);
+    }
+
+    /**
+     * Records a compressed response.<p>
+     */
+    public synchronized void recordCompressed() {
+
+        m_compressedCalls++;
+    }
+
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public synchronized String toString() {
+
+        return m_name
+            + " [calls="
+            + m_calls
+            + ", compressed="
+            + m_compressedCalls
+            + ", avgSize="
+            + getAveragePayloadSize()
+            + ", maxSize="
+            + m_maxPayloadSize
+            + ", avgTime="
+            + getAverageTime()
+            + ", maxTime="
+            + m_maxTime
+            + "]";
+    }
+}
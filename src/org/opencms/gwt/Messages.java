@@ -58,6 +58,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String ERR_RESOURCE_HAS_BLOCKING_LOCKED_CHILDREN_1 = "ERR_RESOURCE_HAS_BLOCKING_LOCKED_CHILDREN_1";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_CLIENT_MESSAGES_DELIVERED_3 = "LOG_CLIENT_MESSAGES_DELIVERED_3";
+
     /** Message constant for key in the resource bundle. */
     public static final String LOG_CLIENT_WITH_TICKET_4 = "LOG_CLIENT_WITH_TICKET_4";
 
@@ -70,6 +73,12 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String LOG_CLIENT_WITHOUT_TICKET_3 = "LOG_CLIENT_WITHOUT_TICKET_3";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_PREFETCH_SERIALIZED_3 = "LOG_PREFETCH_SERIALIZED_3";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_RPC_CALL_4 = "LOG_RPC_CALL_4";
+
     /** Name of the used resource bundle. */
     private static final String BUNDLE_NAME = "org.opencms.gwt.messages";
 
@@ -37,6 +37,7 @@ import org.opencms.file.CmsProperty;
 import org.opencms.file.CmsResource;
 import org.opencms.file.CmsResourceFilter;
 import org.opencms.file.CmsUser;
+import org.opencms.file.CmsUserSearchParameters;
 import org.opencms.file.CmsVfsException;
 import org.opencms.file.CmsVfsResourceNotFoundException;
 import org.opencms.i18n.CmsMessageContainer;
@@ -91,6 +92,9 @@ public class CmsExport {
     /** The log object for this class. */
     private static final Log LOG = CmsLog.getLog(CmsExport.class);
 
+    /** The number of users read at once for the export. */
+    private static final int USER_PAGE_SIZE = 500;
+
     /** Counter for the export. */
     private int m_exportCount;
 
@@ -1216,23 +1220,35 @@ public class CmsExport {
 
         try {
             I_CmsReport report = getReport();
-            List<CmsUser> allUsers = OpenCms.getOrgUnitManager().getUsers(getCms(), orgunit.getName(), false);
-            for (int i = 0, l = allUsers.size(); i < l; i++) {
-                CmsUser user = allUsers.get(i);
-                report.print(org.opencms.report.Messages.get().container(
-                    org.opencms.report.Messages.RPT_SUCCESSION_2,
-                    String.valueOf(i + 1),
-                    String.valueOf(l)), I_CmsReport.FORMAT_NOTE);
-                report.print(Messages.get().container(Messages.RPT_EXPORT_USER_0), I_CmsReport.FORMAT_NOTE);
-                report.print(org.opencms.report.Messages.get().container(
-                    org.opencms.report.Messages.RPT_ARGUMENT_1,
-                    user.getName()));
-                report.print(org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_DOTS_0));
-                exportUser(parent, user);
-                report.println(
-                    org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_OK_0),
-                    I_CmsReport.FORMAT_OK);
-            }
+            // read the users page by page, to avoid holding all users of large organizational units in memory
+            CmsUserSearchParameters params = new CmsUserSearchParameters();
+            params.setOrganizationalUnit(orgunit);
+            params.setSorting(CmsUserSearchParameters.SortKey.loginName, true);
+            long l = OpenCms.getOrgUnitManager().countUsers(getCms(), params);
+            long i = 0;
+            List<CmsUser> users;
+            CmsUser lastUser = null;
+            do {
+                params.setPaging(USER_PAGE_SIZE, 1, lastUser);
+                users = OpenCms.getOrgUnitManager().searchUsers(getCms(), params);
+                for (CmsUser user : users) {
+                    i++;
+                    report.print(org.opencms.report.Messages.get().container(
+                        org.opencms.report.Messages.RPT_SUCCESSION_2,
+                        String.valueOf(i),
+                        String.valueOf(l)), I_CmsReport.FORMAT_NOTE);
+                    report.print(Messages.get().container(Messages.RPT_EXPORT_USER_0), I_CmsReport.FORMAT_NOTE);
+                    report.print(org.opencms.report.Messages.get().container(
+                        org.opencms.report.Messages.RPT_ARGUMENT_1,
+                        user.getName()));
+                    report.print(org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_DOTS_0));
+                    exportUser(parent, user);
+                    report.println(
+                        org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_OK_0),
+                        I_CmsReport.FORMAT_OK);
+                    lastUser = user;
+                }
+            } while (users.size() == USER_PAGE_SIZE);
         } catch (CmsImportExportException e) {
             throw e;
         } catch (CmsException e) {
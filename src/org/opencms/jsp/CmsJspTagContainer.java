@@ -35,6 +35,7 @@ import org.opencms.file.CmsResourceFilter;
 import org.opencms.file.history.CmsHistoryResourceHandler;
 import org.opencms.file.types.CmsResourceTypeXmlContent;
 import org.opencms.flex.CmsFlexController;
+import org.opencms.flex.CmsFlexResponse;
 import org.opencms.i18n.CmsEncoder;
 import org.opencms.json.JSONArray;
 import org.opencms.json.JSONException;
@@ -45,13 +46,17 @@ import org.opencms.main.CmsException;
 import org.opencms.main.CmsIllegalStateException;
 import org.opencms.main.CmsLog;
 import org.opencms.main.OpenCms;
+import org.opencms.relations.CmsRelation;
+import org.opencms.relations.CmsRelationFilter;
 import org.opencms.security.CmsPermissionSet;
 import org.opencms.util.CmsRequestUtil;
 import org.opencms.util.CmsStringUtil;
+import org.opencms.util.CmsUUID;
 import org.opencms.workplace.CmsWorkplaceMessages;
 import org.opencms.workplace.explorer.CmsResourceUtil;
 import org.opencms.xml.CmsXmlContentDefinition;
 import org.opencms.xml.CmsXmlException;
+import org.opencms.xml.containerpage.CmsADECache;
 import org.opencms.xml.containerpage.CmsADESessionCache;
 import org.opencms.xml.containerpage.CmsContainerBean;
 import org.opencms.xml.containerpage.CmsContainerElementBean;
@@ -59,6 +64,7 @@ import org.opencms.xml.containerpage.CmsContainerPageBean;
 import org.opencms.xml.containerpage.CmsFormatterBean;
 import org.opencms.xml.containerpage.CmsFormatterConfiguration;
 import org.opencms.xml.containerpage.CmsGroupContainerBean;
+import org.opencms.xml.containerpage.CmsRenderedElementBean;
 import org.opencms.xml.containerpage.CmsXmlContainerPage;
 import org.opencms.xml.containerpage.CmsXmlContainerPageFactory;
 import org.opencms.xml.containerpage.CmsXmlGroupContainer;
@@ -67,15 +73,20 @@ import org.opencms.xml.content.CmsXmlContentProperty;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 
 import javax.servlet.ServletRequest;
 import javax.servlet.ServletResponse;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.jsp.JspException;
+import javax.servlet.jsp.tagext.BodyContent;
 import javax.servlet.jsp.tagext.TagSupport;
 
 import org.apache.commons.logging.Log;
@@ -729,6 +740,91 @@ public class CmsJspTagContainer extends TagSupport {
         return maxElements;
     }
 
+    /**
+     * Returns the key for the rendered output of the given element in the rendered element cache.<p>
+     * 
+     * Besides the element and formatter structure ids, the key contains everything the output 
+     * of a formatter usually depends on: the element settings, the content version, the locale, 
+     * the site, the page URI, the request parameters, the container and the detail content.
+     * Since the output may also depend on the permissions of the current user, the user id is
+     * part of the key as well.<p>
+     * 
+     * @param cms the CMS context
+     * @param standardContext the standard context bean
+     * @param element the container element
+     * @param formatterId the structure id of the formatter JSP
+     * @param locale the locale
+     * 
+     * @return the cache key
+     */
+    private String getRenderedElementKey(
+        CmsObject cms,
+        CmsJspStandardContextBean standardContext,
+        CmsContainerElementBean element,
+        CmsUUID formatterId,
+        Locale locale) {
+
+        StringBuffer variation = new StringBuffer(256);
+        variation.append(element.getResource().getDateLastModified()).append('_');
+        variation.append(locale).append('_');
+        variation.append(cms.getRequestContext().getSiteRoot()).append('_');
+        variation.append(getType()).append('_').append(getWidth()).append('_');
+        variation.append(standardContext.getDetailContentId()).append('_');
+        variation.append(cms.getRequestContext().getUri()).append('_');
+        variation.append(cms.getRequestContext().getCurrentUser().getId()).append('_');
+        variation.append(new TreeMap<String, String>(element.getSettings())).append('_');
+        @SuppressWarnings("unchecked")
+        Map<String, String[]> parameters = pageContext.getRequest().getParameterMap();
+        Map<String, List<String>> sortedParameters = new TreeMap<String, List<String>>();
+        for (Map.Entry<String, String[]> parameter : parameters.entrySet()) {
+            sortedParameters.put(parameter.getKey(), Arrays.asList(parameter.getValue()));
+        }
+        variation.append(sortedParameters);
+        return OpenCms.getADEManager().getCache().getRenderedElementKey(
+            element.getId(),
+            formatterId,
+            variation.toString());
+    }
+
+    /**
+     * Returns the structure ids of the resources the rendered output of the given element depends on.<p>
+     * 
+     * These are the element, the formatter JSP, the detail content and the targets of the 
+     * relations of both the element and the formatter JSP.<p>
+     * 
+     * @param cms the CMS context
+     * @param standardContext the standard context bean
+     * @param element the container element
+     * @param formatterId the structure id of the formatter JSP
+     * 
+     * @return the structure ids of the resources the rendered output depends on
+     * 
+     * @throws CmsException if something goes wrong reading the relations
+     */
+    private Set<CmsUUID> getRenderedElementDependencies(
+        CmsObject cms,
+        CmsJspStandardContextBean standardContext,
+        CmsContainerElementBean element,
+        CmsUUID formatterId) throws CmsException {
+
+        Set<CmsUUID> dependencies = new HashSet<CmsUUID>();
+        dependencies.add(element.getId());
+        dependencies.add(formatterId);
+        if (standardContext.getDetailContentId() != null) {
+            dependencies.add(standardContext.getDetailContentId());
+        }
+        List<CmsRelation> relations = new ArrayList<CmsRelation>(cms.getRelationsForResource(
+            element.getResource(),
+            CmsRelationFilter.TARGETS));
+        relations.addAll(cms.getRelationsForResource(cms.readResource(formatterId), CmsRelationFilter.TARGETS));
+        for (CmsRelation relation : relations) {
+            if (relation.getTargetId() != null) {
+                dependencies.add(relation.getTargetId());
+            }
+        }
+        return dependencies;
+    }
+
     /**
      * Returns the ADE session cache for container elements.<p>
      * 
@@ -770,6 +866,96 @@ public class CmsJspTagContainer extends TagSupport {
         return !propConfig.isEmpty();
     }
 
+    /**
+     * Includes the formatter JSP for the given element.<p>
+     * 
+     * If the render cache is enabled for the formatter, the rendered output is taken from the
+     * rendered element cache, or cached after the formatter has been executed. The headers set 
+     * by the formatter are cached together with the output and replayed on a cache hit.<p>
+     * 
+     * @param cms the CMS context
+     * @param standardContext the standard context bean
+     * @param element the container element
+     * @param formatter the path of the formatter JSP
+     * @param formatterId the structure id of the formatter JSP
+     * @param renderCache <code>true</code> if the render cache is enabled for the formatter
+     * @param locale the locale
+     * 
+     * @throws JspException if including the formatter fails
+     * @throws IOException if something goes wrong writing to the response
+     */
+    private void includeElement(
+        CmsObject cms,
+        CmsJspStandardContextBean standardContext,
+        CmsContainerElementBean element,
+        String formatter,
+        CmsUUID formatterId,
+        boolean renderCache,
+        Locale locale) throws JspException, IOException {
+
+        ServletRequest req = pageContext.getRequest();
+        ServletResponse res = pageContext.getResponse();
+        boolean isOnline = cms.getRequestContext().getCurrentProject().isOnlineProject();
+        if (!renderCache || (formatterId == null)) {
+            CmsJspTagInclude.includeTagAction(
+                pageContext,
+                formatter,
+                null,
+                locale,
+                false,
+                isOnline,
+                null,
+                CmsRequestUtil.getAtrributeMap(req),
+                req,
+                res);
+            return;
+        }
+        CmsADECache cache = OpenCms.getADEManager().getCache();
+        String key = getRenderedElementKey(cms, standardContext, element, formatterId, locale);
+        CmsRenderedElementBean renderedElement = cache.getCacheRenderedElement(key);
+        CmsFlexResponse flexResponse = CmsFlexController.getController(req).getCurrentResponse();
+        if (renderedElement == null) {
+            // render the element into a buffer, the flex cache can not be used for this include
+            Map<String, List<String>> headers;
+            BodyContent body = pageContext.pushBody();
+            flexResponse.startHeaderRecording();
+            try {
+                CmsJspTagInclude.includeTagAction(
+                    pageContext,
+                    formatter,
+                    null,
+                    locale,
+                    false,
+                    false,
+                    null,
+                    CmsRequestUtil.getAtrributeMap(req),
+                    req,
+                    res);
+            } finally {
+                headers = flexResponse.stopHeaderRecording();
+                pageContext.popBody();
+            }
+            String content = body.getString();
+            try {
+                renderedElement = new CmsRenderedElementBean(content, headers, getRenderedElementDependencies(
+                    cms,
+                    standardContext,
+                    element,
+                    formatterId));
+                cache.setCacheRenderedElement(key, renderedElement);
+            } catch (CmsException e) {
+                // without the dependencies the element could not be invalidated, so don't cache it
+                LOG.error(e.getLocalizedMessage(), e);
+                pageContext.getOut().print(content);
+                return;
+            }
+        } else {
+            // replay the headers the formatter has set when the element was rendered
+            CmsFlexResponse.processHeaders(renderedElement.getHeaders(), flexResponse);
+        }
+        pageContext.getOut().print(renderedElement.getContent());
+    }
+
     /**
      * Prints an element error tag to the response out.<p>
      * 
@@ -835,7 +1021,6 @@ public class CmsJspTagContainer extends TagSupport {
         Locale locale) throws CmsException, CmsXmlException, CmsLoaderException, IOException {
 
         ServletRequest req = pageContext.getRequest();
-        ServletResponse res = pageContext.getResponse();
         String containerType = getType();
         int containerWidth = getContainerWidth();
         boolean isOnline = cms.getRequestContext().getCurrentProject().isOnlineProject();
@@ -860,6 +1045,7 @@ public class CmsJspTagContainer extends TagSupport {
             }
             // wrapping the elements with DIV containing initial element data. To be removed by the container-page editor
             printElementWrapperTagStart(isOnline, cms, element, true);
+            boolean renderCache = isOnline && OpenCms.getADEManager().getCache().isRenderedElementCacheEnabled();
             for (CmsContainerElementBean subelement : groupContainer.getElements()) {
                 try {
                     subelement.initResource(cms);
@@ -888,17 +1074,14 @@ public class CmsJspTagContainer extends TagSupport {
                     printElementWrapperTagStart(isOnline, cms, subelement, false);
                     standardContext.setElement(subelement);
                     try {
-                        CmsJspTagInclude.includeTagAction(
-                            pageContext,
+                        includeElement(
+                            cms,
+                            standardContext,
+                            subelement,
                             subelementFormatter.getJspRootPath(),
-                            null,
-                            locale,
-                            false,
-                            isOnline,
-                            null,
-                            CmsRequestUtil.getAtrributeMap(req),
-                            req,
-                            res);
+                            subelementFormatter.getJspStructureId(),
+                            renderCache && subelementFormatter.isRenderCache(),
+                            locale);
                     } catch (Exception e) {
                         if (LOG.isErrorEnabled()) {
                             LOG.error(Messages.get().getBundle().key(
@@ -923,21 +1106,25 @@ public class CmsJspTagContainer extends TagSupport {
 
         } else {
             String elementFormatter = cms.getSitePath(cms.readResource(element.getFormatterId()));
+            boolean renderCache = false;
+            if (isOnline && OpenCms.getADEManager().getCache().isRenderedElementCacheEnabled()) {
+                CmsADEConfigData adeConfig = OpenCms.getADEManager().lookupConfiguration(
+                    cms,
+                    cms.getRequestContext().getRootUri());
+                renderCache = adeConfig.getFormatters(element.getResource()).isRenderCache(element.getFormatterId());
+            }
             printElementWrapperTagStart(isOnline, cms, element, false);
             standardContext.setElement(element);
             try {
                 // execute the formatter jsp for the given element uri
-                CmsJspTagInclude.includeTagAction(
-                    pageContext,
+                includeElement(
+                    cms,
+                    standardContext,
+                    element,
                     elementFormatter,
-                    null,
-                    locale,
-                    false,
-                    isOnline,
-                    null,
-                    CmsRequestUtil.getAtrributeMap(req),
-                    req,
-                    res);
+                    element.getFormatterId(),
+                    renderCache,
+                    locale);
             } catch (Exception e) {
                 if (LOG.isErrorEnabled()) {
                     LOG.error(Messages.get().getBundle().key(
@@ -959,7 +959,9 @@ public class CmsJspLoader implements I_CmsResourceLoader, I_CmsFlexCacheEnabledL
                         }
                         // process the headers
                         CmsFlexResponse.processHeaders(f_res.getHeaders(), res);
-                        res.getOutputStream().write(result);
+                        if (!controller.writeCompressedOutput(req, res)) {
+                            res.getOutputStream().write(result);
+                        }
                         res.getOutputStream().flush();
                     }
                 }
@@ -27,35 +27,54 @@
 
 package org.opencms.main;
 
-import org.opencms.util.CmsCollectionsGenericWrapper;
 import org.opencms.util.CmsUUID;
 
 import java.util.ArrayList;
-import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-
-import org.apache.commons.collections.FastHashMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * The default session storage provider implementation.<p>
  * 
- * Implementation based on a {@link FastHashMap}.<p> 
+ * Implementation based on a {@link ConcurrentHashMap}, so that reading sessions does not
+ * require any locks or copies of the session table, and updating a session only locks the 
+ * replaced session info. In addition, the ids of the sessions are indexed by user, so that 
+ * the sessions of a single user can be read without looking at all other sessions.<p>
+ * 
+ * Expired sessions are removed incrementally: every call to {@link #validate()} checks only a part
+ * of the sessions, continuing where the last call has stopped, so that all sessions are checked
+ * within {@link #VALIDATE_CYCLE} calls.<p>
  * 
  * @since 6.5.5 
  */
 public class CmsDefaultSessionStorageProvider implements I_CmsSessionStorageProvider {
 
+    /** The minimum number of sessions checked in a single call to {@link #validate()}. */
+    public static final int VALIDATE_BATCH_SIZE = 1000;
+
+    /** The number of calls to {@link #validate()} after which all sessions have been checked. */
+    public static final int VALIDATE_CYCLE = 5;
+
     /** Stores the session info objects mapped to the session id. */
-    private FastHashMap m_sessions;
+    private ConcurrentHashMap<CmsUUID, CmsSessionInfo> m_sessions;
+
+    /** Stores the ids of the sessions of every user, mapped to the user id, also used to synchronize index updates. */
+    private Map<CmsUUID, Set<CmsUUID>> m_userSessions;
+
+    /** The iterator over the sessions that is continued by the next call to {@link #validate()}. */
+    private Iterator<CmsSessionInfo> m_validateIterator;
 
     /**
      * @see org.opencms.main.I_CmsSessionStorageProvider#get(org.opencms.util.CmsUUID)
      */
     public CmsSessionInfo get(CmsUUID sessionId) {
 
-        return (CmsSessionInfo)m_sessions.get(sessionId);
+        return m_sessions.get(sessionId);
     }
 
     /**
@@ -63,7 +82,7 @@ public class CmsDefaultSessionStorageProvider implements I_CmsSessionStorageProv
      */
     public List<CmsSessionInfo> getAll() {
 
-        return getAllOfUser(null);
+        return new ArrayList<CmsSessionInfo>(m_sessions.values());
     }
 
     /**
@@ -71,14 +90,27 @@ public class CmsDefaultSessionStorageProvider implements I_CmsSessionStorageProv
      */
     public List<CmsSessionInfo> getAllOfUser(CmsUUID userId) {
 
-        try {
-            return getAllSelected(CmsCollectionsGenericWrapper.<CmsUUID, CmsSessionInfo> map(m_sessions), userId);
-        } catch (ConcurrentModificationException e) {
-            // try again with a clone this time
-            return getAllSelected(
-                CmsCollectionsGenericWrapper.<CmsUUID, CmsSessionInfo> map(m_sessions.clone()),
-                userId);
+        if (userId == null) {
+            return getAll();
+        }
+        List<CmsUUID> sessionIds;
+        synchronized (m_userSessions) {
+            Set<CmsUUID> ids = m_userSessions.get(userId);
+            if (ids == null) {
+                return new ArrayList<CmsSessionInfo>();
+            }
+            sessionIds = new ArrayList<CmsUUID>(ids);
+        }
+        List<CmsSessionInfo> userSessions = new ArrayList<CmsSessionInfo>(sessionIds.size());
+        Iterator<CmsUUID> i = sessionIds.iterator();
+        while (i.hasNext()) {
+            CmsSessionInfo sessionInfo = m_sessions.get(i.next());
+            // the session may have been removed or replaced in the meantime
+            if ((sessionInfo != null) && userId.equals(sessionInfo.getUserId())) {
+                userSessions.add(sessionInfo);
+            }
         }
+        return userSessions;
     }
 
     /**
@@ -95,9 +127,8 @@ public class CmsDefaultSessionStorageProvider implements I_CmsSessionStorageProv
     public void initialize() {
 
         // create a map for all sessions, these will be mapped using their session id
-        m_sessions = new FastHashMap();
-        // set to "fast" mode (will be reset for write access)
-        m_sessions.setFast(true);
+        m_sessions = new ConcurrentHashMap<CmsUUID, CmsSessionInfo>();
+        m_userSessions = new HashMap<CmsUUID, Set<CmsUUID>>();
     }
 
     /**
@@ -105,7 +136,32 @@ public class CmsDefaultSessionStorageProvider implements I_CmsSessionStorageProv
      */
     public CmsSessionInfo put(CmsSessionInfo sessionInfo) {
 
-        return (CmsSessionInfo)m_sessions.put(sessionInfo.getSessionId(), sessionInfo);
+        CmsUUID sessionId = sessionInfo.getSessionId();
+        // this is called for every request of a logged in user, so updating an existing session 
+        // must not take the lock of the user index, only the lock of the replaced session info
+        CmsSessionInfo previous = m_sessions.get(sessionId);
+        if ((previous != null) && previous.getUserId().equals(sessionInfo.getUserId())) {
+            synchronized (previous) {
+                if (m_sessions.get(sessionId) == previous) {
+                    m_sessions.put(sessionId, sessionInfo);
+                    return previous;
+                }
+            }
+        }
+        // the session is new or has been switched to another user, so the user index must be updated
+        synchronized (m_userSessions) {
+            previous = replaceSession(sessionId, sessionInfo);
+            if ((previous != null) && (previous != sessionInfo)) {
+                removeFromIndex(previous.getUserId(), sessionId);
+            }
+            Set<CmsUUID> ids = m_userSessions.get(sessionInfo.getUserId());
+            if (ids == null) {
+                ids = new HashSet<CmsUUID>();
+                m_userSessions.put(sessionInfo.getUserId(), ids);
+            }
+            ids.add(sessionId);
+        }
+        return previous;
     }
 
     /**
@@ -113,7 +169,13 @@ public class CmsDefaultSessionStorageProvider implements I_CmsSessionStorageProv
      */
     public CmsSessionInfo remove(CmsUUID sessionId) {
 
-        return (CmsSessionInfo)m_sessions.remove(sessionId);
+        synchronized (m_userSessions) {
+            CmsSessionInfo sessionInfo = replaceSession(sessionId, null);
+            if (sessionInfo != null) {
+                removeFromIndex(sessionInfo.getUserId(), sessionId);
+            }
+            return sessionInfo;
+        }
     }
 
     /**
@@ -121,68 +183,107 @@ public class CmsDefaultSessionStorageProvider implements I_CmsSessionStorageProv
      */
     public void shutdown() {
 
-        m_sessions.clear();
+        synchronized (m_userSessions) {
+            m_sessions.clear();
+            m_userSessions.clear();
+        }
         m_sessions = null;
     }
 
     /**
      * @see org.opencms.main.I_CmsSessionStorageProvider#validate()
      */
-    public void validate() {
-
-        try {
-            // change session map to full synchronization or "slow" mode
-            m_sessions.setFast(false);
-            Iterator<Map.Entry<CmsUUID, CmsSessionInfo>> sessions = CmsCollectionsGenericWrapper.<CmsUUID, CmsSessionInfo> map(
-                m_sessions).entrySet().iterator();
-            while (sessions.hasNext()) {
-                Map.Entry<CmsUUID, CmsSessionInfo> entry = sessions.next();
-                CmsUUID sessionId = entry.getKey();
-                CmsSessionInfo sessionInfo = entry.getValue();
-                if ((sessionInfo != null) && (m_sessions.get(sessionId) != null)) {
-                    // may be the case in case of concurrent modification
-                    if (sessionInfo.isExpired()) {
-                        // session is invalid, try to remove it
-                        try {
-                            sessions.remove();
-                        } catch (ConcurrentModificationException ex) {
-                            // ignore, better luck next time...
+    public synchronized void validate() {
+
+        ConcurrentHashMap<CmsUUID, CmsSessionInfo> sessions = m_sessions;
+        if (sessions == null) {
+            // may be the case during shutdown
+            return;
+        }
+        int batchSize = Math.max(VALIDATE_BATCH_SIZE, (sessions.size() / VALIDATE_CYCLE) + 1);
+        boolean restarted = false;
+        for (int i = 0; i < batchSize; i++) {
+            if ((m_validateIterator == null) || !m_validateIterator.hasNext()) {
+                if (restarted) {
+                    // all sessions have been checked in this call
+                    break;
+                }
+                // the iterator of a concurrent map never throws a ConcurrentModificationException
+                m_validateIterator = sessions.values().iterator();
+                restarted = true;
+                if (!m_validateIterator.hasNext()) {
+                    break;
+                }
+            }
+            CmsSessionInfo sessionInfo = m_validateIterator.next();
+            if (sessionInfo.isExpired()) {
+                // session is invalid, remove it unless it has been replaced in the meantime,
+                // the session info is compared by identity since equal session infos only share the user
+                synchronized (m_userSessions) {
+                    synchronized (sessionInfo) {
+                        if (sessions.get(sessionInfo.getSessionId()) == sessionInfo) {
+                            sessions.remove(sessionInfo.getSessionId());
+                            removeFromIndex(sessionInfo.getUserId(), sessionInfo.getSessionId());
                         }
                     }
                 }
             }
-        } catch (ConcurrentModificationException ex) {
-            // CME can also be triggered from the Iterator#next() method.
-            // ignore, better luck next time...
-        } finally {
-            // it may be null during shutdown
-            if (m_sessions != null) {
-                // reset session map to "fast" mode
-                m_sessions.setFast(true);
+        }
+    }
+
+    /**
+     * Replaces or removes the session info stored for the given session id.<p>
+     * 
+     * Must be called while holding the lock of the user index. The current session info
+     * is replaced while holding its own lock, the same lock is used by the updates of a session 
+     * in {@link #put(CmsSessionInfo)} which do not take the lock of the user index.<p>
+     * 
+     * @param sessionId the id of the session
+     * @param sessionInfo the new session info, or <code>null</code> to remove the session
+     * 
+     * @return the replaced session info, or <code>null</code> if there was none
+     */
+    private CmsSessionInfo replaceSession(CmsUUID sessionId, CmsSessionInfo sessionInfo) {
+
+        while (true) {
+            CmsSessionInfo current = m_sessions.get(sessionId);
+            if (current == null) {
+                // sessions are only added while holding the lock of the user index
+                if (sessionInfo != null) {
+                    m_sessions.put(sessionId, sessionInfo);
+                }
+                return null;
+            }
+            synchronized (current) {
+                if (m_sessions.get(sessionId) == current) {
+                    if (sessionInfo != null) {
+                        m_sessions.put(sessionId, sessionInfo);
+                    } else {
+                        m_sessions.remove(sessionId);
+                    }
+                    return current;
+                }
             }
+            // the session has been updated in the meantime, try again with the new session info
         }
     }
 
     /**
-     * Returns all sessions or all sessions matching the user id from the provided Map.<p>
+     * Removes the given session id from the session index of the given user.<p>
      * 
-     * @param allSessions the Map of existing sessions 
-     * @param userId the id of the user, if null all sessions will be returned
+     * Must be called while holding the lock of the user index.<p>
      * 
-     * @return all sessions or all sessions matching the user id from the provided Map
+     * @param userId the id of the user
+     * @param sessionId the id of the session
      */
-    private List<CmsSessionInfo> getAllSelected(Map<CmsUUID, CmsSessionInfo> allSessions, CmsUUID userId) {
+    private void removeFromIndex(CmsUUID userId, CmsUUID sessionId) {
 
-        List<CmsSessionInfo> userSessions = new ArrayList<CmsSessionInfo>();
-        Iterator<Map.Entry<CmsUUID, CmsSessionInfo>> i = allSessions.entrySet().iterator();
-        while (i.hasNext()) {
-            Map.Entry<CmsUUID, CmsSessionInfo> entry = i.next();
-            CmsSessionInfo sessionInfo = entry.getValue();
-            if ((sessionInfo != null) && ((userId == null) || userId.equals(sessionInfo.getUserId()))) {
-                // sessionInfo == null may be the case in case of concurrent modification
-                userSessions.add(sessionInfo);
+        Set<CmsUUID> ids = m_userSessions.get(userId);
+        if (ids != null) {
+            ids.remove(sessionId);
+            if (ids.isEmpty()) {
+                m_userSessions.remove(userId);
             }
         }
-        return userSessions;
     }
 }
@@ -284,6 +284,18 @@ class CmsShellCommands implements I_CmsShellCommands {
         return user;
     }
 
+    /**
+     * Merges the historical content entries with identical content of all resources in the history.<p>
+     * 
+     * @throws Exception if something goes wrong
+     * 
+     * @see CmsObject#deduplicateHistoryContents(I_CmsReport)
+     */
+    public void deduplicateHistoryContents() throws Exception {
+
+        m_cms.deduplicateHistoryContents(new CmsShellReport(m_cms.getRequestContext().getLocale()));
+    }
+
     /**
      * Deletes the versions from the history tables that are older then the given number of versions.<p>
      * 
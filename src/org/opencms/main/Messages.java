@@ -414,6 +414,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String LOG_INIT_INVALID_ERROR_2 = "LOG_INIT_INVALID_ERROR_2";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_INVALID_REQUEST_TRACE_SAMPLE_RATE_1 = "LOG_INVALID_REQUEST_TRACE_SAMPLE_RATE_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String LOG_SESSION_CREATED_1 = "LOG_SESSION_CREATED_1";
 
@@ -40,6 +40,7 @@ import org.opencms.importexport.CmsImportExportManager;
 import org.opencms.loader.CmsResourceManager;
 import org.opencms.module.CmsModuleManager;
 import org.opencms.monitor.CmsMemoryMonitor;
+import org.opencms.monitor.CmsRequestTracer;
 import org.opencms.publish.CmsPublishManager;
 import org.opencms.repository.CmsRepositoryManager;
 import org.opencms.scheduler.CmsScheduleManager;
@@ -343,6 +344,16 @@ public final class OpenCms {
         return OpenCmsCore.getInstance().getRepositoryManager();
     }
 
+    /**
+     * Returns the request tracer that records the performance traces of sampled requests.<p>
+     * 
+     * @return the request tracer
+     */
+    public static CmsRequestTracer getRequestTracer() {
+
+        return OpenCmsCore.getInstance().getRequestTracer();
+    }
+
     /**
      * Returns the resource manager.<p>
      * 
@@ -56,6 +56,7 @@ import org.opencms.file.CmsVfsResourceNotFoundException;
 import org.opencms.flex.CmsFlexCache;
 import org.opencms.flex.CmsFlexCacheConfiguration;
 import org.opencms.flex.CmsFlexController;
+import org.opencms.gwt.CmsClientMessagesHandler;
 import org.opencms.gwt.CmsGwtService;
 import org.opencms.gwt.CmsGwtServiceContext;
 import org.opencms.i18n.CmsEncoder;
@@ -71,8 +72,11 @@ import org.opencms.lock.CmsLockManager;
 import org.opencms.module.CmsModuleManager;
 import org.opencms.monitor.CmsMemoryMonitor;
 import org.opencms.monitor.CmsMemoryMonitorConfiguration;
+import org.opencms.monitor.CmsRequestTrace;
+import org.opencms.monitor.CmsRequestTracer;
 import org.opencms.publish.CmsPublishEngine;
 import org.opencms.publish.CmsPublishManager;
+import org.opencms.relations.CmsCategoryService;
 import org.opencms.repository.CmsRepositoryManager;
 import org.opencms.scheduler.CmsScheduleManager;
 import org.opencms.search.CmsSearchManager;
@@ -213,6 +217,9 @@ public final class OpenCmsCore {
     /** The configured request handlers that handle "special" requests, for example in the static export on demand. */
     private Map<String, I_CmsRequestHandler> m_requestHandlers;
 
+    /** The request tracer for the performance traces of sampled requests. */
+    private CmsRequestTracer m_requestTracer;
+
     /** Stores the resource init handlers that allow modification of the requested resource. */
     private List<I_CmsResourceInit> m_resourceInitHandlers;
 
@@ -596,6 +603,16 @@ public final class OpenCmsCore {
         return m_requestHandlers.get(name);
     }
 
+    /**
+     * Returns the request tracer.<p>
+     * 
+     * @return the request tracer
+     */
+    protected CmsRequestTracer getRequestTracer() {
+
+        return m_requestTracer;
+    }
+
     /**
      * Returns the resource manager.<p>
      * 
@@ -973,6 +990,28 @@ public final class OpenCmsCore {
         String serverName = configuration.getString("server.name", "OpenCmsServer");
         getSystemInfo().setServerName(serverName);
 
+        // initialize the request tracer
+        double sampleRate = 0.0;
+        String sampleRateStr = configuration.getString(CmsRequestTracer.PARAM_SAMPLE_RATE, null);
+        if (CmsStringUtil.isNotEmptyOrWhitespaceOnly(sampleRateStr)) {
+            try {
+                sampleRate = Double.parseDouble(sampleRateStr.trim());
+            } catch (NumberFormatException e) {
+                CmsLog.INIT.error(Messages.get().getBundle().key(
+                    Messages.LOG_INVALID_REQUEST_TRACE_SAMPLE_RATE_1,
+                    sampleRateStr), e);
+            }
+        }
+        m_requestTracer = new CmsRequestTracer(
+            sampleRate,
+            configuration.getString(CmsRequestTracer.PARAM_HEADER, null),
+            configuration.getInteger(CmsRequestTracer.PARAM_BUFFER_SIZE, CmsRequestTracer.DEFAULT_BUFFER_SIZE));
+
+        // set the compression threshold of the GWT RPC responses
+        CmsGwtService.setCompressionThreshold(configuration.getInteger(
+            CmsGwtService.PARAM_COMPRESSION_THRESHOLD,
+            CmsGwtService.DEFAULT_COMPRESSION_THRESHOLD));
+
         // check the installed Java SDK
         try {
             if (CmsLog.INIT.isInfoEnabled()) {
@@ -1067,6 +1106,8 @@ public final class OpenCmsCore {
                     handler.getClass().getName()));
             }
         }
+        // the client messages of the GWT modules are always delivered by a request handler
+        addRequestHandler(new CmsClientMessagesHandler());
 
         // read the default user configuration
         m_defaultUsers = systemConfiguration.getCmsDefaultUsers();
@@ -1232,6 +1273,9 @@ public final class OpenCmsCore {
             m_subscriptionManager.setSecurityManager(m_securityManager);
             m_subscriptionManager.initialize(adminCms);
 
+            // initialize the category service
+            CmsCategoryService.getInstance().initialize(adminCms);
+
             // initialize ade manager
             // initialize the formatter configuration
             CmsFormatterConfiguration.initialize(adminCms);
@@ -1577,12 +1621,34 @@ public final class OpenCmsCore {
     protected void showResource(HttpServletRequest req, HttpServletResponse res) {
 
         CmsObject cms = null;
+        // the trace is null if this request is not traced
+        CmsRequestTrace trace = m_requestTracer.startTrace(req);
+        // only traces that have passed the authorization are kept
+        boolean authorized = false;
         try {
-            cms = initCmsObject(req, res);
+            CmsRequestTracer.startSpan(CmsRequestTracer.SPAN_INIT_CMS_OBJECT, null);
+            try {
+                cms = initCmsObject(req, res);
+            } finally {
+                CmsRequestTracer.endSpan();
+            }
+            // traces requested by header are only kept for authorized users
+            trace = m_requestTracer.authorizeTrace(cms, trace);
+            authorized = true;
+            if (trace != null) {
+                trace.setUri(cms.getRequestContext().addSiteRoot(cms.getRequestContext().getUri()));
+            }
 
             if (cms.getRequestContext().getCurrentProject().isOnlineProject()) {
                 String uri = cms.getRequestContext().getUri();
-                if (OpenCms.getStaticExportManager().isExportLink(cms, uri)) {
+                boolean isExportLink;
+                CmsRequestTracer.startSpan(CmsRequestTracer.SPAN_IS_EXPORT_LINK, null);
+                try {
+                    isExportLink = OpenCms.getStaticExportManager().isExportLink(cms, uri);
+                } finally {
+                    CmsRequestTracer.endSpan();
+                }
+                if (isExportLink) {
                     String url = OpenCms.getStaticExportManager().getRfsName(cms, uri);
                     String siteRoot = cms.getRequestContext().getSiteRoot();
                     url = OpenCms.getSiteManager().getSiteForSiteRoot(siteRoot).getUrl() + url;
@@ -1592,15 +1658,41 @@ public final class OpenCmsCore {
             }
 
             // user is initialized, now deliver the requested resource
-            CmsResource resource = initResource(cms, cms.getRequestContext().getUri(), req, res);
+            CmsResource resource;
+            CmsRequestTracer.startSpan(CmsRequestTracer.SPAN_INIT_RESOURCE, null);
+            try {
+                resource = initResource(cms, cms.getRequestContext().getUri(), req, res);
+            } finally {
+                CmsRequestTracer.endSpan();
+            }
             if (resource != null) {
                 // a file was read, go on process it
-                m_resourceManager.loadResource(cms, resource, req, res);
-                m_sessionManager.updateSessionInfo(cms, req);
+                CmsRequestTracer.startSpan(CmsRequestTracer.SPAN_LOAD_RESOURCE, resource.getRootPath());
+                try {
+                    m_resourceManager.loadResource(cms, resource, req, res);
+                } finally {
+                    CmsRequestTracer.endSpan();
+                }
+                CmsRequestTracer.startSpan(CmsRequestTracer.SPAN_UPDATE_SESSION, null);
+                try {
+                    m_sessionManager.updateSessionInfo(cms, req);
+                } finally {
+                    CmsRequestTracer.endSpan();
+                }
             }
 
         } catch (Throwable t) {
+            if (trace != null) {
+                trace.setError(t);
+            }
             errorHandling(cms, req, res, t);
+        } finally {
+            if (authorized) {
+                m_requestTracer.finishTrace(trace);
+            } else {
+                // the user context could not be initialized, so the trace can not be authorized
+                m_requestTracer.discardTrace(trace);
+            }
         }
     }
 
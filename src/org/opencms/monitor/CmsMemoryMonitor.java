@@ -44,6 +44,7 @@ import org.opencms.file.CmsPropertyDefinition;
 import org.opencms.file.CmsResource;
 import org.opencms.file.CmsUser;
 import org.opencms.flex.CmsFlexCache.CmsFlexCacheVariation;
+import org.opencms.gwt.CmsGwtServiceMetrics;
 import org.opencms.i18n.CmsLocaleManager;
 import org.opencms.lock.CmsLock;
 import org.opencms.lock.CmsLockManager;
@@ -62,6 +63,7 @@ import org.opencms.security.CmsAccessControlList;
 import org.opencms.security.CmsOrganizationalUnit;
 import org.opencms.security.CmsPermissionSet;
 import org.opencms.security.CmsRole;
+import org.opencms.security.CmsRoleMembership;
 import org.opencms.security.I_CmsPermissionHandler;
 import org.opencms.util.CmsCollectionsGenericWrapper;
 import org.opencms.util.CmsDateUtil;
@@ -163,6 +165,9 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
     /** Maximum depth for object size recursion. */
     private static final int MAX_DEPTH = 5;
 
+    /** Maximum size of a user list that is cached, larger lists are read again when needed. */
+    private static final int MAX_USER_LIST_SIZE = 1000;
+
     /** Cache for access control lists. */
     private Map<String, CmsAccessControlList> m_cacheAccessControlList;
 
@@ -214,6 +219,9 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
     /** Cache for role lists. */
     private Map<String, List<CmsRole>> m_cacheRoleLists;
 
+    /** Cache for the role memberships of the users. */
+    private Map<String, CmsRoleMembership> m_cacheRoleMemberships;
+
     /** Cache for user data. */
     private Map<String, CmsUser> m_cacheUser;
 
@@ -790,6 +798,20 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
         m_cacheRoleLists.put(key, roles);
     }
 
+    /**
+     * Caches the given role membership of a user under the id of the user.<p>
+     * 
+     * @param userId the id of the user
+     * @param membership the role membership of the user
+     */
+    public void cacheRoleMembership(CmsUUID userId, CmsRoleMembership membership) {
+
+        if (m_disabled.get(CacheType.USERGROUPS) != null) {
+            return;
+        }
+        m_cacheRoleMemberships.put(userId.toString(), membership);
+    }
+
     /**
      * Caches the given user under its id AND the fully qualified name.<p>
      * 
@@ -821,12 +843,15 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
     /**
      * Caches the given list of users under the given cache key.<p>
      * 
+     * Lists with more than {@link #MAX_USER_LIST_SIZE} users are not cached, 
+     * to avoid holding the users of very large groups in memory.<p>
+     * 
      * @param key the cache key
      * @param userList the list of users to cache
      */
     public void cacheUserList(String key, List<CmsUser> userList) {
 
-        if (m_disabled.get(CacheType.USER_LIST) != null) {
+        if ((m_disabled.get(CacheType.USER_LIST) != null) || (userList.size() > MAX_USER_LIST_SIZE)) {
             return;
         }
         m_cacheUserList.put(key, userList);
@@ -1055,6 +1080,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
                     break;
                 case USERGROUPS:
                     m_cacheUserGroups.clear();
+                    m_cacheRoleMemberships.clear();
                     break;
                 case USER_LIST:
                     m_cacheUserList.clear();
@@ -1389,7 +1415,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      */
     public CmsAccessControlList getCachedACL(String key) {
 
-        return m_cacheAccessControlList.get(key);
+        return CmsRequestTracer.countCacheAccess("acl", m_cacheAccessControlList.get(key));
     }
 
     /**
@@ -1413,7 +1439,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      */
     public CmsGroup getCachedGroup(String key) {
 
-        return m_cacheGroup.get(key);
+        return CmsRequestTracer.countCacheAccess("group", m_cacheGroup.get(key));
     }
 
     /**
@@ -1477,7 +1503,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      */
     public I_CmsPermissionHandler.CmsPermissionCheckResult getCachedPermission(String key) {
 
-        return m_cachePermission.get(key);
+        return CmsRequestTracer.countCacheAccess("permission", m_cachePermission.get(key));
     }
 
     /**
@@ -1489,7 +1515,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      */
     public CmsProject getCachedProject(String key) {
 
-        return m_cacheProject.get(key);
+        return CmsRequestTracer.countCacheAccess("project", m_cacheProject.get(key));
     }
 
     /**
@@ -1513,7 +1539,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      */
     public CmsProperty getCachedProperty(String key) {
 
-        return m_cacheProperty.get(key);
+        return CmsRequestTracer.countCacheAccess("property", m_cacheProperty.get(key));
     }
 
     /**
@@ -1525,7 +1551,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      */
     public List<CmsProperty> getCachedPropertyList(String key) {
 
-        return m_cachePropertyList.get(key);
+        return CmsRequestTracer.countCacheAccess("propertyList", m_cachePropertyList.get(key));
     }
 
     /**
@@ -1587,7 +1613,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      */
     public CmsResource getCachedResource(String key) {
 
-        return m_cacheResource.get(key);
+        return CmsRequestTracer.countCacheAccess("resource", m_cacheResource.get(key));
     }
 
     /**
@@ -1599,7 +1625,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      */
     public List<CmsResource> getCachedResourceList(String key) {
 
-        return m_cacheResourceList.get(key);
+        return CmsRequestTracer.countCacheAccess("resourceList", m_cacheResourceList.get(key));
     }
 
     /**
@@ -1611,7 +1637,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      */
     public Boolean getCachedRole(String key) {
 
-        return m_cacheHasRoles.get(key);
+        return CmsRequestTracer.countCacheAccess("role", m_cacheHasRoles.get(key));
     }
 
     /**
@@ -1623,7 +1649,19 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      */
     public List<CmsRole> getCachedRoleList(String key) {
 
-        return m_cacheRoleLists.get(key);
+        return CmsRequestTracer.countCacheAccess("roleList", m_cacheRoleLists.get(key));
+    }
+
+    /**
+     * Returns the role membership cached for the user with the given id or <code>null</code> if not found.<p>
+     * 
+     * @param userId the id of the user
+     * 
+     * @return the role membership of the user
+     */
+    public CmsRoleMembership getCachedRoleMembership(CmsUUID userId) {
+
+        return CmsRequestTracer.countCacheAccess("roleMembership", m_cacheRoleMemberships.get(userId.toString()));
     }
 
     /**
@@ -1635,7 +1673,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      */
     public CmsUser getCachedUser(String key) {
 
-        return m_cacheUser.get(key);
+        return CmsRequestTracer.countCacheAccess("user", m_cacheUser.get(key));
     }
 
     /**
@@ -1647,7 +1685,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      */
     public List<CmsGroup> getCachedUserGroups(String key) {
 
-        return m_cacheUserGroups.get(key);
+        return CmsRequestTracer.countCacheAccess("userGroups", m_cacheUserGroups.get(key));
     }
 
     /**
@@ -1659,7 +1697,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
      */
     public List<CmsUser> getCachedUserList(String key) {
 
-        return m_cacheUserList.get(key);
+        return CmsRequestTracer.countCacheAccess("userList", m_cacheUserList.get(key));
     }
 
     /**
@@ -1904,6 +1942,11 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
         m_cacheRoleLists = Collections.synchronizedMap(lruRoleLists);
         register(CmsDriverManager.class.getName() + ".roleListsCache", lruRoleLists);
 
+        // role memberships cache
+        Map<String, CmsRoleMembership> lruRoleMemberships = CmsCollectionsGenericWrapper.createLRUMap(cacheSettings.getUserCacheSize());
+        m_cacheRoleMemberships = Collections.synchronizedMap(lruRoleMemberships);
+        register(CmsDriverManager.class.getName() + ".roleMembershipsCache", lruRoleMemberships);
+
         // resource list cache
         Map<String, List<CmsResource>> lruResourceList = CmsCollectionsGenericWrapper.createLRUMap(cacheSettings.getResourcelistCacheSize());
         m_cacheResourceList = Collections.synchronizedMap(lruResourceList);
@@ -2274,6 +2317,25 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
         m_cacheUser.remove(user.getName());
     }
 
+    /**
+     * Removes the cached groups, role memberships and role lists of the given user from the caches.<p>
+     * 
+     * This is used instead of flushing these caches completely if only the group memberships 
+     * or the data of a single user have been changed, since all these cache entries are user specific.<p>
+     * 
+     * @param user the user to remove the cached groups and roles for
+     */
+    public void uncacheUserGroups(CmsUser user) {
+
+        String userId = user.getId().toString();
+        m_cacheRoleMemberships.remove(userId);
+        uncacheKeys(m_cacheHasRoles, userId, null);
+        uncacheKeys(m_cacheRoleLists, userId, null);
+        // the user name is the suffix of the user groups cache keys,
+        // this may remove entries of other users too, but never leaves stale entries 
+        uncacheKeys(m_cacheUserGroups, null, "_" + user.getName());
+    }
+
     /**
      * Removes the given vfs object from the cache.<p>
      * 
@@ -2707,6 +2769,19 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
                 }
             }
 
+            for (CmsGwtServiceMetrics metrics : CmsGwtServiceMetrics.getAll()) {
+                LOG.info(Messages.get().getBundle().key(
+                    Messages.LOG_MM_GWT_SERVICE_7,
+                    new Object[] {
+                        metrics.getName(),
+                        new Long(metrics.getCalls()),
+                        new Long(metrics.getCompressedCalls()),
+                        new Long(metrics.getAveragePayloadSize()),
+                        new Long(metrics.getMaxPayloadSize()),
+                        new Long(metrics.getAverageTime()),
+                        new Long(metrics.getMaxTime())}));
+            }
+
             LOG.info(Messages.get().getBundle().key(
                 Messages.LOG_MM_STARTUP_TIME_2,
                 CmsDateUtil.getDateTimeShort(OpenCms.getSystemInfo().getStartupTime()),
@@ -2714,6 +2789,26 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
         }
     }
 
+    /**
+     * Removes all entries from the given cache with a key that starts with the given prefix and ends with the given suffix.<p>
+     * 
+     * @param cache the cache to remove the entries from
+     * @param prefix the prefix of the keys to remove, or <code>null</code> to ignore the prefix 
+     * @param suffix the suffix of the keys to remove, or <code>null</code> to ignore the suffix
+     */
+    protected void uncacheKeys(Map<String, ?> cache, String prefix, String suffix) {
+
+        synchronized (cache) {
+            Iterator<String> it = cache.keySet().iterator();
+            while (it.hasNext()) {
+                String key = it.next();
+                if (((prefix == null) || key.startsWith(prefix)) && ((suffix == null) || key.endsWith(suffix))) {
+                    it.remove();
+                }
+            }
+        }
+    }
+
     /**
      * Updates the memory information of the memory monitor.<p> 
      */
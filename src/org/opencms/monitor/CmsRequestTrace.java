@@ -0,0 +1,449 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.monitor;
+
+import org.opencms.json.JSONArray;
+import org.opencms.json.JSONException;
+import org.opencms.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The performance trace of a single request.<p>
+ *
+ * A trace consists of timed spans for the stages of the request, which may be nested
+ * (for example for Flex includes), and of counters for events like cache hits or SQL statements.<p>
+ *
+ * A trace is only used by the thread that processes the request, so it is not synchronized.
+ * Once the trace is finished, it is not changed anymore.<p>
+ *
+ * @since 8.0.2
+ */
+public class CmsRequestTrace {
+
+    /**
+     * A single timed span of a request trace.<p>
+     */
+    public static class CmsTraceSpan {
+
+        /** The nesting depth of this span, <code>0</code> for top level spans. */
+        private int m_depth;
+
+        /** The optional detail information of this span, for example the include target. */
+        private String m_detail;
+
+        /** The duration of this span in nanoseconds, or <code>-1</code> if the span is still open. */
+        private long m_duration;
+
+        /** The name of this span. */
+        private String m_name;
+
+        /** The start of this span in nanoseconds, relative to the start of the trace. */
+        private long m_start;
+
+        /**
+         * Creates a new span.<p>
+         *
+         * @param name the name of the span
+         * @param detail the optional detail information of the span
+         * @param depth the nesting depth of the span
+         * @param start the start of the span in nanoseconds, relative to the start of the trace
+         */
+        protected CmsTraceSpan(String name, String detail, int depth, long start) {
+
+            m_name = name;
+            m_detail = detail;
+            m_depth = depth;
+            m_start = start;
+            m_duration = -1;
+        }
+
+        /**
+         * Returns the nesting depth of this span, <code>0</code> for top level spans.<p>
+         *
+         * @return the nesting depth of this span
+         */
+        public int getDepth() {
+
+            return m_depth;
+        }
+
+        /**
+         * Returns the optional detail information of this span.<p>
+         *
+         * @return the optional detail information of this span, may be <code>null</code>
+         */
+        public String getDetail() {
+
+            return m_detail;
+        }
+
+        /**
+         * Returns the duration of this span in microseconds.<p>
+         *
+         * @return the duration of this span in microseconds
+         */
+        public long getDuration() {
+
+            return m_duration / 1000;
+        }
+
+        /**
+         * Returns the name of this span.<p>
+         *
+         * @return the name of this span
+         */
+        public String getName() {
+
+            return m_name;
+        }
+
+        /**
+         * Returns the start of this span in microseconds, relative to the start of the trace.<p>
+         *
+         * @return the start of this span in microseconds
+         */
+        public long getStart() {
+
+            return m_start / 1000;
+        }
+
+        /**
+         * Returns the JSON representation of this span.<p>
+         *
+         * @return the JSON representation of this span
+         *
+         * @throws JSONException if something goes wrong
+         */
+        public JSONObject toJson() throws JSONException {
+
+            JSONObject result = new JSONObject();
+            result.put(JSON_NAME, m_name);
+            if (m_detail != null) {
+                result.put(JSON_DETAIL, m_detail);
+            }
+            result.put(JSON_DEPTH, m_depth);
+            result.put(JSON_START, getStart());
+            result.put(JSON_DURATION, getDuration());
+            return result;
+        }
+    }
+
+    /** JSON key constant. */
+    public static final String JSON_COUNTERS = "counters";
+
+    /** JSON key constant. */
+    public static final String JSON_DEPTH = "depth";
+
+    /** JSON key constant. */
+    public static final String JSON_DETAIL = "detail";
+
+    /** JSON key constant. */
+    public static final String JSON_DURATION = "duration";
+
+    /** JSON key constant. */
+    public static final String JSON_ERROR = "error";
+
+    /** JSON key constant. */
+    public static final String JSON_NAME = "name";
+
+    /** JSON key constant. */
+    public static final String JSON_SPANS = "spans";
+
+    /** JSON key constant. */
+    public static final String JSON_START = "start";
+
+    /** JSON key constant. */
+    public static final String JSON_TIME = "time";
+
+    /** JSON key constant. */
+    public static final String JSON_URI = "uri";
+
+    /** The maximum number of spans recorded per trace, to limit the memory used by pages with very many includes. */
+    public static final int MAX_SPANS = 500;
+
+    /** The event counters of this trace. */
+    private Map<String, int[]> m_counters;
+
+    /** The duration of the complete request in nanoseconds, or <code>-1</code> if the trace is not finished. */
+    private long m_duration;
+
+    /** The error that occurred during the request, if any. */
+    private String m_error;
+
+    /** The spans that are currently open, innermost last. */
+    private List<CmsTraceSpan> m_openSpans;
+
+    /** All spans of this trace, in start order. */
+    private List<CmsTraceSpan> m_spans;
+
+    /** Indicates if this trace has been requested by the trace header. */
+    private boolean m_requestedByHeader;
+
+    /** The start of the trace in nanoseconds, from {@link System#nanoTime()}. */
+    private long m_startNanos;
+
+    /** The start time of the trace in milliseconds. */
+    private long m_time;
+
+    /** The requested URI. */
+    private String m_uri;
+
+    /**
+     * Creates a new trace for the given URI, starting now.<p>
+     *
+     * @param uri the requested URI
+     */
+    public CmsRequestTrace(String uri) {
+
+        this(uri, false);
+    }
+
+    /**
+     * Creates a new trace for the given URI, starting now.<p>
+     *
+     * @param uri the requested URI
+     * @param requestedByHeader <code>true</code> if the trace has been requested by the trace header
+     */
+    public CmsRequestTrace(String uri, boolean requestedByHeader) {
+
+        m_uri = uri;
+        m_requestedByHeader = requestedByHeader;
+        m_time = System.currentTimeMillis();
+        m_startNanos = System.nanoTime();
+        m_duration = -1;
+        m_spans = new ArrayList<CmsTraceSpan>();
+        m_openSpans = new ArrayList<CmsTraceSpan>();
+        m_counters = new TreeMap<String, int[]>();
+    }
+
+    /**
+     * Increments the counter with the given name by one.<p>
+     *
+     * @param counter the name of the counter
+     */
+    public void count(String counter) {
+
+        int[] value = m_counters.get(counter);
+        if (value == null) {
+            value = new int[1];
+            m_counters.put(counter, value);
+        }
+        value[0]++;
+    }
+
+    /**
+     * Ends the innermost open span of this trace.<p>
+     */
+    public void endSpan() {
+
+        if (!m_openSpans.isEmpty()) {
+            CmsTraceSpan span = m_openSpans.remove(m_openSpans.size() - 1);
+            span.m_duration = System.nanoTime() - m_startNanos - span.m_start;
+        }
+    }
+
+    /**
+     * Finishes this trace, ending all spans that are still open.<p>
+     */
+    public void finish() {
+
+        while (!m_openSpans.isEmpty()) {
+            endSpan();
+        }
+        if (m_duration < 0) {
+            m_duration = System.nanoTime() - m_startNanos;
+        }
+    }
+
+    /**
+     * Returns the value of the counter with the given name.<p>
+     *
+     * @param counter the name of the counter
+     *
+     * @return the value of the counter with the given name
+     */
+    public int getCount(String counter) {
+
+        int[] value = m_counters.get(counter);
+        return value == null ? 0 : value[0];
+    }
+
+    /**
+     * Returns the values of all counters of this trace, sorted by counter name.<p>
+     *
+     * @return the values of all counters of this trace
+     */
+    public Map<String, Integer> getCounters() {
+
+        Map<String, Integer> result = new TreeMap<String, Integer>();
+        for (Map.Entry<String, int[]> entry : m_counters.entrySet()) {
+            result.put(entry.getKey(), new Integer(entry.getValue()[0]));
+        }
+        return result;
+    }
+
+    /**
+     * Returns the duration of the request in microseconds.<p>
+     *
+     * In case the trace is not yet finished, the time elapsed so far is returned.<p>
+     *
+     * @return the duration of the request in microseconds
+     */
+    public long getDuration() {
+
+        if (m_duration < 0) {
+            return (System.nanoTime() - m_startNanos) / 1000;
+        }
+        return m_duration / 1000;
+    }
+
+    /**
+     * Returns the error that occurred during the request.<p>
+     *
+     * @return the error that occurred during the request, or <code>null</code>
+     */
+    public String getError() {
+
+        return m_error;
+    }
+
+    /**
+     * Returns the spans of this trace, in start order.<p>
+     *
+     * @return the spans of this trace
+     */
+    public List<CmsTraceSpan> getSpans() {
+
+        return Collections.unmodifiableList(m_spans);
+    }
+
+    /**
+     * Returns the time the request was started.<p>
+     *
+     * @return the time the request was started
+     */
+    public long getTime() {
+
+        return m_time;
+    }
+
+    /**
+     * Returns the requested URI.<p>
+     *
+     * @return the requested URI
+     */
+    public String getUri() {
+
+        return m_uri;
+    }
+
+    /**
+     * Returns if this trace has been requested by the trace header, and not selected by the sample rate.<p>
+     *
+     * @return <code>true</code> if this trace has been requested by the trace header
+     */
+    public boolean isRequestedByHeader() {
+
+        return m_requestedByHeader;
+    }
+
+    /**
+     * Marks this trace as failed with the given error, and ends all open spans.<p>
+     *
+     * @param t the error that occurred
+     */
+    public void setError(Throwable t) {
+
+        while (!m_openSpans.isEmpty()) {
+            endSpan();
+        }
+        m_error = t.toString();
+    }
+
+    /**
+     * Sets the requested URI.<p>
+     *
+     * This is used to replace the request path with the resolved site root path once it is known.<p>
+     *
+     * @param uri the requested URI
+     */
+    public void setUri(String uri) {
+
+        m_uri = uri;
+    }
+
+    /**
+     * Starts a new span, nested in the currently open span.<p>
+     *
+     * @param name the name of the span
+     * @param detail the optional detail information of the span, may be <code>null</code>
+     */
+    public void startSpan(String name, String detail) {
+
+        CmsTraceSpan span = new CmsTraceSpan(name, detail, m_openSpans.size(), System.nanoTime() - m_startNanos);
+        if (m_spans.size() < MAX_SPANS) {
+            m_spans.add(span);
+        }
+        // the span must be on the stack even if not recorded, otherwise the end calls would not match
+        m_openSpans.add(span);
+    }
+
+    /**
+     * Returns the JSON representation of this trace.<p>
+     *
+     * @return the JSON representation of this trace
+     *
+     * @throws JSONException if something goes wrong
+     */
+    public JSONObject toJson() throws JSONException {
+
+        JSONObject result = new JSONObject();
+        result.put(JSON_URI, m_uri);
+        result.put(JSON_TIME, m_time);
+        result.put(JSON_DURATION, getDuration());
+        if (m_error != null) {
+            result.put(JSON_ERROR, m_error);
+        }
+        JSONObject counters = new JSONObject();
+        for (Map.Entry<String, int[]> entry : m_counters.entrySet()) {
+            counters.put(entry.getKey(), entry.getValue()[0]);
+        }
+        result.put(JSON_COUNTERS, counters);
+        JSONArray spans = new JSONArray();
+        for (CmsTraceSpan span : m_spans) {
+            spans.put(span.toJson());
+        }
+        result.put(JSON_SPANS, spans);
+        return result;
+    }
+}
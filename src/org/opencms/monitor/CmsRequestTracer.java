@@ -0,0 +1,400 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.monitor;
+
+import org.opencms.file.CmsObject;
+import org.opencms.json.JSONArray;
+import org.opencms.json.JSONException;
+import org.opencms.main.CmsLog;
+import org.opencms.main.OpenCms;
+import org.opencms.security.CmsRole;
+import org.opencms.util.CmsStringUtil;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * Records performance traces for sampled requests, and keeps the latest traces in a ring buffer.<p>
+ *
+ * A request is traced either if it contains the configured trace header, or if it is selected
+ * by the configured sample rate. The trace of the current request is bound to the current thread,
+ * so that code deep in the call stack can add spans and counters with the static methods
+ * {@link #startSpan(String, String)}, {@link #endSpan()} and {@link #count(String)}
+ * without access to the request. These methods return immediately if the current request is not traced.<p>
+ *
+ * The tracer is configured in <code>opencms.properties</code> with the following keys:
+ * <ul>
+ * <li><code>request.trace.samplerate</code>: the fraction of requests to trace, between <code>0.0</code>
+ *     (no request, the default) and <code>1.0</code> (all requests)</li>
+ * <li><code>request.trace.header</code>: the name of the request header that enables the trace
+ *     for a single request, if empty (the default) traces can not be enabled by header.
+ *     Traces requested by header are only kept for users with the {@link CmsRole#DEVELOPER} role,
+ *     so that other clients can not fill the ring buffer, see {@link #authorizeTrace(CmsObject, CmsRequestTrace)}</li>
+ * <li><code>request.trace.buffersize</code>: the number of traces kept in the ring buffer, default is 100</li>
+ * </ul><p>
+ *
+ * @since 8.0.2
+ */
+public class CmsRequestTracer {
+
+    /** The counter for SQL statements. */
+    public static final String COUNTER_SQL = "sql.statements";
+
+    /** The default size of the ring buffer. */
+    public static final int DEFAULT_BUFFER_SIZE = 100;
+
+    /** The configuration key for the buffer size. */
+    public static final String PARAM_BUFFER_SIZE = "request.trace.buffersize";
+
+    /** The configuration key for the trace header. */
+    public static final String PARAM_HEADER = "request.trace.header";
+
+    /** The configuration key for the sample rate. */
+    public static final String PARAM_SAMPLE_RATE = "request.trace.samplerate";
+
+    /** The span name for the Flex includes. */
+    public static final String SPAN_INCLUDE = "include";
+
+    /** The span name for the initialization of the user context. */
+    public static final String SPAN_INIT_CMS_OBJECT = "initCmsObject";
+
+    /** The span name for reading the requested resource. */
+    public static final String SPAN_INIT_RESOURCE = "initResource";
+
+    /** The span name for the static export link check. */
+    public static final String SPAN_IS_EXPORT_LINK = "isExportLink";
+
+    /** The span name for loading the requested resource. */
+    public static final String SPAN_LOAD_RESOURCE = "loadResource";
+
+    /** The span name for the site matching. */
+    public static final String SPAN_MATCH_SITE = "matchSite";
+
+    /** The span name for the session update. */
+    public static final String SPAN_UPDATE_SESSION = "updateSessionInfo";
+
+    /** Suffix of the cache hit counters. */
+    private static final String COUNTER_CACHE_HIT = ".hit";
+
+    /** Suffix of the cache miss counters. */
+    private static final String COUNTER_CACHE_MISS = ".miss";
+
+    /** Prefix of the cache counters. */
+    private static final String COUNTER_CACHE_PREFIX = "cache.";
+
+    /** The trace of the request processed by the current thread. */
+    private static final ThreadLocal<CmsRequestTrace> CURRENT_TRACE = new ThreadLocal<CmsRequestTrace>();
+
+    /** Indicates if any tracer is enabled, to avoid the thread local lookup in case tracing is disabled. */
+    private static volatile boolean m_staticActive;
+
+    /** The ring buffer of the finished traces. */
+    private CmsRequestTrace[] m_buffer;
+
+    /** The name of the request header that enables the trace. */
+    private String m_header;
+
+    /** The position of the next trace in the ring buffer. */
+    private int m_next;
+
+    /** The random generator used for sampling. */
+    private Random m_random;
+
+    /** The fraction of requests to trace. */
+    private double m_sampleRate;
+
+    /** The number of finished traces. */
+    private long m_traceCount;
+
+    /**
+     * Creates a new request tracer.<p>
+     *
+     * @param sampleRate the fraction of requests to trace, between <code>0.0</code> and <code>1.0</code>
+     * @param header the name of the request header that enables the trace, may be <code>null</code>
+     * @param bufferSize the number of traces kept in the ring buffer
+     */
+    public CmsRequestTracer(double sampleRate, String header, int bufferSize) {
+
+        m_sampleRate = Math.max(0.0, Math.min(1.0, sampleRate));
+        m_header = CmsStringUtil.isEmptyOrWhitespaceOnly(header) ? null : header.trim();
+        m_buffer = new CmsRequestTrace[Math.max(1, bufferSize)];
+        m_random = new Random();
+        if (isEnabled()) {
+            m_staticActive = true;
+            if (CmsLog.INIT.isInfoEnabled()) {
+                CmsLog.INIT.info(Messages.get().getBundle().key(
+                    Messages.INIT_REQUEST_TRACE_ENABLED_3,
+                    String.valueOf(m_sampleRate),
+                    m_header,
+                    new Integer(m_buffer.length)));
+            }
+        }
+    }
+
+    /**
+     * Increments the counter with the given name in the trace of the current request.<p>
+     *
+     * @param counter the name of the counter
+     */
+    public static void count(String counter) {
+
+        CmsRequestTrace trace = getCurrentTrace();
+        if (trace != null) {
+            trace.count(counter);
+        }
+    }
+
+    /**
+     * Counts a cache lookup in the trace of the current request,
+     * as hit if the given value is not <code>null</code>, or as miss otherwise.<p>
+     *
+     * This method returns the given value, so that it can wrap the actual cache lookup.<p>
+     *
+     * @param <T> the type of the cached value
+     * @param cache the name of the cache
+     * @param value the value read from the cache, <code>null</code> in case of a miss
+     *
+     * @return the given value
+     */
+    public static <T> T countCacheAccess(String cache, T value) {
+
+        CmsRequestTrace trace = getCurrentTrace();
+        if (trace != null) {
+            trace.count(COUNTER_CACHE_PREFIX + cache + ((value != null) ? COUNTER_CACHE_HIT : COUNTER_CACHE_MISS));
+        }
+        return value;
+    }
+
+    /**
+     * Ends the innermost open span in the trace of the current request.<p>
+     */
+    public static void endSpan() {
+
+        CmsRequestTrace trace = getCurrentTrace();
+        if (trace != null) {
+            trace.endSpan();
+        }
+    }
+
+    /**
+     * Returns the trace of the request processed by the current thread.<p>
+     *
+     * @return the trace of the current request, or <code>null</code> if the current request is not traced
+     */
+    public static CmsRequestTrace getCurrentTrace() {
+
+        if (!m_staticActive) {
+            return null;
+        }
+        return CURRENT_TRACE.get();
+    }
+
+    /**
+     * Starts a new span in the trace of the current request.<p>
+     *
+     * @param name the name of the span
+     * @param detail the optional detail information of the span, may be <code>null</code>
+     */
+    public static void startSpan(String name, String detail) {
+
+        CmsRequestTrace trace = getCurrentTrace();
+        if (trace != null) {
+            trace.startSpan(name, detail);
+        }
+    }
+
+    /**
+     * Checks if the user of the current request is allowed to request a trace by header.<p>
+     *
+     * Traces requested by the trace header are discarded unless the user has the {@link CmsRole#DEVELOPER} role.
+     * Traces selected by the sample rate are always kept.<p>
+     *
+     * @param cms the user context of the current request
+     * @param trace the trace of the current request, may be <code>null</code>
+     *
+     * @return the given trace, or <code>null</code> if the trace has been discarded
+     */
+    public CmsRequestTrace authorizeTrace(CmsObject cms, CmsRequestTrace trace) {
+
+        if ((trace == null) || !trace.isRequestedByHeader()) {
+            return trace;
+        }
+        if (OpenCms.getRoleManager().hasRole(cms, CmsRole.DEVELOPER)) {
+            return trace;
+        }
+        discardTrace(trace);
+        return null;
+    }
+
+    /**
+     * Discards the given trace, that is it is unbound from the current thread without adding it to the ring buffer.<p>
+     *
+     * @param trace the trace to discard, if <code>null</code> nothing is done
+     */
+    public void discardTrace(CmsRequestTrace trace) {
+
+        if (trace == null) {
+            return;
+        }
+        CURRENT_TRACE.remove();
+    }
+
+    /**
+     * Finishes the given trace, unbinds it from the current thread and adds it to the ring buffer.<p>
+     *
+     * @param trace the trace to finish, if <code>null</code> nothing is done
+     */
+    public void finishTrace(CmsRequestTrace trace) {
+
+        if (trace == null) {
+            return;
+        }
+        CURRENT_TRACE.remove();
+        trace.finish();
+        synchronized (this) {
+            m_buffer[m_next] = trace;
+            m_next = (m_next + 1) % m_buffer.length;
+            m_traceCount++;
+        }
+    }
+
+    /**
+     * Returns the size of the ring buffer.<p>
+     *
+     * @return the size of the ring buffer
+     */
+    public int getBufferSize() {
+
+        return m_buffer.length;
+    }
+
+    /**
+     * Returns the name of the request header that enables the trace.<p>
+     *
+     * @return the name of the request header that enables the trace, or <code>null</code>
+     */
+    public String getHeader() {
+
+        return m_header;
+    }
+
+    /**
+     * Returns the fraction of requests to trace.<p>
+     *
+     * @return the fraction of requests to trace
+     */
+    public double getSampleRate() {
+
+        return m_sampleRate;
+    }
+
+    /**
+     * Returns the total number of finished traces, including the traces no longer in the ring buffer.<p>
+     *
+     * @return the total number of finished traces
+     */
+    public synchronized long getTraceCount() {
+
+        return m_traceCount;
+    }
+
+    /**
+     * Returns the traces in the ring buffer, latest trace first.<p>
+     *
+     * @return the traces in the ring buffer
+     */
+    public synchronized List<CmsRequestTrace> getTraces() {
+
+        List<CmsRequestTrace> result = new ArrayList<CmsRequestTrace>(m_buffer.length);
+        for (int i = 1; i <= m_buffer.length; i++) {
+            CmsRequestTrace trace = m_buffer[(m_next - i + m_buffer.length) % m_buffer.length];
+            if (trace == null) {
+                break;
+            }
+            result.add(trace);
+        }
+        return result;
+    }
+
+    /**
+     * Checks if this tracer is enabled, that is if it has a sample rate or a trace header configured.<p>
+     *
+     * @return <code>true</code> if this tracer is enabled
+     */
+    public boolean isEnabled() {
+
+        return (m_sampleRate > 0.0) || (m_header != null);
+    }
+
+    /**
+     * Starts a trace for the given request if the request has to be traced,
+     * and binds it to the current thread.<p>
+     *
+     * @param req the current request
+     *
+     * @return the started trace, or <code>null</code> if the request is not traced
+     */
+    public CmsRequestTrace startTrace(HttpServletRequest req) {
+
+        if (!isEnabled()) {
+            return null;
+        }
+        boolean requestedByHeader = false;
+        boolean trace = (m_sampleRate > 0.0) && (m_random.nextDouble() < m_sampleRate);
+        if (!trace && (m_header != null) && (req.getHeader(m_header) != null)) {
+            // the user must be authorized later, see authorizeTrace
+            trace = true;
+            requestedByHeader = true;
+        }
+        if (!trace) {
+            return null;
+        }
+        CmsRequestTrace result = new CmsRequestTrace(req.getRequestURI(), requestedByHeader);
+        CURRENT_TRACE.set(result);
+        return result;
+    }
+
+    /**
+     * Returns the traces in the ring buffer as JSON array, latest trace first.<p>
+     *
+     * @return the traces in the ring buffer as JSON array
+     *
+     * @throws JSONException if something goes wrong
+     */
+    public JSONArray toJson() throws JSONException {
+
+        JSONArray result = new JSONArray();
+        for (CmsRequestTrace trace : getTraces()) {
+            result.put(trace.toJson());
+        }
+        return result;
+    }
+}
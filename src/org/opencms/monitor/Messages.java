@@ -37,6 +37,9 @@ import org.opencms.i18n.I_CmsMessageBundle;
  */
 public final class Messages extends A_CmsMessageBundle {
 
+    /** Message constant for key in the resource bundle. */
+    public static final String INIT_REQUEST_TRACE_ENABLED_3 = "INIT_REQUEST_TRACE_ENABLED_3";
+
     /** Message constant for key in the resource bundle. */
     public static final String LOG_CAUGHT_THROWABLE_1 = "LOG_CAUGHT_THROWABLE_1";
 
@@ -58,6 +61,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String LOG_MM_EMAIL_SENDER_1 = "LOG_MM_EMAIL_SENDER_1";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_MM_GWT_SERVICE_7 = "LOG_MM_GWT_SERVICE_7";
+
     /** Message constant for key in the resource bundle. */
     public static final String LOG_MM_INTERVAL_EMAIL_1 = "LOG_MM_INTERVAL_EMAIL_1";
 
@@ -38,6 +38,7 @@ import org.opencms.i18n.CmsLocaleManager;
 import org.opencms.main.CmsException;
 import org.opencms.main.CmsLog;
 import org.opencms.main.OpenCms;
+import org.opencms.security.I_CmsPrincipal;
 import org.opencms.util.CmsStringUtil;
 
 import java.util.ArrayList;
@@ -46,9 +47,11 @@ import java.util.Collection;
 import java.util.Date;
 import java.util.GregorianCalendar;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.TimeZone;
 
 import org.apache.commons.logging.Log;
@@ -58,6 +61,10 @@ import org.apache.commons.mail.EmailException;
  * The basic class for the content notification feature in OpenCms. Collects all resources that require a notification,
  * creates and sends notifications to their responsible users.<p/>
  * 
+ * The candidates are only searched below the resources with the <code>enable-notification</code> property
+ * set to <code>true</code>, with one date range query per root of these sub trees and cause.
+ * The responsible users are resolved once for every distinct set of responsible principals.<p>
+ * 
  */
 public class CmsNotificationCandidates {
 
@@ -67,6 +74,9 @@ public class CmsNotificationCandidates {
     /** the CmsObject. */
     private CmsObject m_cms;
 
+    /** The values of the 'enable-notification' property, with the root path of the resource as key. */
+    private Map m_notificationSettings;
+
     /** The resources which come into question for notifications of responsible users. */
     private List m_resources;
 
@@ -91,11 +101,20 @@ public class CmsNotificationCandidates {
         Iterator resources;
         CmsResource resource;
 
+        // read the resources with the 'enable-notification' property set, without them nothing is notified
+        List roots = readNotificationRoots(folder);
+        if (roots.isEmpty()) {
+            return;
+        }
+
         // read all files with the 'notification-interval' property set
         try {
             resources = m_cms.readResourcesWithProperty(folder, CmsPropertyDefinition.PROPERTY_NOTIFICATION_INTERVAL).iterator();
             while (resources.hasNext()) {
                 resource = (CmsResource)resources.next();
+                if (!isNotificationEnabled(resource)) {
+                    continue;
+                }
                 int notification_interval = Integer.parseInt(m_cms.readPropertyObject(
                     resource,
                     CmsPropertyDefinition.PROPERTY_NOTIFICATION_INTERVAL,
@@ -128,38 +147,17 @@ public class CmsNotificationCandidates {
         oneYearAgo.add(Calendar.DAY_OF_YEAR, -OpenCms.getSystemInfo().getNotificationTime());
         // create a resource filter to get the resources with
         CmsResourceFilter filter = CmsResourceFilter.IGNORE_EXPIRATION.addRequireLastModifiedBefore(oneYearAgo.getTimeInMillis());
-        resources = m_cms.readResources(folder, filter).iterator();
-        while (resources.hasNext()) {
-            resource = (CmsResource)resources.next();
-            m_resources.add(new CmsExtendedNotificationCause(
-                resource,
-                CmsExtendedNotificationCause.RESOURCE_OUTDATED,
-                new Date(resource.getDateLastModified())));
-        }
+        addCandidates(roots, filter, CmsExtendedNotificationCause.RESOURCE_OUTDATED);
 
         // get all resources that will expire within the next week
         CmsResourceFilter resourceFilter = CmsResourceFilter.IGNORE_EXPIRATION.addRequireExpireBefore(inOneWeek.getTimeInMillis());
         resourceFilter = resourceFilter.addRequireExpireAfter(now.getTimeInMillis());
-        resources = m_cms.readResources(folder, resourceFilter).iterator();
-        while (resources.hasNext()) {
-            resource = (CmsResource)resources.next();
-            m_resources.add(new CmsExtendedNotificationCause(
-                resource,
-                CmsExtendedNotificationCause.RESOURCE_EXPIRES,
-                new Date(resource.getDateExpired())));
-        }
+        addCandidates(roots, resourceFilter, CmsExtendedNotificationCause.RESOURCE_EXPIRES);
 
         // get all resources that will release within the next week
         resourceFilter = CmsResourceFilter.IGNORE_EXPIRATION.addRequireReleaseBefore(inOneWeek.getTimeInMillis());
         resourceFilter = resourceFilter.addRequireReleaseAfter(now.getTimeInMillis());
-        resources = m_cms.readResources(folder, resourceFilter).iterator();
-        while (resources.hasNext()) {
-            resource = (CmsResource)resources.next();
-            m_resources.add(new CmsExtendedNotificationCause(
-                resource,
-                CmsExtendedNotificationCause.RESOURCE_RELEASE,
-                new Date(resource.getDateReleased())));
-        }
+        addCandidates(roots, resourceFilter, CmsExtendedNotificationCause.RESOURCE_RELEASE);
     }
 
     /**
@@ -202,54 +200,105 @@ public class CmsNotificationCandidates {
      */
     protected Collection getContentNotifications() throws CmsException {
 
-        // get all owners for the resource
+        // the responsible users of each distinct set of responsible principals 
+        Map responsibleUsers = new HashMap();
         Iterator notificationCandidates = m_resources.iterator();
         Map result = new HashMap();
         while (notificationCandidates.hasNext()) {
             CmsExtendedNotificationCause resourceInfo = (CmsExtendedNotificationCause)notificationCandidates.next();
+            // the candidates only contain resources with content notification enabled
             CmsResource resource = resourceInfo.getResource();
-            // skip, if content notification is not enabled for this resource
-            String enableNotification = m_cms.readPropertyObject(
-                resource,
-                CmsPropertyDefinition.PROPERTY_ENABLE_NOTIFICATION,
-                true).getValue();
-            if (Boolean.valueOf(enableNotification).booleanValue()) {
-                try {
-                    Iterator responsibles = m_cms.readResponsibleUsers(resource).iterator();
-                    while (responsibles.hasNext()) {
-                        CmsUser responsible = (CmsUser)responsibles.next();
-                        if (CmsStringUtil.isNotEmptyOrWhitespaceOnly(responsible.getEmail())) {
-                            // check, if resultset already contains a content notification for the user
-                            CmsContentNotification contentNotification = (CmsContentNotification)result.get(responsible);
-
-                            // if not add a new content notification
-                            if (contentNotification == null) {
-                                contentNotification = new CmsContentNotification(responsible, m_cms);
-                                result.put(responsible, contentNotification);
-                            }
-                            List resourcesForResponsible = contentNotification.getNotificationCauses();
-                            if (resourcesForResponsible == null) {
-                                resourcesForResponsible = new ArrayList();
-                                contentNotification.setNotificationCauses(resourcesForResponsible);
-                            }
-                            resourcesForResponsible.add(resourceInfo);
+            try {
+                Set<I_CmsPrincipal> principals = m_cms.readResponsiblePrincipals(resource);
+                Set users = (Set)responsibleUsers.get(principals);
+                if (users == null) {
+                    users = m_cms.getUsersOfPrincipals(principals);
+                    responsibleUsers.put(principals, users);
+                }
+                Iterator responsibles = users.iterator();
+                while (responsibles.hasNext()) {
+                    CmsUser responsible = (CmsUser)responsibles.next();
+                    if (CmsStringUtil.isNotEmptyOrWhitespaceOnly(responsible.getEmail())) {
+                        // check, if resultset already contains a content notification for the user
+                        CmsContentNotification contentNotification = (CmsContentNotification)result.get(responsible);
+
+                        // if not add a new content notification
+                        if (contentNotification == null) {
+                            contentNotification = new CmsContentNotification(responsible, m_cms);
+                            result.put(responsible, contentNotification);
                         }
-                    }
-                } catch (CmsException e) {
-                    if (LOG.isInfoEnabled()) {
-                        LOG.error(e.getLocalizedMessage(), e);
+                        List resourcesForResponsible = contentNotification.getNotificationCauses();
+                        if (resourcesForResponsible == null) {
+                            resourcesForResponsible = new ArrayList();
+                            contentNotification.setNotificationCauses(resourcesForResponsible);
+                        }
+                        resourcesForResponsible.add(resourceInfo);
                     }
                 }
+            } catch (CmsException e) {
+                if (LOG.isInfoEnabled()) {
+                    LOG.error(e.getLocalizedMessage(), e);
+                }
             }
         }
         return result.values();
     }
 
+    /**
+     * Adds the resources matching the given filter below the given roots to the candidates,
+     * if content notification is enabled for them.<p>
+     * 
+     * @param roots the roots of the sub trees with content notification enabled
+     * @param filter the filter with the date range of the notification cause
+     * @param cause the notification cause
+     * 
+     * @throws CmsException if something goes wrong
+     */
+    private void addCandidates(List roots, CmsResourceFilter filter, int cause) throws CmsException {
+
+        Iterator itRoots = roots.iterator();
+        while (itRoots.hasNext()) {
+            CmsResource root = (CmsResource)itRoots.next();
+            List resources;
+            if (root.isFolder()) {
+                // the date range is part of the query
+                resources = m_cms.readResources(m_cms.getSitePath(root), filter);
+            } else {
+                resources = new ArrayList();
+                if (filter.isValid(m_cms.getRequestContext(), root)) {
+                    resources.add(root);
+                }
+            }
+            Iterator itResources = resources.iterator();
+            while (itResources.hasNext()) {
+                CmsResource resource = (CmsResource)itResources.next();
+                if (!isNotificationEnabled(resource)) {
+                    continue;
+                }
+                long date;
+                switch (cause) {
+                    case CmsExtendedNotificationCause.RESOURCE_EXPIRES:
+                        date = resource.getDateExpired();
+                        break;
+                    case CmsExtendedNotificationCause.RESOURCE_RELEASE:
+                        date = resource.getDateReleased();
+                        break;
+                    default:
+                        date = resource.getDateLastModified();
+                }
+                m_resources.add(new CmsExtendedNotificationCause(resource, cause, new Date(date)));
+            }
+        }
+    }
+
     /**
      * Updates the resources that were confirmed by the user. That means deletes the resources that need not a
      * notification any more.
      * removes all resources which do not occur in the candidate list.<p>
      * 
+     * Confirmed resources and candidates are matched by their hash codes, like their <code>equals</code> 
+     * methods do, so every list is only iterated once.<p>
+     * 
      * @param contentNotifications the list of {@link CmsContentNotification} objects to remove from the set of confirmed resources
      * @return a new CmsConfirmedResources Object which all the resource removed
      */
@@ -267,28 +316,30 @@ public class CmsNotificationCandidates {
             }
 
             List notificationCandidates = contentNotification.getNotificationCauses();
+            Set confirmed = getHashCodes(confirmedResourcesList);
+            Set candidates = getHashCodes(notificationCandidates);
 
-            List notificationResources = new ArrayList(notificationCandidates);
+            List notificationResources = new ArrayList(notificationCandidates.size());
             // remove already confirmed resources            
-            Iterator i = confirmedResourcesList.iterator();
+            Iterator i = notificationCandidates.iterator();
             while (i.hasNext()) {
                 Object o = i.next();
-                if (notificationResources.contains(o)) {
-                    notificationResources.remove(o);
+                if (!confirmed.contains(new Integer(o.hashCode()))) {
+                    notificationResources.add(o);
                 }
             }
             // filter confirmed resources
-            i = new ArrayList(confirmedResourcesList).iterator();
+            i = confirmedResourcesList.iterator();
             while (i.hasNext()) {
                 Object o = i.next();
-                if (!notificationCandidates.contains(o)) {
-                    confirmedResourcesList.remove(o);
+                if (!candidates.contains(new Integer(o.hashCode()))) {
+                    i.remove();
                 }
             }
             contentNotification.setNotificationCauses(notificationResources);
             // Remove notification, if resource list is empty
             if (notificationCandidates.isEmpty()) {
-                contentNotifications.remove(contentNotification);
+                notifications.remove();
             }
             try {
                 m_cms.writeUser(responsible);
@@ -298,4 +349,100 @@ public class CmsNotificationCandidates {
         }
         return contentNotifications;
     }
-}
\ No newline at end of file
+
+    /**
+     * Returns the hash codes of the given notification causes.<p>
+     * 
+     * @param causes the notification causes
+     * 
+     * @return the set of hash codes, as <code>{@link Integer}</code> objects
+     */
+    private Set getHashCodes(List causes) {
+
+        Set result = new HashSet(causes.size());
+        Iterator i = causes.iterator();
+        while (i.hasNext()) {
+            result.add(new Integer(i.next().hashCode()));
+        }
+        return result;
+    }
+
+    /**
+     * Checks if content notification is enabled for the given resource.<p>
+     * 
+     * The value of the 'enable-notification' property is looked up in memory, 
+     * from the resource up to the site root folder.<p>
+     * 
+     * @param resource the resource to check
+     * 
+     * @return <code>true</code> if content notification is enabled for the given resource
+     */
+    private boolean isNotificationEnabled(CmsResource resource) {
+
+        String path = resource.getRootPath();
+        while (path != null) {
+            Boolean enabled = (Boolean)m_notificationSettings.get(path);
+            if (enabled != null) {
+                return enabled.booleanValue();
+            }
+            path = CmsResource.getParentFolder(path);
+        }
+        return false;
+    }
+
+    /**
+     * Reads the values of the 'enable-notification' property and returns the roots of the sub trees 
+     * with content notification enabled.<p>
+     * 
+     * The roots do not overlap, resources below a root may still have content notification disabled.<p>
+     * 
+     * @param folder the folder to read the resources with the property from
+     * 
+     * @return the root resources of the sub trees with content notification enabled
+     * 
+     * @throws CmsException if something goes wrong
+     */
+    private List readNotificationRoots(String folder) throws CmsException {
+
+        m_notificationSettings = new HashMap();
+        List resources = new ArrayList();
+        try {
+            resources.addAll(m_cms.readResourcesWithProperty(
+                folder,
+                CmsPropertyDefinition.PROPERTY_ENABLE_NOTIFICATION));
+        } catch (CmsDbEntryNotFoundException e) {
+            // no resources with property 'enable-notification', ignore
+        }
+        Iterator itResources = resources.iterator();
+        while (itResources.hasNext()) {
+            CmsResource resource = (CmsResource)itResources.next();
+            String value = m_cms.readPropertyObject(resource, CmsPropertyDefinition.PROPERTY_ENABLE_NOTIFICATION, false).getValue();
+            m_notificationSettings.put(resource.getRootPath(), Boolean.valueOf(value));
+        }
+        // the value of the folder may be inherited from outside the current site
+        CmsResource base = m_cms.readResource(folder, CmsResourceFilter.ALL);
+        String value = m_cms.readPropertyObject(base, CmsPropertyDefinition.PROPERTY_ENABLE_NOTIFICATION, true).getValue();
+        m_notificationSettings.put(base.getRootPath(), Boolean.valueOf(value));
+        resources.add(base);
+
+        List roots = new ArrayList();
+        itResources = resources.iterator();
+        while (itResources.hasNext()) {
+            CmsResource resource = (CmsResource)itResources.next();
+            if (!isNotificationEnabled(resource) || roots.contains(resource)) {
+                continue;
+            }
+            // use the resource as root, if no parent has content notification enabled
+            boolean isRoot = true;
+            String path = CmsResource.getParentFolder(resource.getRootPath());
+            while (isRoot && (path != null)) {
+                isRoot = !Boolean.TRUE.equals(m_notificationSettings.get(path));
+                path = CmsResource.getParentFolder(path);
+            }
+            if (isRoot) {
+                roots.add(resource);
+            }
+        }
+        return roots;
+    }
+}
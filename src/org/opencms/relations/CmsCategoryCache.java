@@ -0,0 +1,326 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.relations;
+
+import org.opencms.cache.CmsVfsCache;
+import org.opencms.file.CmsResource;
+import org.opencms.main.CmsEvent;
+import org.opencms.main.I_CmsEventListener;
+import org.opencms.main.OpenCms;
+import org.opencms.util.CmsUUID;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cache for the category trees of the category repositories and the repository base folder name.<p>
+ *
+ * The offline trees are removed when a resource inside their repository is modified,
+ * the online trees are removed after each publish.<p>
+ *
+ * @since 8.0.2
+ *
+ * @see CmsCategoryService
+ */
+public final class CmsCategoryCache extends CmsVfsCache {
+
+    /**
+     * Immutable snapshot of all categories of a category repository.<p>
+     *
+     * The tree contains all categories regardless of the permissions of the current user,
+     * the category folders are kept to check the permissions.<p>
+     */
+    public static final class CmsCategoryTree {
+
+        /** The categories by root path. */
+        private final Map<String, CmsCategory> m_byRootPath;
+
+        /** The categories by structure id. */
+        private final Map<CmsUUID, CmsCategory> m_byStructureId;
+
+        /** All categories of the repository, sorted. */
+        private final List<CmsCategory> m_categories;
+
+        /** The root path of the category repository. */
+        private final String m_repositoryPath;
+
+        /** The category folders by structure id. */
+        private final Map<CmsUUID, CmsResource> m_resources;
+
+        /**
+         * Creates a new category tree.<p>
+         *
+         * @param repositoryPath the root path of the category repository
+         * @param categories all categories of the repository
+         * @param resources the category folders
+         */
+        public CmsCategoryTree(String repositoryPath, List<CmsCategory> categories, List<CmsResource> resources) {
+
+            m_repositoryPath = repositoryPath;
+            List<CmsCategory> sorted = new ArrayList<CmsCategory>(categories);
+            Collections.sort(sorted);
+            m_categories = Collections.unmodifiableList(sorted);
+            m_byRootPath = new HashMap<String, CmsCategory>();
+            m_byStructureId = new HashMap<CmsUUID, CmsCategory>();
+            for (CmsCategory category : m_categories) {
+                m_byRootPath.put(category.getRootPath(), category);
+                m_byStructureId.put(category.getId(), category);
+            }
+            m_resources = new HashMap<CmsUUID, CmsResource>();
+            for (CmsResource resource : resources) {
+                m_resources.put(resource.getStructureId(), resource);
+            }
+        }
+
+        /**
+         * Returns all categories of the repository, sorted.<p>
+         *
+         * @return all categories of the repository
+         */
+        public List<CmsCategory> getCategories() {
+
+            return m_categories;
+        }
+
+        /**
+         * Returns the category with the given root path.<p>
+         *
+         * @param rootPath the root path of the category folder
+         *
+         * @return the category, or <code>null</code> if not found
+         */
+        public CmsCategory getCategory(String rootPath) {
+
+            return m_byRootPath.get(rootPath);
+        }
+
+        /**
+         * Returns the category with the given structure id.<p>
+         *
+         * @param structureId the structure id of the category folder
+         *
+         * @return the category, or <code>null</code> if not found
+         */
+        public CmsCategory getCategory(CmsUUID structureId) {
+
+            return m_byStructureId.get(structureId);
+        }
+
+        /**
+         * Returns the root path of the category repository.<p>
+         *
+         * @return the root path of the category repository
+         */
+        public String getRepositoryPath() {
+
+            return m_repositoryPath;
+        }
+
+        /**
+         * Returns the category folder with the given structure id.<p>
+         *
+         * @param structureId the structure id of the category folder
+         *
+         * @return the category folder, or <code>null</code> if not found
+         */
+        public CmsResource getResource(CmsUUID structureId) {
+
+            return m_resources.get(structureId);
+        }
+
+        /**
+         * Returns the categories below the given root path.<p>
+         *
+         * @param rootPath the root path of the parent category folder, which is not part of the result
+         * @param includeSubCats if to include all categories, or first level child categories only
+         *
+         * @return the categories below the given root path, sorted
+         */
+        public List<CmsCategory> getSubCategories(String rootPath, boolean includeSubCats) {
+
+            List<CmsCategory> result = new ArrayList<CmsCategory>();
+            for (CmsCategory category : m_categories) {
+                String path = category.getRootPath();
+                if ((path.length() > rootPath.length())
+                    && path.startsWith(rootPath)
+                    && (includeSubCats || (path.indexOf('/', rootPath.length()) == (path.length() - 1)))) {
+                    result.add(category);
+                }
+            }
+            return result;
+        }
+    }
+
+    /** The offline repository base folder name. */
+    private volatile String m_baseFolderOffline;
+
+    /** The online repository base folder name. */
+    private volatile String m_baseFolderOnline;
+
+    /** The offline category trees, by repository root path. */
+    private Map<String, CmsCategoryTree> m_treesOffline;
+
+    /** The online category trees, by repository root path. */
+    private Map<String, CmsCategoryTree> m_treesOnline;
+
+    /**
+     * Initializes a new cache and registers it as event listener.<p>
+     */
+    public CmsCategoryCache() {
+
+        m_treesOffline = Collections.synchronizedMap(new HashMap<String, CmsCategoryTree>());
+        m_treesOnline = Collections.synchronizedMap(new HashMap<String, CmsCategoryTree>());
+        registerEventListener();
+    }
+
+    /**
+     * @see org.opencms.cache.CmsVfsCache#cmsEvent(org.opencms.main.CmsEvent)
+     */
+    @Override
+    public void cmsEvent(CmsEvent event) {
+
+        if (event.getType() == I_CmsEventListener.EVENT_PROPERTY_MODIFIED) {
+            // titles, descriptions and the base folder name are properties
+            uncacheResource((CmsResource)event.getData().get(I_CmsEventListener.KEY_RESOURCE));
+            return;
+        }
+        super.cmsEvent(event);
+    }
+
+    /**
+     * Returns the cached repository base folder name.<p>
+     *
+     * @param online if the base folder name of the online project is requested
+     *
+     * @return the cached repository base folder name, or <code>null</code> if not cached
+     */
+    public String getBaseFolder(boolean online) {
+
+        return online ? m_baseFolderOnline : m_baseFolderOffline;
+    }
+
+    /**
+     * Returns the cached category tree of the given repository.<p>
+     *
+     * @param repositoryPath the root path of the category repository
+     * @param online if the tree of the online project is requested
+     *
+     * @return the cached category tree, or <code>null</code> if not cached
+     */
+    public CmsCategoryTree getCategoryTree(String repositoryPath, boolean online) {
+
+        return online ? m_treesOnline.get(repositoryPath) : m_treesOffline.get(repositoryPath);
+    }
+
+    /**
+     * Caches the given repository base folder name.<p>
+     *
+     * @param baseFolder the repository base folder name
+     * @param online if the base folder name is for the online project
+     */
+    public void setBaseFolder(String baseFolder, boolean online) {
+
+        if (online) {
+            m_baseFolderOnline = baseFolder;
+        } else {
+            m_baseFolderOffline = baseFolder;
+        }
+    }
+
+    /**
+     * Caches the given category tree.<p>
+     *
+     * @param tree the category tree
+     * @param online if the tree is for the online project
+     */
+    public void setCategoryTree(CmsCategoryTree tree, boolean online) {
+
+        if (online) {
+            m_treesOnline.put(tree.getRepositoryPath(), tree);
+        } else {
+            m_treesOffline.put(tree.getRepositoryPath(), tree);
+        }
+    }
+
+    /**
+     * @see org.opencms.cache.CmsVfsCache#flush(boolean)
+     */
+    @Override
+    protected void flush(boolean online) {
+
+        if (online) {
+            m_treesOnline.clear();
+            m_baseFolderOnline = null;
+        } else {
+            m_treesOffline.clear();
+            m_baseFolderOffline = null;
+        }
+    }
+
+    /**
+     * @see org.opencms.cache.CmsVfsCache#registerEventListener()
+     */
+    @Override
+    protected void registerEventListener() {
+
+        super.registerEventListener();
+        OpenCms.addCmsEventListener(this, new int[] {I_CmsEventListener.EVENT_PROPERTY_MODIFIED});
+    }
+
+    /**
+     * @see org.opencms.cache.CmsVfsCache#uncacheResource(org.opencms.file.CmsResource)
+     */
+    @Override
+    protected void uncacheResource(CmsResource resource) {
+
+        if (resource == null) {
+            return;
+        }
+        String rootPath = resource.getRootPath();
+        if (rootPath.equals(CmsCategoryService.CENTRALIZED_REPOSITORY)) {
+            // the base folder name of all repositories is a property of the centralized repository
+            flush(false);
+            return;
+        }
+        synchronized (m_treesOffline) {
+            Iterator<String> it = m_treesOffline.keySet().iterator();
+            while (it.hasNext()) {
+                String repositoryPath = it.next();
+                // remove the trees the resource belongs to, and the trees below a changed folder
+                if (rootPath.startsWith(repositoryPath)
+                    || (CmsResource.isFolder(rootPath) && repositoryPath.startsWith(rootPath))) {
+                    it.remove();
+                }
+            }
+        }
+    }
+}
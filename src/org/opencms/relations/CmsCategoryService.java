@@ -37,13 +37,20 @@ import org.opencms.file.types.CmsResourceTypeFolder;
 import org.opencms.lock.CmsLock;
 import org.opencms.main.CmsException;
 import org.opencms.main.CmsLog;
+import org.opencms.main.OpenCms;
+import org.opencms.relations.CmsCategoryCache.CmsCategoryTree;
+import org.opencms.security.CmsPermissionSet;
+import org.opencms.security.CmsRole;
 import org.opencms.util.CmsStringUtil;
+import org.opencms.util.CmsUUID;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import org.apache.commons.logging.Log;
@@ -69,6 +76,12 @@ public class CmsCategoryService {
     /** The folder for the local category repositories. */
     private static final String REPOSITORY_BASE_FOLDER = "/_categories/";
 
+    /** The admin context to read the category trees with, which are shared by all users. */
+    private CmsObject m_adminCms;
+
+    /** The cache for the category trees. */
+    private CmsCategoryCache m_cache = new CmsCategoryCache();
+
     /**
      * Returns the singleton instance.<p>
      * 
@@ -283,14 +296,7 @@ public class CmsCategoryService {
      */
     public CmsCategory getCategory(CmsObject cms, CmsResource resource) throws CmsException {
 
-        CmsProperty title = cms.readPropertyObject(resource, CmsPropertyDefinition.PROPERTY_TITLE, false);
-        CmsProperty description = cms.readPropertyObject(resource, CmsPropertyDefinition.PROPERTY_DESCRIPTION, false);
-        return new CmsCategory(
-            resource.getStructureId(),
-            resource.getRootPath(),
-            title.getValue(resource.getName()),
-            description.getValue(""),
-            getRepositoryBaseFolderName(cms));
+        return internalCreateCategory(cms, resource, getRepositoryBaseFolderName(cms));
     }
 
     /**
@@ -354,6 +360,11 @@ public class CmsCategoryService {
      */
     public String getRepositoryBaseFolderName(CmsObject cms) {
 
+        boolean online = cms.getRequestContext().getCurrentProject().isOnlineProject();
+        String cached = m_cache.getBaseFolder(online);
+        if (cached != null) {
+            return cached;
+        }
         try {
             String value = cms.readPropertyObject(
                 CmsCategoryService.CENTRALIZED_REPOSITORY,
@@ -365,6 +376,7 @@ public class CmsCategoryService {
             if (!value.startsWith("/")) {
                 value = "/" + value;
             }
+            m_cache.setBaseFolder(value, online);
             return value;
         } catch (CmsException e) {
             if (LOG.isErrorEnabled()) {
@@ -374,6 +386,22 @@ public class CmsCategoryService {
         }
     }
 
+    /**
+     * Initializes the category service with the admin context used to read the category trees.<p>
+     * 
+     * The category trees are cached for all users, so they are read with this context 
+     * and filtered by the read permissions of the current user afterwards.<p>
+     * 
+     * @param adminCms a cms context with root administrator permissions
+     * 
+     * @throws CmsException if the given context has not the root administrator role
+     */
+    public void initialize(CmsObject adminCms) throws CmsException {
+
+        OpenCms.getRoleManager().checkRole(adminCms, CmsRole.ROOT_ADMIN);
+        m_adminCms = OpenCms.initCmsObject(adminCms);
+    }
+
     /**
      * Renames/Moves a category from the old path to the new one.<p>
      * 
@@ -482,10 +510,18 @@ public class CmsCategoryService {
         while (it.hasNext()) {
             String repository = (String)it.next();
             try {
-                cats.addAll(internalReadSubCategories(
-                    cms,
-                    internalCategoryRootPath(repository, catPath),
-                    includeSubCats));
+                String repositoryPath = cms.getRequestContext().addSiteRoot(repository);
+                CmsCategoryTree tree = internalReadCategoryTree(cms, repositoryPath);
+                String rootPath = internalCategoryRootPath(repositoryPath, catPath);
+                if (rootPath.equals(repositoryPath) || (tree.getCategory(rootPath) != null)) {
+                    Iterator<CmsCategory> itCategories = tree.getSubCategories(rootPath, includeSubCats).iterator();
+                    while (itCategories.hasNext()) {
+                        CmsCategory category = itCategories.next();
+                        if (internalIsReadable(cms, tree, category)) {
+                            cats.add(category);
+                        }
+                    }
+                }
             } catch (CmsVfsResourceNotFoundException e) {
                 // it may be that the given category is not defined in this repository
                 // just ignore
@@ -533,7 +569,19 @@ public class CmsCategoryService {
         while (it.hasNext()) {
             String repository = (String)it.next();
             try {
-                return getCategory(cms, internalCategoryRootPath(repository, categoryPath));
+                String repositoryPath = cms.getRequestContext().addSiteRoot(repository);
+                String rootPath = internalCategoryRootPath(repositoryPath, categoryPath);
+                if (!rootPath.equals(repositoryPath)) {
+                    CmsCategoryTree tree = internalReadCategoryTree(cms, repositoryPath);
+                    CmsCategory category = tree.getCategory(rootPath);
+                    if ((category != null) && internalIsReadable(cms, tree, category)) {
+                        return category;
+                    }
+                }
+                // not in this repository or not readable, let the last one fail with the usual exception
+                if (rootPath.equals(repositoryPath) || !it.hasNext()) {
+                    return getCategory(cms, internalCategoryRootPath(repository, categoryPath));
+                }
             } catch (CmsVfsResourceNotFoundException e) {
                 // throw the exception if no repository left
                 if (!it.hasNext()) {
@@ -644,6 +692,52 @@ public class CmsCategoryService {
         return internalReadResourceCategories(cms, resource, false);
     }
 
+    /**
+     * Reads the categories for all given resources at once.<p>
+     * 
+     * The category relations of all resources are read at once, and the categories are resolved 
+     * from the cached category trees.<p>
+     * 
+     * @param cms the current cms context
+     * @param resources the resources to get the categories for
+     * 
+     * @return a map from each resource, in the given order, to its sorted categories list
+     * 
+     * @throws CmsException if something goes wrong
+     */
+    public Map<CmsResource, List<CmsCategory>> readResourceCategories(CmsObject cms, List<CmsResource> resources)
+    throws CmsException {
+
+        Map<CmsResource, List<CmsCategory>> result = new LinkedHashMap<CmsResource, List<CmsCategory>>();
+        if (resources.isEmpty()) {
+            return result;
+        }
+        Map<CmsUUID, List<CmsRelation>> relations = cms.getRelationsForResources(
+            resources,
+            CmsRelationFilter.TARGETS.filterType(CmsRelationType.CATEGORY));
+        Iterator<CmsResource> it = resources.iterator();
+        while (it.hasNext()) {
+            CmsResource resource = it.next();
+            List<CmsCategory> categories = new ArrayList<CmsCategory>();
+            List<CmsRelation> resourceRelations = relations.get(resource.getStructureId());
+            if (resourceRelations != null) {
+                Iterator<CmsRelation> itRelations = resourceRelations.iterator();
+                while (itRelations.hasNext()) {
+                    try {
+                        categories.add(internalResolveCategory(cms, itRelations.next()));
+                    } catch (CmsException e) {
+                        if (LOG.isErrorEnabled()) {
+                            LOG.error(e.getLocalizedMessage(), e);
+                        }
+                    }
+                }
+                Collections.sort(categories);
+            }
+            result.put(resource, categories);
+        }
+        return result;
+    }
+
     /**
      * Reads the categories for a resource identified by the given resource name.<p>
      * 
@@ -780,6 +874,97 @@ public class CmsCategoryService {
         }
     }
 
+    /**
+     * Creates a category from the given resource.<p>
+     * 
+     * @param cms the cms context
+     * @param resource the resource
+     * @param baseFolder the category repositories base folder name
+     * 
+     * @return a category object
+     * 
+     * @throws CmsException if something goes wrong 
+     */
+    private CmsCategory internalCreateCategory(CmsObject cms, CmsResource resource, String baseFolder)
+    throws CmsException {
+
+        CmsProperty title = cms.readPropertyObject(resource, CmsPropertyDefinition.PROPERTY_TITLE, false);
+        CmsProperty description = cms.readPropertyObject(resource, CmsPropertyDefinition.PROPERTY_DESCRIPTION, false);
+        return new CmsCategory(
+            resource.getStructureId(),
+            resource.getRootPath(),
+            title.getValue(resource.getName()),
+            description.getValue(""),
+            baseFolder);
+    }
+
+    /**
+     * Checks if the given category of a category tree can be read by the current user at the current request time.<p>
+     * 
+     * @param cms the current cms context
+     * @param tree the category tree
+     * @param category the category of the tree
+     * 
+     * @return <code>true</code> if the current user can read the category
+     */
+    private boolean internalIsReadable(CmsObject cms, CmsCategoryTree tree, CmsCategory category) {
+
+        CmsResource resource = tree.getResource(category.getId());
+        if (!CmsResourceFilter.DEFAULT.isValid(cms.getRequestContext(), resource)) {
+            // the category folder is not released yet or already expired
+            return false;
+        }
+        try {
+            return cms.hasPermissions(resource, CmsPermissionSet.ACCESS_READ);
+        } catch (CmsException e) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug(e.getLocalizedMessage(), e);
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Returns the category tree of the given repository, from the cache if possible.<p>
+     * 
+     * The tree is read with the admin context and contains all categories regardless of their release 
+     * and expiration dates, the categories have to be filtered by the read permissions of the current user
+     * and the current request time.<p>
+     * 
+     * @param cms the current cms context
+     * @param repositoryPath the root path of the category repository
+     * 
+     * @return the category tree
+     * 
+     * @throws CmsException if something goes wrong
+     */
+    private CmsCategoryTree internalReadCategoryTree(CmsObject cms, String repositoryPath) throws CmsException {
+
+        boolean online = cms.getRequestContext().getCurrentProject().isOnlineProject();
+        CmsCategoryTree tree = m_cache.getCategoryTree(repositoryPath, online);
+        if (tree == null) {
+            // without admin context, the tree only contains the categories readable by the current user
+            CmsObject treeCms = OpenCms.initCmsObject((m_adminCms != null) ? m_adminCms : cms);
+            treeCms.getRequestContext().setCurrentProject(cms.getRequestContext().getCurrentProject());
+            treeCms.getRequestContext().setSiteRoot("");
+            List<CmsResource> resources = treeCms.readResources(
+                repositoryPath,
+                CmsResourceFilter.IGNORE_EXPIRATION.addRequireType(CmsResourceTypeFolder.RESOURCE_TYPE_ID),
+                true);
+            String baseFolder = getRepositoryBaseFolderName(treeCms);
+            List<CmsCategory> categories = new ArrayList<CmsCategory>();
+            Iterator<CmsResource> it = resources.iterator();
+            while (it.hasNext()) {
+                categories.add(internalCreateCategory(treeCms, it.next(), baseFolder));
+            }
+            tree = new CmsCategoryTree(repositoryPath, categories, resources);
+            if (m_adminCms != null) {
+                m_cache.setCategoryTree(tree, online);
+            }
+        }
+        return tree;
+    }
+
     /**
      * Reads/Repairs the categories for a resource identified by the given resource name.<p>
      * 
@@ -809,11 +994,11 @@ public class CmsCategoryService {
         while (itRelations.hasNext()) {
             CmsRelation relation = (CmsRelation)itRelations.next();
             try {
-                CmsResource res = relation.getTarget(cms, CmsResourceFilter.DEFAULT_FOLDERS);
-                CmsCategory category = getCategory(cms, res);
                 if (!repair) {
-                    result.add(category);
+                    result.add(internalResolveCategory(cms, relation));
                 } else {
+                    CmsResource res = relation.getTarget(cms, CmsResourceFilter.DEFAULT_FOLDERS);
+                    CmsCategory category = internalCreateCategory(cms, res, baseFolder);
                     CmsCategory actualCat = readCategory(cms, category.getPath(), resourceName);
                     if (!category.getId().equals(actualCat.getId())) {
                         // repair broken categories caused by creation/deletion of 
@@ -875,29 +1060,57 @@ public class CmsCategoryService {
     }
 
     /**
-     * Returns all sub categories of the given one, including sub sub categories if needed.<p>
+     * Returns the root path of the category repository that contains the given category root path.<p>
+     * 
+     * @param rootPath the category root path
+     * @param baseFolder the category repositories base folder name
+     * 
+     * @return the root path of the category repository, or <code>null</code> if the path is not in a repository
+     */
+    private String internalRepositoryPath(String rootPath, String baseFolder) {
+
+        if (rootPath.startsWith(CmsCategoryService.CENTRALIZED_REPOSITORY)) {
+            return CmsCategoryService.CENTRALIZED_REPOSITORY;
+        }
+        int pos = rootPath.indexOf(baseFolder);
+        if (pos < 0) {
+            return null;
+        }
+        return rootPath.substring(0, pos + baseFolder.length());
+    }
+
+    /**
+     * Returns the category that is the target of the given category relation.<p>
+     * 
+     * The category is looked up in the cached tree of its repository, and only read
+     * from the VFS if it is not found there or not readable by the current user.<p>
      * 
      * @param cms the current cms context
-     * @param rootPath the base category's root path (this category is not part of the result)
-     * @param includeSubCats flag to indicate if sub categories should also be read
+     * @param relation the category relation
      * 
-     * @return a list of {@link CmsCategory} objects
+     * @return the category
      * 
      * @throws CmsException if something goes wrong
      */
-    private List<CmsCategory> internalReadSubCategories(CmsObject cms, String rootPath, boolean includeSubCats)
-    throws CmsException {
+    private CmsCategory internalResolveCategory(CmsObject cms, CmsRelation relation) throws CmsException {
 
-        List<CmsCategory> categories = new ArrayList<CmsCategory>();
-        List<CmsResource> resources = cms.readResources(
-            cms.getRequestContext().removeSiteRoot(rootPath),
-            CmsResourceFilter.DEFAULT.addRequireType(CmsResourceTypeFolder.RESOURCE_TYPE_ID),
-            includeSubCats);
-        Iterator<CmsResource> it = resources.iterator();
-        while (it.hasNext()) {
-            CmsResource resource = it.next();
-            categories.add(getCategory(cms, resource));
+        String baseFolder = getRepositoryBaseFolderName(cms);
+        String repositoryPath = internalRepositoryPath(relation.getTargetPath(), baseFolder);
+        if (repositoryPath != null) {
+            try {
+                CmsCategoryTree tree = internalReadCategoryTree(cms, repositoryPath);
+                CmsCategory category = tree.getCategory(relation.getTargetId());
+                if ((category != null) && internalIsReadable(cms, tree, category)) {
+                    return category;
+                }
+            } catch (CmsVfsResourceNotFoundException e) {
+                // the repository does not exist anymore, the relation may be broken
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug(e.getLocalizedMessage(), e);
+                }
+            }
         }
-        return categories;
+        CmsResource res = relation.getTarget(cms, CmsResourceFilter.DEFAULT_FOLDERS);
+        return internalCreateCategory(cms, res, baseFolder);
     }
 }
\ No newline at end of file
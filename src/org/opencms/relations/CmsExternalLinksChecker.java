@@ -0,0 +1,456 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.relations;
+
+import org.opencms.main.CmsLog;
+import org.opencms.util.CmsUriSplitter;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.logging.Log;
+
+/**
+ * Checks absolute http and https URLs concurrently.<p>
+ *
+ * The URLs are checked by a bounded pool of worker threads. The URLs of one host are
+ * never checked by more than a configured number of connections at the same time, and
+ * two requests to the same host are at least a configured delay apart.<p>
+ *
+ * Every URL is first requested with <code>HEAD</code>. If the server does not answer
+ * with status 200, the URL is requested again with <code>GET</code>, since many servers
+ * do not implement <code>HEAD</code> properly.<p>
+ *
+ * Valid URLs are remembered for a configurable time in a cache that is shared by all
+ * checkers, so a scheduled validation does not check unchanged URLs again on every run.
+ * Broken URLs are always checked again.<p>
+ *
+ * @since 8.0.2
+ *
+ * @see CmsExternalLinksValidator
+ */
+public class CmsExternalLinksChecker {
+
+    /** The default time in milliseconds a valid URL is not checked again. */
+    public static final long DEFAULT_CACHE_TTL = 7L * 24L * 60L * 60L * 1000L;
+
+    /** The default maximum number of concurrent connections to one host. */
+    public static final int DEFAULT_HOST_CONNECTIONS = 2;
+
+    /** The default minimum delay in milliseconds between two requests to one host. */
+    public static final long DEFAULT_HOST_DELAY = 200;
+
+    /** The default number of worker threads. */
+    public static final int DEFAULT_THREADS = 16;
+
+    /** The default connect and read timeout in milliseconds. */
+    public static final int DEFAULT_TIMEOUT = 10000;
+
+    /** The log object for this class. */
+    private static final Log LOG = CmsLog.getLog(CmsExternalLinksChecker.class);
+
+    /** The cache of valid URLs, from URL to the time the URL was checked. */
+    private static final Map<String, Long> VALID_URLS = new ConcurrentHashMap<String, Long>();
+
+    /** The time in milliseconds a valid URL is not checked again. */
+    private long m_cacheTtl;
+
+    /** The maximum number of concurrent connections to one host. */
+    private int m_hostConnections;
+
+    /** The minimum delay in milliseconds between two requests to one host. */
+    private long m_hostDelay;
+
+    /** The number of worker threads. */
+    private int m_threads;
+
+    /** The connect and read timeout in milliseconds. */
+    private int m_timeout;
+
+    /**
+     * Creates a new checker with the default settings.<p>
+     */
+    public CmsExternalLinksChecker() {
+
+        this(DEFAULT_THREADS, DEFAULT_HOST_CONNECTIONS, DEFAULT_HOST_DELAY, DEFAULT_TIMEOUT, DEFAULT_CACHE_TTL);
+    }
+
+    /**
+     * Creates a new checker.<p>
+     *
+     * @param threads the number of worker threads
+     * @param hostConnections the maximum number of concurrent connections to one host
+     * @param hostDelay the minimum delay in milliseconds between two requests to one host
+     * @param timeout the connect and read timeout in milliseconds
+     * @param cacheTtl the time in milliseconds a valid URL is not checked again,
+     *      if <code>0</code> valid URLs are not cached
+     */
+    public CmsExternalLinksChecker(int threads, int hostConnections, long hostDelay, int timeout, long cacheTtl) {
+
+        m_threads = Math.max(1, threads);
+        m_hostConnections = Math.max(1, hostConnections);
+        m_hostDelay = Math.max(0, hostDelay);
+        m_timeout = Math.max(0, timeout);
+        m_cacheTtl = Math.max(0, cacheTtl);
+    }
+
+    /**
+     * Removes all URLs from the cache of valid URLs.<p>
+     */
+    public static void clearCache() {
+
+        VALID_URLS.clear();
+    }
+
+    /**
+     * Checks the given absolute URL.<p>
+     *
+     * Only http and https URLs are requested, all other absolute URLs are valid.<p>
+     *
+     * @param check the URL to check
+     *
+     * @return <code>true</code> if the URL could be accessed
+     */
+    public boolean checkUrl(String check) {
+
+        if (isCached(check)) {
+            return true;
+        }
+        URL url;
+        try {
+            url = new CmsUriSplitter(check, true).toURI().toURL();
+        } catch (Exception e) {
+            return false;
+        }
+        if (!"http".equals(url.getProtocol()) && !"https".equals(url.getProtocol())) {
+            return true;
+        }
+        boolean valid;
+        try {
+            int status = getStatus(url, "HEAD");
+            if (status != HttpURLConnection.HTTP_OK) {
+                // the server may not support HEAD for this resource
+                status = getStatus(url, "GET");
+            }
+            valid = (status == HttpURLConnection.HTTP_OK);
+        } catch (IOException e) {
+            // timeouts and unknown hosts end up here
+            if (LOG.isDebugEnabled()) {
+                LOG.debug(Messages.get().getBundle().key(Messages.LOG_EXTERNAL_LINK_CHECK_FAILED_1, check), e);
+            }
+            valid = false;
+        }
+        if (valid && (m_cacheTtl > 0)) {
+            VALID_URLS.put(check, new Long(System.currentTimeMillis()));
+        }
+        return valid;
+    }
+
+    /**
+     * Checks the given URLs concurrently.<p>
+     *
+     * The URLs that are not absolute http or https URLs are checked by the calling thread.<p>
+     *
+     * @param urls the URLs to check
+     *
+     * @return a map from each of the given URLs to <code>true</code> if the URL could be accessed
+     */
+    public Map<String, Boolean> checkUrls(Collection<String> urls) {
+
+        removeExpired();
+        Map<String, Boolean> result = new HashMap<String, Boolean>();
+        // group the URLs to check by host, keeping the given order
+        Map<String, LinkedList<String>> hosts = new HashMap<String, LinkedList<String>>();
+        Iterator<String> i = urls.iterator();
+        while (i.hasNext()) {
+            String url = i.next();
+            if (result.containsKey(url)) {
+                continue;
+            }
+            String host = getHost(url);
+            if ((host == null) || isCached(url)) {
+                result.put(url, Boolean.valueOf(checkUrl(url)));
+                continue;
+            }
+            LinkedList<String> queue = hosts.get(host);
+            if (queue == null) {
+                queue = new LinkedList<String>();
+                hosts.put(host, queue);
+            }
+            if (!queue.contains(url)) {
+                queue.add(url);
+            }
+        }
+        if (hosts.isEmpty()) {
+            return result;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(m_threads);
+        List<Future<Map<String, Boolean>>> futures = new ArrayList<Future<Map<String, Boolean>>>();
+        try {
+            Iterator<LinkedList<String>> j = hosts.values().iterator();
+            while (j.hasNext()) {
+                CmsHostQueue queue = new CmsHostQueue(j.next());
+                // each host is worked on by at most the allowed number of connections
+                int workers = Math.min(m_hostConnections, queue.size());
+                for (int k = 0; k < workers; k++) {
+                    futures.add(executor.submit(new CmsHostWorker(queue)));
+                }
+            }
+            Iterator<Future<Map<String, Boolean>>> k = futures.iterator();
+            while (k.hasNext()) {
+                try {
+                    result.putAll(k.next().get());
+                } catch (ExecutionException e) {
+                    LOG.error(e.getLocalizedMessage(), e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+        }
+        // URLs that could not be checked are broken
+        i = urls.iterator();
+        while (i.hasNext()) {
+            String url = i.next();
+            if (!result.containsKey(url)) {
+                result.put(url, Boolean.FALSE);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the maximum number of concurrent connections to one host.<p>
+     *
+     * @return the maximum number of concurrent connections to one host
+     */
+    public int getHostConnections() {
+
+        return m_hostConnections;
+    }
+
+    /**
+     * Returns the number of worker threads.<p>
+     *
+     * @return the number of worker threads
+     */
+    public int getThreads() {
+
+        return m_threads;
+    }
+
+    /**
+     * Returns the host of the given URL, or <code>null</code> if the URL is not an
+     * absolute http or https URL.<p>
+     *
+     * @param check the URL
+     *
+     * @return the host of the URL
+     */
+    private static String getHost(String check) {
+
+        try {
+            URI uri = new CmsUriSplitter(check, true).toURI();
+            if (uri.isAbsolute()
+                && ("http".equalsIgnoreCase(uri.getScheme()) || "https".equalsIgnoreCase(uri.getScheme()))
+                && (uri.getHost() != null)) {
+                return uri.getHost().toLowerCase() + ":" + uri.getPort();
+            }
+        } catch (Exception e) {
+            // not a valid URI
+        }
+        return null;
+    }
+
+    /**
+     * Requests the given URL with the given method and returns the response status.<p>
+     *
+     * @param url the URL to request
+     * @param method the request method
+     *
+     * @return the response status
+     *
+     * @throws IOException if the URL could not be requested
+     */
+    private int getStatus(URL url, String method) throws IOException {
+
+        HttpURLConnection connection = (HttpURLConnection)url.openConnection();
+        try {
+            connection.setRequestMethod(method);
+            connection.setConnectTimeout(m_timeout);
+            connection.setReadTimeout(m_timeout);
+            connection.setUseCaches(false);
+            return connection.getResponseCode();
+        } finally {
+            // the response body is not needed
+            connection.disconnect();
+        }
+    }
+
+    /**
+     * Checks if the given URL was found valid within the cache time.<p>
+     *
+     * @param url the URL
+     *
+     * @return <code>true</code> if the URL was found valid within the cache time
+     */
+    private boolean isCached(String url) {
+
+        if (m_cacheTtl <= 0) {
+            return false;
+        }
+        Long checked = VALID_URLS.get(url);
+        return (checked != null) && ((System.currentTimeMillis() - checked.longValue()) < m_cacheTtl);
+    }
+
+    /**
+     * Removes the URLs from the cache that have not been checked within the cache time.<p>
+     */
+    private void removeExpired() {
+
+        if (m_cacheTtl <= 0) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        Iterator<Map.Entry<String, Long>> i = VALID_URLS.entrySet().iterator();
+        while (i.hasNext()) {
+            Map.Entry<String, Long> entry = i.next();
+            if ((now - entry.getValue().longValue()) >= m_cacheTtl) {
+                i.remove();
+            }
+        }
+    }
+
+    /**
+     * The URLs of one host that are still to be checked.<p>
+     */
+    private class CmsHostQueue {
+
+        /** The earliest time the next request to the host may start. */
+        private long m_nextRequest;
+
+        /** The URLs to check. */
+        private LinkedList<String> m_urls;
+
+        /**
+         * Creates a new queue.<p>
+         *
+         * @param urls the URLs to check
+         */
+        CmsHostQueue(LinkedList<String> urls) {
+
+            m_urls = urls;
+        }
+
+        /**
+         * Returns the next URL to check, and waits until the request may start.<p>
+         *
+         * @return the next URL to check, or <code>null</code> if there are no more URLs
+         *
+         * @throws InterruptedException if the thread is interrupted while waiting
+         */
+        String next() throws InterruptedException {
+
+            String url;
+            long start;
+            synchronized (this) {
+                if (m_urls.isEmpty()) {
+                    return null;
+                }
+                url = m_urls.removeFirst();
+                start = Math.max(System.currentTimeMillis(), m_nextRequest);
+                m_nextRequest = start + m_hostDelay;
+            }
+            long wait = start - System.currentTimeMillis();
+            if (wait > 0) {
+                Thread.sleep(wait);
+            }
+            return url;
+        }
+
+        /**
+         * Returns the number of URLs to check.<p>
+         *
+         * @return the number of URLs to check
+         */
+        synchronized int size() {
+
+            return m_urls.size();
+        }
+    }
+
+    /**
+     * Checks the URLs of a host queue one after another.<p>
+     */
+    private class CmsHostWorker implements Callable<Map<String, Boolean>> {
+
+        /** The queue to work on. */
+        private CmsHostQueue m_queue;
+
+        /**
+         * Creates a new worker.<p>
+         *
+         * @param queue the queue to work on
+         */
+        CmsHostWorker(CmsHostQueue queue) {
+
+            m_queue = queue;
+        }
+
+        /**
+         * @see java.util.concurrent.Callable#call()
+         */
+        public Map<String, Boolean> call() throws InterruptedException {
+
+            Map<String, Boolean> result = new HashMap<String, Boolean>();
+            String url = m_queue.next();
+            while (url != null) {
+                result.put(url, Boolean.valueOf(checkUrl(url)));
+                url = m_queue.next();
+            }
+            return result;
+        }
+    }
+}
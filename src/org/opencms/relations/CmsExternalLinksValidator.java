@@ -33,29 +33,64 @@ import org.opencms.file.CmsResource;
 import org.opencms.file.CmsResourceFilter;
 import org.opencms.file.types.CmsResourceTypePointer;
 import org.opencms.main.CmsException;
+import org.opencms.main.CmsLog;
 import org.opencms.main.OpenCms;
 import org.opencms.report.CmsLogReport;
 import org.opencms.report.I_CmsReport;
 import org.opencms.scheduler.I_CmsScheduledJob;
+import org.opencms.util.CmsStringUtil;
 import org.opencms.util.CmsUriSplitter;
 
-import java.net.HttpURLConnection;
-import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.net.URL;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
+import org.apache.commons.logging.Log;
+
 /**
  * Class to validate pointer links.<p>
  * 
+ * The absolute links are checked concurrently by a {@link CmsExternalLinksChecker}.
+ * When the validator is run as a scheduled job, the checker can be configured with the 
+ * following job parameters:<p>
+ * 
+ * <ul>
+ * <li><code>threads</code>: the number of worker threads</li>
+ * <li><code>hostConnections</code>: the maximum number of concurrent connections to one host</li>
+ * <li><code>hostDelay</code>: the minimum delay in milliseconds between two requests to one host</li>
+ * <li><code>timeout</code>: the connect and read timeout in milliseconds</li>
+ * <li><code>cacheTtl</code>: the time in milliseconds a valid link is not checked again</li>
+ * </ul>
+ * 
  * @since 6.0.0 
  */
 public class CmsExternalLinksValidator implements I_CmsScheduledJob {
 
+    /** Job parameter name for the time in milliseconds a valid link is not checked again. */
+    public static final String PARAM_CACHE_TTL = "cacheTtl";
+
+    /** Job parameter name for the maximum number of concurrent connections to one host. */
+    public static final String PARAM_HOST_CONNECTIONS = "hostConnections";
+
+    /** Job parameter name for the minimum delay in milliseconds between two requests to one host. */
+    public static final String PARAM_HOST_DELAY = "hostDelay";
+
+    /** Job parameter name for the number of worker threads. */
+    public static final String PARAM_THREADS = "threads";
+
+    /** Job parameter name for the connect and read timeout in milliseconds. */
+    public static final String PARAM_TIMEOUT = "timeout";
+
+    /** The log object for this class. */
+    private static final Log LOG = CmsLog.getLog(CmsExternalLinksValidator.class);
+
+    /** The checker for the absolute links. */
+    private CmsExternalLinksChecker m_checker;
+
     /** The report for the output. */
     private I_CmsReport m_report;
 
@@ -80,17 +115,8 @@ public class CmsExternalLinksValidator implements I_CmsScheduledJob {
             if (!uri.isAbsolute()) {
                 return cms.existsResource(cms.getRequestContext().removeSiteRoot(uri.getPath()));
             } else {
-                URL url = uri.toURL();
-                if ("http".equals(url.getProtocol())) {
-                    // ensure that file is encoded properly
-                    HttpURLConnection httpcon = (HttpURLConnection)url.openConnection();
-                    return (httpcon.getResponseCode() == 200);
-                } else {
-                    return true;
-                }
+                return new CmsExternalLinksChecker().checkUrl(check);
             }
-        } catch (MalformedURLException mue) {
-            return false;
         } catch (Exception ex) {
             return false;
         }
@@ -109,10 +135,26 @@ public class CmsExternalLinksValidator implements I_CmsScheduledJob {
         if (Boolean.valueOf((String)parameters.get("writeLog")).booleanValue()) {
             m_report = new CmsLogReport(cms.getRequestContext().getLocale(), CmsExternalLinksValidator.class);
         }
+        m_checker = new CmsExternalLinksChecker(
+            getParameter(parameters, PARAM_THREADS, CmsExternalLinksChecker.DEFAULT_THREADS),
+            getParameter(parameters, PARAM_HOST_CONNECTIONS, CmsExternalLinksChecker.DEFAULT_HOST_CONNECTIONS),
+            getParameter(parameters, PARAM_HOST_DELAY, CmsExternalLinksChecker.DEFAULT_HOST_DELAY),
+            getParameter(parameters, PARAM_TIMEOUT, CmsExternalLinksChecker.DEFAULT_TIMEOUT),
+            getParameter(parameters, PARAM_CACHE_TTL, CmsExternalLinksChecker.DEFAULT_CACHE_TTL));
         validateLinks(cms);
         return "CmsExternLinkValidator.launch(): Links checked.";
     }
 
+    /**
+     * Sets the checker for the absolute links.<p>
+     * 
+     * @param checker the checker for the absolute links
+     */
+    public void setChecker(CmsExternalLinksChecker checker) {
+
+        m_checker = checker;
+    }
+
     /** 
      * Sets the report for the output.<p>
      * 
@@ -140,25 +182,48 @@ public class CmsExternalLinksValidator implements I_CmsScheduledJob {
             Messages.get().container(Messages.RPT_VALIDATE_EXTERNAL_LINKS_BEGIN_0),
             I_CmsReport.FORMAT_HEADLINE);
 
+        if (m_checker == null) {
+            m_checker = new CmsExternalLinksChecker();
+        }
+
         // get all links
         int pointerId = OpenCms.getResourceManager().getResourceType(CmsResourceTypePointer.getStaticTypeName()).getTypeId();
         List links = cms.readResources("/", CmsResourceFilter.ONLY_VISIBLE_NO_DELETED.addRequireType(pointerId));
+        List linkPaths = new ArrayList(links.size());
+        List linkUrls = new ArrayList(links.size());
+        List absoluteUrls = new ArrayList();
         Iterator iterator = links.iterator();
-        Map brokenLinks = new HashMap();
-
-        for (int i = 1; iterator.hasNext(); i++) {
+        while (iterator.hasNext()) {
             CmsFile link = cms.readFile(cms.getSitePath((CmsResource)iterator.next()));
             String linkUrl = new String(link.getContents());
+            linkPaths.add(link.getRootPath());
+            linkUrls.add(linkUrl);
+            if (isAbsolute(linkUrl)) {
+                absoluteUrls.add(linkUrl);
+            }
+        }
+
+        // check the absolute links concurrently, the relative links are checked in the VFS below
+        m_report.println(Messages.get().container(
+            Messages.RPT_CHECK_EXTERNAL_LINKS_2,
+            new Integer(absoluteUrls.size()),
+            new Integer(m_checker.getThreads())), I_CmsReport.FORMAT_NOTE);
+        Map absoluteResults = m_checker.checkUrls(absoluteUrls);
+        Map brokenLinks = new HashMap();
+
+        for (int i = 0; i < linkPaths.size(); i++) {
+            String linkPath = (String)linkPaths.get(i);
+            String linkUrl = (String)linkUrls.get(i);
 
             // print to the report
             m_report.print(org.opencms.report.Messages.get().container(
                 org.opencms.report.Messages.RPT_SUCCESSION_1,
-                new Integer(i),
+                new Integer(i + 1),
                 new Integer(links.size())), I_CmsReport.FORMAT_NOTE);
             m_report.print(Messages.get().container(Messages.RPT_VALIDATE_LINK_0), I_CmsReport.FORMAT_NOTE);
             m_report.print(org.opencms.report.Messages.get().container(
                 org.opencms.report.Messages.RPT_ARGUMENT_1,
-                link.getRootPath()));
+                linkPath));
             m_report.print(Messages.get().container(Messages.GUI_LINK_POINTING_TO_0), I_CmsReport.FORMAT_NOTE);
             m_report.print(org.opencms.report.Messages.get().container(
                 org.opencms.report.Messages.RPT_ARGUMENT_1,
@@ -166,8 +231,9 @@ public class CmsExternalLinksValidator implements I_CmsScheduledJob {
             m_report.print(org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_DOTS_0));
 
             // check link and append it to the list of broken links, if test fails
-            if (!checkUrl(cms, linkUrl)) {
-                brokenLinks.put(link.getRootPath(), linkUrl);
+            Boolean valid = (Boolean)absoluteResults.get(linkUrl);
+            if ((valid == null) ? !checkUrl(cms, linkUrl) : !valid.booleanValue()) {
+                brokenLinks.put(linkPath, linkUrl);
                 m_report.println(Messages.get().container(Messages.RPT_BROKEN_0), I_CmsReport.FORMAT_ERROR);
             } else {
                 m_report.println(
@@ -186,4 +252,57 @@ public class CmsExternalLinksValidator implements I_CmsScheduledJob {
 
         OpenCms.getLinkManager().setPointerLinkValidationResult(new CmsExternalLinksValidationResult(brokenLinks));
     }
+
+    /**
+     * Returns the value of the given numeric job parameter.<p>
+     * 
+     * @param parameters the job parameters
+     * @param name the name of the parameter
+     * @param defaultValue the value to use if the parameter is not set or not a number
+     * 
+     * @return the value of the parameter
+     */
+    private int getParameter(Map parameters, String name, int defaultValue) {
+
+        return (int)getParameter(parameters, name, (long)defaultValue);
+    }
+
+    /**
+     * Returns the value of the given numeric job parameter.<p>
+     * 
+     * @param parameters the job parameters
+     * @param name the name of the parameter
+     * @param defaultValue the value to use if the parameter is not set or not a number
+     * 
+     * @return the value of the parameter
+     */
+    private long getParameter(Map parameters, String name, long defaultValue) {
+
+        String value = (String)parameters.get(name);
+        if (CmsStringUtil.isEmptyOrWhitespaceOnly(value)) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            LOG.warn(Messages.get().getBundle().key(Messages.LOG_INVALID_JOB_PARAMETER_2, name, value));
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Checks if the given link is an absolute URL.<p>
+     * 
+     * @param link the link
+     * 
+     * @return <code>true</code> if the link is an absolute URL
+     */
+    private boolean isAbsolute(String link) {
+
+        try {
+            return new CmsUriSplitter(link, true).toURI().isAbsolute();
+        } catch (URISyntaxException e) {
+            return false;
+        }
+    }
 }
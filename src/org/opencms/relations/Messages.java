@@ -112,6 +112,12 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String LOG_ERR_CREATE_CATEGORY_FOLDER_1 = "LOG_ERR_CREATE_CATEGORY_FOLDER_1";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_EXTERNAL_LINK_CHECK_FAILED_1 = "LOG_EXTERNAL_LINK_CHECK_FAILED_1";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_INVALID_JOB_PARAMETER_2 = "LOG_INVALID_JOB_PARAMETER_2";
+
     /** Message constant for key in the resource bundle. */
     public static final String LOG_LINK_SEARCH_1 = "LOG_LINK_SEARCH_1";
 
@@ -145,6 +151,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String RPT_BROKEN_LINKS_SUMMARY_END_0 = "RPT_BROKEN_LINKS_SUMMARY_END_0";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String RPT_CHECK_EXTERNAL_LINKS_2 = "RPT_CHECK_EXTERNAL_LINKS_2";
+
     /** Message constant for key in the resource bundle. */
     public static final String RPT_HTMLLINK_BROKEN_SOURCE_2 = "RPT_HTMLLINK_BROKEN_SOURCE_2";
 
@@ -71,12 +71,18 @@ import org.quartz.impl.StdSchedulerFactory;
  * and wraps all calls to the {@link org.opencms.scheduler.I_CmsScheduledJob} implementing 
  * classes.<p>
  * 
+ * The jobs fired by Quartz are executed by a {@link org.opencms.scheduler.CmsScheduledJobExecutor},
+ * which controls overlapping executions of the same job and keeps the job statistics.<p>
+ * 
  * @since 6.0.0 
  * 
  * @see org.opencms.scheduler.CmsScheduledJobInfo
  */
 public class CmsScheduleManager implements Job {
 
+    /** Key for the scheduled job executor in the job data map. */
+    public static final String SCHEDULER_JOB_EXECUTOR = "org.opencms.scheduler.CmsScheduledJobExecutor";
+
     /** Key for the scheduled job description in the job data map. */
     public static final String SCHEDULER_JOB_INFO = "org.opencms.scheduler.CmsScheduledJobInfo";
 
@@ -89,6 +95,12 @@ public class CmsScheduleManager implements Job {
     /** The list of job entries from the configuration. */
     private List<CmsScheduledJobInfo> m_configuredJobs;
 
+    /** The executor for the scheduled jobs. */
+    private CmsScheduledJobExecutor m_executor;
+
+    /** The configured name of the executor for the scheduled jobs. */
+    private String m_executorName;
+
     /** The list of scheduled jobs. */
     private List<CmsScheduledJobInfo> m_jobs;
 
@@ -112,7 +124,20 @@ public class CmsScheduleManager implements Job {
      */
     public CmsScheduleManager(List<CmsScheduledJobInfo> configuredJobs) {
 
+        this(configuredJobs, null);
+    }
+
+    /**
+     * Used by the configuration to create a new Scheduler during system startup.<p>
+     * 
+     * @param configuredJobs the jobs from the configuration
+     * @param executorName the name of the executor for the jobs, see {@link CmsScheduledJobExecutor}, 
+     *      or <code>null</code> to execute the jobs in the scheduler threads
+     */
+    public CmsScheduleManager(List<CmsScheduledJobInfo> configuredJobs, String executorName) {
+
         m_configuredJobs = configuredJobs;
+        m_executorName = executorName;
         int size = 0;
         if (m_configuredJobs != null) {
             size = m_configuredJobs.size();
@@ -128,8 +153,8 @@ public class CmsScheduleManager implements Job {
      * 
      * The architecture is that this scheduler manager generates
      * a new (empty) instance of itself for every OpenCms job scheduled with Quartz. 
-     * When the Quartz job is executed, the configured 
-     * implementation of {@link I_CmsScheduledJob} will be called from this method.<p>
+     * When the Quartz job is executed, this method hands the configured 
+     * implementation of {@link I_CmsScheduledJob} over to the job executor.<p>
      * 
      * @see org.quartz.Job#execute(org.quartz.JobExecutionContext)
      */
@@ -144,49 +169,22 @@ public class CmsScheduleManager implements Job {
             return;
         }
 
-        if (LOG.isDebugEnabled()) {
-            LOG.debug(Messages.get().getBundle().key(Messages.LOG_JOB_STARTING_1, jobInfo.getJobName()));
+        CmsScheduledJobExecutor executor = (CmsScheduledJobExecutor)jobData.get(SCHEDULER_JOB_EXECUTOR);
+        if (executor == null) {
+            // job not scheduled by the schedule manager, execute it in this thread
+            executor = new CmsScheduledJobExecutor(CmsScheduledJobExecutor.EXECUTOR_SCHEDULER);
         }
+        executor.execute(jobInfo);
+    }
 
-        I_CmsScheduledJob job = jobInfo.getJobInstance();
-
-        if (job != null) {
-            // launch the job
-            try {
-
-                CmsObject cms = null;
-                // update the request time in the job info to the current time
-                jobInfo.updateContextRequestTime();
-                // some simple test cases might run below this runlevel
-                if (OpenCms.getRunLevel() >= OpenCms.RUNLEVEL_3_SHELL_ACCESS) {
-                    // generate a CmsObject for the job context                    
-                    // must access the scheduler manager instance from the OpenCms singleton 
-                    // to get the initialized CmsObject
-                    cms = OpenCms.initCmsObject(OpenCms.getScheduleManager().getAdminCms(), jobInfo.getContextInfo());
-                }
-
-                String result = job.launch(cms, jobInfo.getParameters());
-                if (CmsStringUtil.isNotEmpty(result) && LOG.isInfoEnabled()) {
-                    LOG.info(Messages.get().getBundle().key(
-                        Messages.LOG_JOB_EXECUTION_OK_2,
-                        jobInfo.getJobName(),
-                        result));
-                }
-            } catch (Throwable t) {
-                LOG.error(Messages.get().getBundle().key(Messages.LOG_JOB_EXECUTION_ERROR_1, jobInfo.getJobName()), t);
-            }
-        }
+    /**
+     * Returns the configured name of the executor for the scheduled jobs.<p>
+     * 
+     * @return the configured name of the executor, or <code>null</code> if the jobs are executed in the scheduler threads
+     */
+    public String getExecutorName() {
 
-        if (LOG.isDebugEnabled()) {
-            LOG.debug(Messages.get().getBundle().key(Messages.LOG_JOB_EXECUTED_1, jobInfo.getJobName()));
-            Date nextExecution = jobInfo.getExecutionTimeNext();
-            if (nextExecution != null) {
-                LOG.info(Messages.get().getBundle().key(
-                    Messages.LOG_JOB_NEXT_EXECUTION_2,
-                    jobInfo.getJobName(),
-                    nextExecution));
-            }
-        }
+        return m_executorName;
     }
 
     /**
@@ -221,6 +219,21 @@ public class CmsScheduleManager implements Job {
         return Collections.unmodifiableList(m_jobs);
     }
 
+    /**
+     * Returns the execution statistics of the job identified by the given id.<p>
+     * 
+     * @param id the job id
+     * 
+     * @return the execution statistics of the job, or <code>null</code> if the scheduler is not initialized
+     */
+    public CmsScheduledJobStatistics getJobStatistics(String id) {
+
+        if (m_executor == null) {
+            return null;
+        }
+        return m_executor.getStatistics(id);
+    }
+
     /**
      * Initializes the OpenCms scheduler.<p> 
      * 
@@ -264,8 +277,17 @@ public class CmsScheduleManager implements Job {
             return;
         }
 
+        // the executor records the misfired executions as trigger listener
+        m_executor = new CmsScheduledJobExecutor(m_executorName);
+        try {
+            m_scheduler.addGlobalTriggerListener(m_executor);
+        } catch (SchedulerException e) {
+            LOG.error(e.getLocalizedMessage(), e);
+        }
+
         if (CmsLog.INIT.isInfoEnabled()) {
             CmsLog.INIT.info(Messages.get().getBundle().key(Messages.INIT_SCHEDULER_INITIALIZED_0));
+            CmsLog.INIT.info(Messages.get().getBundle().key(Messages.INIT_SCHEDULER_EXECUTOR_1, m_executor));
         }
 
         if (m_configuredJobs != null) {
@@ -415,6 +437,7 @@ public class CmsScheduleManager implements Job {
             // now set the job data
             JobDataMap jobData = new JobDataMap();
             jobData.put(CmsScheduleManager.SCHEDULER_JOB_INFO, jobInfo);
+            jobData.put(CmsScheduleManager.SCHEDULER_JOB_EXECUTOR, m_executor);
             jobDetail.setJobDataMap(jobData);
 
             // finally add the job to the Quartz scheduler
@@ -498,6 +521,9 @@ public class CmsScheduleManager implements Job {
                 LOG.error(Messages.get().getBundle().key(Messages.LOG_SHUTDOWN_ERROR_0));
             }
         }
+        if (m_executor != null) {
+            m_executor.shutDown();
+        }
 
         m_scheduler = null;
     }
@@ -558,7 +584,7 @@ public class CmsScheduleManager implements Job {
      * 
      * @return the {@link CmsObject} this Scheduler Manager was initialized with
      */
-    private synchronized CmsObject getAdminCms() {
+    protected synchronized CmsObject getAdminCms() {
 
         return m_adminCms;
     }
@@ -0,0 +1,365 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.scheduler;
+
+import org.opencms.file.CmsObject;
+import org.opencms.main.CmsLog;
+import org.opencms.main.OpenCms;
+import org.opencms.util.CmsStringUtil;
+
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.logging.Log;
+
+import org.quartz.JobExecutionContext;
+import org.quartz.Trigger;
+import org.quartz.TriggerListener;
+
+/**
+ * Executes the OpenCms scheduled jobs fired by the Quartz scheduler.<p>
+ * 
+ * The executor enforces the maximum number of concurrent executions of each job,
+ * see {@link CmsScheduledJobInfo#getMaxConcurrent()}, and keeps the 
+ * {@link CmsScheduledJobStatistics} of all jobs. As a trigger listener, it also 
+ * records the executions missed by the scheduler.<p>
+ * 
+ * The jobs are executed with one of the following executors:<ul>
+ * <li><code>{@link #EXECUTOR_SCHEDULER}</code>: in the thread of the scheduler that fired the job (default)</li>
+ * <li><code>{@link #EXECUTOR_POOL}</code>: in a separate thread pool, so long running jobs do not block the scheduler threads</li>
+ * <li><code>{@link #EXECUTOR_VIRTUAL}</code>: in a new virtual thread for each execution, 
+ * if the Java VM supports virtual threads, otherwise like <code>{@link #EXECUTOR_POOL}</code></li>
+ * </ul><p>
+ * 
+ * @since 8.0.2
+ */
+public class CmsScheduledJobExecutor implements TriggerListener {
+
+    /** Executor name for running the jobs in a separate thread pool. */
+    public static final String EXECUTOR_POOL = "pool";
+
+    /** Executor name for running the jobs in the scheduler threads. */
+    public static final String EXECUTOR_SCHEDULER = "scheduler";
+
+    /** Executor name for running the jobs in virtual threads. */
+    public static final String EXECUTOR_VIRTUAL = "virtual";
+
+    /** The log object for this class. */
+    private static final Log LOG = CmsLog.getLog(CmsScheduledJobExecutor.class);
+
+    /** The name prefix of the threads the jobs are executed in. */
+    private static final String THREAD_NAME_PREFIX = "OpenCms: Scheduled job #";
+
+    /** The executor service, or <code>null</code> if the jobs are executed in the scheduler threads. */
+    private ExecutorService m_executorService;
+
+    /** The name of the executor. */
+    private String m_name;
+
+    /** The statistics of the jobs, by job id. */
+    private Map<String, CmsScheduledJobStatistics> m_statistics;
+
+    /**
+     * Creates a new executor that executes the jobs with the given executor service.<p>
+     * 
+     * @param executorService the executor service, or <code>null</code> to execute the jobs in the scheduler threads
+     */
+    public CmsScheduledJobExecutor(ExecutorService executorService) {
+
+        m_statistics = new HashMap<String, CmsScheduledJobStatistics>();
+        m_executorService = executorService;
+        m_name = (executorService == null) ? EXECUTOR_SCHEDULER : executorService.getClass().getName();
+    }
+
+    /**
+     * Creates a new executor with the given name.<p>
+     * 
+     * @param name the executor name, one of <code>{@link #EXECUTOR_SCHEDULER}</code>, 
+     *      <code>{@link #EXECUTOR_POOL}</code> or <code>{@link #EXECUTOR_VIRTUAL}</code>,
+     *      if <code>null</code> the jobs are executed in the scheduler threads
+     */
+    public CmsScheduledJobExecutor(String name) {
+
+        this((ExecutorService)null);
+        if (CmsStringUtil.isEmptyOrWhitespaceOnly(name) || EXECUTOR_SCHEDULER.equals(name)) {
+            // execute the jobs in the scheduler threads
+        } else if (EXECUTOR_VIRTUAL.equals(name)) {
+            m_executorService = createVirtualThreadExecutor();
+            if (m_executorService == null) {
+                LOG.warn(Messages.get().getBundle().key(Messages.LOG_VIRTUAL_THREADS_UNAVAILABLE_0));
+                m_executorService = createPoolExecutor();
+            }
+            m_name = name;
+        } else if (EXECUTOR_POOL.equals(name)) {
+            m_executorService = createPoolExecutor();
+            m_name = name;
+        } else {
+            LOG.warn(Messages.get().getBundle().key(Messages.LOG_UNKNOWN_EXECUTOR_1, name));
+        }
+    }
+
+    /**
+     * Executes the given job, unless the maximum number of concurrent executions of the job is reached.<p>
+     * 
+     * @param jobInfo the job to execute
+     */
+    public void execute(final CmsScheduledJobInfo jobInfo) {
+
+        final CmsScheduledJobStatistics statistics = getStatistics(jobInfo.getId());
+        if (!statistics.executionStarted(jobInfo.getMaxConcurrent())) {
+            if (LOG.isWarnEnabled()) {
+                LOG.warn(Messages.get().getBundle().key(
+                    Messages.LOG_JOB_SKIPPED_2,
+                    jobInfo.getJobName(),
+                    new Integer(statistics.getRunningCount())));
+            }
+            return;
+        }
+        Runnable execution = new Runnable() {
+
+            public void run() {
+
+                long start = System.currentTimeMillis();
+                boolean success = false;
+                try {
+                    success = launch(jobInfo);
+                } finally {
+                    statistics.executionFinished(System.currentTimeMillis() - start, success);
+                }
+            }
+        };
+        if (m_executorService == null) {
+            execution.run();
+            return;
+        }
+        try {
+            m_executorService.execute(execution);
+        } catch (RejectedExecutionException e) {
+            statistics.executionRejected();
+            LOG.error(Messages.get().getBundle().key(Messages.LOG_JOB_REJECTED_1, jobInfo.getJobName()), e);
+        }
+    }
+
+    /**
+     * @see org.quartz.TriggerListener#getName()
+     */
+    public String getName() {
+
+        return getClass().getName();
+    }
+
+    /**
+     * Returns the statistics of the job with the given id.<p>
+     * 
+     * @param jobId the job id
+     * 
+     * @return the statistics of the job, empty if the job was never executed
+     */
+    public CmsScheduledJobStatistics getStatistics(String jobId) {
+
+        synchronized (m_statistics) {
+            CmsScheduledJobStatistics statistics = m_statistics.get(jobId);
+            if (statistics == null) {
+                statistics = new CmsScheduledJobStatistics();
+                m_statistics.put(jobId, statistics);
+            }
+            return statistics;
+        }
+    }
+
+    /**
+     * Shuts down this executor, the running jobs are finished.<p>
+     */
+    public void shutDown() {
+
+        if (m_executorService != null) {
+            m_executorService.shutdown();
+        }
+    }
+
+    /**
+     * Returns the name of this executor.<p>
+     * 
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+
+        return m_name;
+    }
+
+    /**
+     * @see org.quartz.TriggerListener#triggerComplete(org.quartz.Trigger, org.quartz.JobExecutionContext, int)
+     */
+    public void triggerComplete(Trigger trigger, JobExecutionContext context, int triggerInstructionCode) {
+
+        // nothing to do
+    }
+
+    /**
+     * @see org.quartz.TriggerListener#triggerFired(org.quartz.Trigger, org.quartz.JobExecutionContext)
+     */
+    public void triggerFired(Trigger trigger, JobExecutionContext context) {
+
+        // nothing to do
+    }
+
+    /**
+     * @see org.quartz.TriggerListener#triggerMisfired(org.quartz.Trigger)
+     */
+    public void triggerMisfired(Trigger trigger) {
+
+        // the triggers of the OpenCms jobs are named with the job id
+        getStatistics(trigger.getName()).executionMisfired();
+        if (LOG.isWarnEnabled()) {
+            LOG.warn(Messages.get().getBundle().key(Messages.LOG_JOB_MISFIRED_1, trigger.getName()));
+        }
+    }
+
+    /**
+     * @see org.quartz.TriggerListener#vetoJobExecution(org.quartz.Trigger, org.quartz.JobExecutionContext)
+     */
+    public boolean vetoJobExecution(Trigger trigger, JobExecutionContext context) {
+
+        return false;
+    }
+
+    /**
+     * Launches the given job in the current thread.<p>
+     * 
+     * @param jobInfo the job to launch
+     * 
+     * @return <code>true</code> if the job was executed successfully
+     */
+    protected boolean launch(CmsScheduledJobInfo jobInfo) {
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug(Messages.get().getBundle().key(Messages.LOG_JOB_STARTING_1, jobInfo.getJobName()));
+        }
+
+        boolean success = false;
+        I_CmsScheduledJob job = jobInfo.getJobInstance();
+
+        if (job != null) {
+            // launch the job
+            try {
+
+                CmsObject cms = null;
+                // update the request time in the job info to the current time
+                jobInfo.updateContextRequestTime();
+                // some simple test cases might run below this runlevel
+                if (OpenCms.getRunLevel() >= OpenCms.RUNLEVEL_3_SHELL_ACCESS) {
+                    // generate a CmsObject for the job context                    
+                    // must access the scheduler manager instance from the OpenCms singleton 
+                    // to get the initialized CmsObject
+                    cms = OpenCms.initCmsObject(OpenCms.getScheduleManager().getAdminCms(), jobInfo.getContextInfo());
+                }
+
+                String result = job.launch(cms, jobInfo.getParameters());
+                if (CmsStringUtil.isNotEmpty(result) && LOG.isInfoEnabled()) {
+                    LOG.info(Messages.get().getBundle().key(
+                        Messages.LOG_JOB_EXECUTION_OK_2,
+                        jobInfo.getJobName(),
+                        result));
+                }
+                success = true;
+            } catch (Throwable t) {
+                LOG.error(Messages.get().getBundle().key(Messages.LOG_JOB_EXECUTION_ERROR_1, jobInfo.getJobName()), t);
+            }
+        }
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug(Messages.get().getBundle().key(Messages.LOG_JOB_EXECUTED_1, jobInfo.getJobName()));
+            Date nextExecution = jobInfo.getExecutionTimeNext();
+            if (nextExecution != null) {
+                LOG.info(Messages.get().getBundle().key(
+                    Messages.LOG_JOB_NEXT_EXECUTION_2,
+                    jobInfo.getJobName(),
+                    nextExecution));
+            }
+        }
+        return success;
+    }
+
+    /**
+     * Creates the thread pool to execute the jobs in.<p>
+     * 
+     * @return the thread pool
+     */
+    private ExecutorService createPoolExecutor() {
+
+        return Executors.newCachedThreadPool(new ThreadFactory() {
+
+            /** The number of created threads. */
+            private AtomicInteger m_threadCount = new AtomicInteger();
+
+            public Thread newThread(Runnable runnable) {
+
+                Thread thread = new Thread(runnable, THREAD_NAME_PREFIX + m_threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Creates an executor that starts a new virtual thread for each job execution.<p>
+     * 
+     * Since virtual threads are only available in newer Java VMs, they are created by reflection.<p>
+     * 
+     * @return the executor, or <code>null</code> if virtual threads are not available
+     */
+    private ExecutorService createVirtualThreadExecutor() {
+
+        try {
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(
+                builder,
+                THREAD_NAME_PREFIX,
+                new Long(1));
+            ThreadFactory factory = (ThreadFactory)builderClass.getMethod("factory").invoke(builder);
+            return (ExecutorService)Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class).invoke(
+                null,
+                factory);
+        } catch (Exception e) {
+            // virtual threads not available
+            if (LOG.isDebugEnabled()) {
+                LOG.debug(e.getLocalizedMessage(), e);
+            }
+            return null;
+        }
+    }
+}
@@ -370,6 +370,9 @@ public class CmsScheduledJobInfo implements I_CmsConfigurationParameterHandler {
     /** The name of the job (for information purposes). */
     private String m_jobName;
 
+    /** The maximum number of concurrent executions of this job, <code>0</code> for no limit. */
+    private int m_maxConcurrent;
+
     /** The parameters used for this job entry. */
     private SortedMap<String, String> m_parameters;
 
@@ -386,6 +389,8 @@ public class CmsScheduledJobInfo implements I_CmsConfigurationParameterHandler {
 
         m_reuseInstance = false;
         m_frozen = false;
+        // by default, an execution is skipped while the previous one is still running
+        m_maxConcurrent = 1;
         // parameters are stored in a tree map 
         m_parameters = new TreeMap<String, String>();
         // a job is active by default
@@ -415,6 +420,7 @@ public class CmsScheduledJobInfo implements I_CmsConfigurationParameterHandler {
         SortedMap<String, String> parameters) {
 
         m_frozen = false;
+        m_maxConcurrent = 1;
         setId(id);
         if (CmsStringUtil.isNotEmpty(jobName)) {
             // job name is optional, if not present class name will be used
@@ -485,6 +491,7 @@ public class CmsScheduledJobInfo implements I_CmsConfigurationParameterHandler {
         result.m_context = (CmsContextInfo)m_context.clone();
         result.m_cronExpression = m_cronExpression;
         result.m_jobName = m_jobName;
+        result.m_maxConcurrent = m_maxConcurrent;
         result.m_parameters = new TreeMap<String, String>(m_parameters);
         result.m_trigger = null;
 
@@ -670,6 +677,20 @@ public class CmsScheduledJobInfo implements I_CmsConfigurationParameterHandler {
         return m_jobName;
     }
 
+    /**
+     * Returns the maximum number of concurrent executions of this job.<p>
+     * 
+     * If the job is fired while this number of executions is still running, 
+     * the execution is skipped. The default is <code>1</code>, so an execution is 
+     * skipped if the previous execution of the job has not finished yet.<p>
+     * 
+     * @return the maximum number of concurrent executions of this job, <code>0</code> for no limit
+     */
+    public int getMaxConcurrent() {
+
+        return m_maxConcurrent;
+    }
+
     /**
      * Returns the parameters.<p>
      *
@@ -836,6 +857,25 @@ public class CmsScheduledJobInfo implements I_CmsConfigurationParameterHandler {
         m_jobName = jobName;
     }
 
+    /**
+     * Sets the maximum number of concurrent executions of this job.<p>
+     * 
+     * @param maxConcurrent the maximum number of concurrent executions of this job, <code>0</code> for no limit
+     * 
+     * @see #getMaxConcurrent()
+     */
+    public void setMaxConcurrent(int maxConcurrent) {
+
+        checkFrozen();
+        if (maxConcurrent < 0) {
+            throw new CmsIllegalArgumentException(Messages.get().container(
+                Messages.ERR_BAD_MAX_CONCURRENT_2,
+                getJobName(),
+                new Integer(maxConcurrent)));
+        }
+        m_maxConcurrent = maxConcurrent;
+    }
+
     /**
      * Sets the job parameters.<p>
      *
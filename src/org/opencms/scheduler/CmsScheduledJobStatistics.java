@@ -0,0 +1,246 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.scheduler;
+
+/**
+ * Execution statistics of a scheduled job.<p>
+ * 
+ * Besides the number of executions, failures, skipped and missed executions, the statistics
+ * contain a histogram of the execution times. The upper bounds of the histogram buckets
+ * are given by {@link #getHistogramLimits()}, the last bucket contains all longer executions.<p>
+ * 
+ * @since 8.0.2
+ * 
+ * @see CmsScheduleManager#getJobStatistics(String)
+ */
+public class CmsScheduledJobStatistics {
+
+    /** The upper bounds of the execution time histogram buckets in milliseconds. */
+    private static final long[] HISTOGRAM_LIMITS = {100, 1000, 10000, 60000, 600000, 3600000};
+
+    /** The number of finished executions. */
+    private long m_executionCount;
+
+    /** The number of failed executions. */
+    private long m_failureCount;
+
+    /** The execution time histogram. */
+    private long[] m_histogram;
+
+    /** The duration of the last execution in milliseconds. */
+    private long m_lastDuration;
+
+    /** The maximum duration of an execution in milliseconds. */
+    private long m_maxDuration;
+
+    /** The number of missed executions. */
+    private long m_misfireCount;
+
+    /** The number of currently running executions. */
+    private int m_runningCount;
+
+    /** The number of skipped executions. */
+    private long m_skippedCount;
+
+    /** The total duration of all executions in milliseconds. */
+    private long m_totalDuration;
+
+    /**
+     * Creates new, empty job statistics.<p>
+     */
+    public CmsScheduledJobStatistics() {
+
+        m_histogram = new long[HISTOGRAM_LIMITS.length + 1];
+    }
+
+    /**
+     * Returns the upper bounds of the execution time histogram buckets in milliseconds.<p>
+     * 
+     * @return the upper bounds of the execution time histogram buckets
+     */
+    public static long[] getHistogramLimits() {
+
+        return HISTOGRAM_LIMITS.clone();
+    }
+
+    /**
+     * Returns the average duration of the finished executions in milliseconds.<p>
+     * 
+     * @return the average duration of the finished executions
+     */
+    public synchronized long getAverageDuration() {
+
+        return m_executionCount > 0 ? m_totalDuration / m_executionCount : 0;
+    }
+
+    /**
+     * Returns the number of finished executions, including the failed ones.<p>
+     * 
+     * @return the number of finished executions
+     */
+    public synchronized long getExecutionCount() {
+
+        return m_executionCount;
+    }
+
+    /**
+     * Returns the number of failed executions.<p>
+     * 
+     * @return the number of failed executions
+     */
+    public synchronized long getFailureCount() {
+
+        return m_failureCount;
+    }
+
+    /**
+     * Returns the execution time histogram.<p>
+     * 
+     * The entry with index <code>i</code> is the number of executions that took less than 
+     * <code>{@link #getHistogramLimits()}[i]</code> milliseconds, and at least as long as the previous limit.<p>
+     * 
+     * @return the execution time histogram
+     */
+    public synchronized long[] getHistogram() {
+
+        return m_histogram.clone();
+    }
+
+    /**
+     * Returns the duration of the last execution in milliseconds.<p>
+     * 
+     * @return the duration of the last execution
+     */
+    public synchronized long getLastDuration() {
+
+        return m_lastDuration;
+    }
+
+    /**
+     * Returns the maximum duration of an execution in milliseconds.<p>
+     * 
+     * @return the maximum duration of an execution
+     */
+    public synchronized long getMaxDuration() {
+
+        return m_maxDuration;
+    }
+
+    /**
+     * Returns the number of scheduled executions the scheduler missed, 
+     * for example because no scheduler thread was available in time.<p>
+     * 
+     * @return the number of missed executions
+     */
+    public synchronized long getMisfireCount() {
+
+        return m_misfireCount;
+    }
+
+    /**
+     * Returns the number of currently running executions.<p>
+     * 
+     * @return the number of currently running executions
+     */
+    public synchronized int getRunningCount() {
+
+        return m_runningCount;
+    }
+
+    /**
+     * Returns the number of executions that were skipped because 
+     * the maximum number of concurrent executions was reached.<p>
+     * 
+     * @return the number of skipped executions
+     */
+    public synchronized long getSkippedCount() {
+
+        return m_skippedCount;
+    }
+
+    /**
+     * Records the end of an execution.<p>
+     * 
+     * @param duration the duration of the execution in milliseconds
+     * @param success if the execution was successful
+     */
+    protected synchronized void executionFinished(long duration, boolean success) {
+
+        m_runningCount--;
+        m_executionCount++;
+        if (!success) {
+            m_failureCount++;
+        }
+        m_lastDuration = duration;
+        m_totalDuration += duration;
+        if (duration > m_maxDuration) {
+            m_maxDuration = duration;
+        }
+        int bucket = 0;
+        while ((bucket < HISTOGRAM_LIMITS.length) && (duration >= HISTOGRAM_LIMITS[bucket])) {
+            bucket++;
+        }
+        m_histogram[bucket]++;
+    }
+
+    /**
+     * Records a missed execution.<p>
+     */
+    protected synchronized void executionMisfired() {
+
+        m_misfireCount++;
+    }
+
+    /**
+     * Records that a started execution was not run.<p>
+     */
+    protected synchronized void executionRejected() {
+
+        m_runningCount--;
+    }
+
+    /**
+     * Records the start of an execution, if the given maximum number of concurrent executions is not reached.<p>
+     * 
+     * If the maximum is reached, the execution is recorded as skipped.<p>
+     * 
+     * @param maxConcurrent the maximum number of concurrent executions, or <code>0</code> for no limit
+     * 
+     * @return <code>true</code> if the execution may start, <code>false</code> if it has to be skipped
+     */
+    protected synchronized boolean executionStarted(int maxConcurrent) {
+
+        if ((maxConcurrent > 0) && (m_runningCount >= maxConcurrent)) {
+            m_skippedCount++;
+            return false;
+        }
+        m_runningCount++;
+        return true;
+    }
+}
@@ -52,6 +52,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String ERR_BAD_JOB_PARAMS_0 = "ERR_BAD_JOB_PARAMS_0";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String ERR_BAD_MAX_CONCURRENT_2 = "ERR_BAD_MAX_CONCURRENT_2";
+
     /** Message constant for key in the resource bundle. */
     public static final String ERR_COULD_NOT_RESCHEDULE_JOB_2 = "ERR_COULD_NOT_RESCHEDULE_JOB_2";
 
@@ -91,6 +94,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String INIT_SCHEDULER_CREATED_1 = "INIT_SCHEDULER_CREATED_1";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String INIT_SCHEDULER_EXECUTOR_1 = "INIT_SCHEDULER_EXECUTOR_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String INIT_SCHEDULER_INITIALIZED_0 = "INIT_SCHEDULER_INITIALIZED_0";
 
@@ -130,12 +136,21 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String LOG_JOB_EXECUTION_OK_2 = "LOG_JOB_EXECUTION_OK_2";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_JOB_MISFIRED_1 = "LOG_JOB_MISFIRED_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String LOG_JOB_NEXT_EXECUTION_2 = "LOG_JOB_NEXT_EXECUTION_2";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_JOB_REJECTED_1 = "LOG_JOB_REJECTED_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String LOG_JOB_SCHEDULED_4 = "LOG_JOB_SCHEDULED_4";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_JOB_SKIPPED_2 = "LOG_JOB_SKIPPED_2";
+
     /** Message constant for key in the resource bundle. */
     public static final String LOG_JOB_STARTING_1 = "LOG_JOB_STARTING_1";
 
@@ -172,12 +187,18 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String LOG_THREAD_SHUTDOWN_1 = "LOG_THREAD_SHUTDOWN_1";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_UNKNOWN_EXECUTOR_1 = "LOG_UNKNOWN_EXECUTOR_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String LOG_UNSCHEDULED_JOB_1 = "LOG_UNSCHEDULED_JOB_1";
 
     /** Message constant for key in the resource bundle. */
     public static final String LOG_UNSCHEDULING_ERROR_1 = "LOG_UNSCHEDULING_ERROR_1";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_VIRTUAL_THREADS_UNAVAILABLE_0 = "LOG_VIRTUAL_THREADS_UNAVAILABLE_0";
+
     /** Name of the used resource bundle. */
     public static final String LOG_USING_THREAD_CLASSLOADER_1 = "LOG_USING_THREAD_CLASSLOADER_1";
 
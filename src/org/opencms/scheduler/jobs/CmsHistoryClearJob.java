@@ -27,14 +27,28 @@
 
 package org.opencms.scheduler.jobs;
 
+import org.opencms.db.CmsDriverManager;
 import org.opencms.file.CmsObject;
+import org.opencms.file.history.CmsHistoryClearProgress;
+import org.opencms.main.CmsLog;
+import org.opencms.main.OpenCms;
 import org.opencms.report.CmsLogReport;
 import org.opencms.scheduler.I_CmsScheduledJob;
 import org.opencms.util.CmsStringUtil;
+import org.opencms.util.CmsUUID;
 
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.Calendar;
 import java.util.GregorianCalendar;
 import java.util.Map;
+import java.util.Properties;
+
+import org.apache.commons.logging.Log;
 
 /**
  * A schedulable OpenCms job to clear the history.<p>
@@ -55,12 +69,23 @@ import java.util.Map;
  * <dd>Number/Integer to configure the number of days the versions of deleted resources will 
  * be kept. That means that all versions wich are older than the specified number will be deleted.
  * This parameter is optional and only makes sense if the clearDeleted parameter is set to true.</dd>
+ * <dt><code>chunkSize</code></dt>
+ * <dd>Number/Integer to configure the number of historical resources processed per chunk. 
+ * The changes are committed after each chunk. This parameter is optional, the default is 
+ * {@link CmsDriverManager#HISTORY_CLEAR_CHUNK_SIZE}.</dd>
  * </dl>
  * 
+ * The progress of the job is saved after each chunk to the file {@link #PROGRESS_FILE} in the 
+ * <code>WEB-INF</code> folder. If the job is interrupted, e.g. by a restart, the next run of the job 
+ * with the same parameters continues after the last processed chunk.<p>
+ * 
  * @since 7.0.0
  */
 public class CmsHistoryClearJob implements I_CmsScheduledJob {
 
+    /** Name of the parameter where to configure the number of resources processed per chunk. */
+    public static final String PARAM_CHUNKSIZE = "chunkSize";
+
     /** Name of the parameter where to configure how many versions are kept. */
     public static final String PARAM_KEEPVERSIONS = "keepVersions";
 
@@ -70,6 +95,27 @@ public class CmsHistoryClearJob implements I_CmsScheduledJob {
     /** Name of the parameter where to configure the number of days the versions will be kept. */
     public static final String PARAM_KEEPTIMERANGE = "keepTimeRange";
 
+    /** The name of the file in the <code>WEB-INF</code> folder where the progress of the job is saved. */
+    public static final String PROGRESS_FILE = "historyclear.properties";
+
+    /** Progress file key for the number of deleted versions. */
+    private static final String KEY_DELETED = "deleted";
+
+    /** Progress file key for the structure id of the last processed resource. */
+    private static final String KEY_LAST_STRUCTURE_ID = "lastStructureId";
+
+    /** Progress file key for the job parameters the progress is valid for. */
+    private static final String KEY_PARAMETERS = "parameters";
+
+    /** Progress file key for the current phase. */
+    private static final String KEY_PHASE = "phase";
+
+    /** Progress file key for the number of processed resources. */
+    private static final String KEY_PROCESSED = "processed";
+
+    /** The log object for this class. */
+    private static final Log LOG = CmsLog.getLog(CmsHistoryClearJob.class);
+
     /**
      * @see org.opencms.scheduler.I_CmsScheduledJob#launch(org.opencms.file.CmsObject, java.util.Map)
      */
@@ -100,13 +146,131 @@ public class CmsHistoryClearJob implements I_CmsScheduledJob {
             keepDeletedVersions = -1;
         }
 
+        // read the optional parameter for the chunk size
+        String chunkSizeStr = parameters.get(PARAM_CHUNKSIZE);
+        int chunkSize = CmsDriverManager.HISTORY_CLEAR_CHUNK_SIZE;
+        if (!CmsStringUtil.isEmptyOrWhitespaceOnly(chunkSizeStr)) {
+            chunkSize = Math.max(1, Integer.parseInt(chunkSizeStr.trim()));
+        }
+
         // create a new report
         CmsLogReport report = new CmsLogReport(cms.getRequestContext().getLocale(), CmsHistoryClearJob.class);
 
-        // delete the versions
-        cms.deleteHistoricalVersions(keepVersions, keepDeletedVersions, timeDeleted, report);
+        // continue a previous run with the same parameters, if there is one
+        File progressFile = new File(OpenCms.getSystemInfo().getAbsoluteRfsPathRelativeToWebInf(PROGRESS_FILE));
+        String jobParameters = keepVersions + "," + clearDeleted + "," + keepTimeRange;
+        CmsHistoryClearProgress progress = readProgress(progressFile, jobParameters);
+
+        // delete the versions, chunk by chunk
+        while (!cms.deleteHistoricalVersions(
+            keepVersions,
+            keepDeletedVersions,
+            timeDeleted,
+            progress,
+            chunkSize,
+            report)) {
+            writeProgress(progressFile, jobParameters, progress);
+            if (LOG.isInfoEnabled()) {
+                LOG.info(Messages.get().getBundle().key(
+                    Messages.LOG_HISTORY_CLEAR_PROGRESS_2,
+                    String.valueOf(progress.getProcessedResources()),
+                    String.valueOf(progress.getDeletedVersions())));
+            }
+        }
+        progressFile.delete();
 
         return null;
     }
 
+    /**
+     * Reads the saved progress of a previous run of this job.<p>
+     * 
+     * @param progressFile the file the progress is saved in
+     * @param jobParameters the parameters of the current run
+     * 
+     * @return the saved progress, or a new progress if there is no saved progress for the given parameters
+     */
+    private CmsHistoryClearProgress readProgress(File progressFile, String jobParameters) {
+
+        if (!progressFile.isFile()) {
+            return new CmsHistoryClearProgress();
+        }
+        Properties properties = new Properties();
+        InputStream in = null;
+        try {
+            in = new FileInputStream(progressFile);
+            properties.load(in);
+            if (!jobParameters.equals(properties.getProperty(KEY_PARAMETERS))) {
+                // the progress of a run with other parameters is not continued
+                return new CmsHistoryClearProgress();
+            }
+            String lastStructureId = properties.getProperty(KEY_LAST_STRUCTURE_ID);
+            CmsHistoryClearProgress progress = new CmsHistoryClearProgress(
+                Integer.parseInt(properties.getProperty(KEY_PHASE)),
+                CmsStringUtil.isEmptyOrWhitespaceOnly(lastStructureId) ? null : new CmsUUID(lastStructureId),
+                Long.parseLong(properties.getProperty(KEY_PROCESSED)),
+                Long.parseLong(properties.getProperty(KEY_DELETED)));
+            if (LOG.isInfoEnabled()) {
+                LOG.info(Messages.get().getBundle().key(
+                    Messages.LOG_HISTORY_CLEAR_RESUME_2,
+                    String.valueOf(progress.getProcessedResources()),
+                    String.valueOf(progress.getDeletedVersions())));
+            }
+            return progress;
+        } catch (Exception e) {
+            LOG.warn(
+                Messages.get().getBundle().key(
+                    Messages.LOG_HISTORY_CLEAR_READ_PROGRESS_FAILED_1,
+                    progressFile.getAbsolutePath()),
+                e);
+            return new CmsHistoryClearProgress();
+        } finally {
+            if (in != null) {
+                try {
+                    in.close();
+                } catch (IOException e) {
+                    // ignore
+                }
+            }
+        }
+    }
+
+    /**
+     * Saves the progress of this job, so that it can be continued after a restart.<p>
+     * 
+     * @param progressFile the file to save the progress in
+     * @param jobParameters the parameters of the current run
+     * @param progress the progress to save
+     */
+    private void writeProgress(File progressFile, String jobParameters, CmsHistoryClearProgress progress) {
+
+        Properties properties = new Properties();
+        properties.setProperty(KEY_PARAMETERS, jobParameters);
+        properties.setProperty(KEY_PHASE, String.valueOf(progress.getPhase()));
+        properties.setProperty(KEY_LAST_STRUCTURE_ID, (progress.getLastStructureId() == null)
+        ? ""
+        : progress.getLastStructureId().toString());
+        properties.setProperty(KEY_PROCESSED, String.valueOf(progress.getProcessedResources()));
+        properties.setProperty(KEY_DELETED, String.valueOf(progress.getDeletedVersions()));
+        OutputStream out = null;
+        try {
+            out = new FileOutputStream(progressFile);
+            properties.store(out, null);
+        } catch (IOException e) {
+            LOG.error(
+                Messages.get().getBundle().key(
+                    Messages.LOG_HISTORY_CLEAR_WRITE_PROGRESS_FAILED_1,
+                    progressFile.getAbsolutePath()),
+                e);
+        } finally {
+            if (out != null) {
+                try {
+                    out.close();
+                } catch (IOException e) {
+                    // ignore
+                }
+            }
+        }
+    }
+
 }
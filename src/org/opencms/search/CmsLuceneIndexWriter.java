@@ -30,6 +30,7 @@ package org.opencms.search;
 import org.opencms.search.fields.CmsSearchField;
 
 import java.io.IOException;
+import java.util.Map;
 
 import org.apache.lucene.document.Document;
 import org.apache.lucene.index.IndexWriter;
@@ -70,6 +71,14 @@ public class CmsLuceneIndexWriter implements I_CmsIndexWriter {
         m_indexWriter.commit();
     }
 
+    /**
+     * @see org.opencms.search.I_CmsIndexWriter#commit(java.util.Map)
+     */
+    public void commit(Map<String, String> commitData) throws IOException {
+
+        m_indexWriter.commit(commitData);
+    }
+
     /**
      * @see org.opencms.search.I_CmsIndexWriter#deleteDocuments(java.lang.String)
      */
@@ -78,6 +78,9 @@ public class CmsSearch {
     /** The cms object. */
     protected transient CmsObject m_cms;
 
+    /** The result facets of a search. */
+    protected Map<String, Map<String, Integer>> m_facetsFound;
+
     /** The latest exception. */
     protected Exception m_lastException;
 
@@ -545,6 +548,7 @@ public class CmsSearch {
                     m_result = result;
                     m_searchResultCount = result.getHitCount();
                     m_categoriesFound = result.getCategories();
+                    m_facetsFound = result.getFacets();
 
                     // re-caluclate the number of pages for this search result
                     m_pageCount = m_searchResultCount / m_parameters.getMatchesPerPage();
@@ -564,6 +568,7 @@ public class CmsSearch {
                     m_result = Collections.emptyList();
                     m_searchResultCount = 0;
                     m_categoriesFound = null;
+                    m_facetsFound = null;
                     m_pageCount = 0;
                     m_prevUrl = null;
                     m_nextUrl = null;
@@ -599,6 +604,22 @@ public class CmsSearch {
         return m_categoriesFound;
     }
 
+    /**
+     * Returns the facet counts for the last search result, or <code>null</code> if no facets
+     * have been requested in the search parameters.<p>
+     * 
+     * The returned map contains the facet names mapped to a map of the facet values 
+     * and the number of matching documents for each value.<p>
+     *
+     * @return the facet counts for the last search result
+     * 
+     * @see CmsSearchParameters#addFacet(CmsSearchParameters.CmsSearchFacet)
+     */
+    public Map<String, Map<String, Integer>> getSearchResultFacets() {
+
+        return m_facetsFound;
+    }
+
     /**
      * Returns the total number of search results matching the query.<p>
      * 
@@ -1002,6 +1023,7 @@ public class CmsSearch {
         m_result = null;
         m_lastException = null;
         m_categoriesFound = null;
+        m_facetsFound = null;
         m_parameterRestriction = null;
         if (!m_parsedQuerySet) {
             // don't reset parsed query if it was deliberately set, otherwise initializing search bean from JSP might fail 
@@ -101,6 +101,9 @@ public class CmsSearchCategoryCollector extends Collector {
     /** The internal map of the categories found. */
     private Map<String, CmsCategroyCount> m_categories;
 
+    /** The document base of the current index segment. */
+    private int m_docBase;
+
     /** The index searcher used. */
     private IndexSearcher m_searcher;
 
@@ -157,7 +160,8 @@ public class CmsSearchCategoryCollector extends Collector {
 
         String category = null;
         try {
-            Document doc = m_searcher.doc(id);
+            // the id is relative to the current index segment
+            Document doc = m_searcher.doc(m_docBase + id);
             category = doc.get(CmsSearchField.FIELD_CATEGORY);
         } catch (IOException e) {
             // category will be null
@@ -201,7 +205,7 @@ public class CmsSearchCategoryCollector extends Collector {
     @Override
     public void setNextReader(IndexReader reader, int docBase) {
 
-        // ignored, we just count hits 
+        m_docBase = docBase;
     }
 
     /**
@@ -0,0 +1,369 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.search;
+
+import org.opencms.search.CmsSearchParameters.CmsSearchFacet;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.index.TermDocs;
+import org.apache.lucene.index.TermEnum;
+import org.apache.lucene.search.Collector;
+import org.apache.lucene.search.Scorer;
+
+/**
+ * Counts the matching documents for a list of facets during a search process.<p>
+ *
+ * The counting is done with term ordinal arrays that are built once for every index segment and facet field,
+ * and then cached as long as the segment is in use. This way the facet counts are calculated without reading
+ * any stored document, and all facets are counted in the same pass that also collects the search hits.<p>
+ *
+ * Facets can be calculated for fields that contain more then one term per document, however the number
+ * of distinct terms should be limited. Facets for tokenized content fields make no sense.<p>
+ *
+ * @since 8.0.2
+ */
+public class CmsSearchFacetCollector extends Collector {
+
+    /**
+     * The facet values of a field in a single index segment, for a given term length.<p>
+     */
+    protected static class CmsFacetValues {
+
+        /** The facet values, in index order. */
+        String[] m_values;
+
+        /** The facet value ordinal for every term ordinal. */
+        int[] m_valueOrds;
+
+        /**
+         * Maps the terms of the given term ordinals to the values of the given facet.<p>
+         *
+         * @param ordinals the term ordinals
+         * @param facet the facet
+         */
+        CmsFacetValues(CmsTermOrdinals ordinals, CmsSearchFacet facet) {
+
+            List<String> values = new ArrayList<String>();
+            m_valueOrds = new int[ordinals.m_terms.length];
+            String last = null;
+            for (int ord = 0; ord < ordinals.m_terms.length; ord++) {
+                String value = facet.getValue(ordinals.m_terms[ord]);
+                // terms are sorted, so terms with the same prefix are next to each other
+                if (!value.equals(last)) {
+                    values.add(value);
+                    last = value;
+                }
+                m_valueOrds[ord] = values.size() - 1;
+            }
+            m_values = values.toArray(new String[values.size()]);
+        }
+    }
+
+    /**
+     * The terms of a field in a single index segment, with the term ordinals for every document.<p>
+     */
+    protected static class CmsTermOrdinals {
+
+        /** The start position of the ordinals of every document in the ordinal array, with an extra entry for the end. */
+        int[] m_docStart;
+
+        /** The term ordinals of all documents. */
+        int[] m_ords;
+
+        /** The terms, in index order. */
+        String[] m_terms;
+
+        /** The cached facet values, per term length. */
+        private Map<Integer, CmsFacetValues> m_values = new ConcurrentHashMap<Integer, CmsFacetValues>();
+
+        /**
+         * Reads the terms of the given field from the given index segment.<p>
+         *
+         * @param reader the index segment reader
+         * @param fieldName the name of the field to read the terms for
+         *
+         * @throws IOException in case of errors reading the index
+         */
+        CmsTermOrdinals(IndexReader reader, String fieldName)
+        throws IOException {
+
+            int maxDoc = reader.maxDoc();
+            m_docStart = new int[maxDoc + 1];
+            List<String> terms = new ArrayList<String>();
+            TermEnum termEnum = reader.terms(new Term(fieldName, ""));
+            TermDocs termDocs = reader.termDocs();
+            try {
+                // first pass: read the terms and count the number of terms per document
+                do {
+                    Term term = termEnum.term();
+                    if ((term == null) || !fieldName.equals(term.field())) {
+                        break;
+                    }
+                    terms.add(term.text());
+                    termDocs.seek(termEnum);
+                    while (termDocs.next()) {
+                        m_docStart[termDocs.doc()]++;
+                    }
+                } while (termEnum.next());
+                m_terms = terms.toArray(new String[terms.size()]);
+
+                // convert the term counts to start positions
+                int pos = 0;
+                for (int i = 0; i <= maxDoc; i++) {
+                    int count = m_docStart[i];
+                    m_docStart[i] = pos;
+                    pos += count;
+                }
+                m_ords = new int[pos];
+
+                // second pass: fill the ordinals of each document
+                int[] next = new int[maxDoc];
+                System.arraycopy(m_docStart, 0, next, 0, maxDoc);
+                for (int ord = 0; ord < m_terms.length; ord++) {
+                    termDocs.seek(new Term(fieldName, m_terms[ord]));
+                    while (termDocs.next()) {
+                        m_ords[next[termDocs.doc()]++] = ord;
+                    }
+                }
+            } finally {
+                termDocs.close();
+                termEnum.close();
+            }
+        }
+
+        /**
+         * Returns the values of the given facet for the terms of this segment.<p>
+         *
+         * @param facet the facet
+         *
+         * @return the values of the given facet for the terms of this segment
+         */
+        CmsFacetValues getValues(CmsSearchFacet facet) {
+
+            Integer key = new Integer(facet.getTermLength());
+            CmsFacetValues values = m_values.get(key);
+            if (values == null) {
+                values = new CmsFacetValues(this, facet);
+                m_values.put(key, values);
+            }
+            return values;
+        }
+    }
+
+    /** The cached term ordinals, per index segment and field name. */
+    private static final Map<Object, Map<String, CmsTermOrdinals>> ORDINALS_CACHE = new WeakHashMap<Object, Map<String, CmsTermOrdinals>>();
+
+    /** The facet counts of the current segment, per facet. */
+    private int[][] m_counts;
+
+    /** The facets to count. */
+    private List<CmsSearchFacet> m_facets;
+
+    /** The term ordinals of the current segment, per facet. */
+    private CmsTermOrdinals[] m_ordinals;
+
+    /** The facet counts of all segments already processed, per facet name. */
+    private Map<String, Map<String, Integer>> m_result;
+
+    /** The facet values of the current segment, per facet. */
+    private CmsFacetValues[] m_values;
+
+    /**
+     * Creates a new facet collector for the given facets.<p>
+     *
+     * @param facets the facets to count
+     */
+    public CmsSearchFacetCollector(List<CmsSearchFacet> facets) {
+
+        super();
+        m_facets = new ArrayList<CmsSearchFacet>(facets);
+        m_result = new LinkedHashMap<String, Map<String, Integer>>();
+        for (CmsSearchFacet facet : m_facets) {
+            m_result.put(facet.getName(), new TreeMap<String, Integer>());
+        }
+    }
+
+    /**
+     * Returns the term ordinals for the given field in the given index segment,
+     * reading them from the index only in case they are not already cached.<p>
+     *
+     * @param reader the index segment reader
+     * @param fieldName the field name
+     *
+     * @return the term ordinals for the given field in the given index segment
+     *
+     * @throws IOException in case of errors reading the index
+     */
+    protected static CmsTermOrdinals getOrdinals(IndexReader reader, String fieldName) throws IOException {
+
+        Map<String, CmsTermOrdinals> fields;
+        synchronized (ORDINALS_CACHE) {
+            // the core cache key stays the same as long as the segment is not changed, even if the reader is reopened
+            Object key = reader.getCoreCacheKey();
+            fields = ORDINALS_CACHE.get(key);
+            if (fields == null) {
+                fields = new ConcurrentHashMap<String, CmsTermOrdinals>();
+                ORDINALS_CACHE.put(key, fields);
+            }
+        }
+        CmsTermOrdinals ordinals = fields.get(fieldName);
+        if (ordinals == null) {
+            // concurrent searches may read the same ordinals twice, but this does no harm
+            ordinals = new CmsTermOrdinals(reader, fieldName);
+            fields.put(fieldName, ordinals);
+        }
+        return ordinals;
+    }
+
+    /**
+     * @see org.apache.lucene.search.Collector#acceptsDocsOutOfOrder()
+     */
+    @Override
+    public boolean acceptsDocsOutOfOrder() {
+
+        // we just count hits and these don't need to be ordered
+        return true;
+    }
+
+    /**
+     * @see org.apache.lucene.search.Collector#collect(int)
+     */
+    @Override
+    public void collect(int doc) {
+
+        for (int i = 0; i < m_ordinals.length; i++) {
+            CmsTermOrdinals ordinals = m_ordinals[i];
+            int[] valueOrds = m_values[i].m_valueOrds;
+            int[] counts = m_counts[i];
+            int end = ordinals.m_docStart[doc + 1];
+            int last = -1;
+            for (int j = ordinals.m_docStart[doc]; j < end; j++) {
+                // the term ordinals of a document are sorted, so equal values follow each other
+                int valueOrd = valueOrds[ordinals.m_ords[j]];
+                if (valueOrd != last) {
+                    // count every document only once per facet value
+                    counts[valueOrd]++;
+                    last = valueOrd;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the facet count result.<p>
+     *
+     * The returned map contains the facet names mapped to a map of the facet values
+     * and the number of matching documents for each value.<p>
+     *
+     * @return the facet count result
+     */
+    public Map<String, Map<String, Integer>> getFacetCountResult() {
+
+        addSegmentCounts();
+        return Collections.unmodifiableMap(m_result);
+    }
+
+    /**
+     * @see org.apache.lucene.search.Collector#setNextReader(org.apache.lucene.index.IndexReader, int)
+     */
+    @Override
+    public void setNextReader(IndexReader reader, int docBase) throws IOException {
+
+        addSegmentCounts();
+        m_ordinals = new CmsTermOrdinals[m_facets.size()];
+        m_values = new CmsFacetValues[m_facets.size()];
+        m_counts = new int[m_facets.size()][];
+        for (int i = 0; i < m_ordinals.length; i++) {
+            CmsSearchFacet facet = m_facets.get(i);
+            m_ordinals[i] = getOrdinals(reader, facet.getFieldName());
+            m_values[i] = m_ordinals[i].getValues(facet);
+            m_counts[i] = new int[m_values[i].m_values.length];
+        }
+    }
+
+    /**
+     * @see org.apache.lucene.search.Collector#setScorer(org.apache.lucene.search.Scorer)
+     */
+    @Override
+    public void setScorer(Scorer scorer) {
+
+        // ignored, we don't need a scorer
+    }
+
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+
+        StringBuffer result = new StringBuffer(256);
+        for (Map.Entry<String, Map<String, Integer>> entry : getFacetCountResult().entrySet()) {
+            result.append("Facet: ");
+            result.append(entry.getKey());
+            result.append('\n');
+            result.append(CmsSearchCategoryCollector.formatCategoryMap(entry.getValue()));
+        }
+        return result.toString();
+    }
+
+    /**
+     * Adds the counts of the current segment to the overall result.<p>
+     */
+    private void addSegmentCounts() {
+
+        if (m_ordinals == null) {
+            return;
+        }
+        for (int i = 0; i < m_ordinals.length; i++) {
+            Map<String, Integer> values = m_result.get(m_facets.get(i).getName());
+            String[] facetValues = m_values[i].m_values;
+            int[] counts = m_counts[i];
+            for (int ord = 0; ord < counts.length; ord++) {
+                if (counts[ord] > 0) {
+                    String value = facetValues[ord];
+                    Integer count = values.get(value);
+                    values.put(value, new Integer(count == null ? counts[ord] : count.intValue() + counts[ord]));
+                }
+            }
+        }
+        m_ordinals = null;
+        m_values = null;
+        m_counts = null;
+    }
+}
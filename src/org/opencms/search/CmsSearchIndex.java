@@ -79,16 +79,24 @@ import org.apache.lucene.search.BooleanClause;
 import org.apache.lucene.search.BooleanFilter;
 import org.apache.lucene.search.BooleanQuery;
 import org.apache.lucene.search.CachingWrapperFilter;
+import org.apache.lucene.search.Collector;
 import org.apache.lucene.search.Filter;
 import org.apache.lucene.search.FilterClause;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.MultiCollector;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.TermQuery;
 import org.apache.lucene.search.TermsFilter;
 import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TopDocsCollector;
+import org.apache.lucene.search.TopFieldCollector;
+import org.apache.lucene.search.TopScoreDocCollector;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.store.MMapDirectory;
+import org.apache.lucene.store.NIOFSDirectory;
+import org.apache.lucene.store.SimpleFSDirectory;
 import org.apache.lucene.util.Version;
 
 /**
@@ -127,6 +135,15 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
 
             return super.document(n, CONTENT_SELECTOR);
         }
+
+        /**
+         * @see org.apache.lucene.index.IndexReader#getCommitUserData()
+         */
+        @Override
+        public Map<String, String> getCommitUserData() {
+
+            return in.getCommitUserData();
+        }
     }
 
     /** Constant for additional parameter to enable optimized full index regeneration (default: false). */
@@ -181,6 +198,21 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
     /** Constant for additional parameter for the Lucene index setting. */
     public static final String LUCENE_AUTO_COMMIT = "lucene.AutoCommit";
 
+    /** Constant for additional parameter for the Lucene index setting. */
+    public static final String LUCENE_DIRECTORY = "lucene.Directory";
+
+    /** Value for the {@link #LUCENE_DIRECTORY} parameter that lets Lucene choose the best directory for the platform. */
+    public static final String LUCENE_DIRECTORY_AUTO = "auto";
+
+    /** Value for the {@link #LUCENE_DIRECTORY} parameter to use a memory mapped directory. */
+    public static final String LUCENE_DIRECTORY_MMAP = "mmap";
+
+    /** Value for the {@link #LUCENE_DIRECTORY} parameter to use a directory based on NIO positional reads. */
+    public static final String LUCENE_DIRECTORY_NIO = "nio";
+
+    /** Value for the {@link #LUCENE_DIRECTORY} parameter to use a directory based on random access files. */
+    public static final String LUCENE_DIRECTORY_SIMPLE = "simple";
+
     /** Constant for additional parameter for the Lucene index setting. */
     public static final String LUCENE_MAX_MERGE_DOCS = "lucene.MaxMergeDocs";
 
@@ -305,6 +337,9 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
     /** The Lucene index merge factor setting, see {@link IndexWriter#setMaxMergeDocs(int)}. */
     private Integer m_luceneMaxMergeDocs;
 
+    /** The Lucene directory implementation used for this index. */
+    private String m_luceneDirectory;
+
     /** The Lucene index merge factor setting, see {@link IndexWriter#setMergeFactor(int)}. */
     private Integer m_luceneMergeFactor;
 
@@ -560,6 +595,16 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
                     new Integer(Thread.MAX_PRIORITY)));
 
             }
+        } else if (LUCENE_DIRECTORY.equals(key)) {
+            String directory = value.trim().toLowerCase();
+            if (LUCENE_DIRECTORY_AUTO.equals(directory)
+                || LUCENE_DIRECTORY_MMAP.equals(directory)
+                || LUCENE_DIRECTORY_NIO.equals(directory)
+                || LUCENE_DIRECTORY_SIMPLE.equals(directory)) {
+                m_luceneDirectory = directory;
+            } else {
+                LOG.error(Messages.get().getBundle().key(Messages.LOG_INVALID_PARAM_3, value, key, getName()));
+            }
         } else if (LUCENE_MAX_MERGE_DOCS.equals(key)) {
             try {
                 m_luceneMaxMergeDocs = Integer.valueOf(value);
@@ -683,6 +728,9 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
             result.put(MAX_HITS, String.valueOf(getMaxHits()));
         }
         // set the index writer parameter if required 
+        if (m_luceneDirectory != null) {
+            result.put(LUCENE_DIRECTORY, m_luceneDirectory);
+        }
         if (m_luceneMaxMergeDocs != null) {
             result.put(LUCENE_MAX_MERGE_DOCS, String.valueOf(m_luceneMaxMergeDocs));
         }
@@ -698,9 +746,39 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
         return result;
     }
 
+    /**
+     * Returns the user data stored with the last commit of this index.<p>
+     *
+     * In case the index has not been opened yet or no user data was stored,
+     * an empty map is returned.<p>
+     *
+     * @return the user data stored with the last commit of this index
+     *
+     * @see I_CmsIndexWriter#commit(Map)
+     */
+    public Map<String, String> getCommitData() {
+
+        IndexSearcher searcher = getSearcher();
+        if (searcher != null) {
+            try {
+                Map<String, String> commitData = searcher.getIndexReader().getCommitUserData();
+                if (commitData != null) {
+                    return commitData;
+                }
+            } catch (Exception e) {
+                // index not readable, use an empty map
+                LOG.warn(e.getLocalizedMessage(), e);
+            }
+        }
+        return Collections.emptyMap();
+    }
+
     /**
      * Returns the Lucene document with the given root path from the index.<p>
      * 
+     * The content fields {@link CmsSearchField#FIELD_CONTENT} and {@link CmsSearchField#FIELD_CONTENT_BLOB}
+     * of the returned document are lazy loaded, so they are only read from the index when they are used.<p>
+     * 
      * @param rootPath the root path of the document to get 
      * 
      * @return the Lucene document with the given root path from the index
@@ -715,7 +793,7 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
             try {
                 TopDocs hits = searcher.search(new TermQuery(pathTerm), 1);
                 if (hits.scoreDocs.length > 0) {
-                    result = searcher.doc(hits.scoreDocs[0].doc);
+                    result = searcher.doc(hits.scoreDocs[0].doc, CONTENT_SELECTOR);
                 }
             } catch (IOException e) {
                 // ignore, return null and assume document was not found
@@ -806,7 +884,7 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
             }
 
             // open file directory for Lucene
-            FSDirectory dir = FSDirectory.open(new File(m_path));
+            Directory dir = createIndexDirectory(new File(m_path));
             // create Lucene merge policy
             LogMergePolicy mergePolicy = new LogByteSizeMergePolicy();
             if (m_luceneMaxMergeDocs != null) {
@@ -1325,23 +1403,45 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
                 params.setParsedQuery(query.toString(CmsSearchField.FIELD_CONTENT));
             }
 
-            // collect the categories
-            CmsSearchCategoryCollector categoryCollector;
-            if (params.isCalculateCategories()) {
-                // USE THIS OPTION WITH CAUTION
-                // this may slow down searched by an order of magnitude
-                categoryCollector = new CmsSearchCategoryCollector(getSearcher());
-                // perform a first search to collect the categories
-                getSearcher().search(query, filter, categoryCollector);
-                // store the result
-                searchResults.setCategories(categoryCollector.getCategoryCountResult());
-            }
-
-            // perform the search operation          
-            if (params.getSort() == null) {
-                hits = getSearcher().search(query, filter, m_maxHits);
+            boolean calculateFacets = (params.getFacets() != null) && !params.getFacets().isEmpty();
+            if (params.isCalculateCategories() || calculateFacets) {
+                // collect the hits, the categories and the facets in a single pass
+                int numHits = Math.max(1, Math.min(m_maxHits, getSearcher().maxDoc()));
+                TopDocsCollector<?> hitCollector;
+                if (params.getSort() == null) {
+                    hitCollector = TopScoreDocCollector.create(numHits, true);
+                } else {
+                    hitCollector = TopFieldCollector.create(params.getSort(), numHits, true, false, false, true);
+                }
+                CmsSearchCategoryCollector categoryCollector = null;
+                if (params.isCalculateCategories()) {
+                    // USE THIS OPTION WITH CAUTION
+                    // this may slow down searched by an order of magnitude
+                    categoryCollector = new CmsSearchCategoryCollector(getSearcher());
+                }
+                CmsSearchFacetCollector facetCollector = null;
+                if (calculateFacets) {
+                    facetCollector = new CmsSearchFacetCollector(params.getFacets());
+                }
+                getSearcher().search(query, filter, MultiCollector.wrap(new Collector[] {
+                    hitCollector,
+                    categoryCollector,
+                    facetCollector}));
+                hits = hitCollector.topDocs();
+                // store the results
+                if (categoryCollector != null) {
+                    searchResults.setCategories(categoryCollector.getCategoryCountResult());
+                }
+                if (facetCollector != null) {
+                    searchResults.setFacets(facetCollector.getFacetCountResult());
+                }
             } else {
-                hits = getSearcher().search(query, filter, m_maxHits, params.getSort());
+                // perform the search operation          
+                if (params.getSort() == null) {
+                    hits = getSearcher().search(query, filter, m_maxHits);
+                } else {
+                    hits = getSearcher().search(query, filter, m_maxHits, params.getSort());
+                }
             }
 
             timeLucene += System.currentTimeMillis();
@@ -1822,11 +1922,16 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
         }
         String backupPath = m_path + "_backup";
         try {
-            // open file directory for Lucene
-            FSDirectory oldDir = FSDirectory.open(file);
-            FSDirectory newDir = FSDirectory.open(new File(backupPath));
-            for (String fileName : oldDir.listAll()) {
-                oldDir.copy(newDir, fileName, fileName);
+            // open file directory for Lucene, with the directory implementation configured for this index
+            Directory oldDir = createIndexDirectory(file);
+            Directory newDir = createIndexDirectory(new File(backupPath));
+            try {
+                for (String fileName : oldDir.listAll()) {
+                    oldDir.copy(newDir, fileName, fileName);
+                }
+            } finally {
+                oldDir.close();
+                newDir.close();
             }
         } catch (Exception e) {
             // TODO: logging etc. 
@@ -1835,6 +1940,36 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
         return backupPath;
     }
 
+    /**
+     * Creates the Lucene directory for the given index path, using the directory implementation 
+     * configured with the {@link #LUCENE_DIRECTORY} parameter.<p>
+     * 
+     * If no directory implementation is configured, Lucene will choose the best implementation
+     * for the current platform.<p>
+     * 
+     * @param path the index path
+     * 
+     * @return the Lucene directory for the given index path
+     * 
+     * @throws IOException in case the directory could not be created
+     */
+    protected Directory createIndexDirectory(File path) throws IOException {
+
+        if (LUCENE_DIRECTORY_MMAP.equals(m_luceneDirectory)) {
+            MMapDirectory dir = new MMapDirectory(path);
+            if (MMapDirectory.UNMAP_SUPPORTED) {
+                // release the mapped files on close, otherwise they can not be deleted during a rebuild
+                dir.setUseUnmap(true);
+            }
+            return dir;
+        } else if (LUCENE_DIRECTORY_NIO.equals(m_luceneDirectory)) {
+            return new NIOFSDirectory(path);
+        } else if (LUCENE_DIRECTORY_SIMPLE.equals(m_luceneDirectory)) {
+            return new SimpleFSDirectory(path);
+        }
+        return FSDirectory.open(path);
+    }
+
     /**
      * Checks if the provided resource should be excluded from this search index.<p> 
      * 
@@ -2048,7 +2183,7 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
 
         // create the index searcher
         try {
-            Directory indexDirectory = FSDirectory.open(new File(path));
+            Directory indexDirectory = createIndexDirectory(new File(path));
             if (IndexReader.indexExists(indexDirectory)) {
                 IndexReader reader = new LazyContentReader(IndexReader.open(indexDirectory));
                 m_searcher = new IndexSearcher(reader);
@@ -2123,7 +2258,7 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
             return;
         }
         try {
-            FSDirectory dir = FSDirectory.open(file);
+            Directory dir = createIndexDirectory(file);
             dir.close();
             CmsFileUtil.purgeDirectory(file);
         } catch (Exception e) {
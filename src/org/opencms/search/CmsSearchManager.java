@@ -77,7 +77,6 @@ import org.apache.lucene.analysis.standard.StandardAnalyzer;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.search.Similarity;
 import org.apache.lucene.store.Directory;
-import org.apache.lucene.store.FSDirectory;
 import org.apache.lucene.util.Version;
 
 /**
@@ -400,6 +399,9 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
     /** The default update frequency for offline indexes (15000 msec = 15 sec). */
     public static final int DEFAULT_OFFLINE_UPDATE_FREQNENCY = 15000;
 
+    /** The default update frequency for online indexes (0 = update synchronously after each publish). */
+    public static final int DEFAULT_ONLINE_UPDATE_FREQUENCY = 0;
+
     /** The default timeout value used for generating a document for the search index (60000 msec = 1 min). */
     public static final int DEFAULT_TIMEOUT = 60000;
 
@@ -469,6 +471,12 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
     /** The update frequency of the offline indexer in milliseconds. */
     private long m_offlineUpdateFrequency;
 
+    /** The update frequency of the online update queue in milliseconds. */
+    private long m_onlineUpdateFrequency;
+
+    /** The queue for asynchronous online index updates, <code>null</code> if online indexes are updated synchronously. */
+    private CmsSearchOnlineUpdateQueue m_onlineUpdateQueue;
+
     /** Path to index files below WEB-INF/. */
     private String m_path;
 
@@ -489,6 +497,7 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
         m_extractionCacheMaxAge = DEFAULT_EXTRACTION_CACHE_MAX_AGE;
         m_maxExcerptLength = DEFAULT_EXCERPT_LENGTH;
         m_offlineUpdateFrequency = DEFAULT_OFFLINE_UPDATE_FREQNENCY;
+        m_onlineUpdateFrequency = DEFAULT_ONLINE_UPDATE_FREQUENCY;
         m_maxModificationsBeforeCommit = DEFAULT_MAX_MODIFICATIONS_BEFORE_COMMIT;
 
         m_fieldConfigurations = new HashMap<String, CmsSearchFieldConfiguration>();
@@ -715,7 +724,12 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
                 if (LOG.isDebugEnabled()) {
                     LOG.debug(Messages.get().getBundle().key(Messages.LOG_EVENT_PUBLISH_PROJECT_1, publishHistoryId));
                 }
-                updateAllIndexes(m_adminCms, publishHistoryId, getEventReport(event));
+                if (m_onlineUpdateQueue != null) {
+                    // the online indexes are updated asynchronously
+                    m_onlineUpdateQueue.addPublishJob(publishHistoryId);
+                } else {
+                    updateAllIndexes(m_adminCms, publishHistoryId, getEventReport(event));
+                }
                 if (LOG.isDebugEnabled()) {
                     LOG.debug(Messages.get().getBundle().key(
                         Messages.LOG_EVENT_PUBLISH_PROJECT_FINISHED_1,
@@ -1012,6 +1026,44 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
         return m_offlineUpdateFrequency;
     }
 
+    /**
+     * Returns the update frequency of the online update queue in milliseconds.<p>
+     * 
+     * If this is <code>0</code>, the online indexes are updated synchronously after each publish.<p>
+     * 
+     * @return the update frequency of the online update queue in milliseconds
+     */
+    public long getOnlineUpdateFrequency() {
+
+        return m_onlineUpdateFrequency;
+    }
+
+    /**
+     * Returns the time in milliseconds the given online index lags behind the last publish job.<p>
+     * 
+     * In case the online indexes are updated synchronously, this is always <code>0</code>.<p>
+     * 
+     * @param indexName the name of the index
+     * 
+     * @return the time in milliseconds the given online index lags behind the last publish job
+     */
+    public long getOnlineUpdateLag(String indexName) {
+
+        CmsSearchOnlineUpdateQueue queue = m_onlineUpdateQueue;
+        return (queue != null) ? queue.getLag(indexName) : 0;
+    }
+
+    /**
+     * Returns the number of publish jobs waiting for the online indexes to be updated.<p>
+     * 
+     * @return the number of publish jobs waiting for the online indexes to be updated
+     */
+    public int getOnlineUpdateQueueSize() {
+
+        CmsSearchOnlineUpdateQueue queue = m_onlineUpdateQueue;
+        return (queue != null) ? queue.getSize() : 0;
+    }
+
     /**
      * Returns an unmodifiable list of all configured <code>{@link CmsSearchIndex}</code> instances.<p>
      * 
@@ -1068,6 +1120,7 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
 
         initializeIndexes();
         initOfflineIndexes();
+        initOnlineUpdateQueue();
 
         // register the modified default similarity implementation
         Similarity.setDefault(new CmsSearchSimilarity());
@@ -1110,6 +1163,28 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
 
     }
 
+    /**
+     * Initializes the queue for asynchronous online index updates, if an online update frequency is configured.<p>
+     * 
+     * Publish jobs that have not been processed before the last shutdown are enqueued again.<p>
+     */
+    protected void initOnlineUpdateQueue() {
+
+        if ((m_onlineUpdateFrequency > 0) && (m_onlineUpdateQueue == null)) {
+            m_onlineUpdateQueue = new CmsSearchOnlineUpdateQueue(this, m_adminCms);
+            List<CmsSearchIndex> autoIndexes = new ArrayList<CmsSearchIndex>();
+            Iterator<CmsSearchIndex> i = m_indexes.iterator();
+            while (i.hasNext()) {
+                CmsSearchIndex index = i.next();
+                if (CmsSearchIndex.REBUILD_MODE_AUTO.equals(index.getRebuildMode())) {
+                    autoIndexes.add(index);
+                }
+            }
+            m_onlineUpdateQueue.initialize(autoIndexes);
+            m_onlineUpdateQueue.start();
+        }
+    }
+
     /**
      * Updates the indexes from as a scheduled job.<p> 
      * 
@@ -1603,6 +1678,37 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
         }
     }
 
+    /**
+     * Sets the update frequency of the online update queue in milliseconds.<p>
+     * 
+     * If this is <code>0</code>, the online indexes are updated synchronously after each publish.
+     * A changed value is used after the next restart.<p>
+     *
+     * @param onlineUpdateFrequency the update frequency in milliseconds to set
+     */
+    public void setOnlineUpdateFrequency(long onlineUpdateFrequency) {
+
+        m_onlineUpdateFrequency = (onlineUpdateFrequency > 0) ? onlineUpdateFrequency : 0;
+    }
+
+    /**
+     * Sets the update frequency of the online update queue in milliseconds.<p>
+     *
+     * @param onlineUpdateFrequency the update frequency in milliseconds to set
+     */
+    public void setOnlineUpdateFrequency(String onlineUpdateFrequency) {
+
+        try {
+            setOnlineUpdateFrequency(Long.parseLong(onlineUpdateFrequency));
+        } catch (Exception e) {
+            LOG.error(Messages.get().getBundle().key(
+                Messages.LOG_PARSE_ONLINE_UPDATE_FAILED_2,
+                onlineUpdateFrequency,
+                new Long(DEFAULT_ONLINE_UPDATE_FREQUENCY)), e);
+            setOnlineUpdateFrequency(DEFAULT_ONLINE_UPDATE_FREQUENCY);
+        }
+    }
+
     /**
      * Sets the timeout to abandon threads indexing a resource.<p>
      * 
@@ -1642,6 +1748,11 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
             m_offlineIndexThread.shutDown();
         }
 
+        if (m_onlineUpdateQueue != null) {
+            m_onlineUpdateQueue.shutDown();
+            m_onlineUpdateQueue = null;
+        }
+
         if (m_offlineHandler != null) {
             OpenCms.removeCmsEventListener(m_offlineHandler);
         }
@@ -1697,7 +1808,7 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
             Directory indexDirectory = null;
             // get the lock state of the given index            
             try {
-                indexDirectory = FSDirectory.open(new File(index.getPath()));
+                indexDirectory = index.createIndexDirectory(indexPath);
                 indexLocked = IndexWriter.isLocked(indexDirectory);
             } catch (Exception e) {
                 LOG.error(Messages.get().getBundle().key(
@@ -1908,6 +2019,82 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
         }
     }
 
+    /**
+     * Returns the list of resources that must be updated in the indexes for the given list of published resources.<p>
+     * 
+     * Folders and unchanged resources are removed, siblings of changed resources are added, and resources 
+     * contained several times are only contained once with the last state from the given list.
+     * The resulting list is sorted.<p> 
+     * 
+     * @param adminCms an OpenCms user context with Admin permissions
+     * @param publishedResources the published resources, in publish order
+     * 
+     * @return the list of resources that must be updated in the indexes
+     */
+    protected List<CmsPublishedResource> getResourcesToUpdate(
+        CmsObject adminCms,
+        List<CmsPublishedResource> publishedResources) {
+
+        List<CmsPublishedResource> updateResources = new ArrayList<CmsPublishedResource>();
+        Iterator<CmsPublishedResource> itPubRes = publishedResources.iterator();
+        while (itPubRes.hasNext()) {
+            CmsPublishedResource res = itPubRes.next();
+            if (res.isFolder() || res.getState().isUnchanged()) {
+                // folders and unchanged resources don't need to be indexed after publish
+                continue;
+            }
+            if (res.getState().isDeleted() || res.getState().isNew() || res.getState().isChanged()) {
+                if (updateResources.contains(res)) {
+                    // resource may have been added as a sibling of another resource
+                    // in this case we make sure to use the value from the publish list because of the "deleted" flag
+                    boolean hasMoved = (res.getMovedState() == CmsPublishedResource.STATE_MOVED_DESTINATION)
+                        || (res.getMovedState() == CmsPublishedResource.STATE_MOVED_SOURCE);
+                    // check it this is a moved resource with source / target info, in this case we need both entries
+                    if (!hasMoved) {
+                        // if the resource was moved, we must contain both entries
+                        updateResources.remove(res);
+                    }
+                    // "equals()" implementation of published resource checks for id, 
+                    // so the removed value may have a different "deleted" or "modified" status value
+                    updateResources.add(res);
+                } else {
+                    // resource not yet contained in the list
+                    updateResources.add(res);
+                    // check for the siblings (not for deleted resources, these are already gone)
+                    if (!res.getState().isDeleted() && (res.getSiblingCount() > 1)) {
+                        // this resource has siblings                    
+                        try {
+                            // read siblings from the online project
+                            List<CmsResource> siblings = adminCms.readSiblings(
+                                res.getRootPath(),
+                                CmsResourceFilter.ALL);
+                            Iterator<CmsResource> itSib = siblings.iterator();
+                            while (itSib.hasNext()) {
+                                // check all siblings
+                                CmsResource sibling = itSib.next();
+                                CmsPublishedResource sib = new CmsPublishedResource(sibling);
+                                if (!updateResources.contains(sib)) {
+                                    // ensure sibling is added only once
+                                    updateResources.add(sib);
+                                }
+                            }
+                        } catch (CmsException e) {
+                            // ignore, just use the original resource
+                            if (LOG.isWarnEnabled()) {
+                                LOG.warn(Messages.get().getBundle().key(
+                                    Messages.LOG_UNABLE_TO_READ_SIBLINGS_1,
+                                    res.getRootPath()), e);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        // sort the resource to update
+        Collections.sort(updateResources);
+        return updateResources;
+    }
+
     /**
      * Incrementally updates all indexes that have their rebuild mode set to <code>"auto"</code>
      * after resources have been published.<p> 
@@ -1932,65 +2119,8 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
                 return;
             }
 
-            List<CmsPublishedResource> updateResources = new ArrayList<CmsPublishedResource>();
-            Iterator<CmsPublishedResource> itPubRes = publishedResources.iterator();
-            while (itPubRes.hasNext()) {
-                CmsPublishedResource res = itPubRes.next();
-                if (res.isFolder() || res.getState().isUnchanged()) {
-                    // folders and unchanged resources don't need to be indexed after publish
-                    continue;
-                }
-                if (res.getState().isDeleted() || res.getState().isNew() || res.getState().isChanged()) {
-                    if (updateResources.contains(res)) {
-                        // resource may have been added as a sibling of another resource
-                        // in this case we make sure to use the value from the publish list because of the "deleted" flag
-                        boolean hasMoved = (res.getMovedState() == CmsPublishedResource.STATE_MOVED_DESTINATION)
-                            || (res.getMovedState() == CmsPublishedResource.STATE_MOVED_SOURCE);
-                        // check it this is a moved resource with source / target info, in this case we need both entries
-                        if (!hasMoved) {
-                            // if the resource was moved, we must contain both entries
-                            updateResources.remove(res);
-                        }
-                        // "equals()" implementation of published resource checks for id, 
-                        // so the removed value may have a different "deleted" or "modified" status value
-                        updateResources.add(res);
-                    } else {
-                        // resource not yet contained in the list
-                        updateResources.add(res);
-                        // check for the siblings (not for deleted resources, these are already gone)
-                        if (!res.getState().isDeleted() && (res.getSiblingCount() > 1)) {
-                            // this resource has siblings                    
-                            try {
-                                // read siblings from the online project
-                                List<CmsResource> siblings = adminCms.readSiblings(
-                                    res.getRootPath(),
-                                    CmsResourceFilter.ALL);
-                                Iterator<CmsResource> itSib = siblings.iterator();
-                                while (itSib.hasNext()) {
-                                    // check all siblings
-                                    CmsResource sibling = itSib.next();
-                                    CmsPublishedResource sib = new CmsPublishedResource(sibling);
-                                    if (!updateResources.contains(sib)) {
-                                        // ensure sibling is added only once
-                                        updateResources.add(sib);
-                                    }
-                                }
-                            } catch (CmsException e) {
-                                // ignore, just use the original resource
-                                if (LOG.isWarnEnabled()) {
-                                    LOG.warn(Messages.get().getBundle().key(
-                                        Messages.LOG_UNABLE_TO_READ_SIBLINGS_1,
-                                        res.getRootPath()), e);
-                                }
-                            }
-                        }
-                    }
-                }
-            }
-
+            List<CmsPublishedResource> updateResources = getResourcesToUpdate(adminCms, publishedResources);
             if (!updateResources.isEmpty()) {
-                // sort the resource to update
-                Collections.sort(updateResources);
                 // only update the indexes if the list of remaining published resources is not empty
                 Iterator<CmsSearchIndex> i = m_indexes.iterator();
                 while (i.hasNext()) {
@@ -2163,6 +2293,52 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
         }
     }
 
+    /**
+     * Incrementally updates the given online index in batches.<p>
+     * 
+     * The index is committed after every {@link #getMaxModificationsBeforeCommit()} resources, 
+     * the given commit data is stored with the final commit.<p>
+     * 
+     * @param index the index to update
+     * @param report the report to write output messages to 
+     * @param resourcesToIndex a list of <code>{@link CmsPublishedResource}</code> objects to update in the index
+     * @param commitData the user data to store with the final commit
+     * 
+     * @throws CmsException if something goes wrong
+     */
+    protected synchronized void updateIndexBatched(
+        CmsSearchIndex index,
+        I_CmsReport report,
+        List<CmsPublishedResource> resourcesToIndex,
+        Map<String, String> commitData) throws CmsException {
+
+        // copy the stored admin context for the indexing
+        CmsObject cms = OpenCms.initCmsObject(m_adminCms);
+        // check if the index has been configured correctly
+        if (!index.checkConfiguration(cms)) {
+            // the index is disabled
+            return;
+        }
+        // set site root and project for this index
+        cms.getRequestContext().setSiteRoot("/");
+        cms.getRequestContext().setCurrentProject(cms.readProject(index.getProject()));
+
+        int size = resourcesToIndex.size();
+        int batchSize = (m_maxModificationsBeforeCommit > 0) ? m_maxModificationsBeforeCommit : size;
+        int start = 0;
+        do {
+            int end = Math.min(start + batchSize, size);
+            // the commit data is only written with the last batch
+            updateIndexIncremental(
+                cms,
+                index,
+                report,
+                resourcesToIndex.subList(start, end),
+                (end < size) ? null : commitData);
+            start = end;
+        } while (start < size);
+    }
+
     /**
      * Incrementally updates the given index.<p>
      * 
@@ -2179,6 +2355,31 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
         I_CmsReport report,
         List<CmsPublishedResource> resourcesToIndex) throws CmsException {
 
+        updateIndexIncremental(cms, index, report, resourcesToIndex, null);
+    }
+
+    /**
+     * Incrementally updates the given index.<p>
+     * 
+     * If commit data is given, it is stored with the final commit of the index writer. 
+     * Since Lucene skips a commit without changes, the commit data is not stored 
+     * in case no resource needs to be updated.<p>
+     * 
+     * @param cms the OpenCms user context to use for accessing the VFS
+     * @param index the index to update
+     * @param report the report to write output messages to 
+     * @param resourcesToIndex a list of <code>{@link CmsPublishedResource}</code> objects to update in the index
+     * @param commitData the (optional) user data to store with the commit
+     * 
+     * @throws CmsException if something goes wrong
+     */
+    protected void updateIndexIncremental(
+        CmsObject cms,
+        CmsSearchIndex index,
+        I_CmsReport report,
+        List<CmsPublishedResource> resourcesToIndex,
+        Map<String, String> commitData) throws CmsException {
+
         // update the existing index
         List<CmsSearchIndexUpdateData> updateCollections = new ArrayList<CmsSearchIndexUpdateData>();
 
@@ -2231,8 +2432,11 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
                 }
 
                 if (hasResourcesToUpdate) {
-                    // create a new thread manager
-                    CmsIndexingThreadManager threadManager = getThreadManager();
+                    // create a new thread manager, with commit data the changes must only be committed 
+                    // with the final commit, otherwise this commit would have no changes and be skipped
+                    CmsIndexingThreadManager threadManager = (commitData != null) ? new CmsIndexingThreadManager(
+                        m_timeout,
+                        Integer.MAX_VALUE) : getThreadManager();
 
                     Iterator<CmsSearchIndexUpdateData> i = updateCollections.iterator();
                     while (i.hasNext()) {
@@ -2258,7 +2462,11 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
                 // close the index writer
                 if (writer != null) {
                     try {
-                        writer.commit();
+                        if (commitData != null) {
+                            writer.commit(commitData);
+                        } else {
+                            writer.commit();
+                        }
                         writer.close();
                     } catch (IOException e) {
                         LOG.error(Messages.get().getBundle().key(
@@ -0,0 +1,327 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.search;
+
+import org.opencms.db.CmsPublishedResource;
+import org.opencms.file.CmsObject;
+import org.opencms.main.CmsException;
+import org.opencms.main.CmsLog;
+import org.opencms.main.OpenCms;
+import org.opencms.publish.CmsPublishJobFinished;
+import org.opencms.report.CmsLogReport;
+import org.opencms.report.I_CmsReport;
+import org.opencms.util.CmsUUID;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.logging.Log;
+
+/**
+ * Work queue that updates the online search indexes asynchronously after publishing.<p>
+ *
+ * Instead of updating the indexes in the publish thread, the search manager adds the publish history id
+ * of every finished publish job to this queue. The queue thread collects all publish jobs that have been
+ * finished during the configured update frequency, merges the published resources so that a resource
+ * published several times is indexed only once, and updates all indexes with rebuild mode "auto" in batches
+ * of {@link CmsSearchManager#getMaxModificationsBeforeCommit()} resources.<p>
+ *
+ * The queue itself is not persisted separately. The published resources are read from the publish history
+ * in the database, and every index stores the id of the last publish job it has processed in the
+ * commit data of the Lucene index. On startup, all publish jobs from the (database backed) publish history
+ * that have been finished after this id are enqueued again.<p>
+ *
+ * @since 8.0.2
+ */
+public class CmsSearchOnlineUpdateQueue extends Thread {
+
+    /** The key used to store the id of the last processed publish job in the index commit data. */
+    public static final String COMMIT_DATA_PUBLISH_ID = "opencms.lastPublishHistoryId";
+
+    /** The log object for this class. */
+    private static final Log LOG = CmsLog.getLog(CmsSearchOnlineUpdateQueue.class);
+
+    /** The administrator OpenCms user context to access the publish history. */
+    private CmsObject m_adminCms;
+
+    /** Indicates if this thread is still alive. */
+    private volatile boolean m_isAlive;
+
+    /** The time when the last publish job has been processed, per index name. */
+    private Map<String, Long> m_lastUpdates;
+
+    /** The pending publish jobs with the time they have been enqueued, in publish order. */
+    private LinkedHashMap<CmsUUID, Long> m_publishJobs;
+
+    /** The search manager that owns this queue. */
+    private CmsSearchManager m_searchManager;
+
+    /**
+     * Creates a new online update queue.<p>
+     *
+     * @param searchManager the search manager that owns this queue
+     * @param adminCms an OpenCms user context with Admin permissions
+     */
+    protected CmsSearchOnlineUpdateQueue(CmsSearchManager searchManager, CmsObject adminCms) {
+
+        super("OpenCms: Online Search Index Update Queue");
+        m_searchManager = searchManager;
+        m_adminCms = adminCms;
+        m_publishJobs = new LinkedHashMap<CmsUUID, Long>();
+        m_lastUpdates = new HashMap<String, Long>();
+    }
+
+    /**
+     * Adds the publish job with the given publish history id to this queue.<p>
+     *
+     * @param publishHistoryId the publish history id of the finished publish job
+     */
+    public synchronized void addPublishJob(CmsUUID publishHistoryId) {
+
+        if (!m_publishJobs.containsKey(publishHistoryId)) {
+            m_publishJobs.put(publishHistoryId, new Long(System.currentTimeMillis()));
+            notifyAll();
+        }
+    }
+
+    /**
+     * Returns the time in milliseconds the given index lags behind the last publish job.<p>
+     *
+     * This is the time since the oldest publish job that has not yet been processed for the index
+     * has been finished, or <code>0</code> in case the index is up to date.<p>
+     *
+     * @param indexName the name of the index
+     *
+     * @return the time in milliseconds the given index lags behind the last publish job
+     */
+    public synchronized long getLag(String indexName) {
+
+        Long lastUpdate = m_lastUpdates.get(indexName);
+        Iterator<Long> i = m_publishJobs.values().iterator();
+        while (i.hasNext()) {
+            long enqueueTime = i.next().longValue();
+            if ((lastUpdate == null) || (enqueueTime > lastUpdate.longValue())) {
+                // this is the oldest job not yet processed for the index
+                return System.currentTimeMillis() - enqueueTime;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Returns the number of publish jobs waiting to be processed by this queue.<p>
+     *
+     * @return the number of publish jobs waiting to be processed by this queue
+     */
+    public synchronized int getSize() {
+
+        return m_publishJobs.size();
+    }
+
+    /**
+     * @see java.lang.Thread#run()
+     */
+    @Override
+    public void run() {
+
+        I_CmsReport report = new CmsLogReport(m_adminCms.getRequestContext().getLocale(), CmsSearchManager.class);
+        try {
+            while (m_isAlive) {
+                try {
+                    synchronized (this) {
+                        while (m_isAlive && m_publishJobs.isEmpty()) {
+                            wait();
+                        }
+                    }
+                    // wait for more publish jobs to arrive so that they can be processed together
+                    sleep(m_searchManager.getOnlineUpdateFrequency());
+                } catch (InterruptedException e) {
+                    // continue the thread after interruption, status is checked below
+                }
+                if (m_isAlive) {
+                    processPublishJobs(report);
+                }
+            }
+        } finally {
+            // make sure that live status is reset in case of Exceptions
+            m_isAlive = false;
+        }
+    }
+
+    /**
+     * @see java.lang.Thread#start()
+     */
+    @Override
+    public synchronized void start() {
+
+        m_isAlive = true;
+        super.start();
+    }
+
+    /**
+     * Enqueues all publish jobs from the publish history that have not yet been processed
+     * by the given indexes, for example because the server was shut down before the queue was empty.<p>
+     *
+     * @param indexes the indexes to check
+     */
+    protected void initialize(List<CmsSearchIndex> indexes) {
+
+        List<CmsPublishJobFinished> history = OpenCms.getPublishManager().getPublishHistory();
+        int start = history.size();
+        Iterator<CmsSearchIndex> i = indexes.iterator();
+        while (i.hasNext()) {
+            CmsSearchIndex index = i.next();
+            String lastPublishId = index.getCommitData().get(COMMIT_DATA_PUBLISH_ID);
+            if (lastPublishId == null) {
+                // this index has never been updated by the queue
+                continue;
+            }
+            int pos = -1;
+            for (int j = 0; j < history.size(); j++) {
+                if (history.get(j).getPublishHistoryId().toString().equals(lastPublishId)) {
+                    pos = j;
+                    break;
+                }
+            }
+            if (pos < 0) {
+                // the last processed job is no longer in the history, index may be incomplete
+                LOG.warn(Messages.get().getBundle().key(
+                    Messages.LOG_UPDATE_QUEUE_HISTORY_INCOMPLETE_2,
+                    index.getName(),
+                    lastPublishId));
+            }
+            start = Math.min(start, pos + 1);
+        }
+        for (int j = start; j < history.size(); j++) {
+            addPublishJob(history.get(j).getPublishHistoryId());
+        }
+        if ((start < history.size()) && CmsLog.INIT.isInfoEnabled()) {
+            CmsLog.INIT.info(Messages.get().getBundle().key(
+                Messages.INIT_UPDATE_QUEUE_RESTORED_1,
+                new Integer(history.size() - start)));
+        }
+    }
+
+    /**
+     * Processes all publish jobs that are currently in this queue.<p>
+     *
+     * If the update of an index fails, the publish jobs are kept in the queue
+     * and are processed again with the next update. If the published resources of a
+     * publish job can not be read, only the jobs before this job are processed, the job itself
+     * and all jobs after it are kept in the queue.<p>
+     *
+     * @param report the report to write the index information to
+     */
+    protected void processPublishJobs(I_CmsReport report) {
+
+        LinkedHashMap<CmsUUID, Long> publishJobs;
+        synchronized (this) {
+            publishJobs = new LinkedHashMap<CmsUUID, Long>(m_publishJobs);
+        }
+        if (publishJobs.isEmpty()) {
+            return;
+        }
+        CmsUUID lastPublishId = null;
+        long lastEnqueueTime = 0;
+        List<CmsUUID> processedJobs = new ArrayList<CmsUUID>();
+        List<CmsPublishedResource> publishedResources = new ArrayList<CmsPublishedResource>();
+        Iterator<Map.Entry<CmsUUID, Long>> i = publishJobs.entrySet().iterator();
+        while (i.hasNext()) {
+            Map.Entry<CmsUUID, Long> entry = i.next();
+            try {
+                // read the list of all published resources, in publish order
+                publishedResources.addAll(m_adminCms.readPublishedResources(entry.getKey()));
+            } catch (CmsException e) {
+                LOG.error(
+                    Messages.get().getBundle().key(Messages.LOG_READING_CHANGED_RESOURCES_FAILED_1, entry.getKey()),
+                    e);
+                // keep this job and all later jobs in the queue, the committed publish id must not skip them
+                break;
+            }
+            lastPublishId = entry.getKey();
+            lastEnqueueTime = entry.getValue().longValue();
+            processedJobs.add(lastPublishId);
+        }
+        if (processedJobs.isEmpty()) {
+            // the first job could not be read, it is processed again with the next update
+            return;
+        }
+        // merge the resources of all jobs, later changes replace earlier changes of the same resource
+        List<CmsPublishedResource> updateResources = m_searchManager.getResourcesToUpdate(
+            m_adminCms,
+            publishedResources);
+        Map<String, String> commitData = Collections.singletonMap(COMMIT_DATA_PUBLISH_ID, lastPublishId.toString());
+
+        boolean failed = false;
+        Iterator<CmsSearchIndex> j = m_searchManager.getSearchIndexes().iterator();
+        while (j.hasNext()) {
+            CmsSearchIndex index = j.next();
+            if (CmsSearchIndex.REBUILD_MODE_AUTO.equals(index.getRebuildMode())) {
+                // only update indexes which have the rebuild mode set to "auto"
+                try {
+                    m_searchManager.updateIndexBatched(index, report, updateResources, commitData);
+                    synchronized (this) {
+                        m_lastUpdates.put(index.getName(), new Long(lastEnqueueTime));
+                    }
+                } catch (CmsException e) {
+                    LOG.error(Messages.get().getBundle().key(Messages.LOG_UPDATE_INDEX_FAILED_1, index.getName()), e);
+                    failed = true;
+                }
+            }
+        }
+        if (failed) {
+            // keep the publish jobs in the queue, they are processed again with the next update
+            return;
+        }
+        synchronized (this) {
+            m_publishJobs.keySet().removeAll(processedJobs);
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug(Messages.get().getBundle().key(
+                Messages.LOG_UPDATE_QUEUE_PROCESSED_2,
+                new Integer(processedJobs.size()),
+                new Integer(updateResources.size())));
+        }
+    }
+
+    /**
+     * Shuts down this queue thread.<p>
+     *
+     * Publish jobs still in the queue will be enqueued again on the next startup.<p>
+     */
+    protected synchronized void shutDown() {
+
+        m_isAlive = false;
+        interrupt();
+    }
+}
@@ -57,6 +57,101 @@ import org.apache.lucene.search.SortField;
  */
 public class CmsSearchParameters {
 
+    /**
+     * Describes a facet, that is a search field for which the number of matching documents 
+     * is counted per indexed term.<p>
+     * 
+     * For date fields, which are indexed using the format <code>yyyyMMddHHmmssSSS</code>, 
+     * the term length can be used to count date ranges, for example a term length of 6 
+     * counts the matching documents per month.<p>
+     * 
+     * The facet counts are returned with the facet name as key, see {@link #getName()}.<p>
+     * 
+     * @since 8.0.2
+     */
+    public static class CmsSearchFacet {
+
+        /** The field name. */
+        private String m_fieldName;
+
+        /** The number of leading characters of the terms used for counting, 0 to use the full term. */
+        private int m_termLength;
+
+        /**
+         * Creates a new facet that counts the full terms of the given field.<p>
+         * 
+         * @param fieldName the field name
+         */
+        public CmsSearchFacet(String fieldName) {
+
+            this(fieldName, 0);
+        }
+
+        /**
+         * Creates a new facet that counts only the given number of leading characters of the terms of the given field.<p>
+         * 
+         * @param fieldName the field name
+         * @param termLength the number of leading characters of the terms used for counting, 0 to use the full term
+         */
+        public CmsSearchFacet(String fieldName, int termLength) {
+
+            super();
+            m_fieldName = fieldName;
+            m_termLength = termLength;
+        }
+
+        /**
+         * Returns the field name.<p>
+         *
+         * @return the field name
+         */
+        public String getFieldName() {
+
+            return m_fieldName;
+        }
+
+        /**
+         * Returns the name of this facet, which is used as key for the facet counts.<p>
+         * 
+         * The name is the field name if the full terms are counted, otherwise the field name 
+         * followed by a colon and the term length, for example <code>lastmodified:4</code>.<p>
+         *
+         * @return the name of this facet
+         */
+        public String getName() {
+
+            if (m_termLength > 0) {
+                return m_fieldName + ":" + m_termLength;
+            }
+            return m_fieldName;
+        }
+
+        /**
+         * Returns the number of leading characters of the terms used for counting, 0 to use the full term.<p>
+         *
+         * @return the number of leading characters of the terms used for counting
+         */
+        public int getTermLength() {
+
+            return m_termLength;
+        }
+
+        /**
+         * Returns the facet value for the given indexed term.<p>
+         * 
+         * @param term the indexed term
+         * 
+         * @return the facet value for the given indexed term
+         */
+        public String getValue(String term) {
+
+            if ((m_termLength > 0) && (term.length() > m_termLength)) {
+                return term.substring(0, m_termLength);
+            }
+            return term;
+        }
+    }
+
     /**
      * Describes a specific search field query.<p>
      */
@@ -246,6 +341,9 @@ public class CmsSearchParameters {
     /** Indicates if all fields should be used for generating the excerpt, regardless if they have been searched or not. */
     private boolean m_excerptOnlySearchedFields;
 
+    /** The list of facets to count for the search results. */
+    private List<CmsSearchFacet> m_facets;
+
     /** The map of individual search field queries. */
     private List<CmsSearchFieldQuery> m_fieldQueries;
 
@@ -413,6 +511,41 @@ public class CmsSearchParameters {
         addFieldQuery(newQuery);
     }
 
+    /**
+     * Adds a facet to count for the search results.<p>
+     * 
+     * All facets are counted together with the search itself in a single pass over the matching documents.
+     * Facets should only be used for fields that are indexed but not tokenized, like the resource type
+     * or the date fields.<p>
+     * 
+     * @param facet the facet to add
+     * 
+     * @see CmsSearchResultList#getFacets()
+     * 
+     * @since 8.0.2
+     */
+    public void addFacet(CmsSearchFacet facet) {
+
+        if (m_facets == null) {
+            m_facets = new ArrayList<CmsSearchFacet>();
+        }
+        m_facets.add(facet);
+    }
+
+    /**
+     * Adds a facet to count the full terms of the given field for the search results.<p>
+     * 
+     * @param fieldName the name of the field to count the terms for
+     * 
+     * @see #addFacet(CmsSearchFacet)
+     * 
+     * @since 8.0.2
+     */
+    public void addFacet(String fieldName) {
+
+        addFacet(new CmsSearchFacet(fieldName));
+    }
+
     /**
      * Returns whether category counts are calculated for search results or not. <p>
      * 
@@ -443,6 +576,18 @@ public class CmsSearchParameters {
         return m_displayPages;
     }
 
+    /**
+     * Returns the list of facets to count for the search results.<p>
+     * 
+     * @return the list of facets to count for the search results, may be <code>null</code>
+     * 
+     * @since 8.0.2
+     */
+    public List<CmsSearchFacet> getFacets() {
+
+        return m_facets;
+    }
+
     /**
      * Returns the list of individual field queries.<p>
      * 
@@ -809,6 +954,7 @@ public class CmsSearchParameters {
             m_calculateCategories,
             m_sort);
         result.setIndex(getIndex());
+        result.setFacets(m_facets);
         return result;
     }
 
@@ -856,6 +1002,18 @@ public class CmsSearchParameters {
         m_excerptOnlySearchedFields = excerptOnlySearchedFields;
     }
 
+    /**
+     * Sets the list of facets to count for the search results.<p>
+     * 
+     * @param facets the list of facets to count for the search results
+     * 
+     * @since 8.0.2
+     */
+    public void setFacets(List<CmsSearchFacet> facets) {
+
+        m_facets = facets;
+    }
+
     /**
      * Sets the list of strings of names of fields to search in. <p>
      * 
@@ -44,6 +44,9 @@ public class CmsSearchResultList extends ArrayList<CmsSearchResult> {
     /** The (optional) categories found in the last the search. */
     private Map<String, Integer> m_categories;
 
+    /** The (optional) facet counts found in the last search. */
+    private Map<String, Map<String, Integer>> m_facets;
+
     /** The total size of all results found in the last search. */
     private int m_hitCount;
 
@@ -78,6 +81,22 @@ public class CmsSearchResultList extends ArrayList<CmsSearchResult> {
         return m_categories;
     }
 
+    /**
+     * Returns the (optional) facet counts found in the last search, or <code>null</code>
+     * if no facets were requested in the search.<p>
+     * 
+     * The returned map contains the facet names mapped to a map of the facet values 
+     * and the number of matching documents for each value.<p>
+     *
+     * @return the (optional) facet counts found in the last search
+     * 
+     * @see CmsSearchParameters#addFacet(CmsSearchParameters.CmsSearchFacet)
+     */
+    public Map<String, Map<String, Integer>> getFacets() {
+
+        return m_facets;
+    }
+
     /**
      * Returns the hit count of all results found in the last search.<p>
      * 
@@ -103,6 +122,18 @@ public class CmsSearchResultList extends ArrayList<CmsSearchResult> {
         m_categories = categories;
     }
 
+    /**
+     * Sets the facet counts found in the last search.<p>
+     *
+     * @param facets the facet counts to set
+     * 
+     * @see CmsSearchParameters#setFacets(java.util.List)
+     */
+    public void setFacets(Map<String, Map<String, Integer>> facets) {
+
+        m_facets = facets;
+    }
+
     /**
      * Sets the hit count of all results found in the last search.<p>
      *
@@ -28,6 +28,7 @@
 package org.opencms.search;
 
 import java.io.IOException;
+import java.util.Map;
 
 import org.apache.lucene.document.Document;
 
@@ -52,6 +53,17 @@ public interface I_CmsIndexWriter {
      */
     void commit() throws IOException;
 
+    /**
+     * Commit all previous operations and store the given user data with the commit.<p>
+     * 
+     * The user data can later be read from the index with {@link CmsSearchIndex#getCommitData()}.<p>
+     * 
+     * @param commitData the user data to store with the commit
+     * 
+     * @throws IOException
+     */
+    void commit(Map<String, String> commitData) throws IOException;
+
     /**
      * Delete a document from the index.<p>
      * 
@@ -196,6 +196,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String INIT_START_SEARCH_CONFIG_0 = "INIT_START_SEARCH_CONFIG_0";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String INIT_UPDATE_QUEUE_RESTORED_1 = "INIT_UPDATE_QUEUE_RESTORED_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String LOG_ABANDONED_THREAD_FINISHED_1 = "LOG_ABANDONED_THREAD_FINISHED_1";
 
@@ -277,6 +280,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String LOG_PARSE_OFFLINE_UPDATE_FAILED_2 = "LOG_PARSE_OFFLINE_UPDATE_FAILED_2";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_PARSE_ONLINE_UPDATE_FAILED_2 = "LOG_PARSE_ONLINE_UPDATE_FAILED_2";
+
     /** Message constant for key in the resource bundle. */
     public static final String LOG_PARSE_TIMEOUT_FAILED_2 = "LOG_PARSE_TIMEOUT_FAILED_2";
 
@@ -349,6 +355,12 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String LOG_UPDATE_INDEX_FAILED_1 = "LOG_UPDATE_INDEX_FAILED_1";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_UPDATE_QUEUE_HISTORY_INCOMPLETE_2 = "LOG_UPDATE_QUEUE_HISTORY_INCOMPLETE_2";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_UPDATE_QUEUE_PROCESSED_2 = "LOG_UPDATE_QUEUE_PROCESSED_2";
+
     /** Message constant for key in the resource bundle. */
     public static final String LOG_WAITING_ABANDONED_THREADS_2 = "LOG_WAITING_ABANDONED_THREADS_2";
 
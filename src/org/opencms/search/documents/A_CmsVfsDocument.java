@@ -134,32 +134,9 @@ public abstract class A_CmsVfsDocument implements I_CmsDocumentFactory {
             if (content == null) {
                 // extraction result has not been found in the cache
                 // compare "date of last modification of content" from Lucene index and OpenCms VFS
-                // if this is identical, then the data from the Lucene index can be re-used 
-                Document oldDoc = index.getDocument(resource.getRootPath());
-                // first check if the document is already in the index
-                if (oldDoc != null) {
-                    // first obtain content date from Lucene index
-                    Fieldable fieldContentDate = oldDoc.getFieldable(CmsSearchField.FIELD_DATE_CONTENT);
-                    long contentDateIndex = 0;
-                    if (fieldContentDate != null) {
-                        String contentDate = fieldContentDate.stringValue();
-                        try {
-                            contentDateIndex = DateTools.stringToTime(contentDate);
-                        } catch (ParseException e) {
-                            // ignore
-                        }
-                        // now compare the date with the date stored in the resource
-                        if (contentDateIndex == resource.getDateContent()) {
-                            // date of content is identical, re-use existing content
-                            Fieldable fieldContentBlob = oldDoc.getFieldable(CmsSearchField.FIELD_CONTENT_BLOB);
-                            if (fieldContentBlob != null) {
-                                // extract stored content blob from Lucene index
-                                byte[] oldContent = fieldContentBlob.getBinaryValue();
-                                content = CmsExtractionResult.fromBytes(oldContent);
-                            }
-                        }
-                    }
-                }
+                // if this is identical, then only properties or relations have been changed
+                // and the data from the Lucene index can be re-used 
+                content = readUnchangedContent(resource, index);
             }
 
             if (content == null) {
@@ -174,6 +151,11 @@ public abstract class A_CmsVfsDocument implements I_CmsDocumentFactory {
                     // text extraction failed for document - continue indexing meta information only
                     LOG.error(Messages.get().getBundle().key(Messages.ERR_TEXT_EXTRACTION_1, resource.getRootPath()), e);
                 }
+            } else if (LOG.isDebugEnabled()) {
+                LOG.debug(Messages.get().getBundle().key(
+                    Messages.LOG_EXTRACTION_RESULT_REUSED_2,
+                    resource.getRootPath(),
+                    index.getName()));
             }
         }
 
@@ -239,6 +221,52 @@ public abstract class A_CmsVfsDocument implements I_CmsDocumentFactory {
         m_cache = cache;
     }
 
+    /**
+     * Returns the extraction result stored in the given index for the given resource, 
+     * in case the content of the resource has not been changed since it was indexed.<p>
+     * 
+     * This is the case if only the properties or the relations of the resource have been changed,
+     * for example the title or the categories. The returned extraction result can then be used 
+     * to create a new document with the current meta data, without extracting the content again.<p>
+     * 
+     * @param resource the resource to read the extraction result for
+     * @param index the index to read the extraction result from
+     * 
+     * @return the extraction result stored in the index, or <code>null</code> if the resource 
+     *      is not in the index, or the content has been changed since it was indexed
+     */
+    protected I_CmsExtractionResult readUnchangedContent(CmsResource resource, CmsSearchIndex index) {
+
+        Document oldDoc = index.getDocument(resource.getRootPath());
+        if (oldDoc == null) {
+            // the document is not in the index
+            return null;
+        }
+        // first obtain content date from Lucene index
+        Fieldable fieldContentDate = oldDoc.getFieldable(CmsSearchField.FIELD_DATE_CONTENT);
+        if (fieldContentDate == null) {
+            return null;
+        }
+        long contentDateIndex = 0;
+        try {
+            contentDateIndex = DateTools.stringToTime(fieldContentDate.stringValue());
+        } catch (ParseException e) {
+            // ignore
+        }
+        // now compare the date with the date stored in the resource
+        if (contentDateIndex != resource.getDateContent()) {
+            return null;
+        }
+        // date of content is identical, re-use existing content
+        // the content blob is lazy loaded by CmsSearchIndex#getDocument(String), it is only read here
+        Fieldable fieldContentBlob = oldDoc.getFieldable(CmsSearchField.FIELD_CONTENT_BLOB);
+        if (fieldContentBlob == null) {
+            return null;
+        }
+        // extract stored content blob from Lucene index
+        return CmsExtractionResult.fromBytes(fieldContentBlob.getBinaryValue());
+    }
+
     /**
      * Upgrades the given resource to a {@link CmsFile} with content.<p>
      * 
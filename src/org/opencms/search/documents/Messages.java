@@ -67,6 +67,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String LOG_EXCERPT_CACHE_DELETE_ERROR_1 = "LOG_EXCERPT_CACHE_DELETE_ERROR_1";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_EXTRACTION_RESULT_REUSED_2 = "LOG_EXTRACTION_RESULT_REUSED_2";
+
     /** Name of the used resource bundle. */
     private static final String BUNDLE_NAME = "org.opencms.search.documents.messages";
 
@@ -0,0 +1,288 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.search.galleries;
+
+import org.opencms.search.fields.CmsSearchField;
+
+import org.apache.lucene.search.FieldDoc;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+
+/**
+ * A cursor that marks the position after the last hit of a gallery search result page.<p>
+ * 
+ * The cursor stores the sort key of the last hit, and not its position in the search hits. 
+ * This way the next result page still starts after the right hit in case documents have been
+ * added to or removed from the index between the two searches. The resource path is always
+ * part of the sort key, so that the key is unique, see {@link #getSort(Sort)}.<p>
+ * 
+ * The cursor also stores the number of hits before the cursor that the user was not allowed to read,
+ * so that the total number of results can be calculated in the same way with or without the cursor.<p>
+ * 
+ * @since 8.0.2
+ */
+public class CmsGallerySearchCursor {
+
+    /** The number of hits before this cursor that could not be read by the user. */
+    private int m_invisibleHits;
+
+    /** The sort key of the last hit before this cursor. */
+    private Comparable<?>[] m_values;
+
+    /**
+     * Creates a new cursor that is placed after the given hit.<p>
+     * 
+     * @param hit the last hit before the cursor
+     * @param invisibleHits the number of hits before the cursor that could not be read by the user
+     */
+    public CmsGallerySearchCursor(FieldDoc hit, int invisibleHits) {
+
+        m_values = hit.fields;
+        m_invisibleHits = invisibleHits;
+    }
+
+    /**
+     * Creates a new cursor with the given values.<p>
+     * 
+     * @param values the sort key of the last hit before the cursor
+     * @param invisibleHits the number of hits before the cursor that could not be read by the user
+     */
+    protected CmsGallerySearchCursor(Comparable<?>[] values, int invisibleHits) {
+
+        m_values = values;
+        m_invisibleHits = invisibleHits;
+    }
+
+    /**
+     * Parses a cursor from the given String.<p>
+     * 
+     * @param cursor the String representation of the cursor, as created by {@link #toString()}
+     * 
+     * @return the parsed cursor, or <code>null</code> if the given String is empty or not a valid cursor
+     */
+    public static CmsGallerySearchCursor fromString(String cursor) {
+
+        if ((cursor == null) || (cursor.length() == 0)) {
+            return null;
+        }
+        try {
+            int pos = cursor.indexOf('|');
+            if (pos < 0) {
+                return null;
+            }
+            int invisibleHits = Integer.parseInt(cursor.substring(0, pos));
+            int count = 0;
+            for (int i = 0; i < cursor.length(); i++) {
+                // every value starts with a separator, but separators may also be part of string values 
+                if (cursor.charAt(i) == '|') {
+                    count++;
+                }
+            }
+            Comparable<?>[] values = new Comparable<?>[count];
+            int n = 0;
+            while (pos < cursor.length()) {
+                // skip the separator
+                pos++;
+                char type = cursor.charAt(pos++);
+                int end;
+                switch (type) {
+                    case 'n':
+                        values[n++] = null;
+                        end = pos;
+                        break;
+                    case 's':
+                        int colon = cursor.indexOf(':', pos);
+                        int length = Integer.parseInt(cursor.substring(pos, colon));
+                        end = colon + 1 + length;
+                        values[n++] = cursor.substring(colon + 1, end);
+                        break;
+                    case 'i':
+                        end = nextSeparator(cursor, pos);
+                        values[n++] = Integer.valueOf(cursor.substring(pos, end));
+                        break;
+                    case 'l':
+                        end = nextSeparator(cursor, pos);
+                        values[n++] = Long.valueOf(cursor.substring(pos, end));
+                        break;
+                    case 'f':
+                        end = nextSeparator(cursor, pos);
+                        values[n++] = Float.valueOf(cursor.substring(pos, end));
+                        break;
+                    default:
+                        return null;
+                }
+                pos = end;
+            }
+            Comparable<?>[] result = new Comparable<?>[n];
+            System.arraycopy(values, 0, result, 0, n);
+            return new CmsGallerySearchCursor(result, invisibleHits);
+        } catch (RuntimeException e) {
+            // invalid cursor
+            return null;
+        }
+    }
+
+    /**
+     * Returns the sort to use for a search with cursors.<p>
+     * 
+     * The resource path is appended to the given sort, so that the sort key of every hit is unique.<p>
+     * 
+     * @param sort the requested sort
+     * 
+     * @return the sort to use for a search with cursors
+     */
+    public static Sort getSort(Sort sort) {
+
+        SortField[] fields = sort.getSort();
+        SortField last = fields[fields.length - 1];
+        if ((last.getType() == SortField.STRING) && CmsSearchField.FIELD_PATH.equals(last.getField())) {
+            // the path is already the last sort field
+            return sort;
+        }
+        SortField[] result = new SortField[fields.length + 1];
+        System.arraycopy(fields, 0, result, 0, fields.length);
+        result[fields.length] = new SortField(CmsSearchField.FIELD_PATH, SortField.STRING, false);
+        return new Sort(result);
+    }
+
+    /**
+     * Returns the index of the next separator in the given String, or the length of the String.<p>
+     * 
+     * @param cursor the String to search
+     * @param start the position to start searching from
+     * 
+     * @return the index of the next separator
+     */
+    private static int nextSeparator(String cursor, int start) {
+
+        int result = cursor.indexOf('|', start);
+        return result < 0 ? cursor.length() : result;
+    }
+
+    /**
+     * Compares the given hit to the sort key of this cursor.<p>
+     * 
+     * @param hit the hit to compare
+     * @param sortFields the fields of the sort used for the search
+     * 
+     * @return a negative number if the hit is sorted before this cursor, 0 if the hit is the last hit
+     *      before this cursor, and a positive number if the hit is sorted after this cursor 
+     */
+    @SuppressWarnings("unchecked")
+    public int compareTo(FieldDoc hit, SortField[] sortFields) {
+
+        for (int i = 0; (i < sortFields.length) && (i < m_values.length) && (i < hit.fields.length); i++) {
+            Comparable<Object> hitValue = hit.fields[i];
+            Object cursorValue = m_values[i];
+            int result;
+            if (hitValue == null) {
+                result = cursorValue == null ? 0 : -1;
+            } else if (cursorValue == null) {
+                result = 1;
+            } else {
+                result = hitValue.compareTo(cursorValue);
+            }
+            if (sortFields[i].getType() == SortField.SCORE) {
+                // higher scores are sorted first 
+                result = -result;
+            }
+            if (sortFields[i].getReverse()) {
+                result = -result;
+            }
+            if (result != 0) {
+                return result;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Returns the number of hits before this cursor that could not be read by the user.<p>
+     *
+     * @return the number of hits before this cursor that could not be read by the user
+     */
+    public int getInvisibleHits() {
+
+        return m_invisibleHits;
+    }
+
+    /**
+     * Returns the position of the first hit after this cursor in the given sorted hits.<p>
+     * 
+     * @param hits the sorted hits, with the sort key of every hit
+     * @param hitCount the number of hits to check
+     * @param sortFields the fields of the sort used for the search
+     * 
+     * @return the position of the first hit after this cursor, or <code>hitCount</code> if all hits are before the cursor
+     */
+    public int getNextPosition(ScoreDoc[] hits, int hitCount, SortField[] sortFields) {
+
+        int low = 0;
+        int high = hitCount;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compareTo((FieldDoc)hits[mid], sortFields) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns the String representation of this cursor, which can be parsed with {@link #fromString(String)}.<p>
+     * 
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+
+        StringBuffer result = new StringBuffer(64);
+        result.append(m_invisibleHits);
+        for (int i = 0; i < m_values.length; i++) {
+            Object value = m_values[i];
+            result.append('|');
+            if (value == null) {
+                result.append('n');
+            } else if (value instanceof Integer) {
+                result.append('i').append(value);
+            } else if (value instanceof Long) {
+                result.append('l').append(value);
+            } else if (value instanceof Float) {
+                result.append('f').append(value);
+            } else {
+                String str = value.toString();
+                result.append('s').append(str.length()).append(':').append(str);
+            }
+        }
+        return result.toString();
+    }
+}
@@ -44,6 +44,7 @@ import org.opencms.search.CmsSearchParameters;
 import org.opencms.search.Messages;
 import org.opencms.search.documents.I_CmsDocumentFactory;
 import org.opencms.search.documents.I_CmsTermHighlighter;
+import org.opencms.search.fields.CmsSearchField;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -51,13 +52,17 @@ import java.util.Locale;
 
 import org.apache.commons.logging.Log;
 import org.apache.lucene.document.Document;
+import org.apache.lucene.document.FieldSelector;
+import org.apache.lucene.document.MapFieldSelector;
 import org.apache.lucene.queryParser.QueryParser;
 import org.apache.lucene.search.BooleanClause;
 import org.apache.lucene.search.BooleanFilter;
 import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.FieldDoc;
 import org.apache.lucene.search.FilterClause;
 import org.apache.lucene.search.MatchAllDocsQuery;
 import org.apache.lucene.search.Query;
+import org.apache.lucene.search.Sort;
 import org.apache.lucene.search.TopDocs;
 
 /**
@@ -242,39 +247,71 @@ public class CmsGallerySearchIndex extends CmsSearchIndex {
                 query = new MatchAllDocsQuery();
             }
 
-            // perform the search operation          
+            int page = params.getResultPage();
+            int matchesPerPage = params.getMatchesPerPage();
+            boolean paging = (matchesPerPage > 0) && (page > 0);
+            // the number of visible hits to skip, or the cursor to continue after
+            int skip = 0;
+            CmsGallerySearchCursor cursor = null;
+            if (paging) {
+                if (page > 1) {
+                    // continue directly after the last hit of the previous page
+                    cursor = CmsGallerySearchCursor.fromString(params.getResultCursor());
+                }
+                if (cursor == null) {
+                    skip = matchesPerPage * (page - 1);
+                }
+            }
+            int maxHits = getMaxHits();
+            // only collect the hits required for the requested page, with a reserve for hits without read permission
+            int numHits = paging ? Math.min(maxHits, matchesPerPage * page * 2) : maxHits;
+            // the path is added to the sort so that the sort key of every hit is unique
+            Sort sort = CmsGallerySearchCursor.getSort(params.getSort());
+
+            // for the permission check only the type and path fields are read from the index
+            FieldSelector permissionFields = new MapFieldSelector(new String[] {
+                CmsSearchField.FIELD_TYPE,
+                CmsSearchField.FIELD_PATH});
+
+            Document doc;
+            CmsGallerySearchResult searchResult;
+            CmsSearchParameters searchParams = params.getCmsSearchParams();
+
+            int start = -1;
+            int pos = -1;
+            int cnt = 0;
+            int invisibleHitCount = cursor == null ? 0 : cursor.getInvisibleHits();
+            int hitCount;
             getSearcher().setDefaultFieldSortScoring(true, true);
-            hits = getSearcher().search(query, filter, getMaxHits(), params.getSort());
-
-            if (hits != null) {
-                int hitCount = hits.totalHits > hits.scoreDocs.length ? hits.scoreDocs.length : hits.totalHits;
-                int page = params.getResultPage();
-                int start = -1, end = -1;
-                if ((params.getMatchesPerPage() > 0) && (page > 0) && (hitCount > 0)) {
-                    // calculate the final size of the search result
-                    start = params.getMatchesPerPage() * (page - 1);
-                    end = start + params.getMatchesPerPage();
-                    // ensure that both i and n are inside the range of foundDocuments.size()
-                    start = (start > hitCount) ? hitCount : start;
-                    end = (end > hitCount) ? hitCount : end;
-                } else {
-                    // return all found documents in the search result
-                    start = 0;
-                    end = hitCount;
+            while (true) {
+                // perform the search operation          
+                hits = getSearcher().search(query, filter, Math.max(1, numHits), sort);
+                hitCount = hits.totalHits > hits.scoreDocs.length ? hits.scoreDocs.length : hits.totalHits;
+                boolean moreHits = hitCount < Math.min(hits.totalHits, maxHits);
+                if (start < 0) {
+                    if (cursor == null) {
+                        start = 0;
+                    } else {
+                        // find the first hit after the cursor
+                        start = cursor.getNextPosition(hits.scoreDocs, hitCount, sort.getSort());
+                        if ((start >= hitCount) && moreHits) {
+                            // the cursor is behind the collected hits
+                            start = -1;
+                            numHits = Math.min(maxHits, numHits * 2);
+                            continue;
+                        }
+                    }
+                    pos = start;
                 }
-
-                Document doc;
-                CmsGallerySearchResult searchResult;
-                CmsSearchParameters searchParams = params.getCmsSearchParams();
-
-                int visibleHitCount = hitCount;
-                for (int i = 0, cnt = 0; (i < hitCount) && (cnt < end); i++) {
+                for (; (pos < hitCount) && (!paging || (cnt < (skip + matchesPerPage))); pos++) {
                     try {
-                        doc = getSearcher().doc(hits.scoreDocs[i].doc);
+                        doc = getSearcher().doc(hits.scoreDocs[pos].doc, permissionFields);
                         if (hasReadPermission(searchCms, doc)) {
                             // user has read permission
-                            if (cnt >= start) {
+                            if (cnt >= skip) {
+                                // now read all fields of the document
                                 // do not use the resource to obtain the raw content, read it from the lucene document!
+                                doc = getSearcher().doc(hits.scoreDocs[pos].doc);
                                 String excerpt = null;
                                 if (isCreatingExcerpt() && (fieldsQuery != null)) {
                                     I_CmsTermHighlighter highlighter = OpenCms.getSearchManager().getHighlighter();
@@ -286,7 +323,7 @@ public class CmsGallerySearchIndex extends CmsSearchIndex {
                                         getAnalyzer());
                                 }
                                 searchResult = new CmsGallerySearchResult(
-                                    Math.round((hits.scoreDocs[i].score / hits.getMaxScore()) * 100f),
+                                    Math.round((hits.scoreDocs[pos].score / hits.getMaxScore()) * 100f),
                                     doc,
                                     excerpt,
                                     locale);
@@ -294,7 +331,7 @@ public class CmsGallerySearchIndex extends CmsSearchIndex {
                             }
                             cnt++;
                         } else {
-                            visibleHitCount--;
+                            invisibleHitCount++;
                         }
                     } catch (Exception e) {
                         // should not happen, but if it does we want to go on with the next result nevertheless                        
@@ -303,11 +340,25 @@ public class CmsGallerySearchIndex extends CmsSearchIndex {
                         }
                     }
                 }
+                if (!paging || (cnt >= (skip + matchesPerPage)) || !moreHits) {
+                    // the page is complete or there are no more hits
+                    break;
+                }
+                // too many hits without read permission, collect more hits
+                numHits = Math.min(maxHits, numHits * 2);
+            }
 
-                // save the total count of search results
-                searchResults.setHitCount(visibleHitCount);
+            // save the total count of search results, this is an upper bound since the hits without read permission 
+            // are only known up to the current page, the invisible hits of the previous pages are kept in the cursor
+            // the count is exact on the last page, i.e. if the page is not complete
+            searchResults.setHitCount(Math.min(hits.totalHits, maxHits) - invisibleHitCount);
+            if (pos > start) {
+                searchResults.setNextCursor(new CmsGallerySearchCursor(
+                    (FieldDoc)hits.scoreDocs[pos - 1],
+                    invisibleHitCount).toString());
             } else {
-                searchResults.setHitCount(0);
+                // no hit has been checked, so the next page starts at the same position
+                searchResults.setNextCursor(params.getResultCursor());
             }
 
         } catch (RuntimeException e) {
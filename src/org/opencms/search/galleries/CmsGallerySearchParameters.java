@@ -324,6 +324,9 @@ public class CmsGallerySearchParameters {
     /** The resource types to search for. */
     private List<String> m_resourceTypes;
 
+    /** The cursor that marks where the requested page starts, if known from a previous search. */
+    private String m_resultCursor;
+
     /** The requested page of the result. */
     private int m_resultPage;
 
@@ -474,6 +477,19 @@ public class CmsGallerySearchParameters {
         return m_resourceTypes;
     }
 
+    /**
+     * Returns the cursor that marks where the requested result page starts,
+     * or <code>null</code> if this is not known.<p>
+     * 
+     * @return the cursor that marks where the requested result page starts
+     * 
+     * @see #setResultCursor(String)
+     */
+    public String getResultCursor() {
+
+        return m_resultCursor;
+    }
+
     /**
      * Returns the index of the requested result page.<p>
      * 
@@ -705,6 +721,22 @@ public class CmsGallerySearchParameters {
         m_resourceTypes = resourceTypes;
     }
 
+    /**
+     * Sets the cursor that marks where the requested result page starts.<p>
+     * 
+     * Use the value of {@link CmsGallerySearchResultList#getNextCursor()} from the search for the 
+     * previous page here, so that the hits of all previous pages don't need to be checked for 
+     * read permissions again. The cursor stores the sort key of the last hit of the previous page, 
+     * so the page still starts after this hit if the index has changed in the meantime. 
+     * The cursor is ignored for the first result page.<p>
+     * 
+     * @param resultCursor the cursor that marks where the requested result page starts
+     */
+    public void setResultCursor(String resultCursor) {
+
+        m_resultCursor = resultCursor;
+    }
+
     /**
      * Sets the index of the result page that should be returned.<p>
      *
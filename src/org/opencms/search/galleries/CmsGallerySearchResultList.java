@@ -42,6 +42,9 @@ public class CmsGallerySearchResultList extends ArrayList<CmsGallerySearchResult
     /** The total number of search results matching the query. */
     private int m_hitCount;
 
+    /** The cursor that marks where the next result page starts. */
+    private String m_nextCursor;
+
     /** The number of pages for the result list. */
     private int m_pageCount;
 
@@ -72,6 +75,11 @@ public class CmsGallerySearchResultList extends ArrayList<CmsGallerySearchResult
      * Since this list will only contain the result objects for the current display page,
      * the size of the list is usually much less then the hit count of all results found.<p>
      * 
+     * When the results are paged, the hit count is an upper bound: the results the current user 
+     * is not allowed to read are only known up to the current page. The hit count is exact 
+     * if the current page is the last page, so paging must stop when a page is not complete, 
+     * even if the hit count indicates more results.<p>
+     * 
      * @return the hit count of all results found in the last search
      */
     public int getHitCount() {
@@ -79,6 +87,18 @@ public class CmsGallerySearchResultList extends ArrayList<CmsGallerySearchResult
         return m_hitCount;
     }
 
+    /**
+     * Returns the cursor that marks where the next result page starts.<p>
+     * 
+     * @return the cursor that marks where the next result page starts, may be <code>null</code>
+     * 
+     * @see CmsGallerySearchParameters#setResultCursor(String)
+     */
+    public String getNextCursor() {
+
+        return m_nextCursor;
+    }
+
     /**
      * Returns the total number of search result pages.<p>
      *
@@ -118,6 +138,16 @@ public class CmsGallerySearchResultList extends ArrayList<CmsGallerySearchResult
         m_hitCount = hitCount;
     }
 
+    /**
+     * Sets the cursor that marks where the next result page starts.<p>
+     * 
+     * @param nextCursor the cursor that marks where the next result page starts
+     */
+    public void setNextCursor(String nextCursor) {
+
+        m_nextCursor = nextCursor;
+    }
+
     /**
      * Calculates the result pages.<p>
      * 
@@ -0,0 +1,182 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.security;
+
+import org.opencms.file.CmsGroup;
+
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The resolved role memberships of a single user.<p>
+ *
+ * The role groups of the user are stored as bit sets over an index of the simple role group names,
+ * one bit set for every organizational unit the user has roles in. Every role has a precomputed bit set
+ * of its own group name and the group names of all its parent roles, so checking if the user has a role,
+ * directly or indirectly by a parent role, only requires a few bit set intersections.<p>
+ *
+ * Instances of this class are immutable and are cached per user by the memory monitor,
+ * so that role checks do not need to read the groups of the user after the first check.<p>
+ *
+ * @since 8.0.2
+ *
+ * @see org.opencms.db.CmsSecurityManager#hasRole(org.opencms.db.CmsDbContext, org.opencms.file.CmsUser, CmsRole)
+ */
+public final class CmsRoleMembership {
+
+    /** The index of the simple role group names. */
+    private static final Map<String, Integer> GROUP_NAME_INDEX = new HashMap<String, Integer>();
+
+    /** The precomputed bit sets of the system roles, the first for the ou dependent and the second for the ou independent group names. */
+    private static final Map<String, BitSet[]> ROLE_MASKS = Collections.synchronizedMap(new HashMap<String, BitSet[]>());
+
+    /** The role groups of the user in all organizational units. */
+    private final BitSet m_allRoles;
+
+    /** The role groups of the user in the root organizational unit, without leading separator. */
+    private final BitSet m_exactRoles;
+
+    /** The role groups of the user by organizational unit. */
+    private final Map<String, BitSet> m_rolesByOu;
+
+    /**
+     * Creates the role membership for the given role groups of a user.<p>
+     *
+     * @param roleGroups the role groups of the user, including the groups of the indirect roles
+     */
+    public CmsRoleMembership(List<CmsGroup> roleGroups) {
+
+        m_allRoles = new BitSet();
+        m_exactRoles = new BitSet();
+        m_rolesByOu = new HashMap<String, BitSet>();
+        Iterator<CmsGroup> it = roleGroups.iterator();
+        while (it.hasNext()) {
+            String groupName = it.next().getName();
+            int bit = getIndex(CmsOrganizationalUnit.getSimpleName(groupName));
+            if (groupName.indexOf(CmsOrganizationalUnit.SEPARATOR) < 0) {
+                m_exactRoles.set(bit);
+            }
+            String ouFqn = CmsOrganizationalUnit.getParentFqn(groupName);
+            BitSet ouRoles = m_rolesByOu.get(ouFqn);
+            if (ouRoles == null) {
+                ouRoles = new BitSet();
+                m_rolesByOu.put(ouFqn, ouRoles);
+            }
+            ouRoles.set(bit);
+            m_allRoles.set(bit);
+        }
+    }
+
+    /**
+     * Checks if the user has the given role, directly or by one of the parent roles.<p>
+     *
+     * If the organizational unit of the role is <code>null</code>, this method checks if the
+     * user has the given role for at least one organizational unit, otherwise the user needs
+     * to have the role in the organizational unit of the role or in one of its parent units.<p>
+     *
+     * @param role the role to check
+     *
+     * @return <code>true</code> if the user has the given role
+     */
+    public boolean hasRole(CmsRole role) {
+
+        BitSet[] masks = getRoleMasks(role);
+        if (masks[1].intersects(m_exactRoles)) {
+            // ou independent roles need an exact match, the ou of the role is ignored
+            return true;
+        }
+        if (!masks[0].intersects(m_allRoles)) {
+            return false;
+        }
+        String roleOuFqn = role.getOuFqn();
+        if (roleOuFqn == null) {
+            return true;
+        }
+        Iterator<Map.Entry<String, BitSet>> it = m_rolesByOu.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, BitSet> entry = it.next();
+            if (roleOuFqn.startsWith(entry.getKey()) && masks[0].intersects(entry.getValue())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the index of the given simple role group name, creating a new index if needed.<p>
+     *
+     * @param groupName the simple role group name
+     *
+     * @return the index of the given group name
+     */
+    private static int getIndex(String groupName) {
+
+        synchronized (GROUP_NAME_INDEX) {
+            Integer index = GROUP_NAME_INDEX.get(groupName);
+            if (index == null) {
+                index = new Integer(GROUP_NAME_INDEX.size());
+                GROUP_NAME_INDEX.put(groupName, index);
+            }
+            return index.intValue();
+        }
+    }
+
+    /**
+     * Returns the bit sets of the group names of the given role and all its parent roles,
+     * the first for the ou dependent and the second for the ou independent group names.<p>
+     *
+     * @param role the role
+     *
+     * @return the bit sets of the group names of the given role
+     */
+    private static BitSet[] getRoleMasks(CmsRole role) {
+
+        BitSet[] masks = role.isSystemRole() ? ROLE_MASKS.get(role.getRoleName()) : null;
+        if (masks != null) {
+            return masks;
+        }
+        masks = new BitSet[] {new BitSet(), new BitSet()};
+        Iterator<String> it = role.getDistinctGroupNames().iterator();
+        while (it.hasNext()) {
+            String groupName = it.next();
+            if (groupName.startsWith(CmsOrganizationalUnit.SEPARATOR)) {
+                masks[1].set(getIndex(groupName.substring(1)));
+            } else {
+                masks[0].set(getIndex(groupName));
+            }
+        }
+        if (role.isSystemRole()) {
+            ROLE_MASKS.put(role.getRoleName(), masks);
+        }
+        return masks;
+    }
+}
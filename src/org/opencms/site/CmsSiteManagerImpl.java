@@ -37,6 +37,7 @@ import org.opencms.main.CmsException;
 import org.opencms.main.CmsLog;
 import org.opencms.main.CmsRuntimeException;
 import org.opencms.main.OpenCms;
+import org.opencms.monitor.CmsRequestTracer;
 import org.opencms.security.CmsPermissionSet;
 import org.opencms.security.CmsRole;
 import org.opencms.util.CmsStringUtil;
@@ -722,15 +723,21 @@ public final class CmsSiteManagerImpl {
      */
     public CmsSite matchRequest(HttpServletRequest req) {
 
-        CmsSiteMatcher matcher = getRequestMatcher(req);
-        if (matcher.getTimeOffset() != 0) {
-            HttpSession session = req.getSession();
-            if (session != null) {
-                session.setAttribute(CmsContextInfo.ATTRIBUTE_REQUEST_TIME, new Long(System.currentTimeMillis()
-                    + matcher.getTimeOffset()));
+        CmsSite site;
+        CmsRequestTracer.startSpan(CmsRequestTracer.SPAN_MATCH_SITE, null);
+        try {
+            CmsSiteMatcher matcher = getRequestMatcher(req);
+            if (matcher.getTimeOffset() != 0) {
+                HttpSession session = req.getSession();
+                if (session != null) {
+                    session.setAttribute(CmsContextInfo.ATTRIBUTE_REQUEST_TIME, new Long(System.currentTimeMillis()
+                        + matcher.getTimeOffset()));
+                }
             }
+            site = matchSite(matcher);
+        } finally {
+            CmsRequestTracer.endSpan();
         }
-        CmsSite site = matchSite(matcher);
 
         if (LOG.isDebugEnabled()) {
             String requestServer = req.getScheme() + "://" + req.getServerName() + ":" + req.getServerPort();
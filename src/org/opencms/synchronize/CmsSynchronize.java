@@ -38,6 +38,7 @@ import org.opencms.main.CmsLog;
 import org.opencms.main.OpenCms;
 import org.opencms.report.I_CmsReport;
 import org.opencms.util.CmsFileUtil;
+import org.opencms.util.CmsUUID;
 
 import java.io.DataOutputStream;
 import java.io.File;
@@ -47,16 +48,33 @@ import java.io.IOException;
 import java.io.LineNumberReader;
 import java.io.PrintWriter;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.StringTokenizer;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.commons.logging.Log;
 
 /**
  * Contains all methods to synchronize the VFS with the "real" FS.<p>
  * 
+ * If the {@link CmsSynchronizeJournal} has recorded all VFS changes since the last synchronization 
+ * into the same RFS folder, the synchronization is done incrementally: only the VFS folders containing 
+ * changed resources, or resources whose file in the RFS has been changed or deleted, are read again, 
+ * all other entries of the sync list are kept. Otherwise all VFS folders are read.<p>
+ * 
+ * The files exported to the RFS are read and written by several threads in parallel.<p>
+ * 
  * @since 6.0.0 
  */
 public class CmsSynchronize {
@@ -67,9 +85,15 @@ public class CmsSynchronize {
     /** Flag to export a resource from the VFS to the FS. */
     static final int EXPORT_VFS = 1;
 
+    /** The maximum number of pending file exports. */
+    static final int MAX_PENDING_TRANSFERS = 1000;
+
     /** File name of the synclist file on the server FS. */
     static final String SYNCLIST_FILENAME = "#synclist.txt";
 
+    /** The number of threads used to export files. */
+    static final int TRANSFER_THREADS = 4;
+
     /** Flag to import a resource from the FS to the VFS. */
     static final int UPDATE_VFS = 2;
 
@@ -88,6 +112,12 @@ public class CmsSynchronize {
     /** The path in the "real" file system where the resources have to be synchronized to. */
     private String m_destinationPathInRfs;
 
+    /** The VFS folders containing changed resources, or <code>null</code> for a full synchronization. */
+    private Set m_dirtyFolders;
+
+    /** The executor for the file exports. */
+    private ExecutorService m_executor;
+
     /** Hash map for the new synchronization list of the current sync process. */
     private HashMap m_newSyncList;
 
@@ -97,6 +127,12 @@ public class CmsSynchronize {
     /** Hash map for the synchronization list of the last sync process. */
     private HashMap m_syncList;
 
+    /** The pending file exports. */
+    private LinkedList m_transfers;
+
+    /** The VFS folders read during an incremental synchronization. */
+    private Set m_walkedFolders;
+
     /**
      * Creates a new CmsSynchronize object which automatically start the 
      * synchronization process.<p>
@@ -147,23 +183,52 @@ public class CmsSynchronize {
             m_syncList = readSyncList();
             m_newSyncList = new HashMap();
 
-            Iterator i = settings.getSourceListInVfs().iterator();
-            while (i.hasNext()) {
-                // iterate all source folders
-                String sourcePathInVfs = (String)i.next();
-                String destPath = m_destinationPathInRfs + sourcePathInVfs.replace('/', File.separatorChar);
-
-                report.println(org.opencms.workplace.threads.Messages.get().container(
-                    org.opencms.workplace.threads.Messages.RPT_SYNCHRONIZE_FOLDERS_2,
-                    sourcePathInVfs,
-                    destPath), I_CmsReport.FORMAT_HEADLINE);
-                // synchronize the VFS and the RFS
-                syncVfsToRfs(sourcePathInVfs);
+            // check if the changes since the last run are known
+            CmsSynchronizeJournal journal = CmsSynchronizeJournal.getInstance();
+            long journalPosition = journal.getPosition();
+            CmsUUID projectId = m_cms.getRequestContext().getCurrentProject().getUuid();
+            File syncListFile = new File(m_destinationPathInRfs, SYNCLIST_FILENAME);
+            Set changes = journal.getChanges(settings, projectId, syncListFile);
+            if (changes != null) {
+                report.println(
+                    Messages.get().container(Messages.RPT_INCREMENTAL_SYNC_1, new Integer(changes.size())),
+                    I_CmsReport.FORMAT_NOTE);
+                initIncrementalSync(changes);
+            }
+
+            m_transfers = new LinkedList();
+            m_executor = Executors.newFixedThreadPool(TRANSFER_THREADS);
+            try {
+                Iterator i = settings.getSourceListInVfs().iterator();
+                while (i.hasNext()) {
+                    // iterate all source folders
+                    String sourcePathInVfs = (String)i.next();
+                    String destPath = m_destinationPathInRfs + sourcePathInVfs.replace('/', File.separatorChar);
+
+                    report.println(org.opencms.workplace.threads.Messages.get().container(
+                        org.opencms.workplace.threads.Messages.RPT_SYNCHRONIZE_FOLDERS_2,
+                        sourcePathInVfs,
+                        destPath), I_CmsReport.FORMAT_HEADLINE);
+                    // synchronize the VFS and the RFS
+                    if ((m_dirtyFolders == null) || m_dirtyFolders.contains(sourcePathInVfs)) {
+                        syncVfsToRfs(sourcePathInVfs);
+                    }
+                }
+                // wait until all files are exported
+                finishTransfers(0);
+            } finally {
+                m_executor.shutdownNow();
+                m_executor = null;
             }
 
             // remove files from the RFS
-            removeFromRfs(m_destinationPathInRfs);
-            i = settings.getSourceListInVfs().iterator();
+            if (m_dirtyFolders == null) {
+                removeFromRfs(m_destinationPathInRfs);
+            } else {
+                keepUnchangedResources();
+                removeDeletedFromRfs();
+            }
+            Iterator i = settings.getSourceListInVfs().iterator();
 
             while (i.hasNext()) {
                 // add new files from the RFS
@@ -172,10 +237,14 @@ public class CmsSynchronize {
 
             // write the sync list
             writeSyncList();
+            journal.setSynchronized(settings, projectId, syncListFile, journalPosition);
 
             // free memory
             m_syncList = null;
             m_newSyncList = null;
+            m_dirtyFolders = null;
+            m_walkedFolders = null;
+            m_transfers = null;
             m_cms = null;
         } else {
             throw new CmsSynchronizeException(Messages.get().container(Messages.ERR_INIT_SYNC_0));
@@ -205,7 +274,10 @@ public class CmsSynchronize {
         File fsFile = getFileInRfs(folder);
         // first of all, test if this folder existis in the VFS. If not, create it
         try {
-            m_cms.readFolder(translate(folder), CmsResourceFilter.IGNORE_EXPIRATION);
+            // folders in the new sync list have just been synchronized, so they exist
+            if (!m_newSyncList.containsKey(translate(folder))) {
+                m_cms.readFolder(translate(folder), CmsResourceFilter.IGNORE_EXPIRATION);
+            }
         } catch (CmsException e) {
             // the folder could not be read, so create it
             String foldername = translate(folder);
@@ -359,7 +431,6 @@ public class CmsSynchronize {
      */
     private void exportToRfs(CmsResource res) throws CmsException {
 
-        CmsFile vfsFile;
         File fsFile;
         String resourcename;
         // to get the name of the file in the FS, we must look it up in the
@@ -389,85 +460,97 @@ public class CmsSynchronize {
         }
         fsFile = getFileInRfs(resourcename);
 
-        try {
-            // if the resource is marked for deletion, do not export it!
-            if (!res.getState().isDeleted()) {
-                // if its a file, create export the file to the FS
-                m_report.print(org.opencms.report.Messages.get().container(
-                    org.opencms.report.Messages.RPT_SUCCESSION_1,
-                    String.valueOf(m_count++)), I_CmsReport.FORMAT_NOTE);
-                if (res.isFile()) {
-
-                    m_report.print(Messages.get().container(Messages.RPT_EXPORT_FILE_0), I_CmsReport.FORMAT_NOTE);
-                    m_report.print(org.opencms.report.Messages.get().container(
-                        org.opencms.report.Messages.RPT_ARGUMENT_1,
-                        m_cms.getSitePath(res)));
-                    m_report.print(Messages.get().container(Messages.RPT_TO_FS_AS_0), I_CmsReport.FORMAT_NOTE);
-                    m_report.print(org.opencms.report.Messages.get().container(
-                        org.opencms.report.Messages.RPT_ARGUMENT_1,
-                        fsFile.getAbsolutePath().replace('\\', '/')));
-                    m_report.print(org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_DOTS_0));
-
-                    // create the resource if nescessary
-                    if (!fsFile.exists()) {
-                        createNewLocalFile(fsFile);
-                    }
-                    // write the file content to the FS
-                    vfsFile = m_cms.readFile(m_cms.getSitePath(res), CmsResourceFilter.IGNORE_EXPIRATION);
-                    try {
-                        writeFileByte(vfsFile.getContents(), fsFile);
-                    } catch (IOException e) {
-                        throw new CmsSynchronizeException(Messages.get().container(Messages.ERR_WRITE_FILE_0));
-                    }
-                    // now check if there is some external method to be called 
-                    // which should modify the exported resource in the FS
-                    Iterator i = m_synchronizeModifications.iterator();
-                    while (i.hasNext()) {
-                        try {
-                            ((I_CmsSynchronizeModification)i.next()).modifyFs(m_cms, vfsFile, fsFile);
-                        } catch (CmsSynchronizeException e) {
-                            if (LOG.isWarnEnabled()) {
-                                LOG.warn(Messages.get().getBundle().key(
-                                    Messages.LOG_SYNCHRONIZE_EXPORT_FAILED_1,
-                                    res.getRootPath()), e);
-                            }
-                            break;
-                        }
-                    }
-                    fsFile.setLastModified(res.getDateLastModified());
-                } else {
+        // if the resource is marked for deletion, do not export it!
+        if (res.getState().isDeleted()) {
+            return;
+        }
+        if (res.isFile()) {
+            // the file is read from the VFS and written to the FS in parallel with other files
+            finishTransfers(MAX_PENDING_TRANSFERS - 1);
+            CmsExportTransfer transfer = new CmsExportTransfer(OpenCms.initCmsObject(m_cms), res, resourcename, fsFile);
+            transfer.m_future = m_executor.submit(transfer);
+            m_transfers.add(transfer);
+            return;
+        }
+
+        m_report.print(org.opencms.report.Messages.get().container(
+            org.opencms.report.Messages.RPT_SUCCESSION_1,
+            String.valueOf(m_count++)), I_CmsReport.FORMAT_NOTE);
+        m_report.print(Messages.get().container(Messages.RPT_EXPORT_FOLDER_0), I_CmsReport.FORMAT_NOTE);
+        m_report.print(org.opencms.report.Messages.get().container(
+            org.opencms.report.Messages.RPT_ARGUMENT_1,
+            m_cms.getSitePath(res)));
+        m_report.print(Messages.get().container(Messages.RPT_TO_FS_AS_0), I_CmsReport.FORMAT_NOTE);
+        m_report.print(org.opencms.report.Messages.get().container(
+            org.opencms.report.Messages.RPT_ARGUMENT_1,
+            fsFile.getAbsolutePath().replace('\\', '/')));
+        m_report.print(org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_DOTS_0));
+
+        // its a folder, so create a folder in the FS
+        fsFile.mkdirs();
+        exported(res, resourcename, fsFile);
+    }
 
-                    m_report.print(Messages.get().container(Messages.RPT_EXPORT_FOLDER_0), I_CmsReport.FORMAT_NOTE);
-                    m_report.print(org.opencms.report.Messages.get().container(
-                        org.opencms.report.Messages.RPT_ARGUMENT_1,
-                        m_cms.getSitePath(res)));
-                    m_report.print(Messages.get().container(Messages.RPT_TO_FS_AS_0), I_CmsReport.FORMAT_NOTE);
-                    m_report.print(org.opencms.report.Messages.get().container(
-                        org.opencms.report.Messages.RPT_ARGUMENT_1,
-                        fsFile.getAbsolutePath().replace('\\', '/')));
-                    m_report.print(org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_DOTS_0));
-
-                    // its a folder, so create a folder in the FS
-                    fsFile.mkdirs();
+    /**
+     * Updates the synchronization lists after a resource has been exported.<p>
+     * 
+     * @param res the exported resource
+     * @param resourcename the name of the resource in the FS
+     * @param fsFile the file in the FS
+     */
+    private void exported(CmsResource res, String resourcename, File fsFile) {
+
+        // add resource to synchronization list
+        CmsSynchronizeList syncList = new CmsSynchronizeList(
+            resourcename,
+            translate(resourcename),
+            res.getDateLastModified(),
+            fsFile.lastModified());
+        m_newSyncList.put(translate(resourcename), syncList);
+        // and remove it fomr the old one
+        m_syncList.remove(translate(resourcename));
+        m_report.println(
+            org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_OK_0),
+            I_CmsReport.FORMAT_OK);
+    }
+
+    /**
+     * Waits until no more than the given number of file exports are pending,
+     * and updates the report and the synchronization lists for the finished exports.<p>
+     * 
+     * The exports are finished in the order they have been started.<p>
+     * 
+     * @param maxPending the maximum number of pending exports
+     * 
+     * @throws CmsException if an export failed
+     */
+    private void finishTransfers(int maxPending) throws CmsException {
+
+        while (m_transfers.size() > maxPending) {
+            CmsExportTransfer transfer = (CmsExportTransfer)m_transfers.removeFirst();
+            try {
+                transfer.m_future.get();
+            } catch (InterruptedException e) {
+                throw new CmsSynchronizeException(Messages.get().container(Messages.ERR_WRITE_FILE_0), e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof CmsException) {
+                    throw new CmsSynchronizeException(((CmsException)e.getCause()).getMessageContainer(), e.getCause());
                 }
-                // add resource to synchronization list
-                CmsSynchronizeList syncList = new CmsSynchronizeList(
-                    resourcename,
-                    translate(resourcename),
-                    res.getDateLastModified(),
-                    fsFile.lastModified());
-                m_newSyncList.put(translate(resourcename), syncList);
-                // and remove it fomr the old one
-                m_syncList.remove(translate(resourcename));
-                m_report.println(
-                    org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_OK_0),
-                    I_CmsReport.FORMAT_OK);
+                throw new CmsSynchronizeException(Messages.get().container(Messages.ERR_WRITE_FILE_0), e.getCause());
             }
-            // free mem
-            vfsFile = null;
-
-        } catch (CmsException e) {
-            throw new CmsSynchronizeException(e.getMessageContainer(), e);
+            m_report.print(org.opencms.report.Messages.get().container(
+                org.opencms.report.Messages.RPT_SUCCESSION_1,
+                String.valueOf(m_count++)), I_CmsReport.FORMAT_NOTE);
+            m_report.print(Messages.get().container(Messages.RPT_EXPORT_FILE_0), I_CmsReport.FORMAT_NOTE);
+            m_report.print(org.opencms.report.Messages.get().container(
+                org.opencms.report.Messages.RPT_ARGUMENT_1,
+                m_cms.getSitePath(transfer.m_resource)));
+            m_report.print(Messages.get().container(Messages.RPT_TO_FS_AS_0), I_CmsReport.FORMAT_NOTE);
+            m_report.print(org.opencms.report.Messages.get().container(
+                org.opencms.report.Messages.RPT_ARGUMENT_1,
+                transfer.m_fsFile.getAbsolutePath().replace('\\', '/')));
+            m_report.print(org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_DOTS_0));
+            exported(transfer.m_resource, transfer.m_resourcename, transfer.m_fsFile);
         }
     }
 
@@ -573,6 +656,79 @@ public class CmsSynchronize {
         }
     }
 
+    /**
+     * Prepares an incremental synchronization.<p>
+     * 
+     * Marks the parent folders of all resources changed in the VFS, and of all resources 
+     * whose file in the FS has been changed or deleted since the last synchronization, 
+     * as folders that have to be read again.<p>
+     * 
+     * @param changes the root paths of the resources changed in the VFS since the last synchronization
+     */
+    private void initIncrementalSync(Set changes) {
+
+        m_dirtyFolders = new HashSet();
+        m_walkedFolders = new HashSet();
+        Iterator i = changes.iterator();
+        while (i.hasNext()) {
+            markParentFoldersDirty((String)i.next());
+        }
+        i = m_syncList.entrySet().iterator();
+        while (i.hasNext()) {
+            Map.Entry entry = (Map.Entry)i.next();
+            CmsSynchronizeList sync = (CmsSynchronizeList)entry.getValue();
+            File fsFile = getFileInRfs(sync.getResName());
+            // the date of a folder changes with its content, new files are found when the FS is read
+            boolean changed = sync.getResName().endsWith("/")
+            ? !fsFile.exists()
+            : (fsFile.lastModified() != sync.getModifiedFs());
+            if (changed) {
+                // the resource has been changed or deleted in the FS
+                markParentFoldersDirty((String)entry.getKey());
+            }
+        }
+    }
+
+    /**
+     * Moves the entries of all resources not checked during an incremental 
+     * synchronization from the old to the new synchronization list.<p>
+     * 
+     * An entry is kept if the resource is not below a folder that has been read, 
+     * or if its ancestor in the deepest folder that has been read still exists.
+     * All other entries remain in the old list, their resources have been deleted in the VFS.<p>
+     */
+    private void keepUnchangedResources() {
+
+        Iterator i = m_syncList.entrySet().iterator();
+        while (i.hasNext()) {
+            Map.Entry entry = (Map.Entry)i.next();
+            String resourcename = (String)entry.getKey();
+            String child = resourcename;
+            String parent = CmsResource.getParentFolder(resourcename);
+            while ((parent != null) && !m_walkedFolders.contains(parent)) {
+                child = parent;
+                parent = CmsResource.getParentFolder(parent);
+            }
+            if ((parent == null) || (!child.equals(resourcename) && m_newSyncList.containsKey(child))) {
+                m_newSyncList.put(resourcename, entry.getValue());
+                i.remove();
+            }
+        }
+    }
+
+    /**
+     * Marks all parent folders of the given resource as folders that have to be read again.<p>
+     * 
+     * @param resourcename the name of the changed resource
+     */
+    private void markParentFoldersDirty(String resourcename) {
+
+        String parent = CmsResource.getParentFolder(resourcename);
+        while ((parent != null) && m_dirtyFolders.add(parent)) {
+            parent = CmsResource.getParentFolder(parent);
+        }
+    }
+
     /**
      * Reads the synchronization list from the last sync process form the file
      * system and stores the information in a HashMap. <p>
@@ -632,6 +788,45 @@ public class CmsSynchronize {
         return syncList;
     }
 
+    /**
+     * Removes the files of all resources remaining in the old synchronization list from the RFS.<p>
+     * 
+     * This is used by the incremental synchronization instead of reading the whole RFS folder.<p>
+     */
+    private void removeDeletedFromRfs() {
+
+        List resourcenames = new ArrayList(m_syncList.keySet());
+        // delete the files before their folders
+        Collections.sort(resourcenames, Collections.reverseOrder());
+        Iterator i = resourcenames.iterator();
+        while (i.hasNext()) {
+            String resourcename = (String)i.next();
+            CmsSynchronizeList sync = (CmsSynchronizeList)m_syncList.remove(resourcename);
+            File fsFile = getFileInRfs(sync.getResName());
+            if (!fsFile.exists()) {
+                continue;
+            }
+            m_report.print(org.opencms.report.Messages.get().container(
+                org.opencms.report.Messages.RPT_SUCCESSION_1,
+                String.valueOf(m_count++)), I_CmsReport.FORMAT_NOTE);
+            if (fsFile.isFile()) {
+                m_report.print(Messages.get().container(Messages.RPT_DEL_FS_FILE_0), I_CmsReport.FORMAT_NOTE);
+            } else {
+                m_report.print(Messages.get().container(Messages.RPT_DEL_FS_FOLDER_0), I_CmsReport.FORMAT_NOTE);
+            }
+            m_report.print(org.opencms.report.Messages.get().container(
+                org.opencms.report.Messages.RPT_ARGUMENT_1,
+                fsFile.getAbsolutePath().replace('\\', '/')));
+            m_report.print(org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_DOTS_0));
+
+            fsFile.delete();
+
+            m_report.println(
+                org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_OK_0),
+                I_CmsReport.FORMAT_OK);
+        }
+    }
+
     /**
      * Removes all resources in the RFS which are deleted in the VFS.<p>
      * 
@@ -727,6 +922,9 @@ public class CmsSynchronize {
      */
     private void syncVfsToRfs(String folder) throws CmsException {
 
+        if (m_walkedFolders != null) {
+            m_walkedFolders.add(folder);
+        }
         int action = 0;
         //get all resources in the given folder
         List resources = m_cms.getResourcesInFolder(folder, CmsResourceFilter.IGNORE_EXPIRATION);
@@ -747,8 +945,12 @@ public class CmsSynchronize {
                         skipResource(res);
                     }
                     // recurse into the sub folders. This must be done before 
-                    // the folder might be deleted!
-                    syncVfsToRfs(m_cms.getSitePath(res));
+                    // the folder might be deleted! During an incremental synchronization
+                    // only folders with changed resources and new or changed folders are read
+                    String foldername = m_cms.getSitePath(res);
+                    if ((m_dirtyFolders == null) || (action == EXPORT_VFS) || m_dirtyFolders.contains(foldername)) {
+                        syncVfsToRfs(foldername);
+                    }
                     if (action == DELETE_VFS) {
                         deleteFromVfs(res);
                     }
@@ -1035,4 +1237,76 @@ public class CmsSynchronize {
             }
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Reads a file from the VFS and writes it to the FS.<p>
+     */
+    private class CmsExportTransfer implements Callable {
+
+        /** The independent CmsObject used by the transfer. */
+        CmsObject m_cms;
+
+        /** The file in the FS. */
+        File m_fsFile;
+
+        /** The result of the transfer. */
+        Future m_future;
+
+        /** The exported resource. */
+        CmsResource m_resource;
+
+        /** The name of the resource in the FS. */
+        String m_resourcename;
+
+        /**
+         * Creates a new transfer.<p>
+         * 
+         * @param cms the CmsObject to use
+         * @param resource the resource to export
+         * @param resourcename the name of the resource in the FS
+         * @param fsFile the file in the FS
+         */
+        CmsExportTransfer(CmsObject cms, CmsResource resource, String resourcename, File fsFile) {
+
+            m_cms = cms;
+            m_resource = resource;
+            m_resourcename = resourcename;
+            m_fsFile = fsFile;
+        }
+
+        /**
+         * @see java.util.concurrent.Callable#call()
+         */
+        public Object call() throws CmsException {
+
+            // create the resource if nescessary
+            if (!m_fsFile.exists()) {
+                createNewLocalFile(m_fsFile);
+            }
+            // write the file content to the FS
+            CmsFile vfsFile = m_cms.readFile(m_cms.getSitePath(m_resource), CmsResourceFilter.IGNORE_EXPIRATION);
+            try {
+                writeFileByte(vfsFile.getContents(), m_fsFile);
+            } catch (IOException e) {
+                throw new CmsSynchronizeException(Messages.get().container(Messages.ERR_WRITE_FILE_0));
+            }
+            // now check if there is some external method to be called 
+            // which should modify the exported resource in the FS
+            Iterator i = m_synchronizeModifications.iterator();
+            while (i.hasNext()) {
+                try {
+                    ((I_CmsSynchronizeModification)i.next()).modifyFs(m_cms, vfsFile, m_fsFile);
+                } catch (CmsSynchronizeException e) {
+                    if (LOG.isWarnEnabled()) {
+                        LOG.warn(Messages.get().getBundle().key(
+                            Messages.LOG_SYNCHRONIZE_EXPORT_FAILED_1,
+                            m_resource.getRootPath()), e);
+                    }
+                    break;
+                }
+            }
+            m_fsFile.setLastModified(m_resource.getDateLastModified());
+            return null;
+        }
+    }
+}
@@ -0,0 +1,291 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.synchronize;
+
+import org.opencms.file.CmsResource;
+import org.opencms.main.CmsEvent;
+import org.opencms.main.CmsLog;
+import org.opencms.main.I_CmsEventListener;
+import org.opencms.main.OpenCms;
+import org.opencms.util.CmsUUID;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.logging.Log;
+
+/**
+ * Journal of the VFS changes used for the incremental synchronization.<p>
+ *
+ * The journal records the root paths of all resources reported by the resource events
+ * of the event manager, together with a sequence number. After each synchronization, the state
+ * of the synchronized RFS folder is stored, so the next synchronization into the same folder
+ * only has to check the resources changed since then.<p>
+ *
+ * The journal is kept in memory only. It can not be used if it did not exist during the last
+ * synchronization, e.g. after a restart, if the sync list file has been changed outside of OpenCms,
+ * if the synchronization settings have changed, or if too many changes have been recorded.
+ * In these cases the synchronization falls back to a full scan.<p>
+ *
+ * @since 8.0.2
+ */
+public final class CmsSynchronizeJournal implements I_CmsEventListener {
+
+    /** The maximum number of recorded resources, if more resources are changed the journal becomes invalid. */
+    public static final int MAX_ENTRIES = 50000;
+
+    /** The log object for this class. */
+    private static final Log LOG = CmsLog.getLog(CmsSynchronizeJournal.class);
+
+    /** The singleton instance. */
+    private static CmsSynchronizeJournal m_instance;
+
+    /** The recorded root paths with the sequence number of their last change. */
+    private Map<String, Long> m_changes;
+
+    /** The current sequence number. */
+    private long m_sequence;
+
+    /** The state of the last synchronization of each RFS destination folder. */
+    private Map<String, CmsSyncState> m_syncStates;
+
+    /** The first sequence number for which the recorded changes are complete. */
+    private long m_validFrom;
+
+    /**
+     * Hides the public constructor.<p>
+     */
+    private CmsSynchronizeJournal() {
+
+        m_changes = new HashMap<String, Long>();
+        m_syncStates = new HashMap<String, CmsSyncState>();
+        // the first sequence number is reserved, so no synchronization is valid before the journal existed 
+        m_sequence = 1;
+        m_validFrom = 1;
+    }
+
+    /**
+     * Returns the journal, creating it and registering it at the event manager if needed.<p>
+     *
+     * @return the journal
+     */
+    public static synchronized CmsSynchronizeJournal getInstance() {
+
+        if (m_instance == null) {
+            m_instance = new CmsSynchronizeJournal();
+            OpenCms.addCmsEventListener(m_instance, new int[] {
+                I_CmsEventListener.EVENT_RESOURCE_AND_PROPERTIES_MODIFIED,
+                I_CmsEventListener.EVENT_RESOURCES_AND_PROPERTIES_MODIFIED,
+                I_CmsEventListener.EVENT_RESOURCE_MODIFIED,
+                I_CmsEventListener.EVENT_RESOURCES_MODIFIED,
+                I_CmsEventListener.EVENT_RESOURCE_CREATED,
+                I_CmsEventListener.EVENT_RESOURCE_COPIED,
+                I_CmsEventListener.EVENT_RESOURCE_MOVED,
+                I_CmsEventListener.EVENT_RESOURCE_DELETED});
+        }
+        return m_instance;
+    }
+
+    /**
+     * Invalidates all recorded changes, so the next synchronization of every folder is a full scan.<p>
+     */
+    public synchronized void clear() {
+
+        m_changes.clear();
+        m_sequence++;
+        m_validFrom = m_sequence;
+    }
+
+    /**
+     * @see org.opencms.main.I_CmsEventListener#cmsEvent(org.opencms.main.CmsEvent)
+     */
+    public void cmsEvent(CmsEvent event) {
+
+        switch (event.getType()) {
+            case I_CmsEventListener.EVENT_RESOURCE_AND_PROPERTIES_MODIFIED:
+            case I_CmsEventListener.EVENT_RESOURCE_MODIFIED:
+            case I_CmsEventListener.EVENT_RESOURCE_CREATED:
+                Object resource = event.getData().get(I_CmsEventListener.KEY_RESOURCE);
+                if (resource instanceof CmsResource) {
+                    List<CmsResource> resources = new ArrayList<CmsResource>(1);
+                    resources.add((CmsResource)resource);
+                    record(resources);
+                }
+                break;
+            case I_CmsEventListener.EVENT_RESOURCES_AND_PROPERTIES_MODIFIED:
+            case I_CmsEventListener.EVENT_RESOURCES_MODIFIED:
+            case I_CmsEventListener.EVENT_RESOURCE_COPIED:
+            case I_CmsEventListener.EVENT_RESOURCE_MOVED:
+            case I_CmsEventListener.EVENT_RESOURCE_DELETED:
+                Object resources = event.getData().get(I_CmsEventListener.KEY_RESOURCES);
+                if (resources instanceof List<?>) {
+                    List<CmsResource> list = new ArrayList<CmsResource>();
+                    for (Object o : (List<?>)resources) {
+                        if (o instanceof CmsResource) {
+                            list.add((CmsResource)o);
+                        }
+                    }
+                    record(list);
+                }
+                break;
+            default:
+                // noop
+        }
+    }
+
+    /**
+     * Returns the root paths of the resources changed since the last synchronization 
+     * with the given settings, or <code>null</code> if the journal can not be used for the synchronization.<p>
+     *
+     * @param settings the synchronization settings
+     * @param projectId the id of the project the synchronization runs in
+     * @param syncListFile the sync list file written by the last synchronization
+     *
+     * @return the root paths of the changed resources, or <code>null</code> if a full scan is required
+     */
+    public synchronized Set<String> getChanges(CmsSynchronizeSettings settings, CmsUUID projectId, File syncListFile) {
+
+        CmsSyncState state = m_syncStates.get(settings.getDestinationPathInRfs());
+        if ((state == null)
+            || (state.m_sequence < m_validFrom)
+            || !state.m_projectId.equals(projectId)
+            || !state.m_sources.equals(settings.getSourceListInVfs())
+            || !syncListFile.exists()
+            || (syncListFile.lastModified() != state.m_syncListModified)
+            || (syncListFile.length() != state.m_syncListSize)) {
+            return null;
+        }
+        Set<String> result = new HashSet<String>();
+        Iterator<Map.Entry<String, Long>> i = m_changes.entrySet().iterator();
+        while (i.hasNext()) {
+            Map.Entry<String, Long> entry = i.next();
+            if (entry.getValue().longValue() >= state.m_sequence) {
+                result.add(entry.getKey());
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the current position in the journal.<p>
+     *
+     * Changes recorded after this call have a higher sequence number than the returned one.<p>
+     *
+     * @return the current position in the journal
+     */
+    public synchronized long getPosition() {
+
+        m_sequence++;
+        return m_sequence;
+    }
+
+    /**
+     * Stores the state of a finished synchronization.<p>
+     *
+     * @param settings the synchronization settings
+     * @param projectId the id of the project the synchronization ran in
+     * @param syncListFile the written sync list file
+     * @param position the position in the journal at the start of the synchronization
+     */
+    public synchronized void setSynchronized(
+        CmsSynchronizeSettings settings,
+        CmsUUID projectId,
+        File syncListFile,
+        long position) {
+
+        CmsSyncState state = new CmsSyncState();
+        state.m_sequence = position;
+        state.m_projectId = projectId;
+        state.m_sources = new ArrayList<String>(settings.getSourceListInVfs());
+        state.m_syncListModified = syncListFile.lastModified();
+        state.m_syncListSize = syncListFile.length();
+        m_syncStates.put(settings.getDestinationPathInRfs(), state);
+        // changes older than all synchronizations are not needed anymore
+        long oldest = m_sequence;
+        Iterator<CmsSyncState> i = m_syncStates.values().iterator();
+        while (i.hasNext()) {
+            oldest = Math.min(oldest, i.next().m_sequence);
+        }
+        Iterator<Long> j = m_changes.values().iterator();
+        while (j.hasNext()) {
+            if (j.next().longValue() < oldest) {
+                j.remove();
+            }
+        }
+    }
+
+    /**
+     * Records the given changed resources.<p>
+     *
+     * @param resources the changed resources
+     */
+    private synchronized void record(List<CmsResource> resources) {
+
+        m_sequence++;
+        Long sequence = new Long(m_sequence);
+        for (CmsResource resource : resources) {
+            m_changes.put(resource.getRootPath(), sequence);
+        }
+        if (m_changes.size() > MAX_ENTRIES) {
+            // too many changes, a full scan will be faster than the incremental synchronization 
+            m_changes.clear();
+            m_validFrom = m_sequence + 1;
+            if (LOG.isInfoEnabled()) {
+                LOG.info(Messages.get().getBundle().key(Messages.LOG_JOURNAL_OVERFLOW_1, new Integer(MAX_ENTRIES)));
+            }
+        }
+    }
+
+    /**
+     * The state of a finished synchronization.<p>
+     */
+    private static class CmsSyncState {
+
+        /** The project id. */
+        CmsUUID m_projectId;
+
+        /** The journal position at the start of the synchronization. */
+        long m_sequence;
+
+        /** The synchronized VFS folders. */
+        List<String> m_sources;
+
+        /** The last modification date of the sync list file. */
+        long m_syncListModified;
+
+        /** The size of the sync list file. */
+        long m_syncListSize;
+    }
+}
@@ -79,6 +79,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String LOG_EXTERNAL_TRANSLATION_1 = "LOG_EXTERNAL_TRANSLATION_1";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_JOURNAL_OVERFLOW_1 = "LOG_JOURNAL_OVERFLOW_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String LOG_SYNCHRONIZE_EXPORT_FAILED_1 = "LOG_SYNCHRONIZE_EXPORT_FAILED_1";
 
@@ -112,6 +115,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String RPT_IMPORT_FOLDER_0 = "RPT_IMPORT_FOLDER_0";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String RPT_INCREMENTAL_SYNC_1 = "RPT_INCREMENTAL_SYNC_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String RPT_SKIPPING_0 = "RPT_SKIPPING_0";
 
@@ -75,6 +75,9 @@ public final class CmsRequestUtil {
     /** HTTP Accept-Charset Header for internal requests used during static export. */
     public static final String HEADER_ACCEPT_CHARSET = "Accept-Charset";
 
+    /** HTTP Header "Accept-Encoding". */
+    public static final String HEADER_ACCEPT_ENCODING = "Accept-Encoding";
+
     /** HTTP Accept-Language Header for internal requests used during static export. */
     public static final String HEADER_ACCEPT_LANGUAGE = "Accept-Language";
 
@@ -87,15 +90,24 @@ public final class CmsRequestUtil {
     /** The "Content-Disposition" http header. */
     public static final String HEADER_CONTENT_DISPOSITION = "Content-Disposition";
 
+    /** HTTP Header "Content-Encoding". */
+    public static final String HEADER_CONTENT_ENCODING = "Content-Encoding";
+
     /** The "Content-Type" http header. */
     public static final String HEADER_CONTENT_TYPE = "Content-Type";
 
+    /** HTTP Header "ETag". */
+    public static final String HEADER_ETAG = "ETag";
+
     /** HTTP Header "Expires". */
     public static final String HEADER_EXPIRES = "Expires";
 
     /** HTTP Header "If-Modified-Since". */
     public static final String HEADER_IF_MODIFIED_SINCE = "If-Modified-Since";
 
+    /** HTTP Header "If-None-Match". */
+    public static final String HEADER_IF_NONE_MATCH = "If-None-Match";
+
     /** The Header that stores the session id (used by OpenCms upload applet). */
     public static final String HEADER_JSESSIONID = "JSESSIONID";
 
@@ -117,6 +129,9 @@ public final class CmsRequestUtil {
     /** HTTP Header "user-agent". */
     public static final String HEADER_USER_AGENT = "user-agent";
 
+    /** HTTP Header "Vary". */
+    public static final String HEADER_VARY = "Vary";
+
     /** HTTP Header value "max-age=" (for "Cache-Control"). */
     public static final String HEADER_VALUE_MAX_AGE = "max-age=";
 
@@ -629,6 +644,49 @@ public final class CmsRequestUtil {
         return session.getAttribute(key);
     }
 
+    /**
+     * Checks if the client accepts responses with the given content encoding.<p>
+     *
+     * The <code>Accept-Encoding</code> header of the request is evaluated,
+     * encodings with a quality value of 0 are not accepted.<p>
+     *
+     * @param request the HTTP servlet request
+     * @param encoding the content encoding, for example <code>gzip</code>
+     *
+     * @return <code>true</code> if the client accepts the given content encoding
+     */
+    public static boolean isEncodingAccepted(HttpServletRequest request, String encoding) {
+
+        String header = request.getHeader(HEADER_ACCEPT_ENCODING);
+        if (header == null) {
+            return false;
+        }
+        boolean wildcard = false;
+        String[] tokens = header.split(",");
+        for (int i = 0; i < tokens.length; i++) {
+            String[] parts = tokens[i].split(";");
+            String name = parts[0].trim();
+            boolean accepted = true;
+            for (int j = 1; j < parts.length; j++) {
+                String param = parts[j].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        accepted = Double.parseDouble(param.substring(2).trim()) > 0;
+                    } catch (NumberFormatException e) {
+                        accepted = false;
+                    }
+                }
+            }
+            if (name.equalsIgnoreCase(encoding) || name.equalsIgnoreCase("x-" + encoding)) {
+                return accepted;
+            }
+            if (name.equals("*")) {
+                wildcard = accepted;
+            }
+        }
+        return wildcard;
+    }
+
     /**
      * Parses a request of the form <code>multipart/form-data</code>.
      * 
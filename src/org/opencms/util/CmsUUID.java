@@ -57,7 +57,9 @@ import org.safehaus.uuid.UUIDGenerator;
  * (without using JNI), the MAC address has to be provided first 
  * by using the static {@link #init(String)} method.<p>
  * 
- * This class is just a facade wrapper for the "real" UUID implementation.<p> 
+ * This class is just a facade wrapper for the "real" UUID implementation.
+ * New time based UUIDs are created by a {@link CmsUUIDGenerator}, which does not need 
+ * a global lock, so many UUIDs can be created concurrently, e.g. during an import.<p> 
  * 
  * @since 6.0.0 
  */
@@ -66,8 +68,8 @@ public final class CmsUUID extends Object implements Serializable, Cloneable, Co
     /** The log object for this class. */
     private static final Log LOG = CmsLog.getLog(CmsUUID.class);
 
-    /** Ethernet address of the server machine. */
-    private static EthernetAddress m_ethernetAddress;
+    /** The generator for the time based UUIDs. */
+    private static volatile CmsUUIDGenerator m_generator;
 
     /** OpenCms UUID (name based uuid of "www.opencms.org" in the dns name space). */
     private static UUID m_opencmsUUID = UUIDGenerator.getInstance().generateNameBasedUUID(
@@ -91,13 +93,15 @@ public final class CmsUUID extends Object implements Serializable, Cloneable, Co
      */
     public CmsUUID() {
 
-        if (m_ethernetAddress == null) {
+        CmsUUIDGenerator generator = m_generator;
+        if (generator == null) {
             // if no ethernet address is available, generate a dummy
             // this is required because otherwise we can't ever de-serialize a CmsUUID outside of OpenCms, 
             // since the empty constructor is called when the de-serialization takes place
             init(getDummyEthernetAddress());
+            generator = m_generator;
         }
-        m_uuid = UUIDGenerator.getInstance().generateTimeBasedUUID(m_ethernetAddress);
+        m_uuid = generator.generate();
     }
 
     /**
@@ -206,7 +210,7 @@ public final class CmsUUID extends Object implements Serializable, Cloneable, Co
     public static void init(String ethernetAddress) throws CmsInitException {
 
         try {
-            m_ethernetAddress = new EthernetAddress(ethernetAddress);
+            m_generator = new CmsUUIDGenerator(new EthernetAddress(ethernetAddress));
         } catch (Exception e) {
             throw new CmsInitException(Messages.get().container(
                 Messages.ERR_INVALID_ETHERNET_ADDRESS_1,
@@ -0,0 +1,117 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.util;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.safehaus.uuid.EthernetAddress;
+import org.safehaus.uuid.UUID;
+
+/**
+ * Generates time based UUIDs without global synchronization.<p>
+ *
+ * The generated UUIDs have the same layout as the time based UUIDs of the JUG library
+ * used before (version 1, variant 2 as described in RFC 4122), with the ethernet address
+ * of the server as node and a random clock sequence chosen when the generator is created.<p>
+ *
+ * Instead of a synchronized timer that waits for the clock to advance, the last used timestamp
+ * is kept in an atomic counter. Every call takes the current time or, if that has already been used,
+ * the next free timestamp, so each timestamp is handed out exactly once by one generator.
+ * If more than 10000 UUIDs per millisecond are requested, the timestamps run ahead of the clock
+ * for a short while until the clock catches up again.<p>
+ *
+ * @since 8.0.2
+ */
+final class CmsUUIDGenerator {
+
+    /** The number of 100 nanosecond intervals per millisecond. */
+    private static final long INTERVALS_PER_MILLI = 10000L;
+
+    /** The offset between the UUID epoch (15 October 1582) and the Java epoch in 100 nanosecond intervals. */
+    private static final long UUID_EPOCH_OFFSET = 0x01B21DD213814000L;
+
+    /** The lower 64 bits of all generated UUIDs: the variant, the clock sequence and the node. */
+    private final long m_clockSequenceAndNode;
+
+    /** The last used timestamp. */
+    private final AtomicLong m_lastTimestamp = new AtomicLong();
+
+    /**
+     * Creates a new generator for the given ethernet address.<p>
+     *
+     * @param ethernetAddress the ethernet address used as node
+     */
+    CmsUUIDGenerator(EthernetAddress ethernetAddress) {
+
+        long clockSequence = new Random().nextInt() & 0x3FFFL;
+        m_clockSequenceAndNode = (0x8000L | clockSequence) << 48 | (ethernetAddress.toLong() & 0xFFFFFFFFFFFFL);
+    }
+
+    /**
+     * Writes the given value in big endian byte order to the given array.<p>
+     *
+     * @param data the target array
+     * @param index the start index
+     * @param value the value
+     */
+    private static void writeLong(byte[] data, int index, long value) {
+
+        for (int i = 7; i >= 0; i--) {
+            data[index + i] = (byte)value;
+            value >>>= 8;
+        }
+    }
+
+    /**
+     * Generates a new time based UUID.<p>
+     *
+     * @return the new UUID
+     */
+    UUID generate() {
+
+        long now = (System.currentTimeMillis() * INTERVALS_PER_MILLI) + UUID_EPOCH_OFFSET;
+        long timestamp;
+        while (true) {
+            long last = m_lastTimestamp.get();
+            timestamp = (now > last) ? now : last + 1;
+            if (m_lastTimestamp.compareAndSet(last, timestamp)) {
+                break;
+            }
+        }
+        long mostSignificantBits = (timestamp << 32)
+            | ((timestamp >>> 16) & 0xFFFF0000L)
+            | 0x1000L
+            | ((timestamp >>> 48) & 0x0FFFL);
+        byte[] data = new byte[16];
+        writeLong(data, 0, mostSignificantBits);
+        writeLong(data, 8, m_clockSequenceAndNode);
+        return new UUID(data);
+    }
+}
@@ -61,6 +61,8 @@ public class CmsWorkplaceSettings {
     private String m_explorerProjectFilter;
     private CmsUUID m_explorerProjectId;
     private Map m_explorerResource;
+    private boolean m_explorerSortAscending;
+    private String m_explorerSortColumn;
     private Map m_frameUris;
     private String m_galleryType;
     private Map m_lastUsedGalleries;
@@ -83,6 +85,7 @@ public class CmsWorkplaceSettings {
     CmsWorkplaceSettings() {
 
         m_explorerPage = 1;
+        m_explorerSortAscending = true;
         m_explorerResource = new HashMap();
         m_treeType = new HashMap();
         m_treeSite = new HashMap();
@@ -208,6 +211,16 @@ public class CmsWorkplaceSettings {
         return resource;
     }
 
+    /**
+     * Returns the column the explorer file list is sorted by.<p>
+     * 
+     * @return the column the explorer file list is sorted by, or <code>null</code> for the folder order
+     */
+    public String getExplorerSortColumn() {
+
+        return m_explorerSortColumn;
+    }
+
     /**
      * Returns the frame URIs of the currently loaded frameset, with the frame names as keys.<p>
      * 
@@ -376,6 +389,16 @@ public class CmsWorkplaceSettings {
         return m_viewUri;
     }
 
+    /**
+     * Returns if the explorer file list is sorted in ascending order.<p>
+     * 
+     * @return <code>true</code> if the explorer file list is sorted in ascending order
+     */
+    public boolean isExplorerSortAscending() {
+
+        return m_explorerSortAscending;
+    }
+
     /**
      * Returns if the user agreement has been accepted in the current workplace session.<p>
      *
@@ -539,6 +562,26 @@ public class CmsWorkplaceSettings {
         }
     }
 
+    /**
+     * Sets if the explorer file list is sorted in ascending order.<p>
+     * 
+     * @param ascending <code>true</code> if the explorer file list is sorted in ascending order
+     */
+    public void setExplorerSortAscending(boolean ascending) {
+
+        m_explorerSortAscending = ascending;
+    }
+
+    /**
+     * Sets the column the explorer file list is sorted by.<p>
+     * 
+     * @param column the column the explorer file list is sorted by, or <code>null</code> for the folder order
+     */
+    public void setExplorerSortColumn(String column) {
+
+        m_explorerSortColumn = column;
+    }
+
     /**
      * Sets the current gallery type name.<p>
      *
@@ -57,12 +57,16 @@ import org.opencms.workplace.list.CmsListMetadata;
 import org.opencms.workplace.list.CmsListOrderEnum;
 import org.opencms.workplace.list.CmsListRadioMultiAction;
 import org.opencms.workplace.list.CmsListResourceIconAction;
+import org.opencms.workplace.list.CmsListState;
+import org.opencms.workplace.list.I_CmsListDataProvider;
 import org.opencms.workplace.list.I_CmsListFormatter;
+import org.opencms.workplace.list.I_CmsListItemComparator;
 import org.opencms.workplace.tools.CmsToolDialog;
 
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -82,7 +86,7 @@ import org.apache.commons.logging.Log;
  * 
  * @since 6.0.2 
  */
-public class CmsHistoryList extends A_CmsListDialog {
+public class CmsHistoryList extends A_CmsListDialog implements I_CmsListDataProvider {
 
     /** 
      * Wrapper class for the version which is either an integer or the string "offline".<p>
@@ -251,6 +255,12 @@ public class CmsHistoryList extends A_CmsListDialog {
     /** The log object for this class. */
     private static final Log LOG = CmsLog.getLog(CmsHistoryList.class);
 
+    /** The sorted list items of all versions, only the items of the displayed page are complete. */
+    private List m_sortedItems;
+
+    /** The list state the sorted list items were created for. */
+    private String m_sortedState;
+
     /**
      * Public constructor.<p>
      * 
@@ -264,7 +274,8 @@ public class CmsHistoryList extends A_CmsListDialog {
             Messages.get().container(Messages.GUI_HISTORY_0),
             LIST_COLUMN_VERSION,
             CmsListOrderEnum.ORDER_DESCENDING,
-            null);
+            null,
+            true);
     }
 
     /**
@@ -430,144 +441,45 @@ public class CmsHistoryList extends A_CmsListDialog {
     }
 
     /**
-     * @see org.opencms.workplace.list.A_CmsListDialog#getListItems()
+     * Returns the list items of the page given by the list state.<p>
+     * 
+     * The versions are sorted with the data of the versions alone, if possible. 
+     * The history project and the user are only read for the versions of the page.<p>
+     * 
+     * @see org.opencms.workplace.list.I_CmsListDataProvider#getListItems(org.opencms.workplace.list.CmsListState, int)
      */
-    protected List getListItems() throws CmsException {
-
-        List result = new ArrayList();
-
-        List historicalVersions = getCms().readAllAvailableVersions(getParamResource());
-        Iterator itVersions = historicalVersions.iterator();
-        while (itVersions.hasNext()) {
-            I_CmsHistoryResource histRes = (I_CmsHistoryResource)itVersions.next();
-
-            // the publish tag for the history project            
-            int publishTag = histRes.getPublishTag();
-
-            CmsHistoryProject project = getCms().readHistoryProject(publishTag);
-            String filetype = String.valueOf(histRes.getTypeId());
-            String dateLastModified = getMessages().getDateTime(histRes.getDateLastModified());
-            String datePublished = getMessages().getDateTime(project.getPublishingDate());
-
-            CmsListItem item = getList().newItem("" + histRes.getVersion());
-
-            int factor = 1;
-            if (result.isEmpty() && !histRes.getState().isDeleted()) {
-                factor = -1;
-            }
-            CmsVersionWrapper version = new CmsVersionWrapper(factor * histRes.getVersion());
-
-            //version
-            item.set(LIST_COLUMN_VERSION, version);
-            // publish date
-            item.set(LIST_COLUMN_DATE_PUBLISHED, datePublished);
-            // last modification date
-            item.set(LIST_COLUMN_DATE_LAST_MODIFIED, dateLastModified);
-            // resource type           
-            item.set(LIST_COLUMN_FILE_TYPE, filetype);
-            // user
-            String user = histRes.getUserLastModified().toString();
-            try {
-                user = CmsPrincipal.readPrincipalIncludingHistory(getCms(), histRes.getUserLastModified()).getName();
-            } catch (CmsDbEntryNotFoundException e) {
-                // ignore
-            }
-            item.set(LIST_COLUMN_USER, user);
-            // path           
-            item.set(LIST_COLUMN_RESOURCE_PATH, getCms().getRequestContext().removeSiteRoot(histRes.getRootPath()));
-            // size 
-            item.set(LIST_COLUMN_SIZE, new Integer(histRes.getLength()).toString());
-            // invisible publish tag (for reading history project in fillDetails)
-            item.set(LIST_COLUMN_PUBLISH_TAG, new Integer(publishTag));
-            // invisible structure id           
-            item.set(LIST_COLUMN_STRUCTURE_ID, histRes.getStructureId().toString());
-
+    public List<CmsListItem> getListItems(CmsListState state, int pageSize) throws CmsException {
+
+        List items = getSortedItems(state);
+        int from = Math.min(items.size(), Math.max(0, (state.getPage() - 1) * pageSize));
+        int to = Math.min(items.size(), from + pageSize);
+        List<CmsListItem> result = new ArrayList<CmsListItem>(to - from);
+        for (int i = from; i < to; i++) {
+            CmsListItem item = (CmsListItem)items.get(i);
+            completeListItem(item);
             result.add(item);
         }
+        return result;
+    }
 
-        if (result.isEmpty()) {
-            CmsResource onlineResource = null;
-
-            // this is to prevent problems after an update without keeping historical info
-            CmsProject project = getCms().getRequestContext().getCurrentProject();
-            try {
-                getCms().getRequestContext().setCurrentProject(getCms().readProject(CmsProject.ONLINE_PROJECT_ID));
-                onlineResource = getCms().readResource(getParamResource(), CmsResourceFilter.IGNORE_EXPIRATION);
-
-                CmsListItem item = getList().newItem("" + onlineResource.getVersion());
-                //version
-                item.set(LIST_COLUMN_VERSION, new CmsVersionWrapper(-1 * onlineResource.getVersion()));
-                // publish date
-                item.set(LIST_COLUMN_DATE_PUBLISHED, "-");
-                // last modification date
-                item.set(
-                    LIST_COLUMN_DATE_LAST_MODIFIED,
-                    getMessages().getDateTime(onlineResource.getDateLastModified()));
-                // resource type           
-                item.set(LIST_COLUMN_FILE_TYPE, String.valueOf(onlineResource.getTypeId()));
-                // user   
-                String user = onlineResource.getUserLastModified().toString();
-                try {
-                    user = CmsPrincipal.readPrincipalIncludingHistory(getCms(), onlineResource.getUserLastModified()).getName();
-                } catch (CmsDbEntryNotFoundException e) {
-                    // ignore
-                }
-                item.set(LIST_COLUMN_USER, user);
-                // size 
-                item.set(LIST_COLUMN_SIZE, new Integer(onlineResource.getLength()).toString());
-                // path
-                item.set(LIST_COLUMN_RESOURCE_PATH, getCms().getSitePath(onlineResource));
-                // invisible structure id           
-                item.set(LIST_COLUMN_STRUCTURE_ID, onlineResource.getStructureId().toString());
-
-                result.add(item);
-            } catch (CmsVfsResourceNotFoundException e) {
-                // ignore, most likely the file is new
-            } finally {
-                getCms().getRequestContext().setCurrentProject(project);
-            }
-        }
-        CmsResource offlineResource = getCms().readResource(getParamResource(), CmsResourceFilter.IGNORE_EXPIRATION);
+    /**
+     * @see org.opencms.workplace.list.I_CmsListDataProvider#getListSize(org.opencms.workplace.list.CmsListState)
+     */
+    public int getListSize(CmsListState state) throws CmsException {
 
-        // hide the size for folders
-        getList().getMetadata().getColumnDefinition(LIST_COLUMN_SIZE).setVisible(offlineResource.isFile());
-        // hide the preview button for folders
-        getList().getMetadata().getColumnDefinition(LIST_COLUMN_ICON).setVisible(offlineResource.isFile());
+        return getSortedItems(state).size();
+    }
 
-        // display offline version, if state is not unchanged
-        if (!offlineResource.getState().isUnchanged()) {
-            CmsListItem item = getList().newItem("" + CmsHistoryResourceHandler.PROJECT_OFFLINE_VERSION);
-            //version
-            item.set(LIST_COLUMN_VERSION, new CmsVersionWrapper(CmsHistoryResourceHandler.PROJECT_OFFLINE_VERSION));
-            // publish date
-            item.set(LIST_COLUMN_DATE_PUBLISHED, "-");
-            // last modification date
-            item.set(LIST_COLUMN_DATE_LAST_MODIFIED, getMessages().getDateTime(offlineResource.getDateLastModified()));
-            // resource type           
-            item.set(LIST_COLUMN_FILE_TYPE, String.valueOf(offlineResource.getTypeId()));
-            // user
-            String user = offlineResource.getUserLastModified().toString();
-            try {
-                user = CmsPrincipal.readPrincipalIncludingHistory(getCms(), offlineResource.getUserLastModified()).getName();
-            } catch (CmsDbEntryNotFoundException e) {
-                // ignore
-            }
-            item.set(LIST_COLUMN_USER, user);
-            // size 
-            item.set(LIST_COLUMN_SIZE, new Integer(offlineResource.getLength()).toString());
-            // path
-            item.set(LIST_COLUMN_RESOURCE_PATH, getCms().getSitePath(offlineResource));
-            // invisible structure id           
-            item.set(LIST_COLUMN_STRUCTURE_ID, offlineResource.getStructureId().toString());
+    /**
+     * @see org.opencms.workplace.list.A_CmsListDialog#getListItems()
+     */
+    protected List getListItems() throws CmsException {
 
-            result.add(item);
+        List result = createListItems();
+        Iterator it = result.iterator();
+        while (it.hasNext()) {
+            completeListItem((CmsListItem)it.next());
         }
-
-        boolean comparable = (result.size() > 1);
-        getList().getMetadata().getColumnDefinition(LIST_COLUMN_SEL1).setVisible(comparable);
-        getList().getMetadata().getColumnDefinition(LIST_COLUMN_SEL2).setVisible(comparable);
-        getList().getMetadata().getMultiAction(LIST_MACTION_COMPARE).setVisible(comparable);
-
         return result;
     }
 
@@ -820,6 +732,169 @@ public class CmsHistoryList extends A_CmsListDialog {
         metadata.addMultiAction(compareAction);
     }
 
+    /**
+     * Sets the publish date and the user name of the given list item, if not already set.<p>
+     * 
+     * @param item the list item
+     * 
+     * @throws CmsException if something goes wrong
+     */
+    private void completeListItem(CmsListItem item) throws CmsException {
+
+        if (item.get(LIST_COLUMN_DATE_PUBLISHED) != null) {
+            return;
+        }
+        CmsHistoryProject project = getCms().readHistoryProject(
+            ((Integer)item.get(LIST_COLUMN_PUBLISH_TAG)).intValue());
+        item.set(LIST_COLUMN_DATE_PUBLISHED, getMessages().getDateTime(project.getPublishingDate()));
+        String user = (String)item.get(LIST_COLUMN_USER);
+        try {
+            user = CmsPrincipal.readPrincipalIncludingHistory(getCms(), new CmsUUID(user)).getName();
+        } catch (CmsDbEntryNotFoundException e) {
+            // ignore
+        }
+        item.set(LIST_COLUMN_USER, user);
+    }
+
+    /**
+     * Creates the list items for all versions of the resource.<p>
+     * 
+     * The publish date and the user of the historical versions are not set, 
+     * see {@link #completeListItem(CmsListItem)}.<p>
+     * 
+     * @return a list of {@link CmsListItem} objects
+     * 
+     * @throws CmsException if something goes wrong
+     */
+    private List createListItems() throws CmsException {
+
+        List result = new ArrayList();
+
+        List historicalVersions = getCms().readAllAvailableVersions(getParamResource());
+        Iterator itVersions = historicalVersions.iterator();
+        while (itVersions.hasNext()) {
+            I_CmsHistoryResource histRes = (I_CmsHistoryResource)itVersions.next();
+
+            // the publish tag for the history project            
+            int publishTag = histRes.getPublishTag();
+
+            String filetype = String.valueOf(histRes.getTypeId());
+            String dateLastModified = getMessages().getDateTime(histRes.getDateLastModified());
+
+            CmsListItem item = getList().newItem("" + histRes.getVersion());
+
+            int factor = 1;
+            if (result.isEmpty() && !histRes.getState().isDeleted()) {
+                factor = -1;
+            }
+            CmsVersionWrapper version = new CmsVersionWrapper(factor * histRes.getVersion());
+
+            //version
+            item.set(LIST_COLUMN_VERSION, version);
+            // last modification date
+            item.set(LIST_COLUMN_DATE_LAST_MODIFIED, dateLastModified);
+            // resource type           
+            item.set(LIST_COLUMN_FILE_TYPE, filetype);
+            // user id, the name is read in completeListItem
+            item.set(LIST_COLUMN_USER, histRes.getUserLastModified().toString());
+            // path           
+            item.set(LIST_COLUMN_RESOURCE_PATH, getCms().getRequestContext().removeSiteRoot(histRes.getRootPath()));
+            // size 
+            item.set(LIST_COLUMN_SIZE, new Integer(histRes.getLength()).toString());
+            // invisible publish tag (for reading history project in fillDetails)
+            item.set(LIST_COLUMN_PUBLISH_TAG, new Integer(publishTag));
+            // invisible structure id           
+            item.set(LIST_COLUMN_STRUCTURE_ID, histRes.getStructureId().toString());
+
+            result.add(item);
+        }
+
+        if (result.isEmpty()) {
+            CmsResource onlineResource = null;
+
+            // this is to prevent problems after an update without keeping historical info
+            CmsProject project = getCms().getRequestContext().getCurrentProject();
+            try {
+                getCms().getRequestContext().setCurrentProject(getCms().readProject(CmsProject.ONLINE_PROJECT_ID));
+                onlineResource = getCms().readResource(getParamResource(), CmsResourceFilter.IGNORE_EXPIRATION);
+
+                CmsListItem item = getList().newItem("" + onlineResource.getVersion());
+                //version
+                item.set(LIST_COLUMN_VERSION, new CmsVersionWrapper(-1 * onlineResource.getVersion()));
+                // publish date
+                item.set(LIST_COLUMN_DATE_PUBLISHED, "-");
+                // last modification date
+                item.set(
+                    LIST_COLUMN_DATE_LAST_MODIFIED,
+                    getMessages().getDateTime(onlineResource.getDateLastModified()));
+                // resource type           
+                item.set(LIST_COLUMN_FILE_TYPE, String.valueOf(onlineResource.getTypeId()));
+                // user   
+                String user = onlineResource.getUserLastModified().toString();
+                try {
+                    user = CmsPrincipal.readPrincipalIncludingHistory(getCms(), onlineResource.getUserLastModified()).getName();
+                } catch (CmsDbEntryNotFoundException e) {
+                    // ignore
+                }
+                item.set(LIST_COLUMN_USER, user);
+                // size 
+                item.set(LIST_COLUMN_SIZE, new Integer(onlineResource.getLength()).toString());
+                // path
+                item.set(LIST_COLUMN_RESOURCE_PATH, getCms().getSitePath(onlineResource));
+                // invisible structure id           
+                item.set(LIST_COLUMN_STRUCTURE_ID, onlineResource.getStructureId().toString());
+
+                result.add(item);
+            } catch (CmsVfsResourceNotFoundException e) {
+                // ignore, most likely the file is new
+            } finally {
+                getCms().getRequestContext().setCurrentProject(project);
+            }
+        }
+        CmsResource offlineResource = getCms().readResource(getParamResource(), CmsResourceFilter.IGNORE_EXPIRATION);
+
+        // hide the size for folders
+        getList().getMetadata().getColumnDefinition(LIST_COLUMN_SIZE).setVisible(offlineResource.isFile());
+        // hide the preview button for folders
+        getList().getMetadata().getColumnDefinition(LIST_COLUMN_ICON).setVisible(offlineResource.isFile());
+
+        // display offline version, if state is not unchanged
+        if (!offlineResource.getState().isUnchanged()) {
+            CmsListItem item = getList().newItem("" + CmsHistoryResourceHandler.PROJECT_OFFLINE_VERSION);
+            //version
+            item.set(LIST_COLUMN_VERSION, new CmsVersionWrapper(CmsHistoryResourceHandler.PROJECT_OFFLINE_VERSION));
+            // publish date
+            item.set(LIST_COLUMN_DATE_PUBLISHED, "-");
+            // last modification date
+            item.set(LIST_COLUMN_DATE_LAST_MODIFIED, getMessages().getDateTime(offlineResource.getDateLastModified()));
+            // resource type           
+            item.set(LIST_COLUMN_FILE_TYPE, String.valueOf(offlineResource.getTypeId()));
+            // user
+            String user = offlineResource.getUserLastModified().toString();
+            try {
+                user = CmsPrincipal.readPrincipalIncludingHistory(getCms(), offlineResource.getUserLastModified()).getName();
+            } catch (CmsDbEntryNotFoundException e) {
+                // ignore
+            }
+            item.set(LIST_COLUMN_USER, user);
+            // size 
+            item.set(LIST_COLUMN_SIZE, new Integer(offlineResource.getLength()).toString());
+            // path
+            item.set(LIST_COLUMN_RESOURCE_PATH, getCms().getSitePath(offlineResource));
+            // invisible structure id           
+            item.set(LIST_COLUMN_STRUCTURE_ID, offlineResource.getStructureId().toString());
+
+            result.add(item);
+        }
+
+        boolean comparable = (result.size() > 1);
+        getList().getMetadata().getColumnDefinition(LIST_COLUMN_SEL1).setVisible(comparable);
+        getList().getMetadata().getColumnDefinition(LIST_COLUMN_SEL2).setVisible(comparable);
+        getList().getMetadata().getMultiAction(LIST_MACTION_COMPARE).setVisible(comparable);
+
+        return result;
+    }
+
     /**
      * Fills details of the project into the given item. <p> 
      * 
@@ -848,4 +923,41 @@ public class CmsHistoryList extends A_CmsListDialog {
         }
         item.set(detailId, html.toString());
     }
-}
\ No newline at end of file
+
+    /**
+     * Returns the list items of all versions, sorted as given by the list state.<p>
+     * 
+     * @param state the list state
+     * 
+     * @return the sorted list items
+     * 
+     * @throws CmsException if something goes wrong
+     */
+    private List getSortedItems(CmsListState state) throws CmsException {
+
+        String key = state.getColumn() + "|" + state.getOrder();
+        if ((m_sortedItems == null) || !key.equals(m_sortedState)) {
+            List items = createListItems();
+            String column = state.getColumn();
+            CmsListColumnDefinition col = (column == null) ? null : getList().getMetadata().getColumnDefinition(
+                column);
+            if ((col != null) && col.isSorteable()) {
+                if (column.equals(LIST_COLUMN_DATE_PUBLISHED) || column.equals(LIST_COLUMN_USER)) {
+                    // these columns are only known after reading the history project and the user 
+                    Iterator it = items.iterator();
+                    while (it.hasNext()) {
+                        completeListItem((CmsListItem)it.next());
+                    }
+                }
+                I_CmsListItemComparator c = col.getListItemComparator();
+                Collections.sort(items, c.getComparator(column, getLocale()));
+                if (CmsListOrderEnum.ORDER_DESCENDING.equals(state.getOrder())) {
+                    Collections.reverse(items);
+                }
+            }
+            m_sortedItems = items;
+            m_sortedState = key;
+        }
+        return m_sortedItems;
+    }
+}
@@ -51,7 +51,10 @@ import org.opencms.workplace.galleries.A_CmsAjaxGallery;
 import org.opencms.workplace.list.I_CmsListResourceCollector;
 import org.opencms.workplace.tools.CmsToolManager;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Scanner;
 
@@ -74,9 +77,129 @@ import org.apache.commons.logging.Log;
  */
 public class CmsExplorer extends CmsWorkplace {
 
+    /**
+     * Compares resources by one of the sort columns of the explorer file list.<p>
+     * 
+     * Folders are always sorted before files, resources with equal values are sorted by name.<p>
+     */
+    private static final class CmsResourceComparator implements Comparator<CmsResource> {
+
+        /** The sort column. */
+        private String m_column;
+
+        /** The sort direction, 1 for ascending and -1 for descending order. */
+        private int m_direction;
+
+        /**
+         * Creates a new comparator.<p>
+         * 
+         * @param column the sort column
+         * @param ascending if the order is ascending
+         */
+        CmsResourceComparator(String column, boolean ascending) {
+
+            m_column = column;
+            m_direction = ascending ? 1 : -1;
+        }
+
+        /**
+         * @see java.util.Comparator#compare(java.lang.Object, java.lang.Object)
+         */
+        public int compare(CmsResource res1, CmsResource res2) {
+
+            if (res1.isFolder() != res2.isFolder()) {
+                return res1.isFolder() ? -1 : 1;
+            }
+            int result = 0;
+            if (SORT_TYPE.equals(m_column)) {
+                result = getTypeName(res1).compareTo(getTypeName(res2));
+            } else if (SORT_SIZE.equals(m_column)) {
+                result = compareLong(res1.getLength(), res2.getLength());
+            } else if (SORT_STATE.equals(m_column)) {
+                result = compareLong(res1.getState().getState(), res2.getState().getState());
+            } else if (SORT_DATE_LASTMODIFIED.equals(m_column)) {
+                result = compareLong(res1.getDateLastModified(), res2.getDateLastModified());
+            } else if (SORT_DATE_CREATED.equals(m_column)) {
+                result = compareLong(res1.getDateCreated(), res2.getDateCreated());
+            } else if (SORT_DATE_RELEASED.equals(m_column)) {
+                result = compareLong(res1.getDateReleased(), res2.getDateReleased());
+            } else if (SORT_DATE_EXPIRED.equals(m_column)) {
+                result = compareLong(res1.getDateExpired(), res2.getDateExpired());
+            }
+            if (result == 0) {
+                result = res1.getName().compareToIgnoreCase(res2.getName());
+            }
+            return m_direction * result;
+        }
+
+        /**
+         * Compares two long values.<p>
+         * 
+         * @param value1 the first value
+         * @param value2 the second value
+         * 
+         * @return the comparison result
+         */
+        private int compareLong(long value1, long value2) {
+
+            return (value1 < value2) ? -1 : ((value1 == value2) ? 0 : 1);
+        }
+
+        /**
+         * Returns the resource type name of the given resource.<p>
+         * 
+         * @param resource the resource
+         * 
+         * @return the resource type name
+         */
+        private String getTypeName(CmsResource resource) {
+
+            try {
+                return OpenCms.getResourceManager().getResourceType(resource.getTypeId()).getTypeName();
+            } catch (CmsLoaderException e) {
+                return String.valueOf(resource.getTypeId());
+            }
+        }
+    }
+
     /** The "mode" parameter. */
     public static final String PARAMETER_MODE = "mode";
 
+    /** Sort column for the date of creation. */
+    public static final String SORT_DATE_CREATED = "dateCreated";
+
+    /** Sort column for the date of expiration. */
+    public static final String SORT_DATE_EXPIRED = "dateExpired";
+
+    /** Sort column for the date of last modification. */
+    public static final String SORT_DATE_LASTMODIFIED = "dateLastModified";
+
+    /** Sort column for the date of release. */
+    public static final String SORT_DATE_RELEASED = "dateReleased";
+
+    /** Sort column for the name. */
+    public static final String SORT_NAME = "name";
+
+    /** Sort column for the size. */
+    public static final String SORT_SIZE = "size";
+
+    /** Sort column for the state. */
+    public static final String SORT_STATE = "state";
+
+    /** Sort column for the resource type. */
+    public static final String SORT_TYPE = "type";
+
+    /** The sort columns of the explorer file list. */
+    public static final List<String> SORT_COLUMNS = Collections.unmodifiableList(Arrays.asList(new String[] {
+        SORT_NAME,
+        SORT_TYPE,
+        SORT_SIZE,
+        SORT_STATE,
+        SORT_DATE_LASTMODIFIED,
+        SORT_DATE_CREATED,
+        SORT_DATE_RELEASED,
+        SORT_DATE_EXPIRED}));
+
     /** The "explorerview" view selection. */
     public static final String VIEW_EXPLORER = "explorerview";
 
@@ -92,15 +215,24 @@ public class CmsExplorer extends CmsWorkplace {
     /** The "flaturl" parameter. */
     private static final String PARAMETER_FLATURL = "flaturl";
 
+    /** The "order" parameter. */
+    private static final String PARAMETER_ORDER = "order";
+
     /** The "page" parameter. */
     private static final String PARAMETER_PAGE = "page";
 
     /** The "resource" parameter. */
     private static final String PARAMETER_RESOURCE = "resource";
 
+    /** The "sort" parameter. */
+    private static final String PARAMETER_SORT = "sort";
+
     /** The "uri" parameter. */
     private static final String PARAMETER_URI = "uri";
 
+    /** Value of the "order" parameter for descending order. */
+    private static final String SORT_ORDER_DESCENDING = "desc";
+
     /** The 'uri' parameter value. */
     private String m_uri;
 
@@ -250,6 +382,14 @@ public class CmsExplorer extends CmsWorkplace {
 
         // now get the entries for the file list
         List<CmsResource> resources = getResources(getSettings().getExplorerResource());
+        String sortColumn = getSettings().getExplorerSortColumn();
+        if (!galleryView && !listView && (sortColumn != null)) {
+            // sort all entries before paging, using only the data of the resources
+            resources = new ArrayList<CmsResource>(resources);
+            Collections.sort(resources, new CmsResourceComparator(
+                sortColumn,
+                getSettings().isExplorerSortAscending()));
+        }
 
         // if a folder contains to much entries we split them to pages of C_ENTRYS_PER_PAGE length
         int startat = 0;
@@ -300,6 +440,8 @@ public class CmsExplorer extends CmsWorkplace {
             referenceProject = getCms().getRequestContext().getCurrentProject();
         }
 
+        // the same resource util is used for all entries of the page, 
+        // so the project resources and the user names are only read once per page
         CmsResourceUtil resUtil = new CmsResourceUtil(getCms());
         resUtil.setReferenceProject(referenceProject);
 
@@ -606,6 +748,15 @@ public class CmsExplorer extends CmsWorkplace {
         content.append(getSettings().getExplorerMode());
         content.append("\";\n");
 
+        // the sort column and order
+        content.append("top.setSort(\"");
+        if (getSettings().getExplorerSortColumn() != null) {
+            content.append(getSettings().getExplorerSortColumn());
+        }
+        content.append("\",");
+        content.append(getSettings().isExplorerSortAscending());
+        content.append(");\n");
+
         // the resource id of plain resources
         content.append("top.plainresid=");
         int plainId;
@@ -744,6 +895,18 @@ public class CmsExplorer extends CmsWorkplace {
             }
         }
 
+        String sort = request.getParameter(PARAMETER_SORT);
+        if (sort != null) {
+            if (SORT_COLUMNS.contains(sort)) {
+                settings.setExplorerSortColumn(sort);
+                settings.setExplorerSortAscending(!SORT_ORDER_DESCENDING.equals(request.getParameter(PARAMETER_ORDER)));
+            } else {
+                // unknown or empty sort column, use the folder order
+                settings.setExplorerSortColumn(null);
+                settings.setExplorerSortAscending(true);
+            }
+        }
+
         String selectedPage = request.getParameter(PARAMETER_PAGE);
         if (selectedPage != null) {
             int page = 1;
@@ -54,8 +54,10 @@ import org.opencms.workplace.CmsWorkplace;
 import org.opencms.workplace.commons.CmsTouch;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 
 import org.apache.commons.logging.Log;
 
@@ -223,6 +225,9 @@ public final class CmsResourceUtil {
     /** The current site mode. */
     private CmsResourceUtilSiteMode m_siteMode = SITE_MODE_CURRENT;
 
+    /** The cached user names, kept when the resource changes. */
+    private Map<CmsUUID, String> m_userNames;
+
     /**
      * Creates a new {@link CmsResourceUtil} object.<p> 
      * 
@@ -484,9 +489,7 @@ public final class CmsResourceUtil {
             // user
             lockedBy = getLock().getUserId().toString();
             try {
-                lockedBy = getCurrentOuRelativeName(CmsPrincipal.readPrincipalIncludingHistory(
-                    getCms(),
-                    getLock().getUserId()).getName());
+                lockedBy = getUserName(getLock().getUserId());
             } catch (Throwable e) {
                 lockedBy = e.getMessage();
             }
@@ -1081,9 +1084,7 @@ public final class CmsResourceUtil {
 
         String user = m_resource.getUserCreated().toString();
         try {
-            user = getCurrentOuRelativeName(CmsPrincipal.readPrincipalIncludingHistory(
-                getCms(),
-                m_resource.getUserCreated()).getName());
+            user = getUserName(m_resource.getUserCreated());
         } catch (Throwable e) {
             LOG.info(e.getLocalizedMessage());
         }
@@ -1099,9 +1100,7 @@ public final class CmsResourceUtil {
 
         String user = m_resource.getUserLastModified().toString();
         try {
-            user = getCurrentOuRelativeName(CmsPrincipal.readPrincipalIncludingHistory(
-                getCms(),
-                m_resource.getUserLastModified()).getName());
+            user = getUserName(m_resource.getUserLastModified());
         } catch (Throwable e) {
             LOG.info(e.getLocalizedMessage());
         }
@@ -1197,6 +1196,7 @@ public final class CmsResourceUtil {
         m_referenceProject = null;
         m_projectResources = null;
         m_messages = null;
+        m_userNames = null;
     }
 
     /**
@@ -1310,4 +1310,29 @@ public final class CmsResourceUtil {
         }
         return m_projectResources;
     }
-}
\ No newline at end of file
+
+    /**
+     * Returns the name of the given user, relative to the ou of the current user.<p>
+     * 
+     * The names are cached, so every user is only read once for all resources 
+     * displayed with this resource util.<p>
+     * 
+     * @param userId the id of the user
+     * 
+     * @return the name of the user
+     * 
+     * @throws CmsException if the user could not be read
+     */
+    private String getUserName(CmsUUID userId) throws CmsException {
+
+        if (m_userNames == null) {
+            m_userNames = new HashMap<CmsUUID, String>();
+        }
+        String name = m_userNames.get(userId);
+        if (name == null) {
+            name = getCurrentOuRelativeName(CmsPrincipal.readPrincipalIncludingHistory(getCms(), userId).getName());
+            m_userNames.put(userId, name);
+        }
+        return name;
+    }
+}
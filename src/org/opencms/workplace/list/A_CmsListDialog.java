@@ -56,6 +56,10 @@ import org.apache.commons.logging.Log;
 /**
  * Provides a dialog with a list widget.<p> 
  * 
+ * By default all list items are created by {@link #getListItems()} and are filtered, sorted
+ * and paged in memory. A lazy list dialog may instead provide an {@link I_CmsListDataProvider},
+ * which creates only the items of the current page.<p>
+ * 
  * @since 6.0.0 
  */
 public abstract class A_CmsListDialog extends CmsDialog {
@@ -899,7 +903,12 @@ public abstract class A_CmsListDialog extends CmsDialog {
     protected void fillList() {
 
         try {
-            getList().setContent(getListItems());
+            I_CmsListDataProvider provider = getDataProvider();
+            if (provider != null) {
+                fillPage(provider);
+            } else {
+                getList().setContent(getListItems());
+            }
             // initialize detail columns
             Iterator<CmsListItemDetails> itDetails = getList().getMetadata().getItemDetailDefinitions().iterator();
             while (itDetails.hasNext()) {
@@ -913,6 +922,22 @@ public abstract class A_CmsListDialog extends CmsDialog {
         }
     }
 
+    /**
+     * Returns the data provider that creates the list items of the current page.<p>
+     * 
+     * The default implementation returns the dialog itself, if the dialog is lazy 
+     * and implements {@link I_CmsListDataProvider}, and <code>null</code> otherwise.<p>
+     * 
+     * @return the data provider, or <code>null</code> if the list items are created by {@link #getListItems()}
+     */
+    protected I_CmsListDataProvider getDataProvider() {
+
+        if (m_lazy && (this instanceof I_CmsListDataProvider)) {
+            return (I_CmsListDataProvider)this;
+        }
+        return null;
+    }
+
     /**
      * Should generate a list with the list items to be displayed.<p>
      * 
@@ -954,6 +979,10 @@ public abstract class A_CmsListDialog extends CmsDialog {
             CmsListMetadata metadata = new CmsListMetadata(listId);
 
             setColumns(metadata);
+            if (m_lazy) {
+                // filtering, sorting and paging is done by the data source
+                metadata.setSelfManaged(true);
+            }
             // always check the search action
             setSearchAction(metadata, m_searchColId);
             setIndependentActions(metadata);
@@ -1133,4 +1162,35 @@ public abstract class A_CmsListDialog extends CmsDialog {
 
         // valid by default
     }
-}
\ No newline at end of file
+
+    /**
+     * Fills the list with the items of the current page, read from the given data provider.<p>
+     * 
+     * @param provider the data provider
+     * 
+     * @throws CmsException if something goes wrong
+     */
+    private void fillPage(I_CmsListDataProvider provider) throws CmsException {
+
+        CmsListState state = getListState();
+        int pageSize = getList().getMaxItemsPerPage();
+        int size = provider.getListSize(state);
+        // the page may have been removed, for instance after deleting items
+        int pages = Math.max(1, (size + pageSize - 1) / pageSize);
+        if (state.getPage() > pages) {
+            state.setPage(pages);
+        } else if (state.getPage() < 1) {
+            state.setPage(1);
+        }
+        getList().setContent(provider.getListItems(state, pageSize));
+        getList().setSize(size);
+        int totalSize = size;
+        if (CmsStringUtil.isNotEmptyOrWhitespaceOnly(state.getFilter())) {
+            CmsListState unfiltered = new CmsListState();
+            unfiltered.setColumn(state.getColumn());
+            unfiltered.setOrder(state.getOrder());
+            totalSize = provider.getListSize(unfiltered);
+        }
+        getList().setTotalSize(totalSize);
+    }
+}
@@ -177,7 +177,30 @@ public abstract class A_CmsListExplorerDialog extends A_CmsListDialog {
         CmsListOrderEnum sortOrder,
         String searchableColId) {
 
-        super(jsp, listId, listName, sortedColId, sortOrder, searchableColId);
+        this(jsp, listId, listName, sortedColId, sortOrder, searchableColId, false);
+    }
+
+    /**
+     * Default constructor.<p>
+     * 
+     * @param jsp an initialized JSP action element
+     * @param listId the id of the displayed list
+     * @param listName the name of the list
+     * @param sortedColId the a priory sorted column
+     * @param sortOrder the order of the sorted column
+     * @param searchableColId the column to search into
+     * @param lazy if <code>true</code>, the collector is used as data provider and only creates the list items of the current page
+     */
+    protected A_CmsListExplorerDialog(
+        CmsJspActionElement jsp,
+        String listId,
+        CmsMessageContainer listName,
+        String sortedColId,
+        CmsListOrderEnum sortOrder,
+        String searchableColId,
+        boolean lazy) {
+
+        super(jsp, listId, listName, sortedColId, sortOrder, searchableColId, lazy);
     }
 
     /**
@@ -332,6 +355,17 @@ public abstract class A_CmsListExplorerDialog extends A_CmsListDialog {
     protected void fillList() {
 
         getListState().setPage(getSettings().getExplorerPage());
+        if (getSettings().getExplorerMode() != null) {
+            CmsListColumnDefinition nameCol = getList().getMetadata().getColumnDefinition(LIST_COLUMN_NAME);
+            if (!(getSettings().getExplorerMode().equals(CmsExplorer.VIEW_GALLERY) || getSettings().getExplorerMode().equals(
+                CmsExplorer.VIEW_LIST))) {
+                nameCol.setName(org.opencms.workplace.explorer.Messages.get().container(
+                    org.opencms.workplace.explorer.Messages.GUI_INPUT_NAME_0));
+            } else {
+                nameCol.setName(org.opencms.workplace.explorer.Messages.get().container(
+                    org.opencms.workplace.explorer.Messages.GUI_INPUT_PATH_0));
+            }
+        }
         super.fillList();
     }
 
@@ -345,22 +379,24 @@ public abstract class A_CmsListExplorerDialog extends A_CmsListDialog {
         return m_colVisibilities;
     }
 
+    /**
+     * Returns the collector as data provider, if the list is lazy and the collector supports it.<p>
+     * 
+     * @see org.opencms.workplace.list.A_CmsListDialog#getDataProvider()
+     */
+    protected I_CmsListDataProvider getDataProvider() {
+
+        if (m_lazy && (getCollector() instanceof I_CmsListDataProvider)) {
+            return (I_CmsListDataProvider)getCollector();
+        }
+        return super.getDataProvider();
+    }
+
     /**
      * @see org.opencms.workplace.list.A_CmsListDialog#getListItems()
      */
     protected List getListItems() throws CmsException {
 
-        if (getSettings().getExplorerMode() != null) {
-            CmsListColumnDefinition nameCol = getList().getMetadata().getColumnDefinition(LIST_COLUMN_NAME);
-            if (!(getSettings().getExplorerMode().equals(CmsExplorer.VIEW_GALLERY) || getSettings().getExplorerMode().equals(
-                CmsExplorer.VIEW_LIST))) {
-                nameCol.setName(org.opencms.workplace.explorer.Messages.get().container(
-                    org.opencms.workplace.explorer.Messages.GUI_INPUT_NAME_0));
-            } else {
-                nameCol.setName(org.opencms.workplace.explorer.Messages.get().container(
-                    org.opencms.workplace.explorer.Messages.GUI_INPUT_PATH_0));
-            }
-        }
         return getCollector().getListItems(null);
     }
 
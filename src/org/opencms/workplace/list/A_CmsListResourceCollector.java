@@ -40,6 +40,7 @@ import org.opencms.workplace.commons.CmsProgressThread;
 import org.opencms.workplace.explorer.CmsResourceUtil;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
@@ -52,13 +53,28 @@ import org.apache.commons.logging.Log;
 /**
  * Collector to provide {@link CmsResource} objects for a explorer List.<p>
  * 
+ * The collector can also be used as data provider for a lazy explorer list, 
+ * see {@link A_CmsListExplorerDialog#getDataProvider()}.<p>
+ * 
  * @since 6.1.0 
  */
-public abstract class A_CmsListResourceCollector implements I_CmsListResourceCollector {
+public abstract class A_CmsListResourceCollector implements I_CmsListResourceCollector, I_CmsListDataProvider {
 
     /** VFS path to use for a dummy resource object. */
     public static final String VFS_PATH_NONE = "none";
 
+    /** The columns that are read from the resource alone. */
+    private static final List BASIC_COLUMNS = Arrays.asList(new String[] {
+        A_CmsListExplorerDialog.LIST_COLUMN_NAME,
+        A_CmsListExplorerDialog.LIST_COLUMN_ROOT_PATH,
+        A_CmsListExplorerDialog.LIST_COLUMN_TYPE,
+        A_CmsListExplorerDialog.LIST_COLUMN_SIZE,
+        A_CmsListExplorerDialog.LIST_COLUMN_DATELASTMOD,
+        A_CmsListExplorerDialog.LIST_COLUMN_DATECREATE,
+        A_CmsListExplorerDialog.LIST_COLUMN_DATEREL,
+        A_CmsListExplorerDialog.LIST_COLUMN_DATEEXP,
+        A_CmsListExplorerDialog.LIST_COLUMN_STATE});
+
     /** The log object for this class. */
     private static final Log LOG = CmsLog.getLog(A_CmsListResourceCollector.class);
 
@@ -74,6 +90,15 @@ public abstract class A_CmsListResourceCollector implements I_CmsListResourceCol
     /** Cache for resource list result. */
     protected List m_resources;
 
+    /** Flag to indicate if the sorted list items only contain the basic columns. */
+    private boolean m_sortedBasic;
+
+    /** The filtered and sorted list items for the data provider. */
+    private List m_sortedItems;
+
+    /** The list state the sorted list items were created for. */
+    private String m_sortedState;
+
     /** The workplace object where the collector is used from. */
     private A_CmsListExplorerDialog m_wp;
 
@@ -192,115 +217,12 @@ public abstract class A_CmsListResourceCollector implements I_CmsListResourceCol
                 I_CmsListResourceCollector.SEP_KEYVAL);
             CmsListState state = getState(params);
             List resources = getInternalResources(getWp().getCms(), params);
-            List ret = new ArrayList();
             if (LOG.isDebugEnabled()) {
                 LOG.debug(Messages.get().getBundle().key(
                     Messages.LOG_COLLECTOR_PROCESS_ITEMS_START_1,
                     new Integer(resources.size())));
             }
-            getWp().applyColumnVisibilities();
-            CmsHtmlList list = getWp().getList();
-
-            // check if progress should be set in the thread
-            CmsProgressThread thread = null;
-            int progressOffset = 0;
-            if (Thread.currentThread() instanceof CmsProgressThread) {
-                thread = (CmsProgressThread)Thread.currentThread();
-                progressOffset = thread.getProgress();
-            }
-
-            CmsListColumnDefinition colPermissions = list.getMetadata().getColumnDefinition(
-                A_CmsListExplorerDialog.LIST_COLUMN_PERMISSIONS);
-            boolean showPermissions = (colPermissions.isVisible() || colPermissions.isPrintable());
-            CmsListColumnDefinition colDateLastMod = list.getMetadata().getColumnDefinition(
-                A_CmsListExplorerDialog.LIST_COLUMN_DATELASTMOD);
-            boolean showDateLastMod = (colDateLastMod.isVisible() || colDateLastMod.isPrintable());
-            CmsListColumnDefinition colUserLastMod = list.getMetadata().getColumnDefinition(
-                A_CmsListExplorerDialog.LIST_COLUMN_USERLASTMOD);
-            boolean showUserLastMod = (colUserLastMod.isVisible() || colUserLastMod.isPrintable());
-            CmsListColumnDefinition colDateCreate = list.getMetadata().getColumnDefinition(
-                A_CmsListExplorerDialog.LIST_COLUMN_DATECREATE);
-            boolean showDateCreate = (colDateCreate.isVisible() || colDateCreate.isPrintable());
-            CmsListColumnDefinition colUserCreate = list.getMetadata().getColumnDefinition(
-                A_CmsListExplorerDialog.LIST_COLUMN_USERCREATE);
-            boolean showUserCreate = (colUserCreate.isVisible() || colUserCreate.isPrintable());
-            CmsListColumnDefinition colDateRel = list.getMetadata().getColumnDefinition(
-                A_CmsListExplorerDialog.LIST_COLUMN_DATEREL);
-            boolean showDateRel = (colDateRel.isVisible() || colDateRel.isPrintable());
-            CmsListColumnDefinition colDateExp = list.getMetadata().getColumnDefinition(
-                A_CmsListExplorerDialog.LIST_COLUMN_DATEEXP);
-            boolean showDateExp = (colDateExp.isVisible() || colDateExp.isPrintable());
-            CmsListColumnDefinition colState = list.getMetadata().getColumnDefinition(
-                A_CmsListExplorerDialog.LIST_COLUMN_STATE);
-            boolean showState = (colState.isVisible() || colState.isPrintable());
-            CmsListColumnDefinition colLockedBy = list.getMetadata().getColumnDefinition(
-                A_CmsListExplorerDialog.LIST_COLUMN_LOCKEDBY);
-            boolean showLockedBy = (colLockedBy.isVisible() || colLockedBy.isPrintable());
-            CmsListColumnDefinition colSite = list.getMetadata().getColumnDefinition(
-                A_CmsListExplorerDialog.LIST_COLUMN_SITE);
-            boolean showSite = (colSite.isVisible() || colSite.isPrintable());
-
-            // get content
-            Iterator itRes = resources.iterator();
-            int count = 0;
-            while (itRes.hasNext()) {
-                // set progress in thread
-                if (thread != null) {
-                    count++;
-                    if (thread.isInterrupted()) {
-                        throw new CmsIllegalStateException(org.opencms.workplace.commons.Messages.get().container(
-                            org.opencms.workplace.commons.Messages.ERR_PROGRESS_INTERRUPTED_0));
-                    }
-                    thread.setProgress((count * 40 / resources.size()) + progressOffset);
-                    thread.setDescription(org.opencms.workplace.commons.Messages.get().getBundle(thread.getLocale()).key(
-                        org.opencms.workplace.commons.Messages.GUI_PROGRESS_PUBLISH_STEP2_2,
-                        new Integer(count),
-                        new Integer(resources.size())));
-                }
-
-                Object obj = itRes.next();
-                if (!(obj instanceof CmsResource)) {
-                    ret.add(getDummyListItem(list));
-                    continue;
-                }
-                CmsResource resource = (CmsResource)obj;
-                CmsListItem item = (CmsListItem)m_liCache.get(resource.getStructureId().toString());
-                if (item == null) {
-                    item = createResourceListItem(
-                        resource,
-                        list,
-                        showPermissions,
-                        showDateLastMod,
-                        showUserLastMod,
-                        showDateCreate,
-                        showUserCreate,
-                        showDateRel,
-                        showDateExp,
-                        showState,
-                        showLockedBy,
-                        showSite);
-                    m_liCache.put(resource.getStructureId().toString(), item);
-                }
-                ret.add(item);
-            }
-            CmsListMetadata metadata = list.getMetadata();
-            if (metadata != null) {
-                if (CmsStringUtil.isNotEmptyOrWhitespaceOnly(state.getFilter())) {
-                    // filter
-                    ret = metadata.getSearchAction().filter(ret, state.getFilter());
-                }
-                if (CmsStringUtil.isNotEmptyOrWhitespaceOnly(state.getColumn())) {
-                    if ((metadata.getColumnDefinition(state.getColumn()) != null)
-                        && metadata.getColumnDefinition(state.getColumn()).isSorteable()) {
-                        // sort
-                        I_CmsListItemComparator c = metadata.getColumnDefinition(state.getColumn()).getListItemComparator();
-                        Collections.sort(ret, c.getComparator(state.getColumn(), getWp().getLocale()));
-                        if (state.getOrder().equals(CmsListOrderEnum.ORDER_DESCENDING)) {
-                            Collections.reverse(ret);
-                        }
-                    }
-                }
-            }
+            List ret = filterAndSort(createListItems(resources), state);
             if (LOG.isDebugEnabled()) {
                 LOG.debug(Messages.get().getBundle().key(
                     Messages.LOG_COLLECTOR_PROCESS_ITEMS_END_1,
@@ -310,6 +232,45 @@ public abstract class A_CmsListResourceCollector implements I_CmsListResourceCol
         }
     }
 
+    /**
+     * Returns the list items of the page given by the list state.<p>
+     * 
+     * If the list is sorted and filtered only by columns that can be read from the resources 
+     * alone, the complete list items are only created for the resources of the page.<p>
+     * 
+     * @see org.opencms.workplace.list.I_CmsListDataProvider#getListItems(org.opencms.workplace.list.CmsListState, int)
+     */
+    public List<CmsListItem> getListItems(CmsListState state, int pageSize) throws CmsException {
+
+        synchronized (this) {
+            List items = getSortedItems(state);
+            int from = Math.min(items.size(), Math.max(0, (state.getPage() - 1) * pageSize));
+            int to = Math.min(items.size(), from + pageSize);
+            List page = items.subList(from, to);
+            if (!m_sortedBasic) {
+                return new ArrayList(page);
+            }
+            // replace the basic items of the page with complete items
+            List resources = new ArrayList(page.size());
+            Iterator it = page.iterator();
+            while (it.hasNext()) {
+                CmsListItem item = (CmsListItem)it.next();
+                resources.add(m_resCache.get(item.getId()));
+            }
+            return createListItems(resources);
+        }
+    }
+
+    /**
+     * @see org.opencms.workplace.list.I_CmsListDataProvider#getListSize(org.opencms.workplace.list.CmsListState)
+     */
+    public int getListSize(CmsListState state) throws CmsException {
+
+        synchronized (this) {
+            return getSortedItems(state).size();
+        }
+    }
+
     /**
      * @see org.opencms.file.collectors.I_CmsResourceCollector#getOrder()
      */
@@ -478,6 +439,132 @@ public abstract class A_CmsListResourceCollector implements I_CmsListResourceCol
         }
     }
 
+    /**
+     * Returns a list item with only the columns that are read from the resource alone.<p>
+     * 
+     * These list items are used to filter and sort all resources of a lazy list, 
+     * see {@link #getListItems(CmsListState, int)}.<p>
+     * 
+     * @param resource the resource to create the list item from
+     * @param list the list
+     * 
+     * @return a list item with the basic columns
+     */
+    protected CmsListItem createBasicResourceListItem(CmsResource resource, CmsHtmlList list) {
+
+        CmsListItem item = list.newItem(resource.getStructureId().toString());
+        CmsResourceUtil resUtil = getWp().getResourceUtil();
+        resUtil.setResource(resource);
+        item.set(A_CmsListExplorerDialog.LIST_COLUMN_NAME, resUtil.getPath());
+        item.set(A_CmsListExplorerDialog.LIST_COLUMN_ROOT_PATH, resUtil.getFullPath());
+        item.set(A_CmsListExplorerDialog.LIST_COLUMN_TYPE, resUtil.getResourceTypeName());
+        item.set(A_CmsListExplorerDialog.LIST_COLUMN_SIZE, resUtil.getSizeString());
+        item.set(A_CmsListExplorerDialog.LIST_COLUMN_DATELASTMOD, new Date(resource.getDateLastModified()));
+        item.set(A_CmsListExplorerDialog.LIST_COLUMN_DATECREATE, new Date(resource.getDateCreated()));
+        item.set(A_CmsListExplorerDialog.LIST_COLUMN_DATEREL, new Date(resource.getDateReleased()));
+        item.set(A_CmsListExplorerDialog.LIST_COLUMN_DATEEXP, new Date(resource.getDateExpired()));
+        item.set(A_CmsListExplorerDialog.LIST_COLUMN_STATE, resUtil.getStateName());
+        return item;
+    }
+
+    /**
+     * Returns the list items for the given resources.<p>
+     * 
+     * @param resources the resources
+     * 
+     * @return a list of {@link CmsListItem} objects, in the order of the resources
+     */
+    protected List createListItems(List resources) {
+
+        List ret = new ArrayList();
+        getWp().applyColumnVisibilities();
+        CmsHtmlList list = getWp().getList();
+
+        // check if progress should be set in the thread
+        CmsProgressThread thread = null;
+        int progressOffset = 0;
+        if (Thread.currentThread() instanceof CmsProgressThread) {
+            thread = (CmsProgressThread)Thread.currentThread();
+            progressOffset = thread.getProgress();
+        }
+
+        CmsListColumnDefinition colPermissions = list.getMetadata().getColumnDefinition(
+            A_CmsListExplorerDialog.LIST_COLUMN_PERMISSIONS);
+        boolean showPermissions = (colPermissions.isVisible() || colPermissions.isPrintable());
+        CmsListColumnDefinition colDateLastMod = list.getMetadata().getColumnDefinition(
+            A_CmsListExplorerDialog.LIST_COLUMN_DATELASTMOD);
+        boolean showDateLastMod = (colDateLastMod.isVisible() || colDateLastMod.isPrintable());
+        CmsListColumnDefinition colUserLastMod = list.getMetadata().getColumnDefinition(
+            A_CmsListExplorerDialog.LIST_COLUMN_USERLASTMOD);
+        boolean showUserLastMod = (colUserLastMod.isVisible() || colUserLastMod.isPrintable());
+        CmsListColumnDefinition colDateCreate = list.getMetadata().getColumnDefinition(
+            A_CmsListExplorerDialog.LIST_COLUMN_DATECREATE);
+        boolean showDateCreate = (colDateCreate.isVisible() || colDateCreate.isPrintable());
+        CmsListColumnDefinition colUserCreate = list.getMetadata().getColumnDefinition(
+            A_CmsListExplorerDialog.LIST_COLUMN_USERCREATE);
+        boolean showUserCreate = (colUserCreate.isVisible() || colUserCreate.isPrintable());
+        CmsListColumnDefinition colDateRel = list.getMetadata().getColumnDefinition(
+            A_CmsListExplorerDialog.LIST_COLUMN_DATEREL);
+        boolean showDateRel = (colDateRel.isVisible() || colDateRel.isPrintable());
+        CmsListColumnDefinition colDateExp = list.getMetadata().getColumnDefinition(
+            A_CmsListExplorerDialog.LIST_COLUMN_DATEEXP);
+        boolean showDateExp = (colDateExp.isVisible() || colDateExp.isPrintable());
+        CmsListColumnDefinition colState = list.getMetadata().getColumnDefinition(
+            A_CmsListExplorerDialog.LIST_COLUMN_STATE);
+        boolean showState = (colState.isVisible() || colState.isPrintable());
+        CmsListColumnDefinition colLockedBy = list.getMetadata().getColumnDefinition(
+            A_CmsListExplorerDialog.LIST_COLUMN_LOCKEDBY);
+        boolean showLockedBy = (colLockedBy.isVisible() || colLockedBy.isPrintable());
+        CmsListColumnDefinition colSite = list.getMetadata().getColumnDefinition(
+            A_CmsListExplorerDialog.LIST_COLUMN_SITE);
+        boolean showSite = (colSite.isVisible() || colSite.isPrintable());
+
+        // get content
+        Iterator itRes = resources.iterator();
+        int count = 0;
+        while (itRes.hasNext()) {
+            // set progress in thread
+            if (thread != null) {
+                count++;
+                if (thread.isInterrupted()) {
+                    throw new CmsIllegalStateException(org.opencms.workplace.commons.Messages.get().container(
+                        org.opencms.workplace.commons.Messages.ERR_PROGRESS_INTERRUPTED_0));
+                }
+                thread.setProgress((count * 40 / resources.size()) + progressOffset);
+                thread.setDescription(org.opencms.workplace.commons.Messages.get().getBundle(thread.getLocale()).key(
+                    org.opencms.workplace.commons.Messages.GUI_PROGRESS_PUBLISH_STEP2_2,
+                    new Integer(count),
+                    new Integer(resources.size())));
+            }
+
+            Object obj = itRes.next();
+            if (!(obj instanceof CmsResource)) {
+                ret.add(getDummyListItem(list));
+                continue;
+            }
+            CmsResource resource = (CmsResource)obj;
+            CmsListItem item = (CmsListItem)m_liCache.get(resource.getStructureId().toString());
+            if (item == null) {
+                item = createResourceListItem(
+                    resource,
+                    list,
+                    showPermissions,
+                    showDateLastMod,
+                    showUserLastMod,
+                    showDateCreate,
+                    showUserCreate,
+                    showDateRel,
+                    showDateExp,
+                    showState,
+                    showLockedBy,
+                    showSite);
+                m_liCache.put(resource.getStructureId().toString(), item);
+            }
+            ret.add(item);
+        }
+        return ret;
+    }
+
     /**
      * Returns a list item created from the resource information, differs between valid resources and invalid resources.<p>
      * 
@@ -553,6 +640,39 @@ public abstract class A_CmsListResourceCollector implements I_CmsListResourceCol
         return item;
     }
 
+    /**
+     * Filters and sorts the given list items as given by the list state.<p>
+     * 
+     * @param items the list items
+     * @param state the list state
+     * 
+     * @return the filtered and sorted list items
+     */
+    protected List filterAndSort(List items, CmsListState state) {
+
+        List ret = items;
+        CmsHtmlList list = getWp().getList();
+        CmsListMetadata metadata = list.getMetadata();
+        if (metadata != null) {
+            if (CmsStringUtil.isNotEmptyOrWhitespaceOnly(state.getFilter())) {
+                // filter
+                ret = metadata.getSearchAction().filter(ret, state.getFilter());
+            }
+            if (CmsStringUtil.isNotEmptyOrWhitespaceOnly(state.getColumn())) {
+                if ((metadata.getColumnDefinition(state.getColumn()) != null)
+                    && metadata.getColumnDefinition(state.getColumn()).isSorteable()) {
+                    // sort
+                    I_CmsListItemComparator c = metadata.getColumnDefinition(state.getColumn()).getListItemComparator();
+                    Collections.sort(ret, c.getComparator(state.getColumn(), getWp().getLocale()));
+                    if (state.getOrder().equals(CmsListOrderEnum.ORDER_DESCENDING)) {
+                        Collections.reverse(ret);
+                    }
+                }
+            }
+        }
+        return ret;
+    }
+
     /**
      * Returns a dummy list item.<p>
      * 
@@ -685,4 +805,71 @@ public abstract class A_CmsListResourceCollector implements I_CmsListResourceCol
             m_collectorParameter += CmsStringUtil.collectionAsString(resources, "#");
         }
     }
+
+    /**
+     * Returns all list items, filtered and sorted as given by the list state.<p>
+     * 
+     * The result is kept for the next call with the same state.<p>
+     * 
+     * @param state the list state
+     * 
+     * @return the filtered and sorted list items
+     * 
+     * @throws CmsException if something goes wrong
+     */
+    private List getSortedItems(CmsListState state) throws CmsException {
+
+        String key = state.getFilter() + "|" + state.getColumn() + "|" + state.getOrder();
+        if ((m_sortedItems == null) || !key.equals(m_sortedState)) {
+            Map params = CmsStringUtil.splitAsMap(
+                m_collectorParameter,
+                I_CmsListResourceCollector.SEP_PARAM,
+                I_CmsListResourceCollector.SEP_KEYVAL);
+            List resources = getInternalResources(getWp().getCms(), params);
+            m_sortedBasic = isBasicState(state);
+            List items;
+            if (m_sortedBasic) {
+                CmsHtmlList list = getWp().getList();
+                items = new ArrayList(resources.size());
+                Iterator it = resources.iterator();
+                while (it.hasNext()) {
+                    Object obj = it.next();
+                    if (obj instanceof CmsResource) {
+                        items.add(createBasicResourceListItem((CmsResource)obj, list));
+                    } else {
+                        items.add(getDummyListItem(list));
+                    }
+                }
+            } else {
+                items = createListItems(resources);
+            }
+            m_sortedItems = filterAndSort(items, state);
+            m_sortedState = key;
+        }
+        return m_sortedItems;
+    }
+
+    /**
+     * Checks if the given list state only filters and sorts by the basic columns.<p>
+     * 
+     * @param state the list state
+     * 
+     * @return <code>true</code> if the list state only filters and sorts by the basic columns
+     */
+    private boolean isBasicState(CmsListState state) {
+
+        if (CmsStringUtil.isNotEmptyOrWhitespaceOnly(state.getColumn()) && !BASIC_COLUMNS.contains(state.getColumn())) {
+            return false;
+        }
+        CmsListMetadata metadata = getWp().getList().getMetadata();
+        if (CmsStringUtil.isNotEmptyOrWhitespaceOnly(state.getFilter()) && (metadata.getSearchAction() != null)) {
+            Iterator it = metadata.getSearchAction().getColumns().iterator();
+            while (it.hasNext()) {
+                if (!BASIC_COLUMNS.contains(((CmsListColumnDefinition)it.next()).getId())) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
 }
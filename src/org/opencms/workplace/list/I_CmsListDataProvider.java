@@ -0,0 +1,74 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.workplace.list;
+
+import org.opencms.main.CmsException;
+
+import java.util.List;
+
+/**
+ * Data source for a list dialog that filters, sorts and pages the list items itself.<p>
+ *
+ * If a list dialog has a data provider, the list is self managed: only the items
+ * of the current page are created, and only these are kept in the session.<p>
+ *
+ * A lazy list dialog that implements this interface is used as its own data provider.<p>
+ *
+ * @since 8.0.2
+ *
+ * @see A_CmsListDialog#getDataProvider()
+ * @see CmsListMetadata#isSelfManaged()
+ */
+public interface I_CmsListDataProvider {
+
+    /**
+     * Returns the list items of the page given by the list state.<p>
+     *
+     * The items must match the search filter of the state and be sorted by the
+     * column and order of the state.<p>
+     *
+     * @param state the list state, with the search filter, the sort column and order and the page
+     * @param pageSize the maximum number of items per page
+     *
+     * @return the list items of the page
+     *
+     * @throws CmsException if something goes wrong
+     */
+    List<CmsListItem> getListItems(CmsListState state, int pageSize) throws CmsException;
+
+    /**
+     * Returns the number of list items that match the search filter of the given list state.<p>
+     *
+     * @param state the list state
+     *
+     * @return the number of matching list items
+     *
+     * @throws CmsException if something goes wrong
+     */
+    int getListSize(CmsListState state) throws CmsException;
+}
@@ -28,21 +28,35 @@
 package org.opencms.xml.containerpage;
 
 import org.opencms.cache.CmsVfsCache;
+import org.opencms.db.CmsPublishedResource;
+import org.opencms.file.CmsObject;
 import org.opencms.file.CmsResource;
 import org.opencms.file.types.CmsResourceTypeXmlContainerPage;
+import org.opencms.main.CmsEvent;
+import org.opencms.main.CmsException;
 import org.opencms.main.CmsLog;
+import org.opencms.main.I_CmsEventListener;
 import org.opencms.monitor.CmsMemoryMonitor;
 import org.opencms.util.CmsCollectionsGenericWrapper;
 import org.opencms.util.CmsUUID;
 
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.commons.logging.Log;
 
 /**
  * Cache object instance for simultaneously cache online and offline items.<p>
  * 
+ * Besides the container pages and group containers, this cache also holds the rendered output of 
+ * online container page elements whose formatter has the render cache enabled in the ADE configuration.
+ * After a publish, only the rendered elements are removed that depend on a published resource, 
+ * see {@link CmsRenderedElementBean#getDependencies()}.<p>
+ * 
  * @since 7.6 
  */
 public final class CmsADECache extends CmsVfsCache {
@@ -50,6 +64,9 @@ public final class CmsADECache extends CmsVfsCache {
     /** The log to use (static for performance reasons).<p> */
     private static final Log LOG = CmsLog.getLog(CmsADECache.class);
 
+    /** The separator used in the rendered element cache keys. */
+    private static final String RENDERED_ELEMENT_KEY_SEPARATOR = "_";
+
     /** Cache for offline container pages. */
     private Map<String, CmsXmlContainerPage> m_containerPagesOffline;
 
@@ -62,20 +79,49 @@ public final class CmsADECache extends CmsVfsCache {
     /** Cache for online group containers. */
     private Map<String, CmsXmlGroupContainer> m_groupContainersOnline;
 
+    /** The CMS context used to read the published resources. */
+    private CmsObject m_onlineCms;
+
+    /** Indicates if the rendered element cache is enabled. */
+    private boolean m_renderedElementCacheEnabled;
+
+    /** Cache for the rendered output of online container page elements. */
+    private Map<String, CmsRenderedElementBean> m_renderedElementsOnline;
+
     /**
      * Initializes the cache. Only intended to be called during startup.<p>
      * 
      * @param memMonitor the memory monitor instance
      * @param cacheSettings the system cache settings
+     * @param onlineCms a CMS context for the online project, used to read the published resources
      * 
      * @see org.opencms.main.OpenCmsCore#initConfiguration
      */
-    public CmsADECache(CmsMemoryMonitor memMonitor, CmsADECacheSettings cacheSettings) {
+    public CmsADECache(CmsMemoryMonitor memMonitor, CmsADECacheSettings cacheSettings, CmsObject onlineCms) {
 
+        m_onlineCms = onlineCms;
         initialize(memMonitor, cacheSettings);
         registerEventListener();
     }
 
+    /**
+     * After a publish, the rendered elements are only removed selectively, all other events are handled as usual.<p>
+     * 
+     * @see org.opencms.cache.CmsVfsCache#cmsEvent(org.opencms.main.CmsEvent)
+     */
+    @Override
+    public void cmsEvent(CmsEvent event) {
+
+        if (event.getType() == I_CmsEventListener.EVENT_PUBLISH_PROJECT) {
+            flushContainerPages(true);
+            flushGroupContainers(true);
+            String publishIdStr = (String)event.getData().get(I_CmsEventListener.KEY_PUBLISHID);
+            uncacheRenderedElements((publishIdStr != null) ? new CmsUUID(publishIdStr) : null);
+        } else {
+            super.cmsEvent(event);
+        }
+    }
+
     /**
      * Flushes the container pages cache.<p>
      * 
@@ -193,6 +239,28 @@ public final class CmsADECache extends CmsVfsCache {
         return retValue;
     }
 
+    /**
+     * Returns the cached rendered output of an online container page element.<p>
+     * 
+     * @param key the cache key
+     * 
+     * @return the cached output or <code>null</code> if not found
+     * 
+     * @see #getRenderedElementKey(CmsUUID, CmsUUID, String)
+     */
+    public CmsRenderedElementBean getCacheRenderedElement(String key) {
+
+        CmsRenderedElementBean retValue = m_renderedElementsOnline.get(key);
+        if (LOG.isDebugEnabled()) {
+            if (retValue == null) {
+                LOG.debug(Messages.get().getBundle().key(Messages.LOG_DEBUG_CACHE_MISSED_ONLINE_1, new Object[] {key}));
+            } else {
+                LOG.debug(Messages.get().getBundle().key(Messages.LOG_DEBUG_RENDERED_ELEMENT_MATCHED_1, key));
+            }
+        }
+        return retValue;
+    }
+
     /**
      * Returns the cache key for the given parameters.<p>
      * 
@@ -206,6 +274,36 @@ public final class CmsADECache extends CmsVfsCache {
         return structureId.toString() + "_" + keepEncoding;
     }
 
+    /**
+     * Returns the cache key for the rendered output of a container page element.<p>
+     * 
+     * @param elementId the structure id of the element resource
+     * @param formatterId the structure id of the formatter JSP
+     * @param variation the additional key data, like the element settings and the content version
+     * 
+     * @return the cache key
+     */
+    public String getRenderedElementKey(CmsUUID elementId, CmsUUID formatterId, String variation) {
+
+        return elementId.toString()
+            + RENDERED_ELEMENT_KEY_SEPARATOR
+            + formatterId.toString()
+            + RENDERED_ELEMENT_KEY_SEPARATOR
+            + variation;
+    }
+
+    /**
+     * Checks if the cache for the rendered output of online container page elements is enabled.<p>
+     * 
+     * @return <code>true</code> if the rendered element cache is enabled
+     * 
+     * @see CmsADECacheSettings#getRenderedElementOnlineSize()
+     */
+    public boolean isRenderedElementCacheEnabled() {
+
+        return m_renderedElementCacheEnabled;
+    }
+
     /**
      * Caches the given container page under the given key and for the given project.<p>
      * 
@@ -260,6 +358,25 @@ public final class CmsADECache extends CmsVfsCache {
         }
     }
 
+    /**
+     * Caches the rendered output of an online container page element.<p>
+     * 
+     * @param key the cache key
+     * @param renderedElement the rendered element
+     * 
+     * @see #getRenderedElementKey(CmsUUID, CmsUUID, String)
+     */
+    public void setCacheRenderedElement(String key, CmsRenderedElementBean renderedElement) {
+
+        if (!m_renderedElementCacheEnabled) {
+            return;
+        }
+        m_renderedElementsOnline.put(key, renderedElement);
+        if (LOG.isDebugEnabled()) {
+            LOG.debug(Messages.get().getBundle().key(Messages.LOG_DEBUG_RENDERED_ELEMENT_SET_1, key));
+        }
+    }
+
     /**
      * Removes the container page identified by its structure id from the cache.<p>
      * 
@@ -294,6 +411,33 @@ public final class CmsADECache extends CmsVfsCache {
         }
     }
 
+    /**
+     * Removes all rendered elements from the cache that depend on one of the resources with the given structure ids.<p>
+     * 
+     * @param structureIds the structure ids of the changed resources
+     * 
+     * @see CmsRenderedElementBean#dependsOn(Set)
+     */
+    public void uncacheRenderedElements(Set<CmsUUID> structureIds) {
+
+        int count = 0;
+        synchronized (m_renderedElementsOnline) {
+            Iterator<CmsRenderedElementBean> it = m_renderedElementsOnline.values().iterator();
+            while (it.hasNext()) {
+                if (it.next().dependsOn(structureIds)) {
+                    it.remove();
+                    count++;
+                }
+            }
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug(Messages.get().getBundle().key(
+                Messages.LOG_DEBUG_RENDERED_ELEMENTS_UNCACHED_2,
+                new Integer(count),
+                new Integer(structureIds.size())));
+        }
+    }
+
     /**
      * @see org.opencms.cache.CmsVfsCache#flush(boolean)
      */
@@ -302,6 +446,9 @@ public final class CmsADECache extends CmsVfsCache {
 
         flushContainerPages(online);
         flushGroupContainers(online);
+        if (online) {
+            m_renderedElementsOnline.clear();
+        }
     }
 
     /**
@@ -348,5 +495,47 @@ public final class CmsADECache extends CmsVfsCache {
         lruMapGroupContainer = CmsCollectionsGenericWrapper.createLRUMap(cacheSettings.getGroupContainerOnlineSize());
         m_groupContainersOnline = Collections.synchronizedMap(lruMapGroupContainer);
         memMonitor.register(CmsADECache.class.getName() + ".groupContainersOnline", lruMapGroupContainer);
+
+        // rendered element cache
+        m_renderedElementCacheEnabled = cacheSettings.getRenderedElementOnlineSize() > 0;
+        Map<String, CmsRenderedElementBean> lruMapRenderedElement = CmsCollectionsGenericWrapper.createLRUMap(Math.max(
+            cacheSettings.getRenderedElementOnlineSize(),
+            1));
+        m_renderedElementsOnline = Collections.synchronizedMap(lruMapRenderedElement);
+        memMonitor.register(CmsADECache.class.getName() + ".renderedElementsOnline", lruMapRenderedElement);
+    }
+
+    /**
+     * Removes the rendered elements affected by the given publish job from the cache.<p>
+     * 
+     * The affected elements are those that depend on one of the published resources. 
+     * This needs no database access besides reading the published resources, since the dependencies 
+     * are collected when the element is rendered. If the publish job is unknown, all rendered elements are removed.<p>
+     * 
+     * @param publishHistoryId the publish history id of the publish job, or <code>null</code> if not available
+     */
+    private void uncacheRenderedElements(CmsUUID publishHistoryId) {
+
+        if (m_renderedElementsOnline.isEmpty()) {
+            return;
+        }
+        List<CmsPublishedResource> publishedResources = null;
+        if ((publishHistoryId != null) && (m_onlineCms != null)) {
+            try {
+                publishedResources = m_onlineCms.readPublishedResources(publishHistoryId);
+            } catch (CmsException e) {
+                LOG.error(e.getLocalizedMessage(), e);
+            }
+        }
+        if ((publishedResources == null) || publishedResources.isEmpty()) {
+            // unknown publish job, clear all rendered elements to be on the safe side
+            m_renderedElementsOnline.clear();
+            return;
+        }
+        Set<CmsUUID> structureIds = new HashSet<CmsUUID>(publishedResources.size());
+        for (CmsPublishedResource publishedResource : publishedResources) {
+            structureIds.add(publishedResource.getStructureId());
+        }
+        uncacheRenderedElements(structureIds);
     }
 }
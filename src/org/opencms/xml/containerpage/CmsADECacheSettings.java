@@ -52,12 +52,19 @@ public class CmsADECacheSettings {
     /** The size of the group container online cache. */
     private int m_groupContainerOnlineSize;
 
+    /** Default size for the rendered element cache. */
+    private static final int DEFAULT_RENDERED_ELEMENT_SIZE = 1024;
+
+    /** The size of the rendered element online cache, 0 disables the cache. */
+    private int m_renderedElementOnlineSize;
+
     /**
      * Default constructor.<p>
      */
     public CmsADECacheSettings() {
 
         super();
+        m_renderedElementOnlineSize = DEFAULT_RENDERED_ELEMENT_SIZE;
     }
 
     /**
@@ -86,6 +93,16 @@ public class CmsADECacheSettings {
         return m_containerPageOnlineSize;
     }
 
+    /**
+     * Returns the size of the rendered element online cache.<p>
+     * 
+     * @return the size of the rendered element online cache, 0 if the cache is disabled
+     */
+    public int getRenderedElementOnlineSize() {
+
+        return m_renderedElementOnlineSize;
+    }
+
     /**
      * Sets the size of the cache for offline container pages.<p>
      *
@@ -152,6 +169,22 @@ public class CmsADECacheSettings {
         m_groupContainerOnlineSize = getIntValue(size, DEFAULT_GROUP_CONTAINER_SIZE);
     }
 
+    /**
+     * Sets the size of the cache for the rendered online container page elements.<p>
+     * 
+     * A size of 0 disables the cache.<p>
+     *
+     * @param size the size of the cache for the rendered online container page elements
+     */
+    public void setRenderedElementOnlineSize(String size) {
+
+        if ((size != null) && "0".equals(size.trim())) {
+            m_renderedElementOnlineSize = 0;
+        } else {
+            m_renderedElementOnlineSize = getIntValue(size, DEFAULT_RENDERED_ELEMENT_SIZE);
+        }
+    }
+
     /**
      * Turns a string into an int.<p>
      * 
@@ -70,6 +70,9 @@ public class CmsFormatterBean {
     /** The formatter min width. */
     private int m_minWidth;
 
+    /** Indicates if the rendered output of this formatter should be cached in the online project. */
+    private boolean m_renderCache;
+
     /** Indicates if the content should be searchable in the online index when this formatter is used. */
     private boolean m_search;
 
@@ -132,6 +135,31 @@ public class CmsFormatterBean {
         String searchContent,
         String location) {
 
+        this(containerType, jspRootPath, minWidthStr, maxWidthStr, preview, searchContent, null, location);
+    }
+
+    /**
+     * Constructor for creating a new formatter configuration without resource structure id.<p>
+     * 
+     * @param containerType the formatter container type 
+     * @param jspRootPath the formatter JSP VFS root path
+     * @param minWidthStr the formatter min width
+     * @param maxWidthStr the formatter max width 
+     * @param preview indicates if this formatter is to be used for the preview in the ADE gallery GUI
+     * @param searchContent indicates if the content should be searchable in the online index when this formatter is used
+     * @param renderCache indicates if the rendered output of this formatter should be cached in the online project
+     * @param location the location where this formatter was defined, should be an OpenCms VFS resource path
+     */
+    public CmsFormatterBean(
+        String containerType,
+        String jspRootPath,
+        String minWidthStr,
+        String maxWidthStr,
+        String preview,
+        String searchContent,
+        String renderCache,
+        String location) {
+
         m_jspRootPath = jspRootPath;
 
         m_containerType = containerType;
@@ -165,6 +193,7 @@ public class CmsFormatterBean {
         m_search = CmsStringUtil.isEmptyOrWhitespaceOnly(searchContent)
         ? true
         : Boolean.valueOf(searchContent).booleanValue();
+        m_renderCache = Boolean.valueOf(renderCache).booleanValue();
 
         m_location = location;
     }
@@ -296,6 +325,19 @@ public class CmsFormatterBean {
         return m_isPreviewFormatter;
     }
 
+    /**
+     * Returns <code>true</code> in case the rendered output of this formatter should be cached in the online project.<p>
+     * 
+     * The output is cached per element, element settings and content version, so this should only be enabled 
+     * for formatters whose output does not depend on the current user or request parameters.<p>
+     * 
+     * @return <code>true</code> in case the rendered output of this formatter should be cached in the online project
+     */
+    public boolean isRenderCache() {
+
+        return m_renderCache;
+    }
+
     /**
      * Returns <code>true</code> in case an XML content formatted with this formatter should be included in the 
      * online full text search.<p>
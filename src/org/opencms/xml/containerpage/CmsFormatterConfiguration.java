@@ -255,6 +255,26 @@ public final class CmsFormatterConfiguration {
         return (m_typeFormatters.size() > 0) || (m_widthFormatters.size() > 0);
     }
 
+    /**
+     * Returns <code>true</code> in case this configuration contains a formatter with the 
+     * provided structure id that has been configured for caching its rendered output.<p>
+     * 
+     * @param formatterStructureId the structure id of the formatter JSP
+     * 
+     * @return <code>true</code> in case this configuration contains a formatter with the 
+     * provided structure id that has been configured for caching its rendered output
+     */
+    public boolean isRenderCache(CmsUUID formatterStructureId) {
+
+        for (CmsFormatterBean formatter : m_allFormatters) {
+            if (formatterStructureId.equals(formatter.getJspStructureId())) {
+                // first match rules
+                return formatter.isRenderCache();
+            }
+        }
+        return false;
+    }
+
     /**
      * Returns <code>true</code> in case this configuration contains a formatter with the 
      * provided structure id that has been configured for including the formatted content in the online search.<p>
@@ -0,0 +1,121 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.xml.containerpage;
+
+import org.opencms.util.CmsUUID;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The cached rendered output of an online container page element.<p>
+ * 
+ * Besides the output, the bean holds the headers set by the formatter, which have to be 
+ * replayed when the cached output is used, and the structure ids of all resources the output
+ * depends on, which are used to remove the output from the cache after a publish.<p>
+ * 
+ * @since 8.0.2
+ * 
+ * @see CmsADECache#getCacheRenderedElement(String)
+ */
+public class CmsRenderedElementBean {
+
+    /** The rendered output. */
+    private String m_content;
+
+    /** The structure ids of the resources the output depends on. */
+    private Set<CmsUUID> m_dependencies;
+
+    /** The headers set by the formatter. */
+    private Map<String, List<String>> m_headers;
+
+    /**
+     * Creates a new rendered element.<p>
+     * 
+     * @param content the rendered output
+     * @param headers the headers set by the formatter
+     * @param dependencies the structure ids of the resources the output depends on
+     */
+    public CmsRenderedElementBean(String content, Map<String, List<String>> headers, Set<CmsUUID> dependencies) {
+
+        m_content = content;
+        m_headers = Collections.unmodifiableMap(headers);
+        m_dependencies = Collections.unmodifiableSet(dependencies);
+    }
+
+    /**
+     * Checks if the output depends on one of the resources with the given structure ids.<p>
+     * 
+     * @param structureIds the structure ids to check
+     * 
+     * @return <code>true</code> if the output depends on one of the given resources
+     */
+    public boolean dependsOn(Set<CmsUUID> structureIds) {
+
+        for (CmsUUID dependency : m_dependencies) {
+            if (structureIds.contains(dependency)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the rendered output.<p>
+     * 
+     * @return the rendered output
+     */
+    public String getContent() {
+
+        return m_content;
+    }
+
+    /**
+     * Returns the structure ids of the resources the output depends on.<p>
+     * 
+     * @return the structure ids of the resources the output depends on
+     */
+    public Set<CmsUUID> getDependencies() {
+
+        return m_dependencies;
+    }
+
+    /**
+     * Returns the headers set by the formatter, in the format used by 
+     * {@link org.opencms.flex.CmsFlexResponse#processHeaders(Map, javax.servlet.http.HttpServletResponse)}.<p>
+     * 
+     * @return the headers set by the formatter
+     */
+    public Map<String, List<String>> getHeaders() {
+
+        return m_headers;
+    }
+}
@@ -100,6 +100,15 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String LOG_DEBUG_CACHE_SET_ONLINE_2 = "LOG_DEBUG_CACHE_SET_ONLINE_2";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_DEBUG_RENDERED_ELEMENTS_UNCACHED_2 = "LOG_DEBUG_RENDERED_ELEMENTS_UNCACHED_2";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_DEBUG_RENDERED_ELEMENT_MATCHED_1 = "LOG_DEBUG_RENDERED_ELEMENT_MATCHED_1";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_DEBUG_RENDERED_ELEMENT_SET_1 = "LOG_DEBUG_RENDERED_ELEMENT_SET_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String LOG_WARN_NO_FORMATTERS_DEFINED_1 = "LOG_WARN_NO_FORMATTERS_DEFINED_1";
 
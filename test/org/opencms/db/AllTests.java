@@ -63,6 +63,7 @@ public final class AllTests {
         suite.addTest(TestQueryProperties.suite());
         suite.addTest(TestPublishHistory.suite());
         suite.addTest(TestSubscriptionManager.suite());
+        suite.addTest(TestOnlineRelationIndex.suite());
         // $JUnit-END$
         return suite;
     }
@@ -0,0 +1,259 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.db;
+
+import org.opencms.relations.CmsRelation;
+import org.opencms.relations.CmsRelationFilter;
+import org.opencms.relations.CmsRelationType;
+import org.opencms.test.OpenCmsTestCase;
+import org.opencms.util.CmsUUID;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+/**
+ * Unit tests for the {@link CmsOnlineRelationIndex}.<p>
+ */
+public class TestOnlineRelationIndex extends OpenCmsTestCase {
+
+    /** The relation types used for the random relations. */
+    private static final CmsRelationType[] TYPES = {
+        CmsRelationType.XML_WEAK,
+        CmsRelationType.XML_STRONG,
+        CmsRelationType.JSP_WEAK,
+        CmsRelationType.HYPERLINK};
+
+    /**
+     * Default JUnit constructor.<p>
+     *
+     * @param arg0 JUnit parameters
+     */
+    public TestOnlineRelationIndex(String arg0) {
+
+        super(arg0);
+    }
+
+    /**
+     * Test suite for this test class.<p>
+     *
+     * @return the test suite
+     */
+    public static Test suite() {
+
+        TestSuite suite = new TestSuite();
+        suite.setName(TestOnlineRelationIndex.class.getName());
+
+        suite.addTest(new TestOnlineRelationIndex("testLookup"));
+        suite.addTest(new TestOnlineRelationIndex("testNotAvailable"));
+        suite.addTest(new TestOnlineRelationIndex("testUpdate"));
+
+        return suite;
+    }
+
+    /**
+     * Tests looking up relations by source and target.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testLookup() throws Exception {
+
+        CmsUUID a = new CmsUUID();
+        CmsUUID b = new CmsUUID();
+        CmsUUID c = new CmsUUID();
+        CmsUUID d = new CmsUUID();
+        CmsRelation ab = new CmsRelation(a, "/a", b, "/b", CmsRelationType.XML_WEAK);
+        CmsRelation ac = new CmsRelation(a, "/a", c, "/c", CmsRelationType.XML_STRONG);
+        CmsRelation db = new CmsRelation(d, "/d", b, "/b", CmsRelationType.JSP_WEAK);
+
+        CmsOnlineRelationIndex index = new CmsOnlineRelationIndex();
+        assertTrue(index.isLoadRequired());
+        index.load(Arrays.asList(new CmsRelation[] {ab, ac, db, ab}));
+        assertFalse(index.isLoadRequired());
+        assertEquals(3, index.size());
+
+        assertRelations(index.getRelations(a, CmsRelationFilter.TARGETS), new CmsRelation[] {ab, ac});
+        assertRelations(index.getRelations(b, CmsRelationFilter.SOURCES), new CmsRelation[] {ab, db});
+        assertRelations(index.getRelations(b, CmsRelationFilter.ALL), new CmsRelation[] {ab, db});
+        assertRelations(index.getRelations(b, CmsRelationFilter.TARGETS), new CmsRelation[] {});
+        assertRelations(
+            index.getRelations(a, CmsRelationFilter.TARGETS.filterType(CmsRelationType.XML_STRONG)),
+            new CmsRelation[] {ac});
+        assertRelations(
+            index.getRelations(b, CmsRelationFilter.SOURCES.filterStructureId(d)),
+            new CmsRelation[] {db});
+
+        // the returned relations must be complete
+        CmsRelation relation = index.getRelations(c, CmsRelationFilter.SOURCES).get(0);
+        assertEquals(a, relation.getSourceId());
+        assertEquals("/a", relation.getSourcePath());
+        assertEquals(c, relation.getTargetId());
+        assertEquals("/c", relation.getTargetPath());
+        assertEquals(CmsRelationType.XML_STRONG, relation.getType());
+    }
+
+    /**
+     * Tests that the index does not answer queries if it is not loaded or can not handle the filter.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testNotAvailable() throws Exception {
+
+        CmsUUID a = new CmsUUID();
+        CmsOnlineRelationIndex index = new CmsOnlineRelationIndex();
+        assertNull(index.getRelations(a, CmsRelationFilter.TARGETS));
+
+        index.load(null);
+        assertFalse(index.isLoadRequired());
+        assertFalse(index.isLoaded());
+        assertNull(index.getRelations(a, CmsRelationFilter.TARGETS));
+
+        index.load(new ArrayList<CmsRelation>());
+        assertTrue(index.isLoaded());
+        assertNotNull(index.getRelations(a, CmsRelationFilter.TARGETS));
+        assertNull(index.getRelations(a, CmsRelationFilter.TARGETS.filterPath("/a")));
+        assertNull(index.getRelations(a, CmsRelationFilter.TARGETS.filterIncludeChildren()));
+
+        // updating an unloaded index is ignored
+        index.clear();
+        assertTrue(index.isLoadRequired());
+        index.update(Collections.singletonList(a), new ArrayList<CmsRelation>());
+        assertFalse(index.isLoaded());
+    }
+
+    /**
+     * Tests updating the index, by comparing the lookups with a linear search.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testUpdate() throws Exception {
+
+        Random random = new Random(4711);
+        List<CmsUUID> ids = new ArrayList<CmsUUID>();
+        for (int i = 0; i < 40; i++) {
+            ids.add(new CmsUUID());
+        }
+        Set<CmsRelation> relations = new HashSet<CmsRelation>();
+        for (int i = 0; i < 300; i++) {
+            relations.add(createRandomRelation(random, ids));
+        }
+        CmsOnlineRelationIndex index = new CmsOnlineRelationIndex();
+        index.load(relations);
+        assertIndex(index, relations, ids);
+
+        for (int round = 0; round < 20; round++) {
+            // change the relations of some resources
+            Set<CmsUUID> changed = new HashSet<CmsUUID>();
+            for (int i = random.nextInt(5); i >= 0; i--) {
+                changed.add(ids.get(random.nextInt(ids.size())));
+            }
+            Set<CmsRelation> newRelations = new HashSet<CmsRelation>();
+            for (CmsRelation relation : relations) {
+                if (!changed.contains(relation.getSourceId()) && !changed.contains(relation.getTargetId())) {
+                    newRelations.add(relation);
+                }
+            }
+            List<CmsRelation> updated = new ArrayList<CmsRelation>();
+            for (int i = random.nextInt(20); i > 0; i--) {
+                CmsRelation relation = createRandomRelation(random, ids);
+                if (changed.contains(relation.getSourceId()) || changed.contains(relation.getTargetId())) {
+                    newRelations.add(relation);
+                    updated.add(relation);
+                }
+            }
+            relations = newRelations;
+            index.update(changed, updated);
+            assertIndex(index, relations, ids);
+        }
+    }
+
+    /**
+     * Checks the lookups of the index against a linear search in the given relations.<p>
+     *
+     * @param index the index
+     * @param relations the expected relations in the index
+     * @param ids the structure ids to check
+     */
+    private void assertIndex(CmsOnlineRelationIndex index, Set<CmsRelation> relations, List<CmsUUID> ids) {
+
+        assertEquals(relations.size(), index.size());
+        for (CmsUUID id : ids) {
+            Set<CmsRelation> sources = new HashSet<CmsRelation>();
+            Set<CmsRelation> targets = new HashSet<CmsRelation>();
+            for (CmsRelation relation : relations) {
+                if (relation.getTargetId().equals(id)) {
+                    sources.add(relation);
+                }
+                if (relation.getSourceId().equals(id)) {
+                    targets.add(relation);
+                }
+            }
+            assertEquals(sources, new HashSet<CmsRelation>(index.getRelations(id, CmsRelationFilter.SOURCES)));
+            assertEquals(targets, new HashSet<CmsRelation>(index.getRelations(id, CmsRelationFilter.TARGETS)));
+        }
+    }
+
+    /**
+     * Checks that the given relations contain exactly the expected relations.<p>
+     *
+     * @param relations the relations
+     * @param expected the expected relations
+     */
+    private void assertRelations(List<CmsRelation> relations, CmsRelation[] expected) {
+
+        assertEquals(expected.length, relations.size());
+        assertEquals(new HashSet<CmsRelation>(Arrays.asList(expected)), new HashSet<CmsRelation>(relations));
+    }
+
+    /**
+     * Creates a random relation between the given structure ids.<p>
+     *
+     * @param random the random generator
+     * @param ids the structure ids
+     *
+     * @return the relation
+     */
+    private CmsRelation createRandomRelation(Random random, List<CmsUUID> ids) {
+
+        int source = random.nextInt(ids.size());
+        int target = random.nextInt(ids.size());
+        return new CmsRelation(
+            ids.get(source),
+            "/" + source,
+            ids.get(target),
+            "/" + target,
+            TYPES[random.nextInt(TYPES.length)]);
+    }
+}
@@ -28,10 +28,12 @@
 package org.opencms.file;
 
 import org.opencms.db.CmsResourceState;
+import org.opencms.file.history.CmsHistoryClearProgress;
 import org.opencms.file.history.CmsHistoryFile;
 import org.opencms.file.history.I_CmsHistoryResource;
 import org.opencms.file.types.CmsResourceTypeFolder;
 import org.opencms.file.types.CmsResourceTypePlain;
+import org.opencms.main.CmsException;
 import org.opencms.main.OpenCms;
 import org.opencms.relations.CmsRelation;
 import org.opencms.relations.CmsRelationFilter;
@@ -40,8 +42,10 @@ import org.opencms.report.CmsShellReport;
 import org.opencms.test.OpenCmsTestCase;
 import org.opencms.test.OpenCmsTestProperties;
 import org.opencms.test.OpenCmsTestResourceConfigurableFilter;
+import org.opencms.util.CmsUUID;
 
 import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 
@@ -96,6 +100,8 @@ public class TestHistory extends OpenCmsTestCase {
         suite.addTest(new TestHistory("testFileVersions"));
         suite.addTest(new TestHistory("testVersioningLimit"));
         suite.addTest(new TestHistory("testSiblingsV7HistoryIssue"));
+        suite.addTest(new TestHistory("testDeduplicateContents"));
+        suite.addTest(new TestHistory("testChunkedHistoryClear"));
 
         TestSetup wrapper = new TestSetup(suite) {
 
@@ -115,6 +121,73 @@ public class TestHistory extends OpenCmsTestCase {
         return wrapper;
     }
 
+    /**
+     * Tests that clearing the history in small chunks, with a stop and a resume from a saved progress,
+     * gives the same result as clearing the history at once.<p>
+     * 
+     * @throws Throwable if something goes wrong
+     */
+    public void testChunkedHistoryClear() throws Throwable {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing clearing the history in chunks");
+
+        boolean historyEnabled = OpenCms.getSystemInfo().isHistoryEnabled();
+        int historyVersions = OpenCms.getSystemInfo().getHistoryVersions();
+        int historyVersionsAfterDeletion = OpenCms.getSystemInfo().getHistoryVersionsAfterDeletion();
+        OpenCms.getSystemInfo().setVersionHistorySettings(true, 10, 10);
+        try {
+            CmsShellReport report = new CmsShellReport(cms.getRequestContext().getLocale());
+
+            // clear the history in chunks of 2 resources
+            List<CmsUUID> chunkedIds = createHistoryForClear(cms, "/chunkedClear/");
+            CmsHistoryClearProgress progress = new CmsHistoryClearProgress();
+            assertFalse(cms.deleteHistoricalVersions(2, 1, -1, progress, 2, report));
+            assertEquals(2, progress.getProcessedResources());
+
+            // stop here and resume with a progress restored from the saved values
+            CmsHistoryClearProgress restored = new CmsHistoryClearProgress(
+                progress.getPhase(),
+                progress.getLastStructureId(),
+                progress.getProcessedResources(),
+                progress.getDeletedVersions());
+            int chunks = 1;
+            while (!cms.deleteHistoricalVersions(2, 1, -1, restored, 2, report)) {
+                chunks++;
+            }
+            assertTrue(chunks > 2);
+            assertTrue(restored.isFinished());
+            assertTrue(restored.getDeletedVersions() > 0);
+
+            // clear the same history at once
+            List<CmsUUID> unchunkedIds = createHistoryForClear(cms, "/unchunkedClear/");
+            cms.deleteHistoricalVersions(2, 1, -1, report);
+
+            // both must have the same versions left
+            assertEquals(unchunkedIds.size(), chunkedIds.size());
+            for (int i = 0; i < chunkedIds.size(); i++) {
+                List<Integer> chunkedVersions = getHistoryVersions(cms, chunkedIds.get(i));
+                assertEquals(getHistoryVersions(cms, unchunkedIds.get(i)), chunkedVersions);
+                if (i < (chunkedIds.size() - 1)) {
+                    // the last 2 versions of the existing resources are kept
+                    assertEquals(2, chunkedVersions.size());
+                    assertEquals(new Integer(4), chunkedVersions.get(1));
+                }
+            }
+            // the deleted resource is the last one
+            List<I_CmsHistoryResource> chunkedDeleted = cms.readDeletedResources("/chunkedClear/", false);
+            List<I_CmsHistoryResource> unchunkedDeleted = cms.readDeletedResources("/unchunkedClear/", false);
+            assertEquals(1, chunkedDeleted.size());
+            assertEquals(unchunkedDeleted.size(), chunkedDeleted.size());
+            assertEquals(unchunkedDeleted.get(0).getVersion(), chunkedDeleted.get(0).getVersion());
+        } finally {
+            OpenCms.getSystemInfo().setVersionHistorySettings(
+                historyEnabled,
+                historyVersions,
+                historyVersionsAfterDeletion);
+        }
+    }
+
     /**
      * Creates and deletes a file n-times and tests if the historical data
      * are correct and if the content can be properly restored.<p>
@@ -272,6 +345,50 @@ public class TestHistory extends OpenCmsTestCase {
         }
     }
 
+    /**
+     * Tests that unchanged content is not stored again in the history, 
+     * and that the deduplication of the history contents keeps all versions readable.<p>
+     * 
+     * @throws Throwable if something goes wrong
+     */
+    public void testDeduplicateContents() throws Throwable {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing the deduplication of historical contents");
+
+        String resName = "/dedupTest.txt";
+        String[] contents = new String[] {"content A", "content A", "content B", "content A"};
+        cms.createResource(resName, CmsResourceTypePlain.getStaticTypeId(), contents[0].getBytes(), null);
+        OpenCms.getPublishManager().publishResource(cms, resName);
+        OpenCms.getPublishManager().waitWhileRunning();
+        for (int i = 1; i < contents.length; i++) {
+            // write the content again, also if it is not changed, this updates the content date
+            cms.lockResource(resName);
+            CmsFile file = cms.readFile(resName);
+            file.setContents(contents[i].getBytes());
+            cms.writeFile(file);
+            OpenCms.getPublishManager().publishResource(cms, resName);
+            OpenCms.getPublishManager().waitWhileRunning();
+        }
+
+        List<I_CmsHistoryResource> versions = cms.readAllAvailableVersions(resName);
+        assertTrue(versions.size() >= 3);
+        String[] histContents = new String[versions.size()];
+        for (int i = 0; i < versions.size(); i++) {
+            histContents[i] = new String(cms.readFile((CmsHistoryFile)versions.get(i)).getContents());
+        }
+
+        cms.deduplicateHistoryContents(new CmsShellReport(cms.getRequestContext().getLocale()));
+
+        // all versions must still be readable with the same content as before
+        versions = cms.readAllAvailableVersions(resName);
+        assertEquals(histContents.length, versions.size());
+        for (int i = 0; i < versions.size(); i++) {
+            assertEquals(histContents[i], new String(cms.readFile((CmsHistoryFile)versions.get(i)).getContents()));
+        }
+        assertEquals(contents[contents.length - 1], new String(cms.readFile(resName).getContents()));
+    }
+
     /**
      * Tests the delete date of deleted resources.<p>
      * 
@@ -2349,6 +2466,73 @@ public class TestHistory extends OpenCmsTestCase {
         }
     }
 
+    /**
+     * Creates a folder with some files that have 4 published versions each, 
+     * the last file is deleted afterwards.<p>
+     * 
+     * @param cms the current user's Cms object
+     * @param folder the folder to create
+     * 
+     * @return the structure ids of the files
+     * 
+     * @throws Exception if something goes wrong
+     */
+    protected List<CmsUUID> createHistoryForClear(CmsObject cms, String folder) throws Exception {
+
+        cms.createResource(folder, CmsResourceTypeFolder.RESOURCE_TYPE_ID);
+        List<String> files = new ArrayList<String>();
+        List<CmsUUID> ids = new ArrayList<CmsUUID>();
+        for (int i = 0; i < 4; i++) {
+            String file = folder + "file" + i + ".txt";
+            files.add(file);
+            ids.add(cms.createResource(
+                file,
+                CmsResourceTypePlain.getStaticTypeId(),
+                "content version 1".getBytes(),
+                null).getStructureId());
+        }
+        OpenCms.getPublishManager().publishResource(cms, folder);
+        OpenCms.getPublishManager().waitWhileRunning();
+        for (int version = 2; version <= 4; version++) {
+            for (int i = 0; i < files.size(); i++) {
+                cms.lockResource(files.get(i));
+                CmsFile file = cms.readFile(files.get(i));
+                file.setContents(("content version " + version).getBytes());
+                cms.writeFile(file);
+            }
+            OpenCms.getPublishManager().publishResource(cms, folder);
+            OpenCms.getPublishManager().waitWhileRunning();
+        }
+        String deleted = files.get(files.size() - 1);
+        cms.lockResource(deleted);
+        cms.deleteResource(deleted, CmsResource.DELETE_PRESERVE_SIBLINGS);
+        OpenCms.getPublishManager().publishResource(cms, deleted);
+        OpenCms.getPublishManager().waitWhileRunning();
+        return ids;
+    }
+
+    /**
+     * Returns the versions of the given resource that are available in the history.<p>
+     * 
+     * @param cms the current user's Cms object
+     * @param structureId the structure id of the resource
+     * 
+     * @return the available versions, in ascending order
+     */
+    protected List<Integer> getHistoryVersions(CmsObject cms, CmsUUID structureId) {
+
+        List<Integer> versions = new ArrayList<Integer>();
+        for (int version = 1; version <= 10; version++) {
+            try {
+                cms.readResource(structureId, version);
+                versions.add(new Integer(version));
+            } catch (CmsException e) {
+                // version not available
+            }
+        }
+        return versions;
+    }
+
     /**
      * Turns the byte content of a resource into a string.<p>
      * 
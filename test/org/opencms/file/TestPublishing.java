@@ -50,6 +50,7 @@ import org.opencms.test.OpenCmsTestResourceFilter;
 import org.opencms.xml.page.CmsXmlPage;
 import org.opencms.xml.page.CmsXmlPageFactory;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
@@ -108,6 +109,7 @@ public class TestPublishing extends OpenCmsTestCase {
         suite.addTest(new TestPublishing("testPublishRelatedFiles"));
         suite.addTest(new TestPublishing("testPublishRelatedFilesInFolder"));
         suite.addTest(new TestPublishing("testPublishRelatedFilesInNewFolder"));
+        suite.addTest(new TestPublishing("testPublishRelatedFilesShared"));
         suite.addTest(new TestPublishing("testPublishContentDate"));
         suite.addTest(new TestPublishing("testPublishDeletedSiblings"));
         suite.addTest(new TestPublishing("testPublishDeletedSiblings2"));
@@ -1759,6 +1761,79 @@ public class TestPublishing extends OpenCmsTestCase {
         assertEquals(2, mergedList.getFileList().size());
     }
 
+    /**
+     * Test publishing of a related file shared by many resources, and of nested folders.<p>
+     * 
+     * @throws Throwable if something goes wrong
+     */
+    public void testPublishRelatedFilesShared() throws Throwable {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing publishing of a related file shared by many resources");
+
+        String folderName = "/sharedFolder/";
+        String fileName = "/sharedFolder/sharedFile.gif";
+
+        // create folder and file        
+        cms.createResource(folderName, CmsResourceTypeFolder.RESOURCE_TYPE_ID);
+        CmsResource target = cms.createResource(fileName, CmsResourceTypeImage.getStaticTypeId());
+
+        // create source files which all link to the same file
+        List<CmsResource> sources = new ArrayList<CmsResource>();
+        for (int i = 0; i < 3; i++) {
+            String srcName = "sharedSource" + i + ".html";
+            String content = CmsXmlPageFactory.createDocument(Locale.ENGLISH, CmsEncoder.ENCODING_UTF_8);
+            sources.add(cms.createResource(
+                srcName,
+                CmsResourceTypeXmlPage.getStaticTypeId(),
+                content.getBytes(CmsEncoder.ENCODING_UTF_8),
+                null));
+
+            CmsFile file = cms.readFile(srcName);
+            CmsXmlPage page = CmsXmlPageFactory.unmarshal(cms, file);
+            String element = "test";
+            page.addValue(element, Locale.ENGLISH);
+            // set the strong link
+            page.setStringValue(cms, element, Locale.ENGLISH, "<img src='" + fileName + "'>");
+            file.setContents(page.marshal());
+            cms.writeFile(file);
+        }
+
+        // get the publish list
+        CmsPublishList pubList = OpenCms.getPublishManager().getPublishList(cms, sources, false);
+        assertTrue(pubList.getFolderList().isEmpty());
+        assertEquals(3, pubList.getFileList().size());
+
+        // the shared file and its new parent folder must be in the related list exactly once
+        CmsPublishList relatedList = OpenCms.getPublishManager().getRelatedResourcesToPublish(cms, pubList);
+        assertTrue(relatedList.getDeletedFolderList().isEmpty());
+        assertEquals(1, relatedList.getFolderList().size());
+        assertEquals(folderName, cms.getSitePath(relatedList.getFolderList().get(0)));
+        assertEquals(1, relatedList.getFileList().size());
+        assertEquals(target.getStructureId(), relatedList.getFileList().get(0).getStructureId());
+
+        // publishing a folder together with one of its sub folders must give the same list as the folder alone
+        String parentName = "/folder1/";
+        String childName = "/folder1/subfolder11/";
+        if (cms.getLock(parentName).isUnlocked()) {
+            cms.lockResource(parentName);
+        }
+        cms.setDateLastModified(parentName, System.currentTimeMillis(), true);
+        CmsPublishList parentList = OpenCms.getPublishManager().getPublishList(
+            cms,
+            cms.readResource(parentName),
+            false);
+        List<CmsResource> nested = new ArrayList<CmsResource>();
+        nested.add(cms.readResource(childName));
+        nested.add(cms.readResource(parentName));
+        CmsPublishList nestedList = OpenCms.getPublishManager().getPublishList(cms, nested, false);
+        assertFalse(parentList.getFileList().isEmpty());
+        assertEquals(parentList.getFolderList().size(), nestedList.getFolderList().size());
+        assertTrue(nestedList.getFolderList().containsAll(parentList.getFolderList()));
+        assertEquals(parentList.getFileList().size(), nestedList.getFileList().size());
+        assertTrue(nestedList.getFileList().containsAll(parentList.getFileList()));
+    }
+
     /**
      * Test publishing a replaced file.<p>
      * 
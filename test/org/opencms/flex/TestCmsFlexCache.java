@@ -0,0 +1,299 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.flex;
+
+import org.opencms.main.CmsEvent;
+import org.opencms.main.I_CmsEventListener;
+import org.opencms.test.OpenCmsTestCase;
+import org.opencms.test.OpenCmsTestProperties;
+import org.opencms.test.OpenCmsTestServletRequest;
+import org.opencms.test.OpenCmsTestServletResponse;
+import org.opencms.util.CmsRequestUtil;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import javax.servlet.ServletOutputStream;
+
+import junit.extensions.TestSetup;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+/**
+ * Tests the flex cache with the off-heap storage for the entry output enabled, 
+ * and the delivery of the compressed output variant of cache entries.<p>
+ * 
+ * The off-heap storage is not enabled in the default configuration, 
+ * so this test creates its own flex cache with the storage configured.<p>
+ */
+public class TestCmsFlexCache extends OpenCmsTestCase {
+
+    /**
+     * Request that accepts gzip encoded responses.<p>
+     */
+    private static class CmsTestRequest extends OpenCmsTestServletRequest {
+
+        /**
+         * @see org.opencms.test.OpenCmsTestServletRequest#getHeader(java.lang.String)
+         */
+        @Override
+        public String getHeader(String name) {
+
+            return CmsRequestUtil.HEADER_ACCEPT_ENCODING.equals(name) ? "gzip, deflate" : null;
+        }
+    }
+
+    /**
+     * Response that records the headers and the content.<p>
+     */
+    private static class CmsTestResponse extends OpenCmsTestServletResponse {
+
+        /** The written content. */
+        private ByteArrayOutputStream m_content = new ByteArrayOutputStream();
+
+        /** The headers. */
+        private Map<String, String> m_headers = new HashMap<String, String>();
+
+        /**
+         * @see org.opencms.test.OpenCmsTestServletResponse#addHeader(java.lang.String, java.lang.String)
+         */
+        @Override
+        public void addHeader(String name, String value) {
+
+            m_headers.put(name, value);
+        }
+
+        /**
+         * Returns the written content.<p>
+         * 
+         * @return the written content
+         */
+        public byte[] getContent() {
+
+            return m_content.toByteArray();
+        }
+
+        /**
+         * Returns the value of a header.<p>
+         * 
+         * @param name the header name
+         * 
+         * @return the header value
+         */
+        public String getHeader(String name) {
+
+            return m_headers.get(name);
+        }
+
+        /**
+         * @see org.opencms.test.OpenCmsTestServletResponse#getOutputStream()
+         */
+        @Override
+        public ServletOutputStream getOutputStream() {
+
+            return new ServletOutputStream() {
+
+                @Override
+                public void write(int b) {
+
+                    m_content.write(b);
+                }
+            };
+        }
+
+        /**
+         * @see org.opencms.test.OpenCmsTestServletResponse#setContentLength(int)
+         */
+        @Override
+        public void setContentLength(int length) {
+
+            // ignore
+        }
+
+        /**
+         * @see org.opencms.test.OpenCmsTestServletResponse#setHeader(java.lang.String, java.lang.String)
+         */
+        @Override
+        public void setHeader(String name, String value) {
+
+            m_headers.put(name, value);
+        }
+    }
+
+    /**
+     * Default JUnit constructor.<p>
+     * 
+     * @param arg0 JUnit parameters
+     */
+    public TestCmsFlexCache(String arg0) {
+
+        super(arg0);
+    }
+
+    /**
+     * Test suite for this test class.<p>
+     * 
+     * @return the test suite
+     */
+    public static Test suite() {
+
+        OpenCmsTestProperties.initialize(org.opencms.test.AllTests.TEST_PROPERTIES_PATH);
+
+        TestSuite suite = new TestSuite();
+        suite.setName(TestCmsFlexCache.class.getName());
+
+        suite.addTest(new TestCmsFlexCache("testCompressedOutput"));
+        suite.addTest(new TestCmsFlexCache("testOffHeapStorage"));
+
+        TestSetup wrapper = new TestSetup(suite) {
+
+            @Override
+            protected void setUp() {
+
+                setupOpenCms("simpletest", "/");
+            }
+
+            @Override
+            protected void tearDown() {
+
+                removeOpenCms();
+            }
+        };
+
+        return wrapper;
+    }
+
+    /**
+     * Tests that the compressed variant of a cache entry is only written if the entry
+     * delivered the complete output of the top-level element.<p>
+     * 
+     * @throws Exception if something goes wrong
+     */
+    public void testCompressedOutput() throws Exception {
+
+        StringBuffer page = new StringBuffer();
+        for (int i = 0; i < 200; i++) {
+            page.append("<p>Paragraph ").append(i).append(" of the cached page</p>\n");
+        }
+        byte[] output = page.toString().getBytes();
+        CmsFlexCacheEntry entry = new CmsFlexCacheEntry();
+        entry.add(output);
+        entry.complete();
+        entry.compress(1024);
+        assertTrue(entry.getCompressedLength() > -1);
+
+        // the entry delivered the output of the only top-level element
+        CmsTestResponse res = new CmsTestResponse();
+        CmsFlexController controller = createController(res);
+        controller.setCompressedEntry(entry);
+        assertTrue(controller.writeCompressedOutput(new CmsTestRequest(), res));
+        assertEquals("gzip", res.getHeader(CmsRequestUtil.HEADER_CONTENT_ENCODING));
+        GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(res.getContent()));
+        ByteArrayOutputStream uncompressed = new ByteArrayOutputStream();
+        byte[] buffer = new byte[512];
+        int read;
+        while ((read = in.read(buffer)) > -1) {
+            uncompressed.write(buffer, 0, read);
+        }
+        assertTrue(Arrays.equals(output, uncompressed.toByteArray()));
+
+        // another top-level element has been included after the entry
+        res = new CmsTestResponse();
+        controller = createController(res);
+        controller.setCompressedEntry(entry);
+        controller.setCompressedEntry(null);
+        assertFalse(controller.writeCompressedOutput(new CmsTestRequest(), res));
+        assertEquals(0, res.getContent().length);
+
+        // the entry delivered the output of the second top-level element only
+        controller = createController(res);
+        controller.setCompressedEntry(null);
+        controller.setCompressedEntry(entry);
+        assertFalse(controller.writeCompressedOutput(new CmsTestRequest(), res));
+        assertEquals(0, res.getContent().length);
+    }
+
+    /**
+     * Tests that cached entries are moved to the off-heap storage and released when the cache is cleared.<p>
+     * 
+     * @throws Exception if something goes wrong
+     */
+    public void testOffHeapStorage() throws Exception {
+
+        CmsFlexCacheConfiguration configuration = new CmsFlexCacheConfiguration();
+        configuration.initialize("true", "false", "2000000", "1000000", "400000", "2000");
+        configuration.setOffHeapStorage("65536", "1024", null);
+        CmsFlexCache cache = new CmsFlexCache(configuration);
+        CmsFlexCacheStorage storage = cache.getOffHeapStorage();
+        assertNotNull(storage);
+        assertEquals(64 * 1024, storage.getCapacity());
+
+        byte[] output = new byte[2500];
+        for (int i = 0; i < output.length; i++) {
+            output[i] = (byte)(i % 127);
+        }
+        CmsFlexCacheEntry entry = new CmsFlexCacheEntry();
+        entry.add(output);
+        entry.complete();
+
+        CmsFlexCacheKey key = new CmsFlexCacheKey("/test.jsp", "always", true);
+        cache.putKey(key);
+        assertTrue(cache.put(key, entry, "variation"));
+        assertEquals(1, cache.size());
+
+        // the output needs 3 slabs
+        assertTrue(entry.elements().get(0) instanceof CmsFlexCacheStorage.CmsChunk);
+        assertEquals(storage.getCapacity() - (3 * 1024), storage.getFreeBytes());
+        CmsFlexCacheStorage.CmsChunk chunk = (CmsFlexCacheStorage.CmsChunk)entry.elements().get(0);
+        assertTrue(Arrays.equals(output, chunk.toByteArray()));
+
+        // clearing the cache gives the slabs back
+        cache.cmsEvent(new CmsEvent(I_CmsEventListener.EVENT_CLEAR_CACHES, Collections.<String, Object> emptyMap()));
+        assertEquals(0, cache.size());
+        assertEquals(storage.getCapacity(), storage.getFreeBytes());
+    }
+
+    /**
+     * Creates a top-level flex controller for the given response.<p>
+     * 
+     * @param res the response
+     * 
+     * @return the controller
+     * 
+     * @throws Exception if something goes wrong
+     */
+    private CmsFlexController createController(CmsTestResponse res) throws Exception {
+
+        return new CmsFlexController(getCmsObject(), null, null, new CmsTestRequest(), res, false, true);
+    }
+}
@@ -27,6 +27,12 @@
 
 package org.opencms.flex;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+
 import junit.framework.TestCase;
 
 /**
@@ -44,6 +50,104 @@ public class TestCmsFlexCacheEntry extends TestCase {
         super(arg0);
     }
 
+    /**
+     * Tests the gzip compressed output variant of an entry.<p>
+     *
+     * @throws Exception if something goes wrong
+     */
+    public void testCompressedOutput() throws Exception {
+
+        StringBuffer page = new StringBuffer();
+        for (int i = 0; i < 200; i++) {
+            page.append("<p>Paragraph ").append(i).append(" of the cached page</p>\n");
+        }
+        byte[] output = page.toString().getBytes();
+
+        // entries with include calls are not compressed
+        CmsFlexCacheEntry entry = createEntry(output);
+        entry.add("/system/include.jsp", null, null);
+        entry.complete();
+        entry.compress(0);
+        assertEquals(-1, entry.getOutputLength());
+        assertEquals(-1, entry.getCompressedLength());
+
+        // output below the minimum size is not compressed
+        entry = createEntry(output);
+        entry.complete();
+        entry.compress(output.length + 1);
+        assertEquals(-1, entry.getCompressedLength());
+        assertFalse(entry.writeCompressedOutput(new ByteArrayOutputStream(), new byte[100]));
+
+        int costs = entry.getLruCacheCosts();
+        entry.compress(1024);
+        assertEquals(output.length, entry.getOutputLength());
+        assertTrue(entry.getCompressedLength() > 0);
+        assertTrue(entry.getCompressedLength() < (output.length / 4));
+        assertTrue(entry.getLruCacheCosts() >= (costs + entry.getCompressedLength()));
+        assertTrue(Arrays.equals(output, uncompress(entry)));
+
+        // the compressed variant is moved to the off-heap storage as well
+        CmsFlexCacheStorage storage = new CmsFlexCacheStorage(64 * 1024, 512, null);
+        entry.moveToStorage(storage);
+        assertTrue(entry.getLruCacheCosts() < 2048);
+        assertTrue(Arrays.equals(output, uncompress(entry)));
+        entry.removeFromLruCache();
+        assertEquals(storage.getCapacity(), storage.getFreeBytes());
+        assertFalse(entry.writeCompressedOutput(new ByteArrayOutputStream(), new byte[100]));
+    }
+
+    /**
+     * Tests storing the output of an entry in off-heap direct buffers.<p>
+     *
+     * @throws Exception if something goes wrong
+     */
+    public void testOffHeapStorage() throws Exception {
+
+        CmsFlexCacheStorage storage = new CmsFlexCacheStorage(64 * 1024, 1024, null);
+        assertEquals(64 * 1024, storage.getCapacity());
+        checkOffHeapStorage(storage);
+    }
+
+    /**
+     * Tests storing the output of an entry in a memory mapped segment file.<p>
+     *
+     * @throws Exception if something goes wrong
+     */
+    public void testOffHeapStorageFile() throws Exception {
+
+        File file = File.createTempFile("flexcache", ".seg");
+        file.deleteOnExit();
+        CmsFlexCacheStorage storage = new CmsFlexCacheStorage(64 * 1024, 1024, file.getAbsolutePath());
+        assertEquals(64 * 1024, file.length());
+        checkOffHeapStorage(storage);
+    }
+
+    /**
+     * Tests that the output stays on the heap if the off-heap storage is full.<p>
+     */
+    public void testOffHeapStorageFull() {
+
+        CmsFlexCacheStorage storage = new CmsFlexCacheStorage(4 * 1024, 1024, null);
+        CmsFlexCacheEntry first = createEntry(new byte[3000]);
+        first.complete();
+        first.moveToStorage(storage);
+        assertTrue(first.elements().get(0) instanceof CmsFlexCacheStorage.CmsChunk);
+        assertEquals(1024, storage.getFreeBytes());
+
+        CmsFlexCacheEntry second = createEntry(new byte[3000]);
+        second.complete();
+        int costs = second.getLruCacheCosts();
+        second.moveToStorage(storage);
+        assertTrue(second.elements().get(0) instanceof byte[]);
+        assertEquals(costs, second.getLruCacheCosts());
+
+        // the slabs are available again once the first entry is removed
+        first.removeFromLruCache();
+        assertEquals(4 * 1024, storage.getFreeBytes());
+        second.moveToStorage(storage);
+        assertTrue(second.elements().get(0) instanceof CmsFlexCacheStorage.CmsChunk);
+    }
+
     /**
      * Tests the method getAbsoluteUri.<p>
      */
@@ -63,4 +167,86 @@ public class TestCmsFlexCacheEntry extends TestCase {
 
     }
 
+    /**
+     * Checks storing, reading and releasing the output of an entry with the given storage.<p>
+     *
+     * @param storage the off-heap storage to check
+     *
+     * @throws Exception if something goes wrong
+     */
+    private void checkOffHeapStorage(CmsFlexCacheStorage storage) throws Exception {
+
+        byte[] large = new byte[2500];
+        for (int i = 0; i < large.length; i++) {
+            large[i] = (byte)(i % 127);
+        }
+        byte[] small = "<p>small</p>".getBytes();
+        CmsFlexCacheEntry entry = createEntry(large);
+        entry.add("/system/include.jsp", null, null);
+        entry.add(small);
+        entry.complete();
+        int costs = entry.getLruCacheCosts();
+
+        entry.moveToStorage(storage);
+        // the large fragment needs 3 slabs, the small fragment stays on the heap
+        assertEquals(storage.getCapacity() - (3 * 1024), storage.getFreeBytes());
+        assertTrue(entry.getLruCacheCosts() < (costs - 2000));
+        assertEquals(5, entry.elements().size());
+        assertEquals("/system/include.jsp", entry.elements().get(1));
+        assertSame(small, entry.elements().get(4));
+
+        CmsFlexCacheStorage.CmsChunk chunk = (CmsFlexCacheStorage.CmsChunk)entry.elements().get(0);
+        assertEquals(large.length, chunk.getLength());
+        assertTrue(Arrays.equals(large, chunk.toByteArray()));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        chunk.writeTo(out, new byte[100]);
+        assertTrue(Arrays.equals(large, out.toByteArray()));
+
+        // the slabs are kept as long as the output is written
+        assertTrue(entry.acquireOutput());
+        entry.removeFromLruCache();
+        assertEquals(storage.getCapacity() - (3 * 1024), storage.getFreeBytes());
+        assertTrue(Arrays.equals(large, chunk.toByteArray()));
+        entry.releaseOutput();
+        assertEquals(storage.getCapacity(), storage.getFreeBytes());
+        assertFalse(entry.acquireOutput());
+    }
+
+    /**
+     * Returns the uncompressed bytes of the compressed output variant of the given entry.<p>
+     *
+     * @param entry the cache entry
+     *
+     * @return the uncompressed output
+     *
+     * @throws Exception if something goes wrong
+     */
+    private byte[] uncompress(CmsFlexCacheEntry entry) throws Exception {
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        assertTrue(entry.writeCompressedOutput(out, new byte[100]));
+        assertEquals(entry.getCompressedLength(), out.size());
+        GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()));
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        int read;
+        while ((read = in.read(buffer)) > -1) {
+            result.write(buffer, 0, read);
+        }
+        return result.toByteArray();
+    }
+
+    /**
+     * Creates a cache entry with the given output.<p>
+     *
+     * @param bytes the output
+     *
+     * @return the cache entry
+     */
+    private CmsFlexCacheEntry createEntry(byte[] bytes) {
+
+        CmsFlexCacheEntry entry = new CmsFlexCacheEntry();
+        entry.add(bytes);
+        return entry;
+    }
 }
@@ -0,0 +1,427 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.gwt;
+
+import org.opencms.ade.containerpage.CmsContainerpageService;
+import org.opencms.ade.containerpage.shared.rpc.I_CmsContainerpageService;
+import org.opencms.gwt.shared.rpc.I_CmsCoreService;
+import org.opencms.test.OpenCmsTestCase;
+import org.opencms.test.OpenCmsTestProperties;
+import org.opencms.test.OpenCmsTestServletRequest;
+import org.opencms.test.OpenCmsTestServletResponse;
+import org.opencms.util.CmsRequestUtil;
+
+import java.io.ByteArrayOutputStream;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletResponse;
+
+import junit.extensions.TestSetup;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+/**
+ * Tests the compression, the client message delivery and the metrics of the GWT services.<p>
+ * 
+ * @since 8.0.2
+ */
+public class TestCmsGwtService extends OpenCmsTestCase {
+
+    /**
+     * Request with settable parameters and headers.<p>
+     */
+    private static class CmsTestRequest extends OpenCmsTestServletRequest {
+
+        /** The headers. */
+        private Map<String, String> m_headers = new HashMap<String, String>();
+
+        /** The parameters. */
+        private Map<String, String> m_parameters = new HashMap<String, String>();
+
+        /**
+         * @see org.opencms.test.OpenCmsTestServletRequest#getHeader(java.lang.String)
+         */
+        @Override
+        public String getHeader(String name) {
+
+            return m_headers.get(name);
+        }
+
+        /**
+         * @see org.opencms.test.OpenCmsTestServletRequest#getParameter(java.lang.String)
+         */
+        @Override
+        public String getParameter(String name) {
+
+            return m_parameters.get(name);
+        }
+
+        /**
+         * Sets a header.<p>
+         * 
+         * @param name the header name
+         * @param value the header value
+         */
+        public void setHeader(String name, String value) {
+
+            m_headers.put(name, value);
+        }
+
+        /**
+         * Sets a parameter.<p>
+         * 
+         * @param name the parameter name
+         * @param value the parameter value
+         */
+        public void setParameter(String name, String value) {
+
+            m_parameters.put(name, value);
+        }
+    }
+
+    /**
+     * Response that records the status, the headers and the content.<p>
+     */
+    private static class CmsTestResponse extends OpenCmsTestServletResponse {
+
+        /** The written content. */
+        private ByteArrayOutputStream m_content = new ByteArrayOutputStream();
+
+        /** The headers. */
+        private Map<String, String> m_headers = new HashMap<String, String>();
+
+        /** The status. */
+        private int m_status = HttpServletResponse.SC_OK;
+
+        /**
+         * Returns the written content.<p>
+         * 
+         * @return the written content
+         */
+        public byte[] getContent() {
+
+            return m_content.toByteArray();
+        }
+
+        /**
+         * Returns the value of a header.<p>
+         * 
+         * @param name the header name
+         * 
+         * @return the header value
+         */
+        public String getHeader(String name) {
+
+            return m_headers.get(name);
+        }
+
+        /**
+         * @see org.opencms.test.OpenCmsTestServletResponse#getOutputStream()
+         */
+        @Override
+        public ServletOutputStream getOutputStream() {
+
+            return new ServletOutputStream() {
+
+                @Override
+                public void write(int b) {
+
+                    m_content.write(b);
+                }
+            };
+        }
+
+        /**
+         * Returns the status.<p>
+         * 
+         * @return the status
+         */
+        public int getStatus() {
+
+            return m_status;
+        }
+
+        /**
+         * @see org.opencms.test.OpenCmsTestServletResponse#sendError(int)
+         */
+        @Override
+        public void sendError(int status) {
+
+            m_status = status;
+        }
+
+        /**
+         * @see org.opencms.test.OpenCmsTestServletResponse#setContentLength(int)
+         */
+        @Override
+        public void setContentLength(int length) {
+
+            // ignore
+        }
+
+        /**
+         * @see org.opencms.test.OpenCmsTestServletResponse#setContentType(java.lang.String)
+         */
+        @Override
+        public void setContentType(String type) {
+
+            // ignore
+        }
+
+        /**
+         * @see org.opencms.test.OpenCmsTestServletResponse#setHeader(java.lang.String, java.lang.String)
+         */
+        @Override
+        public void setHeader(String name, String value) {
+
+            m_headers.put(name, value);
+        }
+
+        /**
+         * @see org.opencms.test.OpenCmsTestServletResponse#setStatus(int)
+         */
+        @Override
+        public void setStatus(int status) {
+
+            m_status = status;
+        }
+    }
+
+    /**
+     * Default JUnit constructor.<p>
+     * 
+     * @param arg0 JUnit parameters
+     */
+    public TestCmsGwtService(String arg0) {
+
+        super(arg0);
+    }
+
+    /**
+     * Test suite for this test class.<p>
+     * 
+     * @return the test suite
+     */
+    public static Test suite() {
+
+        OpenCmsTestProperties.initialize(org.opencms.test.AllTests.TEST_PROPERTIES_PATH);
+
+        TestSuite suite = new TestSuite();
+        suite.setName(TestCmsGwtService.class.getName());
+
+        suite.addTest(new TestCmsGwtService("testClientMessagesETag"));
+        suite.addTest(new TestCmsGwtService("testCompressionThreshold"));
+        suite.addTest(new TestCmsGwtService("testServiceMetrics"));
+
+        TestSetup wrapper = new TestSetup(suite) {
+
+            @Override
+            protected void setUp() {
+
+                setupOpenCms("simpletest", "/");
+            }
+
+            @Override
+            protected void tearDown() {
+
+                removeOpenCms();
+            }
+        };
+
+        return wrapper;
+    }
+
+    /**
+     * Tests that the client messages are delivered with an entity tag, and that a matching 
+     * <code>If-None-Match</code> header is answered with status 304.<p>
+     * 
+     * The gzip compressed content must have its own entity tag.<p>
+     * 
+     * @throws Exception if something goes wrong
+     */
+    public void testClientMessagesETag() throws Exception {
+
+        echo("Testing the delivery of the client messages");
+
+        I_CmsClientMessageBundle bundle = ClientMessages.get();
+        String link = CmsClientMessagesHandler.getLink(bundle, Locale.ENGLISH);
+        String version = link.substring(link.indexOf("&" + CmsClientMessagesHandler.PARAM_VERSION + "=") + 3);
+        CmsClientMessagesHandler handler = new CmsClientMessagesHandler();
+
+        CmsTestRequest req = new CmsTestRequest();
+        req.setParameter(CmsClientMessagesHandler.PARAM_BUNDLE, bundle.getBundleName());
+        req.setParameter(CmsClientMessagesHandler.PARAM_LOCALE, Locale.ENGLISH.toString());
+        CmsTestResponse res = new CmsTestResponse();
+        handler.handle(req, res, CmsClientMessagesHandler.HANDLER_NAME);
+        assertEquals(HttpServletResponse.SC_OK, res.getStatus());
+        String etag = res.getHeader(CmsRequestUtil.HEADER_ETAG);
+        assertEquals("\"" + version + "\"", etag);
+        assertNull(res.getHeader(CmsRequestUtil.HEADER_CONTENT_ENCODING));
+        String script = new String(res.getContent(), "UTF-8");
+        assertTrue(script.length() > 0);
+
+        // the same script with the same entity tag is delivered again
+        res = new CmsTestResponse();
+        handler.handle(req, res, CmsClientMessagesHandler.HANDLER_NAME);
+        assertEquals(etag, res.getHeader(CmsRequestUtil.HEADER_ETAG));
+        assertEquals(script, new String(res.getContent(), "UTF-8"));
+
+        // a matching entity tag is answered with "not modified" and no content
+        req.setHeader(CmsRequestUtil.HEADER_IF_NONE_MATCH, etag);
+        res = new CmsTestResponse();
+        handler.handle(req, res, CmsClientMessagesHandler.HANDLER_NAME);
+        assertEquals(HttpServletResponse.SC_NOT_MODIFIED, res.getStatus());
+        assertEquals(etag, res.getHeader(CmsRequestUtil.HEADER_ETAG));
+        assertEquals(0, res.getContent().length);
+
+        // a different entity tag gets the content, gzip compressed if accepted
+        req.setHeader(CmsRequestUtil.HEADER_IF_NONE_MATCH, "\"0\"");
+        req.setHeader(CmsRequestUtil.HEADER_ACCEPT_ENCODING, "gzip, deflate");
+        res = new CmsTestResponse();
+        handler.handle(req, res, CmsClientMessagesHandler.HANDLER_NAME);
+        assertEquals(HttpServletResponse.SC_OK, res.getStatus());
+        assertEquals("gzip", res.getHeader(CmsRequestUtil.HEADER_CONTENT_ENCODING));
+        assertTrue(res.getContent().length > 0);
+        String gzipEtag = res.getHeader(CmsRequestUtil.HEADER_ETAG);
+        assertEquals("\"" + version + "-gz\"", gzipEtag);
+        assertEquals(CmsRequestUtil.HEADER_ACCEPT_ENCODING, res.getHeader(CmsRequestUtil.HEADER_VARY));
+
+        // the entity tag of the uncompressed content does not match the compressed content
+        req.setHeader(CmsRequestUtil.HEADER_IF_NONE_MATCH, etag);
+        res = new CmsTestResponse();
+        handler.handle(req, res, CmsClientMessagesHandler.HANDLER_NAME);
+        assertEquals(HttpServletResponse.SC_OK, res.getStatus());
+        assertEquals(gzipEtag, res.getHeader(CmsRequestUtil.HEADER_ETAG));
+
+        // the entity tag of the compressed content matches only if gzip is accepted
+        req.setHeader(CmsRequestUtil.HEADER_IF_NONE_MATCH, gzipEtag);
+        res = new CmsTestResponse();
+        handler.handle(req, res, CmsClientMessagesHandler.HANDLER_NAME);
+        assertEquals(HttpServletResponse.SC_NOT_MODIFIED, res.getStatus());
+        req.setHeader(CmsRequestUtil.HEADER_ACCEPT_ENCODING, "identity");
+        res = new CmsTestResponse();
+        handler.handle(req, res, CmsClientMessagesHandler.HANDLER_NAME);
+        assertEquals(HttpServletResponse.SC_OK, res.getStatus());
+        assertEquals(etag, res.getHeader(CmsRequestUtil.HEADER_ETAG));
+        assertNull(res.getHeader(CmsRequestUtil.HEADER_CONTENT_ENCODING));
+
+        // unknown bundles are not found
+        req.setParameter(CmsClientMessagesHandler.PARAM_BUNDLE, "org.opencms.unknown.ClientMessages");
+        res = new CmsTestResponse();
+        handler.handle(req, res, CmsClientMessagesHandler.HANDLER_NAME);
+        assertEquals(HttpServletResponse.SC_NOT_FOUND, res.getStatus());
+    }
+
+    /**
+     * Tests that only responses that reach the compression threshold are compressed.<p>
+     * 
+     * @throws Exception if something goes wrong
+     */
+    public void testCompressionThreshold() throws Exception {
+
+        echo("Testing the compression threshold of the GWT services");
+
+        CmsGwtService service = new CmsContainerpageService();
+        CmsGwtServiceMetrics metrics = CmsGwtServiceMetrics.get(I_CmsContainerpageService.class.getName());
+        int threshold = CmsGwtService.getCompressionThreshold();
+        try {
+            CmsGwtService.setCompressionThreshold(100);
+            long compressed = metrics.getCompressedCalls();
+            assertFalse(service.shouldCompressResponse(null, null, createPayload(99)));
+            assertTrue(service.shouldCompressResponse(null, null, createPayload(100)));
+            assertTrue(service.shouldCompressResponse(null, null, createPayload(5000)));
+            assertEquals(compressed + 2, metrics.getCompressedCalls());
+
+            CmsGwtService.setCompressionThreshold(0);
+            assertTrue(service.shouldCompressResponse(null, null, ""));
+
+            // a negative threshold disables the compression
+            CmsGwtService.setCompressionThreshold(-1);
+            assertFalse(service.shouldCompressResponse(null, null, createPayload(5000)));
+        } finally {
+            CmsGwtService.setCompressionThreshold(threshold);
+        }
+    }
+
+    /**
+     * Tests the service metrics, which must use the same name for RPC calls and prefetched data.<p>
+     * 
+     * @throws Exception if something goes wrong
+     */
+    public void testServiceMetrics() throws Exception {
+
+        echo("Testing the GWT service metrics");
+
+        // the implementation and the service interface are identified by the same name
+        String name = CmsGwtServiceMetrics.getServiceName(CmsContainerpageService.class);
+        assertEquals(I_CmsContainerpageService.class.getName(), name);
+        assertEquals(name, CmsGwtServiceMetrics.getServiceName(I_CmsContainerpageService.class));
+        assertEquals(
+            I_CmsCoreService.class.getName(),
+            CmsGwtServiceMetrics.getServiceName(I_CmsCoreService.class.getMethod("prefetch").getDeclaringClass()));
+        // without service interface the class name is used
+        assertEquals(CmsGwtService.class.getName(), CmsGwtServiceMetrics.getServiceName(CmsGwtService.class));
+
+        CmsGwtServiceMetrics metrics = CmsGwtServiceMetrics.get(TestCmsGwtService.class.getName());
+        assertSame(metrics, CmsGwtServiceMetrics.get(TestCmsGwtService.class.getName()));
+        assertEquals(0, metrics.getCalls());
+        assertEquals(0, metrics.getAveragePayloadSize());
+        metrics.recordCall(100, 10);
+        metrics.recordCall(300, 30);
+        metrics.recordCompressed();
+        assertEquals(2, metrics.getCalls());
+        assertEquals(1, metrics.getCompressedCalls());
+        assertEquals(200, metrics.getAveragePayloadSize());
+        assertEquals(300, metrics.getMaxPayloadSize());
+        assertEquals(400, metrics.getTotalPayloadSize());
+        assertEquals(20, metrics.getAverageTime());
+        assertEquals(30, metrics.getMaxTime());
+        assertEquals(40, metrics.getTotalTime());
+        assertTrue(CmsGwtServiceMetrics.getAll().contains(metrics));
+    }
+
+    /**
+     * Creates a payload with the given number of characters.<p>
+     * 
+     * @param size the number of characters
+     * 
+     * @return the payload
+     */
+    private String createPayload(int size) {
+
+        StringBuffer result = new StringBuffer(size);
+        for (int i = 0; i < size; i++) {
+            result.append('x');
+        }
+        return result.toString();
+    }
+}
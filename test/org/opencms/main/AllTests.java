@@ -65,6 +65,7 @@ public final class AllTests {
         suite.addTest(TestOpenCmsSingleton.suite());
         suite.addTest(TestCmsEvents.suite());
         suite.addTest(TestCmsSystemInfo.suite());
+        suite.addTest(TestCmsDefaultSessionStorageProvider.suite());
         // $JUnit-END$
         return suite;
     }
@@ -0,0 +1,247 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.main;
+
+import org.opencms.file.CmsRequestContext;
+import org.opencms.test.OpenCmsTestCase;
+import org.opencms.test.OpenCmsTestProperties;
+import org.opencms.util.CmsUUID;
+
+import java.util.List;
+
+import junit.extensions.TestSetup;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+/**
+ * Test case for {@link CmsDefaultSessionStorageProvider}.<p>
+ * 
+ * @since 8.0.2
+ */
+public class TestCmsDefaultSessionStorageProvider extends OpenCmsTestCase {
+
+    /**
+     * Session info that simulates a request of the same session which arrives while the session is validated.<p>
+     * 
+     * On the given call of {@link #getSessionId()}, a thread is started that puts the replacement 
+     * session info into the storage, the caller waits a short time for the thread to finish.<p>
+     */
+    private static class CmsInterleavedSessionInfo extends CmsSessionInfo {
+
+        /** The number of calls of {@link #getSessionId()}. */
+        private int m_calls;
+
+        /** The call of {@link #getSessionId()} that starts the put of the replacement. */
+        private int m_putOnCall;
+
+        /** The replacement session info. */
+        private CmsSessionInfo m_replacement;
+
+        /** The storage to put the replacement into. */
+        private CmsDefaultSessionStorageProvider m_storage;
+
+        /** The thread that puts the replacement. */
+        private Thread m_thread;
+
+        /**
+         * Creates a new session info.<p>
+         * 
+         * @param context the current request context
+         * @param sessionId the id of the session
+         */
+        CmsInterleavedSessionInfo(CmsRequestContext context, CmsUUID sessionId) {
+
+            // a negative interval means the session is expired at once
+            super(context, sessionId, -1);
+        }
+
+        /**
+         * @see org.opencms.main.CmsSessionInfo#getSessionId()
+         */
+        @Override
+        public CmsUUID getSessionId() {
+
+            m_calls++;
+            if ((m_storage != null) && (m_calls == m_putOnCall)) {
+                m_thread = new Thread() {
+
+                    @Override
+                    public void run() {
+
+                        m_storage.put(m_replacement);
+                    }
+                };
+                m_thread.start();
+                try {
+                    // the put is done at once unless it has to wait for the lock of the validation
+                    m_thread.join(500);
+                } catch (InterruptedException e) {
+                    // ignore
+                }
+            }
+            return super.getSessionId();
+        }
+
+        /**
+         * Returns the thread that puts the replacement, or <code>null</code> if not started.<p>
+         * 
+         * @return the thread that puts the replacement
+         */
+        Thread getThread() {
+
+            return m_thread;
+        }
+
+        /**
+         * Starts the put of the replacement on the given call of {@link #getSessionId()}.<p>
+         * 
+         * @param storage the storage to put the replacement into
+         * @param replacement the replacement session info
+         * @param putOnCall the call of {@link #getSessionId()} that starts the put
+         */
+        void putOnCall(CmsDefaultSessionStorageProvider storage, CmsSessionInfo replacement, int putOnCall) {
+
+            m_storage = storage;
+            m_replacement = replacement;
+            m_calls = 0;
+            m_putOnCall = putOnCall;
+        }
+    }
+
+    /**
+     * Default JUnit constructor.<p>
+     * 
+     * @param arg0 JUnit parameters
+     */
+    public TestCmsDefaultSessionStorageProvider(String arg0) {
+
+        super(arg0);
+    }
+
+    /**
+     * Test suite for this test class.<p>
+     * 
+     * @return the test suite
+     */
+    public static Test suite() {
+
+        OpenCmsTestProperties.initialize(org.opencms.test.AllTests.TEST_PROPERTIES_PATH);
+
+        TestSuite suite = new TestSuite();
+        suite.setName(TestCmsDefaultSessionStorageProvider.class.getName());
+
+        suite.addTest(new TestCmsDefaultSessionStorageProvider("testValidate"));
+        suite.addTest(new TestCmsDefaultSessionStorageProvider("testValidatePutInterleaving"));
+
+        TestSetup wrapper = new TestSetup(suite) {
+
+            @Override
+            protected void setUp() {
+
+                setupOpenCms(null, "/sites/default/");
+            }
+
+            @Override
+            protected void tearDown() {
+
+                removeOpenCms();
+            }
+        };
+
+        return wrapper;
+    }
+
+    /**
+     * Tests that expired sessions are removed from the storage and from the user index.<p>
+     * 
+     * @throws Exception if something goes wrong
+     */
+    public void testValidate() throws Exception {
+
+        echo("Testing the validation of the sessions");
+        CmsRequestContext context = getCmsObject().getRequestContext();
+        CmsUUID userId = context.getCurrentUser().getId();
+
+        CmsDefaultSessionStorageProvider storage = new CmsDefaultSessionStorageProvider();
+        storage.initialize();
+        CmsSessionInfo expired = new CmsSessionInfo(context, new CmsUUID(), -1);
+        CmsSessionInfo valid = new CmsSessionInfo(context, new CmsUUID(), 3600);
+        storage.put(expired);
+        storage.put(valid);
+        assertEquals(2, storage.getSize());
+        assertEquals(2, storage.getAllOfUser(userId).size());
+
+        storage.validate();
+        assertEquals(1, storage.getSize());
+        assertNull(storage.get(expired.getSessionId()));
+        assertSame(valid, storage.get(valid.getSessionId()));
+        List<CmsSessionInfo> userSessions = storage.getAllOfUser(userId);
+        assertEquals(1, userSessions.size());
+        assertSame(valid, userSessions.get(0));
+        storage.shutdown();
+    }
+
+    /**
+     * Tests that a session updated while it is validated is not removed.<p>
+     * 
+     * The update of the session is done at every point where the validation reads the session id,
+     * so the check and the removal of the expired session must be atomic.<p>
+     * 
+     * @throws Exception if something goes wrong
+     */
+    public void testValidatePutInterleaving() throws Exception {
+
+        echo("Testing the validation of sessions updated at the same time");
+        CmsRequestContext context = getCmsObject().getRequestContext();
+        CmsUUID userId = context.getCurrentUser().getId();
+
+        for (int call = 1; call <= 3; call++) {
+            CmsDefaultSessionStorageProvider storage = new CmsDefaultSessionStorageProvider();
+            storage.initialize();
+            CmsUUID sessionId = new CmsUUID();
+            CmsInterleavedSessionInfo expired = new CmsInterleavedSessionInfo(context, sessionId);
+            storage.put(expired);
+            CmsSessionInfo replacement = new CmsSessionInfo(context, sessionId, 3600);
+            expired.putOnCall(storage, replacement, call);
+
+            storage.validate();
+            if (expired.getThread() == null) {
+                // the validation reads the session id less often, nothing more to check
+                storage.shutdown();
+                continue;
+            }
+            expired.getThread().join();
+            // the updated session must still be available, also by user
+            assertSame("Call " + call, replacement, storage.get(sessionId));
+            List<CmsSessionInfo> userSessions = storage.getAllOfUser(userId);
+            assertEquals("Call " + call, 1, userSessions.size());
+            assertSame("Call " + call, replacement, userSessions.get(0));
+            storage.shutdown();
+        }
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.monitor;
+
+import org.opencms.json.JSONArray;
+import org.opencms.json.JSONObject;
+import org.opencms.test.OpenCmsTestServletRequest;
+
+import java.util.List;
+
+import javax.servlet.http.HttpServletRequest;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the request tracer.<p>
+ *
+ * @since 8.0.2
+ */
+public class TestCmsRequestTracer extends TestCase {
+
+    /** The trace header used in the tests. */
+    private static final String HEADER = "X-OpenCms-Trace";
+
+    /**
+     * Default JUnit constructor.<p>
+     *
+     * @param arg0 JUnit parameters
+     */
+    public TestCmsRequestTracer(String arg0) {
+
+        super(arg0);
+    }
+
+    /**
+     * Tests that requests are traced only if selected by header or sample rate.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testSampling() throws Exception {
+
+        CmsRequestTracer disabled = new CmsRequestTracer(0.0, "", 10);
+        assertFalse(disabled.isEnabled());
+        assertNull(disabled.startTrace(createRequest("/index.html", true)));
+
+        CmsRequestTracer byHeader = new CmsRequestTracer(0.0, HEADER, 10);
+        assertNull(byHeader.startTrace(createRequest("/index.html", false)));
+        CmsRequestTrace trace = byHeader.startTrace(createRequest("/index.html", true));
+        assertNotNull(trace);
+        assertTrue(trace.isRequestedByHeader());
+        assertSame(trace, CmsRequestTracer.getCurrentTrace());
+        byHeader.finishTrace(trace);
+        assertNull(CmsRequestTracer.getCurrentTrace());
+
+        CmsRequestTracer all = new CmsRequestTracer(1.0, null, 10);
+        trace = all.startTrace(createRequest("/index.html", false));
+        assertNotNull(trace);
+        assertFalse(trace.isRequestedByHeader());
+        all.finishTrace(trace);
+
+        // sampled traces are not marked as requested by header, even if the header is set
+        CmsRequestTracer sampledWithHeader = new CmsRequestTracer(1.0, HEADER, 10);
+        trace = sampledWithHeader.startTrace(createRequest("/index.html", true));
+        assertFalse(trace.isRequestedByHeader());
+        sampledWithHeader.finishTrace(trace);
+    }
+
+    /**
+     * Tests that discarded traces are not added to the ring buffer.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testDiscardTrace() throws Exception {
+
+        CmsRequestTracer tracer = new CmsRequestTracer(0.0, HEADER, 10);
+        CmsRequestTrace trace = tracer.startTrace(createRequest("/index.html", true));
+        CmsRequestTracer.startSpan(CmsRequestTracer.SPAN_INIT_CMS_OBJECT, null);
+        CmsRequestTracer.endSpan();
+        tracer.discardTrace(trace);
+        assertNull(CmsRequestTracer.getCurrentTrace());
+        // spans and counters must be ignored after the trace has been discarded
+        CmsRequestTracer.startSpan(CmsRequestTracer.SPAN_LOAD_RESOURCE, null);
+        CmsRequestTracer.count(CmsRequestTracer.COUNTER_SQL);
+        CmsRequestTracer.endSpan();
+        assertEquals(1, trace.getSpans().size());
+        assertEquals(0, trace.getCount(CmsRequestTracer.COUNTER_SQL));
+        // finishing the discarded trace does nothing, since the request processing sets it to null
+        tracer.finishTrace(null);
+        assertEquals(0, tracer.getTraceCount());
+        assertTrue(tracer.getTraces().isEmpty());
+    }
+
+    /**
+     * Tests the spans and counters of a trace, and the ring buffer of the tracer.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testTraceAndRingBuffer() throws Exception {
+
+        CmsRequestTracer tracer = new CmsRequestTracer(0.0, HEADER, 3);
+        for (int i = 0; i < 5; i++) {
+            CmsRequestTrace trace = tracer.startTrace(createRequest("/page" + i + ".html", true));
+            CmsRequestTracer.startSpan(CmsRequestTracer.SPAN_LOAD_RESOURCE, null);
+            CmsRequestTracer.startSpan(CmsRequestTracer.SPAN_INCLUDE, "/system/modules/test/elements/head.jsp");
+            CmsRequestTracer.count(CmsRequestTracer.COUNTER_SQL);
+            CmsRequestTracer.countCacheAccess("resource", null);
+            assertEquals("value", CmsRequestTracer.countCacheAccess("resource", "value"));
+            CmsRequestTracer.endSpan();
+            CmsRequestTracer.startSpan(CmsRequestTracer.SPAN_INCLUDE, "/system/modules/test/elements/foot.jsp");
+            // the last span is left open, it must be closed when the trace is finished
+            tracer.finishTrace(trace);
+        }
+
+        // the ring buffer keeps only the latest traces, latest first
+        List<CmsRequestTrace> traces = tracer.getTraces();
+        assertEquals(3, traces.size());
+        assertEquals(5, tracer.getTraceCount());
+        assertEquals("/page4.html", traces.get(0).getUri());
+        assertEquals("/page2.html", traces.get(2).getUri());
+
+        CmsRequestTrace trace = traces.get(0);
+        assertEquals(1, trace.getCount(CmsRequestTracer.COUNTER_SQL));
+        assertEquals(1, trace.getCount("cache.resource.hit"));
+        assertEquals(1, trace.getCount("cache.resource.miss"));
+        assertEquals(3, trace.getSpans().size());
+        assertEquals(0, trace.getSpans().get(0).getDepth());
+        assertEquals(1, trace.getSpans().get(1).getDepth());
+        assertEquals(1, trace.getSpans().get(2).getDepth());
+        assertTrue(trace.getSpans().get(2).getDuration() >= 0);
+
+        JSONArray json = tracer.toJson();
+        assertEquals(3, json.length());
+        JSONObject first = json.getJSONObject(0);
+        assertEquals("/page4.html", first.getString(CmsRequestTrace.JSON_URI));
+        assertEquals(1, first.getJSONObject(CmsRequestTrace.JSON_COUNTERS).getInt(CmsRequestTracer.COUNTER_SQL));
+        assertEquals(3, first.getJSONArray(CmsRequestTrace.JSON_SPANS).length());
+        assertEquals("/system/modules/test/elements/head.jsp", first.getJSONArray(CmsRequestTrace.JSON_SPANS).getJSONObject(
+            1).getString(CmsRequestTrace.JSON_DETAIL));
+
+        // without a current trace nothing must happen
+        CmsRequestTracer.startSpan(CmsRequestTracer.SPAN_INCLUDE, null);
+        CmsRequestTracer.count(CmsRequestTracer.COUNTER_SQL);
+        CmsRequestTracer.endSpan();
+        assertNull(CmsRequestTracer.getCurrentTrace());
+    }
+
+    /**
+     * Creates a test request for the given URI.<p>
+     *
+     * @param uri the request URI
+     * @param traceHeader if the trace header should be set
+     *
+     * @return the test request
+     */
+    private HttpServletRequest createRequest(final String uri, final boolean traceHeader) {
+
+        return new OpenCmsTestServletRequest() {
+
+            /**
+             * @see org.opencms.test.OpenCmsTestServletRequest#getHeader(java.lang.String)
+             */
+            @Override
+            public String getHeader(String name) {
+
+                return (traceHeader && HEADER.equals(name)) ? "true" : null;
+            }
+
+            /**
+             * @see org.opencms.test.OpenCmsTestServletRequest#getRequestURI()
+             */
+            @Override
+            public String getRequestURI() {
+
+                return uri;
+            }
+        };
+    }
+}
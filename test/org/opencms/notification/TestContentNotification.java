@@ -35,6 +35,7 @@ import org.opencms.file.CmsUser;
 import org.opencms.file.types.CmsResourceTypeXmlPage;
 import org.opencms.i18n.CmsLocaleManager;
 import org.opencms.main.OpenCms;
+import org.opencms.security.CmsAccessControlEntry;
 import org.opencms.security.I_CmsPrincipal;
 import org.opencms.test.OpenCmsTestCase;
 import org.opencms.test.OpenCmsTestProperties;
@@ -125,47 +126,69 @@ public class TestContentNotification extends OpenCmsTestCase {
         
         // create three users, two of them belonging to a group
         CmsUser fry = cms.createUser("fry", "password", "First test user", new HashMap());
+        // only users with an email address are notified
+        fry.setEmail("fry@opencms.org");
+        cms.writeUser(fry);
          
         // create a number of resources
         String folder = "folder1/";
         String expired01 = "folder1/expired01.html";
         CmsResource expired = cms.createResource(expired01, CmsResourceTypeXmlPage.getStaticTypeId());
-        cms.chacc(expired01, I_CmsPrincipal.PRINCIPAL_USER, fry.getName(), "+s");
+        cms.chacc(expired01, I_CmsPrincipal.PRINCIPAL_USER, fry.getName(), 0, 0, CmsAccessControlEntry.ACCESS_FLAGS_RESPONSIBLE);
         cms.setDateExpired(expired01, inFiveDays.getTimeInMillis(), false);
         
         String expired02 = "folder1/expired02.html";
         cms.createResource(expired02, CmsResourceTypeXmlPage.getStaticTypeId());
-        cms.chacc(expired02, I_CmsPrincipal.PRINCIPAL_USER, fry.getName(), "+s");
+        cms.chacc(expired02, I_CmsPrincipal.PRINCIPAL_USER, fry.getName(), 0, 0, CmsAccessControlEntry.ACCESS_FLAGS_RESPONSIBLE);
         cms.setDateExpired(expired02, inEightDays.getTimeInMillis(), false);
         
         String expired03 = "folder1/expired03.html";
         cms.createResource(expired03, CmsResourceTypeXmlPage.getStaticTypeId());
-        cms.chacc(expired03, I_CmsPrincipal.PRINCIPAL_USER, fry.getName(), "+s");
+        cms.chacc(expired03, I_CmsPrincipal.PRINCIPAL_USER, fry.getName(), 0, 0, CmsAccessControlEntry.ACCESS_FLAGS_RESPONSIBLE);
         cms.setDateExpired(expired03, oneDayBefore.getTimeInMillis(), false);
         
         String released01 = "folder1/released01.html";
         CmsResource released = cms.createResource(released01, CmsResourceTypeXmlPage.getStaticTypeId());
-        cms.chacc(released01, I_CmsPrincipal.PRINCIPAL_USER, fry.getName(), "+s");
+        cms.chacc(released01, I_CmsPrincipal.PRINCIPAL_USER, fry.getName(), 0, 0, CmsAccessControlEntry.ACCESS_FLAGS_RESPONSIBLE);
         cms.setDateReleased(released01, inFiveDays.getTimeInMillis(), false);
         
         String released02Name = "folder1/released02.html";
         cms.createResource(released02Name, CmsResourceTypeXmlPage.getStaticTypeId());
-        cms.chacc(released02Name, I_CmsPrincipal.PRINCIPAL_USER, fry.getName(), "+s");
+        cms.chacc(released02Name, I_CmsPrincipal.PRINCIPAL_USER, fry.getName(), 0, 0, CmsAccessControlEntry.ACCESS_FLAGS_RESPONSIBLE);
         cms.setDateReleased(released02Name, inEightDays.getTimeInMillis(), false);
         
         String released03 = "folder1/released03.html";
         cms.createResource(released03, CmsResourceTypeXmlPage.getStaticTypeId());
-        cms.chacc(released03, I_CmsPrincipal.PRINCIPAL_USER, fry.getName(), "+s");
+        cms.chacc(released03, I_CmsPrincipal.PRINCIPAL_USER, fry.getName(), 0, 0, CmsAccessControlEntry.ACCESS_FLAGS_RESPONSIBLE);
         cms.setDateReleased(released03, oneDayBefore.getTimeInMillis(), false);
         
+        // a sub folder with content notification disabled
+        String disabledFolder = "folder1/subfolder11/";
+        String expired04 = disabledFolder + "expired04.html";
+        cms.createResource(expired04, CmsResourceTypeXmlPage.getStaticTypeId());
+        cms.chacc(expired04, I_CmsPrincipal.PRINCIPAL_USER, fry.getName(), 0, 0, CmsAccessControlEntry.ACCESS_FLAGS_RESPONSIBLE);
+        cms.setDateExpired(expired04, inFiveDays.getTimeInMillis(), false);
+        cms.lockResource(disabledFolder);
+        cms.writePropertyObject(disabledFolder, new CmsProperty(
+            CmsPropertyDefinition.PROPERTY_ENABLE_NOTIFICATION, CmsStringUtil.FALSE, CmsStringUtil.FALSE));
+        cms.unlockResource(disabledFolder);
+
+        // a resource outside of the folder with content notification enabled
+        String expired05 = "folder2/expired05.html";
+        cms.createResource(expired05, CmsResourceTypeXmlPage.getStaticTypeId());
+        cms.chacc(expired05, I_CmsPrincipal.PRINCIPAL_USER, fry.getName(), 0, 0, CmsAccessControlEntry.ACCESS_FLAGS_RESPONSIBLE);
+        cms.setDateExpired(expired05, inFiveDays.getTimeInMillis(), false);
+
         cms.lockResource(folder);
         cms.writePropertyObject(folder, new CmsProperty(
             CmsPropertyDefinition.PROPERTY_ENABLE_NOTIFICATION, CmsStringUtil.TRUE, CmsStringUtil.TRUE));
         cms.unlockResource(folder);
         OpenCms.getPublishManager().publishProject(cms);
         OpenCms.getPublishManager().waitWhileRunning();
-        Iterator notifications = new CmsNotificationCandidates(cms).getContentNotifications().iterator();
+        Collection contentNotifications = new CmsNotificationCandidates(cms).getContentNotifications();
         // there should be exactly one notification
+        assertEquals(1, contentNotifications.size());
+        Iterator notifications = contentNotifications.iterator();
         while (notifications.hasNext()) {
             CmsContentNotification notification = (CmsContentNotification)notifications.next();
             assertTrue(notification.getResponsible().equals(fry)); // fry should be notified;
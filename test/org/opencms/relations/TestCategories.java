@@ -31,12 +31,22 @@ import org.opencms.file.CmsObject;
 import org.opencms.file.CmsProperty;
 import org.opencms.file.CmsPropertyDefinition;
 import org.opencms.file.CmsResource;
+import org.opencms.file.CmsProject;
 import org.opencms.file.types.CmsResourceTypeFolder;
+import org.opencms.main.CmsEvent;
+import org.opencms.main.CmsException;
+import org.opencms.main.I_CmsEventListener;
+import org.opencms.main.OpenCms;
+import org.opencms.security.I_CmsPrincipal;
 import org.opencms.test.OpenCmsTestCase;
 import org.opencms.test.OpenCmsTestLogAppender;
 import org.opencms.test.OpenCmsTestProperties;
+import org.opencms.util.CmsUUID;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 import junit.extensions.TestSetup;
 import junit.framework.Test;
@@ -74,6 +84,9 @@ public class TestCategories extends OpenCmsTestCase {
         // the order is important
         suite.addTest(new TestCategories("testCategoryTree"));
         suite.addTest(new TestCategories("testCategoryTreeAssign"));
+        suite.addTest(new TestCategories("testReadResourceCategoriesBulk"));
+        suite.addTest(new TestCategories("testCategoryTreePermissions"));
+        suite.addTest(new TestCategories("testCategoryTreeExpiration"));
         suite.addTest(new TestCategories("testCategoryBaseFolder"));
         suite.addTest(new TestCategories("testCategoryBaseFolderRepair"));
         suite.addTest(new TestCategories("testCategoryBaseFolderAssign"));
@@ -789,6 +802,168 @@ public class TestCategories extends OpenCmsTestCase {
         assertEquals(cms.readResource("index.html"), resources.get(0));
     }
 
+    /**
+     * Tests that the cached category trees are filtered by the request time.<p>
+     * 
+     * @throws Exception if something goes wrong
+     */
+    public void testCategoryTreeExpiration() throws Exception {
+
+        System.out.println("Testing that the category trees are filtered by the request time.");
+        CmsObject cms = getCmsObject();
+        String siteRoot = cms.getRequestContext().getSiteRoot();
+        long now = cms.getRequestContext().getRequestTime();
+
+        List cats = CmsCategoryService.getInstance().readCategories(cms, null, true, "index.html");
+        assertEquals(3, cats.size());
+        CmsCategory catAA = (CmsCategory)cats.get(1);
+        assertEquals("a/aa/", catAA.getPath());
+
+        // category "a/aa/" expires in one hour
+        cms.getRequestContext().setSiteRoot("");
+        boolean unlocked = cms.getLock(catAA.getRootPath()).isUnlocked();
+        if (unlocked) {
+            cms.lockResource(catAA.getRootPath());
+        }
+        cms.setDateExpired(catAA.getRootPath(), now + (60L * 60L * 1000L), false);
+        cms.getRequestContext().setSiteRoot(siteRoot);
+
+        // the tree is cached with the current request time
+        assertEquals(cats, CmsCategoryService.getInstance().readCategories(cms, null, true, "index.html"));
+
+        // a later request must not see the expired category from the cached tree
+        cms.getRequestContext().setRequestTime(now + (2L * 60L * 60L * 1000L));
+        List laterCats = CmsCategoryService.getInstance().readCategories(cms, null, true, "index.html");
+        assertEquals(2, laterCats.size());
+        assertFalse(laterCats.contains(catAA));
+        try {
+            CmsCategoryService.getInstance().readCategory(cms, "a/aa/", "index.html");
+            fail("expired category must not be readable");
+        } catch (CmsException e) {
+            // expected
+        }
+
+        // and an earlier request sees it again
+        cms.getRequestContext().setRequestTime(now);
+        assertEquals(cats, CmsCategoryService.getInstance().readCategories(cms, null, true, "index.html"));
+
+        // restore the expiration date for the following tests
+        cms.getRequestContext().setSiteRoot("");
+        cms.setDateExpired(catAA.getRootPath(), CmsResource.DATE_EXPIRED_DEFAULT, false);
+        if (unlocked) {
+            cms.unlockResource(catAA.getRootPath());
+        }
+        cms.getRequestContext().setSiteRoot(siteRoot);
+    }
+
+    /**
+     * Tests that the shared category trees are filtered by the read permissions of the current user.<p>
+     * 
+     * @throws Exception if something goes wrong
+     */
+    public void testCategoryTreePermissions() throws Exception {
+
+        System.out.println("Testing that the category trees are filtered by the read permissions.");
+        CmsObject cms = getCmsObject();
+        CmsProject offline = cms.getRequestContext().getCurrentProject();
+        String siteRoot = cms.getRequestContext().getSiteRoot();
+
+        List cats = CmsCategoryService.getInstance().readCategories(cms, null, true, "index.html");
+        assertEquals(3, cats.size());
+        CmsCategory catAA = (CmsCategory)cats.get(1);
+        assertEquals("a/aa/", catAA.getPath());
+
+        // the test user may read everything except category "a/aa/"
+        cms.createUser("catuser", "catuser", "A category test user", null);
+        cms.addUserToGroup("catuser", OpenCms.getDefaultUsers().getGroupUsers());
+        cms.getRequestContext().setSiteRoot("");
+        boolean unlocked = cms.getLock(catAA.getRootPath()).isUnlocked();
+        if (unlocked) {
+            cms.lockResource(catAA.getRootPath());
+        }
+        cms.chacc(catAA.getRootPath(), I_CmsPrincipal.PRINCIPAL_USER, "catuser", "-r");
+        cms.getRequestContext().setSiteRoot(siteRoot);
+        OpenCms.fireCmsEvent(new CmsEvent(I_CmsEventListener.EVENT_CLEAR_CACHES, Collections.<String, Object> emptyMap()));
+
+        // the trees are read for the test user first
+        cms.loginUser("catuser", "catuser");
+        cms.getRequestContext().setCurrentProject(offline);
+        cms.getRequestContext().setSiteRoot(siteRoot);
+        List userCats = CmsCategoryService.getInstance().readCategories(cms, null, true, "index.html");
+        assertEquals(2, userCats.size());
+        assertFalse(userCats.contains(catAA));
+        assertEquals(cats.get(0), CmsCategoryService.getInstance().readCategory(cms, "a/", "index.html"));
+        try {
+            CmsCategoryService.getInstance().readCategory(cms, "a/aa/", "index.html");
+            fail("category must not be readable by the test user");
+        } catch (CmsException e) {
+            // expected
+        }
+
+        // the shared trees still contain all categories
+        cms.loginUser("Admin", "admin");
+        cms.getRequestContext().setCurrentProject(offline);
+        cms.getRequestContext().setSiteRoot(siteRoot);
+        assertEquals(cats, CmsCategoryService.getInstance().readCategories(cms, null, true, "index.html"));
+
+        // restore the permissions for the following tests
+        cms.getRequestContext().setSiteRoot("");
+        cms.rmacc(catAA.getRootPath(), I_CmsPrincipal.PRINCIPAL_USER, "catuser");
+        if (unlocked) {
+            cms.unlockResource(catAA.getRootPath());
+        }
+        cms.getRequestContext().setSiteRoot(siteRoot);
+        cms.deleteUser("catuser");
+    }
+
+    /**
+     * Tests reading the categories of several resources at once.<p>
+     * 
+     * @throws Exception if something goes wrong
+     */
+    public void testReadResourceCategoriesBulk() throws Exception {
+
+        System.out.println("Testing reading the categories of several resources at once.");
+        CmsObject cms = getCmsObject();
+
+        List cats = CmsCategoryService.getInstance().readCategories(cms, null, true, "index.html");
+        CmsCategory catAA = (CmsCategory)cats.get(1);
+        cms.lockResource("/folder1/page1.html");
+        CmsCategoryService.getInstance().addResourceToCategory(cms, "/folder1/page1.html", catAA);
+
+        List<CmsResource> resources = new ArrayList<CmsResource>();
+        resources.add(cms.readResource("/folder1/page2.html"));
+        resources.add(cms.readResource("index.html"));
+        resources.add(cms.readResource("/folder1/page1.html"));
+        Map<CmsResource, List<CmsCategory>> result = CmsCategoryService.getInstance().readResourceCategories(
+            cms,
+            resources);
+
+        // the relations of all resources are read at once, with the same result as for single resources
+        CmsRelationFilter filter = CmsRelationFilter.TARGETS.filterType(CmsRelationType.CATEGORY);
+        Map<CmsUUID, List<CmsRelation>> relations = cms.getRelationsForResources(resources, filter);
+        assertEquals(resources.size(), relations.size());
+        for (CmsResource resource : resources) {
+            assertEquals(cms.getRelationsForResource(resource, filter), relations.get(resource.getStructureId()));
+        }
+
+        // the result must be in the given order and match the single resource reads
+        assertEquals(resources, new ArrayList<CmsResource>(result.keySet()));
+        assertTrue(result.get(resources.get(0)).isEmpty());
+        assertEquals(2, result.get(resources.get(1)).size());
+        assertEquals(2, result.get(resources.get(2)).size());
+        for (CmsResource resource : resources) {
+            assertEquals(
+                CmsCategoryService.getInstance().readResourceCategories(cms, resource),
+                result.get(resource));
+        }
+
+        // restore the categories for the following tests
+        CmsCategoryService.getInstance().removeResourceFromCategory(cms, "/folder1/page1.html", catAA);
+        CmsCategoryService.getInstance().removeResourceFromCategory(cms, "/folder1/page1.html", (CmsCategory)cats.get(0));
+        assertTrue(CmsCategoryService.getInstance().readResourceCategories(cms, "/folder1/page1.html").isEmpty());
+    }
+
     /**
      * Tests copying a file with assigned categories across different category contexts when the categories remain valid.<p>
      * 
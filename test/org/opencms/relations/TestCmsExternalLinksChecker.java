@@ -0,0 +1,410 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.relations;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for the CmsExternalLinksChecker, using a minimal local HTTP server.<p>
+ */
+public class TestCmsExternalLinksChecker extends TestCase {
+
+    /** The local HTTP server. */
+    private CmsTestHttpServer m_server;
+
+    /**
+     * Default JUnit constructor.<p>
+     *
+     * @param arg0 JUnit parameters
+     */
+    public TestCmsExternalLinksChecker(String arg0) {
+
+        super(arg0);
+    }
+
+    /**
+     * Tests that valid URLs are cached and broken URLs are checked again.<p>
+     *
+     * @throws Exception if something goes wrong
+     */
+    public void testCache() throws Exception {
+
+        CmsExternalLinksChecker checker = new CmsExternalLinksChecker(2, 1, 0, 2000, 60000);
+        String ok = m_server.getUrl("/ok?cache");
+        String missing = m_server.getUrl("/missing?cache");
+        for (int i = 0; i < 3; i++) {
+            Map<String, Boolean> result = checker.checkUrls(createList(new String[] {ok, missing}));
+            assertEquals(Boolean.TRUE, result.get(ok));
+            assertEquals(Boolean.FALSE, result.get(missing));
+        }
+        assertEquals(1, m_server.getRequests("HEAD /ok?cache"));
+        assertEquals(3, m_server.getRequests("HEAD /missing?cache"));
+
+        // without a cache time every check requests the URL
+        checker = new CmsExternalLinksChecker(2, 1, 0, 2000, 0);
+        String uncached = m_server.getUrl("/ok?uncached");
+        assertTrue(checker.checkUrl(uncached));
+        assertTrue(checker.checkUrl(uncached));
+        assertEquals(2, m_server.getRequests("HEAD /ok?uncached"));
+
+        CmsExternalLinksChecker.clearCache();
+        checker = new CmsExternalLinksChecker(2, 1, 0, 2000, 60000);
+        assertTrue(checker.checkUrl(ok));
+        assertEquals(2, m_server.getRequests("HEAD /ok?cache"));
+    }
+
+    /**
+     * Tests the concurrent checks with the per host limit and delay.<p>
+     *
+     * @throws Exception if something goes wrong
+     */
+    public void testConcurrentChecks() throws Exception {
+
+        CmsExternalLinksChecker checker = new CmsExternalLinksChecker(8, 2, 0, 5000, 0);
+        List<String> urls = new ArrayList<String>();
+        for (int i = 0; i < 20; i++) {
+            urls.add(m_server.getUrl("/slow?" + i));
+            // the same server under a second host name
+            urls.add(m_server.getUrl("/slow?" + i).replace("127.0.0.1", "localhost"));
+        }
+        urls.add(m_server.getUrl("/missing?concurrent"));
+        urls.add("/relative/link.html");
+        urls.add("mailto:someone@example.org");
+
+        Map<String, Boolean> result = checker.checkUrls(urls);
+        assertEquals(urls.size(), result.size());
+        for (int i = 0; i < 40; i++) {
+            assertEquals(urls.get(i), Boolean.TRUE, result.get(urls.get(i)));
+        }
+        assertEquals(Boolean.FALSE, result.get(m_server.getUrl("/missing?concurrent")));
+        // relative links can not be checked without a VFS
+        assertEquals(Boolean.FALSE, result.get("/relative/link.html"));
+        assertEquals(Boolean.TRUE, result.get("mailto:someone@example.org"));
+
+        // both hosts were checked at the same time, but each by at most 2 connections
+        assertTrue(m_server.getMaxConcurrent("127.0.0.1") <= 2);
+        assertTrue(m_server.getMaxConcurrent("localhost") <= 2);
+        assertTrue(m_server.getMaxConcurrent(null) > 2);
+
+        // the requests to one host are at least the delay apart
+        checker = new CmsExternalLinksChecker(8, 4, 100, 5000, 0);
+        urls.clear();
+        for (int i = 0; i < 5; i++) {
+            urls.add(m_server.getUrl("/ok?delay" + i));
+        }
+        long start = System.currentTimeMillis();
+        result = checker.checkUrls(urls);
+        assertTrue(System.currentTimeMillis() - start >= 400);
+        assertFalse(result.containsValue(Boolean.FALSE));
+    }
+
+    /**
+     * Tests the fallback from HEAD to GET requests.<p>
+     *
+     * @throws Exception if something goes wrong
+     */
+    public void testHeadThenGet() throws Exception {
+
+        CmsExternalLinksChecker checker = new CmsExternalLinksChecker(1, 1, 0, 2000, 0);
+
+        assertTrue(checker.checkUrl(m_server.getUrl("/ok")));
+        assertEquals(1, m_server.getRequests("HEAD /ok"));
+        assertEquals(0, m_server.getRequests("GET /ok"));
+
+        assertTrue(checker.checkUrl(m_server.getUrl("/nohead")));
+        assertEquals(1, m_server.getRequests("HEAD /nohead"));
+        assertEquals(1, m_server.getRequests("GET /nohead"));
+
+        assertFalse(checker.checkUrl(m_server.getUrl("/missing")));
+        assertEquals(1, m_server.getRequests("HEAD /missing"));
+        assertEquals(1, m_server.getRequests("GET /missing"));
+    }
+
+    /**
+     * Tests that URLs timing out are broken.<p>
+     *
+     * @throws Exception if something goes wrong
+     */
+    public void testTimeout() throws Exception {
+
+        CmsExternalLinksChecker checker = new CmsExternalLinksChecker(1, 1, 0, 200, 0);
+        assertFalse(checker.checkUrl(m_server.getUrl("/hang")));
+        // a timeout is not retried with GET
+        assertEquals(0, m_server.getRequests("GET /hang"));
+    }
+
+    /**
+     * @see junit.framework.TestCase#setUp()
+     */
+    @Override
+    protected void setUp() throws Exception {
+
+        m_server = new CmsTestHttpServer();
+    }
+
+    /**
+     * @see junit.framework.TestCase#tearDown()
+     */
+    @Override
+    protected void tearDown() throws Exception {
+
+        m_server.close();
+    }
+
+    /**
+     * Creates a list from the given array.<p>
+     *
+     * @param values the values
+     *
+     * @return the list
+     */
+    private List<String> createList(String[] values) {
+
+        List<String> result = new ArrayList<String>();
+        Collections.addAll(result, values);
+        return result;
+    }
+
+    /**
+     * Minimal HTTP server answering depending on the request path.<p>
+     *
+     * <ul>
+     * <li><code>/ok</code>: 200</li>
+     * <li><code>/slow</code>: 200 after a short delay</li>
+     * <li><code>/nohead</code>: 405 for HEAD, 200 for GET</li>
+     * <li><code>/hang</code>: no answer</li>
+     * <li>all other paths: 404</li>
+     * </ul>
+     */
+    private static class CmsTestHttpServer implements Runnable {
+
+        /** The number of currently open requests, by host and in total. */
+        private Map<String, Integer> m_concurrent = new HashMap<String, Integer>();
+
+        /** The maximum number of open requests, by host and in total. */
+        private Map<String, Integer> m_maxConcurrent = new HashMap<String, Integer>();
+
+        /** The number of requests, by method and path. */
+        private Map<String, Integer> m_requests = new HashMap<String, Integer>();
+
+        /** The server socket. */
+        private ServerSocket m_socket;
+
+        /**
+         * Starts the server on a free port.<p>
+         *
+         * @throws IOException if the server can not be started
+         */
+        CmsTestHttpServer()
+        throws IOException {
+
+            m_socket = new ServerSocket(0);
+            Thread thread = new Thread(this, "TestCmsExternalLinksChecker server");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        /**
+         * @see java.lang.Runnable#run()
+         */
+        public void run() {
+
+            while (!m_socket.isClosed()) {
+                try {
+                    final Socket socket = m_socket.accept();
+                    Thread handler = new Thread(new Runnable() {
+
+                        public void run() {
+
+                            handle(socket);
+                        }
+                    });
+                    handler.setDaemon(true);
+                    handler.start();
+                } catch (IOException e) {
+                    // server closed
+                }
+            }
+        }
+
+        /**
+         * Stops the server.<p>
+         *
+         * @throws IOException if closing the socket fails
+         */
+        void close() throws IOException {
+
+            m_socket.close();
+        }
+
+        /**
+         * Returns the maximum number of open requests for the given host.<p>
+         *
+         * @param host the host, or <code>null</code> for all hosts
+         *
+         * @return the maximum number of open requests
+         */
+        synchronized int getMaxConcurrent(String host) {
+
+            Integer max = m_maxConcurrent.get(String.valueOf(host));
+            return (max == null) ? 0 : max.intValue();
+        }
+
+        /**
+         * Returns the number of requests with the given method and path.<p>
+         *
+         * @param request the method and path, separated by a space
+         *
+         * @return the number of requests
+         */
+        synchronized int getRequests(String request) {
+
+            Integer count = m_requests.get(request);
+            return (count == null) ? 0 : count.intValue();
+        }
+
+        /**
+         * Returns the absolute URL for the given path.<p>
+         *
+         * @param path the path
+         *
+         * @return the URL
+         */
+        String getUrl(String path) {
+
+            return "http://127.0.0.1:" + m_socket.getLocalPort() + path;
+        }
+
+        /**
+         * Adds the given value to a counter.<p>
+         *
+         * @param counters the counters
+         * @param key the key of the counter
+         * @param value the value to add
+         *
+         * @return the new value of the counter
+         */
+        private int count(Map<String, Integer> counters, String key, int value) {
+
+            Integer count = counters.get(key);
+            int result = ((count == null) ? 0 : count.intValue()) + value;
+            counters.put(key, new Integer(result));
+            return result;
+        }
+
+        /**
+         * Changes the number of open requests for the given host.<p>
+         *
+         * @param host the host
+         * @param value the value to add
+         */
+        private synchronized void countConcurrent(String host, int value) {
+
+            String[] keys = {host, String.valueOf((Object)null)};
+            for (int i = 0; i < keys.length; i++) {
+                int concurrent = count(m_concurrent, keys[i], value);
+                if (concurrent > getMaxConcurrent(keys[i])) {
+                    m_maxConcurrent.put(keys[i], new Integer(concurrent));
+                }
+            }
+        }
+
+        /**
+         * Answers a single request.<p>
+         *
+         * @param socket the connection
+         */
+        private void handle(Socket socket) {
+
+            String host = null;
+            try {
+                BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), "ISO-8859-1"));
+                String[] request = in.readLine().split(" ");
+                String line = in.readLine();
+                while ((line != null) && (line.length() > 0)) {
+                    if (line.toLowerCase().startsWith("host:")) {
+                        host = line.substring(5).trim();
+                        host = host.substring(0, host.indexOf(':'));
+                    }
+                    line = in.readLine();
+                }
+                countConcurrent(host, 1);
+                synchronized (this) {
+                    count(m_requests, request[0] + " " + request[1], 1);
+                }
+                String path = request[1].split("\\?")[0];
+                String status = "404 Not Found";
+                if ("/ok".equals(path)) {
+                    status = "200 OK";
+                } else if ("/slow".equals(path)) {
+                    Thread.sleep(50);
+                    status = "200 OK";
+                } else if ("/nohead".equals(path)) {
+                    status = "HEAD".equals(request[0]) ? "405 Method Not Allowed" : "200 OK";
+                } else if ("/hang".equals(path)) {
+                    Thread.sleep(2000);
+                }
+                // count the request as finished before the client can see the answer
+                countConcurrent(host, -1);
+                host = null;
+                String body = "HEAD".equals(request[0]) ? "" : "<html><body>" + status + "</body></html>";
+                OutputStream out = socket.getOutputStream();
+                out.write(("HTTP/1.1 "
+                    + status
+                    + "\r\nContent-Type: text/html\r\nContent-Length: "
+                    + body.length()
+                    + "\r\nConnection: close\r\n\r\n"
+                    + body).getBytes("ISO-8859-1"));
+                out.flush();
+            } catch (Exception e) {
+                // the client closed the connection
+            } finally {
+                if (host != null) {
+                    countConcurrent(host, -1);
+                }
+                try {
+                    socket.close();
+                } catch (IOException e) {
+                    // ignore
+                }
+            }
+        }
+    }
+}
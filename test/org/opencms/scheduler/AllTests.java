@@ -59,6 +59,7 @@ public final class AllTests {
         OpenCmsTestProperties.initialize(org.opencms.test.AllTests.TEST_PROPERTIES_PATH);
         //$JUnit-BEGIN$
         suite.addTest(new TestSuite(TestCmsScheduler.class));
+        suite.addTest(new TestSuite(TestCmsScheduledJobExecutor.class));
         suite.addTest(TestCmsSchedulerInSystem.suite());
         //$JUnit-END$
         return suite;
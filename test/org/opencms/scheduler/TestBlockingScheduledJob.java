@@ -0,0 +1,63 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.scheduler;
+
+import org.opencms.file.CmsObject;
+
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Test class for OpenCms scheduled jobs that block until they are released.<p>
+ */
+public class TestBlockingScheduledJob implements I_CmsScheduledJob {
+
+    /** Released by the test to let the running jobs finish. */
+    static CountDownLatch m_release;
+
+    /** Counted down by every job that started. */
+    static CountDownLatch m_started;
+
+    /** The name of the thread the last job was started in. */
+    static String m_threadName;
+
+    /**
+     * @see org.opencms.scheduler.I_CmsScheduledJob#launch(CmsObject, Map)
+     */
+    public String launch(CmsObject cms, Map parameters) throws Exception {
+
+        m_threadName = Thread.currentThread().getName();
+        m_started.countDown();
+        if (!m_release.await(TestCmsScheduler.SECONDS_TO_WAIT, TimeUnit.SECONDS)) {
+            throw new Exception("Blocking test job was not released.");
+        }
+        return "OpenCms blocking test job was run.";
+    }
+}
@@ -0,0 +1,229 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.scheduler;
+
+import org.opencms.main.CmsContextInfo;
+import org.opencms.main.CmsIllegalArgumentException;
+import org.opencms.main.OpenCms;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.TestCase;
+
+/** 
+ * Test cases for the OpenCms scheduled job executor.<p>
+ */
+public class TestCmsScheduledJobExecutor extends TestCase {
+
+    /**
+     * Default JUnit constructor.<p>
+     * 
+     * @param arg0 JUnit parameters
+     */
+    public TestCmsScheduledJobExecutor(String arg0) {
+
+        super(arg0);
+    }
+
+    /**
+     * Tests that the maximum number of concurrent executions of a job is not exceeded.<p>
+     *  
+     * @throws Exception if something goes wrong
+     */
+    public void testConcurrencyLimit() throws Exception {
+
+        System.out.println("Testing the maximum number of concurrent executions of a scheduled job.");
+        CmsScheduledJobExecutor executor = new CmsScheduledJobExecutor(CmsScheduledJobExecutor.EXECUTOR_POOL);
+        CmsScheduledJobInfo jobInfo = createJobInfo("concurrent", TestBlockingScheduledJob.class.getName());
+        jobInfo.setMaxConcurrent(2);
+        TestBlockingScheduledJob.m_started = new CountDownLatch(2);
+        TestBlockingScheduledJob.m_release = new CountDownLatch(1);
+        try {
+            executor.execute(jobInfo);
+            executor.execute(jobInfo);
+            executor.execute(jobInfo);
+            assertTrue(TestBlockingScheduledJob.m_started.await(TestCmsScheduler.SECONDS_TO_WAIT, TimeUnit.SECONDS));
+            CmsScheduledJobStatistics statistics = executor.getStatistics(jobInfo.getId());
+            assertEquals(2, statistics.getRunningCount());
+            assertEquals(1, statistics.getSkippedCount());
+        } finally {
+            TestBlockingScheduledJob.m_release.countDown();
+        }
+        CmsScheduledJobStatistics statistics = waitForExecutions(executor, jobInfo);
+        assertEquals(2, statistics.getExecutionCount());
+        assertEquals(0, statistics.getFailureCount());
+        executor.shutDown();
+    }
+
+    /**
+     * Tests the configuration of the maximum number of concurrent executions.<p>
+     *  
+     * @throws Exception if something goes wrong
+     */
+    public void testMaxConcurrentConfiguration() throws Exception {
+
+        System.out.println("Testing the configuration of the maximum number of concurrent executions.");
+        CmsScheduledJobInfo jobInfo = createJobInfo("config", TestScheduledJob.class.getName());
+        assertEquals(1, jobInfo.getMaxConcurrent());
+        jobInfo.setMaxConcurrent(0);
+        assertEquals(0, ((CmsScheduledJobInfo)jobInfo.clone()).getMaxConcurrent());
+        try {
+            jobInfo.setMaxConcurrent(-1);
+            fail("Negative number of concurrent executions must not be allowed");
+        } catch (CmsIllegalArgumentException e) {
+            // ok
+        }
+    }
+
+    /**
+     * Tests executing jobs in the thread of the caller.<p>
+     *  
+     * @throws Exception if something goes wrong
+     */
+    public void testSchedulerThreadExecution() throws Exception {
+
+        System.out.println("Testing the execution of scheduled jobs in the scheduler thread.");
+        TestScheduledJob.m_runCount = 0;
+        CmsScheduledJobExecutor executor = new CmsScheduledJobExecutor((String)null);
+        assertEquals(CmsScheduledJobExecutor.EXECUTOR_SCHEDULER, executor.toString());
+        CmsScheduledJobInfo jobInfo = createJobInfo("direct", TestScheduledJob.class.getName());
+        executor.execute(jobInfo);
+        executor.execute(jobInfo);
+        assertEquals(2, TestScheduledJob.m_runCount);
+
+        CmsScheduledJobStatistics statistics = executor.getStatistics(jobInfo.getId());
+        assertEquals(0, statistics.getRunningCount());
+        assertEquals(2, statistics.getExecutionCount());
+        assertEquals(0, statistics.getSkippedCount());
+        long[] histogram = statistics.getHistogram();
+        assertEquals(CmsScheduledJobStatistics.getHistogramLimits().length + 1, histogram.length);
+        // the test job is fast
+        assertEquals(2, histogram[0]);
+    }
+
+    /**
+     * Tests that an execution is skipped while the previous execution of the job is still running.<p>
+     *  
+     * @throws Exception if something goes wrong
+     */
+    public void testSkipRunningExecution() throws Exception {
+
+        System.out.println("Testing skipping the execution of a scheduled job that is still running.");
+        CmsScheduledJobExecutor executor = new CmsScheduledJobExecutor(CmsScheduledJobExecutor.EXECUTOR_POOL);
+        CmsScheduledJobInfo jobInfo = createJobInfo("skip", TestBlockingScheduledJob.class.getName());
+        TestBlockingScheduledJob.m_started = new CountDownLatch(1);
+        TestBlockingScheduledJob.m_release = new CountDownLatch(1);
+        try {
+            executor.execute(jobInfo);
+            assertTrue(TestBlockingScheduledJob.m_started.await(TestCmsScheduler.SECONDS_TO_WAIT, TimeUnit.SECONDS));
+            // the job runs in the pool, not in the calling thread
+            assertTrue(TestBlockingScheduledJob.m_threadName.startsWith("OpenCms: Scheduled job #"));
+            executor.execute(jobInfo);
+            CmsScheduledJobStatistics statistics = executor.getStatistics(jobInfo.getId());
+            assertEquals(1, statistics.getRunningCount());
+            assertEquals(1, statistics.getSkippedCount());
+        } finally {
+            TestBlockingScheduledJob.m_release.countDown();
+        }
+        CmsScheduledJobStatistics statistics = waitForExecutions(executor, jobInfo);
+        assertEquals(1, statistics.getExecutionCount());
+
+        // the job can run again after the previous execution has finished
+        TestBlockingScheduledJob.m_started = new CountDownLatch(1);
+        executor.execute(jobInfo);
+        assertTrue(TestBlockingScheduledJob.m_started.await(TestCmsScheduler.SECONDS_TO_WAIT, TimeUnit.SECONDS));
+        statistics = waitForExecutions(executor, jobInfo);
+        assertEquals(2, statistics.getExecutionCount());
+        assertEquals(1, statistics.getSkippedCount());
+        executor.shutDown();
+    }
+
+    /**
+     * Tests executing jobs in virtual threads, or in the thread pool if virtual threads are not available.<p>
+     *  
+     * @throws Exception if something goes wrong
+     */
+    public void testVirtualThreadExecution() throws Exception {
+
+        System.out.println("Testing the execution of scheduled jobs in virtual threads.");
+        CmsScheduledJobExecutor executor = new CmsScheduledJobExecutor(CmsScheduledJobExecutor.EXECUTOR_VIRTUAL);
+        assertEquals(CmsScheduledJobExecutor.EXECUTOR_VIRTUAL, executor.toString());
+        CmsScheduledJobInfo jobInfo = createJobInfo("virtual", TestBlockingScheduledJob.class.getName());
+        TestBlockingScheduledJob.m_started = new CountDownLatch(1);
+        TestBlockingScheduledJob.m_release = new CountDownLatch(1);
+        executor.execute(jobInfo);
+        TestBlockingScheduledJob.m_release.countDown();
+        assertTrue(TestBlockingScheduledJob.m_started.await(TestCmsScheduler.SECONDS_TO_WAIT, TimeUnit.SECONDS));
+        assertTrue(TestBlockingScheduledJob.m_threadName.startsWith("OpenCms: Scheduled job #"));
+        assertEquals(1, waitForExecutions(executor, jobInfo).getExecutionCount());
+        executor.shutDown();
+    }
+
+    /**
+     * Creates a job info for the given job class.<p>
+     * 
+     * @param id the job id
+     * @param className the job class name
+     * 
+     * @return the job info
+     */
+    private CmsScheduledJobInfo createJobInfo(String id, String className) {
+
+        CmsScheduledJobInfo jobInfo = new CmsScheduledJobInfo();
+        CmsContextInfo contextInfo = new CmsContextInfo();
+        contextInfo.setUserName(OpenCms.getDefaultUsers().getUserAdmin());
+        jobInfo.setContextInfo(contextInfo);
+        jobInfo.setClassName(className);
+        jobInfo.setCronExpression("0/2 * * * * ?");
+        jobInfo.setId(id);
+        return jobInfo;
+    }
+
+    /**
+     * Waits until no execution of the given job is running any more.<p>
+     * 
+     * @param executor the executor
+     * @param jobInfo the job
+     * 
+     * @return the statistics of the job
+     * 
+     * @throws InterruptedException if interrupted while waiting
+     */
+    private CmsScheduledJobStatistics waitForExecutions(CmsScheduledJobExecutor executor, CmsScheduledJobInfo jobInfo)
+    throws InterruptedException {
+
+        CmsScheduledJobStatistics statistics = executor.getStatistics(jobInfo.getId());
+        for (int i = 0; (i < (TestCmsScheduler.SECONDS_TO_WAIT * 10)) && (statistics.getRunningCount() > 0); i++) {
+            Thread.sleep(100);
+        }
+        assertEquals(0, statistics.getRunningCount());
+        return statistics;
+    }
+}
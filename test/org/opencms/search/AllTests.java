@@ -59,11 +59,13 @@ public final class AllTests {
         OpenCmsTestProperties.initialize(org.opencms.test.AllTests.TEST_PROPERTIES_PATH);
         //$JUnit-BEGIN$
         suite.addTest(new TestSuite(TestCmsSearchUtils.class));
+        suite.addTest(new TestSuite(TestCmsSearchIndexDirectory.class));
         suite.addTest(TestCmsSearch.suite());
         suite.addTest(TestCmsSearchFields.suite());
         suite.addTest(TestCmsSearchInDocuments.suite());
         suite.addTest(TestCmsSearchAdvancedFeatures.suite());
         suite.addTest(TestCmsSearchOffline.suite());
+        suite.addTest(TestCmsSearchOnlineUpdateQueue.suite());
         //$JUnit-END$
         return suite;
     }
@@ -0,0 +1,92 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.search;
+
+import org.opencms.file.CmsObject;
+import org.opencms.file.CmsResource;
+import org.opencms.main.CmsException;
+import org.opencms.search.documents.CmsDocumentPlainText;
+import org.opencms.search.extractors.I_CmsExtractionResult;
+
+/**
+ * Plain text document factory that counts how often the text of a resource is extracted.<p>
+ * 
+ * @since 8.0.2
+ */
+public class CmsTestCountingDocument extends CmsDocumentPlainText {
+
+    /** The number of text extractions since the last reset. */
+    private static int m_extractions;
+
+    /**
+     * Creates a new instance of this lucene document factory.<p>
+     * 
+     * @param name name of the documenttype
+     */
+    public CmsTestCountingDocument(String name) {
+
+        super(name);
+    }
+
+    /**
+     * Returns the number of text extractions since the last reset.<p>
+     * 
+     * @return the number of text extractions since the last reset
+     */
+    public static synchronized int getExtractions() {
+
+        return m_extractions;
+    }
+
+    /**
+     * Resets the number of text extractions.<p>
+     */
+    public static synchronized void resetExtractions() {
+
+        m_extractions = 0;
+    }
+
+    /**
+     * Increments the number of text extractions.<p>
+     */
+    private static synchronized void incrementExtractions() {
+
+        m_extractions++;
+    }
+
+    /**
+     * @see org.opencms.search.documents.CmsDocumentPlainText#extractContent(org.opencms.file.CmsObject, org.opencms.file.CmsResource, org.opencms.search.CmsSearchIndex)
+     */
+    @Override
+    public I_CmsExtractionResult extractContent(CmsObject cms, CmsResource resource, CmsSearchIndex index)
+    throws CmsException {
+
+        incrementExtractions();
+        return super.extractContent(cms, resource, index);
+    }
+}
@@ -86,6 +86,7 @@ public class TestCmsSearchAdvancedFeatures extends OpenCmsTestCase {
 
         suite.addTest(new TestCmsSearchAdvancedFeatures("testSortSearchResults"));
         suite.addTest(new TestCmsSearchAdvancedFeatures("testSearchCategories"));
+        suite.addTest(new TestCmsSearchAdvancedFeatures("testSearchFacets"));
         suite.addTest(new TestCmsSearchAdvancedFeatures("testMultipleSearchRoots"));
         suite.addTest(new TestCmsSearchAdvancedFeatures("testSearchRestriction"));
         suite.addTest(new TestCmsSearchAdvancedFeatures("testLimitTimeRanges"));
@@ -495,6 +496,92 @@ public class TestCmsSearchAdvancedFeatures extends OpenCmsTestCase {
         }
     }
 
+    /**
+     * Tests counting search facets.<p>
+     * 
+     * @throws Exception if the test fails
+     */
+    public void testSearchFacets() throws Exception {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing counting search facets");
+
+        CmsSearch searchBean = new CmsSearch();
+        List<CmsSearchResult> searchResult;
+
+        searchBean.init(cms);
+        searchBean.setIndex(INDEX_OFFLINE);
+        searchBean.setQuery("OpenCms");
+        searchBean.setMatchesPerPage(1000);
+        searchBean.setCalculateCategories(true);
+        searchBean.getParameters().addFacet(CmsSearchField.FIELD_TYPE);
+        // count the documents per year of last modification
+        CmsSearchParameters.CmsSearchFacet yearFacet = new CmsSearchParameters.CmsSearchFacet(
+            CmsSearchField.FIELD_DATE_LASTMODIFIED,
+            4);
+        searchBean.getParameters().addFacet(yearFacet);
+        // count the documents per month of last modification, using the same field
+        CmsSearchParameters.CmsSearchFacet monthFacet = new CmsSearchParameters.CmsSearchFacet(
+            CmsSearchField.FIELD_DATE_LASTMODIFIED,
+            6);
+        searchBean.getParameters().addFacet(monthFacet);
+        // every document has many parent folders, all starting with "/"
+        CmsSearchParameters.CmsSearchFacet rootFacet = new CmsSearchParameters.CmsSearchFacet(
+            CmsSearchField.FIELD_PARENT_FOLDERS,
+            1);
+        searchBean.getParameters().addFacet(rootFacet);
+
+        searchResult = searchBean.getSearchResult();
+        Map<String, Map<String, Integer>> facets = searchBean.getSearchResultFacets();
+        assertNotNull(facets);
+        assertEquals(4, facets.size());
+        // categories must be calculated in the same search
+        assertNotNull(searchBean.getSearchResultCategories());
+
+        // every document has exactly one type and one date of last modification
+        Map<String, Integer> types = facets.get(CmsSearchField.FIELD_TYPE);
+        System.out.println(CmsSearchCategoryCollector.formatCategoryMap(types));
+        int count = 0;
+        for (Integer typeCount : types.values()) {
+            count += typeCount.intValue();
+        }
+        assertEquals(searchResult.size(), count);
+        Map<String, Integer> years = facets.get(yearFacet.getName());
+        System.out.println(CmsSearchCategoryCollector.formatCategoryMap(years));
+        count = 0;
+        for (Map.Entry<String, Integer> entry : years.entrySet()) {
+            assertEquals(4, entry.getKey().length());
+            count += entry.getValue().intValue();
+        }
+        assertEquals(searchResult.size(), count);
+        Map<String, Integer> months = facets.get(monthFacet.getName());
+        System.out.println(CmsSearchCategoryCollector.formatCategoryMap(months));
+        count = 0;
+        for (Map.Entry<String, Integer> entry : months.entrySet()) {
+            assertEquals(6, entry.getKey().length());
+            count += entry.getValue().intValue();
+        }
+        assertEquals(searchResult.size(), count);
+
+        // a document with many values that have the same prefix must be counted only once
+        Map<String, Integer> roots = facets.get(rootFacet.getName());
+        System.out.println(CmsSearchCategoryCollector.formatCategoryMap(roots));
+        assertEquals(1, roots.size());
+        assertEquals(searchResult.size(), roots.get("/").intValue());
+
+        // the type facet must match the result of a search restricted to the type
+        Integer plainCount = types.get(CmsResourceTypePlain.getStaticTypeName());
+        assertNotNull(plainCount);
+        searchBean.setCalculateCategories(false);
+        searchBean.getParameters().setFacets(null);
+        searchBean.setResourceType(CmsResourceTypePlain.getStaticTypeName());
+        searchBean.init(cms);
+        searchResult = searchBean.getSearchResult();
+        assertEquals(plainCount.intValue(), searchResult.size());
+        assertNull(searchBean.getSearchResultFacets());
+        searchBean.setResourceTypes(null);
+    }
+
     /**
      * Tests searching with restrictions.<p>
      * 
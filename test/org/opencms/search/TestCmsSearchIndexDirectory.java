@@ -0,0 +1,263 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.search;
+
+import org.opencms.search.fields.CmsSearchField;
+import org.opencms.test.OpenCmsTestLogAppender;
+import org.opencms.util.CmsFileUtil;
+
+import java.io.File;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.store.MMapDirectory;
+import org.apache.lucene.store.NIOFSDirectory;
+import org.apache.lucene.store.SimpleFSDirectory;
+
+/**
+ * Tests the configurable Lucene directory implementation of the search index.<p>
+ *
+ * Also checks that all available directory implementations find the same documents 
+ * in a generated test corpus.<p>
+ */
+public class TestCmsSearchIndexDirectory extends TestCase {
+
+    /** The number of documents in the generated test corpus. */
+    private static final int CORPUS_SIZE = 2000;
+
+    /** The number of queries executed per directory implementation. */
+    private static final int QUERY_COUNT = 200;
+
+    /** The words used to generate the test corpus. */
+    private static final int WORD_COUNT = 5000;
+
+    /**
+     * Default JUnit constructor.<p>
+     *
+     * @param arg0 JUnit parameters
+     */
+    public TestCmsSearchIndexDirectory(String arg0) {
+
+        super(arg0);
+    }
+
+    /**
+     * Tests the configuration of the directory implementation.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testDirectoryConfiguration() throws Exception {
+
+        File path = new File(System.getProperty("java.io.tmpdir"), "opencms-test-directory-" + System.nanoTime());
+        try {
+            CmsSearchIndex index = new CmsSearchIndex();
+            index.addConfigurationParameter(CmsSearchIndex.LUCENE_DIRECTORY, "MMap");
+            assertEquals(CmsSearchIndex.LUCENE_DIRECTORY_MMAP, index.getConfiguration().get(
+                CmsSearchIndex.LUCENE_DIRECTORY));
+            assertDirectory(index, path, MMapDirectory.class);
+
+            index.addConfigurationParameter(CmsSearchIndex.LUCENE_DIRECTORY, CmsSearchIndex.LUCENE_DIRECTORY_NIO);
+            assertDirectory(index, path, NIOFSDirectory.class);
+
+            index.addConfigurationParameter(CmsSearchIndex.LUCENE_DIRECTORY, CmsSearchIndex.LUCENE_DIRECTORY_SIMPLE);
+            assertDirectory(index, path, SimpleFSDirectory.class);
+
+            // an invalid value must not change the configured directory
+            OpenCmsTestLogAppender.setBreakOnError(false);
+            try {
+                index.addConfigurationParameter(CmsSearchIndex.LUCENE_DIRECTORY, "invalid");
+            } finally {
+                OpenCmsTestLogAppender.setBreakOnError(true);
+            }
+            assertDirectory(index, path, SimpleFSDirectory.class);
+
+            // without configuration Lucene chooses the directory
+            index = new CmsSearchIndex();
+            assertNull(index.getConfiguration().get(CmsSearchIndex.LUCENE_DIRECTORY));
+            assertDirectory(index, path, FSDirectory.class);
+        } finally {
+            CmsFileUtil.purgeDirectory(path);
+        }
+    }
+
+    /**
+     * Tests that all available directory implementations find the same documents.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testDirectoryResults() throws Exception {
+
+        File path = createCorpus();
+        try {
+            String[] directories = new String[] {
+                CmsSearchIndex.LUCENE_DIRECTORY_SIMPLE,
+                CmsSearchIndex.LUCENE_DIRECTORY_NIO,
+                CmsSearchIndex.LUCENE_DIRECTORY_MMAP,
+                CmsSearchIndex.LUCENE_DIRECTORY_AUTO};
+            int[] totalHits = new int[directories.length];
+            for (int i = 0; i < directories.length; i++) {
+                CmsSearchIndex index = new CmsSearchIndex();
+                index.addConfigurationParameter(CmsSearchIndex.LUCENE_DIRECTORY, directories[i]);
+                Directory dir = index.createIndexDirectory(path);
+                try {
+                    IndexSearcher searcher = new IndexSearcher(IndexReader.open(dir));
+                    try {
+                        totalHits[i] = runQueries(searcher, QUERY_COUNT);
+                    } finally {
+                        searcher.getIndexReader().close();
+                        searcher.close();
+                    }
+                } finally {
+                    dir.close();
+                }
+                // all directory implementations must find the same documents
+                assertEquals(directories[i], totalHits[0], totalHits[i]);
+            }
+            assertTrue(totalHits[0] > 0);
+        } finally {
+            CmsFileUtil.purgeDirectory(path);
+        }
+    }
+
+    /**
+     * Asserts that the given index creates a directory of the given type for the given path.<p>
+     *
+     * @param index the index to create the directory with
+     * @param path the path of the directory
+     * @param type the expected directory type
+     *
+     * @throws Exception if something goes wrong
+     */
+    private void assertDirectory(CmsSearchIndex index, File path, Class<? extends Directory> type) throws Exception {
+
+        Directory dir = index.createIndexDirectory(path);
+        try {
+            assertTrue(dir.getClass().getName(), type.isInstance(dir));
+        } finally {
+            dir.close();
+        }
+    }
+
+    /**
+     * Creates the test corpus in a temporary directory.<p>
+     *
+     * @return the directory of the test corpus
+     *
+     * @throws Exception if something goes wrong
+     */
+    private File createCorpus() throws Exception {
+
+        File path = new File(System.getProperty("java.io.tmpdir"), "opencms-test-corpus-" + System.nanoTime());
+        Directory dir = new SimpleFSDirectory(path);
+        IndexWriter writer = new IndexWriter(dir, new IndexWriterConfig(
+            CmsSearchIndex.LUCENE_VERSION,
+            new StandardAnalyzer(CmsSearchIndex.LUCENE_VERSION)));
+        Random random = new Random(42);
+        for (int i = 0; i < CORPUS_SIZE; i++) {
+            StringBuffer content = new StringBuffer(1024);
+            for (int j = 0; j < 100; j++) {
+                content.append(getWord(random)).append(' ');
+            }
+            Document doc = new Document();
+            doc.add(new Field(
+                CmsSearchField.FIELD_PATH,
+                "/sites/default/doc" + i + ".html",
+                Field.Store.YES,
+                Field.Index.NOT_ANALYZED));
+            doc.add(new Field(
+                CmsSearchField.FIELD_CONTENT,
+                content.toString(),
+                Field.Store.YES,
+                Field.Index.ANALYZED));
+            writer.addDocument(doc);
+        }
+        writer.close();
+        dir.close();
+        return path;
+    }
+
+    /**
+     * Returns a random word, with a skewed distribution so that some words are much more frequent than others.<p>
+     *
+     * @param random the random generator to use
+     *
+     * @return a random word
+     */
+    private String getWord(Random random) {
+
+        int word = (int)(WORD_COUNT * Math.pow(random.nextDouble(), 3));
+        return "w" + Integer.toString(word, 36);
+    }
+
+    /**
+     * Executes the given number of two word queries with the given searcher.<p>
+     *
+     * @param searcher the searcher to use
+     * @param count the number of queries to execute
+     *
+     * @return the total number of hits of all queries
+     *
+     * @throws Exception if something goes wrong
+     */
+    private int runQueries(IndexSearcher searcher, int count) throws Exception {
+
+        // use the same queries for every directory implementation
+        Random random = new Random(4711);
+        int totalHits = 0;
+        for (int i = 0; i < count; i++) {
+            BooleanQuery query = new BooleanQuery();
+            for (int j = 0; j < 2; j++) {
+                Query termQuery = new TermQuery(new Term(CmsSearchField.FIELD_CONTENT, getWord(random)));
+                query.add(termQuery, BooleanClause.Occur.SHOULD);
+            }
+            TopDocs hits = searcher.search(query, 10);
+            totalHits += hits.totalHits;
+            for (int j = 0; j < hits.scoreDocs.length; j++) {
+                // the stored fields must be readable with every directory implementation
+                assertNotNull(searcher.doc(hits.scoreDocs[j].doc).get(CmsSearchField.FIELD_PATH));
+            }
+        }
+        return totalHits;
+    }
+}
@@ -27,6 +27,7 @@
 
 package org.opencms.search;
 
+import org.opencms.file.CmsFile;
 import org.opencms.file.CmsObject;
 import org.opencms.file.CmsProperty;
 import org.opencms.file.CmsPropertyDefinition;
@@ -36,6 +37,7 @@ import org.opencms.file.types.CmsResourceTypePlain;
 import org.opencms.main.OpenCms;
 import org.opencms.report.CmsShellReport;
 import org.opencms.report.I_CmsReport;
+import org.opencms.search.fields.CmsSearchField;
 import org.opencms.test.OpenCmsTestCase;
 import org.opencms.test.OpenCmsTestProperties;
 
@@ -78,6 +80,7 @@ public class TestCmsSearchOffline extends OpenCmsTestCase {
 
         suite.addTest(new TestCmsSearchOffline("testSearchIndexSetup"));
         suite.addTest(new TestCmsSearchOffline("testIndexUpdateOnModification"));
+        suite.addTest(new TestCmsSearchOffline("testIndexUpdateOnPropertyChange"));
 
         TestSetup wrapper = new TestSetup(suite) {
 
@@ -136,6 +139,68 @@ public class TestCmsSearchOffline extends OpenCmsTestCase {
         assertEquals("/sites/default/xmlcontent/article_0001.html", searchResult.get(0).getPath());
     }
 
+    /**
+     * Tests that the content of a resource is not extracted again if only a property has been changed.<p>
+     * 
+     * @throws Exception in case the test fails
+     */
+    public void testIndexUpdateOnPropertyChange() throws Exception {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing index update after a property change without text extraction");
+
+        // count the text extractions of plain text files
+        CmsSearchDocumentType docType = OpenCms.getSearchManager().getDocumentTypeConfig("text");
+        String className = docType.getClassName();
+        docType.setClassName(CmsTestCountingDocument.class.getName());
+        OpenCms.getSearchManager().initAvailableDocumentTypes();
+        try {
+            CmsTestCountingDocument.resetExtractions();
+            String fileName = "/test/counting.txt";
+            byte[] content = "CountingEgg content".getBytes();
+            cms.createResource(fileName, CmsResourceTypePlain.getStaticTypeId(), content, null);
+
+            // wait for the offline index
+            waitForUpdate();
+            assertEquals(1, CmsTestCountingDocument.getExtractions());
+
+            CmsSearch cmsSearchBean = new CmsSearch();
+            cmsSearchBean.init(cms);
+            cmsSearchBean.setIndex(INDEX_SPECIAL);
+            cmsSearchBean.setSearchRoot("/");
+            cmsSearchBean.setField(new String[] {CmsSearchField.FIELD_TITLE_UNSTORED, CmsSearchField.FIELD_CONTENT});
+            cmsSearchBean.setQuery("CountingEgg");
+            assertEquals(1, cmsSearchBean.getSearchResult().size());
+
+            // change only a property, the content must be taken from the index
+            CmsTestCountingDocument.resetExtractions();
+            cms.writePropertyObject(fileName, new CmsProperty(
+                CmsPropertyDefinition.PROPERTY_TITLE,
+                "CountingTitle",
+                ""));
+            waitForUpdate();
+            assertEquals(0, CmsTestCountingDocument.getExtractions());
+            cmsSearchBean.setQuery("CountingTitle");
+            assertEquals(1, cmsSearchBean.getSearchResult().size());
+            cmsSearchBean.setQuery("CountingEgg");
+            assertEquals(1, cmsSearchBean.getSearchResult().size());
+
+            // change the content, now the content must be extracted again
+            CmsFile file = cms.readFile(fileName);
+            file.setContents("CountingChanged content".getBytes());
+            cms.writeFile(file);
+            waitForUpdate();
+            assertEquals(1, CmsTestCountingDocument.getExtractions());
+            cmsSearchBean.setQuery("CountingChanged");
+            assertEquals(1, cmsSearchBean.getSearchResult().size());
+            cmsSearchBean.setQuery("CountingEgg");
+            assertEquals(0, cmsSearchBean.getSearchResult().size());
+        } finally {
+            docType.setClassName(className);
+            OpenCms.getSearchManager().initAvailableDocumentTypes();
+        }
+    }
+
     protected void waitForUpdate() throws InterruptedException {
 
         // wait for the offline index
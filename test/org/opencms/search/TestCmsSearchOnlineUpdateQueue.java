@@ -0,0 +1,301 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.search;
+
+import org.opencms.file.CmsFile;
+import org.opencms.file.CmsObject;
+import org.opencms.file.types.CmsResourceTypePlain;
+import org.opencms.main.OpenCms;
+import org.opencms.publish.CmsPublishJobFinished;
+import org.opencms.report.CmsShellReport;
+import org.opencms.report.I_CmsReport;
+import org.opencms.test.OpenCmsTestCase;
+import org.opencms.test.OpenCmsTestProperties;
+import org.opencms.util.CmsUUID;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import junit.extensions.TestSetup;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+import org.apache.lucene.index.SegmentInfos;
+import org.apache.lucene.store.Directory;
+
+/**
+ * Unit tests for the asynchronous update of the online indexes with the {@link CmsSearchOnlineUpdateQueue}.<p>
+ */
+public class TestCmsSearchOnlineUpdateQueue extends OpenCmsTestCase {
+
+    /** Name of the online search index created for this test. */
+    public static final String INDEX_QUEUE = "Online Queue Index";
+
+    /**
+     * Default JUnit constructor.<p>
+     * 
+     * @param arg0 JUnit parameters
+     */
+    public TestCmsSearchOnlineUpdateQueue(String arg0) {
+
+        super(arg0);
+    }
+
+    /**
+     * Test suite for this test class.<p>
+     * 
+     * @return the test suite
+     */
+    public static Test suite() {
+
+        OpenCmsTestProperties.initialize(org.opencms.test.AllTests.TEST_PROPERTIES_PATH);
+
+        TestSuite suite = new TestSuite();
+        suite.setName(TestCmsSearchOnlineUpdateQueue.class.getName());
+
+        suite.addTest(new TestCmsSearchOnlineUpdateQueue("testSearchIndexSetup"));
+        suite.addTest(new TestCmsSearchOnlineUpdateQueue("testCoalescingAndBatching"));
+        suite.addTest(new TestCmsSearchOnlineUpdateQueue("testResumeFromCommitData"));
+
+        TestSetup wrapper = new TestSetup(suite) {
+
+            @Override
+            protected void setUp() {
+
+                setupOpenCms("simpletest", "/");
+            }
+
+            @Override
+            protected void tearDown() {
+
+                removeOpenCms();
+            }
+        };
+
+        return wrapper;
+    }
+
+    /**
+     * Creates the online search index for this test and enables the online update queue.<p>
+     * 
+     * @throws Exception in case the test fails
+     */
+    public void testSearchIndexSetup() throws Exception {
+
+        CmsSearchIndex searchIndex = new CmsSearchIndex(INDEX_QUEUE);
+        searchIndex.setProjectName("Online");
+        searchIndex.setLocale(Locale.ENGLISH);
+        searchIndex.setRebuildMode(CmsSearchIndex.REBUILD_MODE_AUTO);
+        // available pre-configured in the test configuration files opencms-search.xml
+        searchIndex.addSourceName("source1");
+        searchIndex.initialize();
+        OpenCms.getSearchManager().addSearchIndex(searchIndex);
+
+        I_CmsReport report = new CmsShellReport(Locale.ENGLISH);
+        OpenCms.getSearchManager().rebuildIndex(INDEX_QUEUE, report);
+        // a rebuild does not store a publish id, so no publish job is restored 
+        assertNull(searchIndex.getCommitData().get(CmsSearchOnlineUpdateQueue.COMMIT_DATA_PUBLISH_ID));
+
+        // the queue of the search manager collects the publish jobs, but never processes them in this test
+        OpenCms.getSearchManager().setOnlineUpdateFrequency(60L * 60L * 1000L);
+        OpenCms.getSearchManager().initOnlineUpdateQueue();
+        assertEquals(0, OpenCms.getSearchManager().getOnlineUpdateQueueSize());
+    }
+
+    /**
+     * Tests that several publish jobs are merged into one index update which is committed in batches.<p>
+     * 
+     * @throws Exception in case the test fails
+     */
+    public void testCoalescingAndBatching() throws Exception {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing coalescing and batching of publish jobs in the online update queue");
+
+        CmsSearchManager searchManager = OpenCms.getSearchManager();
+        CmsSearchIndex index = searchManager.getIndex(INDEX_QUEUE);
+        int historySize = OpenCms.getPublishManager().getPublishHistory().size();
+
+        // three publish jobs, the last one changes the resource of the first job again
+        createAndPublish(cms, "/queue_a.txt", "QueueEggA QueueEggOld");
+        createAndPublish(cms, "/queue_b.txt", "QueueEggB");
+        cms.lockResource("/queue_a.txt");
+        CmsFile file = cms.readFile("/queue_a.txt");
+        file.setContents("QueueEggA QueueEggNew".getBytes());
+        cms.writeFile(file);
+        cms.unlockResource("/queue_a.txt");
+        publish(cms, "/queue_a.txt");
+
+        // the publish jobs are queued, the online index has not been updated yet
+        assertEquals(3, searchManager.getOnlineUpdateQueueSize());
+        assertEquals(0, search(cms, "QueueEggA"));
+        assertTrue(searchManager.getOnlineUpdateLag(INDEX_QUEUE) > 0);
+
+        List<CmsPublishJobFinished> history = OpenCms.getPublishManager().getPublishHistory();
+        assertEquals(historySize + 3, history.size());
+        CmsSearchOnlineUpdateQueue queue = new CmsSearchOnlineUpdateQueue(searchManager, cms);
+        for (int i = historySize; i < history.size(); i++) {
+            queue.addPublishJob(history.get(i).getPublishHistoryId());
+        }
+        // adding a job twice does not enqueue it again
+        queue.addPublishJob(history.get(historySize).getPublishHistoryId());
+        assertEquals(3, queue.getSize());
+
+        int maxModifications = searchManager.getMaxModificationsBeforeCommit();
+        long generation = getCommitGeneration(index);
+        try {
+            // commit after every resource
+            searchManager.setMaxModificationsBeforeCommit(1);
+            queue.processPublishJobs(new CmsShellReport(Locale.ENGLISH));
+        } finally {
+            searchManager.setMaxModificationsBeforeCommit(maxModifications);
+        }
+        assertEquals(0, queue.getSize());
+        assertEquals(0, queue.getLag(INDEX_QUEUE));
+
+        // two resources have been changed by the three jobs, so there is one commit per resource
+        assertEquals(generation + 2, getCommitGeneration(index));
+        // the last processed publish job is stored with the last commit
+        assertEquals(
+            history.get(history.size() - 1).getPublishHistoryId().toString(),
+            index.getCommitData().get(CmsSearchOnlineUpdateQueue.COMMIT_DATA_PUBLISH_ID));
+
+        assertEquals(0, search(cms, "QueueEggOld"));
+        assertEquals(1, search(cms, "+QueueEggA +QueueEggNew"));
+        assertEquals(1, search(cms, "QueueEggB"));
+    }
+
+    /**
+     * Tests that a new queue only restores the publish jobs after the publish id stored in the index.<p>
+     * 
+     * @throws Exception in case the test fails
+     */
+    public void testResumeFromCommitData() throws Exception {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing resuming the online update queue from the publish id stored in the index");
+
+        CmsSearchManager searchManager = OpenCms.getSearchManager();
+        CmsSearchIndex index = searchManager.getIndex(INDEX_QUEUE);
+
+        // two publish jobs that have not been processed, e.g. because the server was shut down
+        createAndPublish(cms, "/queue_c.txt", "QueueEggC");
+        createAndPublish(cms, "/queue_d.txt", "QueueEggD");
+        assertEquals(0, search(cms, "QueueEggC"));
+
+        List<CmsPublishJobFinished> history = OpenCms.getPublishManager().getPublishHistory();
+        CmsUUID lastPublishId = history.get(history.size() - 1).getPublishHistoryId();
+
+        // the restored queue contains only the jobs after the stored publish id
+        CmsSearchOnlineUpdateQueue queue = new CmsSearchOnlineUpdateQueue(searchManager, cms);
+        queue.initialize(Collections.singletonList(index));
+        assertEquals(2, queue.getSize());
+
+        queue.processPublishJobs(new CmsShellReport(Locale.ENGLISH));
+        assertEquals(0, queue.getSize());
+        assertEquals(1, search(cms, "QueueEggC"));
+        assertEquals(1, search(cms, "QueueEggD"));
+        assertEquals(
+            lastPublishId.toString(),
+            index.getCommitData().get(CmsSearchOnlineUpdateQueue.COMMIT_DATA_PUBLISH_ID));
+
+        // nothing is restored once the index is up to date
+        queue = new CmsSearchOnlineUpdateQueue(searchManager, cms);
+        queue.initialize(Collections.singletonList(index));
+        assertEquals(0, queue.getSize());
+    }
+
+    /**
+     * Creates a text file with the given content in the offline project and publishes it.<p>
+     * 
+     * @param cms the OpenCms user context to use
+     * @param path the path of the file to create
+     * @param content the content of the file
+     * 
+     * @throws Exception if something goes wrong
+     */
+    private void createAndPublish(CmsObject cms, String path, String content) throws Exception {
+
+        cms.createResource(path, CmsResourceTypePlain.getStaticTypeId(), content.getBytes(), null);
+        cms.unlockResource(path);
+        publish(cms, path);
+    }
+
+    /**
+     * Returns the generation of the last commit of the given index.<p>
+     * 
+     * @param index the index
+     * 
+     * @return the generation of the last commit of the given index
+     * 
+     * @throws Exception if something goes wrong
+     */
+    private long getCommitGeneration(CmsSearchIndex index) throws Exception {
+
+        Directory dir = index.createIndexDirectory(new File(index.getPath()));
+        try {
+            return SegmentInfos.getCurrentSegmentGeneration(dir);
+        } finally {
+            dir.close();
+        }
+    }
+
+    /**
+     * Publishes the given resource and waits until the publish job is finished.<p>
+     * 
+     * @param cms the OpenCms user context to use
+     * @param path the path of the resource to publish
+     * 
+     * @throws Exception if something goes wrong
+     */
+    private void publish(CmsObject cms, String path) throws Exception {
+
+        OpenCms.getPublishManager().publishResource(cms, path);
+        OpenCms.getPublishManager().waitWhileRunning();
+    }
+
+    /**
+     * Returns the number of results for the given query in the test index.<p>
+     * 
+     * @param cms the OpenCms user context to use
+     * @param query the query
+     * 
+     * @return the number of results for the given query in the test index
+     */
+    private int search(CmsObject cms, String query) {
+
+        CmsSearch searchBean = new CmsSearch();
+        searchBean.init(cms);
+        searchBean.setIndex(INDEX_QUEUE);
+        searchBean.setSearchRoot("/");
+        searchBean.setQuery(query);
+        return searchBean.getSearchResult().size();
+    }
+}
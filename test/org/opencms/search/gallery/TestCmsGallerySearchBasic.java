@@ -32,7 +32,9 @@ import org.opencms.main.OpenCms;
 import org.opencms.report.CmsShellReport;
 import org.opencms.report.I_CmsReport;
 import org.opencms.search.CmsSearchIndex;
+import org.opencms.search.fields.CmsSearchField;
 import org.opencms.search.galleries.CmsGallerySearch;
+import org.opencms.search.galleries.CmsGallerySearchCursor;
 import org.opencms.search.galleries.CmsGallerySearchIndex;
 import org.opencms.search.galleries.CmsGallerySearchParameters;
 import org.opencms.search.galleries.CmsGallerySearchResult;
@@ -51,6 +53,10 @@ import junit.extensions.TestSetup;
 import junit.framework.Test;
 import junit.framework.TestSuite;
 
+import org.apache.lucene.search.FieldDoc;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SortField;
+
 /**
  * Unit test for the basic OpenCms gallery search functions.<p>
  */
@@ -145,6 +151,8 @@ public class TestCmsGallerySearchBasic extends OpenCmsTestCase {
 
         suite.addTest(new TestCmsGallerySearchBasic("testGallerySearchIndexCreation"));
         suite.addTest(new TestCmsGallerySearchBasic("testGallerySortSearchResults"));
+        suite.addTest(new TestCmsGallerySearchBasic("testGallerySearchPaging"));
+        suite.addTest(new TestCmsGallerySearchBasic("testGallerySearchCursor"));
 
         TestSetup wrapper = new TestSetup(suite) {
 
@@ -183,6 +191,93 @@ public class TestCmsGallerySearchBasic extends OpenCmsTestCase {
         assertEquals("Index for galleries not of required class", CmsGallerySearchIndex.class, adeIndex.getClass());
     }
 
+    /**
+     * Tests the gallery search result cursor.<p>
+     * 
+     * @throws Exception if the test fails
+     */
+    public void testGallerySearchCursor() throws Exception {
+
+        echo("Testing the gallery search result cursor");
+
+        SortField[] sortFields = CmsGallerySearchCursor.getSort(CmsGallerySearchParameters.SORT_TITLE_ASC).getSort();
+        assertEquals(3, sortFields.length);
+        assertEquals(CmsSearchField.FIELD_PATH, sortFields[2].getField());
+        // the path is not added twice
+        assertEquals(1, CmsGallerySearchCursor.getSort(CmsGallerySearchParameters.SORT_PATH_DESC).getSort().length);
+
+        FieldDoc hit = new FieldDoc(5, 1.5f, new Comparable[] {"a|b:c", new Float(1.5f), "/sites/default/x|y.html"});
+        String cursorStr = new CmsGallerySearchCursor(hit, 7).toString();
+        CmsGallerySearchCursor cursor = CmsGallerySearchCursor.fromString(cursorStr);
+        assertNotNull(cursor);
+        assertEquals(7, cursor.getInvisibleHits());
+        assertEquals(cursorStr, cursor.toString());
+        assertEquals(0, cursor.compareTo(hit, sortFields));
+
+        // the position depends only on the sort key, not on the document id
+        ScoreDoc[] hits = new ScoreDoc[] {
+            new FieldDoc(9, 1.0f, new Comparable[] {"a", new Float(1.0f), "/a.html"}),
+            new FieldDoc(1, 2.0f, new Comparable[] {"a|b:c", new Float(2.0f), "/a.html"}),
+            new FieldDoc(3, 1.5f, new Comparable[] {"a|b:c", new Float(1.5f), "/sites/default/x|y.html"}),
+            new FieldDoc(2, 1.5f, new Comparable[] {"a|b:c", new Float(1.5f), "/sites/default/z.html"}),
+            new FieldDoc(4, 1.0f, new Comparable[] {"b", new Float(1.0f), "/b.html"})};
+        assertEquals(3, cursor.getNextPosition(hits, hits.length, sortFields));
+        // the last hit of the previous page has been deleted
+        ScoreDoc[] hitsAfterDelete = new ScoreDoc[] {hits[0], hits[1], hits[3], hits[4]};
+        assertEquals(2, cursor.getNextPosition(hitsAfterDelete, hitsAfterDelete.length, sortFields));
+
+        assertNull(CmsGallerySearchCursor.fromString(null));
+        assertNull(CmsGallerySearchCursor.fromString("12"));
+        assertNull(CmsGallerySearchCursor.fromString("x|s3:abc"));
+    }
+
+    /**
+     * Tests paging of search results with and without the result cursor.<p>
+     * 
+     * @throws Exception if the test fails
+     */
+    public void testGallerySearchPaging() throws Exception {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing paging of search results for galleries");
+
+        CmsGallerySearch searchBean = new CmsGallerySearch();
+        CmsGallerySearchParameters searchParams = new CmsGallerySearchParameters();
+        searchBean.init(cms);
+        searchBean.setIndex(CmsGallerySearchIndex.GALLERY_INDEX_NAME);
+        searchParams.setSearchWords("OpenCms");
+        searchParams.setSortOrder(CmsGallerySortParam.path_asc);
+
+        // read all results in one page
+        searchParams.setMatchesPerPage(1000);
+        CmsGallerySearchResultList allResults = searchBean.getResult(searchParams);
+        printResults(allResults, cms);
+        assertTrue(allResults.size() > 10);
+        assertEquals(allResults.size(), allResults.getHitCount());
+
+        // now read the same results page by page
+        int matchesPerPage = 3;
+        searchParams.setMatchesPerPage(matchesPerPage);
+        String cursor = null;
+        for (int page = 1; ((page - 1) * matchesPerPage) < allResults.size(); page++) {
+            for (int useCursor = 0; useCursor < 2; useCursor++) {
+                searchParams.setResultPage(page);
+                searchParams.setResultCursor(useCursor == 0 ? null : cursor);
+                CmsGallerySearchResultList pageResults = searchBean.getResult(searchParams);
+                assertEquals(allResults.getHitCount(), pageResults.getHitCount());
+                int start = (page - 1) * matchesPerPage;
+                int end = Math.min(start + matchesPerPage, allResults.size());
+                assertEquals(end - start, pageResults.size());
+                for (int i = start; i < end; i++) {
+                    assertEquals(allResults.get(i).getPath(), pageResults.get(i - start).getPath());
+                }
+                if (useCursor == 1) {
+                    cursor = pageResults.getNextCursor();
+                }
+            }
+        }
+    }
+
     /**
      * Tests sorting of search results.<p>
      * 
@@ -59,9 +59,11 @@ public final class AllTests {
         OpenCmsTestProperties.initialize(org.opencms.test.AllTests.TEST_PROPERTIES_PATH);
         //$JUnit-BEGIN$
         suite.addTest(TestCmsPrincipal.suite());
+        suite.addTestSuite(TestCmsRoleMembership.class);
         suite.addTest(TestLoginAndPasswordHandler.suite());
         suite.addTest(TestOrganizationalUnits.suite());
         suite.addTest(TestRoles.suite());
+        suite.addTest(TestUserSearch.suite());
         //$JUnit-END$
         return suite;
     }
@@ -0,0 +1,123 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.security;
+
+import org.opencms.file.CmsGroup;
+import org.opencms.util.CmsUUID;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the role membership of users.<p>
+ *
+ * @since 8.0.2
+ */
+public class TestCmsRoleMembership extends TestCase {
+
+    /**
+     * Default JUnit constructor.<p>
+     *
+     * @param arg0 JUnit parameters
+     */
+    public TestCmsRoleMembership(String arg0) {
+
+        super(arg0);
+    }
+
+    /**
+     * Tests the role checks for organizational unit dependent and independent roles.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testHasRole() throws Exception {
+
+        CmsRoleMembership membership = createMembership(new String[] {
+            "a/RoleAccountManagers",
+            "b/RoleVfsManagers",
+            "RoleWorkplaceManager"});
+
+        // direct membership, in the organizational unit and its sub units
+        assertTrue(membership.hasRole(CmsRole.ACCOUNT_MANAGER.forOrgUnit("a/")));
+        assertTrue(membership.hasRole(CmsRole.ACCOUNT_MANAGER.forOrgUnit("a/sub/")));
+        assertTrue(membership.hasRole(CmsRole.ACCOUNT_MANAGER.forOrgUnit(null)));
+        assertFalse(membership.hasRole(CmsRole.ACCOUNT_MANAGER.forOrgUnit("b/")));
+        assertFalse(membership.hasRole(CmsRole.ACCOUNT_MANAGER.forOrgUnit("")));
+
+        // indirect membership by a parent role
+        assertTrue(membership.hasRole(CmsRole.DEVELOPER.forOrgUnit("b/")));
+        assertFalse(membership.hasRole(CmsRole.DEVELOPER.forOrgUnit("a/")));
+
+        // parent roles are not granted by child roles
+        assertFalse(membership.hasRole(CmsRole.ADMINISTRATOR.forOrgUnit("a/")));
+        assertFalse(membership.hasRole(CmsRole.ADMINISTRATOR.forOrgUnit(null)));
+
+        // organizational unit independent roles
+        assertTrue(membership.hasRole(CmsRole.WORKPLACE_MANAGER));
+        assertTrue(membership.hasRole(CmsRole.WORKPLACE_MANAGER.forOrgUnit("a/")));
+        assertFalse(membership.hasRole(CmsRole.ROOT_ADMIN));
+        assertFalse(membership.hasRole(CmsRole.DATABASE_MANAGER));
+    }
+
+    /**
+     * Tests that the root administrator has all roles in all organizational units.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testRootAdmin() throws Exception {
+
+        CmsRoleMembership membership = createMembership(new String[] {"RoleRootAdmins"});
+        for (CmsRole role : CmsRole.getSystemRoles()) {
+            assertTrue(role.getRoleName(), membership.hasRole(role));
+            assertTrue(role.getRoleName(), membership.hasRole(role.forOrgUnit("a/b/")));
+        }
+
+        CmsRoleMembership empty = createMembership(new String[0]);
+        for (CmsRole role : CmsRole.getSystemRoles()) {
+            assertFalse(role.getRoleName(), empty.hasRole(role));
+        }
+    }
+
+    /**
+     * Creates a role membership for the given role group names.<p>
+     *
+     * @param groupNames the fully qualified role group names
+     *
+     * @return the role membership
+     */
+    private CmsRoleMembership createMembership(String[] groupNames) {
+
+        List<CmsGroup> groups = new ArrayList<CmsGroup>();
+        for (int i = 0; i < groupNames.length; i++) {
+            groups.add(new CmsGroup(new CmsUUID(), null, groupNames[i], "", I_CmsPrincipal.FLAG_GROUP_ROLE));
+        }
+        return new CmsRoleMembership(groups);
+    }
+}
@@ -0,0 +1,254 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.security;
+
+import org.opencms.file.CmsObject;
+import org.opencms.file.CmsUser;
+import org.opencms.file.CmsUserSearchParameters;
+import org.opencms.main.OpenCms;
+import org.opencms.test.OpenCmsTestCase;
+import org.opencms.test.OpenCmsTestProperties;
+import org.opencms.util.CmsUUID;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import junit.extensions.TestSetup;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+/**
+ * Unit tests for the paged user search on a generated set of users.<p>
+ *
+ * @since 8.0.2
+ */
+public class TestUserSearch extends OpenCmsTestCase {
+
+    /** The page size used in the tests. */
+    private static final int PAGE_SIZE = 47;
+
+    /** The organizational unit of the generated users. */
+    private static final String OU_NAME = "usersearch/";
+
+    /** The number of generated users. */
+    private static final int USER_COUNT = 1000;
+
+    /**
+     * Default JUnit constructor.<p>
+     *
+     * @param arg0 JUnit parameters
+     */
+    public TestUserSearch(String arg0) {
+
+        super(arg0);
+    }
+
+    /**
+     * Test suite for this test class.<p>
+     *
+     * @return the test suite
+     */
+    public static Test suite() {
+
+        OpenCmsTestProperties.initialize(org.opencms.test.AllTests.TEST_PROPERTIES_PATH);
+
+        TestSuite suite = new TestSuite();
+        suite.setName(TestUserSearch.class.getName());
+
+        suite.addTest(new TestUserSearch("testCreateUsers"));
+        suite.addTest(new TestUserSearch("testKeysetPaging"));
+        suite.addTest(new TestUserSearch("testLargeListLatency"));
+
+        TestSetup wrapper = new TestSetup(suite) {
+
+            @Override
+            protected void setUp() {
+
+                setupOpenCms("simpletest", "/");
+            }
+
+            @Override
+            protected void tearDown() {
+
+                removeOpenCms();
+            }
+        };
+
+        return wrapper;
+    }
+
+    /**
+     * Generates the users for the search tests.<p>
+     *
+     * @throws Throwable if something goes wrong
+     */
+    public void testCreateUsers() throws Throwable {
+
+        CmsObject cms = getCmsObject();
+        echo("Generating " + USER_COUNT + " users");
+        OpenCms.getOrgUnitManager().createOrganizationalUnit(cms, OU_NAME, "user search test ou", 0, "");
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < USER_COUNT; i++) {
+            // the names are not created in sort order
+            String name = OU_NAME + "user" + ((i * 7919) % USER_COUNT);
+            cms.createUser(name, "password", "generated user " + i, null);
+        }
+        echo("Generated " + USER_COUNT + " users in " + (System.currentTimeMillis() - start) + " ms");
+
+        CmsUserSearchParameters params = createSearchParameters(cms);
+        assertEquals(USER_COUNT, OpenCms.getOrgUnitManager().countUsers(cms, params));
+    }
+
+    /**
+     * Tests that keyset paging returns the same users in the same order as offset paging.<p>
+     *
+     * @throws Throwable if something goes wrong
+     */
+    public void testKeysetPaging() throws Throwable {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing keyset paging of the user search");
+
+        for (int k = 0; k < 3; k++) {
+            boolean ascending = k != 1;
+            CmsUserSearchParameters.SortKey sortKey = (k == 2) ? null : CmsUserSearchParameters.SortKey.loginName;
+            List<CmsUUID> byOffset = new ArrayList<CmsUUID>();
+            List<CmsUUID> byKeyset = new ArrayList<CmsUUID>();
+            CmsUserSearchParameters params = createSearchParameters(cms);
+            params.setSorting(sortKey, ascending);
+            int page = 1;
+            List<CmsUser> users;
+            do {
+                params.setPaging(PAGE_SIZE, page);
+                users = OpenCms.getOrgUnitManager().searchUsers(cms, params);
+                for (CmsUser user : users) {
+                    byOffset.add(user.getId());
+                }
+                page++;
+            } while (users.size() == PAGE_SIZE);
+
+            CmsUser lastUser = null;
+            do {
+                params.setPaging(PAGE_SIZE, 1, lastUser);
+                assertEquals(lastUser != null, params.isKeysetPaging());
+                users = OpenCms.getOrgUnitManager().searchUsers(cms, params);
+                for (CmsUser user : users) {
+                    byKeyset.add(user.getId());
+                    lastUser = user;
+                }
+            } while (users.size() == PAGE_SIZE);
+
+            assertEquals(USER_COUNT, byOffset.size());
+            assertEquals(USER_COUNT, new HashSet<CmsUUID>(byOffset).size());
+            assertEquals(byOffset, byKeyset);
+        }
+
+        // keyset paging is not possible for other sort keys, the page index must be used
+        CmsUserSearchParameters params = createSearchParameters(cms);
+        params.setSorting(CmsUserSearchParameters.SortKey.email, true);
+        params.setPaging(PAGE_SIZE, 2, cms.readUser(OU_NAME + "user0"));
+        assertFalse(params.isKeysetPaging());
+        List<CmsUser> secondPage = OpenCms.getOrgUnitManager().searchUsers(cms, params);
+        params.setPaging(PAGE_SIZE, 2);
+        assertNull(params.getLastUser());
+        assertEquals(OpenCms.getOrgUnitManager().searchUsers(cms, params), secondPage);
+
+        // switching back to offset paging must reset the last user
+        params.setSorting(CmsUserSearchParameters.SortKey.loginName, true);
+        params.setPaging(PAGE_SIZE, 1, cms.readUser(OU_NAME + "user0"));
+        assertTrue(params.isKeysetPaging());
+        params.setPaging(PAGE_SIZE, 1);
+        assertFalse(params.isKeysetPaging());
+        assertNull(params.getLastUser());
+    }
+
+    /**
+     * Measures the latency of reading all generated users page by page, with offset and with keyset paging.<p>
+     *
+     * @throws Throwable if something goes wrong
+     */
+    public void testLargeListLatency() throws Throwable {
+
+        CmsObject cms = getCmsObject();
+        echo("Measuring the latency of the paged user search");
+
+        CmsUserSearchParameters params = createSearchParameters(cms);
+        params.setSorting(CmsUserSearchParameters.SortKey.loginName, true);
+
+        long start = System.currentTimeMillis();
+        List<CmsUser> all = OpenCms.getOrgUnitManager().getUsers(cms, OU_NAME, false);
+        echo("Read all " + all.size() + " users at once in " + (System.currentTimeMillis() - start) + " ms");
+
+        start = System.currentTimeMillis();
+        Set<CmsUUID> ids = new HashSet<CmsUUID>();
+        int page = 1;
+        List<CmsUser> users;
+        do {
+            params.setPaging(PAGE_SIZE, page);
+            users = OpenCms.getOrgUnitManager().searchUsers(cms, params);
+            for (CmsUser user : users) {
+                ids.add(user.getId());
+            }
+            page++;
+        } while (users.size() == PAGE_SIZE);
+        echo("Read " + ids.size() + " users with offset paging in " + (System.currentTimeMillis() - start) + " ms");
+        assertEquals(USER_COUNT, ids.size());
+
+        start = System.currentTimeMillis();
+        ids.clear();
+        CmsUser lastUser = null;
+        do {
+            params.setPaging(PAGE_SIZE, 1, lastUser);
+            users = OpenCms.getOrgUnitManager().searchUsers(cms, params);
+            for (CmsUser user : users) {
+                ids.add(user.getId());
+                lastUser = user;
+            }
+        } while (users.size() == PAGE_SIZE);
+        echo("Read " + ids.size() + " users with keyset paging in " + (System.currentTimeMillis() - start) + " ms");
+        assertEquals(USER_COUNT, ids.size());
+    }
+
+    /**
+     * Creates the search parameters for the generated users.<p>
+     *
+     * @param cms the current cms context
+     *
+     * @return the search parameters
+     *
+     * @throws Exception if something goes wrong
+     */
+    private CmsUserSearchParameters createSearchParameters(CmsObject cms) throws Exception {
+
+        CmsUserSearchParameters params = new CmsUserSearchParameters();
+        params.setOrganizationalUnit(OpenCms.getOrgUnitManager().readOrganizationalUnit(cms, OU_NAME));
+        return params;
+    }
+}
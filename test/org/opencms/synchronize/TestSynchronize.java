@@ -41,7 +41,9 @@ import org.opencms.test.OpenCmsTestProperties;
 import org.opencms.util.CmsFileUtil;
 
 import java.io.File;
+import java.io.FileOutputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.List;
 
@@ -81,6 +83,7 @@ public class TestSynchronize extends OpenCmsTestCase {
         suite.addTest(new TestSynchronize("testSynchronize"));
         suite.addTest(new TestSynchronize("testLoadSaveSynchronizeSettings"));
         suite.addTest(new TestSynchronize("testSynchronizeSeveralFolders"));
+        suite.addTest(new TestSynchronize("testIncrementalSynchronize"));
 
         TestSetup wrapper = new TestSetup(suite) {
 
@@ -101,6 +104,90 @@ public class TestSynchronize extends OpenCmsTestCase {
         return wrapper;
     }
 
+    /**
+     * Tests the incremental synchronization with changes in the VFS and in the RFS.<p>
+     * 
+     * @throws Exception if the test fails
+     */
+    public void testIncrementalSynchronize() throws Exception {
+
+        String source = "/sites/default/folder1/";
+
+        CmsSynchronizeSettings syncSettings = new CmsSynchronizeSettings();
+        String dest = getTestDataPath("") + "sync3" + File.separator;
+        File destFolder = new File(dest);
+        if (!destFolder.exists()) {
+            destFolder.mkdirs();
+        }
+        syncSettings.setDestinationPathInRfs(dest);
+        ArrayList sourceList = new ArrayList();
+        sourceList.add(source);
+        syncSettings.setSourceListInVfs(sourceList);
+        syncSettings.setEnabled(true);
+
+        try {
+            CmsObject cms = getCmsObject();
+            echo("Testing the incremental synchronization");
+            cms.getRequestContext().setSiteRoot("/");
+
+            // the first synchronization into a new folder is a full scan
+            new CmsSynchronize(cms, syncSettings, new CmsShellReport(cms.getRequestContext().getLocale()));
+            File syncList = new File(dest, CmsSynchronize.SYNCLIST_FILENAME);
+            assertNotNull(CmsSynchronizeJournal.getInstance().getChanges(
+                syncSettings,
+                cms.getRequestContext().getCurrentProject().getUuid(),
+                syncList));
+
+            // change the VFS
+            cms.createResource(source + "incremental.txt", CmsResourceTypePlain.getStaticTypeId(), "new".getBytes(), null);
+            cms.lockResource(source + "page4.html");
+            cms.deleteResource(source + "page4.html", CmsResource.DELETE_PRESERVE_SIBLINGS);
+            cms.lockResource(source + "subfolder11/subsubfolder111/");
+            cms.moveResource(source + "subfolder11/subsubfolder111/", source + "subfolder11/moved/");
+
+            // change the RFS
+            File rfsFolder = new File(getRfsPath(cms, cms.readFolder(source + "subfolder12/"), syncSettings));
+            FileOutputStream out = new FileOutputStream(new File(rfsFolder, "rfs.txt"));
+            out.write("rfs".getBytes());
+            out.close();
+            assertTrue(new File(getRfsPath(
+                cms,
+                cms.readResource(source + "subfolder12/subsubfolder121/page1.html"),
+                syncSettings)).delete());
+
+            // sleep 2 seconds to avoid issues with file system timing
+            Thread.sleep(2000);
+            new CmsSynchronize(cms, syncSettings, new CmsShellReport(cms.getRequestContext().getLocale()));
+
+            // the VFS changes have been exported
+            assertTrue(new File(dest + "sites/default/folder1/incremental.txt").exists());
+            assertFalse(new File(dest + "sites/default/folder1/page4.html").exists());
+            assertFalse(new File(dest + "sites/default/folder1/subfolder11/subsubfolder111").exists());
+            assertTrue(new File(dest + "sites/default/folder1/subfolder11/moved/text.txt").exists());
+            // the RFS changes have been imported
+            assertTrue(cms.existsResource(source + "subfolder12/rfs.txt"));
+            assertState(cms, source + "subfolder12/subsubfolder121/page1.html", CmsResource.STATE_DELETED);
+
+            // a full scan must not find any other changes
+            String[] incremental = new String(CmsFileUtil.readFile(syncList)).split("\n");
+            CmsSynchronizeJournal.getInstance().clear();
+            assertNull(CmsSynchronizeJournal.getInstance().getChanges(
+                syncSettings,
+                cms.getRequestContext().getCurrentProject().getUuid(),
+                syncList));
+            new CmsSynchronize(cms, syncSettings, new CmsShellReport(cms.getRequestContext().getLocale()));
+            String[] full = new String(CmsFileUtil.readFile(syncList)).split("\n");
+            Arrays.sort(incremental);
+            Arrays.sort(full);
+            assertEquals(Arrays.asList(full), Arrays.asList(incremental));
+        } finally {
+
+            // remove the test data
+            echo("Purging directory " + dest);
+            CmsFileUtil.purgeDirectory(new File(dest));
+        }
+    }
+
     /**
      * Tests loading and saving the user synchronize settings.<p>
      * 
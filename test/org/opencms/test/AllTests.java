@@ -96,6 +96,7 @@ public final class AllTests {
         suite.addTest(org.opencms.file.types.AllTests.suite());
         suite.addTest(org.opencms.file.wrapper.AllTests.suite());
         suite.addTest(org.opencms.flex.AllTests.suite());
+        suite.addTest(org.opencms.gwt.AllTests.suite());
         suite.addTest(org.opencms.i18n.AllTests.suite());
         suite.addTest(org.opencms.importexport.AllTests.suite());
         suite.addTest(org.opencms.jsp.decorator.AllTests.suite());
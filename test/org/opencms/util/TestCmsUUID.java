@@ -37,10 +37,14 @@ import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.net.URI;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 import java.util.Random;
+import java.util.Set;
 
+import org.safehaus.uuid.EthernetAddress;
 import org.safehaus.uuid.UUID;
+import org.safehaus.uuid.UUIDGenerator;
 
 /** 
  * Test case for the UUID generator.<p>
@@ -62,6 +66,109 @@ public class TestCmsUUID extends OpenCmsTestCase {
         super(arg0);
     }
 
+    /**
+     * Compares the throughput of the UUID generator with the synchronized generator of the JUG library.<p>
+     * 
+     * @throws Exception if the test fails
+     */
+    public void testUUIDGeneratorThroughput() throws Exception {
+
+        final EthernetAddress address = new EthernetAddress(CmsUUID.getDummyEthernetAddress());
+        final CmsUUIDGenerator generator = new CmsUUIDGenerator(address);
+        Runnable task = new Runnable() {
+
+            public void run() {
+
+                generator.generate();
+            }
+        };
+        Runnable jugTask = new Runnable() {
+
+            public void run() {
+
+                UUIDGenerator.getInstance().generateTimeBasedUUID(address);
+            }
+        };
+        int count = 200000;
+        // warm up
+        runConcurrently(1, count, task);
+        runConcurrently(1, count, jugTask);
+        for (int threads = 1; threads <= 32; threads *= 2) {
+            long time = runConcurrently(threads, count / threads, task);
+            long jugTime = runConcurrently(threads, count / threads, jugTask);
+            System.out.println("Generated "
+                + count
+                + " UUIDs with "
+                + threads
+                + " threads in "
+                + time
+                + " ms, JUG needed "
+                + jugTime
+                + " ms");
+        }
+    }
+
+    /**
+     * Tests that the UUIDs generated concurrently are unique and have the layout of time based UUIDs.<p>
+     * 
+     * @throws Exception if the test fails
+     */
+    public void testUUIDGeneratorUniqueness() throws Exception {
+
+        String address = CmsUUID.getDummyEthernetAddress();
+        CmsUUID.init(address);
+        final int threads = 32;
+        final int perThread = 20000;
+        final CmsUUID[][] ids = new CmsUUID[threads][perThread];
+        Thread[] workers = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            final CmsUUID[] result = ids[i];
+            workers[i] = new Thread() {
+
+                @Override
+                public void run() {
+
+                    for (int j = 0; j < perThread; j++) {
+                        result[j] = new CmsUUID();
+                    }
+                }
+            };
+        }
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < threads; i++) {
+            workers[i].start();
+        }
+        for (int i = 0; i < threads; i++) {
+            workers[i].join();
+        }
+        long end = System.currentTimeMillis();
+
+        String node = address.replaceAll(":", "").toLowerCase();
+        Set<CmsUUID> unique = new HashSet<CmsUUID>();
+        for (int i = 0; i < threads; i++) {
+            for (int j = 0; j < perThread; j++) {
+                CmsUUID id = ids[i][j];
+                assertTrue(id.toString(), unique.add(id));
+                UUID uuid = new UUID(id.toByteArray());
+                assertEquals(UUID.TYPE_TIME_BASED, uuid.getType());
+                assertEquals(0x80, id.toByteArray()[8] & 0xC0);
+                assertTrue(id.toString(), id.toString().endsWith(node));
+                assertTrue(CmsUUID.isValidUUID(id.toString()));
+                // the timestamps may run a little ahead of the clock if many ids are created
+                long time = getTime(id);
+                assertTrue(time >= (start - 1000));
+                assertTrue(time <= (end + 1000));
+            }
+        }
+        assertEquals(threads * perThread, unique.size());
+
+        // the ids created by the JUG library must have the same layout
+        UUID jugId = UUIDGenerator.getInstance().generateTimeBasedUUID(new EthernetAddress(address));
+        CmsUUID id = new CmsUUID(jugId.toByteArray());
+        assertTrue(id.toString().endsWith(node));
+        assertTrue(Math.abs(getTime(id) - System.currentTimeMillis()) < 1000);
+    }
+
     /**
      * Tests UUID generation.<p>
      * 
@@ -239,6 +346,61 @@ public class TestCmsUUID extends OpenCmsTestCase {
         return oin.readObject();
     }
 
+    /**
+     * Returns the time of a time based UUID in milliseconds.<p>
+     * 
+     * @param id the time based UUID
+     * 
+     * @return the time of the UUID
+     */
+    protected long getTime(CmsUUID id) {
+
+        byte[] data = id.toByteArray();
+        long bits = 0;
+        for (int i = 0; i < 8; i++) {
+            bits = (bits << 8) | (data[i] & 0xFF);
+        }
+        long timestamp = ((bits & 0x0FFFL) << 48) | (((bits >>> 16) & 0xFFFFL) << 32) | (bits >>> 32);
+        // 100 nanosecond intervals since 15 October 1582
+        return (timestamp - 0x01B21DD213814000L) / 10000L;
+    }
+
+    /**
+     * Runs the given task in the given number of threads and returns the time needed.<p>
+     * 
+     * @param threads the number of threads
+     * @param runs the number of runs per thread
+     * @param task the task to run
+     * 
+     * @return the time needed in milliseconds
+     * 
+     * @throws Exception if something goes wrong
+     */
+    protected long runConcurrently(int threads, final int runs, final Runnable task) throws Exception {
+
+        Thread[] workers = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Thread() {
+
+                @Override
+                public void run() {
+
+                    for (int j = 0; j < runs; j++) {
+                        task.run();
+                    }
+                }
+            };
+        }
+        long start = System.currentTimeMillis();
+        for (int i = 0; i < threads; i++) {
+            workers[i].start();
+        }
+        for (int i = 0; i < threads; i++) {
+            workers[i].join();
+        }
+        return System.currentTimeMillis() - start;
+    }
+
     /**
      * Serializes an object and stores the result into an internal Map using the given name.<p>
      * 
@@ -0,0 +1,222 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.xml.containerpage;
+
+import org.opencms.file.CmsObject;
+import org.opencms.main.OpenCms;
+import org.opencms.test.OpenCmsTestCase;
+import org.opencms.test.OpenCmsTestProperties;
+import org.opencms.util.CmsUUID;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import junit.extensions.TestSetup;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+/**
+ * Tests the cache for the rendered output of container page elements.<p>
+ */
+public class TestCmsADECache extends OpenCmsTestCase {
+
+    /**
+     * Default JUnit constructor.<p>
+     * 
+     * @param arg0 JUnit parameters
+     */
+    public TestCmsADECache(String arg0) {
+
+        super(arg0);
+    }
+
+    /**
+     * Test suite for this test class.<p>
+     * 
+     * @return the test suite
+     */
+    public static Test suite() {
+
+        OpenCmsTestProperties.initialize(org.opencms.test.AllTests.TEST_PROPERTIES_PATH);
+
+        TestSuite suite = new TestSuite();
+        suite.setName(TestCmsADECache.class.getName());
+
+        suite.addTest(new TestCmsADECache("testRenderedElementHitAndMiss"));
+        suite.addTest(new TestCmsADECache("testRenderedElementInvalidation"));
+        suite.addTest(new TestCmsADECache("testRenderedElementPublishInvalidation"));
+
+        TestSetup wrapper = new TestSetup(suite) {
+
+            @Override
+            protected void setUp() {
+
+                setupOpenCms("ade-setup", "/");
+                importData("adetest", "/sites/default/");
+            }
+
+            @Override
+            protected void tearDown() {
+
+                removeOpenCms();
+            }
+        };
+
+        return wrapper;
+    }
+
+    /**
+     * Tests that cached rendered elements are found under their key, and only there.<p>
+     * 
+     * @throws Exception in case something goes wrong
+     */
+    public void testRenderedElementHitAndMiss() throws Exception {
+
+        CmsADECache cache = OpenCms.getADEManager().getCache();
+        assertTrue(cache.isRenderedElementCacheEnabled());
+        CmsUUID elementId = new CmsUUID();
+        CmsUUID formatterId = new CmsUUID();
+        String key = cache.getRenderedElementKey(elementId, formatterId, "en_/index.html");
+        assertNull(cache.getCacheRenderedElement(key));
+
+        Map<String, List<String>> headers = Collections.singletonMap(
+            "Cache-Control",
+            Collections.singletonList("no-cache"));
+        cache.setCacheRenderedElement(key, new CmsRenderedElementBean(
+            "<p>test</p>",
+            headers,
+            createDependencies(elementId, formatterId)));
+
+        // hit
+        CmsRenderedElementBean cached = cache.getCacheRenderedElement(cache.getRenderedElementKey(
+            elementId,
+            formatterId,
+            "en_/index.html"));
+        assertNotNull(cached);
+        assertEquals("<p>test</p>", cached.getContent());
+        assertEquals(headers, cached.getHeaders());
+
+        // misses for another variation, element or formatter
+        assertNull(cache.getCacheRenderedElement(cache.getRenderedElementKey(elementId, formatterId, "de_/index.html")));
+        assertNull(cache.getCacheRenderedElement(cache.getRenderedElementKey(new CmsUUID(), formatterId, "en_/index.html")));
+        assertNull(cache.getCacheRenderedElement(cache.getRenderedElementKey(elementId, new CmsUUID(), "en_/index.html")));
+    }
+
+    /**
+     * Tests that only the rendered elements depending on the given resources are removed from the cache.<p>
+     * 
+     * @throws Exception in case something goes wrong
+     */
+    public void testRenderedElementInvalidation() throws Exception {
+
+        CmsADECache cache = OpenCms.getADEManager().getCache();
+        CmsUUID formatterId = new CmsUUID();
+        CmsUUID elementId = new CmsUUID();
+        CmsUUID otherElementId = new CmsUUID();
+        CmsUUID linkedId = new CmsUUID();
+
+        String key = cache.getRenderedElementKey(elementId, formatterId, "");
+        Set<CmsUUID> dependencies = createDependencies(elementId, formatterId);
+        dependencies.add(linkedId);
+        cache.setCacheRenderedElement(key, new CmsRenderedElementBean(
+            "element",
+            Collections.<String, List<String>> emptyMap(),
+            dependencies));
+        String otherKey = cache.getRenderedElementKey(otherElementId, formatterId, "");
+        cache.setCacheRenderedElement(otherKey, new CmsRenderedElementBean(
+            "other",
+            Collections.<String, List<String>> emptyMap(),
+            createDependencies(otherElementId, formatterId)));
+
+        // a resource only the first element links to
+        cache.uncacheRenderedElements(Collections.singleton(linkedId));
+        assertNull(cache.getCacheRenderedElement(key));
+        assertNotNull(cache.getCacheRenderedElement(otherKey));
+
+        // an unrelated resource
+        cache.uncacheRenderedElements(Collections.singleton(new CmsUUID()));
+        assertNotNull(cache.getCacheRenderedElement(otherKey));
+
+        // the formatter
+        cache.uncacheRenderedElements(Collections.singleton(formatterId));
+        assertNull(cache.getCacheRenderedElement(otherKey));
+    }
+
+    /**
+     * Tests that publishing a resource removes the rendered elements depending on it from the cache.<p>
+     * 
+     * @throws Exception in case something goes wrong
+     */
+    public void testRenderedElementPublishInvalidation() throws Exception {
+
+        CmsObject cms = getCmsObject();
+        CmsADECache cache = OpenCms.getADEManager().getCache();
+        CmsUUID contentId = cms.readResource("/containerpage/content.html").getStructureId();
+        CmsUUID formatterId = cms.readResource("/containerpage/formatter.jsp").getStructureId();
+        CmsUUID otherElementId = new CmsUUID();
+
+        String key = cache.getRenderedElementKey(contentId, formatterId, "");
+        cache.setCacheRenderedElement(key, new CmsRenderedElementBean(
+            "content",
+            Collections.<String, List<String>> emptyMap(),
+            createDependencies(contentId, formatterId)));
+        String otherKey = cache.getRenderedElementKey(otherElementId, new CmsUUID(), "");
+        cache.setCacheRenderedElement(otherKey, new CmsRenderedElementBean(
+            "other",
+            Collections.<String, List<String>> emptyMap(),
+            Collections.singleton(otherElementId)));
+
+        cms.lockResource("/containerpage/content.html");
+        cms.setDateLastModified("/containerpage/content.html", System.currentTimeMillis(), false);
+        cms.unlockResource("/containerpage/content.html");
+        OpenCms.getPublishManager().publishResource(cms, "/containerpage/content.html");
+        OpenCms.getPublishManager().waitWhileRunning();
+
+        assertNull(cache.getCacheRenderedElement(key));
+        assertNotNull(cache.getCacheRenderedElement(otherKey));
+    }
+
+    /**
+     * Creates a modifiable set with the given dependencies.<p>
+     * 
+     * @param elementId the element structure id
+     * @param formatterId the formatter structure id
+     * 
+     * @return the set of dependencies
+     */
+    private Set<CmsUUID> createDependencies(CmsUUID elementId, CmsUUID formatterId) {
+
+        Set<CmsUUID> dependencies = new HashSet<CmsUUID>();
+        dependencies.add(elementId);
+        dependencies.add(formatterId);
+        return dependencies;
+    }
+}